@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * <p>
+ * Compares the results of a benchmark run with a stored baseline and fails
+ * if any benchmark regressed. Both files are the JSON that JMH writes with
+ * "-rf json".
+ * </p>
+ * 
+ * <p>
+ * A benchmark is only reported as a regression if its score got worse by
+ * more than the threshold and by more than the sum of both runs' error
+ * margins, so that noisy benchmarks do not fail the build. Lower scores are
+ * better for every mode except throughput. The printed changes are positive
+ * for improvements and negative for regressions, regardless of the mode.
+ * </p>
+ * 
+ * <p>
+ * If there is no baseline yet, this only says so and succeeds.
+ * </p>
+ * 
+ * <p>
+ * Usage: BenchmarkComparison &lt;baseline&gt; &lt;results&gt; 
+ * &lt;threshold percent&gt;
+ * </p>
+ */
+public final class BenchmarkComparison {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static final String MODE_THROUGHPUT = "thrpt";
+	
+	/**
+	 * One benchmark's score from one run.
+	 */
+	private static final class Score {
+		private final String mode;
+		private final double score;
+		private final double error;
+		private final String unit;
+		
+		private Score(
+				final String mode,
+				final double score,
+				final double error,
+				final String unit) {
+			
+			this.mode = mode;
+			this.score = score;
+			this.error = error;
+			this.unit = unit;
+		}
+	}
+	
+	/**
+	 * Default constructor. Private so that no one can instantiate it.
+	 */
+	private BenchmarkComparison() {
+		// Do nothing.
+	}
+	
+	/**
+	 * Compares the results with the baseline and exits with a non-zero status
+	 * if any benchmark regressed.
+	 * 
+	 * @param args The baseline file, the results file, and the threshold as a
+	 * 			   percentage.
+	 */
+	public static void main(final String[] args) 
+			throws IOException, JSONException {
+		
+		if(args.length != 3) {
+			System.err.println(
+				"Usage: BenchmarkComparison <baseline> <results> " +
+					"<threshold percent>");
+			System.exit(2);
+		}
+		
+		// Without a baseline there is nothing to regress from, which is not
+		// an error, e.g. the first time the benchmarks are run.
+		File baselineFile = new File(args[0]);
+		if(! baselineFile.exists()) {
+			System.out.println(
+				"There is no baseline at " + 
+					baselineFile.getAbsolutePath() + 
+					", so nothing was compared. Run \"ant bench\" and " +
+					"then \"ant bench-baseline\" first.");
+			return;
+		}
+		
+		Map<String, Score> baseline = read(baselineFile);
+		Map<String, Score> results = read(new File(args[1]));
+		double threshold = Double.parseDouble(args[2]) / 100;
+		
+		List<String> regressions = new ArrayList<String>();
+		for(Map.Entry<String, Score> entry : results.entrySet()) {
+			String name = entry.getKey();
+			Score current = entry.getValue();
+			Score previous = baseline.get(name);
+			
+			if(previous == null) {
+				System.out.println("NEW        " + name + ": " + format(current));
+				continue;
+			}
+			else if(! previous.unit.equals(current.unit)) {
+				System.out.println(
+					"CHANGED    " + name + ": The unit changed from " +
+						previous.unit + " to " + current.unit + ".");
+				continue;
+			}
+			
+			// Positive changes are always improvements.
+			double change = (current.score - previous.score) / previous.score;
+			if(! MODE_THROUGHPUT.equals(current.mode)) {
+				change = -change;
+			}
+			boolean significant = 
+				Math.abs(current.score - previous.score) > 
+					(current.error + previous.error);
+			
+			String status;
+			if(significant && (change < -threshold)) {
+				status = "REGRESSION ";
+				regressions.add(name);
+			}
+			else if(significant && (change > threshold)) {
+				status = "IMPROVED   ";
+			}
+			else {
+				status = "OK         ";
+			}
+			
+			System.out.println(
+				status + name + ": " + 
+					format(previous) + " -> " + format(current) + 
+					String.format(" (%+.1f%%)", change * 100));
+		}
+		
+		for(String name : baseline.keySet()) {
+			if(! results.containsKey(name)) {
+				System.out.println("MISSING    " + name);
+			}
+		}
+		
+		if(! regressions.isEmpty()) {
+			System.err.println(
+				regressions.size() + " benchmark(s) regressed by more than " +
+					args[2] + "%.");
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Reads a JMH JSON result file.
+	 * 
+	 * @param file The file.
+	 * 
+	 * @return The score of each benchmark, keyed by the benchmark's name and
+	 * 		   its parameters.
+	 */
+	private static Map<String, Score> read(
+			final File file) 
+			throws IOException, JSONException {
+		
+		JSONArray runs = 
+			new JSONArray(
+				new String(Files.readAllBytes(file.toPath()), UTF_8));
+		
+		Map<String, Score> result = new TreeMap<String, Score>();
+		for(int i = 0; i < runs.length(); i++) {
+			JSONObject run = runs.getJSONObject(i);
+			JSONObject metric = run.getJSONObject("primaryMetric");
+			
+			// The error is "NaN" when there were too few iterations to
+			// compute it.
+			double error = metric.optDouble("scoreError", 0);
+			if(Double.isNaN(error)) {
+				error = 0;
+			}
+			
+			result.put(
+				getName(run),
+				new Score(
+					run.getString("mode"),
+					metric.getDouble("score"),
+					error,
+					metric.getString("scoreUnit")));
+		}
+		return result;
+	}
+	
+	/**
+	 * Builds a run's name from its benchmark and its sorted parameters.
+	 * 
+	 * @param run The run.
+	 * 
+	 * @return The run's name.
+	 */
+	private static String getName(
+			final JSONObject run) 
+			throws JSONException {
+		
+		StringBuilder builder = new StringBuilder(run.getString("benchmark"));
+		
+		JSONObject params = run.optJSONObject("params");
+		if(params != null) {
+			List<String> keys = new ArrayList<String>();
+			Iterator<?> keyIter = params.keys();
+			while(keyIter.hasNext()) {
+				keys.add((String) keyIter.next());
+			}
+			Collections.sort(keys);
+			
+			builder.append('[');
+			boolean firstPass = true;
+			for(String key : keys) {
+				if(firstPass) {
+					firstPass = false;
+				}
+				else {
+					builder.append(", ");
+				}
+				builder.append(key).append('=').append(params.getString(key));
+			}
+			builder.append(']');
+		}
+		
+		return builder.toString();
+	}
+	
+	/**
+	 * Formats a score with its error and unit.
+	 * 
+	 * @param score The score.
+	 * 
+	 * @return The formatted score.
+	 */
+	private static String format(final Score score) {
+		return 
+			String.format(
+				"%.3f +/- %.3f %s", 
+				score.score, 
+				score.error, 
+				score.unit);
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.config.grammar.custom;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long it takes to parse one prompt's condition, which is done
+ * for every conditioned prompt whenever a campaign is parsed. The condition
+ * cycles through the comparison operators and through numeric and "SKIPPED"
+ * values, joined by "and" and "or".
+ *
+ * <p>The parser is static, so this must only be run with one thread.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConditionValidatorBenchmark {
+	private static final String[] OPERATORS =
+		new String[] { "==", "!=", "<", ">", "<=", ">=" };
+
+	/**
+	 * The number of comparisons in the condition.
+	 */
+	@Param({ "1", "4", "16" })
+	public int numClauses;
+
+	private String condition;
+
+	/**
+	 * Builds the condition.
+	 */
+	@Setup
+	public void setUp() {
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < numClauses; i++) {
+			if(i > 0) {
+				builder.append((i % 2 == 0) ? " or " : " and ");
+			}
+
+			builder
+				.append("(prompt").append(i).append(' ')
+				.append(OPERATORS[i % OPERATORS.length]).append(' ');
+			if(i % 5 == 4) {
+				builder.append("SKIPPED");
+			}
+			else {
+				builder.append(i);
+			}
+			builder.append(')');
+		}
+		condition = builder.toString();
+	}
+
+	/**
+	 * Parses the condition.
+	 */
+	@Benchmark
+	public Map<String, List<ConditionValuePair>> validate() {
+		return ConditionValidator.validate(condition);
+	}
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import java.util.Random;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+import org.ohmage.exception.DomainException;
+
+/**
+ * The observer stream and data points shared by the benchmarks. The stream
+ * mirrors an accelerometer stream: each point has a mode, a speed, and a
+ * window of accelerometer samples.
+ *
+ * <p>Building a stream requires Concordia.js, so the "webapp.root" system
+ * property must be set to the directory that contains it.</p>
+ */
+public final class BenchmarkStreams {
+	/**
+	 * The stream's Concordia schema.
+	 */
+	public static final String SCHEMA =
+		"{" +
+			"\"type\":\"object\"," +
+			"\"fields\":[" +
+				"{\"name\":\"mode\",\"type\":\"string\"}," +
+				"{\"name\":\"speed\",\"type\":\"number\"}," +
+				"{" +
+					"\"name\":\"accel_data\"," +
+					"\"type\":\"array\"," +
+					"\"constType\":{" +
+						"\"type\":\"object\"," +
+						"\"fields\":[" +
+							"{\"name\":\"x\",\"type\":\"number\"}," +
+							"{\"name\":\"y\",\"type\":\"number\"}," +
+							"{\"name\":\"z\",\"type\":\"number\"}" +
+						"]" +
+					"}" +
+				"}" +
+			"]" +
+		"}";
+
+	private static final String[] MODES =
+		new String[] { "still", "walk", "run", "bike", "drive" };
+
+	/**
+	 * Default constructor. Private so that no one can instantiate it.
+	 */
+	private BenchmarkStreams() {
+		// Do nothing.
+	}
+
+	/**
+	 * Builds the stream.
+	 *
+	 * @return The stream.
+	 *
+	 * @throws DomainException The schema was rejected.
+	 */
+	public static Observer.Stream getStream() throws DomainException {
+		return
+			new Observer.Stream(
+				"accel",
+				1,
+				"Accelerometer",
+				"Windows of accelerometer samples.",
+				true,
+				true,
+				true,
+				SCHEMA);
+	}
+
+	/**
+	 * Builds one data point that conforms to {@link #SCHEMA}.
+	 *
+	 * @param random The source of the sample values.
+	 *
+	 * @param numSamples The number of accelerometer samples.
+	 *
+	 * @return The data point.
+	 */
+	public static JsonNode getData(
+			final Random random,
+			final int numSamples) {
+
+		JsonNodeFactory factory = JsonNodeFactory.instance;
+
+		ArrayNode samples = factory.arrayNode();
+		for(int i = 0; i < numSamples; i++) {
+			ObjectNode sample = factory.objectNode();
+			sample.put("x", random.nextGaussian());
+			sample.put("y", random.nextGaussian());
+			sample.put("z", 9.8 + random.nextGaussian());
+			samples.add(sample);
+		}
+
+		ObjectNode result = factory.objectNode();
+		result.put("mode", MODES[random.nextInt(MODES.length)]);
+		result.put("speed", random.nextDouble() * 30);
+		result.put("accel_data", samples);
+		return result;
+	}
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.domain.MobilityPoint.MobilityColumnKey;
+import org.ohmage.exception.DomainException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long it takes to parse one uploaded Mobility point from its
+ * JSON text and to convert one Mobility point into a row of the CSV export.
+ * The points are either "mode_only" points or "sensor_data" points with a
+ * window of 40 accelerometer samples and a scan of 10 WiFi access points, as
+ * the Mobility client uploads them, and the exported "sensor_data" points
+ * include the classifier's data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MobilityPointBenchmark {
+	private static final String TIMEZONE = "America/Los_Angeles";
+	private static final int NUM_ACCEL_SAMPLES = 40;
+	private static final int NUM_WIFI_SCANS = 10;
+	private static final int NUM_FFT_VALUES = 10;
+
+	/**
+	 * The point's subtype.
+	 */
+	@Param({ "mode_only", "sensor_data" })
+	public String subtype;
+
+	private String pointText;
+	private MobilityPoint point;
+	private List<Object> emptyRow;
+
+	/**
+	 * Builds the point's JSON, parses and classifies it once for the CSV
+	 * benchmark, and builds the empty row that the CSV export copies for each
+	 * point.
+	 */
+	@Setup
+	public void setUp() throws DomainException, JSONException {
+		Random random = new Random(0);
+		pointText = getPoint(random, subtype).toString();
+
+		point = parse();
+		classify(random, point);
+
+		int numColumns = MobilityColumnKey.ALL_COLUMNS.size();
+		emptyRow = new ArrayList<Object>(numColumns);
+		for(int i = 0; i < numColumns; i++) {
+			emptyRow.add(null);
+		}
+	}
+
+	/**
+	 * Parses the point.
+	 */
+	@Benchmark
+	public MobilityPoint parse() throws DomainException, JSONException {
+		return
+			new MobilityPoint(
+				new JSONObject(pointText),
+				MobilityPoint.PrivacyState.PRIVATE);
+	}
+
+	/**
+	 * Converts the point into a row with every column.
+	 */
+	@Benchmark
+	public List<Object> toCsvRow() throws DomainException {
+		List<Object> result = new ArrayList<Object>(emptyRow);
+		point.toCsvRow(MobilityColumnKey.ALL_COLUMNS, result);
+		return result;
+	}
+
+	/**
+	 * Adds the classifier's data to a "sensor_data" point, as the server
+	 * does before it stores the point. "mode_only" points are not changed.
+	 *
+	 * @param random The source of the classifier's values.
+	 *
+	 * @param point The point.
+	 */
+	static void classify(
+			final Random random,
+			final MobilityPoint point)
+			throws DomainException {
+
+		if(! MobilityPoint.SubType.SENSOR_DATA.equals(point.getSubType())) {
+			return;
+		}
+
+		List<Double> fft = new ArrayList<Double>(NUM_FFT_VALUES);
+		for(int i = 0; i < NUM_FFT_VALUES; i++) {
+			fft.add(random.nextDouble() * 100);
+		}
+		point.setClassifierData(
+			fft,
+			random.nextDouble(),
+			9.8 + random.nextDouble(),
+			MobilityPoint.Mode.WALK);
+	}
+
+	/**
+	 * Builds a Mobility point as the Mobility client uploads it.
+	 *
+	 * @param random The source of the point's values.
+	 *
+	 * @param subtype The point's subtype.
+	 *
+	 * @return The point.
+	 */
+	static JSONObject getPoint(
+			final Random random,
+			final String subtype)
+			throws JSONException {
+
+		long time = System.currentTimeMillis();
+
+		JSONObject location = new JSONObject();
+		location.put("latitude", 34.0689 + random.nextDouble() / 100);
+		location.put("longitude", -118.4452 + random.nextDouble() / 100);
+		location.put("accuracy", 5 + random.nextDouble() * 20);
+		location.put("provider", "gps");
+		location.put("time", time - 1000);
+		location.put("timezone", TIMEZONE);
+
+		JSONObject result = new JSONObject();
+		result.put("id", UUID.randomUUID().toString());
+		result.put("time", time);
+		result.put("timezone", TIMEZONE);
+		result.put("location_status", "valid");
+		result.put("location", location);
+		result.put("subtype", subtype);
+
+		if("mode_only".equals(subtype)) {
+			result.put("mode", "walk");
+			return result;
+		}
+
+		JSONArray accelData = new JSONArray();
+		for(int i = 0; i < NUM_ACCEL_SAMPLES; i++) {
+			JSONObject sample = new JSONObject();
+			sample.put("x", random.nextGaussian());
+			sample.put("y", 9.8 + random.nextGaussian());
+			sample.put("z", random.nextGaussian());
+			accelData.put(sample);
+		}
+
+		JSONArray scan = new JSONArray();
+		for(int i = 0; i < NUM_WIFI_SCANS; i++) {
+			JSONObject accessPoint = new JSONObject();
+			accessPoint.put(
+				"ssid",
+				String.format("00:1a:2b:3c:4d:%02x", random.nextInt(256)));
+			accessPoint.put("strength", -30 - random.nextInt(60));
+			scan.put(accessPoint);
+		}
+
+		JSONObject wifiData = new JSONObject();
+		wifiData.put("time", time - 500);
+		wifiData.put("timezone", TIMEZONE);
+		wifiData.put("scan", scan);
+
+		JSONObject data = new JSONObject();
+		data.put("mode", "walk");
+		data.put("speed", random.nextDouble() * 2);
+		data.put("accel_data", accelData);
+		data.put("wifi_data", wifiData);
+
+		result.put("data", data);
+		return result;
+	}
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTimeZone;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.domain.Location.LocationColumnKey;
+import org.ohmage.domain.MobilityPoint.ClassifierData.ClassifierDataColumnKey;
+import org.ohmage.domain.MobilityPoint.MobilityColumnKey;
+import org.ohmage.domain.MobilityPoint.SensorData.SensorDataColumnKey;
+import org.ohmage.exception.DomainException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.ucla.cens.mobilityclassifier.MobilityClassifier;
+
+/**
+ * Measures reading a user's Mobility data as a whole: building every point
+ * from its stored columns the way the Mobility queries do, and then writing
+ * every point as a row of the CSV export or as the JSON that mobility/read
+ * returns. Every point is a classified "sensor_data" point with a window of
+ * 40 accelerometer samples and a scan of 10 WiFi access points, which is
+ * where a point's footprint comes from.
+ *
+ * <p>Run it with "-prof gc" to see how much each pass allocates, e.g.
+ * -Dbench.args="-f 1 -prof gc MobilityPointsBenchmark".</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MobilityPointsBenchmark {
+	/**
+	 * A Mobility point's columns as they are stored.
+	 */
+	private static final class StoredPoint {
+		private final UUID id;
+		private final long time;
+		private final String timezone;
+		private final MobilityPoint.LocationStatus locationStatus;
+		private final String location;
+		private final MobilityPoint.Mode mode;
+		private final String sensorData;
+		private final String features;
+
+		private StoredPoint(final MobilityPoint point)
+				throws DomainException, JSONException {
+
+			id = point.getId();
+			time = point.getTime();
+			timezone = point.getTimezone().getID();
+			locationStatus = point.getLocationStatus();
+			location =
+				point.getLocation().toJson(
+					false,
+					LocationColumnKey.ALL_COLUMNS).toString();
+			mode = point.getMode();
+			sensorData =
+				point.getSensorData().toJson(
+					false,
+					SensorDataColumnKey.ALL_COLUMNS).toString();
+			features =
+				point.getClassifierData().toJson(
+					false,
+					ClassifierDataColumnKey.ALL_COLUMNS).toString();
+		}
+	}
+
+	/**
+	 * The number of points.
+	 */
+	@Param({ "10000" })
+	public int numPoints;
+
+	private List<StoredPoint> storedPoints;
+	private List<MobilityPoint> points;
+	private List<Object> emptyRow;
+
+	/**
+	 * Builds the stored points, the points built from them for the output
+	 * benchmarks, and the empty row that the CSV export copies for each
+	 * point.
+	 */
+	@Setup
+	public void setUp() throws DomainException, JSONException {
+		Random random = new Random(0);
+		storedPoints = new ArrayList<StoredPoint>(numPoints);
+		for(int i = 0; i < numPoints; i++) {
+			MobilityPoint point =
+				new MobilityPoint(
+					MobilityPointBenchmark.getPoint(random, "sensor_data"),
+					MobilityPoint.PrivacyState.PRIVATE);
+			MobilityPointBenchmark.classify(random, point);
+			storedPoints.add(new StoredPoint(point));
+		}
+
+		points = construct();
+
+		int numColumns = MobilityColumnKey.ALL_COLUMNS.size();
+		emptyRow = new ArrayList<Object>(numColumns);
+		for(int i = 0; i < numColumns; i++) {
+			emptyRow.add(null);
+		}
+	}
+
+	/**
+	 * Builds every point from its stored columns.
+	 */
+	@Benchmark
+	public List<MobilityPoint> construct()
+			throws DomainException, JSONException {
+
+		String classifierVersion = MobilityClassifier.getVersion();
+
+		List<MobilityPoint> result = new ArrayList<MobilityPoint>(numPoints);
+		for(StoredPoint storedPoint : storedPoints) {
+			result.add(
+				new MobilityPoint(
+					storedPoint.id,
+					storedPoint.time,
+					DateTimeZone.forID(storedPoint.timezone),
+					storedPoint.locationStatus,
+					new JSONObject(storedPoint.location),
+					storedPoint.mode,
+					MobilityPoint.PrivacyState.PRIVATE,
+					new JSONObject(storedPoint.sensorData),
+					new JSONObject(storedPoint.features),
+					classifierVersion));
+		}
+		return result;
+	}
+
+	/**
+	 * Converts every point into a row with every column.
+	 */
+	@Benchmark
+	public void toCsvRow(final Blackhole blackhole) throws DomainException {
+		for(MobilityPoint point : points) {
+			List<Object> row = new ArrayList<Object>(emptyRow);
+			point.toCsvRow(MobilityColumnKey.ALL_COLUMNS, row);
+			blackhole.consume(row);
+		}
+	}
+
+	/**
+	 * Writes every point as abbreviated JSON with every column.
+	 */
+	@Benchmark
+	public void toJson(final Blackhole blackhole)
+			throws DomainException, JSONException {
+
+		for(MobilityPoint point : points) {
+			blackhole.consume(
+				point.toJson(true, MobilityColumnKey.ALL_COLUMNS).toString());
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.JsonNode;
+import org.ohmage.exception.DomainException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long it takes to validate one uploaded data point against its
+ * observer stream's schema, which is done for every point of a stream upload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObserverStreamValidationBenchmark {
+	/**
+	 * The number of accelerometer samples in the data point.
+	 */
+	@Param({ "1", "40" })
+	public int numSamples;
+
+	private Observer.Stream stream;
+	private JsonNode data;
+
+	/**
+	 * Builds the stream and the data point.
+	 */
+	@Setup
+	public void setUp() throws DomainException {
+		stream = BenchmarkStreams.getStream();
+		data = BenchmarkStreams.getData(new Random(0), numSamples);
+	}
+
+	/**
+	 * Validates the data point.
+	 */
+	@Benchmark
+	public JsonNode validateData() throws DomainException {
+		return stream.validateData(data);
+	}
+}
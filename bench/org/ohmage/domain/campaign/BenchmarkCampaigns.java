@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain.campaign;
+
+import java.util.UUID;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The campaign and survey responses shared by the benchmarks. The campaign has
+ * a single survey whose prompts cycle through number, single choice, and text
+ * prompts, and every prompt after a number prompt is conditioned on it, so
+ * parsing and validation exercise the condition grammar as well.
+ */
+public final class BenchmarkCampaigns {
+	public static final String USERNAME = "benchmark.user";
+	public static final String CAMPAIGN_ID = "urn:campaign:benchmark";
+	public static final String CLIENT = "benchmark";
+	public static final String SURVEY_ID = "benchmark";
+
+	/**
+	 * Default constructor. Private so that no one can instantiate it.
+	 */
+	private BenchmarkCampaigns() {
+		// Do nothing.
+	}
+
+	/**
+	 * Builds a campaign with one survey with the given number of prompts.
+	 *
+	 * @param numPrompts The number of prompts in the survey.
+	 *
+	 * @return The campaign's XML.
+	 */
+	public static String getCampaignXml(final int numPrompts) {
+		StringBuilder builder = new StringBuilder();
+		builder
+			.append("<campaign>")
+			.append("<campaignUrn>").append(CAMPAIGN_ID).append("</campaignUrn>")
+			.append("<campaignName>").append(CAMPAIGN_ID).append("</campaignName>")
+			.append("<surveys><survey>")
+			.append("<id>").append(SURVEY_ID).append("</id>")
+			.append("<title>Benchmark</title>")
+			.append("<submitText>Done</submitText>")
+			.append("<anytime>true</anytime>")
+			.append("<contentList>");
+
+		for(int i = 0; i < numPrompts; i++) {
+			builder
+				.append("<prompt>")
+				.append("<id>prompt").append(i).append("</id>")
+				.append("<displayLabel>Prompt ").append(i).append("</displayLabel>")
+				.append("<promptText>Prompt ").append(i).append("</promptText>")
+				.append("<skippable>false</skippable>");
+			if(i % 3 == 1) {
+				builder
+					.append("<condition>(prompt").append(i - 1)
+					.append(" &gt;= 0) and (prompt").append(i - 1)
+					.append(" &lt; 100)</condition>");
+			}
+
+			switch(i % 3) {
+			case 0:
+				builder
+					.append("<promptType>number</promptType>")
+					.append("<properties>")
+					.append("<property><key>min</key><label>0</label></property>")
+					.append("<property><key>max</key><label>100</label></property>")
+					.append("</properties>");
+				break;
+
+			case 1:
+				builder
+					.append("<promptType>single_choice</promptType>")
+					.append("<properties>");
+				for(int j = 0; j < 5; j++) {
+					builder
+						.append("<property><key>").append(j)
+						.append("</key><label>Choice ").append(j)
+						.append("</label></property>");
+				}
+				builder.append("</properties>");
+				break;
+
+			default:
+				builder
+					.append("<promptType>text</promptType>")
+					.append("<properties>")
+					.append("<property><key>min</key><label>0</label></property>")
+					.append("<property><key>max</key><label>100</label></property>")
+					.append("</properties>");
+				break;
+			}
+
+			builder.append("</prompt>");
+		}
+
+		builder.append("</contentList></survey></surveys></campaign>");
+		return builder.toString();
+	}
+
+	/**
+	 * Builds a survey response that answers every prompt in the survey built
+	 * by {@link #getCampaignXml(int)}.
+	 *
+	 * @param numPrompts The number of prompts in the survey.
+	 *
+	 * @return The survey response.
+	 */
+	public static JSONObject getSurveyResponse(
+			final int numPrompts)
+			throws JSONException {
+
+		long time = System.currentTimeMillis();
+
+		JSONArray responses = new JSONArray();
+		for(int i = 0; i < numPrompts; i++) {
+			JSONObject promptResponse = new JSONObject();
+			promptResponse.put("prompt_id", "prompt" + i);
+			switch(i % 3) {
+			case 0:
+				promptResponse.put("value", i % 100);
+				break;
+
+			case 1:
+				promptResponse.put("value", i % 5);
+				break;
+
+			default:
+				promptResponse.put("value", "Response " + i);
+				break;
+			}
+			responses.put(promptResponse);
+		}
+
+		JSONObject launchContext = new JSONObject();
+		launchContext.put("launch_time", time);
+		launchContext.put("launch_timezone", "UTC");
+		launchContext.put("active_triggers", new JSONArray());
+
+		JSONObject result = new JSONObject();
+		result.put(SurveyResponse.JSON_KEY_SURVEY_RESPONSE_ID, UUID.randomUUID().toString());
+		result.put("time", time);
+		result.put("timezone", "UTC");
+		result.put("location_status", "unavailable");
+		result.put(SurveyResponse.JSON_KEY_SURVEY_ID, SURVEY_ID);
+		result.put(SurveyResponse.JSON_KEY_SURVEY_LAUNCH_CONTEXT, launchContext);
+		result.put(SurveyResponse.JSON_KEY_RESPONSES, responses);
+		// Without a privacy state, the default is read from the database.
+		result.put(
+			SurveyResponse.JSON_KEY_PRIVACY_STATE,
+			SurveyResponse.PrivacyState.PRIVATE.toString());
+		return result;
+	}
+}
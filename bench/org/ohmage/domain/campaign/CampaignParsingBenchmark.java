@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain.campaign;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.ohmage.exception.DomainException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long it takes to parse and validate a campaign's XML, which
+ * happens whenever a campaign is created or updated and whenever one is read
+ * from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CampaignParsingBenchmark {
+	/**
+	 * The number of prompts in the survey.
+	 */
+	@Param({ "10", "100" })
+	public int numPrompts;
+
+	private String xml;
+
+	/**
+	 * Builds the campaign's XML.
+	 */
+	@Setup
+	public void setUp() {
+		xml = BenchmarkCampaigns.getCampaignXml(numPrompts);
+	}
+
+	/**
+	 * Parses the campaign.
+	 */
+	@Benchmark
+	public Campaign parse() throws DomainException {
+		return
+			new Campaign(
+				BenchmarkCampaigns.CAMPAIGN_ID,
+				BenchmarkCampaigns.CAMPAIGN_ID,
+				null,
+				Campaign.RunningState.RUNNING,
+				Campaign.PrivacyState.SHARED,
+				new Date(),
+				xml,
+				false);
+	}
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain.campaign;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.ohmage.exception.DomainException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long it takes to serialize one survey response with every
+ * column, as survey_response/read does for its "json-rows" output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SurveyResponseJsonBenchmark {
+	/**
+	 * The number of prompts in the survey.
+	 */
+	@Param({ "10", "100" })
+	public int numPrompts;
+
+	private SurveyResponse surveyResponse;
+
+	/**
+	 * Builds the campaign and validates the survey response.
+	 */
+	@Setup
+	public void setUp() throws DomainException, JSONException {
+		Campaign campaign =
+			new Campaign(
+				BenchmarkCampaigns.CAMPAIGN_ID,
+				BenchmarkCampaigns.CAMPAIGN_ID,
+				null,
+				Campaign.RunningState.RUNNING,
+				Campaign.PrivacyState.SHARED,
+				new Date(),
+				BenchmarkCampaigns.getCampaignXml(numPrompts),
+				false);
+
+		surveyResponse =
+			new SurveyResponse(
+				BenchmarkCampaigns.USERNAME,
+				BenchmarkCampaigns.CAMPAIGN_ID,
+				BenchmarkCampaigns.CLIENT,
+				campaign,
+				BenchmarkCampaigns.getSurveyResponse(numPrompts),
+				false);
+	}
+
+	/**
+	 * Serializes the survey response.
+	 */
+	@Benchmark
+	public String toJson() throws JSONException, DomainException {
+		return
+			surveyResponse.toJson(
+				true,	// Username
+				true,	// Campaign ID
+				true,	// Client
+				true,	// Privacy state
+				true,	// Time
+				true,	// Time zone
+				true,	// Location status
+				true,	// Location
+				true,	// Survey ID
+				true,	// Survey title
+				true,	// Survey description
+				true,	// Launch context short
+				false,	// Launch context long
+				true,	// Responses
+				false,	// Array instead of object
+				true,	// Survey response ID
+				false)	// Count
+				.toString();
+	}
+}
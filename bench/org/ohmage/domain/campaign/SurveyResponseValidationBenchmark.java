@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain.campaign;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.exception.DomainException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long it takes to validate one uploaded survey response
+ * against its campaign. The response answers every prompt of the campaign
+ * built by {@link BenchmarkCampaigns}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SurveyResponseValidationBenchmark {
+	/**
+	 * The number of prompts in the survey.
+	 */
+	@Param({ "10", "100" })
+	public int numPrompts;
+
+	private Campaign campaign;
+	private JSONObject response;
+
+	/**
+	 * Builds the campaign and the survey response.
+	 */
+	@Setup
+	public void setUp() throws DomainException, JSONException {
+		campaign =
+			new Campaign(
+				BenchmarkCampaigns.CAMPAIGN_ID,
+				BenchmarkCampaigns.CAMPAIGN_ID,
+				null,
+				Campaign.RunningState.RUNNING,
+				Campaign.PrivacyState.SHARED,
+				new Date(),
+				BenchmarkCampaigns.getCampaignXml(numPrompts),
+				false);
+		response = BenchmarkCampaigns.getSurveyResponse(numPrompts);
+	}
+
+	/**
+	 * Validates the survey response.
+	 */
+	@Benchmark
+	public SurveyResponse validate() throws DomainException {
+		return
+			new SurveyResponse(
+				BenchmarkCampaigns.USERNAME,
+				BenchmarkCampaigns.CAMPAIGN_ID,
+				BenchmarkCampaigns.CLIENT,
+				campaign,
+				response,
+				false);
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.jee.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.ohmage.domain.campaign.BenchmarkCampaigns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long the {@link GzipFilter} takes to inflate and decode the
+ * parameters of a GZIP'd survey upload. With enough survey responses, the
+ * "surveys" parameter crosses the threshold at which it is streamed instead
+ * of being kept as a string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormUrlDecoderBenchmark {
+	private static final int NUM_PROMPTS = 10;
+
+	/**
+	 * The number of survey responses in the upload.
+	 */
+	@Param({ "10", "200" })
+	public int numResponses;
+
+	private byte[] body;
+
+	/**
+	 * Builds and compresses the upload's body.
+	 */
+	@Setup
+	public void setUp() throws IOException, JSONException {
+		JSONArray surveys = new JSONArray();
+		for(int i = 0; i < numResponses; i++) {
+			surveys.put(BenchmarkCampaigns.getSurveyResponse(NUM_PROMPTS));
+		}
+
+		String form =
+			"user=" + BenchmarkCampaigns.USERNAME +
+			"&password=" +
+				URLEncoder.encode(
+					"$2a$13$yxus2tQ3/QiOwwiJQsHvYe3KPbCE1nvdnNg0jj.mrvI7dQbLRfBwu",
+					"UTF-8") +
+			"&client=" + BenchmarkCampaigns.CLIENT +
+			"&campaign_urn=" +
+				URLEncoder.encode(BenchmarkCampaigns.CAMPAIGN_ID, "UTF-8") +
+			"&campaign_creation_timestamp=" +
+				URLEncoder.encode("2012-06-01 12:00:00", "UTF-8") +
+			"&surveys=" + URLEncoder.encode(surveys.toString(), "UTF-8");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GZIPOutputStream gzipOutputStream = new GZIPOutputStream(bytes);
+		gzipOutputStream.write(form.getBytes("UTF-8"));
+		gzipOutputStream.close();
+		body = bytes.toByteArray();
+	}
+
+	/**
+	 * Inflates and decodes the body.
+	 */
+	@Benchmark
+	public Map<String, List<StreamedParameter>> decode()
+			throws IOException, FormUrlDecoder.MalformedFormException {
+
+		Map<String, List<String>> parameters =
+			new HashMap<String, List<String>>();
+		Map<String, List<StreamedParameter>> streamedParameters =
+			new HashMap<String, List<StreamedParameter>>();
+
+		new FormUrlDecoder(
+				new GZIPInputStream(new ByteArrayInputStream(body)),
+				GzipFilter.STREAM_THRESHOLD)
+			.decode(parameters, streamedParameters);
+
+		return streamedParameters;
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.observer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.MappingJsonFactory;
+import org.joda.time.DateTime;
+import org.ohmage.domain.BenchmarkStreams;
+import org.ohmage.domain.DataStream;
+import org.ohmage.domain.Location;
+import org.ohmage.domain.Observer;
+import org.ohmage.exception.DomainException;
+import org.ohmage.request.observer.StreamReadRequest.ColumnNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long it takes to write a page of stream data to a response,
+ * either with every column or with only some of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StreamReadWriteBenchmark {
+	private static final int NUM_SAMPLES = 40;
+
+	/**
+	 * Counts the bytes written to it and otherwise discards them.
+	 */
+	private static final class CountingOutputStream extends OutputStream {
+		private long count = 0;
+
+		@Override
+		public void write(final int b) {
+			count++;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			count += len;
+		}
+	}
+
+	/**
+	 * The number of data points in the page, which is at most
+	 * {@link StreamReadRequest#MAX_NUMBER_TO_RETURN}.
+	 */
+	@Param({ "100", "2000" })
+	public int numPoints;
+
+	/**
+	 * Whether only the "mode" and "speed" columns are written or all of them.
+	 */
+	@Param({ "false", "true" })
+	public boolean withColumns;
+
+	private final JsonFactory jsonFactory = new MappingJsonFactory();
+
+	private List<DataStream> dataStreams;
+	private ColumnNode<String> columns;
+
+	/**
+	 * Builds the page of data points and the columns.
+	 */
+	@Setup
+	public void setUp() throws DomainException {
+		Observer.Stream stream = BenchmarkStreams.getStream();
+		Random random = new Random(0);
+		long time = System.currentTimeMillis();
+
+		dataStreams = new ArrayList<DataStream>(numPoints);
+		for(int i = 0; i < numPoints; i++) {
+			DateTime timestamp = new DateTime(time + (i * 1000L));
+			dataStreams.add(
+				new DataStream(
+					stream,
+					new DataStream.MetaData(
+						UUID.randomUUID().toString(),
+						timestamp,
+						new Location(
+							timestamp,
+							34.0689 + random.nextDouble() / 100,
+							-118.4452 + random.nextDouble() / 100,
+							5 + random.nextDouble() * 20,
+							"gps")),
+					BenchmarkStreams.getData(random, NUM_SAMPLES)));
+		}
+
+		columns = new ColumnNode<String>();
+		if(withColumns) {
+			columns.addChild("mode");
+			columns.addChild("speed");
+		}
+	}
+
+	/**
+	 * Writes the page of data points.
+	 */
+	@Benchmark
+	public long writeData() throws IOException, DomainException {
+		CountingOutputStream outputStream = new CountingOutputStream();
+		JsonGenerator generator = jsonFactory.createJsonGenerator(outputStream);
+
+		generator.writeStartArray();
+		StreamReadRequest.writeData(generator, dataStreams, columns);
+		generator.writeEndArray();
+		generator.close();
+
+		return outputStream.count;
+	}
+}
@@ -0,0 +1,37 @@
+-- ----------------------------------------------------------------------
+-- Per-minute audit rollups. These are maintained as audits are written so
+-- that the daily audit report and the audit/summary API never need to scan
+-- the audit table. URIs and clients longer than the columns are truncated
+-- to keep the primary key within InnoDB's index size limit. The latency buckets correspond to processing times of
+-- <50, <100, <250, <500, <1000, <2500, <10000, and >=10000 milliseconds.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS audit_rollup (
+  bucket_millis bigint NOT NULL,
+  uri varchar(100) NOT NULL,
+  client varchar(100) NOT NULL DEFAULT '',
+  response_code varchar(8) NOT NULL,
+  request_count bigint unsigned NOT NULL DEFAULT 0,
+  total_millis bigint unsigned NOT NULL DEFAULT 0,
+  max_millis bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_0 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_1 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_2 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_3 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_4 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_5 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_6 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_7 bigint unsigned NOT NULL DEFAULT 0,
+  PRIMARY KEY (bucket_millis, uri, client, response_code),
+  INDEX (uri, bucket_millis)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------------------------------------------------
+-- Per-minute counts of the successful campaign and class reads.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS audit_rollup_entity_read (
+  bucket_millis bigint NOT NULL,
+  entity_type varchar(8) NOT NULL,
+  entity_id varchar(240) NOT NULL,
+  read_count bigint unsigned NOT NULL DEFAULT 0,
+  PRIMARY KEY (bucket_millis, entity_type, entity_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
@@ -0,0 +1,23 @@
+-- ----------------------------------------------------------------------
+-- An inverted index of the words in each prompt response, maintained as
+-- survey responses are uploaded and updated, so that prompt response
+-- searches can find candidates by word prefix instead of scanning every
+-- prompt response with LIKE. Words are lower-cased runs of letters and
+-- digits and are truncated to the length of the token column.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS prompt_response_token (
+  campaign_id int unsigned NOT NULL,
+  token varchar(64) NOT NULL,
+  prompt_response_id int unsigned NOT NULL,
+  PRIMARY KEY (campaign_id, token, prompt_response_id),
+  INDEX (prompt_response_id),
+  CONSTRAINT FOREIGN KEY (prompt_response_id) REFERENCES prompt_response (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;
+
+-- The index is only used once it covers every prompt response. An empty
+-- database is already covered; otherwise the survey_response/search_index/
+-- rebuild API must be run once, which sets this to true when it finishes.
+INSERT INTO preference (p_key, p_value) VALUES
+  ('prompt_response_search_index_ready',
+    IF(EXISTS(SELECT id FROM prompt_response), 'false', 'true'))
+    ON DUPLICATE KEY UPDATE p_value=p_value;
@@ -0,0 +1,8 @@
+-- ----------------------------------------------------------------------
+-- A counter that is incremented by every update to a campaign's row, e.g.
+-- its XML, description, or states. campaign/read combines it with the
+-- campaign's roster, classes, and masks to decide whether a client's
+-- cached copy is still current without rebuilding the response.
+-------------------------------------------------------------------------
+ALTER TABLE campaign
+    ADD COLUMN version int unsigned NOT NULL DEFAULT 0;
@@ -0,0 +1,29 @@
+-- ----------------------------------------------------------------------
+-- The documents each non-admin user may read, whether through their own
+-- role on the document or through one of their classes or campaigns, and
+-- whether they are allowed to read its private contents. document/read
+-- joins against it instead of evaluating every path on each request.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS user_document_visibility (
+  user_id int unsigned NOT NULL,
+  document_id int unsigned NOT NULL,
+  owner boolean NOT NULL,
+  PRIMARY KEY (user_id, document_id),
+  INDEX (document_id),
+  CONSTRAINT FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT FOREIGN KEY (document_id) REFERENCES document (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------------------------------------------------
+-- Whether a user's visible documents are current. The generation is
+-- incremented whenever a change may affect them, and they are recomputed
+-- on the user's next read if the generation they were computed at is
+-- older.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS user_document_visibility_generation (
+  user_id int unsigned NOT NULL,
+  generation int unsigned NOT NULL,
+  computed_generation int unsigned DEFAULT NULL,
+  PRIMARY KEY (user_id),
+  CONSTRAINT FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
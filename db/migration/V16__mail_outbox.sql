@@ -0,0 +1,21 @@
+-- ----------------------------------------------------------------------
+-- The mail that is waiting to be delivered. Requests add their messages
+-- here instead of talking to the mail server, and a background sender
+-- delivers them. A message is removed once it has been delivered. If it
+-- cannot be delivered, it is retried with an increasing delay until it is
+-- marked as failed, at which point its content is discarded because it may
+-- include a password. While a sender is delivering a message, its next
+-- attempt is pushed into the future so that no other sender picks it up.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS mail_outbox (
+  id bigint unsigned NOT NULL auto_increment,
+  recipient varchar(320) NOT NULL,
+  message mediumblob NOT NULL,
+  created_millis bigint NOT NULL,
+  next_attempt_millis bigint NOT NULL,
+  attempts int unsigned NOT NULL DEFAULT 0,
+  last_error text,
+  failed boolean NOT NULL DEFAULT false,
+  PRIMARY KEY (id),
+  INDEX (failed, next_attempt_millis)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
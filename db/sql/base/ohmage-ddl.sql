@@ -129,6 +129,7 @@ CREATE TABLE IF NOT EXISTS campaign (
   privacy_state_id int unsigned NOT NULL,
   creation_timestamp datetime NOT NULL,
   last_modified_timestamp timestamp DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  version int unsigned NOT NULL DEFAULT 0,
   icon_url varchar(255),
   authored_by varchar(255),
   PRIMARY KEY (id),
@@ -827,3 +828,108 @@ CREATE TABLE IF NOT EXISTS access_request (
   CONSTRAINT FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
+-- ----------------------------------------------------------------------
+-- Per-minute audit rollups. These are maintained as audits are written so
+-- that the daily audit report and the audit/summary API never need to scan
+-- the audit table. URIs and clients longer than the columns are truncated
+-- to keep the primary key within InnoDB's index size limit. The latency buckets correspond to processing times of
+-- <50, <100, <250, <500, <1000, <2500, <10000, and >=10000 milliseconds.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS audit_rollup (
+  bucket_millis bigint NOT NULL,
+  uri varchar(100) NOT NULL,
+  client varchar(100) NOT NULL DEFAULT '',
+  response_code varchar(8) NOT NULL,
+  request_count bigint unsigned NOT NULL DEFAULT 0,
+  total_millis bigint unsigned NOT NULL DEFAULT 0,
+  max_millis bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_0 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_1 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_2 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_3 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_4 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_5 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_6 bigint unsigned NOT NULL DEFAULT 0,
+  latency_bucket_7 bigint unsigned NOT NULL DEFAULT 0,
+  PRIMARY KEY (bucket_millis, uri, client, response_code),
+  INDEX (uri, bucket_millis)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------------------------------------------------
+-- Per-minute counts of the successful campaign and class reads.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS audit_rollup_entity_read (
+  bucket_millis bigint NOT NULL,
+  entity_type varchar(8) NOT NULL,
+  entity_id varchar(240) NOT NULL,
+  read_count bigint unsigned NOT NULL DEFAULT 0,
+  PRIMARY KEY (bucket_millis, entity_type, entity_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------------------------------------------------
+-- An inverted index of the words in each prompt response, maintained as
+-- survey responses are uploaded and updated, so that prompt response
+-- searches can find candidates by word prefix instead of scanning every
+-- prompt response with LIKE. Words are lower-cased runs of letters and
+-- digits and are truncated to the length of the token column.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS prompt_response_token (
+  campaign_id int unsigned NOT NULL,
+  token varchar(64) NOT NULL,
+  prompt_response_id int unsigned NOT NULL,
+  PRIMARY KEY (campaign_id, token, prompt_response_id),
+  INDEX (prompt_response_id),
+  CONSTRAINT FOREIGN KEY (prompt_response_id) REFERENCES prompt_response (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;
+
+-- ----------------------------------------------------------------------
+-- The documents each non-admin user may read, whether through their own
+-- role on the document or through one of their classes or campaigns, and
+-- whether they are allowed to read its private contents. document/read
+-- joins against it instead of evaluating every path on each request.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS user_document_visibility (
+  user_id int unsigned NOT NULL,
+  document_id int unsigned NOT NULL,
+  owner boolean NOT NULL,
+  PRIMARY KEY (user_id, document_id),
+  INDEX (document_id),
+  CONSTRAINT FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT FOREIGN KEY (document_id) REFERENCES document (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------------------------------------------------
+-- Whether a user's visible documents are current. The generation is
+-- incremented whenever a change may affect them, and they are recomputed
+-- on the user's next read if the generation they were computed at is
+-- older.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS user_document_visibility_generation (
+  user_id int unsigned NOT NULL,
+  generation int unsigned NOT NULL,
+  computed_generation int unsigned DEFAULT NULL,
+  PRIMARY KEY (user_id),
+  CONSTRAINT FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------------------------------------------------
+-- The mail that is waiting to be delivered. Requests add their messages
+-- here instead of talking to the mail server, and a background sender
+-- delivers them. A message is removed once it has been delivered. If it
+-- cannot be delivered, it is retried with an increasing delay until it is
+-- marked as failed, at which point its content is discarded because it may
+-- include a password. While a sender is delivering a message, its next
+-- attempt is pushed into the future so that no other sender picks it up.
+-------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS mail_outbox (
+  id bigint unsigned NOT NULL auto_increment,
+  recipient varchar(320) NOT NULL,
+  message mediumblob NOT NULL,
+  created_millis bigint NOT NULL,
+  next_attempt_millis bigint NOT NULL,
+  attempts int unsigned NOT NULL DEFAULT 0,
+  last_error text,
+  failed boolean NOT NULL DEFAULT false,
+  PRIMARY KEY (id),
+  INDEX (failed, next_attempt_millis)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
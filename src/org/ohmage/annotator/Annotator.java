@@ -135,6 +135,7 @@ public class Annotator {
 		IMAGE_INVALID_SIZE ("0801"),
 		IMAGE_INSUFFICIENT_PERMISSIONS ("0802"),
 		IMAGE_INVALID_DATA ("0803"),
+		IMAGE_INVALID_ZIP_PART ("0804"),
 
 		CLASS_INVALID_ID ("0900"),
 		CLASS_INVALID_NAME ("0901"),
@@ -184,6 +185,7 @@ public class Annotator {
 		VISUALIZATION_INVALID_HEIGHT_VALUE ("1201"),
 		VISUALIZATION_GENERAL_ERROR ("1202"),
 		VISUALIZATION_INVALID_AGGREGATE_VALUE ("1203"),
+		VISUALIZATION_INVALID_OUTPUT_FORMAT ("1204"),
 
 		AUDIT_INSUFFICIENT_PERMISSIONS ("1300"),
 		AUDIT_INVALID_REQUEST_TYPE ("1301"),
@@ -192,6 +194,7 @@ public class Annotator {
 		AUDIT_INVALID_DEVICE_ID ("1304"),
 		AUDIT_INVALID_RESPONSE_TYPE ("1305"),
 		AUDIT_INVALID_ERROR_CODE ("1306"),
+		AUDIT_INVALID_AGGREGATE ("1307"),
 		
 		ANNOTATION_INVALID_TIME("1400"),
 		ANNOTATION_INVALID_TIMEZONE("1401"),
@@ -232,6 +235,7 @@ public class Annotator {
 		OMH_INSUFFICIENT_PERMISSIONS ("1710"),
 		OMH_ACCOUNT_NOT_LINKED ("1711"),
 		OMH_INVALID_DATA ("1712"),
+		OMH_INVALID_READ_REQUESTS ("1713"),
 
 		AUDIO_INVALID_ID ("1800"),
 		AUDIO_INVALID_DURATION ("1801"),
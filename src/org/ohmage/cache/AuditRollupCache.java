@@ -0,0 +1,458 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+import org.ohmage.domain.AuditRollup;
+import org.ohmage.domain.AuditRollup.EntityReadCount;
+import org.ohmage.domain.AuditRollup.EntityType;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.service.AuditServices;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * <p>
+ * Accumulates per-minute audit rollups in memory as audits are written and
+ * periodically persists every minute that has closed.
+ * </p>
+ *
+ * <p>
+ * The persisted rollups are additive, so multiple servers writing to the same
+ * database will each add their own counts to the same rows.
+ * </p>
+ */
+public final class AuditRollupCache extends TimerTask implements DisposableBean {
+	/**
+	 * The logger.
+	 */
+	private static final Logger LOGGER =
+		Logger.getLogger(AuditRollupCache.class);
+
+	/**
+	 * The task that periodically persists the closed rollups.
+	 */
+	private static final Timer FLUSH =
+		new Timer("AuditRollupCache - Persisting the audit rollups.", true);
+
+	/**
+	 * The number of milliseconds between each flush.
+	 */
+	private static final long MILLISECONDS_BETWEEN_FLUSHES = 1000 * 30;
+
+	/**
+	 * The maximum number of rollups that will be retained while the database
+	 * is unavailable. Beyond this, the oldest rollups are discarded.
+	 */
+	private static final int MAX_UNPERSISTED_ROLLUPS = 100000;
+
+	/**
+	 * The longest URI or client value that will be recorded. Anything longer
+	 * is truncated.
+	 */
+	private static final int MAX_VALUE_LENGTH = 100;
+
+	/**
+	 * The longest campaign or class ID that will be recorded. Anything longer
+	 * is truncated.
+	 */
+	private static final int MAX_ENTITY_ID_LENGTH = 240;
+
+	/**
+	 * The key for a single rollup.
+	 */
+	private static final class RollupKey {
+		private final long bucketMillis;
+		private final String uri;
+		private final String client;
+		private final String responseCode;
+
+		private RollupKey(
+				final long bucketMillis,
+				final String uri,
+				final String client,
+				final String responseCode) {
+
+			this.bucketMillis = bucketMillis;
+			this.uri = uri;
+			this.client = client;
+			this.responseCode = responseCode;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = (int) (bucketMillis ^ (bucketMillis >>> 32));
+			result = 31 * result + uri.hashCode();
+			result = 31 * result + ((client == null) ? 0 : client.hashCode());
+			result = 31 * result + responseCode.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(! (obj instanceof RollupKey)) {
+				return false;
+			}
+			RollupKey other = (RollupKey) obj;
+			return
+				(bucketMillis == other.bucketMillis) &&
+				uri.equals(other.uri) &&
+				((client == null) ?
+					(other.client == null) :
+					client.equals(other.client)) &&
+				responseCode.equals(other.responseCode);
+		}
+	}
+
+	/**
+	 * The key for a single entity read count.
+	 */
+	private static final class EntityKey {
+		private final long bucketMillis;
+		private final EntityType entityType;
+		private final String entityId;
+
+		private EntityKey(
+				final long bucketMillis,
+				final EntityType entityType,
+				final String entityId) {
+
+			this.bucketMillis = bucketMillis;
+			this.entityType = entityType;
+			this.entityId = entityId;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = (int) (bucketMillis ^ (bucketMillis >>> 32));
+			result = 31 * result + entityType.hashCode();
+			result = 31 * result + entityId.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(! (obj instanceof EntityKey)) {
+				return false;
+			}
+			EntityKey other = (EntityKey) obj;
+			return
+				(bucketMillis == other.bucketMillis) &&
+				entityType.equals(other.entityType) &&
+				entityId.equals(other.entityId);
+		}
+	}
+
+	/**
+	 * The mutable counters for a single rollup. Once a counter has been
+	 * closed by the flush, it will no longer accept any values and the
+	 * recorder must create a new one.
+	 */
+	private static final class Counter {
+		private boolean closed = false;
+		private long count = 0;
+		private long totalMillis = 0;
+		private long maxMillis = 0;
+		private final long[] latencyHistogram =
+			new long[AuditRollup.LATENCY_BOUNDS.length + 1];
+
+		/**
+		 * Adds a single request to this counter.
+		 *
+		 * @return False if this counter has already been closed.
+		 */
+		private synchronized boolean add(final long millis) {
+			if(closed) {
+				return false;
+			}
+
+			count++;
+			totalMillis += millis;
+			if(millis > maxMillis) {
+				maxMillis = millis;
+			}
+			latencyHistogram[AuditRollup.getLatencyBucket(millis)]++;
+
+			return true;
+		}
+
+		/**
+		 * Closes this counter, so that it may be safely persisted.
+		 */
+		private synchronized void close() {
+			closed = true;
+		}
+	}
+
+	/**
+	 * The in-memory rollups that have yet to be persisted.
+	 */
+	private static final ConcurrentMap<RollupKey, Counter> ROLLUPS =
+		new ConcurrentHashMap<RollupKey, Counter>();
+
+	/**
+	 * The in-memory entity read counts that have yet to be persisted.
+	 */
+	private static final ConcurrentMap<EntityKey, Counter> ENTITY_READS =
+		new ConcurrentHashMap<EntityKey, Counter>();
+
+	/**
+	 * The rollups that were drained from memory but could not be persisted.
+	 * This is only accessed by the flush, which is synchronized.
+	 */
+	private static final List<AuditRollup> UNPERSISTED_ROLLUPS =
+		new ArrayList<AuditRollup>();
+
+	/**
+	 * The entity read counts that were drained from memory but could not be
+	 * persisted. This is only accessed by the flush, which is synchronized.
+	 */
+	private static final List<EntityReadCount> UNPERSISTED_ENTITY_READS =
+		new ArrayList<EntityReadCount>();
+
+	/**
+	 * Default constructor that will be called by Spring via reflection.
+	 */
+	private AuditRollupCache() {
+		LOGGER.info("Creating the audit rollup, periodic task.");
+
+		FLUSH.schedule(
+			this,
+			MILLISECONDS_BETWEEN_FLUSHES,
+			MILLISECONDS_BETWEEN_FLUSHES);
+	}
+
+	/**
+	 * Records a single audited request.
+	 *
+	 * @param uri The URI of the request.
+	 *
+	 * @param client The client value of the request. This may be null.
+	 *
+	 * @param responseCode The response code of the request.
+	 *
+	 * @param receivedMillis The time at which the request was received.
+	 *
+	 * @param respondMillis The time at which the request was responded to.
+	 *
+	 * @param entityType The type of entity that the request successfully
+	 * 					 read or null if it didn't read a campaign or class.
+	 *
+	 * @param entityIds The unique identifiers of the entities that were read.
+	 * 					This is ignored if the entity type is null.
+	 */
+	public static void record(
+			final String uri,
+			final String client,
+			final String responseCode,
+			final long receivedMillis,
+			final long respondMillis,
+			final EntityType entityType,
+			final Collection<String> entityIds) {
+
+		if((uri == null) || (responseCode == null)) {
+			return;
+		}
+
+		long bucketMillis = AuditRollup.getBucket(respondMillis);
+		long millis = Math.max(0, respondMillis - receivedMillis);
+
+		RollupKey key =
+			new RollupKey(
+				bucketMillis,
+				truncate(uri, MAX_VALUE_LENGTH),
+				truncate(client, MAX_VALUE_LENGTH),
+				responseCode);
+		Counter counter;
+		while(! (counter = getCounter(ROLLUPS, key)).add(millis)) {
+			ROLLUPS.remove(key, counter);
+		}
+
+		if((entityType != null) && (entityIds != null)) {
+			for(String entityId : entityIds) {
+				if(entityId == null) {
+					continue;
+				}
+
+				EntityKey entityKey =
+					new EntityKey(
+						bucketMillis,
+						entityType,
+						truncate(entityId, MAX_ENTITY_ID_LENGTH));
+				Counter entityCounter;
+				while(! (entityCounter = getCounter(ENTITY_READS, entityKey))
+						.add(0)) {
+
+					ENTITY_READS.remove(entityKey, entityCounter);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Persists every rollup whose minute has closed.
+	 */
+	@Override
+	public void run() {
+		flush(false);
+	}
+
+	/**
+	 * Persists the rollups that have yet to be persisted.
+	 *
+	 * @param all If true, all rollups, including the current minute's, are
+	 * 			  persisted; otherwise, only those for minutes that have
+	 * 			  already closed are persisted.
+	 */
+	public static synchronized void flush(final boolean all) {
+		long currentBucket =
+			AuditRollup.getBucket(System.currentTimeMillis());
+
+		Iterator<Map.Entry<RollupKey, Counter>> rollupIter =
+			ROLLUPS.entrySet().iterator();
+		while(rollupIter.hasNext()) {
+			Map.Entry<RollupKey, Counter> entry = rollupIter.next();
+			RollupKey key = entry.getKey();
+			if(all || (key.bucketMillis < currentBucket)) {
+				rollupIter.remove();
+
+				Counter counter = entry.getValue();
+				counter.close();
+				synchronized(counter) {
+					UNPERSISTED_ROLLUPS.add(
+						new AuditRollup(
+							key.bucketMillis,
+							key.uri,
+							key.client,
+							key.responseCode,
+							counter.count,
+							counter.totalMillis,
+							counter.maxMillis,
+							counter.latencyHistogram));
+				}
+			}
+		}
+
+		Iterator<Map.Entry<EntityKey, Counter>> entityIter =
+			ENTITY_READS.entrySet().iterator();
+		while(entityIter.hasNext()) {
+			Map.Entry<EntityKey, Counter> entry = entityIter.next();
+			EntityKey key = entry.getKey();
+			if(all || (key.bucketMillis < currentBucket)) {
+				entityIter.remove();
+
+				Counter counter = entry.getValue();
+				counter.close();
+				synchronized(counter) {
+					UNPERSISTED_ENTITY_READS.add(
+						new EntityReadCount(
+							key.bucketMillis,
+							key.entityType,
+							key.entityId,
+							counter.count));
+				}
+			}
+		}
+
+		if(UNPERSISTED_ROLLUPS.isEmpty() &&
+			UNPERSISTED_ENTITY_READS.isEmpty()) {
+
+			return;
+		}
+
+		try {
+			AuditServices
+				.instance()
+				.createAuditRollups(
+					UNPERSISTED_ROLLUPS,
+					UNPERSISTED_ENTITY_READS);
+
+			UNPERSISTED_ROLLUPS.clear();
+			UNPERSISTED_ENTITY_READS.clear();
+		}
+		catch(ServiceException e) {
+			LOGGER.error("Failed to persist the audit rollups.", e);
+
+			trim(UNPERSISTED_ROLLUPS);
+			trim(UNPERSISTED_ENTITY_READS);
+		}
+	}
+
+	/**
+	 * Persists everything that remains and stops the flush task.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		FLUSH.cancel();
+		flush(true);
+	}
+
+	/**
+	 * Retrieves the counter for some key, creating it if it doesn't exist.
+	 */
+	private static <K> Counter getCounter(
+			final ConcurrentMap<K, Counter> counters,
+			final K key) {
+
+		Counter counter = counters.get(key);
+		if(counter == null) {
+			Counter newCounter = new Counter();
+			counter = counters.putIfAbsent(key, newCounter);
+			if(counter == null) {
+				counter = newCounter;
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 * Discards the oldest values from a list that has grown too large.
+	 */
+	private static void trim(final List<?> values) {
+		int excess = values.size() - MAX_UNPERSISTED_ROLLUPS;
+		if(excess > 0) {
+			LOGGER.error(
+				"Discarding " + excess + " audit rollups that could not be " +
+					"persisted.");
+			values.subList(0, excess).clear();
+		}
+	}
+
+	/**
+	 * Truncates a value to the longest value that can be persisted.
+	 */
+	private static String truncate(final String value, final int maxLength) {
+		if((value == null) || (value.length() <= maxLength)) {
+			return value;
+		}
+		return value.substring(0, maxLength);
+	}
+}
@@ -0,0 +1,495 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+import org.ohmage.domain.Clazz;
+import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.exception.DataAccessException;
+import org.ohmage.query.ICampaignQueries;
+import org.ohmage.query.IUserCampaignQueries;
+import org.ohmage.query.IUserClassQueries;
+import org.ohmage.query.IUserQueries;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * <p>
+ * A short-lived cache of the information used to make authorization
+ * decisions: whether or not a user is an admin, the user's roles in their
+ * campaigns and classes, and the privacy and running states of campaigns.
+ * A single request will often make the same check several times, e.g. once
+ * per survey response or per user, and this allows all but the first to be
+ * answered from memory.
+ * </p>
+ *
+ * <p>
+ * The information is loaded lazily and each user's and campaign's entry
+ * expires after the configured lifetime. Any change to a user's privileges,
+ * a class's roster, or a campaign's roster or states must invalidate the
+ * affected entries through one of the static invalidation methods, which may
+ * be called whether or not the cache has been created.
+ * </p>
+ */
+public final class AuthorizationCache
+		extends TimerTask
+		implements DisposableBean {
+
+	private static final Logger LOGGER =
+		Logger.getLogger(AuthorizationCache.class);
+
+	private static final long EXECUTION_PERIOD = 1000 * 60;
+
+	/**
+	 * The authorization information for a single user.
+	 */
+	private static final class UserEntry {
+		private final long created = System.currentTimeMillis();
+
+		private Boolean admin = null;
+		private Map<String, Clazz.Role> classRoles = null;
+		private final Map<String, List<Campaign.Role>> campaignRoles =
+			new HashMap<String, List<Campaign.Role>>();
+	}
+
+	/**
+	 * The authorization information for a single campaign.
+	 */
+	private static final class CampaignEntry {
+		private final long created = System.currentTimeMillis();
+
+		private Campaign.PrivacyState privacyState = null;
+		private Campaign.RunningState runningState = null;
+	}
+
+	// Invalidation removes entries rather than clearing their fields so that
+	// a lookup that was in flight at the time cannot repopulate the new entry
+	// with stale information.
+	private static final ConcurrentMap<String, UserEntry> USERS =
+		new ConcurrentHashMap<String, UserEntry>();
+	private static final ConcurrentMap<String, CampaignEntry> CAMPAIGNS =
+		new ConcurrentHashMap<String, CampaignEntry>();
+
+	private static final Timer EXECUTIONER =
+		new Timer("AuthorizationCache - Entry expiration process.", true);
+
+	private static AuthorizationCache instance;
+
+	private final IUserQueries userQueries;
+	private final IUserCampaignQueries userCampaignQueries;
+	private final IUserClassQueries userClassQueries;
+	private final ICampaignQueries campaignQueries;
+
+	private final long lifetime;
+
+	/**
+	 * Default constructor. Privately instantiated via dependency injection
+	 * (reflection).
+	 *
+	 * @param iUserQueries The queries for user information.
+	 *
+	 * @param iUserCampaignQueries The queries for user-campaign roles.
+	 *
+	 * @param iUserClassQueries The queries for user-class roles.
+	 *
+	 * @param iCampaignQueries The queries for campaign information.
+	 *
+	 * @param lifetime The number of milliseconds for which an entry may be
+	 * 				   used after it was created.
+	 *
+	 * @throws IllegalStateException An instance of this class already
+	 * 								 exists.
+	 *
+	 * @throws IllegalArgumentException A query object was null or the
+	 * 									lifetime was negative.
+	 */
+	private AuthorizationCache(
+			final IUserQueries iUserQueries,
+			final IUserCampaignQueries iUserCampaignQueries,
+			final IUserClassQueries iUserClassQueries,
+			final ICampaignQueries iCampaignQueries,
+			final long lifetime) {
+
+		if(instance != null) {
+			throw new IllegalStateException(
+				"An instance of this class already exists.");
+		}
+
+		if(iUserQueries == null) {
+			throw new IllegalArgumentException(
+				"An instance of IUserQueries is required.");
+		}
+		if(iUserCampaignQueries == null) {
+			throw new IllegalArgumentException(
+				"An instance of IUserCampaignQueries is required.");
+		}
+		if(iUserClassQueries == null) {
+			throw new IllegalArgumentException(
+				"An instance of IUserClassQueries is required.");
+		}
+		if(iCampaignQueries == null) {
+			throw new IllegalArgumentException(
+				"An instance of ICampaignQueries is required.");
+		}
+		if(lifetime < 0) {
+			throw new IllegalArgumentException(
+				"The lifetime cannot be negative.");
+		}
+
+		userQueries = iUserQueries;
+		userCampaignQueries = iUserCampaignQueries;
+		userClassQueries = iUserClassQueries;
+		campaignQueries = iCampaignQueries;
+		this.lifetime = lifetime;
+
+		LOGGER.info(
+			"Authorization entries will live for " +
+				lifetime +
+				" milliseconds.");
+
+		EXECUTIONER.schedule(this, EXECUTION_PERIOD, EXECUTION_PERIOD);
+
+		instance = this;
+	}
+
+	/**
+	 * Returns the singleton instance of this class.
+	 *
+	 * @return The singleton instance of this class.
+	 */
+	public static AuthorizationCache instance() {
+		return instance;
+	}
+
+	/**
+	 * Returns whether or not a user is an admin.
+	 *
+	 * @param username The user's username.
+	 *
+	 * @return Whether or not the user is an admin.
+	 *
+	 * @throws DataAccessException There was an error reading the database.
+	 */
+	public boolean userIsAdmin(
+			final String username)
+			throws DataAccessException {
+
+		UserEntry entry = getUserEntry(username);
+		synchronized(entry) {
+			if(entry.admin != null) {
+				return entry.admin;
+			}
+		}
+
+		Boolean admin = userQueries.userIsAdmin(username);
+		synchronized(entry) {
+			entry.admin = admin;
+		}
+		return admin;
+	}
+
+	/**
+	 * Returns the user's roles in a campaign.
+	 *
+	 * @param username The user's username.
+	 *
+	 * @param campaignId The campaign's unique identifier.
+	 *
+	 * @return An unmodifiable list of the user's roles in the campaign, which
+	 * 		   will be empty if the user does not belong to the campaign.
+	 *
+	 * @throws DataAccessException There was an error reading the database.
+	 */
+	public List<Campaign.Role> getUserCampaignRoles(
+			final String username,
+			final String campaignId)
+			throws DataAccessException {
+
+		UserEntry entry = getUserEntry(username);
+		synchronized(entry) {
+			List<Campaign.Role> result = entry.campaignRoles.get(campaignId);
+			if(result != null) {
+				return result;
+			}
+		}
+
+		List<Campaign.Role> result =
+			Collections.unmodifiableList(
+				new ArrayList<Campaign.Role>(
+					userCampaignQueries
+						.getUserCampaignRoles(username, campaignId)));
+		synchronized(entry) {
+			entry.campaignRoles.put(campaignId, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns all of the classes to which a user belongs and their role in
+	 * each.
+	 *
+	 * @param username The user's username.
+	 *
+	 * @return An unmodifiable map of class IDs to the user's role in that
+	 * 		   class.
+	 *
+	 * @throws DataAccessException There was an error reading the database.
+	 */
+	public Map<String, Clazz.Role> getUserClassRoles(
+			final String username)
+			throws DataAccessException {
+
+		UserEntry entry = getUserEntry(username);
+		synchronized(entry) {
+			if(entry.classRoles != null) {
+				return entry.classRoles;
+			}
+		}
+
+		Map<String, Clazz.Role> result =
+			Collections.unmodifiableMap(
+				new HashMap<String, Clazz.Role>(
+					userClassQueries.getClassesAndRolesForUser(username)));
+		synchronized(entry) {
+			entry.classRoles = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a user's role in a class.
+	 *
+	 * @param username The user's username.
+	 *
+	 * @param classId The class' unique identifier.
+	 *
+	 * @return The user's role in the class or null if the user does not
+	 * 		   belong to the class.
+	 *
+	 * @throws DataAccessException There was an error reading the database.
+	 */
+	public Clazz.Role getUserClassRole(
+			final String username,
+			final String classId)
+			throws DataAccessException {
+
+		return getUserClassRoles(username).get(classId);
+	}
+
+	/**
+	 * Returns a campaign's privacy state.
+	 *
+	 * @param campaignId The campaign's unique identifier.
+	 *
+	 * @return The campaign's privacy state or null if the campaign does not
+	 * 		   exist.
+	 *
+	 * @throws DataAccessException There was an error reading the database.
+	 */
+	public Campaign.PrivacyState getCampaignPrivacyState(
+			final String campaignId)
+			throws DataAccessException {
+
+		CampaignEntry entry = getCampaignEntry(campaignId);
+		synchronized(entry) {
+			if(entry.privacyState != null) {
+				return entry.privacyState;
+			}
+		}
+
+		Campaign.PrivacyState result =
+			campaignQueries.getCampaignPrivacyState(campaignId);
+		synchronized(entry) {
+			entry.privacyState = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a campaign's running state.
+	 *
+	 * @param campaignId The campaign's unique identifier.
+	 *
+	 * @return The campaign's running state or null if the campaign does not
+	 * 		   exist.
+	 *
+	 * @throws DataAccessException There was an error reading the database.
+	 */
+	public Campaign.RunningState getCampaignRunningState(
+			final String campaignId)
+			throws DataAccessException {
+
+		CampaignEntry entry = getCampaignEntry(campaignId);
+		synchronized(entry) {
+			if(entry.runningState != null) {
+				return entry.runningState;
+			}
+		}
+
+		Campaign.RunningState result =
+			campaignQueries.getCampaignRunningState(campaignId);
+		synchronized(entry) {
+			entry.runningState = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Discards everything that is known about a user. This should be called
+	 * whenever a user's privileges are changed or the user is deleted.
+	 *
+	 * @param username The user's username.
+	 */
+	public static void invalidateUser(final String username) {
+		if(username != null) {
+			USERS.remove(username);
+		}
+	}
+
+	/**
+	 * Discards everything that is known about a group of users.
+	 *
+	 * @param usernames The users' usernames.
+	 *
+	 * @see #invalidateUser(String)
+	 */
+	public static void invalidateUsers(final Collection<String> usernames) {
+		if(usernames != null) {
+			for(String username : usernames) {
+				invalidateUser(username);
+			}
+		}
+	}
+
+	/**
+	 * Discards everything that is known about a campaign, including every
+	 * user's role in that campaign. This should be called whenever a
+	 * campaign's states or roster are changed, including through one of its
+	 * classes, or the campaign is deleted.
+	 *
+	 * @param campaignId The campaign's unique identifier.
+	 */
+	public static void invalidateCampaign(final String campaignId) {
+		if(campaignId != null) {
+			CAMPAIGNS.remove(campaignId);
+		}
+
+		// The users in the campaign are not known without asking the
+		// database, so all user entries are discarded. Roster changes are
+		// rare enough that this is cheaper than tracking membership.
+		USERS.clear();
+	}
+
+	/**
+	 * Discards every user's role in a class and in any campaign associated
+	 * with that class. This should be called whenever a class's roster is
+	 * changed, its campaigns are changed, or it is deleted.
+	 *
+	 * @param classId The class' unique identifier.
+	 */
+	public static void invalidateClass(final String classId) {
+		// A class's roster also decides roles in its campaigns, so every user
+		// entry is discarded for the same reason as invalidating a campaign.
+		USERS.clear();
+	}
+
+	/**
+	 * Removes the entries that have expired.
+	 */
+	@Override
+	public void run() {
+		long oldest = System.currentTimeMillis() - lifetime;
+
+		Iterator<UserEntry> users = USERS.values().iterator();
+		while(users.hasNext()) {
+			if(users.next().created < oldest) {
+				users.remove();
+			}
+		}
+
+		Iterator<CampaignEntry> campaigns = CAMPAIGNS.values().iterator();
+		while(campaigns.hasNext()) {
+			if(campaigns.next().created < oldest) {
+				campaigns.remove();
+			}
+		}
+	}
+
+	/**
+	 * Stops the expiration process and discards all entries.
+	 */
+	@Override
+	public void destroy() {
+		EXECUTIONER.cancel();
+
+		USERS.clear();
+		CAMPAIGNS.clear();
+	}
+
+	/**
+	 * Returns the current entry for a user, replacing it if it has expired.
+	 *
+	 * @param username The user's username.
+	 *
+	 * @return The user's entry.
+	 */
+	private UserEntry getUserEntry(final String username) {
+		UserEntry entry = USERS.get(username);
+		if(entry != null) {
+			if(entry.created + lifetime > System.currentTimeMillis()) {
+				return entry;
+			}
+			USERS.remove(username, entry);
+		}
+
+		UserEntry newEntry = new UserEntry();
+		entry = USERS.putIfAbsent(username, newEntry);
+		return (entry == null) ? newEntry : entry;
+	}
+
+	/**
+	 * Returns the current entry for a campaign, replacing it if it has
+	 * expired.
+	 *
+	 * @param campaignId The campaign's unique identifier.
+	 *
+	 * @return The campaign's entry.
+	 */
+	private CampaignEntry getCampaignEntry(final String campaignId) {
+		CampaignEntry entry = CAMPAIGNS.get(campaignId);
+		if(entry != null) {
+			if(entry.created + lifetime > System.currentTimeMillis()) {
+				return entry;
+			}
+			CAMPAIGNS.remove(campaignId, entry);
+		}
+
+		CampaignEntry newEntry = new CampaignEntry();
+		entry = CAMPAIGNS.putIfAbsent(campaignId, newEntry);
+		return (entry == null) ? newEntry : entry;
+	}
+}
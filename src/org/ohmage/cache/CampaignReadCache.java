@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.cache;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.domain.campaign.CampaignVersion;
+
+/**
+ * <p>
+ * A bounded cache of campaigns as campaign/read serializes them. Each
+ * campaign is stored under a key built from its {@link CampaignVersion}, the
+ * output format, and, when the serialized campaign is specific to the
+ * requesting user, the user's username. Any change to the campaign changes
+ * its version and therefore its key, so entries never need to be
+ * invalidated; stale entries are simply never requested again and are
+ * evicted.
+ * </p>
+ *
+ * <p>
+ * The keys also determine a response's entity tag. Two responses built from
+ * the same keys in the same order are identical, so a client whose copy has
+ * the current entity tag can be told that its copy is still current without
+ * building the response at all.
+ * </p>
+ *
+ * <p>
+ * Entries are evicted in least-recently-used order once the total length of
+ * the cached campaigns exceeds the limit, and are never returned once they
+ * are older than the lifetime.
+ * </p>
+ */
+public final class CampaignReadCache {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * A cached campaign and when it was cached.
+	 */
+	private static final class Entry {
+		private final String value;
+		private final long created;
+
+		private Entry(final String value, final long created) {
+			this.value = value;
+			this.created = created;
+		}
+	}
+
+	private final long lifetime;
+	private final long maxLength;
+
+	// Guarded by itself.
+	private final LinkedHashMap<String, Entry> entries =
+		new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long length = 0;
+
+	private final AtomicLong hits = new AtomicLong(0);
+	private final AtomicLong misses = new AtomicLong(0);
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param lifetime The number of milliseconds for which a campaign may be
+	 * 				   returned after it was cached.
+	 *
+	 * @param maxLength The maximum total number of characters in the cached
+	 * 					campaigns. A campaign longer than this is never
+	 * 					cached.
+	 *
+	 * @throws IllegalArgumentException The lifetime or maximum length was
+	 * 									negative.
+	 */
+	public CampaignReadCache(final long lifetime, final long maxLength) {
+		if(lifetime < 0) {
+			throw new IllegalArgumentException(
+				"The lifetime cannot be negative.");
+		}
+		if(maxLength < 0) {
+			throw new IllegalArgumentException(
+				"The maximum length cannot be negative.");
+		}
+
+		this.lifetime = lifetime;
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Builds the key under which a campaign is cached. The key includes the
+	 * requesting user's username only if the serialized campaign depends on
+	 * who they are and not only on their roles: if a mask applies to them or
+	 * if the survey response counts include only the responses they may see.
+	 *
+	 * @param username The requesting user's username.
+	 *
+	 * @param version The campaign's version as seen by the user.
+	 *
+	 * @param outputFormat The output format.
+	 *
+	 * @return The key.
+	 */
+	public static String getKey(
+			final String username,
+			final CampaignVersion version,
+			final Campaign.OutputFormat outputFormat) {
+
+		Collection<Campaign.Role> roles = version.getRoles();
+
+		boolean userSpecific = (version.getMaskCount() > 0);
+		if(Campaign.OutputFormat.LONG.equals(outputFormat) &&
+				(! version.isAdmin()) &&
+				(! roles.contains(Campaign.Role.SUPERVISOR))) {
+
+			userSpecific = true;
+		}
+
+		StringBuilder result = new StringBuilder();
+		result.append(outputFormat).append('|');
+		result.append(version.getCampaignId()).append('|');
+		if(version.isAdmin()) {
+			result.append("admin,");
+		}
+		for(Campaign.Role role : roles) {
+			result.append(role).append(',');
+		}
+		result.append('|');
+		if(userSpecific) {
+			result.append(username);
+		}
+		result.append('|').append(version.getWatermark());
+
+		return result.toString();
+	}
+
+	/**
+	 * Builds a strong entity tag for a response that was built from the
+	 * given campaigns in the given order.
+	 *
+	 * @param keys The campaigns' keys from
+	 * 			   {@link #getKey(String, CampaignVersion, Campaign.OutputFormat)}.
+	 *
+	 * @return The quoted entity tag.
+	 */
+	public static String getETag(final Collection<String> keys) {
+		MessageDigest digest = DigestUtils.getSha1Digest();
+		for(String key : keys) {
+			digest.update(key.getBytes(UTF_8));
+			digest.update((byte) '\n');
+		}
+
+		return '"' + Hex.encodeHexString(digest.digest()) + '"';
+	}
+
+	/**
+	 * Returns a cached campaign if it exists and has not expired.
+	 *
+	 * @param key The campaign's key.
+	 *
+	 * @return The serialized campaign or null if it is not cached.
+	 */
+	public String get(final String key) {
+		synchronized(entries) {
+			Entry entry = entries.get(key);
+			if((entry != null) &&
+					(System.currentTimeMillis() - entry.created > lifetime)) {
+
+				entries.remove(key);
+				length -= entry.value.length();
+				entry = null;
+			}
+
+			if(entry == null) {
+				misses.incrementAndGet();
+				return null;
+			}
+			hits.incrementAndGet();
+			return entry.value;
+		}
+	}
+
+	/**
+	 * Caches a campaign, evicting the least-recently-used campaigns until
+	 * the cache is within its size limit.
+	 *
+	 * @param key The campaign's key.
+	 *
+	 * @param value The serialized campaign.
+	 */
+	public void put(final String key, final String value) {
+		if(value.length() > maxLength) {
+			return;
+		}
+
+		synchronized(entries) {
+			Entry previous =
+				entries.put(
+					key,
+					new Entry(value, System.currentTimeMillis()));
+			if(previous != null) {
+				length -= previous.value.length();
+			}
+			length += value.length();
+
+			Iterator<Map.Entry<String, Entry>> iter =
+				entries.entrySet().iterator();
+			while((length > maxLength) && iter.hasNext()) {
+				Entry eldest = iter.next().getValue();
+				iter.remove();
+				length -= eldest.value.length();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of lookups that found a cached campaign.
+	 *
+	 * @return The number of cache hits.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a cached campaign.
+	 *
+	 * @return The number of cache misses.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the number of cached campaigns.
+	 *
+	 * @return The number of cached campaigns.
+	 */
+	public int getSize() {
+		synchronized(entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Returns the total length of the cached campaigns.
+	 *
+	 * @return The total number of characters in the cached campaigns.
+	 */
+	public long getLength() {
+		synchronized(entries) {
+			return length;
+		}
+	}
+
+	/**
+	 * Returns a one-line summary of the cache's statistics.
+	 *
+	 * @return The cache's statistics.
+	 */
+	@Override
+	public String toString() {
+		return
+			"hits=" + getHitCount() +
+			", misses=" + getMissCount() +
+			", campaigns=" + getSize() +
+			", length=" + getLength();
+	}
+}
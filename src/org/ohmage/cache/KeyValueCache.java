@@ -65,8 +65,9 @@ public abstract class KeyValueCache extends Cache {
 		}
 	}
 
-	// The map of all the keys to their values.
-	private Map<String, String> keyValueMap;
+	// The map of all the keys to their values. This is replaced, never
+	// modified, on each refresh.
+	private volatile Map<String, String> keyValueMap;
 
 	// The SQL to use to get the values which must return two String values as
 	// dictated by the private class KeyAndValue.
@@ -127,9 +128,12 @@ public abstract class KeyValueCache extends Cache {
 			refreshMap();
 		}
 
-		// If the key exists in the lookup table, return its value.
-		if(keyValueMap.containsKey(key)) {
-			return keyValueMap.get(key);
+		// If the key exists in the lookup table, return its value. The map is
+		// read once so that a concurrent refresh cannot change it between the
+		// check and the lookup.
+		Map<String, String> currentMap = keyValueMap;
+		if(currentMap.containsKey(key)) {
+			return currentMap.get(key);
 		}
 		// Otherwise, throw an exception that it is an unknown state.
 		else {
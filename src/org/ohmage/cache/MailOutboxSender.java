@@ -0,0 +1,614 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.cache;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.domain.MailOutboxMessage;
+import org.ohmage.exception.DataAccessException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.query.IMailOutboxQueries;
+import org.ohmage.util.MailUtils;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * <p>
+ * Periodically delivers the mail that is waiting in the outbox. Each run
+ * opens one connection to the mail server and sends every message that is
+ * due through it, no faster than the configured rate.
+ * </p>
+ * 
+ * <p>
+ * A message that cannot be delivered is retried with an exponentially
+ * increasing delay. It is marked as failed once it has been attempted the
+ * maximum number of times or the mail server rejects all of its recipients.
+ * Before a message is sent it is claimed in the database, so multiple
+ * servers may share the same outbox. A message is only removed after it was
+ * sent, so it may be sent twice if a server stops in between.
+ * </p>
+ */
+public class MailOutboxSender extends TimerTask implements DisposableBean {
+	/**
+	 * The logger.
+	 */
+	private static final Logger LOGGER =
+		Logger.getLogger(MailOutboxSender.class);
+	
+	/**
+	 * The task that periodically delivers the mail.
+	 */
+	private static final Timer SENDER =
+		new Timer("MailOutboxSender - Delivering the queued mail.", true);
+	
+	/**
+	 * How long a claimed message is hidden from other senders. If a server
+	 * stops while sending, its message is retried after this long.
+	 */
+	private static final long LEASE_MILLIS = 1000 * 60 * 10;
+	
+	/**
+	 * The longest delay between two attempts to send a message.
+	 */
+	private static final long MAX_BACKOFF_MILLIS = 1000 * 60 * 60;
+	
+	/**
+	 * The longest error that will be recorded with a message.
+	 */
+	private static final int MAX_ERROR_LENGTH = 1000;
+	
+	private static final String JSON_KEY_SENT = "sent";
+	private static final String JSON_KEY_RETRIED = "retried";
+	private static final String JSON_KEY_FAILED = "failed";
+	private static final String JSON_KEY_CONNECTION_FAILURES =
+		"connection_failures";
+	private static final String JSON_KEY_AVERAGE_DELIVERY_MILLIS =
+		"average_delivery_millis";
+	private static final String JSON_KEY_MAX_DELIVERY_MILLIS =
+		"max_delivery_millis";
+	private static final String JSON_KEY_LAST_ERROR = "last_error";
+	
+	private static MailOutboxSender instance;
+	
+	private final IMailOutboxQueries mailOutboxQueries;
+	private final int batchSize;
+	private final long millisBetweenSends;
+	private final int maxAttempts;
+	private final long initialBackoffMillis;
+	
+	// Only used by the thread that is delivering the mail.
+	private long lastSendMillis = 0;
+	
+	private final AtomicLong sent = new AtomicLong(0);
+	private final AtomicLong retried = new AtomicLong(0);
+	private final AtomicLong failed = new AtomicLong(0);
+	private final AtomicLong connectionFailures = new AtomicLong(0);
+	private final AtomicLong totalDeliveryMillis = new AtomicLong(0);
+	private final AtomicLong maxDeliveryMillis = new AtomicLong(0);
+	private volatile String lastError = null;
+	
+	/**
+	 * Creates the sender and starts delivering the mail. This is called by
+	 * Spring via reflection.
+	 * 
+	 * @param mailOutboxQueries The queries for the outbox.
+	 * 
+	 * @param pollMillis The number of milliseconds between each check for
+	 * 					 mail that is due.
+	 * 
+	 * @param batchSize The maximum number of messages to send in each run.
+	 * 
+	 * @param maxPerSecond The maximum number of messages to send each second
+	 * 					   or zero for no limit.
+	 * 
+	 * @param maxAttempts The number of times to attempt to send a message
+	 * 					  before it is marked as failed.
+	 * 
+	 * @param initialBackoffMillis The number of milliseconds to wait after
+	 * 							   the first failed attempt. This doubles with
+	 * 							   each further attempt up to one hour.
+	 * 
+	 * @throws IllegalStateException This class was already instantiated.
+	 * 
+	 * @throws IllegalArgumentException A parameter was invalid.
+	 */
+	private MailOutboxSender(
+			final IMailOutboxQueries mailOutboxQueries,
+			final long pollMillis,
+			final int batchSize,
+			final int maxPerSecond,
+			final int maxAttempts,
+			final long initialBackoffMillis) {
+		
+		this(
+			mailOutboxQueries,
+			batchSize,
+			maxPerSecond,
+			maxAttempts,
+			initialBackoffMillis);
+		
+		if(instance != null) {
+			throw new IllegalStateException(
+				"The mail outbox sender is a singleton and may only be " +
+					"built once.");
+		}
+		if(pollMillis <= 0) {
+			throw new IllegalArgumentException(
+				"The poll interval must be positive.");
+		}
+		
+		instance = this;
+		
+		SENDER.schedule(this, pollMillis, pollMillis);
+	}
+	
+	/**
+	 * Creates a sender that only delivers the mail when
+	 * {@link #deliver(long)} is called.
+	 * 
+	 * @param mailOutboxQueries The queries for the outbox.
+	 * 
+	 * @param batchSize The maximum number of messages to send in each run.
+	 * 
+	 * @param maxPerSecond The maximum number of messages to send each second
+	 * 					   or zero for no limit.
+	 * 
+	 * @param maxAttempts The number of times to attempt to send a message
+	 * 					  before it is marked as failed.
+	 * 
+	 * @param initialBackoffMillis The number of milliseconds to wait after
+	 * 							   the first failed attempt.
+	 * 
+	 * @throws IllegalArgumentException A parameter was invalid.
+	 */
+	MailOutboxSender(
+			final IMailOutboxQueries mailOutboxQueries,
+			final int batchSize,
+			final int maxPerSecond,
+			final int maxAttempts,
+			final long initialBackoffMillis) {
+		
+		if(mailOutboxQueries == null) {
+			throw new IllegalArgumentException(
+				"An instance of IMailOutboxQueries is required.");
+		}
+		if(batchSize <= 0) {
+			throw new IllegalArgumentException(
+				"The batch size must be positive.");
+		}
+		if(maxPerSecond < 0) {
+			throw new IllegalArgumentException(
+				"The maximum rate cannot be negative.");
+		}
+		if(maxAttempts <= 0) {
+			throw new IllegalArgumentException(
+				"The maximum number of attempts must be positive.");
+		}
+		if(initialBackoffMillis <= 0) {
+			throw new IllegalArgumentException(
+				"The initial backoff must be positive.");
+		}
+		
+		this.mailOutboxQueries = mailOutboxQueries;
+		this.batchSize = batchSize;
+		this.millisBetweenSends = (maxPerSecond == 0) ? 0 : 1000 / maxPerSecond;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffMillis = initialBackoffMillis;
+	}
+	
+	/**
+	 * Returns the singleton instance of this class.
+	 * 
+	 * @return The singleton instance of this class or null if it has not been
+	 * 		   built.
+	 */
+	public static MailOutboxSender instance() {
+		return instance;
+	}
+	
+	/**
+	 * Delivers the mail that is due.
+	 */
+	@Override
+	public void run() {
+		// An exception would stop the timer, so nothing may escape.
+		try {
+			deliver(System.currentTimeMillis());
+		}
+		catch(RuntimeException e) {
+			LOGGER.error("Unexpected error while delivering the mail.", e);
+		}
+	}
+	
+	/**
+	 * Stops delivering the mail.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		cancel();
+	}
+	
+	/**
+	 * Returns the number of messages that were delivered.
+	 * 
+	 * @return The number of messages that were delivered.
+	 */
+	public long getSent() {
+		return sent.get();
+	}
+	
+	/**
+	 * Returns the number of failed attempts that will be retried.
+	 * 
+	 * @return The number of failed attempts that will be retried.
+	 */
+	public long getRetried() {
+		return retried.get();
+	}
+	
+	/**
+	 * Returns the number of messages that were marked as failed.
+	 * 
+	 * @return The number of messages that were marked as failed.
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+	
+	/**
+	 * Returns the number of times the mail server could not be reached.
+	 * 
+	 * @return The number of times the mail server could not be reached.
+	 */
+	public long getConnectionFailures() {
+		return connectionFailures.get();
+	}
+	
+	/**
+	 * Creates a JSONObject with the sender's statistics since the server
+	 * started. The delivery times are from when each message was queued to
+	 * when it was sent.
+	 * 
+	 * @return A JSONObject with the sender's statistics.
+	 * 
+	 * @throws JSONException There was an error building the object.
+	 */
+	public JSONObject toJson() throws JSONException {
+		JSONObject result = new JSONObject();
+		
+		long sentCount = sent.get();
+		result.put(JSON_KEY_SENT, sentCount);
+		result.put(JSON_KEY_RETRIED, retried.get());
+		result.put(JSON_KEY_FAILED, failed.get());
+		result.put(JSON_KEY_CONNECTION_FAILURES, connectionFailures.get());
+		result.put(
+			JSON_KEY_AVERAGE_DELIVERY_MILLIS,
+			(sentCount == 0) ? 0 : totalDeliveryMillis.get() / sentCount);
+		result.put(JSON_KEY_MAX_DELIVERY_MILLIS, maxDeliveryMillis.get());
+		result.put(JSON_KEY_LAST_ERROR, lastError);
+		
+		return result;
+	}
+	
+	/**
+	 * Delivers up to one batch of the mail that is due.
+	 * 
+	 * @param nowMillis The current time.
+	 * 
+	 * @return The number of messages that were delivered.
+	 */
+	int deliver(final long nowMillis) {
+		List<MailOutboxMessage> messages;
+		try {
+			messages = mailOutboxQueries.getDueMessages(nowMillis, batchSize);
+		}
+		catch(DataAccessException e) {
+			LOGGER.error("Could not read the mail outbox.", e);
+			return 0;
+		}
+		if(messages.isEmpty()) {
+			return 0;
+		}
+		
+		Session session;
+		try {
+			session = getSession();
+		}
+		catch(ServiceException e) {
+			LOGGER.error("Could not create the mail session.", e);
+			return 0;
+		}
+		
+		int delivered = 0;
+		Transport transport = null;
+		try {
+			for(MailOutboxMessage message : messages) {
+				long claimMillis = System.currentTimeMillis();
+				if(! mailOutboxQueries.claimMessage(
+						message.getId(),
+						message.getNextAttemptMillis(),
+						claimMillis + LEASE_MILLIS)) {
+					
+					continue;
+				}
+				int attempts = message.getAttempts() + 1;
+				
+				MimeMessage mimeMessage;
+				try {
+					mimeMessage =
+						new MimeMessage(
+							session,
+							new ByteArrayInputStream(message.getMessage()));
+				}
+				catch(MessagingException e) {
+					fail(message, describe(e));
+					continue;
+				}
+				
+				// Reuse the connection as long as the server keeps it open.
+				if((transport == null) || (! transport.isConnected())) {
+					close(transport);
+					try {
+						transport = openTransport(session);
+					}
+					catch(ServiceException e) {
+						transport = null;
+						connectionFailures.incrementAndGet();
+						LOGGER.warn("Could not connect to the mail server.", e);
+						retry(message, attempts, describe(e));
+						
+						// The rest of the messages will wait for the next run.
+						break;
+					}
+				}
+				
+				if(! pace()) {
+					// The message is retried after its lease.
+					break;
+				}
+				
+				try {
+					transport.sendMessage(
+						mimeMessage,
+						mimeMessage.getAllRecipients());
+				}
+				catch(SendFailedException e) {
+					// If the server rejected some recipients outright and
+					// there is no one left to retry, sending it again would
+					// only fail again or duplicate it for the others.
+					Address[] unsent = e.getValidUnsentAddresses();
+					if((unsent != null) && (unsent.length > 0)) {
+						retry(message, attempts, describe(e));
+						continue;
+					}
+					
+					Address[] sentTo = e.getValidSentAddresses();
+					if((sentTo == null) || (sentTo.length == 0)) {
+						fail(message, describe(e));
+						continue;
+					}
+					
+					LOGGER.warn(
+						"The message was only sent to some of " +
+							message.getRecipient() + ": " + describe(e));
+				}
+				catch(MessagingException e) {
+					// The connection may be broken, so start a new one.
+					close(transport);
+					transport = null;
+					retry(message, attempts, describe(e));
+					continue;
+				}
+				
+				mailOutboxQueries.deleteMessage(message.getId());
+				delivered++;
+				recordDelivery(
+					System.currentTimeMillis() - message.getCreatedMillis());
+			}
+		}
+		catch(DataAccessException e) {
+			LOGGER.error("Could not update the mail outbox.", e);
+		}
+		finally {
+			close(transport);
+		}
+		
+		return delivered;
+	}
+	
+	/**
+	 * Creates the session that the messages are read with and sent through.
+	 * 
+	 * @return The mail session.
+	 * 
+	 * @throws ServiceException The session could not be created.
+	 */
+	Session getSession() throws ServiceException {
+		return MailUtils.getMailSession();
+	}
+	
+	/**
+	 * Opens a connection to the mail server.
+	 * 
+	 * @param session The mail session.
+	 * 
+	 * @return The connected transport.
+	 * 
+	 * @throws ServiceException The connection could not be opened.
+	 */
+	Transport openTransport(final Session session) throws ServiceException {
+		return MailUtils.openTransport(session);
+	}
+	
+	/**
+	 * Waits until the next message may be sent without exceeding the rate.
+	 * 
+	 * @return False if the thread was interrupted while waiting.
+	 */
+	private boolean pace() {
+		long waitMillis =
+			lastSendMillis + millisBetweenSends - System.currentTimeMillis();
+		if(waitMillis > 0) {
+			try {
+				Thread.sleep(waitMillis);
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		lastSendMillis = System.currentTimeMillis();
+		return true;
+	}
+	
+	/**
+	 * Schedules another attempt to send a message or, if it has been
+	 * attempted too many times, marks it as failed.
+	 * 
+	 * @param message The message.
+	 * 
+	 * @param attempts The number of times it has now been attempted.
+	 * 
+	 * @param error Why the attempt failed.
+	 * 
+	 * @throws DataAccessException There was an error updating the outbox.
+	 */
+	private void retry(
+			final MailOutboxMessage message,
+			final int attempts,
+			final String error)
+			throws DataAccessException {
+		
+		if(attempts >= maxAttempts) {
+			fail(message, error);
+			return;
+		}
+		
+		// Double the delay for each attempt after the first.
+		long backoffMillis = initialBackoffMillis;
+		for(int i = 1; i < attempts; i++) {
+			if(backoffMillis >= MAX_BACKOFF_MILLIS) {
+				break;
+			}
+			backoffMillis *= 2;
+		}
+		backoffMillis = Math.min(backoffMillis, MAX_BACKOFF_MILLIS);
+		
+		mailOutboxQueries.rescheduleMessage(
+			message.getId(),
+			System.currentTimeMillis() + backoffMillis,
+			error);
+		retried.incrementAndGet();
+		lastError = error;
+		
+		LOGGER.info(
+			"Could not send the message to " + message.getRecipient() +
+				"; retrying in " + backoffMillis + "ms: " + error);
+	}
+	
+	/**
+	 * Marks a message as failed so that it is not retried.
+	 * 
+	 * @param message The message.
+	 * 
+	 * @param error Why the last attempt failed.
+	 * 
+	 * @throws DataAccessException There was an error updating the outbox.
+	 */
+	private void fail(
+			final MailOutboxMessage message,
+			final String error)
+			throws DataAccessException {
+		
+		mailOutboxQueries.failMessage(message.getId(), error);
+		failed.incrementAndGet();
+		lastError = error;
+		
+		LOGGER.error(
+			"Giving up on the message to " + message.getRecipient() +
+				": " + error);
+	}
+	
+	/**
+	 * Records how long a message waited before it was delivered.
+	 * 
+	 * @param deliveryMillis The milliseconds since it was queued.
+	 */
+	private void recordDelivery(final long deliveryMillis) {
+		sent.incrementAndGet();
+		totalDeliveryMillis.addAndGet(deliveryMillis);
+		
+		long max = maxDeliveryMillis.get();
+		while((deliveryMillis > max) &&
+			(! maxDeliveryMillis.compareAndSet(max, deliveryMillis))) {
+			
+			max = maxDeliveryMillis.get();
+		}
+	}
+	
+	/**
+	 * Builds the error that is recorded with a message, including the causes
+	 * which usually have the mail server's reply.
+	 * 
+	 * @param e The error.
+	 * 
+	 * @return The description, truncated if it is too long.
+	 */
+	private static String describe(final Exception e) {
+		StringBuilder builder = new StringBuilder(e.toString());
+		Throwable cause = e.getCause();
+		while(cause != null) {
+			builder.append("; ").append(cause.toString());
+			cause = cause.getCause();
+		}
+		
+		if(builder.length() > MAX_ERROR_LENGTH) {
+			builder.setLength(MAX_ERROR_LENGTH);
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Closes a connection to the mail server, ignoring any errors.
+	 * 
+	 * @param transport The connection, which may be null.
+	 */
+	private static void close(final Transport transport) {
+		if(transport == null) {
+			return;
+		}
+		
+		try {
+			transport.close();
+		}
+		catch(MessagingException e) {
+			LOGGER.debug("Could not close the mail server connection.", e);
+		}
+	}
+}
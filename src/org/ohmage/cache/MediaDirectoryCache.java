@@ -1,484 +1,204 @@
 package org.ohmage.cache;
 
 import java.io.File;
-import java.io.FilenameFilter;
-import java.util.Arrays;
-import java.util.regex.Pattern;
+import java.util.UUID;
 
-import org.apache.log4j.Logger;
-import org.ohmage.domain.Media;
-import org.ohmage.domain.Image;
 import org.ohmage.domain.Audio;
-import org.ohmage.domain.Video;
+import org.ohmage.domain.Image;
+import org.ohmage.domain.Media;
 import org.ohmage.domain.OFile;
+import org.ohmage.domain.Video;
 import org.ohmage.exception.CacheMissException;
 import org.ohmage.exception.DomainException;
-import org.ohmage.query.impl.SurveyUploadQuery;
 
-// non-instantiable class
+/**
+ * <p>Determines where media and document files are stored.</p>
+ *
+ * <p>Each file is stored in a two-level sharded directory beneath its type's
+ * root directory, e.g. "root/3f/a0/", where the shard is derived from a hash
+ * of the file's UUID. This spreads the files evenly across 65,536 leaf
+ * directories, so finding a file's directory never requires listing the
+ * contents of a directory and never requires a lock. The directories are
+ * created on demand.</p>
+ *
+ * @author Joshua Selsky
+ * @author Hongsuda T.
+ */
 public class MediaDirectoryCache {
-
-	private static File currImageDirectory = null;
-	private static File currAudioDirectory = null;
-	private static File currVideoDirectory = null; 
-	private static File currFileDirectory = null;
-	
-	
 	private static final String KEY_IMAGE_DIRECTORY = PreferenceCache.KEY_IMAGE_DIRECTORY;
 	private static final String KEY_AUDIO_DIRECTORY = PreferenceCache.KEY_AUDIO_DIRECTORY;
 	private static final String KEY_VIDEO_DIRECTORY = PreferenceCache.KEY_VIDEO_DIRECTORY;
 	private static final String KEY_FILE_DIRECTORY = PreferenceCache.KEY_FILE_DIRECTORY;
-	
-	private static final Logger LOGGER = 
-			Logger.getLogger(MediaDirectoryCache.class);
+	private static final String KEY_DOCUMENT_DIRECTORY = PreferenceCache.KEY_DOCUMENT_DIRECTORY;
+
 	/**
-	 * Filters the sub-directories in a directory to only return those that
-	 * match the regular expression matcher for directories.
-	 * 
-	 * @author Joshua Selsky, 
-	 * @author Hongsuda T. 
+	 * The keys for the root directories of every type of media, but not
+	 * documents.
 	 */
-	private static final class DirectoryFilter implements FilenameFilter {
-		private static final Pattern DIRECTORY_PATTERN = 
-			Pattern.compile("[0-9]+");
-		
-		/**
-		 * Returns true iff the filename is appropriate for the regular
-		 * expression. 
-		 */
-		public boolean accept(File f, String name) {
-			return DIRECTORY_PATTERN.matcher(name).matches();
-		}
-	}
-	
+	public static final String[] MEDIA_DIRECTORY_KEYS =
+		new String[] {
+			KEY_IMAGE_DIRECTORY,
+			KEY_AUDIO_DIRECTORY,
+			KEY_VIDEO_DIRECTORY,
+			KEY_FILE_DIRECTORY
+		};
+
 	/**
-	 * Default constructor, made private because this class should be 
+	 * Default constructor, made private because this class should be
 	 * referenced statically. It is non-instantiable.
 	 */
 	private MediaDirectoryCache() {
 		throw new AssertionError();
 	};
-	
-	public static File getMediaDirectory(Class<? extends Media> mediaType) throws DomainException{
+
+	public static File getMediaDirectory(
+			final Class<? extends Media> mediaType,
+			final UUID id)
+			throws DomainException {
+
 		if (mediaType.equals(Image.class))
-			return getImageDirectory();
-		else if (mediaType.equals(Audio.class)) 
-			return getAudioDirectory();
+			return getImageDirectory(id);
+		else if (mediaType.equals(Audio.class))
+			return getAudioDirectory(id);
 		else if (mediaType.equals(Video.class))
-			return getVideoDirectory();
+			return getVideoDirectory(id);
 		else if (mediaType.equals(OFile.class))
-			return getFileDirectory();
+			return getFileDirectory(id);
 		else return null;
-		
+
 	}
-	
-	public static synchronized File getImageDirectory() throws DomainException {
-		currImageDirectory = getDirectory(currImageDirectory, KEY_IMAGE_DIRECTORY); 
-		return currImageDirectory;
+
+	public static File getImageDirectory(final UUID id) throws DomainException {
+		return getDirectory(KEY_IMAGE_DIRECTORY, id);
 	}
-	
-	public static synchronized File getAudioDirectory() throws DomainException {
-		currAudioDirectory = getDirectory(currAudioDirectory, KEY_AUDIO_DIRECTORY); 
-		return currAudioDirectory;
+
+	public static File getAudioDirectory(final UUID id) throws DomainException {
+		return getDirectory(KEY_AUDIO_DIRECTORY, id);
 	}
-	 
-	public static synchronized File getVideoDirectory() throws DomainException {
-		currVideoDirectory = getDirectory(currVideoDirectory, KEY_VIDEO_DIRECTORY); 
-		return currVideoDirectory;
+
+	public static File getVideoDirectory(final UUID id) throws DomainException {
+		return getDirectory(KEY_VIDEO_DIRECTORY, id);
 	}
-	
-	public static synchronized File getFileDirectory() throws DomainException {
-		currFileDirectory = getDirectory(currFileDirectory, KEY_FILE_DIRECTORY); 
-		return currFileDirectory;
+
+	public static File getFileDirectory(final UUID id) throws DomainException {
+		return getDirectory(KEY_FILE_DIRECTORY, id);
 	}
-	
-	
-	/**
-	 * Retrieves the file to use to store a media. Each call to this function
-	 * has the implicit expectation that a media file will be stored in the
-	 * resulting directory; however, this is not required and is not a 
-	 * necessity.
-	 * 
-	 * @return A File object where a media file should be written.
-	 */
-	private static synchronized File getDirectory(File currMediaDirectory, String keyRootDirectory) throws DomainException {
 
-		// Get the maximum number of items in a directory.
-		int numFilesPerDirectory;
-		try {
-			numFilesPerDirectory = 
-				Integer.decode(
-					PreferenceCache.instance().lookup(
-						PreferenceCache.KEY_MAXIMUM_NUMBER_OF_FILES_PER_DIRECTORY));
-		}
-		catch(CacheMissException e) {
-			throw new DomainException(
-				"Preference cache doesn't know about 'known' key: " + 
-					PreferenceCache.KEY_MAXIMUM_NUMBER_OF_FILES_PER_DIRECTORY,
-				e);
-		}
-		catch(NumberFormatException e) {
-			throw new DomainException(
-				"Stored value for key '" + 
-					PreferenceCache.KEY_MAXIMUM_NUMBER_OF_FILES_PER_DIRECTORY +
-					"' is not decodable as a number.",
-				e);
-		}
-		
-		// If the leaf directory was never initialized, then we should do
-		// that. Note that the initialization is dumb in that it will get to
-		// the end of the structure and not check to see if the leaf node is
-		// full.
-		if(currMediaDirectory == null) {		
-			currMediaDirectory = init(currMediaDirectory, keyRootDirectory, numFilesPerDirectory);  
-		}
-		
-		File[] documents = currMediaDirectory.listFiles();
-		// If the 'imageLeafDirectory' directory is full, traverse the tree and
-		// find a new directory.
-		if(documents.length >= numFilesPerDirectory) {
-			currMediaDirectory = getNewDirectory(currMediaDirectory, keyRootDirectory, numFilesPerDirectory);
-		}
-		
-		return currMediaDirectory;
+	public static File getDocumentDirectory(final UUID id) throws DomainException {
+		return getDirectory(KEY_DOCUMENT_DIRECTORY, id);
 	}
-	
+
 	/**
-	 * Initializes the directory structure by drilling down to the leaf
-	 * directory with each step choosing the directory with the largest
-	 * integer value.
+	 * Retrieves the directory in which the file with the given UUID should be
+	 * stored, creating it if it does not yet exist.
+	 *
+	 * @param keyRootDirectory The preference key for the root directory.
+	 *
+	 * @param id The UUID of the file to be stored.
+	 *
+	 * @return A File object where the file should be written.
+	 *
+	 * @throws DomainException The root directory is unknown or does not exist,
+	 * 						   or the shard directory could not be created.
 	 */
-	private static synchronized File init(File currMediaDirectory, String keyRootDirectory,
-			final int numFilesPerDirectory)
+	public static File getDirectory(
+			final String keyRootDirectory,
+			final UUID id)
 			throws DomainException {
-		
+
+		File directory = getShardDirectory(getRootDirectory(keyRootDirectory), id);
+
+		// Another thread may create the same directory at the same time, so
+		// the directory only has to exist afterwards.
 		try {
-			// If the current leaf directory has been set, we weren't the first
-			// to call init(), so we can just back out.
-			if(currMediaDirectory != null) {
-				return currMediaDirectory;
-			}
-			
-			// Get the root directory from the preference cache based on the
-			// key.
-			String rootFile;
-			try {
-				rootFile = 
-					PreferenceCache.instance().lookup(keyRootDirectory);
-			}
-			catch(CacheMissException e) {
-				throw new DomainException(
-					"Preference cache doesn't know about 'known' key: " + 
-					keyRootDirectory,
-					e);
-			}
-			File rootDirectory = new File(rootFile);
-			if(! rootDirectory.exists()) {
-				throw new DomainException(
-					"The root file doesn't exist suggesting an incomplete installation: " + 
-						rootFile);
-			}
-			else if(! rootDirectory.isDirectory()) {
-				throw new DomainException("The root file isn't a directory: " + rootFile );
-			}
-			
-			// Get the number of folders deep that documents are stored.
-			int fileDepth;
-			try {
-				fileDepth = 
-					Integer.decode(
-						PreferenceCache.instance().lookup(
-							PreferenceCache.KEY_FILE_HIERARCHY_DEPTH));
-			}
-			catch(CacheMissException e) {
-				throw new DomainException(
-					"Preference cache doesn't know about 'known' key: " +
-						PreferenceCache.KEY_FILE_HIERARCHY_DEPTH,
-					e);
-			}
-			catch(NumberFormatException e) {
+			if((! directory.mkdirs()) && (! directory.isDirectory())) {
 				throw new DomainException(
-					"Stored value for key '" + 
-						PreferenceCache.KEY_FILE_HIERARCHY_DEPTH + 
-						"' is not decodable as a number.",
-					e);
-			}
-			
-			DirectoryFilter directoryFilter = new DirectoryFilter();
-			File currDirectory = rootDirectory;
-			for(int currDepth = 0; currDepth < fileDepth; currDepth++) {
-				// Get the list of directories in the current directory.
-				File[] currDirectories = 
-					currDirectory.listFiles(directoryFilter);
-				
-				// If there aren't any, create the first sub-directory in this
-				// directory.
-				if(currDirectories.length == 0) {
-					String newFolderName = 
-						directoryNameBuilder(0, numFilesPerDirectory);
-					currDirectory = 
-						new File(
-							currDirectory.getAbsolutePath() + 
-							"/" + 
-							newFolderName);
-					currDirectory.mkdir();
-				}
-				// If the directory is overly full, step back up in the
-				// structure. This should never happen, as it indicates that
-				// there is an overflow in the structure.
-				else if(currDirectories.length > numFilesPerDirectory) {
-					// Take a step back in our depth.
-					currDepth--;
-					
-					// If, while backing up the tree, we back out of the root
-					// directory, we have filled up the space.
-					if(currDepth < 0) {
-						throw new DomainException(
-							"Image directory structure full!");
-					}
-
-					// Get the next parent and the current directory to it.
-					int nextDirectoryNumber = 
-						Integer.decode(currDirectory.getName()) + 1;
-					currDirectory = 
-						new File(
-							currDirectory.getParent() + 
-							"/" + 
-							nextDirectoryNumber);
-					
-					// If the directory already exists, then there is either a
-					// concurrency issue or someone else is adding files.
-					// Either way, this shouldn't happen.
-					if(currDirectory.exists()) {
-						throw new DomainException(
-							"Somehow the 'new' directory already exists. This should be looked into: " + 
-								currDirectory.getAbsolutePath());
-					}
-					// Otherwise, create the directory.
-					else {
-						currDirectory.mkdir();
-					}
-				}
-				// Drill down to the directory with the largest, numeric value.
-				else {
-					currDirectory = getLargestSubfolder(currDirectories);
-				}
+					"The directory could not be created: " +
+						directory.getAbsolutePath());
 			}
-			
-			// After we have found a suitable directory, set it.
-			return(currDirectory); 
-	
 		}
 		catch(SecurityException e) {
 			throw new DomainException(
 				"The current process doesn't have sufficient permiossions to create new directories.",
 				e);
 		}
+
+		return directory;
 	}
-	
+
 	/**
-	 * Checks again that the current leaf directory is full. If it is not, then
-	 * it will just back out under the impression someone else made the change.
-	 * If it is, it will go up and down the directory tree structure to find a
-	 * new leaf node in which to store new files.
-	 * 
-	 * @param numFilesPerDirectory The maximum allowed number of files in a
-	 * 							   leaf directory and the maximum allowed
-	 * 							   number of directories in the branches.
+	 * Retrieves a root directory from the preference cache.
+	 *
+	 * @param keyRootDirectory The preference key for the root directory.
+	 *
+	 * @return The root directory.
+	 *
+	 * @throws DomainException The key is unknown or the root directory does
+	 * 						   not exist.
 	 */
-	private static synchronized File getNewDirectory(File currMediaDirectory, String keyRootDirectory,
-			final int numFilesPerDirectory)
+	public static File getRootDirectory(
+			final String keyRootDirectory)
 			throws DomainException {
-		
+
+		String rootFile;
 		try {
-			// Make sure that this hasn't changed because another thread may
-			// have preempted us and already changed the current leaf
-			// directory.
-			File[] files = currMediaDirectory.listFiles();
-			if(files.length < numFilesPerDirectory) {
-				return currMediaDirectory;
-			}
-			
-			// Get the root directory from the preference cache based on the
-			// key.
-			String rootFile;
-			try {
-				rootFile = PreferenceCache.instance().lookup(keyRootDirectory);
-			}
-			catch(CacheMissException e) {
-				throw new DomainException(
-					"Preference cache doesn't know about 'known' key: " + 
-						keyRootDirectory,
-					e);
-			}
-			File rootDirectory = new File(rootFile);
-			if(! rootDirectory.exists()) {
-				throw new DomainException(
-					"The root file doesn't exist suggesting an incomplete installation: " + 
-						rootFile);
-			}
-			else if(! rootDirectory.isDirectory()) {
-				throw new DomainException("The root file isn't a directory.");
-			}
-			String absoluteRootDirectory = rootDirectory.getAbsolutePath();
-			
-			// A filter when listing a set of directories for a file.
-			DirectoryFilter directoryFilter = new DirectoryFilter();
-			
-			// A local File to use while we are searching to not confuse other
-			// threads.
-			File newDirectory = currMediaDirectory;
-			
-			// A flag to indicate when we are done looking for a directory.
-			boolean lookingForDirectory = true;
-			
-			// The number of times we stepped up in the hierarchy.
-			int depth = 0;
-			
-			// While we are still looking for a suitable directory,
-			while(lookingForDirectory) {
-				// Get the current directory's name which should be a Long
-				// value.
-				long currDirectoryName;
-				try {
-					String dirName = newDirectory.getName();
-					while(dirName.startsWith("0")) {
-						dirName = dirName.substring(1);
-					}
-					if("".equals(dirName)) {
-						currDirectoryName = 0;
-					}
-					else {
-						currDirectoryName = Long.decode(dirName);
-					}
-				}
-				catch(NumberFormatException e) {
-					if(newDirectory.getAbsolutePath().equals(absoluteRootDirectory)) {
-						throw new DomainException(
-							"Document structure full!",
-							e);
-					}
-					else {
-						throw new DomainException(
-							"Potential breach of document structure.",
-							e);
-					}
-				}
-				
-				// Move the pointer up a directory.
-				newDirectory = new File(newDirectory.getParent());
-				// Get the list of files in the parent.
-				File[] parentDirectoryFiles = newDirectory.listFiles(directoryFilter);
-				
-				// If this directory has room for a new subdirectory,
-				if(parentDirectoryFiles.length < numFilesPerDirectory) {
-					// Increment the name for the next subfolder.
-					currDirectoryName++;
-					
-					// Create the new subfolder.
-					newDirectory = new File(newDirectory.getAbsolutePath() + "/" + directoryNameBuilder(currDirectoryName, numFilesPerDirectory));
-					newDirectory.mkdir();
-					
-					// Continue drilling down to reach an appropriate leaf
-					// node.
-					while(depth > 0) {
-						newDirectory = new File(newDirectory.getAbsolutePath() + "/" + directoryNameBuilder(0, numFilesPerDirectory));
-						newDirectory.mkdir();
-						
-						depth--;
-					}
-					
-					lookingForDirectory = false;
-				}
-				// If the parent is full as well, increment the depth unless
-				// we are already at the parent. If we are at the parent, then
-				// we cannot go up any further and have exhausted the
-				// directory structure.
-				else
-				{
-					if(newDirectory.getAbsoluteFile().equals(absoluteRootDirectory)) {
-						throw new DomainException("Document structure full!");
-					}
-					else {
-						depth++;
-					}
-				}
-			}
-			
-			return(newDirectory);
+			rootFile = PreferenceCache.instance().lookup(keyRootDirectory);
 		}
-		catch(NumberFormatException e) {
+		catch(CacheMissException e) {
 			throw new DomainException(
-				"Could not decode a directory name as an integer.",
+				"Preference cache doesn't know about 'known' key: " +
+					keyRootDirectory,
 				e);
 		}
-	}
-	
-	/**
-	 * Builds the name of a folder by prepending zeroes where necessary and
-	 * converting the name into a String.
-	 * 
-	 * @param name The name of the file as an integer.
-	 * 
-	 * @param numFilesPerDirectory The maximum number of files allowed in the
-	 * 							   directory used to determine how many zeroes
-	 * 							   to prepend.
-	 * 
-	 * @return A String representing the directory name based on the
-	 * 		   parameters.
-	 */
-	private static String directoryNameBuilder(
-			final long name,
-			final int numFilesPerDirectory) {
-		
-		int nameLength = String.valueOf(name).length();
-		int maxLength = new Double(Math.log10(numFilesPerDirectory)).intValue();
-		int numberOfZeros = maxLength - nameLength;
-		
-		StringBuilder builder = new StringBuilder();
-		for(int i = 0; i < numberOfZeros; i++) {
-			builder.append("0");
+
+		File rootDirectory = new File(rootFile);
+		if(! rootDirectory.exists()) {
+			throw new DomainException(
+				"The root file doesn't exist suggesting an incomplete installation: " +
+					rootFile);
+		}
+		else if(! rootDirectory.isDirectory()) {
+			throw new DomainException("The root file isn't a directory: " + rootFile);
 		}
-		builder.append(String.valueOf(name));
-		
-		return builder.toString();
+
+		return rootDirectory;
 	}
-	
+
 	/**
-	 * Sorts the directories and returns the one whose alphanumeric value is
-	 * the greatest.
-	 * 
-	 * This will work with any naming for directories, so it is the caller's
-	 * responsibility to ensure that the list of directories are what they
-	 * want them to be.
-	 *  
-	 * @param directories The list of directories whose largest alphanumeric
-	 * 					  value is desired.
-	 * 
-	 * @return Returns the File whose path and name has the largest
-	 * 		   alphanumeric value.
+	 * Computes the directory beneath a root directory in which the file with
+	 * the given UUID belongs. This does not touch the file system.
+	 *
+	 * @param rootDirectory The root directory.
+	 *
+	 * @param id The UUID of the file.
+	 *
+	 * @return The shard directory.
 	 */
-	private static File getLargestSubfolder(File[] directories) {
-		Arrays.sort(directories);
-		
-		return directories[directories.length - 1];
+	public static File getShardDirectory(
+			final File rootDirectory,
+			final UUID id) {
+
+		// Clients may generate UUIDs whose leading digits are not random, so
+		// all of the UUID's bits are mixed before choosing the shard.
+		int hash = id.hashCode();
+		hash ^= (hash >>> 16);
+
+		return
+			new File(
+				rootDirectory.getAbsolutePath() + "/" +
+				toHex((hash >>> 8) & 0xFF) + "/" +
+				toHex(hash & 0xFF));
 	}
 
-	/*
-	public static void main(String[] args){
-		try {
-			for (int i = 0; i< 5; i++) {
-				System.out.println("--- i = " + i + " ---");
-				System.out.println("Image dir: " + getImageDirectory().getAbsolutePath());
-				System.out.println("Audio dir: " + getAudioDirectory().getAbsolutePath());
-				System.out.println("Video dir: " + getVideoDirectory().getAbsolutePath());
-				System.out.println("Document dir: " + getDocumentDirectory().getAbsolutePath());
-			}
-			
-		} catch(DomainException e){
-			System.out.println("Something is wrong");
-		}
-	
+	/**
+	 * Converts a byte into two lower-case hexadecimal digits.
+	 *
+	 * @param value The byte's value, between 0 and 255.
+	 *
+	 * @return The two hexadecimal digits.
+	 */
+	private static String toHex(final int value) {
+		String result = Integer.toHexString(value);
+		return (result.length() == 1) ? "0" + result : result;
 	}
-	*/
 }
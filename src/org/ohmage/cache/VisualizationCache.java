@@ -0,0 +1,387 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ohmage.exception.ServiceException;
+
+/**
+ * <p>
+ * A bounded cache of rendered visualizations. Each image is stored under a
+ * key that must capture everything that affects how it is rendered, including
+ * a watermark of the data it was rendered from, so that a change to the data
+ * results in a new key rather than requiring an invalidation.
+ * </p>
+ *
+ * <p>
+ * Requests for an image that is currently being rendered wait for that
+ * rendering instead of starting their own. Only successful renderings are
+ * cached; if rendering fails, every request that was waiting on it receives
+ * the same exception.
+ * </p>
+ *
+ * <p>
+ * Images are evicted in least-recently-used order once the total size of the
+ * cached images exceeds the limit, and are never returned once they are older
+ * than the lifetime.
+ * </p>
+ */
+public final class VisualizationCache {
+	/**
+	 * Renders a single image on a cache miss.
+	 */
+	public static interface Renderer {
+		/**
+		 * Renders the image.
+		 *
+		 * @return The image's bytes.
+		 *
+		 * @throws ServiceException There was an error rendering the image.
+		 */
+		public byte[] render() throws ServiceException;
+	}
+
+	/**
+	 * A cached image and when it was rendered.
+	 */
+	private static final class Entry {
+		private final byte[] image;
+		private final long created;
+
+		private Entry(final byte[] image, final long created) {
+			this.image = image;
+			this.created = created;
+		}
+	}
+
+	private final long lifetime;
+	private final long maxBytes;
+
+	// Guarded by itself.
+	private final LinkedHashMap<String, Entry> entries =
+		new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long bytes = 0;
+
+	private final ConcurrentMap<String, FutureTask<byte[]>> inFlight =
+		new ConcurrentHashMap<String, FutureTask<byte[]>>();
+
+	private final AtomicLong hits = new AtomicLong(0);
+	private final AtomicLong misses = new AtomicLong(0);
+	private final AtomicLong coalesced = new AtomicLong(0);
+	private final AtomicLong failures = new AtomicLong(0);
+	private final AtomicLong renderMillis = new AtomicLong(0);
+	private final AtomicLong maxRenderMillis = new AtomicLong(0);
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param lifetime The number of milliseconds for which an image may be
+	 * 				   returned after it was rendered.
+	 *
+	 * @param maxBytes The maximum total size of the cached images. An image
+	 * 				   larger than this is never cached.
+	 *
+	 * @throws IllegalArgumentException The lifetime or maximum size was
+	 * 									negative.
+	 */
+	public VisualizationCache(final long lifetime, final long maxBytes) {
+		if(lifetime < 0) {
+			throw new IllegalArgumentException(
+				"The lifetime cannot be negative.");
+		}
+		if(maxBytes < 0) {
+			throw new IllegalArgumentException(
+				"The maximum size cannot be negative.");
+		}
+
+		this.lifetime = lifetime;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the image for the given key, rendering it if it is not cached
+	 * and is not already being rendered.
+	 *
+	 * @param key The key that uniquely identifies the image.
+	 *
+	 * @param renderer The renderer to use on a cache miss.
+	 *
+	 * @return The image's bytes. These must not be modified.
+	 *
+	 * @throws ServiceException The image was not cached and rendering it
+	 * 							failed.
+	 */
+	public byte[] get(
+			final String key,
+			final Renderer renderer)
+			throws ServiceException {
+
+		byte[] result = lookup(key);
+		if(result != null) {
+			hits.incrementAndGet();
+			return result;
+		}
+
+		FutureTask<byte[]> task =
+			new FutureTask<byte[]>(
+				new Callable<byte[]>() {
+					/**
+					 * Renders and caches the image unless another rendering
+					 * cached it after the lookup above.
+					 */
+					@Override
+					public byte[] call() throws ServiceException {
+						byte[] image = lookup(key);
+						if(image != null) {
+							return image;
+						}
+
+						long start = System.currentTimeMillis();
+						try {
+							image = renderer.render();
+						}
+						finally {
+							recordRenderTime(
+								System.currentTimeMillis() - start);
+						}
+
+						store(key, image);
+						return image;
+					}
+				});
+
+		FutureTask<byte[]> existing = inFlight.putIfAbsent(key, task);
+		if(existing == null) {
+			misses.incrementAndGet();
+			try {
+				task.run();
+			}
+			finally {
+				inFlight.remove(key, task);
+			}
+		}
+		else {
+			coalesced.incrementAndGet();
+			task = existing;
+		}
+
+		try {
+			return task.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceException(
+				"Interrupted while waiting for the visualization.",
+				e);
+		}
+		catch(ExecutionException e) {
+			if(existing == null) {
+				failures.incrementAndGet();
+			}
+
+			Throwable cause = e.getCause();
+			if(cause instanceof ServiceException) {
+				throw (ServiceException) cause;
+			}
+			else if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			else if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new ServiceException(
+				"Error rendering the visualization.",
+				cause);
+		}
+	}
+
+	/**
+	 * Returns the number of requests that were answered from the cache.
+	 *
+	 * @return The number of cache hits.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of requests that rendered an image.
+	 *
+	 * @return The number of cache misses.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the number of requests that waited on another request's
+	 * rendering of the same image.
+	 *
+	 * @return The number of coalesced requests.
+	 */
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	/**
+	 * Returns the number of renderings that failed.
+	 *
+	 * @return The number of failed renderings.
+	 */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	/**
+	 * Returns the total time spent rendering images.
+	 *
+	 * @return The total rendering time in milliseconds.
+	 */
+	public long getTotalRenderMillis() {
+		return renderMillis.get();
+	}
+
+	/**
+	 * Returns the longest time spent rendering a single image.
+	 *
+	 * @return The longest rendering time in milliseconds.
+	 */
+	public long getMaxRenderMillis() {
+		return maxRenderMillis.get();
+	}
+
+	/**
+	 * Returns the number of cached images.
+	 *
+	 * @return The number of cached images.
+	 */
+	public int getSize() {
+		synchronized(entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Returns the total size of the cached images.
+	 *
+	 * @return The total size of the cached images in bytes.
+	 */
+	public long getBytes() {
+		synchronized(entries) {
+			return bytes;
+		}
+	}
+
+	/**
+	 * Returns a one-line summary of the cache's statistics.
+	 *
+	 * @return The cache's statistics.
+	 */
+	@Override
+	public String toString() {
+		long renders = getMissCount();
+		return
+			"hits=" + getHitCount() +
+			", misses=" + renders +
+			", coalesced=" + getCoalescedCount() +
+			", failures=" + getFailureCount() +
+			", averageRenderMillis=" +
+				((renders == 0) ? 0 : (getTotalRenderMillis() / renders)) +
+			", maxRenderMillis=" + getMaxRenderMillis() +
+			", images=" + getSize() +
+			", bytes=" + getBytes();
+	}
+
+	/**
+	 * Returns a cached image if it exists and has not expired.
+	 *
+	 * @param key The image's key.
+	 *
+	 * @return The image's bytes or null if it is not cached.
+	 */
+	private byte[] lookup(final String key) {
+		synchronized(entries) {
+			Entry entry = entries.get(key);
+			if(entry == null) {
+				return null;
+			}
+			else if(System.currentTimeMillis() - entry.created > lifetime) {
+				entries.remove(key);
+				bytes -= entry.image.length;
+				return null;
+			}
+			return entry.image;
+		}
+	}
+
+	/**
+	 * Caches an image, evicting the least-recently-used images until the
+	 * cache is within its size limit.
+	 *
+	 * @param key The image's key.
+	 *
+	 * @param image The image's bytes.
+	 */
+	private void store(final String key, final byte[] image) {
+		if(image.length > maxBytes) {
+			return;
+		}
+
+		synchronized(entries) {
+			Entry previous =
+				entries.put(
+					key,
+					new Entry(image, System.currentTimeMillis()));
+			if(previous != null) {
+				bytes -= previous.image.length;
+			}
+			bytes += image.length;
+
+			Iterator<Map.Entry<String, Entry>> iter =
+				entries.entrySet().iterator();
+			while((bytes > maxBytes) && iter.hasNext()) {
+				Entry eldest = iter.next().getValue();
+				iter.remove();
+				bytes -= eldest.image.length;
+			}
+		}
+	}
+
+	/**
+	 * Records how long a rendering took.
+	 *
+	 * @param millis The rendering time in milliseconds.
+	 */
+	private void recordRenderTime(final long millis) {
+		renderMillis.addAndGet(millis);
+
+		long max;
+		while((max = maxRenderMillis.get()) < millis) {
+			if(maxRenderMillis.compareAndSet(max, millis)) {
+				break;
+			}
+		}
+	}
+}
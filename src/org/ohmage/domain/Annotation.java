@@ -15,10 +15,12 @@
  ******************************************************************************/
 package org.ohmage.domain;
 
+import java.io.IOException;
 import java.util.TimeZone;
 import java.util.UUID;
 
 import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonGenerator;
 import org.joda.time.format.ISODateTimeFormat;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -41,6 +43,43 @@ public class Annotation {
 	private static final String JSON_KEY_TIMEZONE = "timezone";
 	private static final String JSON_KEY_AUTHOR = "author";
 
+	/**
+	 * Receives annotations one at a time as they are read, so that they
+	 * never all need to be in memory at once.
+	 */
+	public static interface Handler {
+		/**
+		 * Handles the next annotation.
+		 * 
+		 * @param surveyResponseId The survey response to which the 
+		 * 						   annotation is attached, either directly or
+		 * 						   through one of its prompt responses.
+		 * 
+		 * @param promptId The prompt ID of the prompt response to which the
+		 * 				   annotation is attached or null if it is attached 
+		 * 				   to the survey response itself.
+		 * 
+		 * @param repeatableSetId The repeatable set ID of the prompt 
+		 * 						  response or null if it is not part of a
+		 * 						  repeatable set.
+		 * 
+		 * @param repeatableSetIteration The repeatable set iteration of the
+		 * 								 prompt response or null if it is not
+		 * 								 part of a repeatable set.
+		 * 
+		 * @param annotation The annotation.
+		 * 
+		 * @throws IOException There was an error writing the annotation.
+		 */
+		public void handle(
+				final UUID surveyResponseId,
+				final String promptId,
+				final String repeatableSetId,
+				final Integer repeatableSetIteration,
+				final Annotation annotation)
+				throws IOException;
+	}
+	
 	
 	private UUID id;
 	private String text;
@@ -132,4 +171,24 @@ public class Annotation {
 			return null;
 		}
 	}
+	
+	/**
+	 * Writes the same fields as {@link #toJson()} to the object that the 
+	 * generator is currently writing. Starting and ending the object is left
+	 * to the caller, so that it may add its own fields.
+	 * 
+	 * @param generator The generator.
+	 * 
+	 * @throws IOException There was an error writing the fields.
+	 */
+	public void writeJsonFields(
+			final JsonGenerator generator)
+			throws IOException {
+		
+		generator.writeStringField(JSON_KEY_ID, id.toString());
+		generator.writeStringField(JSON_KEY_TEXT, text);
+		generator.writeNumberField(JSON_KEY_TIME, epochMillis);
+		generator.writeStringField(JSON_KEY_TIMEZONE, timezone.getID());
+		generator.writeStringField(JSON_KEY_AUTHOR, author);
+	}
 }
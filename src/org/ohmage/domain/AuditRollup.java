@@ -0,0 +1,390 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import org.apache.log4j.Logger;
+import org.joda.time.format.ISODateTimeFormat;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * <p>
+ * The aggregated counters for all of the audits that share a URI, client,
+ * and response code within a single minute.
+ * </p>
+ *
+ * <p>
+ * Rollups are accumulated in memory as audits are written and periodically
+ * persisted, which allows reports and dashboards to read the totals without
+ * scanning the audit table.
+ * </p>
+ */
+public class AuditRollup {
+	private static final Logger LOGGER = Logger.getLogger(AuditRollup.class);
+
+	/**
+	 * The number of milliseconds in a single rollup bucket.
+	 */
+	public static final long BUCKET_MILLIS = 1000 * 60;
+
+	/**
+	 * The upper bounds, exclusive, of each latency histogram bucket in
+	 * milliseconds. There is one additional bucket for all latencies greater
+	 * than or equal to the last bound.
+	 */
+	public static final long[] LATENCY_BOUNDS =
+		new long[] { 50, 100, 250, 500, 1000, 2500, 10000 };
+
+	/**
+	 * The response code used for requests that succeeded.
+	 */
+	public static final String RESPONSE_CODE_SUCCESS = "success";
+	/**
+	 * The response code used for requests whose response could not be
+	 * decoded.
+	 */
+	public static final String RESPONSE_CODE_UNKNOWN = "unknown";
+
+	private static final String JSON_KEY_TIMESTAMP = "timestamp";
+	private static final String JSON_KEY_URI = "uri";
+	private static final String JSON_KEY_CLIENT = "client";
+	private static final String JSON_KEY_RESPONSE_CODE = "response_code";
+	private static final String JSON_KEY_COUNT = "count";
+	private static final String JSON_KEY_TOTAL_MILLIS = "total_millis";
+	private static final String JSON_KEY_MAX_MILLIS = "max_millis";
+	private static final String JSON_KEY_LATENCY_BOUNDS = "latency_bounds";
+	private static final String JSON_KEY_LATENCY_HISTOGRAM =
+		"latency_histogram";
+
+	/**
+	 * The types of entities whose reads are counted by the rollups.
+	 */
+	public static enum EntityType {
+		CAMPAIGN,
+		CLASS;
+
+		/**
+		 * This entity type as a human-readable string.
+		 */
+		@Override
+		public String toString() {
+			return name().toLowerCase();
+		}
+	}
+
+	/**
+	 * The number of successful reads of a single campaign or class within a
+	 * single minute.
+	 */
+	public static final class EntityReadCount {
+		private final long bucketMillis;
+		private final EntityType entityType;
+		private final String entityId;
+		private final long count;
+
+		/**
+		 * Creates a new entity read count.
+		 *
+		 * @param bucketMillis The start of the minute in which the reads took
+		 * 					   place.
+		 *
+		 * @param entityType The type of entity that was read.
+		 *
+		 * @param entityId The entity's unique identifier.
+		 *
+		 * @param count The number of times the entity was read.
+		 */
+		public EntityReadCount(
+				final long bucketMillis,
+				final EntityType entityType,
+				final String entityId,
+				final long count) {
+
+			this.bucketMillis = bucketMillis;
+			this.entityType = entityType;
+			this.entityId = entityId;
+			this.count = count;
+		}
+
+		/**
+		 * Returns the start of the minute in which the reads took place.
+		 *
+		 * @return The start of the minute in which the reads took place.
+		 */
+		public long getBucketMillis() {
+			return bucketMillis;
+		}
+
+		/**
+		 * Returns the type of entity that was read.
+		 *
+		 * @return The type of entity that was read.
+		 */
+		public EntityType getEntityType() {
+			return entityType;
+		}
+
+		/**
+		 * Returns the entity's unique identifier.
+		 *
+		 * @return The entity's unique identifier.
+		 */
+		public String getEntityId() {
+			return entityId;
+		}
+
+		/**
+		 * Returns the number of times the entity was read.
+		 *
+		 * @return The number of times the entity was read.
+		 */
+		public long getCount() {
+			return count;
+		}
+	}
+
+	private final long bucketMillis;
+	private final String uri;
+	private final String client;
+	private final String responseCode;
+
+	private final long count;
+	private final long totalMillis;
+	private final long maxMillis;
+	private final long[] latencyHistogram;
+
+	/**
+	 * Creates a new rollup.
+	 *
+	 * @param bucketMillis The start of the minute this rollup covers or, for
+	 * 					   rollups that span a larger window, the start of
+	 * 					   that window.
+	 *
+	 * @param uri The URI of the requests.
+	 *
+	 * @param client The client value of the requests. This may be null.
+	 *
+	 * @param responseCode Either {@link #RESPONSE_CODE_SUCCESS},
+	 * 					   {@link #RESPONSE_CODE_UNKNOWN}, or the error code
+	 * 					   with which the requests failed.
+	 *
+	 * @param count The number of requests.
+	 *
+	 * @param totalMillis The sum of the time, in milliseconds, it took to
+	 * 					  process all of the requests.
+	 *
+	 * @param maxMillis The longest time, in milliseconds, it took to process
+	 * 					any one of the requests.
+	 *
+	 * @param latencyHistogram The number of requests whose processing time
+	 * 						   fell into each of the buckets defined by
+	 * 						   {@link #LATENCY_BOUNDS}. This must have exactly
+	 * 						   one more entry than the bounds.
+	 *
+	 * @throws IllegalArgumentException The URI or response code were null or
+	 * 									the histogram was the wrong size.
+	 */
+	public AuditRollup(
+			final long bucketMillis,
+			final String uri,
+			final String client,
+			final String responseCode,
+			final long count,
+			final long totalMillis,
+			final long maxMillis,
+			final long[] latencyHistogram) {
+
+		if(uri == null) {
+			throw new IllegalArgumentException("The URI is null.");
+		}
+		else if(responseCode == null) {
+			throw new IllegalArgumentException("The response code is null.");
+		}
+		else if(
+			(latencyHistogram == null) ||
+			(latencyHistogram.length != LATENCY_BOUNDS.length + 1)) {
+
+			throw new IllegalArgumentException(
+				"The latency histogram must have exactly " +
+					(LATENCY_BOUNDS.length + 1) +
+					" buckets.");
+		}
+
+		this.bucketMillis = bucketMillis;
+		this.uri = uri;
+		this.client = client;
+		this.responseCode = responseCode;
+
+		this.count = count;
+		this.totalMillis = totalMillis;
+		this.maxMillis = maxMillis;
+		this.latencyHistogram = latencyHistogram.clone();
+	}
+
+	/**
+	 * Returns the start of the minute for the given time.
+	 *
+	 * @param millis The milliseconds since epoch.
+	 *
+	 * @return The milliseconds since epoch at the start of that minute.
+	 */
+	public static long getBucket(final long millis) {
+		return millis - (millis % BUCKET_MILLIS);
+	}
+
+	/**
+	 * Returns the index of the latency histogram bucket for the given
+	 * processing time.
+	 *
+	 * @param millis The time, in milliseconds, it took to process a request.
+	 *
+	 * @return The index of the bucket into which this latency falls.
+	 */
+	public static int getLatencyBucket(final long millis) {
+		for(int i = 0; i < LATENCY_BOUNDS.length; i++) {
+			if(millis < LATENCY_BOUNDS[i]) {
+				return i;
+			}
+		}
+
+		return LATENCY_BOUNDS.length;
+	}
+
+	/**
+	 * Returns the start of the window this rollup covers.
+	 *
+	 * @return The start of the window this rollup covers.
+	 */
+	public long getBucketMillis() {
+		return bucketMillis;
+	}
+
+	/**
+	 * Returns the URI of the requests.
+	 *
+	 * @return The URI of the requests.
+	 */
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * Returns the client value of the requests. This may be null.
+	 *
+	 * @return The client value of the requests. This may be null.
+	 */
+	public String getClient() {
+		return client;
+	}
+
+	/**
+	 * Returns the response code of the requests.
+	 *
+	 * @return The response code of the requests.
+	 */
+	public String getResponseCode() {
+		return responseCode;
+	}
+
+	/**
+	 * Returns whether or not these requests succeeded.
+	 *
+	 * @return Whether or not these requests succeeded.
+	 */
+	public boolean isSuccess() {
+		return RESPONSE_CODE_SUCCESS.equals(responseCode);
+	}
+
+	/**
+	 * Returns the number of requests.
+	 *
+	 * @return The number of requests.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the sum of the time it took to process all of the requests.
+	 *
+	 * @return The sum of the time it took to process all of the requests.
+	 */
+	public long getTotalMillis() {
+		return totalMillis;
+	}
+
+	/**
+	 * Returns the longest time it took to process any one of the requests.
+	 *
+	 * @return The longest time it took to process any one of the requests.
+	 */
+	public long getMaxMillis() {
+		return maxMillis;
+	}
+
+	/**
+	 * Returns a copy of the latency histogram.
+	 *
+	 * @return A copy of the latency histogram.
+	 *
+	 * @see #LATENCY_BOUNDS
+	 */
+	public long[] getLatencyHistogram() {
+		return latencyHistogram.clone();
+	}
+
+	/**
+	 * A JSONObject representing this rollup.
+	 *
+	 * @return A JSONObject representing this rollup. If there is an error
+	 * 		   building this object, null is returned.
+	 */
+	public JSONObject toJson() {
+		try {
+			JSONObject result = new JSONObject();
+
+			result
+				.put(
+					JSON_KEY_TIMESTAMP,
+					ISODateTimeFormat.dateTime().print(bucketMillis));
+			result.put(JSON_KEY_URI, uri);
+			result.put(JSON_KEY_CLIENT, client);
+			result.put(JSON_KEY_RESPONSE_CODE, responseCode);
+			result.put(JSON_KEY_COUNT, count);
+			result.put(JSON_KEY_TOTAL_MILLIS, totalMillis);
+			result.put(JSON_KEY_MAX_MILLIS, maxMillis);
+
+			JSONArray bounds = new JSONArray();
+			for(long bound : LATENCY_BOUNDS) {
+				bounds.put(bound);
+			}
+			result.put(JSON_KEY_LATENCY_BOUNDS, bounds);
+
+			JSONArray histogram = new JSONArray();
+			for(long bucketCount : latencyHistogram) {
+				histogram.put(bucketCount);
+			}
+			result.put(JSON_KEY_LATENCY_HISTOGRAM, histogram);
+
+			return result;
+		}
+		catch(JSONException e) {
+			LOGGER.error("Error building the JSONObject.", e);
+			return null;
+		}
+	}
+}
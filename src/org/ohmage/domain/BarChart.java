@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A stacked bar chart of counts. Each category is one bar and each series is
+ * one segment of every bar, stacked in the order in which the series were
+ * added. The chart can be rendered as a PNG or returned as its JSON series.
+ */
+public class BarChart {
+	/**
+	 * The formats in which a chart may be returned.
+	 */
+	public static enum OutputFormat {
+		PNG,
+		JSON;
+
+		/**
+		 * Converts the output format to a nice, human-readable format.
+		 *
+		 * @return The output format as a nice, human-readable format.
+		 */
+		@Override
+		public String toString() {
+			return name().toLowerCase();
+		}
+	}
+
+	private static final String JSON_KEY_TITLE = "title";
+	private static final String JSON_KEY_CATEGORIES = "categories";
+	private static final String JSON_KEY_SERIES = "series";
+
+	private static final String IMAGE_FORMAT = "png";
+
+	private static final Color[] COLORS = new Color[] {
+		new Color(0x1F, 0x77, 0xB4),
+		new Color(0xFF, 0x7F, 0x0E),
+		new Color(0x2C, 0xA0, 0x2C),
+		new Color(0xD6, 0x27, 0x28),
+		new Color(0x94, 0x67, 0xBD),
+		new Color(0x8C, 0x56, 0x4B)
+	};
+	private static final Color AXIS_COLOR = Color.DARK_GRAY;
+	private static final Color GRID_COLOR = new Color(0xE0, 0xE0, 0xE0);
+
+	private static final int MARGIN = 8;
+	private static final int TICK_LENGTH = 4;
+	private static final int NUM_Y_TICKS = 5;
+	private static final int LEGEND_SWATCH = 10;
+
+	private final String title;
+	private final List<String> categories;
+	private final Map<String, long[]> series =
+		new LinkedHashMap<String, long[]>();
+
+	/**
+	 * Creates a chart with no series.
+	 *
+	 * @param title The chart's title, which may be null.
+	 *
+	 * @param categories The bars' labels, in order.
+	 *
+	 * @throws IllegalArgumentException The categories were null.
+	 */
+	public BarChart(final String title, final List<String> categories) {
+		if(categories == null) {
+			throw new IllegalArgumentException("The categories are null.");
+		}
+
+		this.title = title;
+		this.categories =
+			Collections.unmodifiableList(new ArrayList<String>(categories));
+	}
+
+	/**
+	 * Adds a series to the chart.
+	 *
+	 * @param name The series' name.
+	 *
+	 * @param values The series' value for each category, in the same order as
+	 * 				 the categories.
+	 *
+	 * @throws IllegalArgumentException The name or values were null, the
+	 * 									number of values did not match the
+	 * 									number of categories, or a series
+	 * 									with the same name already exists.
+	 */
+	public void addSeries(final String name, final long[] values) {
+		if(name == null) {
+			throw new IllegalArgumentException("The name is null.");
+		}
+		if(values == null) {
+			throw new IllegalArgumentException("The values are null.");
+		}
+		if(values.length != categories.size()) {
+			throw new IllegalArgumentException(
+				"The number of values does not match the number of " +
+					"categories.");
+		}
+		if(series.containsKey(name)) {
+			throw new IllegalArgumentException(
+				"A series with the same name already exists: " + name);
+		}
+
+		series.put(name, values.clone());
+	}
+
+	/**
+	 * Returns the chart's title.
+	 *
+	 * @return The chart's title, which may be null.
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Returns the bars' labels.
+	 *
+	 * @return An unmodifiable list of the bars' labels.
+	 */
+	public List<String> getCategories() {
+		return categories;
+	}
+
+	/**
+	 * Returns the chart's categories and series as JSON.
+	 *
+	 * @return A JSONObject with the title, the categories, and an object of
+	 * 		   each series' name to its values.
+	 *
+	 * @throws JSONException There was an error building the JSONObject.
+	 */
+	public JSONObject toJson() throws JSONException {
+		JSONObject result = new JSONObject();
+		result.put(JSON_KEY_TITLE, title);
+		result.put(JSON_KEY_CATEGORIES, new JSONArray(categories));
+
+		JSONObject seriesJson = new JSONObject();
+		for(Map.Entry<String, long[]> entry : series.entrySet()) {
+			JSONArray values = new JSONArray();
+			for(long value : entry.getValue()) {
+				values.put(value);
+			}
+			seriesJson.put(entry.getKey(), values);
+		}
+		result.put(JSON_KEY_SERIES, seriesJson);
+
+		return result;
+	}
+
+	/**
+	 * Renders the chart as a PNG.
+	 *
+	 * @param width The image's width in pixels.
+	 *
+	 * @param height The image's height in pixels.
+	 *
+	 * @return The PNG's bytes.
+	 *
+	 * @throws IllegalArgumentException The width or height was not positive.
+	 *
+	 * @throws IOException There was an error encoding the image.
+	 */
+	public byte[] toPng(
+			final int width,
+			final int height)
+			throws IOException {
+
+		if((width <= 0) || (height <= 0)) {
+			throw new IllegalArgumentException(
+				"The width and height must be positive.");
+		}
+
+		BufferedImage image =
+			new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		try {
+			draw(graphics, width, height);
+		}
+		finally {
+			graphics.dispose();
+		}
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		ImageIO.write(image, IMAGE_FORMAT, result);
+		return result.toByteArray();
+	}
+
+	/**
+	 * Draws the chart.
+	 *
+	 * @param graphics The graphics to draw on.
+	 *
+	 * @param width The drawing area's width.
+	 *
+	 * @param height The drawing area's height.
+	 */
+	private void draw(
+			final Graphics2D graphics,
+			final int width,
+			final int height) {
+
+		graphics.setRenderingHint(
+			RenderingHints.KEY_ANTIALIASING,
+			RenderingHints.VALUE_ANTIALIAS_ON);
+		graphics.setRenderingHint(
+			RenderingHints.KEY_TEXT_ANTIALIASING,
+			RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, width, height);
+		graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
+
+		FontMetrics metrics = graphics.getFontMetrics();
+		int lineHeight = metrics.getHeight();
+
+		// The title.
+		int top = MARGIN;
+		if(title != null) {
+			graphics.setColor(AXIS_COLOR);
+			graphics.drawString(
+				title,
+				(width - metrics.stringWidth(title)) / 2,
+				top + metrics.getAscent());
+			top += lineHeight + MARGIN;
+		}
+
+		// The legend, if there is more than one series.
+		if(series.size() > 1) {
+			int x = MARGIN;
+			int colorIndex = 0;
+			for(String name : series.keySet()) {
+				int entryWidth =
+					LEGEND_SWATCH + 4 + metrics.stringWidth(name) + MARGIN;
+				if((x + entryWidth > width) && (x > MARGIN)) {
+					x = MARGIN;
+					top += lineHeight;
+				}
+
+				graphics.setColor(COLORS[colorIndex++ % COLORS.length]);
+				graphics.fillRect(
+					x,
+					top + (lineHeight - LEGEND_SWATCH) / 2,
+					LEGEND_SWATCH,
+					LEGEND_SWATCH);
+				graphics.setColor(AXIS_COLOR);
+				graphics.drawString(
+					name,
+					x + LEGEND_SWATCH + 4,
+					top + metrics.getAscent());
+				x += entryWidth;
+			}
+			top += lineHeight + MARGIN;
+		}
+
+		// Compute the stacked totals and the y-axis scale.
+		long[] totals = new long[categories.size()];
+		for(long[] values : series.values()) {
+			for(int i = 0; i < values.length; i++) {
+				totals[i] += values[i];
+			}
+		}
+		long max = 0;
+		for(long total : totals) {
+			max = Math.max(max, total);
+		}
+		long step = getTickStep(max);
+		long axisMax = step * NUM_Y_TICKS;
+
+		int left =
+			MARGIN +
+			metrics.stringWidth(Long.toString(axisMax)) +
+			TICK_LENGTH +
+			2;
+		int right = width - MARGIN;
+		int bottom = height - MARGIN - lineHeight - TICK_LENGTH;
+		int plotHeight = bottom - top;
+		int plotWidth = right - left;
+		if((plotHeight <= 0) || (plotWidth <= 0)) {
+			return;
+		}
+
+		// The y-axis ticks and grid lines.
+		for(int i = 0; i <= NUM_Y_TICKS; i++) {
+			long value = step * i;
+			int y = bottom - (int) ((value * plotHeight) / axisMax);
+			if(i > 0) {
+				graphics.setColor(GRID_COLOR);
+				graphics.drawLine(left + 1, y, right, y);
+			}
+
+			graphics.setColor(AXIS_COLOR);
+			graphics.drawLine(left - TICK_LENGTH, y, left, y);
+			String label = Long.toString(value);
+			graphics.drawString(
+				label,
+				left - TICK_LENGTH - 2 - metrics.stringWidth(label),
+				y + metrics.getAscent() / 2);
+		}
+
+		if(categories.isEmpty()) {
+			String message = "No data";
+			graphics.setColor(AXIS_COLOR);
+			graphics.drawString(
+				message,
+				left + (plotWidth - metrics.stringWidth(message)) / 2,
+				top + plotHeight / 2);
+		}
+		else {
+			// The bars.
+			double slot = (double) plotWidth / categories.size();
+			int barWidth = Math.max(1, (int) (slot * 0.8));
+			for(int i = 0; i < categories.size(); i++) {
+				int x = left + (int) (slot * i + (slot - barWidth) / 2);
+				long stacked = 0;
+				int colorIndex = 0;
+				for(long[] values : series.values()) {
+					Color color = COLORS[colorIndex++ % COLORS.length];
+					if(values[i] == 0) {
+						continue;
+					}
+
+					int y0 =
+						bottom - (int) ((stacked * plotHeight) / axisMax);
+					stacked += values[i];
+					int y1 =
+						bottom - (int) ((stacked * plotHeight) / axisMax);
+
+					graphics.setColor(color);
+					graphics.fillRect(x, y1, barWidth, Math.max(1, y0 - y1));
+				}
+			}
+
+			// The x-axis labels, skipping labels so that they do not
+			// overlap.
+			int maxLabelWidth = 0;
+			for(String category : categories) {
+				maxLabelWidth =
+					Math.max(maxLabelWidth, metrics.stringWidth(category));
+			}
+			int labelEvery =
+				Math.max(
+					1,
+					(int) Math.ceil((maxLabelWidth + MARGIN) / slot));
+			graphics.setColor(AXIS_COLOR);
+			for(int i = 0; i < categories.size(); i += labelEvery) {
+				String category = categories.get(i);
+				int center = left + (int) (slot * i + slot / 2);
+				graphics.drawLine(
+					center,
+					bottom,
+					center,
+					bottom + TICK_LENGTH);
+				graphics.drawString(
+					category,
+					center - metrics.stringWidth(category) / 2,
+					bottom + TICK_LENGTH + metrics.getAscent());
+			}
+		}
+
+		// The axes.
+		graphics.setColor(AXIS_COLOR);
+		graphics.drawLine(left, top, left, bottom);
+		graphics.drawLine(left, bottom, right, bottom);
+	}
+
+	/**
+	 * Returns the distance between y-axis ticks, a 1, 2, or 5 times a power
+	 * of ten, such that {@value #NUM_Y_TICKS} ticks cover the maximum.
+	 *
+	 * @param max The largest value in the chart.
+	 *
+	 * @return The distance between y-axis ticks.
+	 */
+	private static long getTickStep(final long max) {
+		long rawStep = Math.max(1, (max + NUM_Y_TICKS - 1) / NUM_Y_TICKS);
+
+		long magnitude = 1;
+		while(magnitude * 10 <= rawStep) {
+			magnitude *= 10;
+		}
+
+		if(rawStep <= magnitude) {
+			return magnitude;
+		}
+		else if(rawStep <= 2 * magnitude) {
+			return 2 * magnitude;
+		}
+		else if(rawStep <= 5 * magnitude) {
+			return 5 * magnitude;
+		}
+		return 10 * magnitude;
+	}
+}
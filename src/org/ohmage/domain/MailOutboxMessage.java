@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A mail message that is waiting in the outbox to be delivered. The message
+ * itself is kept exactly as it will be sent, including its headers.
+ */
+public class MailOutboxMessage {
+	private final long id;
+	private final String recipient;
+	private final byte[] message;
+	private final long createdMillis;
+	private final long nextAttemptMillis;
+	private final int attempts;
+	
+	/**
+	 * The number of messages in the outbox.
+	 */
+	public static class Summary {
+		private static final String JSON_KEY_PENDING = "pending";
+		private static final String JSON_KEY_FAILED = "failed";
+		private static final String JSON_KEY_OLDEST_PENDING_MILLIS =
+			"oldest_pending_millis";
+		
+		private final long pending;
+		private final long failed;
+		private final Long oldestPendingMillis;
+		
+		/**
+		 * Creates a summary of the outbox.
+		 * 
+		 * @param pending The number of messages waiting to be delivered.
+		 * 
+		 * @param failed The number of messages that will not be retried.
+		 * 
+		 * @param oldestPendingMillis When the oldest message that is waiting
+		 * 							  to be delivered was created or null if
+		 * 							  no messages are waiting.
+		 */
+		public Summary(
+				final long pending,
+				final long failed,
+				final Long oldestPendingMillis) {
+			
+			this.pending = pending;
+			this.failed = failed;
+			this.oldestPendingMillis = oldestPendingMillis;
+		}
+		
+		/**
+		 * Returns the number of messages waiting to be delivered.
+		 * 
+		 * @return The number of messages waiting to be delivered.
+		 */
+		public long getPending() {
+			return pending;
+		}
+		
+		/**
+		 * Returns the number of messages that will not be retried.
+		 * 
+		 * @return The number of messages that will not be retried.
+		 */
+		public long getFailed() {
+			return failed;
+		}
+		
+		/**
+		 * Returns when the oldest message that is waiting to be delivered
+		 * was created.
+		 * 
+		 * @return The milliseconds since the epoch or null if no messages
+		 * 		   are waiting.
+		 */
+		public Long getOldestPendingMillis() {
+			return oldestPendingMillis;
+		}
+		
+		/**
+		 * Creates a JSONObject that represents this summary.
+		 * 
+		 * @return A JSONObject that represents this summary.
+		 * 
+		 * @throws JSONException There was an error building the object.
+		 */
+		public JSONObject toJson() throws JSONException {
+			JSONObject result = new JSONObject();
+			
+			result.put(JSON_KEY_PENDING, pending);
+			result.put(JSON_KEY_FAILED, failed);
+			result.put(JSON_KEY_OLDEST_PENDING_MILLIS, oldestPendingMillis);
+			
+			return result;
+		}
+	}
+	
+	/**
+	 * Creates a message from the outbox.
+	 * 
+	 * @param id The message's unique identifier in the outbox.
+	 * 
+	 * @param recipient The message's recipients, for logging.
+	 * 
+	 * @param message The message as it will be sent.
+	 * 
+	 * @param createdMillis When the message was added to the outbox.
+	 * 
+	 * @param nextAttemptMillis The earliest time at which the message may be
+	 * 							sent.
+	 * 
+	 * @param attempts The number of times sending the message was attempted.
+	 * 
+	 * @throws IllegalArgumentException The message is null.
+	 */
+	public MailOutboxMessage(
+			final long id,
+			final String recipient,
+			final byte[] message,
+			final long createdMillis,
+			final long nextAttemptMillis,
+			final int attempts) {
+		
+		if(message == null) {
+			throw new IllegalArgumentException("The message is null.");
+		}
+		
+		this.id = id;
+		this.recipient = recipient;
+		this.message = message;
+		this.createdMillis = createdMillis;
+		this.nextAttemptMillis = nextAttemptMillis;
+		this.attempts = attempts;
+	}
+	
+	/**
+	 * Returns the message's unique identifier in the outbox.
+	 * 
+	 * @return The message's unique identifier in the outbox.
+	 */
+	public long getId() {
+		return id;
+	}
+	
+	/**
+	 * Returns the message's recipients.
+	 * 
+	 * @return The message's recipients.
+	 */
+	public String getRecipient() {
+		return recipient;
+	}
+	
+	/**
+	 * Returns the message as it will be sent.
+	 * 
+	 * @return The message as it will be sent.
+	 */
+	public byte[] getMessage() {
+		return message;
+	}
+	
+	/**
+	 * Returns when the message was added to the outbox.
+	 * 
+	 * @return The milliseconds since the epoch.
+	 */
+	public long getCreatedMillis() {
+		return createdMillis;
+	}
+	
+	/**
+	 * Returns the earliest time at which the message may be sent.
+	 * 
+	 * @return The milliseconds since the epoch.
+	 */
+	public long getNextAttemptMillis() {
+		return nextAttemptMillis;
+	}
+	
+	/**
+	 * Returns the number of times sending the message was attempted.
+	 * 
+	 * @return The number of times sending the message was attempted.
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+}
@@ -15,12 +15,16 @@
  ******************************************************************************/
 package org.ohmage.domain;
 
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.UUID;
 
 import org.codehaus.jackson.JsonNode;
@@ -216,6 +220,46 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			
 			throw new IllegalArgumentException("Unknown column key.");
 		}
+		
+		/**
+		 * Checks if any of the columns can only be populated from a point's
+		 * sensor data or classifier data, including its sub-type, which is
+		 * determined by whether or not the point has sensor data.
+		 * 
+		 * @param columns The collection of columns.
+		 * 
+		 * @return True if the points must be read with their sensor data and
+		 * 		   classifier data; false, otherwise.
+		 */
+		public static boolean requiresSensorData(
+				final Collection<ColumnKey> columns) {
+			
+			return
+				columns.contains(SUB_TYPE) ||
+				columns.contains(SENSOR_DATA) ||
+				columns.contains(CLASSIFIER_DATA) ||
+				SensorDataColumnKey.containsSensorDataColumnKey(columns) ||
+				ClassifierDataColumnKey.containsClassifierDataColumnKey(columns);
+		}
+	}
+	
+	/**
+	 * Receives Mobility points one at a time as they are read, so that they
+	 * never all need to be in memory at once.
+	 */
+	public static interface Handler {
+		/**
+		 * Handles the next point.
+		 * 
+		 * @param point The point.
+		 * 
+		 * @throws DomainException The point could not be handled.
+		 * 
+		 * @throws IOException There was an error writing the point.
+		 */
+		public void handle(
+				final MobilityPoint point) 
+				throws DomainException, IOException;
 	}
 
 	private final UUID id;
@@ -616,138 +660,77 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			private final Double z;
 			
 			/**
-			 * Creates an AccelData object from a generic record.
+			 * Reads one component of an acceleration data point from a 
+			 * generic record.
 			 * 
 			 * @param accelDataRecord The generic record.
 			 * 
-			 * @throws DomainException The record is missing data.
+			 * @param key The component to read.
+			 * 
+			 * @return The component's value.
+			 * 
+			 * @throws DomainException The component is missing or is not a
+			 * 						   number.
 			 */
-			private AccelData(
-					final JsonNode accelDataRecord)
+			private static double getComponent(
+					final JsonNode accelDataRecord,
+					final AccelDataColumnKey key)
 					throws DomainException {
-
-				JsonNode xObject = 
-					accelDataRecord.get(AccelDataColumnKey.X.toString(false));
-				if(xObject == null) {
-					throw new DomainException(
-						ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA,
-						"The 'x' component is missing.");
-				}
-				else if(! xObject.isNumber()) {
-					throw new DomainException(
-						ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA,
-						"The 'x' component is not a number.");
-				}
-				else {
-					x = xObject.getNumberValue().doubleValue();
-				}
 				
-				JsonNode yObject = 
-					accelDataRecord.get(AccelDataColumnKey.Y.toString(false));
-				if(yObject == null) {
+				JsonNode component = accelDataRecord.get(key.toString(false));
+				if(component == null) {
 					throw new DomainException(
 						ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA,
-						"The 'y' component is missing.");
+						"The '" + key.toString(false) + 
+							"' component is missing.");
 				}
-				else if(! yObject.isNumber()) {
+				else if(! component.isNumber()) {
 					throw new DomainException(
 						ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA,
-						"The 'y' component is not a number.");
-				}
-				else {
-					y = yObject.getNumberValue().doubleValue();
+						"The '" + key.toString(false) + 
+							"' component is not a number.");
 				}
 				
-				JsonNode zObject = 
-					accelDataRecord.get(AccelDataColumnKey.Z.toString(false));
-				if(zObject == null) {
-					throw new DomainException(
-						ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA,
-						"The 'z' component is missing.");
-				}
-				else if(! zObject.isNumber()) {
-					throw new DomainException(
-						ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA,
-						"The 'z' component is not a number.");
-				}
-				else {
-					z = zObject.getNumberValue().doubleValue();
-				}
+				return component.getNumberValue().doubleValue();
 			}
 			
 			/**
-			 * Processes an acceleration data point into an AccelData object.
+			 * Reads one component of an acceleration data point from its JSON.
 			 * 
 			 * @param accelData The JSON data point to process.
 			 * 
+			 * @param key The component to read.
+			 * 
 			 * @param mode The pre-processed mode. This is needed, because if 
 			 * 			   it is {@link Mode#ERROR} then any of the values may 
 			 * 			   be missing or invalid.
 			 * 
+			 * @return The component's value or NaN if it is missing or invalid
+			 * 		   and the mode is {@link Mode#ERROR}.
+			 * 
 			 * @throws DomainException Thrown if the JSON is invalid and the
 			 * 						   mode is not {@link Mode#ERROR}.
 			 */
-			private AccelData(
-					final JSONObject accelData, 
-					final Mode mode) 
+			private static double getComponent(
+					final JSONObject accelData,
+					final AccelDataColumnKey key,
+					final Mode mode)
 					throws DomainException {
 				
-				// Get the x-acceleration.
-				Double tX = null;
-				try {
-					tX = accelData.getDouble(
-							AccelDataColumnKey.X.toString(false));
-				}
-				catch(JSONException e) {
-					if(Mode.ERROR.equals(mode)) {
-						tX = null;
-					}
-					else {
-						throw new DomainException(
-								ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA, 
-								"The 'x' point was missing or invalid.", 
-								e);
-					}
-				}
-				x = tX;
-				
-				// Get the y-acceleration.
-				Double tY = null;
-				try {
-					tY = accelData.getDouble(
-							AccelDataColumnKey.Y.toString(false));
-				}
-				catch(JSONException e) {
-					if(Mode.ERROR.equals(mode)) {
-						tY = null;
-					}
-					else {
-						throw new DomainException(
-								ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA, 
-								"The 'y' point was missing or invalid.", 
-								e);
-					}
-				}
-				y = tY;
-				
-				// Get the z-acceleration.
-				Double tZ = null;
 				try {
-					tZ = accelData.getDouble(
-							AccelDataColumnKey.Z.toString(false));
+					return accelData.getDouble(key.toString(false));
 				}
 				catch(JSONException e) {
 					if(Mode.ERROR.equals(mode)) {
-						tZ = null;
-					}
-					else {
-						throw new DomainException(
-								ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA, 
-								"The 'z' point was missing or invalid.", 
-								e);
+						return Double.NaN;
 					}
+					
+					throw new DomainException(
+							ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA, 
+							"The '" + key.toString(false) + 
+								"' point was missing or invalid.", 
+							e);
 				}
-				z = tZ;
 			}
 			
 			/**
@@ -815,6 +798,37 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 					final Collection<ColumnKey> columns) 
 					throws JSONException, DomainException {
 				
+				return toJson(columns, x, y, z);
+			}
+			
+			/**
+			 * Creates a JSONObject that represents one accelerometer reading 
+			 * with only the information whose column value is present.
+			 * 
+			 * @param columns The columns that should be included. This cannot
+			 * 				  be null.
+			 * 
+			 * @param x The x-acceleration or null if it is unknown.
+			 * 
+			 * @param y The y-acceleration or null if it is unknown.
+			 * 
+			 * @param z The z-acceleration or null if it is unknown.
+			 * 
+			 * @return Returns a JSONObject that represents the reading with 
+			 * 		   only the requested columns.
+			 * 
+			 * @throws JSONException There was an error building the 
+			 * 						 JSONObject.
+			 * 
+			 * @throws DomainException The columns collection was null.
+			 */
+			private static JSONObject toJson(
+					final Collection<ColumnKey> columns,
+					final Double x,
+					final Double y,
+					final Double z)
+					throws JSONException, DomainException {
+				
 				if(columns == null) {
 					throw new DomainException(
 							"The columns list cannot be null.");
@@ -918,7 +932,14 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				}
 			}
 		}
-		private final List<AccelData> accelData;
+		
+		// The accelerometer readings are kept as one array per axis, rather
+		// than as an object per reading, as a mobility upload has dozens of
+		// readings per point. Missing components are stored as NaN. All 
+		// three are null if the point has no accelerometer data.
+		private final double[] accelX;
+		private final double[] accelY;
+		private final double[] accelZ;
 		
 		/**
 		 * This class is responsible for the WifiData in a sensor data upload.
@@ -1101,38 +1122,13 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				}
 			}
 			
-			/**
-			 * Private, inner class for representing access points in the scan. 
-			 *
-			 * @author John Jenkins
-			 */
-			private final class AccessPoint {
-				private String ssid;
-				private double strength;
-				
-				/**
-				 * Creates a new AccessPoint object.
-				 * 
-				 * @param ssid The access point's SSID.
-				 * 
-				 * @param strength The strength of the signal of the SSID.
-				 * 
-				 * @throws DomainException The SSID was null.
-				 */
-				public AccessPoint(
-						final String ssid, 
-						final double strength)
-						throws DomainException {
-					
-					if(ssid == null) {
-						throw new DomainException("The SSID is null.");
-					}
-					
-					this.ssid = ssid;
-					this.strength = strength;
-				}
-			}
-			private final List<AccessPoint> scan;
+			// The scan is kept as parallel arrays of the access points' SSIDs
+			// and strengths. The SSIDs are interned, because the same handful
+			// of access points appear in nearly every one of a user's scans. 
+			// A strength that was missing is stored as NaN. Both are null if 
+			// the scan was missing.
+			private final String[] ssids;
+			private final double[] strengths;
 			
 			private final Long time;
 			private final DateTimeZone timezone;
@@ -1204,8 +1200,10 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				}
 				else {
 					ArrayNode scanArray = (ArrayNode) scanObject;
-					scan = new ArrayList<AccessPoint>(scanArray.size());
+					ssids = new String[scanArray.size()];
+					strengths = new double[scanArray.size()];
 					
+					int numAccessPoints = 0;
 					for(JsonNode scanRecord : scanArray) {
 						String ssid;
 						JsonNode ssidObject = scanRecord.get("ssid");
@@ -1240,7 +1238,9 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 								strengthObject.getNumberValue().doubleValue();
 						}
 						
-						scan.add(new AccessPoint(ssid, strength));
+						ssids[numAccessPoints] = ssid.intern();
+						strengths[numAccessPoints] = strength;
+						numAccessPoints++;
 					}
 				}
 			}
@@ -1394,16 +1394,18 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				
 				// Validate the scan value.
 				if(scan == null) {
-					this.scan = null;
+					ssids = null;
+					strengths = null;
 				}
 				else {
 					// For each of the entries in the array, parse out the
 					// necessary information.
 					int numScans = scan.length();
 					
-					// Create the local scan map.
-					this.scan = new ArrayList<AccessPoint>(numScans);
-					//List<AccessPoint> accessPoints = new ArrayList<AccessPoint>();
+					// Create the local scan arrays.
+					String[] tSsids = new String[numScans];
+					double[] tStrengths = new double[numScans];
+					int numAccessPoints = 0;
 					
 					for(int i = 0; i < numScans; i++) {
 						try {
@@ -1436,7 +1438,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 							}
 							
 							// Get the strength.
-							Double strength;
+							double strength;
 							try {
 								strength = 
 										jsonObject.getDouble(
@@ -1452,7 +1454,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 								}
 								catch(JSONException notShort) {
 									if(Mode.ERROR.equals(mode)) {
-										strength = null;
+										strength = Double.NaN;
 									}
 									else {
 										throw new DomainException(
@@ -1463,9 +1465,10 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 								}
 							}
 							
-							// Add them to the map.
-							//accessPoints.add(new AccessPoint(ssid, strength));
-							this.scan.add(new AccessPoint(ssid, strength));
+							// Add them to the arrays.
+							tSsids[numAccessPoints] = ssid.intern();
+							tStrengths[numAccessPoints] = strength;
+							numAccessPoints++;
 						}
 						catch(JSONException e) {
 							throw new DomainException(
@@ -1473,7 +1476,16 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 									e);
 						}
 					}
-					//this.wifiScan = new WifiScan(tTime, accessPoints);
+					
+					// In 'ERROR' mode, access points without an SSID are
+					// skipped.
+					if(numAccessPoints < numScans) {
+						tSsids = Arrays.copyOf(tSsids, numAccessPoints);
+						tStrengths = 
+								Arrays.copyOf(tStrengths, numAccessPoints);
+					}
+					ssids = tSsids;
+					strengths = tStrengths;
 				}
 			}
 			
@@ -1547,19 +1559,21 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 						(columns.contains(WifiDataColumnKey.SSID) &&
 						 columns.contains(WifiDataColumnKey.STRENGTH))) {
 					
-					if(scan != null) {
+					if(ssids != null) {
 						JSONArray scans = new JSONArray();
-						for(AccessPoint accessPoint : scan) {
+						for(int i = 0; i < ssids.length; i++) {
 							JSONObject currScan = new JSONObject();
 							
 							currScan.put(
 									WifiDataColumnKey.SSID.toString(
 											abbreviated),
-									accessPoint.ssid);
-							currScan.put(
-									WifiDataColumnKey.STRENGTH.toString(
-											abbreviated),
-									accessPoint.strength);
+									ssids[i]);
+							if(! Double.isNaN(strengths[i])) {
+								currScan.put(
+										WifiDataColumnKey.STRENGTH.toString(
+												abbreviated),
+										strengths[i]);
+							}
 							
 							scans.put(currScan);
 						}
@@ -1574,15 +1588,15 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 					columns.contains(SensorDataColumnKey.WIFI_DATA) ||
 					columns.contains(WifiDataColumnKey.SSID)) {
 					
-					if(scan != null) {
+					if(ssids != null) {
 						JSONArray scans = new JSONArray();
-						for(AccessPoint accessPoint : scan) {
+						for(int i = 0; i < ssids.length; i++) {
 							JSONObject currScan = new JSONObject();
 							
 							currScan.put(
 									WifiDataColumnKey.SSID.toString(
 											abbreviated),
-									accessPoint.ssid);
+									ssids[i]);
 							
 							scans.put(currScan);
 						}
@@ -1597,15 +1611,17 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 					columns.contains(SensorDataColumnKey.WIFI_DATA) ||
 					columns.contains(WifiDataColumnKey.STRENGTH)) {
 					
-					if(scan != null) {
+					if(ssids != null) {
 						JSONArray scans = new JSONArray();
-						for(AccessPoint accessPoint : scan) {
+						for(int i = 0; i < ssids.length; i++) {
 							JSONObject currScan = new JSONObject();
 							
-							currScan.put(
-									WifiDataColumnKey.STRENGTH.toString(
-											abbreviated),
-									accessPoint.strength);
+							if(! Double.isNaN(strengths[i])) {
+								currScan.put(
+										WifiDataColumnKey.STRENGTH.toString(
+												abbreviated),
+										strengths[i]);
+							}
 							
 							scans.put(currScan);
 						}
@@ -1676,32 +1692,15 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				// If SCAN is present, we ignore it as it should have been, for
 				// CSV output at least, broken down into SSID and STRENGTH.
 
-				if(scan != null) {
-					int ssidIndex = columns.indexOf(WifiDataColumnKey.SSID);
-					Collection<String> ssids = 
-							new ArrayList<String>(scan.size());
-					
-					int strengthIndex = 
-							columns.indexOf(WifiDataColumnKey.STRENGTH);
-					Collection<Double> strengths =
-							new ArrayList<Double>(scan.size());
-					
-					for(AccessPoint accessPoint : scan) {
-						if(ssidIndex != -1) {
-							ssids.add(accessPoint.ssid);
-						}
-						
-						if(strengthIndex != -1) {
-							strengths.add(accessPoint.strength);
-						}
-					}
-					
-					if(ssidIndex != -1) {
-						result.set(ssidIndex, ssids);
+				if(ssids != null) {
+					if((index = columns.indexOf(WifiDataColumnKey.SSID)) != -1) {
+						result.set(
+							index, 
+							Collections.unmodifiableList(Arrays.asList(ssids)));
 					}
 					
-					if(strengthIndex != -1) {
-						result.set(strengthIndex, strengths);
+					if((index = columns.indexOf(WifiDataColumnKey.STRENGTH)) != -1) {
+						result.set(index, new DoubleArrayList(strengths));
 					}
 				}
 			}
@@ -1754,7 +1753,25 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			
 			this.mode = mode;
 			this.speed = speed;
-			this.accelData = accelData;
+			if(accelData == null) {
+				accelX = null;
+				accelY = null;
+				accelZ = null;
+			}
+			else {
+				int numAccelDataPoints = accelData.size();
+				accelX = new double[numAccelDataPoints];
+				accelY = new double[numAccelDataPoints];
+				accelZ = new double[numAccelDataPoints];
+				
+				int i = 0;
+				for(AccelData accelRecord : accelData) {
+					accelX[i] = toPrimitive(accelRecord.getX());
+					accelY[i] = toPrimitive(accelRecord.getY());
+					accelZ[i] = toPrimitive(accelRecord.getZ());
+					i++;
+				}
+			}
 			this.wifiData = wifiData;
 		}
 		
@@ -1833,7 +1850,6 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			speed = tSpeed;
 
 			// Get the accelerometer data.
-			List<AccelData> tAccelData = null;
 			JSONArray accelDataJson = null;
 			try {
 				accelDataJson = 
@@ -1849,10 +1865,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 											true));
 				}
 				catch(JSONException notShort) {
-					if(Mode.ERROR.equals(mode)) {
-						tAccelData = null;
-					}
-					else {
+					if(! Mode.ERROR.equals(mode)) {
 						throw new DomainException(
 								ErrorCode.MOBILITY_INVALID_ACCELEROMETER_DATA, 
 								"The accelerometer data is missing or invalid: " +
@@ -1863,18 +1876,23 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				}
 			}
 			
-			if(accelDataJson != null) {
+			if(accelDataJson == null) {
+				accelX = null;
+				accelY = null;
+				accelZ = null;
+			}
+			else {
 				int numAccelDataPoints = accelDataJson.length();
 				
-				// Create the resulting list and cycle through the 
+				// Create the resulting arrays and cycle through the 
 				// JSONArray adding each of the entries.
-				tAccelData = new ArrayList<AccelData>(numAccelDataPoints);
+				accelX = new double[numAccelDataPoints];
+				accelY = new double[numAccelDataPoints];
+				accelZ = new double[numAccelDataPoints];
 				for(int i = 0; i < numAccelDataPoints; i++) {
+					JSONObject accelRecord;
 					try {
-						tAccelData.add(
-								new AccelData(
-										accelDataJson.getJSONObject(i), 
-										mode));
+						accelRecord = accelDataJson.getJSONObject(i);
 					}
 					catch(JSONException e) {
 						throw new DomainException(
@@ -1882,9 +1900,18 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 								"An accelerometer data point is not a JSONObject.", 
 								e);
 					}
+					
+					accelX[i] = 
+						AccelData.getComponent(
+							accelRecord, AccelDataColumnKey.X, mode);
+					accelY[i] = 
+						AccelData.getComponent(
+							accelRecord, AccelDataColumnKey.Y, mode);
+					accelZ[i] = 
+						AccelData.getComponent(
+							accelRecord, AccelDataColumnKey.Z, mode);
 				}
 			}
-			accelData = tAccelData;
 			
 			// Get the WiFi data.
 			WifiData tWifiData = null;
@@ -1980,10 +2007,22 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			else {
 				ArrayNode accelDataArray = (ArrayNode) accelDataObject;
 				
-				accelData = new ArrayList<AccelData>(accelDataArray.size());
+				accelX = new double[accelDataArray.size()];
+				accelY = new double[accelDataArray.size()];
+				accelZ = new double[accelDataArray.size()];
 				
+				int i = 0;
 				for(JsonNode accelRecord : accelDataArray) {
-					accelData.add(new AccelData(accelRecord));
+					accelX[i] = 
+						AccelData.getComponent(
+							accelRecord, AccelDataColumnKey.X);
+					accelY[i] = 
+						AccelData.getComponent(
+							accelRecord, AccelDataColumnKey.Y);
+					accelZ[i] = 
+						AccelData.getComponent(
+							accelRecord, AccelDataColumnKey.Z);
+					i++;
 				}
 			}
 			
@@ -2020,12 +2059,50 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 		}
 
 		/**
-		 * Returns all of the AccelData points for this record.
+		 * Returns all of the AccelData points for this record. This is a 
+		 * read-only view that creates each AccelData object as it is 
+		 * requested.
 		 * 
-		 * @return All of the record's AccelData points.
+		 * @return All of the record's AccelData points or null if the record
+		 * 		   did not include any.
 		 */
 		public final List<AccelData> getAccelData() {
-			return accelData;
+			if(accelX == null) {
+				return null;
+			}
+			
+			return new AccelDataList();
+		}
+		
+		/**
+		 * A read-only view of this record's accelerometer readings as 
+		 * AccelData objects.
+		 */
+		private final class AccelDataList
+				extends AbstractList<AccelData>
+				implements RandomAccess {
+			
+			/*
+			 * (non-Javadoc)
+			 * @see java.util.AbstractList#get(int)
+			 */
+			@Override
+			public AccelData get(final int index) {
+				return 
+					new AccelData(
+						toObject(accelX[index]),
+						toObject(accelY[index]),
+						toObject(accelZ[index]));
+			}
+			
+			/*
+			 * (non-Javadoc)
+			 * @see java.util.AbstractCollection#size()
+			 */
+			@Override
+			public int size() {
+				return accelX.length;
+			}
 		}
 
 		/**
@@ -2112,13 +2189,18 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				columns.contains(SensorDataColumnKey.ACCELEROMETER_DATA) ||
 				AccelDataColumnKey.containsAccelDataColumnKey(columns)) {
 
-				if(accelData == null) {
+				if(accelX == null) {
 					// Don't put it in the JSON.
 				}
 				else {
 					JSONArray accelArray = new JSONArray();
-					for(AccelData accelRecord : accelData) {
-						accelArray.put(accelRecord.toJson(columns));
+					for(int i = 0; i < accelX.length; i++) {
+						accelArray.put(
+							AccelData.toJson(
+								columns,
+								toObject(accelX[i]),
+								toObject(accelY[i]),
+								toObject(accelZ[i])));
 					}
 					result.put(
 							SensorDataColumnKey.ACCELEROMETER_DATA.toString(
@@ -2190,9 +2272,20 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				result.set(index, speed);
 			}
 			
-			if(accelData != null) {
-				for(AccelData currAccelData : accelData) {
-					currAccelData.toCsvRow(columns, result);
+			// The accelerometer columns are views of the arrays rather than
+			// copies of them. A record without any readings leaves them
+			// empty.
+			if((accelX != null) && (accelX.length > 0)) {
+				if((index = columns.indexOf(AccelDataColumnKey.X)) != -1) {
+					result.set(index, new DoubleArrayList(accelX));
+				}
+				
+				if((index = columns.indexOf(AccelDataColumnKey.Y)) != -1) {
+					result.set(index, new DoubleArrayList(accelY));
+				}
+				
+				if((index = columns.indexOf(AccelDataColumnKey.Z)) != -1) {
+					result.set(index, new DoubleArrayList(accelZ));
 				}
 			}
 			
@@ -2371,15 +2464,17 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			}
 		}
 		
-		private final List<Double> fft;
-		private final Double variance;
+		// The values are kept as primitives. A missing variance or average
+		// is stored as NaN.
+		private final double[] fft;
+		private final double variance;
 		
 		// This is no longer being collected, but it is being left here as a
 		// reminder in case it is added again.
 		//private final List<Double> n95Fft;
 		//private final Double n95Variance;
 		
-		private final Double average;
+		private final double average;
 		private final Mode mode;
 		
 		/**
@@ -2395,8 +2490,8 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			}
 			
 			this.fft = null;
-			this.variance = null;
-			this.average = null;
+			this.variance = Double.NaN;
+			this.average = Double.NaN;
 			this.mode = mode;
 		}
 		
@@ -2453,7 +2548,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			this.mode = tMode;
 			
 			JSONArray fftArray = null;
-			List<Double> tFft = null;
+			double[] tFft = null;
 			try {
 				fftArray = 
 						classifierData.getJSONArray(
@@ -2472,10 +2567,12 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			}
 			if(fftArray != null) {
 				int numEntries = fftArray.length();
-				tFft = new ArrayList<Double>(numEntries);
+				tFft = new double[numEntries];
+				int numValid = 0;
 				for(int i = 0; i < numEntries; i++) {
 					try {
-						tFft.add(fftArray.getDouble(i));
+						tFft[numValid] = fftArray.getDouble(i);
+						numValid++;
 					}
 					catch(JSONException e) {
 						if(Mode.ERROR.equals(mode)) {
@@ -2489,10 +2586,15 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 						}
 					}
 				}
+				
+				// In 'ERROR' mode, invalid values are skipped.
+				if(numValid < numEntries) {
+					tFft = Arrays.copyOf(tFft, numValid);
+				}
 			}
 			fft = tFft;
 			
-			Double tVariance = null;
+			double tVariance = Double.NaN;
 			try {
 				tVariance = 
 						classifierData.getDouble(
@@ -2512,7 +2614,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			}
 			variance = tVariance;
 			
-			Double tAverage = null;
+			double tAverage = Double.NaN;
 			try {
 				tAverage = 
 						classifierData.getDouble(
@@ -2560,19 +2662,32 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				throw new DomainException("The mode cannot be null.");
 			}
 			
-			this.fft = fft;
-			this.variance = variance;
-			this.average = average;
+			if(fft == null) {
+				this.fft = null;
+			}
+			else {
+				this.fft = new double[fft.size()];
+				int i = 0;
+				for(Double value : fft) {
+					this.fft[i++] = toPrimitive(value);
+				}
+			}
+			this.variance = toPrimitive(variance);
+			this.average = toPrimitive(average);
 			this.mode = mode;
 		}
 
 		/**
-		 * Returns the FFT array.
+		 * Returns the FFT array as a read-only view.
 		 * 
 		 * @return The FFT array. May be null.
 		 */
 		public final List<Double> getFft() {
-			return fft;
+			if(fft == null) {
+				return null;
+			}
+			
+			return new DoubleArrayList(fft);
 		}
 
 		/**
@@ -2581,7 +2696,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 		 * @return The variance. May be null.
 		 */
 		public final Double getVariance() {
-			return variance;
+			return toObject(variance);
 		}
 
 		/**
@@ -2590,7 +2705,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 		 * @return The average. May be null.
 		 */
 		public final Double getAverage() {
-			return average;
+			return toObject(average);
 		}
 
 		/**
@@ -2642,7 +2757,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 				
 				result.put(
 					ClassifierDataColumnKey.FFT.toString(abbreviated), 
-					fft);
+					getFft());
 			}
 			
 			if(columns.contains(MobilityColumnKey.CLASSIFIER_DATA) ||
@@ -2650,7 +2765,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 
 				result.put(
 					ClassifierDataColumnKey.VARIANCE.toString(abbreviated), 
-					variance);
+					getVariance());
 			}
 			
 			if(columns.contains(MobilityColumnKey.CLASSIFIER_DATA) ||
@@ -2658,7 +2773,7 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 
 				result.put(
 					ClassifierDataColumnKey.AVERAGE.toString(abbreviated), 
-					average);
+					getAverage());
 			}
 			
 			return result;
@@ -2706,15 +2821,15 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			}
 			
 			if((index = columns.indexOf(ClassifierDataColumnKey.FFT)) != -1) {
-				result.set(index, fft);
+				result.set(index, getFft());
 			}
 			
 			if((index = columns.indexOf(ClassifierDataColumnKey.VARIANCE)) != -1) {
-				result.set(index, variance);
+				result.set(index, getVariance());
 			}
 			
 			if((index = columns.indexOf(ClassifierDataColumnKey.AVERAGE)) != -1) {
-				result.set(index, average);
+				result.set(index, getAverage());
 			}
 		}
 	}
@@ -3454,13 +3569,13 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 					Mode.ERROR.toString());
 		}
 		
-		List<Sample> result = new ArrayList<Sample>(sensorData.accelData.size());
-		for(AccelData dataPoint : sensorData.accelData) {
-			result.add(
-					new Sample(
-						dataPoint.getX(), 
-						dataPoint.getY(), 
-						dataPoint.getZ()));
+		double[] accelX = sensorData.accelX;
+		double[] accelY = sensorData.accelY;
+		double[] accelZ = sensorData.accelZ;
+		
+		List<Sample> result = new ArrayList<Sample>(accelX.length);
+		for(int i = 0; i < accelX.length; i++) {
+			result.add(new Sample(accelX[i], accelY[i], accelZ[i]));
 		}
 		return result;
 	}
@@ -3490,13 +3605,13 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 					"There was no WiFi data generated for this point.");
 		}
 
-		List<SensorData.WifiData.AccessPoint> scan = sensorData.wifiData.scan;
+		String[] ssids = sensorData.wifiData.ssids;
+		double[] strengths = sensorData.wifiData.strengths;
 		List<AccessPoint> accessPoints = 
-				new ArrayList<AccessPoint>(scan.size());
+				new ArrayList<AccessPoint>(ssids.length);
 		
-		for(SensorData.WifiData.AccessPoint accessPoint : scan) {
-			accessPoints
-				.add(new AccessPoint(accessPoint.ssid, accessPoint.strength));
+		for(int i = 0; i < ssids.length; i++) {
+			accessPoints.add(new AccessPoint(ssids[i], strengths[i]));
 		}
 		
 		return new WifiScan(sensorData.wifiData.time, accessPoints);
@@ -3807,4 +3922,68 @@ public class MobilityPoint implements Comparable<MobilityPoint> {
 			}
 		}
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Converts a possibly null Double into a primitive for storage, where 
+	 * null is stored as NaN.
+	 * 
+	 * @param value The value, which may be null.
+	 * 
+	 * @return The value or NaN if it was null.
+	 */
+	private static double toPrimitive(final Double value) {
+		return (value == null) ? Double.NaN : value;
+	}
+	
+	/**
+	 * Converts a stored primitive back into a Double, where NaN means the 
+	 * value was missing.
+	 * 
+	 * @param value The stored value.
+	 * 
+	 * @return The value or null if it was NaN.
+	 */
+	private static Double toObject(final double value) {
+		return Double.isNaN(value) ? null : value;
+	}
+	
+	/**
+	 * A read-only view of an array of doubles as a list. This is how the
+	 * arrays are given to the CSV writer and the classifier's callers without
+	 * copying them. Missing values, which are stored as NaN, are returned as
+	 * null, as they were before the arrays were primitive.
+	 */
+	private static final class DoubleArrayList 
+			extends AbstractList<Double> 
+			implements RandomAccess {
+		
+		private final double[] values;
+		
+		/**
+		 * Creates a view of the array.
+		 * 
+		 * @param values The array, which is not copied.
+		 */
+		private DoubleArrayList(final double[] values) {
+			this.values = values;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.AbstractList#get(int)
+		 */
+		@Override
+		public Double get(final int index) {
+			return toObject(values[index]);
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.AbstractCollection#size()
+		 */
+		@Override
+		public int size() {
+			return values.length;
+		}
+	}
+}
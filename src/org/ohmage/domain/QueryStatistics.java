@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import org.apache.log4j.Logger;
+import org.joda.time.format.ISODateTimeFormat;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The number of times a single SQL statement was executed since the server
+ * started, along with the number of rows it read or wrote and how long it
+ * took. Statements that only differ in their literal values share the same
+ * fingerprint and, therefore, the same statistics.
+ */
+public class QueryStatistics {
+	private static final Logger LOGGER =
+		Logger.getLogger(QueryStatistics.class);
+
+	/**
+	 * The upper bounds, exclusive, of each latency histogram bucket in
+	 * microseconds. There is one additional bucket for all latencies greater
+	 * than or equal to the last bound.
+	 */
+	public static final long[] LATENCY_BOUNDS =
+		new long[] {
+			500, 1000, 5000, 10000, 50000, 100000, 500000, 1000000, 5000000 };
+
+	private static final String JSON_KEY_FINGERPRINT = "fingerprint";
+	private static final String JSON_KEY_COUNT = "count";
+	private static final String JSON_KEY_ERRORS = "errors";
+	private static final String JSON_KEY_ROWS = "rows";
+	private static final String JSON_KEY_TOTAL_MICROS = "total_micros";
+	private static final String JSON_KEY_MAX_MICROS = "max_micros";
+	private static final String JSON_KEY_CONNECTION_WAIT_MICROS =
+		"connection_wait_micros";
+	private static final String JSON_KEY_LATENCY_BOUNDS = "latency_bounds";
+	private static final String JSON_KEY_LATENCY_HISTOGRAM =
+		"latency_histogram";
+
+	/**
+	 * A single execution of a statement that took longer than the slow query
+	 * threshold. The values that were bound to the statement are never kept;
+	 * only their number is.
+	 */
+	public static final class SlowQuery {
+		private static final String JSON_KEY_TIMESTAMP = "timestamp";
+		private static final String JSON_KEY_NUM_PARAMETERS =
+			"num_parameters";
+		private static final String JSON_KEY_MICROS = "micros";
+
+		private final long timestamp;
+		private final String fingerprint;
+		private final int numParameters;
+		private final long rows;
+		private final long micros;
+		private final long connectionWaitMicros;
+
+		/**
+		 * Creates a new slow query.
+		 *
+		 * @param timestamp The milliseconds since epoch when the statement
+		 * 					finished.
+		 *
+		 * @param fingerprint The statement's fingerprint.
+		 *
+		 * @param numParameters The number of values that were bound to the
+		 * 						statement.
+		 *
+		 * @param rows The number of rows the statement read or wrote.
+		 *
+		 * @param micros How long the statement took in microseconds.
+		 *
+		 * @param connectionWaitMicros How long the statement waited for a
+		 * 							   connection in microseconds.
+		 *
+		 * @throws IllegalArgumentException The fingerprint was null.
+		 */
+		public SlowQuery(
+				final long timestamp,
+				final String fingerprint,
+				final int numParameters,
+				final long rows,
+				final long micros,
+				final long connectionWaitMicros) {
+
+			if(fingerprint == null) {
+				throw new IllegalArgumentException(
+					"The fingerprint is null.");
+			}
+
+			this.timestamp = timestamp;
+			this.fingerprint = fingerprint;
+			this.numParameters = numParameters;
+			this.rows = rows;
+			this.micros = micros;
+			this.connectionWaitMicros = connectionWaitMicros;
+		}
+
+		/**
+		 * Returns how long the statement took.
+		 *
+		 * @return How long the statement took in microseconds.
+		 */
+		public long getMicros() {
+			return micros;
+		}
+
+		/**
+		 * A JSONObject representing this slow query.
+		 *
+		 * @return A JSONObject representing this slow query. If there is an
+		 * 		   error building this object, null is returned.
+		 */
+		public JSONObject toJson() {
+			try {
+				JSONObject result = new JSONObject();
+
+				result
+					.put(
+						JSON_KEY_TIMESTAMP,
+						ISODateTimeFormat.dateTime().print(timestamp));
+				result.put(JSON_KEY_FINGERPRINT, fingerprint);
+				result.put(JSON_KEY_NUM_PARAMETERS, numParameters);
+				result.put(JSON_KEY_ROWS, rows);
+				result.put(JSON_KEY_MICROS, micros);
+				result
+					.put(JSON_KEY_CONNECTION_WAIT_MICROS, connectionWaitMicros);
+
+				return result;
+			}
+			catch(JSONException e) {
+				LOGGER.error("Error building the JSONObject.", e);
+				return null;
+			}
+		}
+	}
+
+	private final String fingerprint;
+	private final long count;
+	private final long errors;
+	private final long rows;
+	private final long totalMicros;
+	private final long maxMicros;
+	private final long connectionWaitMicros;
+	private final long[] latencyHistogram;
+
+	/**
+	 * Creates a new set of statistics.
+	 *
+	 * @param fingerprint The statement's fingerprint.
+	 *
+	 * @param count The number of times the statement was executed.
+	 *
+	 * @param errors The number of those executions that failed.
+	 *
+	 * @param rows The total number of rows the statement read or wrote.
+	 *
+	 * @param totalMicros The total time, in microseconds, spent executing the
+	 * 					  statement.
+	 *
+	 * @param maxMicros The longest time, in microseconds, any one execution
+	 * 					took.
+	 *
+	 * @param connectionWaitMicros The total time, in microseconds, the
+	 * 							   executions waited for a connection.
+	 *
+	 * @param latencyHistogram The number of executions whose time fell into
+	 * 						   each of the buckets defined by
+	 * 						   {@link #LATENCY_BOUNDS}. This must have exactly
+	 * 						   one more entry than the bounds.
+	 *
+	 * @throws IllegalArgumentException The fingerprint was null or the
+	 * 									histogram was the wrong size.
+	 */
+	public QueryStatistics(
+			final String fingerprint,
+			final long count,
+			final long errors,
+			final long rows,
+			final long totalMicros,
+			final long maxMicros,
+			final long connectionWaitMicros,
+			final long[] latencyHistogram) {
+
+		if(fingerprint == null) {
+			throw new IllegalArgumentException("The fingerprint is null.");
+		}
+		else if(
+			(latencyHistogram == null) ||
+			(latencyHistogram.length != LATENCY_BOUNDS.length + 1)) {
+
+			throw new IllegalArgumentException(
+				"The latency histogram must have exactly " +
+					(LATENCY_BOUNDS.length + 1) +
+					" buckets.");
+		}
+
+		this.fingerprint = fingerprint;
+		this.count = count;
+		this.errors = errors;
+		this.rows = rows;
+		this.totalMicros = totalMicros;
+		this.maxMicros = maxMicros;
+		this.connectionWaitMicros = connectionWaitMicros;
+		this.latencyHistogram = latencyHistogram.clone();
+	}
+
+	/**
+	 * Returns the index of the latency histogram bucket for the given
+	 * execution time.
+	 *
+	 * @param micros The time, in microseconds, it took to execute a
+	 * 				 statement.
+	 *
+	 * @return The index of the bucket into which this latency falls.
+	 */
+	public static int getLatencyBucket(final long micros) {
+		for(int i = 0; i < LATENCY_BOUNDS.length; i++) {
+			if(micros < LATENCY_BOUNDS[i]) {
+				return i;
+			}
+		}
+
+		return LATENCY_BOUNDS.length;
+	}
+
+	/**
+	 * Returns the statement's fingerprint.
+	 *
+	 * @return The statement's fingerprint.
+	 */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * Returns the number of times the statement was executed.
+	 *
+	 * @return The number of times the statement was executed.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of executions that failed.
+	 *
+	 * @return The number of executions that failed.
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Returns the total number of rows the statement read or wrote.
+	 *
+	 * @return The total number of rows the statement read or wrote.
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the total time spent executing the statement.
+	 *
+	 * @return The total time spent executing the statement in microseconds.
+	 */
+	public long getTotalMicros() {
+		return totalMicros;
+	}
+
+	/**
+	 * Returns the longest time any one execution took.
+	 *
+	 * @return The longest time any one execution took in microseconds.
+	 */
+	public long getMaxMicros() {
+		return maxMicros;
+	}
+
+	/**
+	 * Returns the total time the executions waited for a connection.
+	 *
+	 * @return The total connection wait time in microseconds.
+	 */
+	public long getConnectionWaitMicros() {
+		return connectionWaitMicros;
+	}
+
+	/**
+	 * Returns a copy of the latency histogram.
+	 *
+	 * @return A copy of the latency histogram.
+	 *
+	 * @see #LATENCY_BOUNDS
+	 */
+	public long[] getLatencyHistogram() {
+		return latencyHistogram.clone();
+	}
+
+	/**
+	 * A JSONObject representing these statistics.
+	 *
+	 * @return A JSONObject representing these statistics. If there is an
+	 * 		   error building this object, null is returned.
+	 */
+	public JSONObject toJson() {
+		try {
+			JSONObject result = new JSONObject();
+
+			result.put(JSON_KEY_FINGERPRINT, fingerprint);
+			result.put(JSON_KEY_COUNT, count);
+			result.put(JSON_KEY_ERRORS, errors);
+			result.put(JSON_KEY_ROWS, rows);
+			result.put(JSON_KEY_TOTAL_MICROS, totalMicros);
+			result.put(JSON_KEY_MAX_MICROS, maxMicros);
+			result.put(JSON_KEY_CONNECTION_WAIT_MICROS, connectionWaitMicros);
+
+			JSONArray bounds = new JSONArray();
+			for(long bound : LATENCY_BOUNDS) {
+				bounds.put(bound);
+			}
+			result.put(JSON_KEY_LATENCY_BOUNDS, bounds);
+
+			JSONArray histogram = new JSONArray();
+			for(long bucketCount : latencyHistogram) {
+				histogram.put(bucketCount);
+			}
+			result.put(JSON_KEY_LATENCY_HISTOGRAM, histogram);
+
+			return result;
+		}
+		catch(JSONException e) {
+			LOGGER.error("Error building the JSONObject.", e);
+			return null;
+		}
+	}
+}
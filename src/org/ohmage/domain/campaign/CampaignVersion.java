@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain.campaign;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * <p>
+ * Everything about a campaign that determines what campaign/read returns for
+ * a user, without the campaign itself. The requesting user's roles and admin
+ * flag determine which parts of the campaign they may see, and the watermark
+ * changes whenever anything in those parts changes: the campaign's row, its
+ * roster, its classes, the user's masks, and, if requested, its survey
+ * responses.
+ * </p>
+ *
+ * <p>
+ * Two reads with equal versions return the same campaign, so a campaign's
+ * serialized form can be reused for as long as its version is unchanged.
+ * </p>
+ */
+public class CampaignVersion {
+	private final String campaignId;
+	private final String campaignName;
+	private final boolean admin;
+	private final Collection<Campaign.Role> roles;
+	private final long maskCount;
+	private final String watermark;
+
+	/**
+	 * Creates a new campaign version.
+	 *
+	 * @param campaignId The campaign's unique identifier.
+	 *
+	 * @param campaignName The campaign's name.
+	 *
+	 * @param admin Whether or not the requesting user is an admin.
+	 *
+	 * @param roles The requesting user's roles in the campaign, in a
+	 * 				consistent order. This may be empty, e.g. for an admin.
+	 *
+	 * @param maskCount The number of masks that apply to the requesting user
+	 * 					in this campaign.
+	 *
+	 * @param watermark An opaque value that changes whenever the campaign or
+	 * 					anything about it that campaign/read returns changes.
+	 *
+	 * @throws IllegalArgumentException The campaign ID, name, roles, or
+	 * 									watermark were null or the mask count
+	 * 									was negative.
+	 */
+	public CampaignVersion(
+			final String campaignId,
+			final String campaignName,
+			final boolean admin,
+			final Collection<Campaign.Role> roles,
+			final long maskCount,
+			final String watermark) {
+
+		if(campaignId == null) {
+			throw new IllegalArgumentException("The campaign ID is null.");
+		}
+		if(campaignName == null) {
+			throw new IllegalArgumentException("The campaign name is null.");
+		}
+		if(roles == null) {
+			throw new IllegalArgumentException("The roles are null.");
+		}
+		if(maskCount < 0) {
+			throw new IllegalArgumentException("The mask count is negative.");
+		}
+		if(watermark == null) {
+			throw new IllegalArgumentException("The watermark is null.");
+		}
+
+		this.campaignId = campaignId;
+		this.campaignName = campaignName;
+		this.admin = admin;
+		this.roles = Collections.unmodifiableCollection(roles);
+		this.maskCount = maskCount;
+		this.watermark = watermark;
+	}
+
+	/**
+	 * Returns the campaign's unique identifier.
+	 *
+	 * @return The campaign's unique identifier.
+	 */
+	public String getCampaignId() {
+		return campaignId;
+	}
+
+	/**
+	 * Returns the campaign's name.
+	 *
+	 * @return The campaign's name.
+	 */
+	public String getCampaignName() {
+		return campaignName;
+	}
+
+	/**
+	 * Returns whether or not the requesting user is an admin.
+	 *
+	 * @return Whether or not the requesting user is an admin.
+	 */
+	public boolean isAdmin() {
+		return admin;
+	}
+
+	/**
+	 * Returns the requesting user's roles in the campaign.
+	 *
+	 * @return The requesting user's roles, which cannot be modified.
+	 */
+	public Collection<Campaign.Role> getRoles() {
+		return roles;
+	}
+
+	/**
+	 * Returns the number of masks that apply to the requesting user. If this
+	 * is not zero, the campaign's XML and creation timestamp are specific to
+	 * the user.
+	 *
+	 * @return The number of masks.
+	 */
+	public long getMaskCount() {
+		return maskCount;
+	}
+
+	/**
+	 * Returns the watermark of everything about the campaign that
+	 * campaign/read returns.
+	 *
+	 * @return The watermark.
+	 */
+	public String getWatermark() {
+		return watermark;
+	}
+}
@@ -54,6 +54,7 @@ public class RepeatableSet extends SurveyItem {
 	private final String terminationSkipLabel;
 	
 	private final Map<Integer, SurveyItem> surveyItems;
+	private final ValidationPlan validationPlan;
 	
 	/**
 	 * Creates a new repeatable set.
@@ -132,6 +133,7 @@ public class RepeatableSet extends SurveyItem {
 			surveyItem.setParent(this);
 			this.surveyItems.put(surveyItem.getIndex(), surveyItem);
 		}
+		validationPlan = new ValidationPlan(this.surveyItems);
 	}
 
 	/**
@@ -198,6 +200,16 @@ public class RepeatableSet extends SurveyItem {
 		return Collections.unmodifiableMap(surveyItems);
 	}
 	
+	/**
+	 * Returns the plan for validating responses to one iteration of this
+	 * repeatable set.
+	 * 
+	 * @return The plan for validating responses to this repeatable set.
+	 */
+	final ValidationPlan getValidationPlan() {
+		return validationPlan;
+	}
+	
 	/**
 	 * Returns a prompt from this repeatable set or from any sub repeatable 
 	 * sets.
@@ -40,6 +40,29 @@ public abstract class Response {
 		 */
 		NOT_DISPLAYED;
 		
+		private static final NoResponse[] VALUES = values();
+		
+		/**
+		 * Returns the NoResponse whose name exactly matches the string. 
+		 * Unlike {@link #valueOf(String)}, this does not throw an exception
+		 * when there is no match, which makes it cheap to call with every
+		 * uploaded response value.
+		 * 
+		 * @param value The string to check.
+		 * 
+		 * @return The matching NoResponse or null if the string is not the 
+		 * 		   name of a NoResponse.
+		 */
+		public static NoResponse fromString(final String value) {
+			for(NoResponse noResponse : VALUES) {
+				if(noResponse.name().equals(value)) {
+					return noResponse;
+				}
+			}
+			
+			return null;
+		}
+		
 		@Override
 		public String toString() {
 			return name();
@@ -81,6 +81,7 @@ public class Survey {
 	private final Map<Integer, SurveyItem> surveyItems;
 	private final Map<String, Prompt> prompts;
 	private final Map<String, RepeatableSet> repeatableSets;
+	private final ValidationPlan validationPlan;
 	
 	/**
 	 * Creates a new survey.
@@ -153,6 +154,7 @@ public class Survey {
 				repeatableSets.put(surveyItem.getId(), (RepeatableSet) surveyItem);
 			}
 		}
+		validationPlan = new ValidationPlan(this.surveyItems);
 	}
 	
 	/**
@@ -250,6 +252,16 @@ public class Survey {
 		return Collections.unmodifiableMap(surveyItems);
 	}
 	
+	/**
+	 * Returns the plan for validating responses to this survey's top-level
+	 * survey items.
+	 * 
+	 * @return The plan for validating responses to this survey.
+	 */
+	ValidationPlan getValidationPlan() {
+		return validationPlan;
+	}
+	
 	/**
 	 * Returns a survey item from the list of survey items based on the unique
 	 * identifier.
@@ -1228,7 +1228,7 @@ public class SurveyResponse {
 		}
 		this.responses = 
 			processResponses(
-				campaign.getSurveys().get(surveyId).getSurveyItems(), 
+				campaign.getSurveys().get(surveyId).getValidationPlan(), 
 				responses,
 				null,
 				allowedPromptIds,
@@ -1760,8 +1760,8 @@ public class SurveyResponse {
 	 * Processes an JSONArray of survey responses based on their survey item
 	 * counterparts. 
 	 * 
-	 * @param surveyItems The survey items to which the responses should 
-	 * 					  pertain.
+	 * @param validationPlan The plan for the survey items to which the 
+	 * 						 responses should pertain.
 	 * 
 	 * @param currArray A JSONArray of JSONObjects where each object is a 
 	 * 					response.
@@ -1778,7 +1778,7 @@ public class SurveyResponse {
 	 * 						   survey objects.
 	 */
 	private Map<Integer, Response> processResponses(
-		final Map<Integer, SurveyItem> surveyItems, 
+		final ValidationPlan validationPlan, 
 		final JSONArray currArray, 
 		final Integer repeatableSetIteration,
 		final Set<String> allowedPromptIds,
@@ -1788,42 +1788,47 @@ public class SurveyResponse {
 		int numResponses = currArray.length();
 		Map<Integer, Response> results = 
 			new HashMap<Integer, Response>(numResponses);
+		Set<String> respondedIds = new HashSet<String>(numResponses);
 		
 		for(int i = 0; i < numResponses; i++) {
 			try {
 				JSONObject currResponse = currArray.getJSONObject(i);
 				
 				try {
-					String promptId = currResponse.getString(JSON_KEY_PROMPT_ID);
-					Prompt prompt = null;
-					for(SurveyItem surveyItem : surveyItems.values()) {
-						if(surveyItem.getId().equals(promptId)) {
-							prompt = (Prompt) surveyItem;
-							break;
+					// Check the types directly rather than relying on
+					// getString() to throw an exception, which is expensive,
+					// for every repeatable set response.
+					Object promptId = currResponse.opt(JSON_KEY_PROMPT_ID);
+					if(promptId instanceof String) {
+						Prompt prompt = 
+							(Prompt) validationPlan.getSurveyItem(
+								(String) promptId);
+						if(prompt == null) {
+							throw new DomainException(
+									ErrorCode.SURVEY_INVALID_RESPONSES, 
+									"The prompt ID is unknown: " + promptId);
 						}
+						
+						results.put(
+							prompt.getIndex(),
+							processPromptResponse(
+								prompt, 
+								currResponse, 
+								repeatableSetIteration));
+						respondedIds.add(prompt.getId());
 					}
-					if(prompt == null) {
-						throw new DomainException(
-								ErrorCode.SURVEY_INVALID_RESPONSES, 
-								"The prompt ID is unknown: " + promptId);
-					}
-					
-					results.put(
-						prompt.getIndex(),
-						processPromptResponse(
-							prompt, 
-							currResponse, 
-							repeatableSetIteration));
-				}
-				catch(JSONException notPrompt) {
-					try {
-						String repeatableSetId = currResponse.getString(JSON_KEY_REPEATABLE_SET_ID);
-						RepeatableSet repeatableSet = null;
-						for(SurveyItem surveyItem : surveyItems.values()) {
-							if(surveyItem.getId().equals(repeatableSetId)) {
-								repeatableSet = (RepeatableSet) surveyItem;
-							}
+					else {
+						Object repeatableSetId = 
+							currResponse.opt(JSON_KEY_REPEATABLE_SET_ID);
+						if(! (repeatableSetId instanceof String)) {
+							throw new DomainException(
+									ErrorCode.SURVEY_INVALID_RESPONSES, 
+									"The response wasn't a prompt response or repeatable set.");
 						}
+						
+						RepeatableSet repeatableSet = 
+							(RepeatableSet) validationPlan.getSurveyItem(
+								(String) repeatableSetId);
 						if(repeatableSet == null) {
 							throw new DomainException(
 									ErrorCode.SURVEY_INVALID_RESPONSES, 
@@ -1837,11 +1842,7 @@ public class SurveyResponse {
 										repeatableSet, 
 										currResponse,
 										allowedPromptIds));
-					}
-					catch(JSONException notRepeatableSet) {
-						throw new DomainException(
-								ErrorCode.SURVEY_INVALID_RESPONSES, 
-								"The response wasn't a prompt response or repeatable set.");
+						respondedIds.add(repeatableSet.getId());
 					}
 				}
 				catch(ClassCastException e) {
@@ -1862,11 +1863,7 @@ public class SurveyResponse {
 		if (allowPartialSurvey == false ) {
 		    // Cycle through the prompts and ensure that a response exists for each
 		    // prompt, unless it was masked.
-		    for(SurveyItem surveyItem : surveyItems.values()) {
-			// If it's a message, it won't have a response.
-			if(! (surveyItem instanceof Message)) {
-				String surveyItemId = surveyItem.getId();
-				
+		    for(String surveyItemId : validationPlan.getRequiredIds()) {
 				// If it's not part of the mask, throw an exception.
 				if(
 					(allowedPromptIds != null) &&
@@ -1875,22 +1872,12 @@ public class SurveyResponse {
 					continue;
 				}
 				
-				boolean found = false;
-
-				for(Response response : results.values()) {
-					if(response.getId().equals(surveyItemId)) {
-						found = true;
-						break;
-					}
-				}
-				
-				if(! found) {
+				if(! respondedIds.contains(surveyItemId)) {
 					throw new DomainException(
 							ErrorCode.SURVEY_INVALID_RESPONSES, 
 							"The response is missing a response for the prompt: " + 
 								surveyItemId);
 				}
-			}
 		    }
 		}
 		
@@ -1991,7 +1978,7 @@ public class SurveyResponse {
 				result.addResponseGroup(
 						i + 1, 
 						processResponses(
-								repeatableSet.getSurveyItems(), 
+								repeatableSet.getValidationPlan(), 
 								responses.getJSONArray(i),
 								i,
 								allowedPromptIds,
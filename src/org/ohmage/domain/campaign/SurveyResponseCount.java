@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain.campaign;
+
+/**
+ * The number of survey responses in a campaign that one user submitted on one
+ * day with one privacy state.
+ */
+public class SurveyResponseCount {
+	/**
+	 * The number of milliseconds in a day.
+	 */
+	public static final long MILLIS_PER_DAY = 1000L * 60 * 60 * 24;
+
+	private final String username;
+	private final long day;
+	private final SurveyResponse.PrivacyState privacyState;
+	private final long count;
+
+	/**
+	 * Creates a new count.
+	 *
+	 * @param username The username of the user that submitted the survey
+	 * 				   responses.
+	 *
+	 * @param day The number of days since the epoch, in UTC, on which the
+	 * 			  survey responses were taken.
+	 *
+	 * @param privacyState The survey responses' privacy state.
+	 *
+	 * @param count The number of survey responses.
+	 *
+	 * @throws IllegalArgumentException The username or privacy state was
+	 * 									null or the count was negative.
+	 */
+	public SurveyResponseCount(
+			final String username,
+			final long day,
+			final SurveyResponse.PrivacyState privacyState,
+			final long count) {
+
+		if(username == null) {
+			throw new IllegalArgumentException("The username is null.");
+		}
+		if(privacyState == null) {
+			throw new IllegalArgumentException("The privacy state is null.");
+		}
+		if(count < 0) {
+			throw new IllegalArgumentException("The count is negative.");
+		}
+
+		this.username = username;
+		this.day = day;
+		this.privacyState = privacyState;
+		this.count = count;
+	}
+
+	/**
+	 * Returns the username of the user that submitted the survey responses.
+	 *
+	 * @return The user's username.
+	 */
+	public String getUsername() {
+		return username;
+	}
+
+	/**
+	 * Returns the day on which the survey responses were taken.
+	 *
+	 * @return The number of days since the epoch, in UTC.
+	 */
+	public long getDay() {
+		return day;
+	}
+
+	/**
+	 * Returns the survey responses' privacy state.
+	 *
+	 * @return The survey responses' privacy state.
+	 */
+	public SurveyResponse.PrivacyState getPrivacyState() {
+		return privacyState;
+	}
+
+	/**
+	 * Returns the number of survey responses.
+	 *
+	 * @return The number of survey responses.
+	 */
+	public long getCount() {
+		return count;
+	}
+}
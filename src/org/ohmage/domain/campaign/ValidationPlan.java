@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain.campaign;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The immutable information needed to validate the responses to one group of
+ * survey items, either a survey's or a repeatable set's. This is built once
+ * when the survey or repeatable set is created so that validating each
+ * uploaded response does not need to search the survey items.
+ */
+final class ValidationPlan {
+	private final Map<Integer, SurveyItem> surveyItems;
+	private final Map<String, SurveyItem> surveyItemsById;
+	private final List<String> requiredIds;
+
+	/**
+	 * Builds the plan for a group of survey items.
+	 *
+	 * @param surveyItems The map of the survey items' indices to the survey
+	 * 					  items. This should not be modified after the plan
+	 * 					  has been built.
+	 */
+	ValidationPlan(final Map<Integer, SurveyItem> surveyItems) {
+		this.surveyItems = Collections.unmodifiableMap(surveyItems);
+
+		Map<String, SurveyItem> tSurveyItemsById =
+			new HashMap<String, SurveyItem>(surveyItems.size());
+		List<String> tRequiredIds =
+			new ArrayList<String>(surveyItems.size());
+		for(SurveyItem surveyItem :
+				new TreeMap<Integer, SurveyItem>(surveyItems).values()) {
+
+			tSurveyItemsById.put(surveyItem.getId(), surveyItem);
+
+			// Messages never have a response.
+			if(! (surveyItem instanceof Message)) {
+				tRequiredIds.add(surveyItem.getId());
+			}
+		}
+		surveyItemsById = tSurveyItemsById;
+		requiredIds = Collections.unmodifiableList(tRequiredIds);
+	}
+
+	/**
+	 * Returns the map of the survey items' indices to the survey items.
+	 *
+	 * @return An unmodifiable map of the survey items' indices to the survey
+	 * 		   items.
+	 */
+	Map<Integer, SurveyItem> getSurveyItems() {
+		return surveyItems;
+	}
+
+	/**
+	 * Returns the survey item in this group with the given ID. This does not
+	 * search within any repeatable sets in this group.
+	 *
+	 * @param surveyItemId The survey item's unique identifier.
+	 *
+	 * @return The survey item or null if no such survey item exists in this
+	 * 		   group.
+	 */
+	SurveyItem getSurveyItem(final String surveyItemId) {
+		return surveyItemsById.get(surveyItemId);
+	}
+
+	/**
+	 * Returns the IDs of the survey items that must have a response, in the
+	 * order of their indices.
+	 *
+	 * @return An unmodifiable list of the survey items' IDs.
+	 */
+	List<String> getRequiredIds() {
+		return requiredIds;
+	}
+}
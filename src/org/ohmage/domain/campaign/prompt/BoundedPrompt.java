@@ -56,9 +56,36 @@ public abstract class BoundedPrompt extends Prompt {
 	 */
 	public static final String XML_KEY_MAX = "max";
 	
+	/**
+	 * The parser for string response values. DecimalFormat is expensive to 
+	 * create and not thread-safe, so each thread reuses its own.
+	 */
+	private static final ThreadLocal<DecimalFormat> DECIMAL_FORMAT =
+		new ThreadLocal<DecimalFormat>() {
+			@Override
+			protected DecimalFormat initialValue() {
+				DecimalFormat result = new DecimalFormat();
+				result.setParseBigDecimal(true);
+				return result;
+			}
+		};
+	
 	private final BigDecimal min;
 	private final BigDecimal max;
 	
+	/**
+	 * The smallest and largest whole numbers within the bounds. These are 
+	 * only valid if {@link #longBounds} is true.
+	 */
+	private final long minLong;
+	private final long maxLong;
+	/**
+	 * Whether or not the bounds, rounded inward to whole numbers, fit in a
+	 * long, which allows whole number responses to be checked without using
+	 * BigDecimal.
+	 */
+	private final boolean longBounds;
+	
 	private final BigDecimal defaultValue;
 	/**
 	 * Whether or not the min, max, default and response must be a whole number.
@@ -190,6 +217,23 @@ public abstract class BoundedPrompt extends Prompt {
 		}
 		this.defaultValue = defaultValue;
 		
+		// Precompute the bounds for whole number responses.
+		long tMinLong = 0;
+		long tMaxLong = 0;
+		boolean tLongBounds;
+		try {
+			tMinLong = 
+				this.min.setScale(0, RoundingMode.CEILING).longValueExact();
+			tMaxLong = 
+				this.max.setScale(0, RoundingMode.FLOOR).longValueExact();
+			tLongBounds = true;
+		}
+		catch(ArithmeticException e) {
+			tLongBounds = false;
+		}
+		minLong = tMinLong;
+		maxLong = tMaxLong;
+		longBounds = tLongBounds;
 	}
 	
 	/**
@@ -326,6 +370,21 @@ public abstract class BoundedPrompt extends Prompt {
 			return value;
 		}
 		// If it's already a number, be sure it is a whole number, if required.
+		else if(
+			longBounds &&
+			((value instanceof Integer) || 
+			 (value instanceof Long) || 
+			 (value instanceof Short) || 
+			 (value instanceof Byte))) {
+			
+			long longValue = ((Number) value).longValue();
+			result = BigDecimal.valueOf(longValue);
+			
+			// If it is within the bounds, there is nothing left to check.
+			if((minLong <= longValue) && (longValue <= maxLong)) {
+				return result;
+			}
+		}
 		else if(value instanceof Number) {
 			result = new BigDecimal(value.toString());
 			if(wholeNumber && (! isWholeNumber(result))) {
@@ -340,24 +399,21 @@ public abstract class BoundedPrompt extends Prompt {
 		else if(value instanceof String) {
 			String stringValue = (String) value;
 			
+			NoResponse noResponse = NoResponse.fromString(stringValue);
+			if(noResponse != null) {
+				return noResponse;
+			}
+			
+			// Parse it.
 			try {
-				//throw new NoResponseException(NoResponse.valueOf(stringValue));
-				return NoResponse.valueOf(stringValue);
+				result = (BigDecimal) DECIMAL_FORMAT.get().parse(stringValue);
 			}
-			catch(IllegalArgumentException iae) {
-				// Parse it.
-				try {
-					DecimalFormat format = new DecimalFormat();
-					format.setParseBigDecimal(true);
-					result = (BigDecimal) format.parse(stringValue);
-				}
-				catch(ParseException e) {
-					throw
-						new DomainException(
-							"The value could not be decoded as a number: " +
-								stringValue,
-							e);
-				}
+			catch(ParseException e) {
+				throw
+					new DomainException(
+						"The value could not be decoded as a number: " +
+							stringValue,
+						e);
 			}
 
 			// Validate it.
@@ -17,9 +17,7 @@ package org.ohmage.domain.campaign.prompt;
 
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -40,6 +38,7 @@ public abstract class ChoicePrompt extends Prompt {
 	public static final String JSON_KEY_CHOICE_GLOSSARY = "choice_glossary";
 	
 	private final Map<Integer, LabelValuePair> choices;
+	private final Map<String, Integer> keysByLabel;
 	private final boolean hasValues;
 
 	/**
@@ -104,9 +103,11 @@ public abstract class ChoicePrompt extends Prompt {
 			index);
 
 		boolean tHasValues = false;
-		Set<String> labels = new HashSet<String>();
-		for(LabelValuePair lvp : choices.values()) {
-			if(! labels.add(lvp.getLabel())) {
+		Map<String, Integer> tKeysByLabel = 
+				new HashMap<String, Integer>(choices.size());
+		for(Map.Entry<Integer, LabelValuePair> choice : choices.entrySet()) {
+			LabelValuePair lvp = choice.getValue();
+			if(tKeysByLabel.put(lvp.getLabel(), choice.getKey()) != null) {
 				throw new DomainException(
 						"Two choices have the same label for prompt '" +
 								id +
@@ -119,6 +120,7 @@ public abstract class ChoicePrompt extends Prompt {
 			}
 		}
 		this.choices = new HashMap<Integer, LabelValuePair>(choices);
+		keysByLabel = tKeysByLabel;
 		hasValues = tHasValues;
 	}
 	
@@ -142,14 +144,34 @@ public abstract class ChoicePrompt extends Prompt {
 	 * @throws DomainException If no such key for the given label exists.
 	 */
 	public Integer getChoiceKey(final String label) throws DomainException {
-		Map<Integer, LabelValuePair> choices = getChoices();
-		for(Integer key : choices.keySet()) {
-			if(choices.get(key).getLabel().equals(label)) {
-				return key;
-			}
+		Integer result = keysByLabel.get(label);
+		if(result == null) {
+			throw new DomainException("No such key for label: " + label);
 		}
 		
-		throw new DomainException("No such key for label: " + label);
+		return result;
+	}
+	
+	/**
+	 * Returns whether or not a key is one of the static choices' keys.
+	 * 
+	 * @param key The key.
+	 * 
+	 * @return Whether or not the key belongs to a static choice.
+	 */
+	protected boolean hasChoice(final Integer key) {
+		return choices.containsKey(key);
+	}
+	
+	/**
+	 * Returns whether or not a label is one of the static choices' labels.
+	 * 
+	 * @param label The label.
+	 * 
+	 * @return Whether or not the label belongs to a static choice.
+	 */
+	protected boolean hasChoiceLabel(final String label) {
+		return keysByLabel.containsKey(label);
 	}
 	
 	/**
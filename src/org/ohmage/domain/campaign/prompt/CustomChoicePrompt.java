@@ -31,7 +31,11 @@ import org.ohmage.exception.DomainException;
 /**
  * This class represents prompts that have a set of choices that are defined by
  * the campaign configuration and have a set of choices that can be added and
- * removed by a user.
+ * removed by a user.<br />
+ * <br />
+ * Validating a response may add custom choices, and the responses in an 
+ * upload may be validated concurrently, so all access to the custom choices
+ * is synchronized on the prompt.
  * 
  * @author John Jenkins
  */
@@ -43,6 +47,7 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 	public static final String JSON_KEY_FIXED_CHOICES = "fixed_choices";
 	
 	private final Map<Integer, LabelValuePair> customChoices;
+	private final Map<String, Integer> customKeysByLabel;
 	
 	/**
 	 * Creates a custom choice prompt.
@@ -125,6 +130,10 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 			}
 		}
 		this.customChoices = new HashMap<Integer, LabelValuePair>(customChoices);
+		customKeysByLabel = new HashMap<String, Integer>(customChoices.size());
+		for(Map.Entry<Integer, LabelValuePair> choice : customChoices.entrySet()) {
+			customKeysByLabel.put(choice.getValue().getLabel(), choice.getKey());
+		}
 	}
 	
 	/**
@@ -132,8 +141,9 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 	 * 
 	 * @return An unmodifiable map of custom choices generated by the user. 
 	 */
-	public Map<Integer, LabelValuePair> getCustomChoices() {
-		return Collections.unmodifiableMap(customChoices);
+	public synchronized Map<Integer, LabelValuePair> getCustomChoices() {
+		return Collections.unmodifiableMap(
+				new HashMap<Integer, LabelValuePair>(customChoices));
 	}
 	
 	/**
@@ -142,7 +152,7 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 	 * 
 	 * @return An unmodifiable map of all of the choices, static and custom.
 	 */
-	public Map<Integer, LabelValuePair> getAllChoices() {
+	public synchronized Map<Integer, LabelValuePair> getAllChoices() {
 		Map<Integer, LabelValuePair> combinedMap = 
 				new HashMap<Integer, LabelValuePair>(customChoices);
 		combinedMap.putAll(getChoices());
@@ -183,7 +193,7 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 	 * 						   invalid or if such a choice already exist with 
 	 * 						   the given 'key'.
 	 */
-	public void addChoice(
+	public synchronized void addChoice(
 			final Integer key, 
 			final LabelValuePair labelValuePair) 
 			throws DomainException {
@@ -204,6 +214,38 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 		}
 		
 		customChoices.put(key, labelValuePair);
+		customKeysByLabel.put(labelValuePair.getLabel(), key);
+	}
+	
+	/**
+	 * Adds a custom choice for each of the labels that is not already the 
+	 * label of a static or custom choice. Each new choice's key is one more
+	 * than the largest existing key, or zero if there are no choices.
+	 * 
+	 * @param labels The labels.
+	 * 
+	 * @throws DomainException Thrown if one of the choices could not be 
+	 * 						   added.
+	 */
+	protected synchronized void addChoicesIfAbsent(
+			final Collection<String> labels) 
+			throws DomainException {
+		
+		for(String label : labels) {
+			if(hasChoiceLabel(label) || customKeysByLabel.containsKey(label)) {
+				continue;
+			}
+			
+			int nextKey = -1;
+			for(Integer key : getChoices().keySet()) {
+				nextKey = Math.max(nextKey, key);
+			}
+			for(Integer key : customChoices.keySet()) {
+				nextKey = Math.max(nextKey, key);
+			}
+			
+			addChoice(nextKey + 1, label, null);
+		}
 	}
 	
 	/**
@@ -215,15 +257,15 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 	 * 
 	 * @throws DomainException If no such key for the given label exists.
 	 */
-	public Integer getChoiceKey(final String label) throws DomainException {
-		Map<Integer, LabelValuePair> choices = getAllChoices();
-		for(Integer key : choices.keySet()) {
-			if(choices.get(key).getLabel().equals(label)) {
-				return key;
-			}
+	public synchronized Integer getChoiceKey(final String label) 
+			throws DomainException {
+		
+		Integer result = customKeysByLabel.get(label);
+		if(result == null) {
+			return super.getChoiceKey(label);
 		}
 		
-		throw new DomainException("No such key for label: " + label);
+		return result;
 	}
 	
 	/**
@@ -253,7 +295,9 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 	 * @throws DomainException Thrown if the key is invalid or belongs to a 
 	 * 						   static choice and not a custom one.
 	 */
-	public void removeChoice(final Integer key) throws DomainException {
+	public synchronized void removeChoice(final Integer key) 
+			throws DomainException {
+		
 		if(key == null) {
 			throw new DomainException("The key cannot be null.");
 		}
@@ -265,7 +309,10 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 					"The key is from a static choice which cannot be removed.");
 		}
 		
-		customChoices.remove(key);
+		LabelValuePair removed = customChoices.remove(key);
+		if(removed != null) {
+			customKeysByLabel.remove(removed.getLabel());
+		}
 	}
 	
 	/**
@@ -276,7 +323,7 @@ public abstract class CustomChoicePrompt extends ChoicePrompt {
 	 * @throws JSONException There was a problem creating the JSONObject.
 	 */
 	@Override
-	public JSONObject toJson() throws JSONException {
+	public synchronized JSONObject toJson() throws JSONException {
 		JSONObject result = super.toJson();
 		
 		JSONObject choiceGlossary = 
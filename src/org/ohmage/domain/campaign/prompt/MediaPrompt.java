@@ -188,21 +188,21 @@ public abstract class MediaPrompt extends Prompt {
 		else if(value instanceof String) {
 			String valueString = (String) value;
 			
+			NoResponse noResponse = NoResponse.fromString(valueString);
+			if(noResponse != null) {
+				return noResponse;
+			}
+			
 			try {
-				return NoResponse.valueOf(valueString);
+				return UUID.fromString(valueString);
 			}
-			catch(IllegalArgumentException notNoResponse) {
-				try {
-					return UUID.fromString(valueString);
-				}
-				catch(IllegalArgumentException notUuid) {
-					throw new DomainException(
-							"The string response value was not " +
-									"decodable into a UUID for prompt '" +
-									getId() +
-									"': " +
-									valueString);
-				}
+			catch(IllegalArgumentException notUuid) {
+				throw new DomainException(
+						"The string response value was not " +
+								"decodable into a UUID for prompt '" +
+								getId() +
+								"': " +
+								valueString);
 			}
 		}	
 		else {
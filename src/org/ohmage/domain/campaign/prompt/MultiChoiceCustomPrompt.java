@@ -16,11 +16,9 @@
 package org.ohmage.domain.campaign.prompt;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 
 import org.codehaus.jackson.JsonGenerationException;
@@ -226,37 +224,37 @@ public class MultiChoiceCustomPrompt extends CustomChoicePrompt {
 		else if(value instanceof String) {
 			String valueString = (String) value;
 			
-			try {
-				return NoResponse.valueOf(valueString);
+			NoResponse noResponse = NoResponse.fromString(valueString);
+			if(noResponse != null) {
+				return noResponse;
 			}
-			catch(IllegalArgumentException notNoResponse) {
-				try {
-					JSONArray responses = new JSONArray(valueString);
-					collectionValue = new HashSet<String>(responses.length());
+			
+			try {
+				JSONArray responses = new JSONArray(valueString);
+				collectionValue = new HashSet<String>(responses.length());
 
-					int numResponses = responses.length();
-					for(int i = 0; i < numResponses; i++) {
-						try {
-							collectionValue.add(responses.getString(i));
-						}
-						catch(JSONException notString) {
-							throw new DomainException(
-								"One of the items in the list was not decodable as a string value for prompt '" +
-									getId() +
-									"'.");
-						}
+				int numResponses = responses.length();
+				for(int i = 0; i < numResponses; i++) {
+					try {
+						collectionValue.add(responses.getString(i));
+					}
+					catch(JSONException notString) {
+						throw new DomainException(
+							"One of the items in the list was not decodable as a string value for prompt '" +
+								getId() +
+								"'.");
 					}
 				}
-				catch(JSONException notJsonArray) {
-					String[] responses = valueString.split(",");
-					collectionValue = new HashSet<String>(responses.length);
+			}
+			catch(JSONException notJsonArray) {
+				String[] responses = valueString.split(",");
+				collectionValue = new HashSet<String>(responses.length);
+				
+				for(int i = 0; i < responses.length; i++) {
+					String currResponse = responses[i];
 					
-					for(int i = 0; i < responses.length; i++) {
-						String currResponse = responses[i];
-						
-						if(! StringUtils.isEmptyOrWhitespaceOnly(currResponse)) {
-							collectionValue.add(currResponse);
-						}
+					if(! StringUtils.isEmptyOrWhitespaceOnly(currResponse)) {
+						collectionValue.add(currResponse);
 					}
 				}
 			}
@@ -268,40 +266,9 @@ public class MultiChoiceCustomPrompt extends CustomChoicePrompt {
 						"'.");
 		}
 		
-		Map<Integer, LabelValuePair> choices = getAllChoices();
-		
-		// If there are no default choices, set the next key to zero.
-		int nextKey;
-		if(choices.isEmpty()) {
-			nextKey = 0;
-		}
-		// Otherwise, set the next key to the current maximum key plus one.
-		else {
-			List<Integer> keys = new ArrayList<Integer>(choices.keySet());
-			Collections.sort(keys);
-			nextKey = keys.get(keys.size() - 1) + 1;
-		}
-		
-		// Now, get the known choices from the list.
-		Collection<LabelValuePair> values = 
-				new ArrayList<LabelValuePair>(choices.values());
-		
-		// Cycle through the decoded labels and, if one of those labels isn't 
-		// found, add it to the collection.
-		for(String labelValue : collectionValue) {
-			boolean exists = false;
-			for(LabelValuePair lvp : values) {
-				if(lvp.getLabel().equals(labelValue)) {
-					exists = true;
-					break;
-				}
-			}
-			
-			if(! exists) {
-				addChoice(nextKey++, labelValue, null);
-				values.add(new LabelValuePair(labelValue, null));
-			}
-		}
+		// Add any of the labels that aren't already choices as custom 
+		// choices.
+		addChoicesIfAbsent(collectionValue);
 		
 		return collectionValue;
 	}
@@ -173,7 +173,6 @@ public class MultiChoicePrompt extends ChoicePrompt {
 	@Override
 	public Object validateValue(final Object value) throws DomainException {
 		Collection<Integer> collectionValue = null;
-		Map<Integer, LabelValuePair> choices = getChoices();
 		
 		// If it's already a NoResponse value, then return make sure that if it
 		// was skipped that it as skippable.
@@ -234,50 +233,50 @@ public class MultiChoicePrompt extends ChoicePrompt {
 		else if(value instanceof String) {
 			String valueString = (String) value;
 			
-			try {
-				return NoResponse.valueOf(valueString);
+			NoResponse noResponse = NoResponse.fromString(valueString);
+			if(noResponse != null) {
+				return noResponse;
 			}
-			catch(IllegalArgumentException notNoResponse) {
-				collectionValue = new HashSet<Integer>();
+			
+			collectionValue = new HashSet<Integer>();
 
-				try {
-					JSONArray responses = new JSONArray(valueString);
+			try {
+				JSONArray responses = new JSONArray(valueString);
+				
+				int numResponses = responses.length();
+				for(int i = 0; i < numResponses; i++) {
+					try {
+						collectionValue.add(responses.getInt(i));
+					}
+					catch(JSONException notKey) {
+						throw new DomainException(
+								"The value was a JSONArray, but not all of the elements were integers for prompt '" +
+									getId() +
+									"'.", 
+								notKey);
+					}
+				}
+			}
+			catch(JSONException notJsonArray) {
+				String[] responses = valueString.split(",");
+				
+				collectionValue = new HashSet<Integer>(responses.length);
+				for(int i = 0; i < responses.length; i++) {
+					String currResponse = responses[i];
 					
-					int numResponses = responses.length();
-					for(int i = 0; i < numResponses; i++) {
+					if(StringUtils.isEmptyOrWhitespaceOnly(currResponse)) {
 						try {
-							collectionValue.add(responses.getInt(i));
+							collectionValue.add(Integer.decode(currResponse));
 						}
-						catch(JSONException notKey) {
+						catch(NumberFormatException notKey) {
 							throw new DomainException(
-									"The value was a JSONArray, but not all of the elements were integers for prompt '" +
+									"The value was a comma-separated list, but not all of the elemtns were integers for prompt '" +
 										getId() +
 										"'.", 
 									notKey);
 						}
 					}
 				}
-				catch(JSONException notJsonArray) {
-					String[] responses = valueString.split(",");
-					
-					collectionValue = new HashSet<Integer>(responses.length);
-					for(int i = 0; i < responses.length; i++) {
-						String currResponse = responses[i];
-						
-						if(StringUtils.isEmptyOrWhitespaceOnly(currResponse)) {
-							try {
-								collectionValue.add(Integer.decode(currResponse));
-							}
-							catch(NumberFormatException notKey) {
-								throw new DomainException(
-										"The value was a comma-separated list, but not all of the elemtns were integers for prompt '" +
-											getId() +
-											"'.", 
-										notKey);
-							}
-						}
-					}
-				}
 			}
 		}
 		else {
@@ -289,7 +288,7 @@ public class MultiChoicePrompt extends ChoicePrompt {
 		}
 		
 		for(Integer key : collectionValue) {
-			if(! choices.containsKey(key)) {
+			if(! hasChoice(key)) {
 				throw new DomainException(
 						"A key was given that isn't a known choice for prompt '" +
 							getId() +
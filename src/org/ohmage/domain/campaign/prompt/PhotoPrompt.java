@@ -222,25 +222,25 @@ public class PhotoPrompt extends MediaPrompt {
 		else if(value instanceof String) {
 			String valueString = (String) value;
 			
+			NoResponse noResponse = NoResponse.fromString(valueString);
+			if(noResponse != null) {
+				return noResponse;
+			}
+			
 			try {
-				return NoResponse.valueOf(valueString);
+				return NoResponseMedia.valueOf(valueString);
 			}
-			catch(IllegalArgumentException notNoResponse) {
+			catch(IllegalArgumentException noImageNoResponse) {
 				try {
-					return NoResponseMedia.valueOf(valueString);
+					return UUID.fromString(valueString);
 				}
-				catch(IllegalArgumentException noImageNoResponse) {
-					try {
-						return UUID.fromString(valueString);
-					}
-					catch(IllegalArgumentException notUuid) {
-						throw new DomainException(
-								"The string response value was not " +
-									"decodable into a UUID for prompt '" +
-									getId() +
-									"': " +
-									valueString);
-					}
+				catch(IllegalArgumentException notUuid) {
+					throw new DomainException(
+							"The string response value was not " +
+								"decodable into a UUID for prompt '" +
+								getId() +
+								"': " +
+								valueString);
 				}
 			}
 		}
@@ -300,20 +300,20 @@ public class RemoteActivityPrompt extends Prompt {
 		else if(value instanceof String) {
 			String valueString = (String) value;
 			
+			NoResponse noResponse = NoResponse.fromString(valueString);
+			if(noResponse != null) {
+				return noResponse;
+			}
+			
 			try {
-				return NoResponse.valueOf(valueString);
+				valueJson = new JSONArray((String) valueString);
 			}
-			catch(IllegalArgumentException iae) {
-				try {
-					valueJson = new JSONArray((String) valueString);
-				}
-				catch(JSONException e) {
-					throw new DomainException(
-							"The string value could not be decoded as a NoResponse or JSONObject object for prompt '" +
-								getId() +
-								"': " +
-								valueString);
-				}
+			catch(JSONException e) {
+				throw new DomainException(
+						"The string value could not be decoded as a NoResponse or JSONObject object for prompt '" +
+							getId() +
+							"': " +
+							valueString);
 			}
 		}
 		// Finally, if its type is unknown, throw an exception.
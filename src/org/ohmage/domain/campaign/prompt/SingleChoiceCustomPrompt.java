@@ -16,9 +16,7 @@
 package org.ohmage.domain.campaign.prompt;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 
 import org.codehaus.jackson.JsonGenerationException;
@@ -155,35 +153,14 @@ public class SingleChoiceCustomPrompt extends CustomChoicePrompt {
 			return value;
 		}
 		else if(value instanceof String) {
-			try {
-				return NoResponse.valueOf((String) value);
-			}
-			catch(IllegalArgumentException notNoResponse) {
-				Map<Integer, LabelValuePair> choices = getAllChoices();
-				
-				boolean exists = false;
-				for(LabelValuePair vlp : choices.values()) {
-					if(vlp.getLabel().equals(value)) {
-						exists = true;
-						break;
-					}
-				}
-				
-				if(! exists) {
-					if(choices.isEmpty()) {
-						addChoice(0, (String) value, null);
-					} 
-					else {
-						List<Integer> keys = 
-								new ArrayList<Integer>(choices.keySet());
-						Collections.sort(keys);
-						int key = keys.get(keys.size() - 1) + 1;
-						addChoice(key, (String) value, null);
-					}
-				}
-				
-				return (String) value;
+			NoResponse noResponse = NoResponse.fromString((String) value);
+			if(noResponse != null) {
+				return noResponse;
 			}
+			
+			addChoicesIfAbsent(Collections.singleton((String) value));
+			
+			return (String) value;
 		}
 		else {
 			throw new DomainException(
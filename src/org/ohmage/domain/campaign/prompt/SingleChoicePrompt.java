@@ -162,20 +162,20 @@ public class SingleChoicePrompt extends ChoicePrompt {
 			keyValue = (Integer) value;
 		}
 		else if(value instanceof String) {
+			NoResponse noResponse = NoResponse.fromString((String) value);
+			if(noResponse != null) {
+				return noResponse;
+			}
+			
 			try {
-				return NoResponse.valueOf((String) value);
+				keyValue = Integer.decode((String) value);
 			}
-			catch(IllegalArgumentException notNoResponse) {
-				try {
-					keyValue = Integer.decode((String) value);
-				}
-				catch(NumberFormatException notChoiceKey) {
-					throw new DomainException(
-							"The value was not a valid response value for this prompt, '" +
-								getId() +
-								"'.", 
-							notChoiceKey);
-				}
+			catch(NumberFormatException notChoiceKey) {
+				throw new DomainException(
+						"The value was not a valid response value for this prompt, '" +
+							getId() +
+							"'.", 
+						notChoiceKey);
 			}
 		}
 		else {
@@ -185,7 +185,7 @@ public class SingleChoicePrompt extends ChoicePrompt {
 						"'.");
 		}
 
-		if(! getChoices().keySet().contains(keyValue)) {
+		if(! hasChoice(keyValue)) {
 			throw new DomainException(
 					"The value is not a value choice for prompt '" +
 						getId() +
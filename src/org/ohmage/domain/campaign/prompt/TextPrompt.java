@@ -190,11 +190,9 @@ public class TextPrompt extends Prompt {
 		else if(value instanceof String) {
 			valueString = (String) value;
 			
-			try {
-				return NoResponse.valueOf(valueString);
-			}
-			catch(IllegalArgumentException iae) {
-				// It must be the response.
+			NoResponse noResponse = NoResponse.fromString(valueString);
+			if(noResponse != null) {
+				return noResponse;
 			}
 		}
 		// Finally, if its type is unknown, throw an exception.
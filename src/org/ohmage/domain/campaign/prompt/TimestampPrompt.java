@@ -164,28 +164,28 @@ public class TimestampPrompt extends Prompt {
 		}
 		// If it's a String, attempt to convert it to a DateTime and return it.
 		else if(value instanceof String) {
+			NoResponse noResponse = NoResponse.fromString((String) value);
+			if(noResponse != null) {
+				return noResponse;
+			}
+			
 			try {
-				return NoResponse.valueOf((String) value);
+				return DateTimeUtils.getDateTimeFromString((String) value);
 			}
-			catch(IllegalArgumentException notNoResponse) {
+			catch(IllegalArgumentException notOurDateTime) {
 				try {
-					return DateTimeUtils.getDateTimeFromString((String) value);
+					return
+						ISODateTimeFormat
+							.dateTimeParser()
+							.withOffsetParsed()
+							.parseDateTime((String) value);
 				}
-				catch(IllegalArgumentException notOurDateTime) {
-					try {
-						return
-							ISODateTimeFormat
-								.dateTimeParser()
-								.withOffsetParsed()
-								.parseDateTime((String) value);
-					}
-					catch(IllegalArgumentException notIsoDateTime) {
-						throw new DomainException(
-							"The string value could not be converted to a date for prompt '" +
-								getId() +
-								"'.",
-							notIsoDateTime);
-					}
+				catch(IllegalArgumentException notIsoDateTime) {
+					throw new DomainException(
+						"The string value could not be converted to a date for prompt '" +
+							getId() +
+							"'.",
+						notIsoDateTime);
 				}
 			}
 		}
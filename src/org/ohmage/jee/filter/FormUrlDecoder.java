@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.jee.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Decodes an "application/x-www-form-urlencoded" body as it is read, so the
+ * raw body is never held in memory. Each key and value is URL-decoded byte by
+ * byte as UTF-8.
+ * </p>
+ * 
+ * <p>
+ * Values smaller than the threshold become strings. Larger values are kept as
+ * {@link StreamedParameter}s, which hold the decoded bytes once and can be 
+ * read as a stream by the request that needs them.
+ * </p>
+ */
+final class FormUrlDecoder {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static final int PARAMETER_SEPARATOR = '&';
+	private static final int PARAMETER_VALUE_SEPARATOR = '=';
+	private static final int ESCAPE = '%';
+	private static final int ENCODED_SPACE = '+';
+	
+	private static final int READ_BUFFER_SIZE = 8192;
+	
+	/**
+	 * Thrown when the body is not valid form data.
+	 */
+	static final class MalformedFormException extends Exception {
+		private static final long serialVersionUID = 1L;
+		
+		private MalformedFormException(final String message) {
+			super(message);
+		}
+	}
+	
+	private final InputStream input;
+	private final int streamThreshold;
+	
+	private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+	private int readPosition = 0;
+	private int readLimit = 0;
+	
+	/**
+	 * Creates a decoder.
+	 * 
+	 * @param input The stream of the encoded body.
+	 * 
+	 * @param streamThreshold The decoded size, in bytes, at which a value is
+	 * 						  kept as a {@link StreamedParameter} instead of a
+	 * 						  string.
+	 */
+	FormUrlDecoder(final InputStream input, final int streamThreshold) {
+		this.input = input;
+		this.streamThreshold = streamThreshold;
+	}
+	
+	/**
+	 * Decodes the entire body.
+	 * 
+	 * @param parameters The map to which the string values are added.
+	 * 
+	 * @param streamedParameters The map to which the large values are added.
+	 * 
+	 * @throws IOException There was an error reading the body.
+	 * 
+	 * @throws MalformedFormException A pair did not have exactly one '=' or a
+	 * 								  '%' was not followed by two hexadecimal
+	 * 								  digits.
+	 */
+	void decode(
+			final Map<String, List<String>> parameters,
+			final Map<String, List<StreamedParameter>> streamedParameters)
+			throws IOException, MalformedFormException {
+		
+		ByteArrayOutputStream key = new ByteArrayOutputStream();
+		ByteArrayOutputStream value = new ByteArrayOutputStream();
+		
+		int b;
+		do {
+			// Read the key.
+			key.reset();
+			boolean blank = true;
+			while(((b = next()) != -1) && 
+				(b != PARAMETER_SEPARATOR) && 
+				(b != PARAMETER_VALUE_SEPARATOR)) {
+				
+				if(! Character.isWhitespace(b)) {
+					blank = false;
+				}
+				key.write(decode(b));
+			}
+			
+			// A pair without a value is only allowed if it is empty.
+			if(b != PARAMETER_VALUE_SEPARATOR) {
+				if(blank) {
+					continue;
+				}
+				throw new MalformedFormException(
+					"One of the parameter's 'pairs' did not contain a '=': " + 
+						new String(key.toByteArray(), UTF_8));
+			}
+			String keyString = new String(key.toByteArray(), UTF_8);
+			
+			// Read the value, switching to a streamed value once it is 
+			// large.
+			value.reset();
+			StreamedParameter streamed = null;
+			while(((b = next()) != -1) && (b != PARAMETER_SEPARATOR)) {
+				if(b == PARAMETER_VALUE_SEPARATOR) {
+					throw new MalformedFormException(
+						"One of the parameter's 'pairs' contained multiple " +
+							"'='s: " + 
+							keyString);
+				}
+				
+				int decoded = decode(b);
+				if(streamed != null) {
+					streamed.append(decoded);
+				}
+				else if(value.size() + 1 >= streamThreshold) {
+					streamed = new StreamedParameter();
+					for(byte previous : value.toByteArray()) {
+						streamed.append(previous);
+					}
+					streamed.append(decoded);
+				}
+				else {
+					value.write(decoded);
+				}
+			}
+			
+			if(streamed == null) {
+				List<String> values = parameters.get(keyString);
+				if(values == null) {
+					values = new LinkedList<String>();
+					parameters.put(keyString, values);
+				}
+				values.add(new String(value.toByteArray(), UTF_8));
+			}
+			else {
+				List<StreamedParameter> values = 
+					streamedParameters.get(keyString);
+				if(values == null) {
+					values = new LinkedList<StreamedParameter>();
+					streamedParameters.put(keyString, values);
+				}
+				values.add(streamed);
+			}
+		} while(b != -1);
+	}
+	
+	/**
+	 * Decodes one encoded character, reading the two digits that follow a
+	 * '%'.
+	 * 
+	 * @param b The character.
+	 * 
+	 * @return The decoded byte.
+	 */
+	private int decode(final int b) throws IOException, MalformedFormException {
+		if(b == ENCODED_SPACE) {
+			return ' ';
+		}
+		else if(b == ESCAPE) {
+			int high = Character.digit(next(), 16);
+			int low = Character.digit(next(), 16);
+			if((high == -1) || (low == -1)) {
+				throw new MalformedFormException(
+					"A '%' was not followed by two hexadecimal digits.");
+			}
+			return (high << 4) | low;
+		}
+		return b;
+	}
+	
+	/**
+	 * Returns the next byte of the encoded body.
+	 * 
+	 * @return The next byte or -1 if the body has been read.
+	 */
+	private int next() throws IOException {
+		if(readPosition == readLimit) {
+			readLimit = input.read(readBuffer);
+			readPosition = 0;
+			if(readLimit <= 0) {
+				readLimit = 0;
+				return -1;
+			}
+		}
+		return readBuffer[readPosition++] & 0xff;
+	}
+}
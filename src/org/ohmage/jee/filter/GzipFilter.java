@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
@@ -19,7 +18,6 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.log4j.Logger;
-import org.ohmage.util.StringUtils;
 
 /**
  * Filters the requests that have a "Content-Encoding" parameter set to "gzip".
@@ -55,25 +53,22 @@ public class GzipFilter implements Filter {
 	private static final String VALUE_GZIP = "gzip";
 	
 	/**
-	 * The string used to separate parameters based on the "Content-Type"
-	 * "x-www-form-urlencoded" specification.
+	 * Values at least this many bytes long, once decoded, are kept as 
+	 * {@link StreamedParameter}s instead of strings.
 	 */
-	private static final String PARAMETER_SEPARATOR = "&";
-	/**
-	 * The string used to separate keys from their values for each parameter
-	 * based on the "Content-Type" "x-www-form-urlencoded" specification.
-	 */
-	private static final String PARAMETER_VALUE_SEPARATOR = "=";
-	
-	/**
-	 * A chunk size we use when reading the input stream.
-	 */
-	private static final int CHUNK_SIZE = 4096;
+	static final int STREAM_THRESHOLD = 64 * 1024;
 	
 	/**
 	 * The attribute key used to store the parameters with the request.
 	 */
 	public static final String ATTRIBUTE_KEY_PARAMETERS = "_parameters_";
+	/**
+	 * The attribute key used to store the large values of a GZIP'd request.
+	 * It is a map of parameter keys to a list of {@link StreamedParameter}s
+	 * and is only set if there are any.
+	 */
+	public static final String ATTRIBUTE_KEY_STREAMED_PARAMETERS = 
+		"_streamed_parameters_";
 	
 	/*
 	 * (non-Javadoc)
@@ -210,8 +205,10 @@ public class GzipFilter implements Filter {
 	/**
 	 * Unzips the parameters using the GZIP encoding. Breaks up the parameters
 	 * based on the "Content-Type" "application/x-www-form-urlencoded" 
-	 * specification. Creates a map of parameter keys to their URL-decoded
-	 * values.
+	 * specification as they are inflated. Creates a map of parameter keys to 
+	 * their URL-decoded values. Values that are at least
+	 * {@value #STREAM_THRESHOLD} bytes are instead stored in the 
+	 * {@value #ATTRIBUTE_KEY_STREAMED_PARAMETERS} attribute.
 	 * 
 	 * @param httpRequest The HTTP request.
 	 * 
@@ -254,21 +251,14 @@ public class GzipFilter implements Filter {
 			return null;
 		}
 		
-		// Retrieve the parameter list as a string.
-		String parameterString;
+		// Decode the parameters as they are inflated.
+		Map<String, List<String>> parameters = 
+			new HashMap<String, List<String>>();
+		Map<String, List<StreamedParameter>> streamedParameters =
+			new HashMap<String, List<StreamedParameter>>();
 		try {
-			// This will build the parameter string.
-			StringBuilder builder = new StringBuilder();
-			
-			// These will store the information for the current chunk.
-			byte[] chunk = new byte[CHUNK_SIZE];
-			int readLen = 0;
-			
-			while((readLen = gzipInputStream.read(chunk)) != -1) {
-				builder.append(new String(chunk, 0, readLen));
-			}
-			
-			parameterString = builder.toString();
+			new FormUrlDecoder(gzipInputStream, STREAM_THRESHOLD)
+				.decode(parameters, streamedParameters);
 		}
 		catch(IOException e) {
 			LOGGER
@@ -277,6 +267,11 @@ public class GzipFilter implements Filter {
 					e);
 			return null;
 		}
+		catch(FormUrlDecoder.MalformedFormException e) {
+			LOGGER.info(e.getMessage());
+			httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST); 
+			return null;
+		}
 		finally {
 			try {
 				gzipInputStream.close();
@@ -295,71 +290,21 @@ public class GzipFilter implements Filter {
 			}
 		}
 		
-		// Create the resulting object so that we will never return null.
+		// Convert the values from Lists to arrays. If we are going to put a 
+		// parameter parsing filter in here, we might as well leave them as 
+		// lists.
 		Map<String, String[]> parameterMap = new HashMap<String, String[]>();
+		for(String key : parameters.keySet()) {
+			parameterMap.put(key, parameters.get(key).toArray(new String[0]));
+		}
 		
-		// If the parameters string is not empty, parse it for the parameters.
-		if(! StringUtils.isEmptyOrWhitespaceOnly(parameterString)) {
-			Map<String, List<String>> parameters = 
-				new HashMap<String, List<String>>();
-			
-			// First, split all of the parameters apart.
-			String[] keyValuePairs = 
-				parameterString.split(PARAMETER_SEPARATOR);
-			
-			// For each of the pairs, split their key and value and store them.
-			for(String keyValuePair : keyValuePairs) {
-				// If the pair is empty or null, ignore it.
-				if(StringUtils.isEmptyOrWhitespaceOnly(keyValuePair.trim())) {
-					continue;
-				}
-				
-				// Split the key from the value.
-				String[] splitPair = 
-					keyValuePair.split(PARAMETER_VALUE_SEPARATOR);
-				
-				// If there isn't exactly one key to one value, then there is a
-				// problem, and we need to abort.
-				if(splitPair.length <= 1) {
-					LOGGER
-						.info(
-							"One of the parameter's 'pairs' did not contain a '" + 
-								PARAMETER_VALUE_SEPARATOR + 
-								"': " + 
-								keyValuePair);
-					httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST); 
-					return null;
-				}
-				else if(splitPair.length > 2) {
-					LOGGER
-						.info(
-							"One of the parameter's 'pairs' contained multiple '" + 
-								PARAMETER_VALUE_SEPARATOR + 
-								"'s: " + 
-								keyValuePair);
-					httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST); 
-					return null;
-				}
-				
-				// The key is the first part of the pair.
-				String key = StringUtils.urlDecode(splitPair[0]);
-				
-				// The first or next value for the key is the second part of 
-				// the pair.
-				List<String> values = parameters.get(key);
-				if(values == null) {
-					values = new LinkedList<String>();
-					parameters.put(key, values);
-				}
-				values.add(StringUtils.urlDecode(splitPair[1]));
-			}
-			
-			// Finally, convert the values from Lists to arrays. If we are 
-			// going to put a parameter parsing filter in here, we might as
-			// well leave them as lists.
-			for(String key : parameters.keySet()) {
-				parameterMap.put(key, parameters.get(key).toArray(new String[0]));
-			}
+		// The large values are kept separately, so that they are only ever
+		// copied into strings by requests that cannot read them as streams.
+		if(! streamedParameters.isEmpty()) {
+			httpRequest
+				.setAttribute(
+					ATTRIBUTE_KEY_STREAMED_PARAMETERS, 
+					streamedParameters);
 		}
 		
 		return parameterMap;
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.jee.filter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * A large, already URL-decoded parameter value. The decoded bytes are kept in
+ * fixed-size chunks exactly as they were decoded, so the value is never 
+ * copied into one large array or string unless a caller asks for that.
+ * </p>
+ * 
+ * <p>
+ * Upload parsers should read the value with {@link #getInputStream()}, which
+ * may be called any number of times.
+ * </p>
+ */
+public final class StreamedParameter {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	/**
+	 * The size of each chunk.
+	 */
+	static final int CHUNK_SIZE = 8192;
+	
+	private final List<byte[]> chunks = new ArrayList<byte[]>();
+	private long length = 0;
+	
+	/**
+	 * Creates an empty value. Only the decoder builds these.
+	 */
+	StreamedParameter() {
+		// Do nothing.
+	}
+	
+	/**
+	 * Appends a decoded byte.
+	 * 
+	 * @param b The byte.
+	 */
+	void append(final int b) {
+		int offset = (int) (length % CHUNK_SIZE);
+		if(offset == 0) {
+			chunks.add(new byte[CHUNK_SIZE]);
+		}
+		chunks.get(chunks.size() - 1)[offset] = (byte) b;
+		length++;
+	}
+	
+	/**
+	 * Returns the number of decoded bytes.
+	 * 
+	 * @return The number of decoded bytes.
+	 */
+	public long length() {
+		return length;
+	}
+	
+	/**
+	 * Returns a new stream over the decoded bytes.
+	 * 
+	 * @return A new stream over the decoded bytes.
+	 */
+	public InputStream getInputStream() {
+		return new InputStream() {
+			private long position = 0;
+			
+			@Override
+			public int read() {
+				if(position >= length) {
+					return -1;
+				}
+				
+				int result = 
+					chunks
+						.get((int) (position / CHUNK_SIZE))
+						[(int) (position % CHUNK_SIZE)] & 0xff;
+				position++;
+				return result;
+			}
+			
+			@Override
+			public int read(
+					final byte[] b, 
+					final int off, 
+					final int len) {
+				
+				if(len == 0) {
+					return 0;
+				}
+				if(position >= length) {
+					return -1;
+				}
+				
+				int offset = (int) (position % CHUNK_SIZE);
+				int count = 
+					(int) Math.min(
+						Math.min(len, CHUNK_SIZE - offset), 
+						length - position);
+				System.arraycopy(
+					chunks.get((int) (position / CHUNK_SIZE)), 
+					offset, 
+					b, 
+					off, 
+					count);
+				position += count;
+				return count;
+			}
+			
+			@Override
+			public int available() {
+				return (int) Math.min(Integer.MAX_VALUE, length - position);
+			}
+			
+			@Override
+			public long skip(final long n) {
+				long skipped = Math.max(0, Math.min(n, length - position));
+				position += skipped;
+				return skipped;
+			}
+		};
+	}
+	
+	/**
+	 * Copies the decoded bytes into a single array.
+	 * 
+	 * @return The decoded bytes.
+	 */
+	public byte[] toByteArray() {
+		byte[] result = new byte[(int) length];
+		try {
+			InputStream stream = getInputStream();
+			int offset = 0;
+			int read;
+			while((read = stream.read(result, offset, result.length - offset)) > 0) {
+				offset += read;
+			}
+		}
+		catch(IOException e) {
+			// The stream is in memory, so this cannot happen.
+			throw new IllegalStateException(e);
+		}
+		return result;
+	}
+	
+	/**
+	 * Decodes the value as UTF-8. This copies the whole value, so it should 
+	 * only be used by callers that cannot read a stream.
+	 * 
+	 * @return The value as a string.
+	 */
+	@Override
+	public String toString() {
+		return new String(toByteArray(), UTF_8);
+	}
+}
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.jee.servlet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.joda.time.format.ISODateTimeFormat;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * <p>
+ * Writes one structured record per request to the access log, which is the
+ * log4j logger {@value #LOGGER_NAME}. Each record is a single line of JSON
+ * with the request's ID, method, URI, user, client, result, and how long it
+ * took to build, service, and respond to it.
+ * </p>
+ * 
+ * <p>
+ * Request threads only add their record to a bounded buffer, which never
+ * blocks. If the buffer is full, the record is dropped and counted. A 
+ * single background thread formats and writes the records. Successful 
+ * requests may be sampled; failed requests are always written.
+ * </p>
+ */
+public final class AccessLog implements DisposableBean {
+	/**
+	 * The name of the logger to which the records are written.
+	 */
+	public static final String LOGGER_NAME = "org.ohmage.access";
+	
+	private static final Logger LOGGER = Logger.getLogger(AccessLog.class);
+	private static final Logger ACCESS_LOGGER = Logger.getLogger(LOGGER_NAME);
+	
+	/**
+	 * The most records that are written at once.
+	 */
+	private static final int MAX_BATCH_SIZE = 256;
+	
+	private static final String JSON_KEY_TIMESTAMP = "timestamp";
+	private static final String JSON_KEY_REQUEST_ID = "request_id";
+	private static final String JSON_KEY_METHOD = "method";
+	private static final String JSON_KEY_URI = "uri";
+	private static final String JSON_KEY_USER = "user";
+	private static final String JSON_KEY_CLIENT = "client";
+	private static final String JSON_KEY_RESULT = "result";
+	private static final String JSON_KEY_HTTP_STATUS = "http_status";
+	private static final String JSON_KEY_BUILD_MILLIS = "build_millis";
+	private static final String JSON_KEY_SERVICE_MILLIS = "service_millis";
+	private static final String JSON_KEY_RESPOND_MILLIS = "respond_millis";
+	
+	/**
+	 * The result recorded for requests that succeeded.
+	 */
+	public static final String RESULT_SUCCESS = "success";
+	
+	/**
+	 * A single request's record. Nothing is formatted until it is written.
+	 */
+	public static final class Entry {
+		private final long timestamp;
+		private final String requestId;
+		private final String method;
+		private final String uri;
+		private final String user;
+		private final String client;
+		private final String result;
+		private final int httpStatus;
+		private final long buildNanos;
+		private final long serviceNanos;
+		private final long respondNanos;
+		
+		/**
+		 * Creates a record.
+		 * 
+		 * @param timestamp The milliseconds since epoch when the request 
+		 * 					was received.
+		 * 
+		 * @param requestId The request's ID from the NDC filter. This may be
+		 * 					null.
+		 * 
+		 * @param method The HTTP method.
+		 * 
+		 * @param uri The request's URI.
+		 * 
+		 * @param user The requesting user's username or null if the request
+		 * 			   was not made by a user.
+		 * 
+		 * @param client The request's client value, which may be null.
+		 * 
+		 * @param result {@link AccessLog#RESULT_SUCCESS} or the error code 
+		 * 				 with which the request failed.
+		 * 
+		 * @param httpStatus The HTTP status code of the response.
+		 * 
+		 * @param buildNanos The time spent building the request.
+		 * 
+		 * @param serviceNanos The time spent servicing the request or a 
+		 * 					   negative value if it was not serviced.
+		 * 
+		 * @param respondNanos The time spent responding to the request or a
+		 * 					   negative value if it did not respond.
+		 */
+		public Entry(
+				final long timestamp,
+				final String requestId,
+				final String method,
+				final String uri,
+				final String user,
+				final String client,
+				final String result,
+				final int httpStatus,
+				final long buildNanos,
+				final long serviceNanos,
+				final long respondNanos) {
+			
+			this.timestamp = timestamp;
+			this.requestId = requestId;
+			this.method = method;
+			this.uri = uri;
+			this.user = user;
+			this.client = client;
+			this.result = result;
+			this.httpStatus = httpStatus;
+			this.buildNanos = buildNanos;
+			this.serviceNanos = serviceNanos;
+			this.respondNanos = respondNanos;
+		}
+		
+		/**
+		 * Returns whether or not the request succeeded.
+		 * 
+		 * @return Whether or not the request succeeded.
+		 */
+		public boolean isSuccess() {
+			return RESULT_SUCCESS.equals(result);
+		}
+		
+		/**
+		 * A JSONObject representing this record.
+		 * 
+		 * @return A JSONObject representing this record.
+		 * 
+		 * @throws JSONException There was an error building the object.
+		 */
+		public JSONObject toJson() throws JSONException {
+			JSONObject json = new JSONObject();
+			
+			json.put(
+				JSON_KEY_TIMESTAMP, 
+				ISODateTimeFormat.dateTime().print(timestamp));
+			json.put(JSON_KEY_REQUEST_ID, requestId);
+			json.put(JSON_KEY_METHOD, method);
+			json.put(JSON_KEY_URI, uri);
+			json.put(JSON_KEY_USER, user);
+			json.put(JSON_KEY_CLIENT, client);
+			json.put(JSON_KEY_RESULT, result);
+			json.put(JSON_KEY_HTTP_STATUS, httpStatus);
+			json.put(JSON_KEY_BUILD_MILLIS, toMillis(buildNanos));
+			if(serviceNanos >= 0) {
+				json.put(JSON_KEY_SERVICE_MILLIS, toMillis(serviceNanos));
+			}
+			if(respondNanos >= 0) {
+				json.put(JSON_KEY_RESPOND_MILLIS, toMillis(respondNanos));
+			}
+			
+			return json;
+		}
+		
+		/**
+		 * Converts nanoseconds to milliseconds with microsecond precision.
+		 */
+		private static double toMillis(final long nanos) {
+			return (nanos / 1000) / 1000.0;
+		}
+	}
+	
+	private static AccessLog instance;
+	
+	private final BlockingQueue<Entry> buffer;
+	private final double successSampleRate;
+	
+	private final AtomicLong dropped = new AtomicLong(0);
+	
+	private final Thread writer;
+	private volatile boolean running = true;
+	
+	/**
+	 * Creates the access log and starts its writer.
+	 * 
+	 * @param capacity The number of records that may be waiting to be 
+	 * 				   written before new ones are dropped.
+	 * 
+	 * @param successSampleRate The fraction, from 0 to 1, of successful 
+	 * 							requests that are written.
+	 * 
+	 * @throws IllegalStateException This class was already instantiated.
+	 * 
+	 * @throws IllegalArgumentException The capacity was not positive or the
+	 * 									sample rate was out of range.
+	 */
+	private AccessLog(final int capacity, final double successSampleRate) {
+		if(instance != null) {
+			throw new IllegalStateException(
+				"The access log is a singleton and may only be built once.");
+		}
+		if(capacity <= 0) {
+			throw new IllegalArgumentException(
+				"The capacity must be positive.");
+		}
+		if((successSampleRate < 0) || (successSampleRate > 1)) {
+			throw new IllegalArgumentException(
+				"The sample rate must be between 0 and 1.");
+		}
+		
+		buffer = new ArrayBlockingQueue<Entry>(capacity);
+		this.successSampleRate = successSampleRate;
+		
+		writer = 
+			new Thread("AccessLog - Writing the access log.") {
+				@Override
+				public void run() {
+					write();
+				}
+			};
+		writer.setDaemon(true);
+		writer.start();
+		
+		instance = this;
+	}
+	
+	/**
+	 * Returns the singleton instance of this class.
+	 * 
+	 * @return The singleton instance of this class or null if it has not been
+	 * 		   built, in which case nothing is logged.
+	 */
+	public static AccessLog instance() {
+		return instance;
+	}
+	
+	/**
+	 * Adds a record to the log without blocking. It may be dropped if it is
+	 * sampled out or if the buffer is full.
+	 * 
+	 * @param entry The record.
+	 */
+	public void log(final Entry entry) {
+		if(entry.isSuccess() && 
+			(successSampleRate < 1) &&
+			(ThreadLocalRandom.current().nextDouble() >= successSampleRate)) {
+			
+			return;
+		}
+		
+		if(! buffer.offer(entry)) {
+			dropped.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Returns the number of records that were dropped because the buffer was
+	 * full.
+	 * 
+	 * @return The number of dropped records.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+	
+	/**
+	 * Stops the writer after it has written the records in the buffer.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		running = false;
+		writer.interrupt();
+		writer.join(5000);
+	}
+	
+	/**
+	 * Writes records as they arrive until the log is destroyed.
+	 */
+	private void write() {
+		List<Entry> batch = new ArrayList<Entry>(MAX_BATCH_SIZE);
+		long reportedDropped = 0;
+		
+		while(running || (! buffer.isEmpty())) {
+			try {
+				if(running) {
+					batch.add(buffer.take());
+				}
+			}
+			catch(InterruptedException e) {
+				// The log is being destroyed, so write what remains.
+			}
+			buffer.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+			
+			for(Entry entry : batch) {
+				try {
+					ACCESS_LOGGER.info(entry.toJson().toString());
+				}
+				catch(JSONException e) {
+					LOGGER.error("Error building an access log record.", e);
+				}
+			}
+			batch.clear();
+			
+			long currentDropped = dropped.get();
+			if(currentDropped != reportedDropped) {
+				LOGGER.warn(
+					"The access log buffer was full; " + 
+						(currentDropped - reportedDropped) + 
+						" records were dropped.");
+				reportedDropped = currentDropped;
+			}
+		}
+	}
+}
@@ -16,6 +16,7 @@
 package org.ohmage.jee.servlet;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -38,9 +39,12 @@ import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.exception.InvalidRequestException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.jee.filter.Log4jNdcFilter;
+import org.ohmage.query.impl.ReadReplicaRouter;
 import org.ohmage.request.InputKeys;
 import org.ohmage.request.Request;
 import org.ohmage.request.RequestBuilder;
+import org.ohmage.request.RequestRoute;
+import org.ohmage.request.ResponseEncoder;
 import org.ohmage.request.UserRequest;
 import org.ohmage.service.AuditServices;
 
@@ -314,7 +318,7 @@ public class RequestServlet extends HttpServlet {
 		long respondedTimestamp = System.currentTimeMillis();
 		
 		// Report how long the request took.
-		LOGGER.info("Time to process '" + httpRequest.getRequestURI() + "':"+ (respondedTimestamp - receivedTimestamp));
+		LOGGER.debug("Time to process '" + httpRequest.getRequestURI() + "':"+ (respondedTimestamp - receivedTimestamp));
 		
 		// Retrieve the type of request, GET, POST, etc.
 		RequestType requestType;
@@ -376,28 +380,14 @@ public class RequestServlet extends HttpServlet {
 	}
 	
 	/**
-	 * Processes a GET request. Only certain APIs may make a GET request. This
-	 * should be handled in a different way than hard-coding the allowed GET
-	 * APIs. 
+	 * Processes a GET request. Only the APIs whose route allows it may make a
+	 * GET request.
 	 */
 	@Override
 	protected final void doGet(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		if(RequestBuilder.getInstance().getApiAudioRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiConfigRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiImageRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiImageBatchZipRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiDocumentReadContents().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiVisualization().equals(httpRequest.getRequestURI()) |
-				RequestBuilder.getInstance().getApiUserActivate().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiRegistrationRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiStreamRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiUserWhoAmI().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiOmhRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiSurveyResponseRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiVideoRead().equals(httpRequest.getRequestURI()) ||
-				RequestBuilder.getInstance().getApiMediaRead().equals(httpRequest.getRequestURI())
-			) {
-			
+		RequestRoute route = 
+			RequestBuilder.getInstance().getRoute(httpRequest.getRequestURI());
+		if((route != null) && route.isGetAllowed()) {
 			processRequest(httpRequest, httpResponse);
 		}
 		else {
@@ -447,14 +437,36 @@ public class RequestServlet extends HttpServlet {
 			final HttpServletRequest httpRequest, 
 			final HttpServletResponse httpResponse) {
 		
+		RequestRoute route = 
+			RequestBuilder.getInstance().getRoute(httpRequest.getRequestURI());
+		if(route != null) {
+			route.start();
+		}
+		
+		long receivedTimestamp = System.currentTimeMillis();
+		long start = System.nanoTime();
+		long buildNanos = -1;
+		long serviceNanos = -1;
+		long respondNanos = -1;
+		ErrorCode errorCode = null;
+		Request request = null;
 		try {
-			Request request = RequestBuilder.getInstance().buildRequest(httpRequest);
+			request = RequestBuilder.getInstance().buildRequest(httpRequest);
+			buildNanos = System.nanoTime() - start;
 	
 			if(! request.isFailed()) {
+				start = System.nanoTime();
 				request.service();
+				serviceNanos = System.nanoTime() - start;
 			}
 			
+			start = System.nanoTime();
 			request.respond(httpRequest, httpResponse);
+			respondNanos = System.nanoTime() - start;
+			
+			if(request.isFailed()) {
+				errorCode = request.getAnnotator().getErrorCode();
+			}
 			
 			httpRequest.setAttribute(KEY_ATTRIBUTE, request);
 		}
@@ -462,24 +474,75 @@ public class RequestServlet extends HttpServlet {
 			LOGGER.info(
 				"There was an issue reading from the input stream or writing to the output stream.", 
 				e);
-			respondFailure(httpResponse, 200, ErrorCode.SYSTEM_GENERAL_ERROR, 
+			errorCode = ErrorCode.SYSTEM_GENERAL_ERROR;
+			respondFailure(httpRequest, httpResponse, 200, ErrorCode.SYSTEM_GENERAL_ERROR, 
 					"There was an issue reading from the input stream or writing to the output stream");
 		}
 		catch(InvalidRequestException e) {
 			LOGGER.info("The request was invalid.", e);
-			respondFailure(httpResponse, e.getHttpErrorCode(), e.getErrorCode(), e.getErrorText());
+			errorCode = e.getErrorCode();
+			respondFailure(httpRequest, httpResponse, e.getHttpErrorCode(), e.getErrorCode(), e.getErrorText());
 		} 
 		catch (Exception e) {
 			LOGGER.info("There was an issue executing the request.", e);
-			respondFailure(httpResponse, 200, ErrorCode.SYSTEM_GENERAL_ERROR, 
+			errorCode = ErrorCode.SYSTEM_GENERAL_ERROR;
+			respondFailure(httpRequest, httpResponse, 200, ErrorCode.SYSTEM_GENERAL_ERROR, 
 					"General server errors occured while executing the request");
 		
 		}
+		finally {
+			// If building the request failed, its time is still recorded.
+			if(buildNanos < 0) {
+				buildNanos = System.nanoTime() - start;
+			}
+			if(route != null) {
+				route.finish(buildNanos, serviceNanos, respondNanos, errorCode);
+			}
+			
+			AccessLog accessLog = AccessLog.instance();
+			if(accessLog != null) {
+				String user = null;
+				String client = null;
+				if(request instanceof UserRequest) {
+					UserRequest userRequest = (UserRequest) request;
+					if(userRequest.getUser() != null) {
+						user = userRequest.getUser().getUsername();
+					}
+					client = userRequest.getClient();
+				}
+				if(client == null) {
+					client = httpRequest.getParameter(InputKeys.CLIENT);
+				}
+				
+				accessLog.log(
+					new AccessLog.Entry(
+						receivedTimestamp,
+						(String) httpRequest.getAttribute(
+							Log4jNdcFilter.ATTRIBUTE_REQUEST_ID),
+						httpRequest.getMethod(),
+						httpRequest.getRequestURI(),
+						user,
+						client,
+						(errorCode == null) ? 
+							AccessLog.RESULT_SUCCESS : errorCode.toString(),
+						httpResponse.getStatus(),
+						buildNanos,
+						serviceNanos,
+						respondNanos));
+			}
+			
+			// Threads are reused, so the next request must not be routed as
+			// this request's user.
+			ReadReplicaRouter.clearRequester();
+		}
 	}
 
 	/**
 	 * Send a failed message with the error code. 
 	 * 
+	 * @param httpRequest The HTTP request whose headers decide how the 
+	 * 					  response is encoded.
+	 * 
 	 * @param httpResponse The HTTP response that will be sent back to the user
 	 * 					   once the request has been processed.
 	 * @param httpErrorCode The HTTP error code
@@ -487,6 +550,7 @@ public class RequestServlet extends HttpServlet {
 	 * @param errorMessage the error message that we want to include
 	 */
 	protected void respondFailure( 
+			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse,
 			final int httpErrorCode, 
 			final ErrorCode errorCode,
@@ -504,8 +568,17 @@ public class RequestServlet extends HttpServlet {
 		if(errorMessage != null) {
 			try {
 				// try to send error in the json format
-				Writer writer = httpResponse.getWriter();
 				httpResponse.setContentType("application/json");
+				ResponseEncoder encoder = ResponseEncoder.instance();
+				Writer writer;
+				if(encoder == null) {
+					writer = httpResponse.getWriter();
+				}
+				else {
+					writer = 
+						new OutputStreamWriter(
+							encoder.getOutputStream(httpRequest, httpResponse));
+				}
 				String result;
 				try {
 					JSONObject resultJson = new JSONObject();
@@ -30,6 +30,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+
+import javax.xml.bind.DatatypeConverter;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -53,6 +56,7 @@ import org.ohmage.annotator.Annotator;
 import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.domain.Clazz;
 import org.ohmage.domain.Document;
+import org.ohmage.domain.Image;
 import org.ohmage.domain.MobilityPoint;
 import org.ohmage.domain.MobilityPoint.MobilityColumnKey;
 import org.ohmage.domain.ServerConfig;
@@ -1319,6 +1323,54 @@ public class OhmageApi {
 		}
 	}
 	
+	/**************************************************************************
+	 * Image Requests
+	 *************************************************************************/
+	
+	/**
+	 * Retrieves the contents of an image.
+	 * 
+	 * @param authenticationToken The user's authentication token.
+	 * 
+	 * @param client The client value.
+	 * 
+	 * @param imageId The image's unique identifier.
+	 * 
+	 * @param size The size of the image to retrieve. If null, the original
+	 * 			   image is retrieved.
+	 * 
+	 * @return The contents of the image.
+	 * 
+	 * @throws ApiException Thrown if there is a library error.
+	 * 
+	 * @throws RequestErrorException Thrown if the server returns an error.
+	 */
+	public byte[] getImage(final String authenticationToken,
+			final String client, final UUID imageId, final Image.Size size) 
+			throws ApiException, RequestErrorException {
+		
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put(InputKeys.AUTH_TOKEN, authenticationToken);
+		parameters.put(InputKeys.CLIENT, client);
+		parameters.put(InputKeys.IMAGE_ID, imageId.toString());
+		if(size != null) {
+			parameters.put(InputKeys.IMAGE_SIZE, size.getName());
+		}
+		
+		try {
+			return makeRequest(
+					new URL(url.toString() + RequestBuilder.getInstance().getApiImageRead()), 
+					parameters, 
+					false);
+		}
+		catch(MalformedURLException e) {
+			throw new ApiException("The URL was incorrectly created.", e);
+		}
+		catch(IllegalArgumentException e) {
+			throw new ApiException("The response was not proper JSON.", e);
+		}
+	}
+	
 	/**************************************************************************
 	 * Mobility Requests
 	 *************************************************************************/
@@ -1343,11 +1395,6 @@ public class OhmageApi {
 			final Collection<MobilityPoint> points) 
 			throws ApiException, RequestErrorException {
 
-		Map<String, Object> parameters = new HashMap<String, Object>();
-		parameters.put(InputKeys.USER, username);
-		parameters.put(InputKeys.PASSWORD, hashedPassword);
-		parameters.put(InputKeys.CLIENT, client);
-		
 		JSONArray dataArray = new JSONArray();
 		for(MobilityPoint point : points) {
 			if(point == null) {
@@ -1367,7 +1414,36 @@ public class OhmageApi {
 			
 			dataArray.put(pointJson);
 		}
-		parameters.put(InputKeys.DATA, dataArray);
+		
+		uploadMobilityPoints(username, hashedPassword, client, dataArray);
+	}
+	
+	/**
+	 * Uploads Mobility points that are already in the JSON form that the
+	 * Mobility client uploads.
+	 * 
+	 * @param username The username of the user who is attempting the upload.
+	 * 
+	 * @param hashedPassword The user's hashed password.
+	 * 
+	 * @param client The client value.
+	 * 
+	 * @param points The Mobility points.
+	 * 
+	 * @throws ApiException Thrown if there is a library error.
+	 * 
+	 * @throws RequestErrorException Thrown if the server returns an error.
+	 */
+	public void uploadMobilityPoints(final String username, 
+			final String hashedPassword, final String client, 
+			final JSONArray points) 
+			throws ApiException, RequestErrorException {
+
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put(InputKeys.USER, username);
+		parameters.put(InputKeys.PASSWORD, hashedPassword);
+		parameters.put(InputKeys.CLIENT, client);
+		parameters.put(InputKeys.DATA, points);
 		
 		try {
 			processJsonResponse(
@@ -1480,6 +1556,98 @@ public class OhmageApi {
 		return results;
 	}
 	
+	/**************************************************************************
+	 * Observer Requests
+	 *************************************************************************/
+	
+	/**
+	 * Creates a new observer.
+	 * 
+	 * @param authenticationToken The user's authentication token.
+	 * 
+	 * @param client The client value.
+	 * 
+	 * @param definition The observer's XML definition.
+	 * 
+	 * @throws ApiException Thrown if there is a library error.
+	 * 
+	 * @throws RequestErrorException Thrown if the server returns an error.
+	 */
+	public void createObserver(final String authenticationToken,
+			final String client, final String definition)
+			throws ApiException, RequestErrorException {
+		
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put(InputKeys.AUTH_TOKEN, authenticationToken);
+		parameters.put(InputKeys.CLIENT, client);
+		parameters.put(InputKeys.OBSERVER_DEFINITION, definition);
+		
+		try {
+			processJsonResponse(
+					makeRequest(
+							new URL(url.toString() + RequestBuilder.getInstance().getApiObserverCreate()), 
+							parameters, 
+							true), 
+					null);
+		}
+		catch(MalformedURLException e) {
+			throw new ApiException("The URL was incorrectly created.", e);
+		}
+		catch(IllegalArgumentException e) {
+			throw new ApiException("The response was not proper JSON.", e);
+		}
+	}
+	
+	/**
+	 * Uploads data points for an observer's streams.
+	 * 
+	 * @param username The username of the user to whom the data belongs.
+	 * 
+	 * @param hashedPassword The user's hashed password.
+	 * 
+	 * @param client The client value.
+	 * 
+	 * @param observerId The observer's unique identifier.
+	 * 
+	 * @param observerVersion The observer's version.
+	 * 
+	 * @param data The data points. Each must have its stream's ID and version
+	 * 			   and may have meta-data.
+	 * 
+	 * @throws ApiException Thrown if there is a library error.
+	 * 
+	 * @throws RequestErrorException Thrown if the server returns an error.
+	 */
+	public void uploadStreamData(final String username, 
+			final String hashedPassword, final String client, 
+			final String observerId, final long observerVersion, 
+			final JSONArray data) 
+			throws ApiException, RequestErrorException {
+		
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put(InputKeys.USER, username);
+		parameters.put(InputKeys.PASSWORD, hashedPassword);
+		parameters.put(InputKeys.CLIENT, client);
+		parameters.put(InputKeys.OBSERVER_ID, observerId);
+		parameters.put(InputKeys.OBSERVER_VERSION, observerVersion);
+		parameters.put(InputKeys.DATA, data);
+		
+		try {
+			processJsonResponse(
+					makeRequest(
+							new URL(url.toString() + RequestBuilder.getInstance().getApiStreamUpload()), 
+							parameters, 
+							false), 
+					null);
+		}
+		catch(MalformedURLException e) {
+			throw new ApiException("The URL was incorrectly created.", e);
+		}
+		catch(IllegalArgumentException e) {
+			throw new ApiException("The response was not proper JSON.", e);
+		}
+	}
+	
 	/**************************************************************************
 	 * Survey Response Requests
 	 *************************************************************************/
@@ -1515,13 +1683,6 @@ public class OhmageApi {
 			final Collection<SurveyResponse> surveyResponses)
 			throws ApiException, RequestErrorException {
 		
-		Map<String, Object> parameters = new HashMap<String, Object>();
-		parameters.put(InputKeys.USER, username);
-		parameters.put(InputKeys.PASSWORD, hashedPassword);
-		parameters.put(InputKeys.CLIENT, client);
-		parameters.put(InputKeys.CAMPAIGN_URN, campaignId);
-		parameters.put(InputKeys.CAMPAIGN_CREATION_TIMESTAMP, DateTimeUtils.getIso8601DateString(campaignCreationTimestamp, true));
-		
 		JSONArray dataArray = new JSONArray();
 		for(SurveyResponse response : surveyResponses) {
 			if(response == null) {
@@ -1548,7 +1709,67 @@ public class OhmageApi {
 			
 			dataArray.put(responseJson);
 		}
-		parameters.put(InputKeys.SURVEYS, dataArray);
+		
+		uploadSurveyResponses(username, hashedPassword, client, campaignId, 
+				campaignCreationTimestamp, dataArray, null);
+	}
+	
+	/**
+	 * Uploads survey responses that are already in their JSON form along with
+	 * the images to which their photo prompt responses refer.
+	 * 
+	 * @param username The username of the user for whom this survey response
+	 * 				   belongs.
+	 * 
+	 * @param hashedPassword The hashsed password of the user that is creating
+	 * 						 this point.
+	 * 
+	 * @param client The client value.
+	 * 
+	 * @param campaignId The unique identifier for the campaign for whom these
+	 * 					 survey responses belong.
+	 * 
+	 * @param campaignCreationTimestamp The campaign's creation timestamp to
+	 * 									ensure we are not uploading out-dated
+	 * 									data.
+	 * 
+	 * @param surveyResponses The survey responses as the server expects them.
+	 * 
+	 * @param images A map of image IDs to the images' contents. This may be
+	 * 				 null.
+	 * 
+	 * @throws ApiException Thrown if there is a library error.
+	 * 
+	 * @throws RequestErrorException Thrown if the server returns an error.
+	 */
+	public void uploadSurveyResponses(final String username, 
+			final String hashedPassword, final String client,
+			final String campaignId, final DateTime campaignCreationTimestamp,
+			final JSONArray surveyResponses, final Map<UUID, byte[]> images)
+			throws ApiException, RequestErrorException {
+		
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put(InputKeys.USER, username);
+		parameters.put(InputKeys.PASSWORD, hashedPassword);
+		parameters.put(InputKeys.CLIENT, client);
+		parameters.put(InputKeys.CAMPAIGN_URN, campaignId);
+		parameters.put(InputKeys.CAMPAIGN_CREATION_TIMESTAMP, DateTimeUtils.getIso8601DateString(campaignCreationTimestamp, true));
+		parameters.put(InputKeys.SURVEYS, surveyResponses);
+		
+		if((images != null) && (! images.isEmpty())) {
+			JSONObject imagesJson = new JSONObject();
+			for(Map.Entry<UUID, byte[]> image : images.entrySet()) {
+				try {
+					imagesJson.put(
+							image.getKey().toString(), 
+							DatatypeConverter.printBase64Binary(image.getValue()));
+				}
+				catch(JSONException e) {
+					throw new ApiException("There was a problem building the JSON.", e);
+				}
+			}
+			parameters.put(InputKeys.IMAGES, imagesJson);
+		}
 		
 		try {
 			processJsonResponse(
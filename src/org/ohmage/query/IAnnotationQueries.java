@@ -15,9 +15,11 @@
  ******************************************************************************/
 package org.ohmage.query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.ohmage.domain.Annotation;
 import org.ohmage.exception.DataAccessException;
@@ -96,6 +98,39 @@ public interface IAnnotationQueries {
 		Integer repeatableSetIteration
 	) throws DataAccessException;
 	
+	/**
+	 * Reads the annotations on a set of survey responses and on their prompt
+	 * responses with a single query and passes each one to a handler as it
+	 * is read. The survey responses are either those with the given IDs or 
+	 * those in a campaign, optionally limited to a date range. The 
+	 * annotations are grouped by survey response and, within each survey
+	 * response, ordered by time. No access checks are made.
+	 * 
+	 * @param surveyResponseIds The survey responses' IDs. Either these or 
+	 * 							the campaign ID are required.
+	 * 
+	 * @param campaignId The campaign's ID. Either this or the survey 
+	 * 					 response IDs are required.
+	 * 
+	 * @param startDate Limits the survey responses to only those on or after
+	 * 					this date. Optional.
+	 * 
+	 * @param endDate Limits the survey responses to only those on or before
+	 * 				  this date. Optional.
+	 * 
+	 * @param handler The handler for the annotations.
+	 * 
+	 * @throws DataAccessException There was an error reading the annotations
+	 * 							   or the handler failed.
+	 */
+	void processSurveyResponseAnnotations(
+		Collection<UUID> surveyResponseIds,
+		String campaignId,
+		DateTime startDate,
+		DateTime endDate,
+		Annotation.Handler handler
+	) throws DataAccessException;
+	
 	/**
 	 * @param username      The user who ostensibly owns the annotation.  
 	 * @param annotationId  The id of the annotation.
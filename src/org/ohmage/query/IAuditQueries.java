@@ -16,12 +16,15 @@
 package org.ohmage.query;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 import org.joda.time.DateTime;
 import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.domain.Audit;
+import org.ohmage.domain.AuditRollup;
+import org.ohmage.domain.AuditRollup.EntityReadCount;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.jee.servlet.RequestServlet;
 import org.ohmage.validator.AuditValidators.ResponseType;
@@ -196,4 +199,64 @@ public interface IAuditQueries {
 	 * 		   ID.
 	 */
 	List<Audit> readAuditInformation(List<Long> auditIds) throws DataAccessException;
+
+	/**
+	 * Adds the counts from the given rollups to the persisted rollups. If a
+	 * rollup for the same minute, URI, client, and response code already
+	 * exists, the counts are added to it.
+	 * 
+	 * @param rollups The per-minute request rollups.
+	 * 
+	 * @param entityReads The per-minute campaign and class read counts.
+	 */
+	void createAuditRollups(
+		Collection<AuditRollup> rollups,
+		Collection<EntityReadCount> entityReads)
+		throws DataAccessException;
+
+	/**
+	 * Retrieves the persisted rollups for all minutes on or after the start
+	 * date and before the end date.
+	 * 
+	 * @param startDate The earliest minute to include. Required.
+	 * 
+	 * @param endDate The minute at which to stop. Required.
+	 * 
+	 * @param uri Limits the results to only those with this URI. Not 
+	 * 			  required.
+	 * 
+	 * @param client Limits the results to only those with this client value.
+	 * 				 Not required.
+	 * 
+	 * @param aggregate If true, the minutes are combined such that there is
+	 * 					one rollup per URI, client, and response code whose
+	 * 					time is the start date; otherwise, one rollup is
+	 * 					returned per minute.
+	 * 
+	 * @return The list of rollups ordered by their time.
+	 */
+	List<AuditRollup> readAuditRollups(
+		DateTime startDate,
+		DateTime endDate,
+		String uri,
+		String client,
+		boolean aggregate)
+		throws DataAccessException;
+
+	/**
+	 * Retrieves the total number of successful reads for each campaign and 
+	 * class for all minutes on or after the start date and before the end 
+	 * date.
+	 * 
+	 * @param startDate The earliest minute to include. Required.
+	 * 
+	 * @param endDate The minute at which to stop. Required.
+	 * 
+	 * @return One read count per campaign or class whose time is the start
+	 * 		   date.
+	 */
+	List<EntityReadCount> readAuditEntityReads(
+		DateTime startDate,
+		DateTime endDate)
+		throws DataAccessException;
 }
@@ -22,6 +22,7 @@ import java.util.Set;
 
 import org.joda.time.DateTime;
 import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.domain.campaign.CampaignVersion;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.query.impl.QueryResultsList;
 
@@ -328,7 +329,35 @@ public interface ICampaignQueries {
 			final String subSelectStmt,
 			final Collection<Object> subSelectParameters)
 			throws DataAccessException;
-	
+
+	/**
+	 * Returns the version of each campaign that satisfies the subSelect sql
+	 * statement as it would be read by the given user. This only reads
+	 * counters and identifiers, so it is much cheaper than reading the
+	 * campaigns themselves.
+	 *
+	 * @param username The requesting user's username.
+	 *
+	 * @param subSelectStmt
+	 * 			The sql statements restricted the campaigns to be returned.
+	 *
+	 * @param subSelectParameters
+	 * 			The sql parameters to be used with the subSelectStmt above.
+	 *
+	 * @param withResponses Whether or not the versions should change when the
+	 * 						campaigns' survey responses change.
+	 *
+	 * @return The campaigns' versions ordered by their IDs.
+	 *
+	 * @throws DataAccessException There was an error.
+	 */
+	public List<CampaignVersion> getCampaignVersions(
+			final String username,
+			final String subSelectStmt,
+			final Collection<Object> subSelectParameters,
+			final boolean withResponses)
+			throws DataAccessException;
+
 	/**
 	 * Returns the sql statement for all campaigns visible to the user that 
 	 * match the given criteria. The username is required for ACL purposes but
@@ -86,7 +86,10 @@ public interface IDocumentQueries {
 	/**
 	 * Return an SQL statement to retrieve a list of document ids that match 
 	 * any of the criteria. If all of the criteria are null, it will return 
-	 * all documents visible to the requesting user.
+	 * all documents visible to the requesting user. The statement reads the 
+	 * user's precomputed visible documents, which are brought up to date 
+	 * first if a class, campaign, or document's roles have changed since 
+	 * they were computed.
 	 * 
 	 * @param sqlParameters The parameters to be used with the returned 
 	 * 						sql statement. 
@@ -210,4 +213,12 @@ public interface IDocumentQueries {
 	 */
 	void deleteDocument(String documentId) throws DataAccessException;
 
+	/**
+	 * Moves every document into the sharded directory derived from its UUID
+	 * and updates its URL. This may be run while the server is in use.
+	 * 
+	 * @return The number of documents that were moved.
+	 */
+	long migrateDocumentStorage() throws DataAccessException;
+
 }
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query;
+
+import java.util.List;
+
+import org.ohmage.domain.MailOutboxMessage;
+import org.ohmage.exception.DataAccessException;
+
+/**
+ * Interface to facilitate mocking concrete implementations for test cases.
+ */
+public interface IMailOutboxQueries {
+	/**
+	 * Adds a message to the outbox. It may be sent immediately.
+	 * 
+	 * @param recipient The message's recipients, for logging.
+	 * 
+	 * @param message The message exactly as it should be sent.
+	 * 
+	 * @param createdMillis The current time.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	public void createMessage(
+			final String recipient,
+			final byte[] message,
+			final long createdMillis)
+			throws DataAccessException;
+	
+	/**
+	 * Returns the messages that have not failed and whose next attempt is due,
+	 * oldest first.
+	 * 
+	 * @param nowMillis The current time.
+	 * 
+	 * @param limit The maximum number of messages to return.
+	 * 
+	 * @return The messages that are due to be sent.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	public List<MailOutboxMessage> getDueMessages(
+			final long nowMillis,
+			final int limit)
+			throws DataAccessException;
+	
+	/**
+	 * Claims a message for sending by counting the attempt and pushing its
+	 * next attempt to the end of the lease. This only succeeds if no one else
+	 * has claimed it since it was read.
+	 * 
+	 * @param id The message's unique identifier.
+	 * 
+	 * @param expectedNextAttemptMillis The message's next attempt when it was
+	 * 									read.
+	 * 
+	 * @param leaseUntilMillis When the message may be sent again if this
+	 * 						   attempt never finishes.
+	 * 
+	 * @return True if the message was claimed; false if someone else claimed
+	 * 		   it first or it no longer exists.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	public boolean claimMessage(
+			final long id,
+			final long expectedNextAttemptMillis,
+			final long leaseUntilMillis)
+			throws DataAccessException;
+	
+	/**
+	 * Removes a message from the outbox after it was delivered.
+	 * 
+	 * @param id The message's unique identifier.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	public void deleteMessage(final long id) throws DataAccessException;
+	
+	/**
+	 * Schedules another attempt to send a message.
+	 * 
+	 * @param id The message's unique identifier.
+	 * 
+	 * @param nextAttemptMillis When the message may be sent again.
+	 * 
+	 * @param error Why the last attempt failed.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	public void rescheduleMessage(
+			final long id,
+			final long nextAttemptMillis,
+			final String error)
+			throws DataAccessException;
+	
+	/**
+	 * Marks a message as failed so that it will not be retried. Its
+	 * recipient, attempts and last error are kept so that an administrator
+	 * can see what was not delivered, but its content is discarded because
+	 * it may include a password.
+	 * 
+	 * @param id The message's unique identifier.
+	 * 
+	 * @param error Why the last attempt failed.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	public void failMessage(
+			final long id,
+			final String error)
+			throws DataAccessException;
+	
+	/**
+	 * Returns how many messages are waiting and how many have failed.
+	 * 
+	 * @return The summary of the outbox.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	public MailOutboxMessage.Summary getSummary() throws DataAccessException;
+}
@@ -62,4 +62,14 @@ public interface IMediaQueries {
 	 */	
 	void deleteMediaDiskOnly(URL mediaUrl, boolean isImage) throws DataAccessException;
 
+	/**
+	 * Moves every media file into the sharded directory derived from its
+	 * UUID and updates its URL. This may be run while the server is in use.
+	 * 
+	 * @return The number of media files that were moved.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	long migrateMediaStorage() throws DataAccessException;
+
 }
@@ -17,6 +17,7 @@ package org.ohmage.query;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -25,6 +26,7 @@ import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.domain.campaign.SurveyResponse;
 import org.ohmage.domain.campaign.SurveyResponse.ColumnKey;
 import org.ohmage.domain.campaign.SurveyResponse.SortParameter;
+import org.ohmage.domain.campaign.SurveyResponseCount;
 import org.ohmage.exception.DataAccessException;
 
 public interface ISurveyResponseQueries {
@@ -39,6 +41,22 @@ public interface ISurveyResponseQueries {
 	String getCampaignIdForSurveyResponseId(UUID uuid) 
 			throws DataAccessException;
 	
+	/**
+	 * Retrieves the campaign ID (URN) for each of the given survey responses
+	 * with a single query.
+	 * 
+	 * @param surveyResponseIds The survey responses' unique identifiers.
+	 * 
+	 * @return A map of each survey response's unique identifier to its 
+	 * 		   campaign's ID. Survey responses that do not exist are not in 
+	 * 		   the map.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	Map<UUID, String> getCampaignIdsForSurveyResponseIds(
+			Collection<UUID> surveyResponseIds)
+			throws DataAccessException;
+	
 	/**
 	 * Returns the survey response privacy states.
 	 * 
@@ -153,5 +171,64 @@ public interface ISurveyResponseQueries {
 	 * @throws DataAccessException Thrown if there is an error.
 	 */
 	void deleteSurveyResponse(UUID surveyResponseId) throws DataAccessException;
+	
+	/**
+	 * Counts the survey responses in a campaign that a user is allowed to
+	 * see, grouped by the user that submitted them, the day on which they
+	 * were taken, and their privacy state.
+	 * 
+	 * @param campaignId The campaign's unique identifier.
+	 * 
+	 * @param username The username of the user that is making this request.
+	 * 				   This is used by the ACLs to limit who sees what.
+	 * 
+	 * @param startDate Limits the results to only those survey responses that
+	 * 					occurred on or after this date. Optional.
+	 * 
+	 * @param endDate Limits the results to only those survey responses that
+	 * 				  occurred on or before this date. Optional.
+	 * 
+	 * @param privacyState Limits the results to only those survey responses
+	 * 					   with this privacy state. Optional.
+	 * 
+	 * @return The counts in no particular order.
+	 * 
+	 * @throws DataAccessException Thrown if there is an error.
+	 */
+	List<SurveyResponseCount> retrieveSurveyResponseCounts(
+			String campaignId,
+			String username,
+			DateTime startDate,
+			DateTime endDate,
+			SurveyResponse.PrivacyState privacyState)
+			throws DataAccessException;
+	
+	/**
+	 * Returns a value that changes whenever a survey response in a campaign
+	 * is uploaded, updated, or deleted.
+	 * 
+	 * @param campaignId The campaign's unique identifier.
+	 * 
+	 * @return The campaign's survey response watermark.
+	 * 
+	 * @throws DataAccessException Thrown if there is an error.
+	 */
+	String getSurveyResponseWatermark(String campaignId)
+			throws DataAccessException;
+	
+	/**
+	 * Rebuilds the prompt response search index for every campaign or for a
+	 * single campaign. Rebuilding it for every campaign is required once
+	 * after the index is created before searches use it.
+	 * 
+	 * @param campaignId The campaign's unique identifier or null to rebuild
+	 * 					 the index for every campaign.
+	 * 
+	 * @return The number of prompt responses that were indexed.
+	 * 
+	 * @throws DataAccessException Thrown if there is an error.
+	 */
+	long rebuildPromptResponseSearchIndex(String campaignId)
+			throws DataAccessException;
 
 }
@@ -104,6 +104,55 @@ public interface IUserMobilityQueries {
 			final Mode mode) 
 			throws DataAccessException;
 	
+	/**
+	 * Reads the same Mobility points as
+	 * {@link #getMobilityInformation(String, DateTime, DateTime, MobilityPoint.PrivacyState, LocationStatus, Mode)}
+	 * but passes each one to a handler as it is read instead of returning 
+	 * them all. The points are streamed from the database, so only one of 
+	 * them is in memory at a time. The database connection is held until
+	 * the last point has been handled, so the handler should not do any 
+	 * more than it needs to. If the points are not all handled within
+	 * {@link org.ohmage.query.impl.UserMobilityQueries#MAX_STREAMING_MILLIS},
+	 * the read fails and the connection is released. A handler that blocks,
+	 * e.g. on writing to a client that has stopped reading, is only bounded
+	 * by its own timeouts, because the limit is checked between points.
+	 * 
+	 * @param username The username of the user whose points are being read.
+	 * 
+	 * @param startDate Limits the results to only those on or after this 
+	 * 					date. Optional.
+	 * 
+	 * @param endDate Limits the results to only those on or before this date.
+	 * 				  Optional.
+	 * 
+	 * @param privacyState Limits the results to only those with this privacy
+	 * 					   state. Optional.
+	 * 
+	 * @param locationStatus Limits the results to only those with this 
+	 * 						 location status. Optional.
+	 * 
+	 * @param mode Limits the results to only those with this mode. Optional.
+	 * 
+	 * @param withSensorData Whether or not to read the points' sensor data
+	 * 						 and classifier data. If not, every point is
+	 * 						 read as a mode-only point.
+	 * 
+	 * @param handler The handler for the points in chronological order.
+	 * 
+	 * @throws DataAccessException There was an error reading the points or
+	 * 							   the handler failed.
+	 */
+	void processMobilityInformation(
+			final String username,
+			final DateTime startDate,
+			final DateTime endDate,
+			final MobilityPoint.PrivacyState privacyState,
+			final LocationStatus locationStatus,
+			final Mode mode,
+			final boolean withSensorData,
+			final MobilityPoint.Handler handler)
+			throws DataAccessException;
+	
 	/**
 	 * Retrieves the Mobility aggregate information for a user within a range.
 	 * 
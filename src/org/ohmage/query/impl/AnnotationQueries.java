@@ -15,22 +15,27 @@
  ******************************************************************************/
 package org.ohmage.query.impl;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import javax.sql.DataSource;
 
+import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.ohmage.domain.Annotation;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
 import org.ohmage.query.IAnnotationQueries;
+import org.ohmage.util.StringUtils;
 import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -84,6 +89,53 @@ public class AnnotationQueries extends Query implements IAnnotationQueries {
 		" AND repeatable_set_id = ? " +
 		"AND repeatable_set_iteration = ?";
 	
+	// Retrieves the annotations on survey responses. The survey responses'
+	// filters must be appended.
+	private static final String SQL_READ_SURVEY_RESPONSE_ANNOTATIONS =
+		"SELECT sr.uuid AS survey_response_uuid, " +
+			"NULL AS prompt_id, " +
+			"NULL AS repeatable_set_id, " +
+			"NULL AS repeatable_set_iteration, " +
+			"a.uuid, a.annotation, a.epoch_millis, a.timezone, u.username " +
+		"FROM survey_response sr, survey_response_annotation sra, annotation a, user u " +
+		"WHERE sr.id = sra.survey_response_id " +
+		"AND sra.annotation_id = a.id " +
+		"AND a.user_id = u.id";
+	
+	// Retrieves the annotations on the prompt responses of survey responses.
+	// The survey responses' filters must be appended.
+	private static final String SQL_READ_PROMPT_RESPONSE_ANNOTATIONS =
+		"SELECT sr.uuid, pr.prompt_id, " +
+			"pr.repeatable_set_id, pr.repeatable_set_iteration, " +
+			"a.uuid, a.annotation, a.epoch_millis, a.timezone, u.username " +
+		"FROM survey_response sr, prompt_response pr, prompt_response_annotation pra, annotation a, user u " +
+		"WHERE sr.id = pr.survey_response_id " +
+		"AND pr.id = pra.prompt_response_id " +
+		"AND pra.annotation_id = a.id " +
+		"AND a.user_id = u.id";
+	
+	// Limits the survey responses to those with the given IDs. The parameter
+	// list must be appended.
+	private static final String SQL_WHERE_SURVEY_RESPONSE_IDS =
+		" AND sr.uuid IN ";
+	
+	// Limits the survey responses to those in a campaign.
+	private static final String SQL_WHERE_CAMPAIGN =
+		" AND sr.campaign_id = (SELECT id FROM campaign WHERE urn = ?)";
+	
+	// Limits the survey responses to those on or after a date.
+	private static final String SQL_WHERE_ON_OR_AFTER =
+		" AND sr.epoch_millis >= ?";
+	
+	// Limits the survey responses to those on or before a date.
+	private static final String SQL_WHERE_ON_OR_BEFORE =
+		" AND sr.epoch_millis <= ?";
+	
+	// Groups the union of the survey response and prompt response annotations
+	// by survey response and orders each group by time.
+	private static final String SQL_ORDER_BY_SURVEY_RESPONSE_AND_TIME =
+		" ORDER BY survey_response_uuid, epoch_millis";
+	
 	private static final String SQL_ANNOTATION_EXISTS_FOR_USER = 
 		"SELECT EXISTS" +
 		" (SELECT id FROM annotation" +
@@ -298,6 +350,142 @@ public class AnnotationQueries extends Query implements IAnnotationQueries {
 		}
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IAnnotationQueries#processSurveyResponseAnnotations(java.util.Collection, java.lang.String, org.joda.time.DateTime, org.joda.time.DateTime, org.ohmage.domain.Annotation.Handler)
+	 */
+	@Override
+	public void processSurveyResponseAnnotations(
+			final Collection<UUID> surveyResponseIds,
+			final String campaignId,
+			final DateTime startDate,
+			final DateTime endDate,
+			final Annotation.Handler handler)
+			throws DataAccessException {
+		
+		if(handler == null) {
+			throw new DataAccessException("The handler is null.");
+		}
+		if(((surveyResponseIds == null) || surveyResponseIds.isEmpty()) &&
+			(campaignId == null)) {
+			
+			throw new DataAccessException(
+				"Either survey response IDs or a campaign ID are required.");
+		}
+		
+		// Both halves of the union read the same survey responses, so they 
+		// share the same filter and parameters.
+		StringBuilder filterBuilder = new StringBuilder();
+		final List<Object> filterParameters = new ArrayList<Object>();
+		if((surveyResponseIds != null) && (! surveyResponseIds.isEmpty())) {
+			filterBuilder.append(SQL_WHERE_SURVEY_RESPONSE_IDS);
+			filterBuilder.append(
+				StringUtils.generateStatementPList(surveyResponseIds.size()));
+			for(UUID surveyResponseId : surveyResponseIds) {
+				filterParameters.add(surveyResponseId.toString());
+			}
+		}
+		if(campaignId != null) {
+			filterBuilder.append(SQL_WHERE_CAMPAIGN);
+			filterParameters.add(campaignId);
+		}
+		if(startDate != null) {
+			filterBuilder.append(SQL_WHERE_ON_OR_AFTER);
+			filterParameters.add(startDate.getMillis());
+		}
+		if(endDate != null) {
+			filterBuilder.append(SQL_WHERE_ON_OR_BEFORE);
+			filterParameters.add(endDate.getMillis());
+		}
+		String filter = filterBuilder.toString();
+		
+		final String sql =
+			SQL_READ_SURVEY_RESPONSE_ANNOTATIONS + filter +
+			" UNION ALL " +
+			SQL_READ_PROMPT_RESPONSE_ANNOTATIONS + filter +
+			SQL_ORDER_BY_SURVEY_RESPONSE_AND_TIME;
+		
+		final List<Object> parameters = 
+			new ArrayList<Object>(filterParameters.size() * 2);
+		parameters.addAll(filterParameters);
+		parameters.addAll(filterParameters);
+		
+		try {
+			getReadJdbcTemplate().query(
+				new PreparedStatementCreator() {
+					/**
+					 * Creates a statement whose results are streamed from 
+					 * the database one row at a time rather than all being
+					 * read into memory when it is executed.
+					 */
+					@Override
+					public PreparedStatement createPreparedStatement(
+							final Connection connection)
+							throws SQLException {
+						
+						PreparedStatement ps =
+							connection.prepareStatement(
+								sql,
+								ResultSet.TYPE_FORWARD_ONLY,
+								ResultSet.CONCUR_READ_ONLY);
+						ps.setFetchSize(Integer.MIN_VALUE);
+						
+						int index = 1;
+						for(Object parameter : parameters) {
+							ps.setObject(index++, parameter);
+						}
+						
+						return ps;
+					}
+				},
+				new RowCallbackHandler() {
+					@Override
+					public void processRow(
+							final ResultSet rs)
+							throws SQLException {
+						
+						Integer repeatableSetIteration = rs.getInt(4);
+						if(rs.wasNull()) {
+							repeatableSetIteration = null;
+						}
+						
+						try {
+							handler.handle(
+								UUID.fromString(rs.getString(1)),
+								rs.getString(2),
+								rs.getString(3),
+								repeatableSetIteration,
+								new Annotation(
+									rs.getString(5),
+									rs.getString(6),
+									rs.getLong(7),
+									rs.getString(8),
+									rs.getString(9)));
+						}
+						catch(DomainException e) {
+							throw new SQLException(
+								"Error creating an annotation object.",
+								e);
+						}
+						catch(IOException e) {
+							throw new SQLException(
+								"The annotation could not be written.",
+								e);
+						}
+					}
+				}
+			);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" + 
+					sql + 
+					"' with parameters: " + 
+					parameters,
+				e);
+		}
+	}
+	
 	@Override
 	public boolean userOwnsAnnotation(String username, UUID annotationId) 
 			throws DataAccessException {
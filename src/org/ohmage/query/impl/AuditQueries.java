@@ -21,6 +21,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +33,9 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.domain.Audit;
+import org.ohmage.domain.AuditRollup;
+import org.ohmage.domain.AuditRollup.EntityReadCount;
+import org.ohmage.domain.AuditRollup.EntityType;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
 import org.ohmage.jee.servlet.RequestServlet;
@@ -169,6 +173,95 @@ public class AuditQueries extends Query implements IAuditQueries {
 			"WHERE id = ?" +
 		"), ?, ?)";
 	
+	// The columns of the latency histogram, one per bucket.
+	private static final String SQL_LATENCY_COLUMNS =
+		"latency_bucket_0, latency_bucket_1, latency_bucket_2, " +
+		"latency_bucket_3, latency_bucket_4, latency_bucket_5, " +
+		"latency_bucket_6, latency_bucket_7";
+	
+	// The sums of the columns of the latency histogram.
+	private static final String SQL_LATENCY_COLUMN_SUMS =
+		"SUM(latency_bucket_0) AS latency_bucket_0, " +
+		"SUM(latency_bucket_1) AS latency_bucket_1, " +
+		"SUM(latency_bucket_2) AS latency_bucket_2, " +
+		"SUM(latency_bucket_3) AS latency_bucket_3, " +
+		"SUM(latency_bucket_4) AS latency_bucket_4, " +
+		"SUM(latency_bucket_5) AS latency_bucket_5, " +
+		"SUM(latency_bucket_6) AS latency_bucket_6, " +
+		"SUM(latency_bucket_7) AS latency_bucket_7";
+	
+	// Adds a rollup's counts to the existing rollup or creates it.
+	private static final String SQL_UPSERT_ROLLUP =
+		"INSERT INTO audit_rollup(" +
+			"bucket_millis, uri, client, response_code, " +
+			"request_count, total_millis, max_millis, " +
+			SQL_LATENCY_COLUMNS + ") " +
+		"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+		"ON DUPLICATE KEY UPDATE " +
+			"request_count = request_count + VALUES(request_count), " +
+			"total_millis = total_millis + VALUES(total_millis), " +
+			"max_millis = GREATEST(max_millis, VALUES(max_millis)), " +
+			"latency_bucket_0 = latency_bucket_0 + VALUES(latency_bucket_0), " +
+			"latency_bucket_1 = latency_bucket_1 + VALUES(latency_bucket_1), " +
+			"latency_bucket_2 = latency_bucket_2 + VALUES(latency_bucket_2), " +
+			"latency_bucket_3 = latency_bucket_3 + VALUES(latency_bucket_3), " +
+			"latency_bucket_4 = latency_bucket_4 + VALUES(latency_bucket_4), " +
+			"latency_bucket_5 = latency_bucket_5 + VALUES(latency_bucket_5), " +
+			"latency_bucket_6 = latency_bucket_6 + VALUES(latency_bucket_6), " +
+			"latency_bucket_7 = latency_bucket_7 + VALUES(latency_bucket_7)";
+	
+	// Adds an entity's read count to the existing count or creates it.
+	private static final String SQL_UPSERT_ENTITY_READ =
+		"INSERT INTO audit_rollup_entity_read(" +
+			"bucket_millis, entity_type, entity_id, read_count) " +
+		"VALUES (?, ?, ?, ?) " +
+		"ON DUPLICATE KEY UPDATE " +
+			"read_count = read_count + VALUES(read_count)";
+	
+	// Retrieves the per-minute rollups within a window.
+	private static final String SQL_GET_ROLLUPS =
+		"SELECT bucket_millis, uri, client, response_code, " +
+			"request_count, total_millis, max_millis, " +
+			SQL_LATENCY_COLUMNS + " " +
+		"FROM audit_rollup " +
+		"WHERE bucket_millis >= ? " +
+		"AND bucket_millis < ?";
+	
+	// Retrieves the rollups within a window combined across the minutes.
+	private static final String SQL_GET_ROLLUP_TOTALS =
+		"SELECT ? AS bucket_millis, uri, client, response_code, " +
+			"SUM(request_count) AS request_count, " +
+			"SUM(total_millis) AS total_millis, " +
+			"MAX(max_millis) AS max_millis, " +
+			SQL_LATENCY_COLUMN_SUMS + " " +
+		"FROM audit_rollup " +
+		"WHERE bucket_millis >= ? " +
+		"AND bucket_millis < ?";
+	
+	// Limits the rollups to a single URI.
+	private static final String SQL_WHERE_ROLLUP_URI =
+		" AND uri = ?";
+	
+	// Limits the rollups to a single client.
+	private static final String SQL_WHERE_ROLLUP_CLIENT =
+		" AND client = ?";
+	
+	// Combines the rollups across the minutes.
+	private static final String SQL_GROUP_ROLLUPS =
+		" GROUP BY uri, client, response_code";
+	
+	// Orders the rollups by their time.
+	private static final String SQL_ORDER_ROLLUPS =
+		" ORDER BY bucket_millis";
+	
+	// Retrieves the total read counts for each entity within a window.
+	private static final String SQL_GET_ENTITY_READ_TOTALS =
+		"SELECT entity_type, entity_id, SUM(read_count) AS read_count " +
+		"FROM audit_rollup_entity_read " +
+		"WHERE bucket_millis >= ? " +
+		"AND bucket_millis < ? " +
+		"GROUP BY entity_type, entity_id";
+	
 	/**
 	 * Creates this object via dependency injection (reflection).
 	 * 
@@ -324,7 +417,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	@Override
 	public List<Long> getAllAudits() throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(SQL_GET_AUDIT_IDS, new SingleColumnRowMapper<Long>());
+			return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS, new SingleColumnRowMapper<Long>());
 		}
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS + "'", e);
@@ -337,7 +430,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	@Override
 	public List<Long> getAllAuditsWithRequestType(RequestServlet.RequestType requestType) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_TYPE, new Object[] { requestType.name().toLowerCase() }, new SingleColumnRowMapper<Long>());
+			return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_TYPE, new Object[] { requestType.name().toLowerCase() }, new SingleColumnRowMapper<Long>());
 		}
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_WITH_TYPE + "' with parameter: " + requestType.name().toLowerCase(), e);
@@ -349,7 +442,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	 */
 	public List<Long> getAllAuditsWithUri(URI uri) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_URI, new Object[] { uri.toString() }, new SingleColumnRowMapper<Long>());
+			return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_URI, new Object[] { uri.toString() }, new SingleColumnRowMapper<Long>());
 		}
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_WITH_URI + "' with parameter: " + uri, e);
@@ -362,7 +455,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	@Override
 	public List<Long> getAllAuditsWithClient(String client) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_CLIENT, new Object[] { client }, new SingleColumnRowMapper<Long>());
+			return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_CLIENT, new Object[] { client }, new SingleColumnRowMapper<Long>());
 		}
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_WITH_CLIENT + "' with parameter: " + client, e);
@@ -375,7 +468,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	@Override
 	public List<Long> getAllAuditsWithDeviceId(String deviceId) throws DataAccessException{
 		try {
-			return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_DEVICE_ID, new Object[] { deviceId }, new SingleColumnRowMapper<Long>());
+			return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_DEVICE_ID, new Object[] { deviceId }, new SingleColumnRowMapper<Long>());
 		}
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_WITH_DEVICE_ID + "' with parameter: " + deviceId, e);
@@ -388,7 +481,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	public List<Long> getAllAuditsWithResponse(ResponseType responseType, final ErrorCode errorCode) throws DataAccessException {
 		if(ResponseType.SUCCESS.equals(responseType)) {
 			try {
-				return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_SUCCESS_RESPONSE, new SingleColumnRowMapper<Long>());
+				return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_SUCCESS_RESPONSE, new SingleColumnRowMapper<Long>());
 			}
 			catch(org.springframework.dao.DataAccessException e) {
 				throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_WITH_DEVICE_ID + "'.", e);
@@ -397,7 +490,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 		else if(ResponseType.FAILURE.equals(responseType)) {
 			if(errorCode == null) {
 				try {
-					return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_FAILURE_RESPONSE, new SingleColumnRowMapper<Long>());
+					return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_FAILURE_RESPONSE, new SingleColumnRowMapper<Long>());
 				}
 				catch(org.springframework.dao.DataAccessException e) {
 					throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_WITH_DEVICE_ID + "'.", e);
@@ -405,7 +498,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 			}
 			else {
 				try {
-					return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_FAILURE_RESPONSE_WITH_CODE, new Object[] { errorCode }, new SingleColumnRowMapper<Long>());
+					return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_WITH_FAILURE_RESPONSE_WITH_CODE, new Object[] { errorCode }, new SingleColumnRowMapper<Long>());
 				}
 				catch(org.springframework.dao.DataAccessException e) {
 					throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_WITH_FAILURE_RESPONSE_WITH_CODE + "'.", e);
@@ -423,7 +516,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	@Override
 	public List<Long> getAllAuditsOnOrAfterDate(DateTime date) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_ON_OR_AFTER_DATE, new Object[] { date.getMillis() }, new SingleColumnRowMapper<Long>());
+			return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_ON_OR_AFTER_DATE, new Object[] { date.getMillis() }, new SingleColumnRowMapper<Long>());
 		}
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_ON_OR_AFTER_DATE + "' with parameter: " + date, e);
@@ -436,7 +529,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	@Override
 	public List<Long> getAllAuditsOnOrBeforeDate(DateTime date) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_ON_OR_BEFORE_DATE, new Object[] { date.getMillis() }, new SingleColumnRowMapper<Long>());
+			return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_ON_OR_BEFORE_DATE, new Object[] { date.getMillis() }, new SingleColumnRowMapper<Long>());
 		}
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_ON_OR_BEFORE_DATE + "' with parameter: " + date, e);
@@ -449,7 +542,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 	@Override
 	public List<Long> getAllAuditsOnOrBetweenDates(DateTime startDate, DateTime endDate) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(SQL_GET_AUDIT_IDS_ON_OR_BETWEEN_DATES, new Object[] { startDate.getMillis(), endDate.getMillis() }, new SingleColumnRowMapper<Long>());
+			return getReadJdbcTemplate().query(SQL_GET_AUDIT_IDS_ON_OR_BETWEEN_DATES, new Object[] { startDate.getMillis(), endDate.getMillis() }, new SingleColumnRowMapper<Long>());
 		}
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error executing SQL '" + SQL_GET_AUDIT_IDS_ON_OR_BETWEEN_DATES + "' with parameters: " + 
@@ -473,7 +566,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 		
 		for(Long auditId : auditIds) {
 			try {
-				final Audit auditInformation = getJdbcTemplate().queryForObject(
+				final Audit auditInformation = getReadJdbcTemplate().queryForObject(
 						SQL_GET_AUDIT_INFORMATION_FROM_ID, 
 						new Object[] { auditId.longValue() },
 						new RowMapper<Audit>() {
@@ -532,7 +625,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 				
 				// Add all of the parameters.
 				try {
-					final List<KeyValuePair> parameters = getJdbcTemplate().query(
+					final List<KeyValuePair> parameters = getReadJdbcTemplate().query(
 							SQL_GET_AUDIT_PARAMETERS, 
 							new Object[] { auditId }, 
 							new RowMapper<KeyValuePair>() {
@@ -573,7 +666,7 @@ public class AuditQueries extends Query implements IAuditQueries {
 				
 				// Add all of the extras.
 				try {
-					final List<KeyValuePair> extras = getJdbcTemplate().query(
+					final List<KeyValuePair> extras = getReadJdbcTemplate().query(
 							SQL_GET_AUDIT_EXTRAS, 
 							new Object[] { auditId }, 
 							new RowMapper<KeyValuePair>() {
@@ -628,4 +721,242 @@ public class AuditQueries extends Query implements IAuditQueries {
 		
 		return result;
 	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IAuditQueries#createAuditRollups(java.util.Collection, java.util.Collection)
+	 */
+	@Override
+	public void createAuditRollups(
+			final Collection<AuditRollup> rollups,
+			final Collection<EntityReadCount> entityReads)
+			throws DataAccessException {
+		
+		List<Object[]> rollupArgs = new ArrayList<Object[]>(rollups.size());
+		for(AuditRollup rollup : rollups) {
+			long[] histogram = rollup.getLatencyHistogram();
+			
+			Object[] args = new Object[7 + histogram.length];
+			args[0] = rollup.getBucketMillis();
+			args[1] = rollup.getUri();
+			// The client is part of the unique key, so it cannot be null.
+			args[2] = (rollup.getClient() == null) ? "" : rollup.getClient();
+			args[3] = rollup.getResponseCode();
+			args[4] = rollup.getCount();
+			args[5] = rollup.getTotalMillis();
+			args[6] = rollup.getMaxMillis();
+			for(int i = 0; i < histogram.length; i++) {
+				args[7 + i] = histogram[i];
+			}
+			
+			rollupArgs.add(args);
+		}
+		
+		List<Object[]> entityReadArgs = 
+			new ArrayList<Object[]>(entityReads.size());
+		for(EntityReadCount entityRead : entityReads) {
+			entityReadArgs.add(
+				new Object[] {
+					entityRead.getBucketMillis(),
+					entityRead.getEntityType().toString(),
+					entityRead.getEntityId(),
+					entityRead.getCount() });
+		}
+		
+		// Create the transaction.
+		DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+		def.setName("Creating the audit rollups.");
+		
+		try {
+			// Begin the transaction.
+			PlatformTransactionManager transactionManager = 
+				new DataSourceTransactionManager(getDataSource());
+			TransactionStatus status = transactionManager.getTransaction(def);
+			
+			if(rollupArgs.size() > 0) {
+				try {
+					getJdbcTemplate().batchUpdate(SQL_UPSERT_ROLLUP, rollupArgs);
+				}
+				catch(org.springframework.dao.DataAccessException e) {
+					transactionManager.rollback(status);
+					throw new DataAccessException(
+						"Error while executing SQL '" + 
+							SQL_UPSERT_ROLLUP + 
+							"' for " + 
+							rollupArgs.size() + 
+							" rollups.",
+						e);
+				}
+			}
+			
+			if(entityReadArgs.size() > 0) {
+				try {
+					getJdbcTemplate()
+						.batchUpdate(SQL_UPSERT_ENTITY_READ, entityReadArgs);
+				}
+				catch(org.springframework.dao.DataAccessException e) {
+					transactionManager.rollback(status);
+					throw new DataAccessException(
+						"Error while executing SQL '" + 
+							SQL_UPSERT_ENTITY_READ + 
+							"' for " + 
+							entityReadArgs.size() + 
+							" entity reads.",
+						e);
+				}
+			}
+			
+			// Commit the transaction.
+			try {
+				transactionManager.commit(status);
+			}
+			catch(TransactionException e) {
+				transactionManager.rollback(status);
+				throw new DataAccessException("Error while committing the transaction.", e);
+			}
+		}
+		catch(TransactionException e) {
+			throw new DataAccessException("Error while attempting to rollback the transaction.", e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IAuditQueries#readAuditRollups(org.joda.time.DateTime, org.joda.time.DateTime, java.lang.String, java.lang.String, boolean)
+	 */
+	@Override
+	public List<AuditRollup> readAuditRollups(
+			final DateTime startDate,
+			final DateTime endDate,
+			final String uri,
+			final String client,
+			final boolean aggregate)
+			throws DataAccessException {
+		
+		StringBuilder sqlBuilder = new StringBuilder();
+		List<Object> parameters = new LinkedList<Object>();
+		
+		if(aggregate) {
+			sqlBuilder.append(SQL_GET_ROLLUP_TOTALS);
+			parameters.add(startDate.getMillis());
+		}
+		else {
+			sqlBuilder.append(SQL_GET_ROLLUPS);
+		}
+		parameters.add(startDate.getMillis());
+		parameters.add(endDate.getMillis());
+		
+		if(uri != null) {
+			sqlBuilder.append(SQL_WHERE_ROLLUP_URI);
+			parameters.add(uri);
+		}
+		if(client != null) {
+			sqlBuilder.append(SQL_WHERE_ROLLUP_CLIENT);
+			parameters.add(client);
+		}
+		
+		if(aggregate) {
+			sqlBuilder.append(SQL_GROUP_ROLLUPS);
+		}
+		else {
+			sqlBuilder.append(SQL_ORDER_ROLLUPS);
+		}
+		
+		String sql = sqlBuilder.toString();
+		try {
+			return getReadJdbcTemplate().query(
+				sql,
+				parameters.toArray(),
+				new RowMapper<AuditRollup>() {
+					@Override
+					public AuditRollup mapRow(
+							final ResultSet rs, 
+							final int rowNum) 
+							throws SQLException {
+						
+						long[] histogram = 
+							new long[AuditRollup.LATENCY_BOUNDS.length + 1];
+						for(int i = 0; i < histogram.length; i++) {
+							histogram[i] = rs.getLong("latency_bucket_" + i);
+						}
+						
+						String client = rs.getString("client");
+						if("".equals(client)) {
+							client = null;
+						}
+						
+						return new AuditRollup(
+							rs.getLong("bucket_millis"),
+							rs.getString("uri"),
+							client,
+							rs.getString("response_code"),
+							rs.getLong("request_count"),
+							rs.getLong("total_millis"),
+							rs.getLong("max_millis"),
+							histogram);
+					}
+				});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" + 
+					sql + 
+					"' with parameters: " + 
+					parameters, 
+				e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IAuditQueries#readAuditEntityReads(org.joda.time.DateTime, org.joda.time.DateTime)
+	 */
+	@Override
+	public List<EntityReadCount> readAuditEntityReads(
+			final DateTime startDate,
+			final DateTime endDate)
+			throws DataAccessException {
+		
+		try {
+			return getReadJdbcTemplate().query(
+				SQL_GET_ENTITY_READ_TOTALS,
+				new Object[] { startDate.getMillis(), endDate.getMillis() },
+				new RowMapper<EntityReadCount>() {
+					@Override
+					public EntityReadCount mapRow(
+							final ResultSet rs, 
+							final int rowNum) 
+							throws SQLException {
+						
+						EntityType entityType;
+						try {
+							entityType = 
+								EntityType.valueOf(
+									rs.getString("entity_type").toUpperCase());
+						}
+						catch(IllegalArgumentException e) {
+							throw new SQLException(
+								"Unknown entity type: " + 
+									rs.getString("entity_type"), 
+								e);
+						}
+						
+						return new EntityReadCount(
+							startDate.getMillis(),
+							entityType,
+							rs.getString("entity_id"),
+							rs.getLong("read_count"));
+					}
+				});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" + 
+					SQL_GET_ENTITY_READ_TOTALS + 
+					"' with parameters: " + 
+					startDate + ", " + 
+					endDate, 
+				e);
+		}
+	}
 }
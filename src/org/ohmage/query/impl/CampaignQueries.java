@@ -22,6 +22,7 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -34,8 +35,10 @@ import java.util.Set;
 import javax.sql.DataSource;
 
 import org.joda.time.DateTime;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.Clazz;
 import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.domain.campaign.CampaignVersion;
 import org.ohmage.domain.campaign.Prompt;
 import org.ohmage.domain.campaign.RepeatableSet;
 import org.ohmage.domain.campaign.Survey;
@@ -299,13 +302,13 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 	// Updates the campaign's XML.
 	private static final String SQL_UPDATE_XML =
 		"UPDATE campaign " +
-		"SET xml = ?, creation_timestamp = now() " +
+		"SET xml = ?, creation_timestamp = now(), version = version + 1 " +
 		"WHERE urn = ?";
 	
 	// Updates a campaign's description.
 	private static final String SQL_UPDATE_DESCRIPTION = 
 		"UPDATE campaign " +
-		"SET description = ? " +
+		"SET description = ?, version = version + 1 " +
 		"WHERE urn = ?";
 	
 	// Updates a campaign's privacy state.
@@ -315,7 +318,8 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			"SELECT id " +
 			"FROM campaign_privacy_state " +
 			"WHERE privacy_state = ?" +
-		") " +
+		"), " +
+		"version = version + 1 " +
 		"WHERE urn = ?";
 	
 	// Updates a campaign's running state.
@@ -325,13 +329,14 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			"SELECT id " +
 			"FROM campaign_running_state " +
 			"WHERE running_state = ?" +
-		") " +
+		"), " +
+		"version = version + 1 " +
 		"WHERE urn = ?";
 
 	// Updates a campaign's editable state.
 	private static final String SQL_UPDATE_EDITABLE =
 		"UPDATE campaign " +
-	    "SET editable = ? " +
+	    "SET editable = ?, version = version + 1 " +
 		"WHERE urn = ?";
 		
 	// Deletes a campaign.
@@ -602,6 +607,8 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 					"Error while committing the transaction.",
 					e);
 			}
+
+			AuthorizationCache.invalidateCampaign(campaign.getId());
 		}
 		catch(TransactionException e) {
 			throw new DataAccessException(
@@ -633,7 +640,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 	@Override
 	public List<String> getAllCampaignIds() throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_ALL_IDS,
 					new SingleColumnRowMapper<String>());
 		}
@@ -655,7 +662,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			throws DataAccessException {
 
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_LIKE_ID, 
 					new Object[] { "%" + partialCampaignId + "%" }, 
 					new SingleColumnRowMapper<String>());
@@ -679,7 +686,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			throws DataAccessException {
 
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_LIKE_NAME, 
 					new Object[] { "%" + partialCampaignName + "%" }, 
 					new SingleColumnRowMapper<String>());
@@ -703,7 +710,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			String partialDescription) throws DataAccessException {
 
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_LIKE_DESCRIPTION, 
 					new Object[] { "%" + partialDescription + "%" }, 
 					new SingleColumnRowMapper<String>());
@@ -727,7 +734,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			throws DataAccessException {
 		
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_LIKE_XML, 
 					new Object[] { "%" + partialXml + "%" }, 
 					new SingleColumnRowMapper<String>());
@@ -751,7 +758,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			String partialAuthoredBy) throws DataAccessException {
 
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_LIKE_AUTHORED_BY, 
 					new Object[] { "%" + partialAuthoredBy + "%" }, 
 					new SingleColumnRowMapper<String>());
@@ -771,7 +778,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 	 */
 	public List<String> getCampaignsOnOrAfterDate(DateTime date) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_CAMPAIGNS_ON_OR_AFTER_DATE,
 					new Object[] { DateTimeUtils.getIso8601DateString(date, true) },
 					new SingleColumnRowMapper<String>());
@@ -786,7 +793,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 	 */
 	public List<String> getCampaignsOnOrBeforeDate(DateTime date) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_CAMPAIGNS_ON_OR_BEFORE_DATE,
 					new Object[] { DateTimeUtils.getIso8601DateString(date, true) },
 					new SingleColumnRowMapper<String>());
@@ -801,7 +808,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 	 */
 	public List<String> getCampaignsWithPrivacyState(Campaign.PrivacyState privacyState) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_CAMPAIGNS_WITH_PRIVACY_STATE,
 					new Object[] { privacyState.toString() },
 					new SingleColumnRowMapper<String>());
@@ -816,7 +823,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 	 */
 	public List<String> getCampaignsWithRunningState(Campaign.RunningState runningState) throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_CAMPAIGNS_WITH_RUNNING_STATE,
 					new Object[] { runningState.toString() },
 					new SingleColumnRowMapper<String>());
@@ -1380,7 +1387,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			builder.append("(" + subSelectStmt + " )");
 			Collection<Object> parameters = subSelectParameters;
 
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					builder.toString(),
 					parameters.toArray(),
 					new ResultSetExtractor<Collection<Campaign>>() {
@@ -1424,6 +1431,137 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 		}
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.ICampaignQueries#getCampaignVersions(java.lang.String, java.lang.String, java.util.Collection, boolean)
+	 */
+	public List<CampaignVersion> getCampaignVersions(
+			final String username,
+			final String subSelectStmt,
+			final Collection<Object> subSelectParameters,
+			final boolean withResponses)
+			throws DataAccessException {
+
+		if(subSelectStmt == null) {
+			throw new DataAccessException("The subSelectStmt cannot be null!");
+		}
+
+		// Each part of the watermark is a count, which changes when a row is
+		// removed, and the largest ID, which changes when a row is added
+		// because the IDs are never reused. A role change is a removal and an
+		// addition. The roster and classes also include a checksum of their
+		// contents.
+		StringBuilder builder =
+			new StringBuilder(
+				"SELECT ca.urn, ca.name, u.admin, " +
+					"(" +
+						"SELECT GROUP_CONCAT(ur.role ORDER BY ur.role) " +
+						"FROM user_role_campaign urc, user_role ur " +
+						"WHERE urc.campaign_id = ca.id " +
+						"AND urc.user_id = u.id " +
+						"AND urc.user_role_id = ur.id" +
+					") AS roles, " +
+					"(" +
+						"SELECT COUNT(cm.id) " +
+						"FROM campaign_mask cm " +
+						"WHERE cm.campaign_id = ca.id " +
+						"AND cm.assignee_user_id = u.id" +
+					") AS mask_count, " +
+					"CONCAT_WS(':', " +
+						"ca.version, " +
+						"(" +
+							"SELECT CONCAT_WS('.', " +
+								"COUNT(urc.id), " +
+								"COALESCE(MAX(urc.id), 0), " +
+								"BIT_XOR(CRC32(CONCAT_WS(',', urc.user_id, urc.user_role_id)))) " +
+							"FROM user_role_campaign urc " +
+							"WHERE urc.campaign_id = ca.id" +
+						"), " +
+						"(" +
+							"SELECT CONCAT_WS('.', " +
+								"COUNT(cc.id), " +
+								"COALESCE(MAX(cc.id), 0), " +
+								"BIT_XOR(CRC32(cc.class_id))) " +
+							"FROM campaign_class cc " +
+							"WHERE cc.campaign_id = ca.id" +
+						"), " +
+						"(" +
+							"SELECT CONCAT_WS('.', " +
+								"COUNT(cm.id), " +
+								"COALESCE(MAX(cm.id), 0)) " +
+							"FROM campaign_mask cm " +
+							"WHERE cm.campaign_id = ca.id " +
+							"AND cm.assignee_user_id = u.id" +
+						")");
+		// A survey response's privacy state is its only column that is
+		// updated and that affects the counts.
+		if(withResponses) {
+			builder.append(
+						", (" +
+							"SELECT CONCAT_WS('.', " +
+								"COUNT(sr.id), " +
+								"COALESCE(MAX(sr.id), 0), " +
+								"COALESCE(SUM(sr.privacy_state_id), 0), " +
+								"COALESCE(UNIX_TIMESTAMP(MAX(sr.last_modified_timestamp)), 0)) " +
+							"FROM survey_response sr " +
+							"WHERE sr.campaign_id = ca.id" +
+						")");
+		}
+		builder
+			.append(
+					") AS watermark " +
+				"FROM campaign ca, user u " +
+				"WHERE u.username = ? " +
+				"AND ca.id IN (")
+			.append(subSelectStmt)
+			.append(") ORDER BY ca.urn");
+
+		List<Object> parameters =
+			new ArrayList<Object>(subSelectParameters.size() + 1);
+		parameters.add(username);
+		parameters.addAll(subSelectParameters);
+
+		// The watermark decides whether a cached response is still current,
+		// so it is always read from the primary. A lagging replica would
+		// keep serving the old response after another user's change.
+		try {
+			return getJdbcTemplate().query(
+					builder.toString(),
+					parameters.toArray(),
+					new RowMapper<CampaignVersion>() {
+						@Override
+						public CampaignVersion mapRow(
+								final ResultSet rs,
+								final int rowNum)
+								throws SQLException {
+
+							List<Campaign.Role> roles =
+								new ArrayList<Campaign.Role>();
+							String rolesString = rs.getString("roles");
+							if(rolesString != null) {
+								for(String role : rolesString.split(",")) {
+									roles.add(Campaign.Role.getValue(role));
+								}
+							}
+
+							return new CampaignVersion(
+									rs.getString("urn"),
+									rs.getString("name"),
+									rs.getBoolean("admin"),
+									roles,
+									rs.getLong("mask_count"),
+									rs.getString("watermark"));
+						}
+					});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + builder + "' with parameters: " +
+						parameters,
+					e);
+		}
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see org.ohmage.query.ICampaignQueries#getCampaigns(java.util.Collection, java.util.Collection, java.util.Collection, java.util.Collection, org.joda.time.DateTime, org.joda.time.DateTime, org.ohmage.domain.campaign.Campaign.PrivacyState, org.ohmage.domain.campaign.Campaign.RunningState, long, long)
@@ -1542,7 +1680,7 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 		
 		try {
 			return 
-				getJdbcTemplate().query(
+				getReadJdbcTemplate().query(
 					sqlBuilder.toString(),
 					parameters.toArray(),
 					new RowMapper<Campaign>() {
@@ -1782,6 +1920,31 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 				}
 			}
 			
+			// The documents visible to the users whose roles changed must be
+			// recomputed.
+			try {
+				if(usersAndRolesToAdd != null) {
+					DocumentVisibilityIndex.invalidateUsers(
+						getJdbcTemplate(), 
+						usersAndRolesToAdd.keySet());
+				}
+				if(usersAndRolesToRemove != null) {
+					DocumentVisibilityIndex.invalidateUsers(
+						getJdbcTemplate(), 
+						usersAndRolesToRemove.keySet());
+				}
+				DocumentVisibilityIndex.invalidateClasses(
+					getJdbcTemplate(), 
+					classesToAdd);
+				DocumentVisibilityIndex.invalidateClasses(
+					getJdbcTemplate(), 
+					classesToRemove);
+			}
+			catch(DataAccessException e) {
+				transactionManager.rollback(status);
+				throw e;
+			}
+			
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
@@ -1790,6 +1953,8 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 				transactionManager.rollback(status);
 				throw new DataAccessException("Error while committing the transaction.", e);
 			}
+
+			AuthorizationCache.invalidateCampaign(campaignId);
 		}
 		catch(TransactionException e) {
 			throw new DataAccessException("Error while attempting to rollback the transaction.", e);
@@ -1809,6 +1974,17 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 			PlatformTransactionManager transactionManager = new DataSourceTransactionManager(getDataSource());
 			TransactionStatus status = transactionManager.getTransaction(def);
 			
+			// The campaign's documents are no longer visible through it.
+			try {
+				DocumentVisibilityIndex.invalidateCampaigns(
+					getJdbcTemplate(), 
+					Collections.singleton(campaignId));
+			}
+			catch(DataAccessException e) {
+				transactionManager.rollback(status);
+				throw e;
+			}
+			
 			try {
 				getJdbcTemplate().update(SQL_DELETE_CAMPAIGN, campaignId);
 			}
@@ -1825,6 +2001,8 @@ public final class CampaignQueries extends Query implements ICampaignQueries {
 				transactionManager.rollback(status);
 				throw new DataAccessException("Error while committing the transaction.", e);
 			}
+
+			AuthorizationCache.invalidateCampaign(campaignId);
 		}
 		catch(TransactionException e) {
 			throw new DataAccessException("Error while attempting to rollback the transaction.", e);
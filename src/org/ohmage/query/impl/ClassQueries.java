@@ -22,13 +22,16 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
 import org.apache.log4j.Logger;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.Clazz;
 import org.ohmage.domain.Clazz.Role;
 import org.ohmage.domain.campaign.Campaign;
@@ -36,12 +39,10 @@ import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
 import org.ohmage.query.ICampaignClassQueries;
 import org.ohmage.query.IClassQueries;
-import org.ohmage.query.IUserCampaignClassQueries;
-import org.ohmage.query.IUserCampaignQueries;
-import org.ohmage.query.IUserClassQueries;
 import org.ohmage.query.impl.QueryResultsList.QueryResultListBuilder;
 import org.ohmage.util.StringUtils;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -65,10 +66,11 @@ public class ClassQueries extends Query implements IClassQueries {
 	
 	private static Logger LOGGER = Logger.getLogger(ClassQueries.class);
 	
+	// The maximum number of rows written by a single multi-row insert and 
+	// the maximum number of values in a single "IN" list.
+	private static final int MAX_BATCH_SIZE = 1000;
+	
 	private ICampaignClassQueries campaignClassQueries; 
-	private IUserCampaignClassQueries userCampaignClassQueries;
-	private IUserClassQueries userClassQueries;
-	private IUserCampaignQueries userCampaignQueries;
 	
 	// Returns a boolean as to whether or not the given class exists.
 	private static final String SQL_EXISTS_CLASS = 
@@ -128,10 +130,15 @@ public class ClassQueries extends Query implements IClassQueries {
 			")" +
 		")";
 	
-	// Associates a user with a campaign.
+	// Associates users with campaigns. This must be followed by one or more
+	// comma-separated SQL_INSERT_USER_CAMPAIGN_ROW.
 	private static final String SQL_INSERT_USER_CAMPAIGN =
 		"INSERT INTO user_role_campaign(user_id, campaign_id, user_role_id) " +
-		"VALUES (" +
+		"VALUES ";
+	
+	// A single row for SQL_INSERT_USER_CAMPAIGN.
+	private static final String SQL_INSERT_USER_CAMPAIGN_ROW =
+		"(" +
 			"(" +
 				"SELECT id " +
 				"FROM user " +
@@ -145,9 +152,72 @@ public class ClassQueries extends Query implements IClassQueries {
 				"FROM user_role " +
 				"WHERE role = ?" +
 			")" +
-			"" +
 		")";
 	
+	// Locks all of the user-class associations for a class until the end of
+	// the transaction.
+	private static final String SQL_LOCK_CLASS_ROSTER =
+		"SELECT uc.id " +
+		"FROM user_class uc, class c " +
+		"WHERE c.urn = ? " +
+		"AND c.id = uc.class_id " +
+		"FOR UPDATE";
+	
+	// Returns the username and class role of every user in a class.
+	private static final String SQL_GET_CLASS_ROSTER =
+		"SELECT u.username, ucr.role " +
+		"FROM user u, class c, user_class uc, user_class_role ucr " +
+		"WHERE c.urn = ? " +
+		"AND c.id = uc.class_id " +
+		"AND u.id = uc.user_id " +
+		"AND ucr.id = uc.user_class_role_id";
+	
+	// Returns the default campaign roles for each class role for each of the
+	// campaigns associated with a class.
+	private static final String SQL_GET_CLASS_DEFAULT_ROLES =
+		"SELECT ca.urn, ucr.role AS class_role, ur.role AS campaign_role " +
+		"FROM class c, campaign ca, campaign_class cc, " +
+			"campaign_class_default_role ccdr, " +
+			"user_class_role ucr, user_role ur " +
+		"WHERE c.urn = ? " +
+		"AND c.id = cc.class_id " +
+		"AND ca.id = cc.campaign_id " +
+		"AND cc.id = ccdr.campaign_class_id " +
+		"AND ucr.id = ccdr.user_class_role_id " +
+		"AND ur.id = ccdr.user_role_id";
+	
+	// Returns the username and campaign ID for each of the campaigns 
+	// associated with a class with which the user is also associated through
+	// some other class. This must be followed by a parameter list of 
+	// usernames.
+	private static final String SQL_GET_CAMPAIGNS_THROUGH_OTHER_CLASSES =
+		"SELECT DISTINCT u.username, ca.urn " +
+		"FROM user u, class c, campaign ca, " +
+			"campaign_class cc, campaign_class occ, user_class ouc " +
+		"WHERE c.urn = ? " +
+		"AND c.id = cc.class_id " +
+		"AND ca.id = cc.campaign_id " +
+		"AND ca.id = occ.campaign_id " +
+		"AND occ.class_id != c.id " +
+		"AND occ.class_id = ouc.class_id " +
+		"AND u.id = ouc.user_id " +
+		"AND u.username IN ";
+	
+	// Returns the username, campaign ID, and campaign role for each role the
+	// users have in the campaigns associated with a class. This must be 
+	// followed by a parameter list of usernames.
+	private static final String SQL_GET_USER_CAMPAIGN_ROLES_FOR_CLASS =
+		"SELECT u.username, ca.urn, ur.role " +
+		"FROM user u, class c, campaign ca, campaign_class cc, " +
+			"user_role_campaign urc, user_role ur " +
+		"WHERE c.urn = ? " +
+		"AND c.id = cc.class_id " +
+		"AND ca.id = cc.campaign_id " +
+		"AND ca.id = urc.campaign_id " +
+		"AND u.id = urc.user_id " +
+		"AND ur.id = urc.user_role_id " +
+		"AND u.username IN ";
+	
 	// Updates a class' name.
 	private static final String SQL_UPDATE_CLASS_NAME =
 		"UPDATE class " +
@@ -222,30 +292,14 @@ public class ClassQueries extends Query implements IClassQueries {
 	 * 
 	 * @param dataSource A DataSource object to use when querying the database.
 	 */
-	private ClassQueries(DataSource dataSource, ICampaignClassQueries iCampaignClassQueries, 
-			IUserCampaignClassQueries iUserCampaignClassQueries, IUserClassQueries iUserClassQueries, IUserCampaignQueries iUserCampaignQueries) {
+	private ClassQueries(DataSource dataSource, ICampaignClassQueries iCampaignClassQueries) {
 		super(dataSource);
 		
 		if(iCampaignClassQueries == null) {
 			throw new IllegalArgumentException("An instance of ICampaignClassQueries is a required argument.");
 		}
 		
-		if(iUserCampaignClassQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserCampaignClassQueries is a required argument.");
-		}
-		
-		if(iUserClassQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserClassQueries is a required argument.");
-		}
-		
-		if(iUserCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserCampaignQueries is a required argument.");
-		}
-		
 		campaignClassQueries = iCampaignClassQueries;
-		userCampaignClassQueries = iUserCampaignClassQueries;
-		userClassQueries = iUserClassQueries;
-		userCampaignQueries = iUserCampaignQueries;
 	}
 	
 	/* (non-Javadoc)
@@ -704,13 +758,29 @@ public class ClassQueries extends Query implements IClassQueries {
 				}
 			}
 			
-			// If either of the user lists are non-empty, we grab the list of
-			// campaigns associated with the class now as it will be needed, 
-			// and we don't want to grab it multiple times.
-			List<String> campaignIds = Collections.emptyList();
+			// Create the list of warning messages to be returned to the 
+			// caller.
+			List<String> warningMessages = new LinkedList<String>();
+			
+			// Update the roster.
 			if((usersToRemove != null) || (userAndRolesToAdd != null)) {
 				try {
-					campaignIds = campaignClassQueries.getCampaignsAssociatedWithClass(classId);
+					updateClassRoster(
+							classId, 
+							userAndRolesToAdd, 
+							usersToRemove, 
+							warningMessages);
+					
+					// The documents visible to these users must be 
+					// recomputed.
+					DocumentVisibilityIndex.invalidateUsers(
+							getJdbcTemplate(), 
+							usersToRemove);
+					if(userAndRolesToAdd != null) {
+						DocumentVisibilityIndex.invalidateUsers(
+								getJdbcTemplate(), 
+								userAndRolesToAdd.keySet());
+					}
 				}
 				catch(DataAccessException e) {
 					transactionManager.rollback(status);
@@ -718,301 +788,629 @@ public class ClassQueries extends Query implements IClassQueries {
 				}
 			}
 			
-			// Delete the users before adding the new ones. This facilitates
-			// upgrading a user from one role to another.
-			if(usersToRemove != null) {
-				for(String username : usersToRemove) {
-					// Get the user's role in the class before removing
-					// it.
-					Clazz.Role classRole;
-					try {
-						classRole = userClassQueries.getUserClassRole(classId, username);
-					}
-					catch(DataAccessException e) {
-						transactionManager.rollback(status);
-						throw e;
+			// Commit the transaction.
+			try {
+				transactionManager.commit(status);
+			}
+			catch(TransactionException e) {
+				transactionManager.rollback(status);
+				throw new DataAccessException("Error while committing the transaction.", e);
+			}
+
+			AuthorizationCache.invalidateClass(classId);
+			
+			return warningMessages;
+		}
+		catch(TransactionException e) {
+			throw new DataAccessException("Error while attempting to rollback the transaction.", e);
+		}
+	}
+	
+	/**
+	 * Applies the changes to a class' roster and the campaign roles that the
+	 * class grants. This must be called from within a transaction.<br />
+	 * <br />
+	 * The current roster, the class' default campaign roles, and the users'
+	 * other class-campaign associations are each read with a single query,
+	 * and the changes are computed from them and then written as batches.
+	 * With "rewriteBatchedStatements=true" in the JDBC URL, as in the
+	 * default configuration, the driver sends each batch as a few multi-row
+	 * statements, so the number of round trips does not grow with the number
+	 * of users and campaigns involved. Without it, each row of a batch is 
+	 * still its own statement.
+	 * 
+	 * @param classId The class' unique identifier.
+	 * 
+	 * @param userAndRolesToAdd The users to add to the class or whose role 
+	 * 							should be changed and their new role. This may
+	 * 							be null.
+	 * 
+	 * @param usersToRemove The users to remove from the class. These are 
+	 * 						removed before any are added which facilitates
+	 * 						changing a user's role. This may be null.
+	 * 
+	 * @param warningMessages The list to which a warning is added for each
+	 * 						  user whose role was changed.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	private void updateClassRoster(
+			final String classId,
+			final Map<String, Clazz.Role> userAndRolesToAdd,
+			final Collection<String> usersToRemove,
+			final List<String> warningMessages)
+			throws DataAccessException {
+		
+		// Lock the class' roster so that a concurrent update to the same 
+		// class cannot change it between reading it and writing to it.
+		try {
+			getJdbcTemplate().queryForList(
+					SQL_LOCK_CLASS_ROSTER, 
+					new Object[] { classId }, 
+					Long.class);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException("Error executing SQL '" + SQL_LOCK_CLASS_ROSTER + "' with parameter: " + 
+					classId, e);
+		}
+		
+		Map<String, Clazz.Role> roster = getClassRoster(classId);
+		List<String> campaignIds = 
+				campaignClassQueries.getCampaignsAssociatedWithClass(classId);
+		Map<String, Map<Clazz.Role, List<Campaign.Role>>> defaultRoles =
+				getDefaultCampaignRoles(classId);
+		
+		// Gather the campaigns with which each user is associated through 
+		// some class other than this one. Their roles in those campaigns are 
+		// left alone when they leave this class or their role in it changes.
+		Set<String> usernames = new HashSet<String>();
+		if(usersToRemove != null) {
+			usernames.addAll(usersToRemove);
+		}
+		if(userAndRolesToAdd != null) {
+			usernames.addAll(userAndRolesToAdd.keySet());
+		}
+		Map<String, Set<String>> otherClassCampaigns;
+		if(campaignIds.isEmpty()) {
+			otherClassCampaigns = Collections.emptyMap();
+		}
+		else {
+			otherClassCampaigns = 
+					getCampaignsThroughOtherClasses(classId, usernames);
+		}
+		
+		List<Object[]> classDeletes = new ArrayList<Object[]>();
+		List<Object[]> classInserts = new ArrayList<Object[]>();
+		List<Object[]> classUpdates = new ArrayList<Object[]>();
+		List<Clazz.Role> classUpdateOriginalRoles = new ArrayList<Clazz.Role>();
+		List<Object[]> campaignRoleDeletes = new ArrayList<Object[]>();
+		Map<String, Clazz.Role> usersToGrantDefaultRoles = 
+				new HashMap<String, Clazz.Role>();
+		
+		// Delete the users before adding the new ones. This facilitates
+		// upgrading a user from one role to another.
+		if(usersToRemove != null) {
+			for(String username : usersToRemove) {
+				// To prevent a concurrency bug, the user may have already
+				// been deleted from the class which will be indicated by
+				// having a null value for the role. When this happens, we
+				// may continue on with the next user.
+				Clazz.Role classRole = roster.remove(username);
+				if(classRole == null) {
+					continue;
+				}
+				
+				classDeletes.add(new Object[] { username, classId });
+				
+				addDefaultCampaignRoleDeletes(
+						username, 
+						classRole, 
+						campaignIds, 
+						defaultRoles, 
+						otherClassCampaigns, 
+						campaignRoleDeletes);
+			}
+		}
+		
+		// Add the users to the class or update their role.
+		if(userAndRolesToAdd != null) {
+			for(String username : userAndRolesToAdd.keySet()) {
+				Clazz.Role role = userAndRolesToAdd.get(username);
+				Clazz.Role originalRole = roster.get(username);
+				
+				if(originalRole == null) {
+					if(LOGGER.isDebugEnabled()) {
+						LOGGER.debug("The user did not exist in the class so the user is being added before any updates are attemped.");
 					}
 					
-					// To prevent a concurrency bug, the user may have already
-					// been deleted from the class which will be indicated by
-					// having a null value for the role. When this happens, we
-					// may continue on with the next user.
-					if(classRole == null) {
-						continue;
+					classInserts.add(
+							new Object[] { username, classId, role.toString() });
+					usersToGrantDefaultRoles.put(username, role);
+				}
+				else if(! role.equals(originalRole)) {
+					if(LOGGER.isDebugEnabled()) {
+						LOGGER.debug("Changing user's class role from " + originalRole + " to " + role);
 					}
 					
-					// Remove the user from the class.
-					try {
-						getJdbcTemplate().update(SQL_DELETE_USER_FROM_CLASS, new Object[] { username, classId });
-					}
-					catch(org.springframework.dao.DataAccessException e) {
-						transactionManager.rollback(status);
-						throw new DataAccessException("Error while executing SQL '" + SQL_DELETE_USER_FROM_CLASS + "' with parameters: " + 
-								username + ", " + classId, e);
-					}
+					classUpdates.add(
+							new Object[] { role.toString(), username, classId });
+					classUpdateOriginalRoles.add(originalRole);
 					
-					// For all of the campaigns associated with the class, see
-					// if the user is associated with any of them in any other
-					// capacity, and, if not, dissociate them from the 
-					// campaign.
-					for(String campaignId : campaignIds) {
-						// If they are associated with the campaign through 
-						// no classes, then we are going to remove any 
-						// campaign-class associations that may exist.
-						int numClasses;
-						try {
-							numClasses = userCampaignClassQueries.getNumberOfClassesThroughWhichUserIsAssociatedWithCampaign(username, campaignId);
-						}
-						catch(DataAccessException e) {
-							transactionManager.rollback(status);
-							throw e;
-						}
-						
-						if(numClasses == 0) {
-							// Get the default roles which are to be revoked
-							// from the user.
-							List<Campaign.Role> defaultRoles;
-							try {
-								defaultRoles = campaignClassQueries.getDefaultCampaignRolesForCampaignClass(campaignId, classId, classRole);
-							}
-							catch(DataAccessException e) {
-								transactionManager.rollback(status);
-								throw e;
-							}
-							
-							// For each of the default roles, remove that role
-							// from the user.
-							for(Campaign.Role defaultRole : defaultRoles) {
-								try {
-									getJdbcTemplate().update(
-											SQL_DELETE_USER_FROM_CAMPAIGN,
-											new Object[] { username, campaignId, defaultRole.toString() });
-								}
-								catch(org.springframework.dao.DataAccessException e) {
-									transactionManager.rollback(status);
-									throw new DataAccessException("Error executing SQL '" + SQL_DELETE_USER_FROM_CAMPAIGN + "' with parameters: " +
-											username + ", " + campaignId + ", " + defaultRole, e);
-								}
-							}
-						}
-					}
+					// The default roles from their original class role are
+					// revoked before those from their new role are granted.
+					addDefaultCampaignRoleDeletes(
+							username, 
+							originalRole, 
+							campaignIds, 
+							defaultRoles, 
+							otherClassCampaigns, 
+							campaignRoleDeletes);
+					usersToGrantDefaultRoles.put(username, role);
+				}
+				else if(LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Nothing to do because the user's class role is not changing.");
 				}
 			}
+		}
+		
+		batchUpdate(SQL_DELETE_USER_FROM_CLASS, classDeletes);
+		batchUpdate(SQL_DELETE_USER_FROM_CAMPAIGN, campaignRoleDeletes);
+		
+		int[] updateCounts = batchUpdate(SQL_UPDATE_USER_CLASS, classUpdates);
+		for(int i = 0; i < updateCounts.length; i++) {
+			if(updateCounts[i] != 0) {
+				Object[] parameters = classUpdates.get(i);
+				warningMessages.add("The user '" + parameters[1] + 
+						"' was already associated with the class '" + classId + 
+						"'. Their role has been updated from '" + classUpdateOriginalRoles.get(i) +
+						"' to '" + parameters[0] + "'");
+			}
+		}
+		
+		batchUpdate(SQL_INSERT_USER_CLASS, classInserts);
+		
+		// For each of the campaigns associated with the class, add the users
+		// to the campaign with the default roles. The user may already have
+		// some of these roles via another class or directly, so those that
+		// already exist are skipped.
+		if(campaignIds.isEmpty() || usersToGrantDefaultRoles.isEmpty()) {
+			return;
+		}
+		
+		Set<List<String>> existingCampaignRoles = 
+				getCampaignRoles(classId, usersToGrantDefaultRoles.keySet());
+		
+		List<Object[]> campaignRoleInserts = new ArrayList<Object[]>();
+		for(String username : usersToGrantDefaultRoles.keySet()) {
+			Clazz.Role role = usersToGrantDefaultRoles.get(username);
 			
-			// Create the list of warning messages to be returned to the 
-			// caller.
-			List<String> warningMessages = new LinkedList<String>();
-			
-			// Add the users to the class.
-			if(userAndRolesToAdd != null) {
-				
-				for(String username : userAndRolesToAdd.keySet()) {
+			for(String campaignId : campaignIds) {
+				for(Campaign.Role defaultRole : 
+						getDefaultCampaignRoles(defaultRoles, campaignId, role)) {
 					
-					// Get the user's (new) role.
-					Clazz.Role role = userAndRolesToAdd.get(username);
+					List<String> campaignRole = 
+							Arrays.asList(
+									username, 
+									campaignId, 
+									defaultRole.toString());
 					
-					boolean addDefaultRoles = false;
-					
-					try {
-						
-						if(! userClassQueries.userBelongsToClass(classId, username)) {
+					if(existingCampaignRoles.add(campaignRole)) {
+						campaignRoleInserts.add(campaignRole.toArray());
+					}
+				}
+			}
+		}
+		
+		insertUserCampaignRoles(campaignRoleInserts);
+	}
+	
+	/**
+	 * Adds the parameters to delete the default campaign roles a user was
+	 * given by a class role. Roles in campaigns with which the user is also
+	 * associated through some other class are kept.
+	 * 
+	 * @param username The user's username.
+	 * 
+	 * @param classRole The user's class role whose default roles are being
+	 * 					revoked.
+	 * 
+	 * @param campaignIds The campaigns associated with the class.
+	 * 
+	 * @param defaultRoles The class' default roles.
+	 * 
+	 * @param otherClassCampaigns The campaigns with which each user is 
+	 * 							  associated through some other class.
+	 * 
+	 * @param campaignRoleDeletes The list to which the parameters are added.
+	 */
+	private void addDefaultCampaignRoleDeletes(
+			final String username,
+			final Clazz.Role classRole,
+			final List<String> campaignIds,
+			final Map<String, Map<Clazz.Role, List<Campaign.Role>>> defaultRoles,
+			final Map<String, Set<String>> otherClassCampaigns,
+			final List<Object[]> campaignRoleDeletes) {
+		
+		Set<String> otherCampaigns = otherClassCampaigns.get(username);
+		
+		for(String campaignId : campaignIds) {
+			if((otherCampaigns != null) && otherCampaigns.contains(campaignId)) {
+				continue;
+			}
+			
+			for(Campaign.Role defaultRole : 
+					getDefaultCampaignRoles(defaultRoles, campaignId, classRole)) {
+				
+				campaignRoleDeletes.add(
+						new Object[] { 
+							username, 
+							campaignId, 
+							defaultRole.toString() });
+			}
+		}
+	}
+	
+	/**
+	 * Returns the default campaign roles for a class role in a campaign.
+	 * 
+	 * @param defaultRoles The class' default roles.
+	 * 
+	 * @param campaignId The campaign's unique identifier.
+	 * 
+	 * @param classRole The class role.
+	 * 
+	 * @return The default campaign roles, which may be empty.
+	 */
+	private List<Campaign.Role> getDefaultCampaignRoles(
+			final Map<String, Map<Clazz.Role, List<Campaign.Role>>> defaultRoles,
+			final String campaignId,
+			final Clazz.Role classRole) {
+		
+		Map<Clazz.Role, List<Campaign.Role>> campaignDefaultRoles = 
+				defaultRoles.get(campaignId);
+		if(campaignDefaultRoles == null) {
+			return Collections.emptyList();
+		}
+		
+		List<Campaign.Role> result = campaignDefaultRoles.get(classRole);
+		if(result == null) {
+			return Collections.emptyList();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the users in a class and their role in it.
+	 * 
+	 * @param classId The class' unique identifier.
+	 * 
+	 * @return A map of usernames to their role in the class.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	private Map<String, Clazz.Role> getClassRoster(
+			final String classId) 
+			throws DataAccessException {
+		
+		try {
+			return getJdbcTemplate().query(
+					SQL_GET_CLASS_ROSTER, 
+					new Object[] { classId }, 
+					new ResultSetExtractor<Map<String, Clazz.Role>>() {
+						@Override
+						public Map<String, Clazz.Role> extractData(
+								final ResultSet rs)
+								throws SQLException,
+								org.springframework.dao.DataAccessException {
 							
-							if(LOGGER.isDebugEnabled()) {
-								LOGGER.debug("The user did not exist in the class so the user is being added before any updates are attemped.");
-							}
+							Map<String, Clazz.Role> result =
+									new HashMap<String, Clazz.Role>();
 							
-							try {
-								getJdbcTemplate()
-									.update(
-										SQL_INSERT_USER_CLASS,
-										new Object[] { 
-											username, 
-											classId, 
-											role.toString() } 
-										);
-								addDefaultRoles = true;
-							}
-							catch(org.springframework.dao.DuplicateKeyException e) {
-								// The use is already associated with the
-								// class, so this is to mitigate concurrency
-								// issues.
-								addDefaultRoles = false;
+							while(rs.next()) {
+								try {
+									result.put(
+											rs.getString("username"), 
+											Clazz.Role.getValue(
+													rs.getString("role")));
+								}
+								catch(IllegalArgumentException e) {
+									throw new SQLException(
+											"The role is unknown.",
+											e);
+								}
 							}
-						}
-						
-						else  {
 							
-							if(LOGGER.isDebugEnabled()) {
-								LOGGER.debug("The user already has a role in the class so only updates will be performed.");
-							}
+							return result;
+						}
+					});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException("Error executing SQL '" + SQL_GET_CLASS_ROSTER + "' with parameter: " + 
+					classId, e);
+		}
+	}
+	
+	/**
+	 * Returns the default campaign roles for each campaign associated with a
+	 * class and each class role.
+	 * 
+	 * @param classId The class' unique identifier.
+	 * 
+	 * @return A map of campaign IDs to a map of class roles to the campaign
+	 * 		   roles granted to users with that class role.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	private Map<String, Map<Clazz.Role, List<Campaign.Role>>> getDefaultCampaignRoles(
+			final String classId) 
+			throws DataAccessException {
+		
+		try {
+			return getJdbcTemplate().query(
+					SQL_GET_CLASS_DEFAULT_ROLES, 
+					new Object[] { classId }, 
+					new ResultSetExtractor<Map<String, Map<Clazz.Role, List<Campaign.Role>>>>() {
+						@Override
+						public Map<String, Map<Clazz.Role, List<Campaign.Role>>> extractData(
+								final ResultSet rs)
+								throws SQLException,
+								org.springframework.dao.DataAccessException {
 							
-							// Get the user's current role.
-							Clazz.Role originalRole = null;
-							try {
-								originalRole = userClassQueries.getUserClassRole(classId, username);
-							}
-							catch(DataAccessException e) {
-								transactionManager.rollback(status);
-								throw e;
-							}
+							Map<String, Map<Clazz.Role, List<Campaign.Role>>> result =
+									new HashMap<String, Map<Clazz.Role, List<Campaign.Role>>>();
 							
-							// If their new role is the same as their old role, we
-							// will ignore this update.
-							if(! role.equals(originalRole)) {
-								
-								if(LOGGER.isDebugEnabled()) {
-									LOGGER.debug("Changing user's class role from " + originalRole + " to " + role);
-								}
+							while(rs.next()) {
+								String campaignId = rs.getString("urn");
 								
-								// Update their role to the new role.
+								Clazz.Role classRole;
+								Campaign.Role campaignRole;
 								try {
-									if(getJdbcTemplate().update(SQL_UPDATE_USER_CLASS, new Object[] { role.toString(), username, classId }) > 0) {
-										warningMessages.add("The user '" + username + 
-												"' was already associated with the class '" + classId + 
-												"'. Their role has been updated from '" + originalRole +
-												"' to '" + role + "'");
-									}
+									classRole = 
+											Clazz.Role.getValue(
+													rs.getString("class_role"));
+									campaignRole = 
+											Campaign.Role.getValue(
+													rs.getString("campaign_role"));
 								}
-								catch(org.springframework.dao.DataAccessException e) {
-									transactionManager.rollback(status);
-									throw new DataAccessException("Error while executing SQL '" + SQL_UPDATE_USER_CLASS + "' with parameters: " + 
-											role + ", " + username + ", " + classId, e);
+								catch(IllegalArgumentException e) {
+									throw new SQLException(
+											"The role is unknown.",
+											e);
 								}
 								
-								// For each of the campaigns associated with this
-								// class,
-								for(String campaignId : campaignIds) {
-									// If they are only associated with this 
-									// campaign in this class.
-									int numClasses;
-									try {
-										numClasses = userCampaignClassQueries.getNumberOfClassesThroughWhichUserIsAssociatedWithCampaign(username, campaignId);
-									}
-									catch(DataAccessException e) {
-										transactionManager.rollback(status);
-										throw e;
-									}
-									
-									if(numClasses == 1) {
-										
-										if(LOGGER.isDebugEnabled()) {
-											LOGGER.debug("The user only belonged to the campaign " + campaignId + " via one class" +
-												" and their class role is changing so all default campaign roles are being deleted.");
-										}
-										
-										// Remove the current roles with the 
-										// campaign and add a new role with the
-										// campaign.
-										List<Campaign.Role> defaultRoles;
-										try {
-											defaultRoles = campaignClassQueries.getDefaultCampaignRolesForCampaignClass(campaignId, classId, originalRole);
-										}
-										catch(DataAccessException e) {
-											transactionManager.rollback(status);
-											throw e;
-										}
-										
-										for(Campaign.Role defaultRole : defaultRoles) {
-											try {
-												getJdbcTemplate().update(
-														SQL_DELETE_USER_FROM_CAMPAIGN,
-														new Object[] { username, campaignId, defaultRole.toString() });
-											}
-											catch(org.springframework.dao.DataAccessException e) {
-												transactionManager.rollback(status);
-												throw new DataAccessException("Error executing SQL '" + SQL_DELETE_USER_FROM_CAMPAIGN + "' with parameters: " +
-														username + ", " + campaignId + ", " + defaultRole, e);
-											}
-										}
-									}
-									
-									addDefaultRoles = true;
+								Map<Clazz.Role, List<Campaign.Role>> campaignDefaultRoles = 
+										result.get(campaignId);
+								if(campaignDefaultRoles == null) {
+									campaignDefaultRoles = 
+											new HashMap<Clazz.Role, List<Campaign.Role>>();
+									result.put(campaignId, campaignDefaultRoles);
 								}
-							}
-							else {
 								
-								if(LOGGER.isDebugEnabled()) {
-									LOGGER.debug("Nothing to do because the user's class role is not changing.");
+								List<Campaign.Role> roles = 
+										campaignDefaultRoles.get(classRole);
+								if(roles == null) {
+									roles = new LinkedList<Campaign.Role>();
+									campaignDefaultRoles.put(classRole, roles);
 								}
-							}
-						}
-					}
-					catch(org.springframework.dao.DataAccessException e) {
-						transactionManager.rollback(status);
-						throw new DataAccessException("Error while executing SQL '" + SQL_INSERT_USER_CLASS + "' with parameters: " + 
-								username + ", " + classId + ", " + role, e);
-					}
-					catch(DataAccessException e) {
-						transactionManager.rollback(status);
-						throw e;
-					}
-
-					if(addDefaultRoles) {
-						// For each of the campaign's associated with the 
-						// class, add them to the campaign with the default
-						// roles.
-						for(String campaignId : campaignIds) {
-							List<Campaign.Role> defaultRoles;
-							try {
-								defaultRoles = campaignClassQueries.getDefaultCampaignRolesForCampaignClass(campaignId, classId, role);
-							}
-							catch(DataAccessException e) {
-								transactionManager.rollback(status);
-								throw e;
+								roles.add(campaignRole);
 							}
 							
-							for(Campaign.Role defaultRole : defaultRoles) {
-								try {
-									final Object[] params = new Object[] {username, campaignId, defaultRole.toString()};
-									
-									if(LOGGER.isDebugEnabled()) {
-										LOGGER.debug("Assigning the user a default campaign role of " + defaultRole + " in campaign " + campaignId);
-									}
-									
-									// The user may already have the role in
-									// the campaign via another class or the 
-									// user may have not been in any class
-									// at all.
-									if(! userCampaignQueries.getUserCampaignRoles(username, campaignId).contains(defaultRole)) {
-									
-										getJdbcTemplate().update(SQL_INSERT_USER_CAMPAIGN, params);
-									} 
-									else {
-										
-										if(LOGGER.isDebugEnabled()) {
-											LOGGER.debug("User already has this role in the campaign: " + Arrays.asList(params));
-										}			
-									}
-								}
-								catch(org.springframework.dao.DataAccessException e) {
-									transactionManager.rollback(status);
-									throw new DataAccessException("Error executing SQL '" + SQL_INSERT_USER_CAMPAIGN + "' with parameters: " +
-											username + ", " + campaignId + ", " + defaultRole, e);
-								}
-								catch(DataAccessException e) {
-									transactionManager.rollback(status);
-									throw e;
+							return result;
+						}
+					});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException("Error executing SQL '" + SQL_GET_CLASS_DEFAULT_ROLES + "' with parameter: " + 
+					classId, e);
+		}
+	}
+	
+	/**
+	 * Returns the campaigns associated with a class with which each of the 
+	 * users is also associated through some other class.
+	 * 
+	 * @param classId The class' unique identifier.
+	 * 
+	 * @param usernames The users' usernames.
+	 * 
+	 * @return A map of usernames to the campaign IDs. Users that have no 
+	 * 		   such campaigns are not included.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	private Map<String, Set<String>> getCampaignsThroughOtherClasses(
+			final String classId,
+			final Collection<String> usernames)
+			throws DataAccessException {
+		
+		final Map<String, Set<String>> result = 
+				new HashMap<String, Set<String>>();
+		
+		for(List<String> chunk : chunk(usernames)) {
+			String sql = 
+					SQL_GET_CAMPAIGNS_THROUGH_OTHER_CLASSES + 
+					StringUtils.generateStatementPList(chunk.size());
+			
+			List<Object> parameters = new ArrayList<Object>(chunk.size() + 1);
+			parameters.add(classId);
+			parameters.addAll(chunk);
+			
+			try {
+				getJdbcTemplate().query(
+						sql, 
+						parameters.toArray(), 
+						new RowCallbackHandler() {
+							@Override
+							public void processRow(
+									final ResultSet rs)
+									throws SQLException {
+								
+								String username = rs.getString("username");
+								
+								Set<String> campaignIds = result.get(username);
+								if(campaignIds == null) {
+									campaignIds = new HashSet<String>();
+									result.put(username, campaignIds);
 								}
+								campaignIds.add(rs.getString("urn"));
 							}
-						}
-					}
-				}
+						});
+			}
+			catch(org.springframework.dao.DataAccessException e) {
+				throw new DataAccessException("Error executing SQL '" + sql + "' with parameters: " + 
+						parameters, e);
 			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the roles the users have in each of the campaigns associated 
+	 * with a class.
+	 * 
+	 * @param classId The class' unique identifier.
+	 * 
+	 * @param usernames The users' usernames.
+	 * 
+	 * @return A set of username, campaign ID, and campaign role triples.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	private Set<List<String>> getCampaignRoles(
+			final String classId,
+			final Collection<String> usernames)
+			throws DataAccessException {
+		
+		final Set<List<String>> result = new HashSet<List<String>>();
+		
+		for(List<String> chunk : chunk(usernames)) {
+			String sql = 
+					SQL_GET_USER_CAMPAIGN_ROLES_FOR_CLASS + 
+					StringUtils.generateStatementPList(chunk.size());
+			
+			List<Object> parameters = new ArrayList<Object>(chunk.size() + 1);
+			parameters.add(classId);
+			parameters.addAll(chunk);
 			
-			// Commit the transaction.
 			try {
-				transactionManager.commit(status);
+				getJdbcTemplate().query(
+						sql, 
+						parameters.toArray(), 
+						new RowCallbackHandler() {
+							@Override
+							public void processRow(
+									final ResultSet rs)
+									throws SQLException {
+								
+								result.add(
+										Arrays.asList(
+												rs.getString("username"),
+												rs.getString("urn"),
+												rs.getString("role")));
+							}
+						});
 			}
-			catch(TransactionException e) {
-				transactionManager.rollback(status);
-				throw new DataAccessException("Error while committing the transaction.", e);
+			catch(org.springframework.dao.DataAccessException e) {
+				throw new DataAccessException("Error executing SQL '" + sql + "' with parameters: " + 
+						parameters, e);
 			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Grants users roles in campaigns using multi-row inserts.
+	 * 
+	 * @param campaignRoles The username, campaign ID, and campaign role for 
+	 * 						each row.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	private void insertUserCampaignRoles(
+			final List<Object[]> campaignRoles)
+			throws DataAccessException {
+		
+		for(List<Object[]> chunk : chunk(campaignRoles)) {
+			StringBuilder sql = new StringBuilder(SQL_INSERT_USER_CAMPAIGN);
+			List<Object> parameters = new ArrayList<Object>(chunk.size() * 3);
 			
-			return warningMessages;
+			boolean firstPass = true;
+			for(Object[] campaignRole : chunk) {
+				if(firstPass) {
+					firstPass = false;
+				}
+				else {
+					sql.append(", ");
+				}
+				sql.append(SQL_INSERT_USER_CAMPAIGN_ROW);
+				
+				parameters.addAll(Arrays.asList(campaignRole));
+			}
+			
+			try {
+				getJdbcTemplate().update(sql.toString(), parameters.toArray());
+			}
+			catch(org.springframework.dao.DataAccessException e) {
+				throw new DataAccessException("Error executing SQL '" + SQL_INSERT_USER_CAMPAIGN + SQL_INSERT_USER_CAMPAIGN_ROW + 
+						"' for " + chunk.size() + " rows.", e);
+			}
 		}
-		catch(TransactionException e) {
-			throw new DataAccessException("Error while attempting to rollback the transaction.", e);
+	}
+	
+	/**
+	 * Executes a statement once for each set of parameters as a single JDBC
+	 * batch.
+	 * 
+	 * @param sql The statement.
+	 * 
+	 * @param parameters The parameters for each execution.
+	 * 
+	 * @return The number of rows affected by each execution.
+	 * 
+	 * @throws DataAccessException There was an error.
+	 */
+	private int[] batchUpdate(
+			final String sql, 
+			final List<Object[]> parameters)
+			throws DataAccessException {
+		
+		if(parameters.isEmpty()) {
+			return new int[0];
+		}
+		
+		try {
+			return getJdbcTemplate().batchUpdate(sql, parameters);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException("Error executing SQL '" + sql + "' for " + 
+					parameters.size() + " sets of parameters.", e);
+		}
+	}
+	
+	/**
+	 * Splits a collection into lists of at most {@link #MAX_BATCH_SIZE}
+	 * elements.
+	 * 
+	 * @param elements The elements to split.
+	 * 
+	 * @return The lists of elements.
+	 */
+	private static <T> List<List<T>> chunk(final Collection<T> elements) {
+		List<List<T>> result = new LinkedList<List<T>>();
+		
+		List<T> current = null;
+		for(T element : elements) {
+			if((current == null) || (current.size() == MAX_BATCH_SIZE)) {
+				current = new ArrayList<T>(MAX_BATCH_SIZE);
+				result.add(current);
+			}
+			current.add(element);
 		}
+		
+		return result;
 	}
 	
 	/* (non-Javadoc)
@@ -1174,6 +1572,17 @@ public class ClassQueries extends Query implements IClassQueries {
 			PlatformTransactionManager transactionManager = new DataSourceTransactionManager(getDataSource());
 			TransactionStatus status = transactionManager.getTransaction(def);
 			
+			// The class's documents are no longer visible through it.
+			try {
+				DocumentVisibilityIndex.invalidateClasses(
+						getJdbcTemplate(), 
+						Collections.singleton(classId));
+			}
+			catch(DataAccessException e) {
+				transactionManager.rollback(status);
+				throw e;
+			}
+			
 			// detach users from campaigns associated with this class
 			try {
 				detachUsersFromClassCampaigns(classId);
@@ -1200,6 +1609,8 @@ public class ClassQueries extends Query implements IClassQueries {
 				transactionManager.rollback(status);
 				throw new DataAccessException("Error while committing the transaction.", e);
 			}
+
+			AuthorizationCache.invalidateClass(classId);
 		}
 		catch(TransactionException e) {
 			throw new DataAccessException("Error while attempting to rollback the transaction.", e);
@@ -18,13 +18,11 @@ package org.ohmage.query.impl;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FilenameFilter;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,18 +31,14 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Pattern;
 
 import javax.sql.DataSource;
 
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
+import org.ohmage.cache.MediaDirectoryCache;
 import org.ohmage.cache.PreferenceCache;
-import org.ohmage.domain.Clazz;
 import org.ohmage.domain.Document;
-import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.exception.CacheMissException;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
@@ -281,32 +275,8 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 			"WHERE username = ?" +
 		")";
 	
-	private static final String DOCUMENT_DIRECTORY_PATTERN_STRING = "[0-9]+";
-	private static final Pattern DOCUMENT_DIRECTORY_PATTERN = Pattern.compile(DOCUMENT_DIRECTORY_PATTERN_STRING);
-
-	private static final Lock DIRECTORY_CREATION_LOCK = new ReentrantLock();
-	
 	private static final int MAX_EXTENSION_LENGTH = 12;
 	
-	/**
-	 * Filters the subdirectories in a directory to only return those that
-	 * match the regular expression matcher for directories.
-	 * 
-	 * @author Joshua Selsky
-	 */
-	private static final class DirectoryFilter implements FilenameFilter {
-		/**
-		 * Returns true iff the filename is appropriate for the regular
-		 * expression.
-		 */
-		public boolean accept(File f, String name) {
-			return DOCUMENT_DIRECTORY_PATTERN.matcher(name).matches();
-		}
-	}
-	
-	// The current directory to which the next document should be saved.
-	private static File currLeafDirectory;
-	
 	/**
 	 * Creates this object.
 	 * 
@@ -324,12 +294,20 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 		throws DataAccessException {
 		
 		// Create a new, random UUID to use to save this file.
-		String uuid = UUID.randomUUID().toString();
+		UUID id = UUID.randomUUID();
+		String uuid = id.toString();
 		
-		// getDirectory() is used as opposed to accessing the current leaf
-		// directory class variable as it will do sanitation in case it hasn't
-		// been initialized or is full.
-		File documentDirectory = getDirectory();
+		// The directory is derived from the UUID, so it never needs to be
+		// searched for.
+		File documentDirectory;
+		try {
+			documentDirectory = MediaDirectoryCache.getDocumentDirectory(id);
+		}
+		catch(DomainException e) {
+			throw new DataAccessException(
+				"Could not get the document directory.",
+				e);
+		}
 		File newFile = new File(documentDirectory.getAbsolutePath() + "/" + uuid);
 		String url = "file://" + newFile.getAbsolutePath();
 		
@@ -480,6 +458,33 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 				}
 			}
 			
+			// The document is visible to its owner and to the members of 
+			// its classes and campaigns.
+			try {
+				DocumentVisibilityIndex.invalidateUsers(
+						getJdbcTemplate(), 
+						Collections.singleton(creatorUsername));
+				if(campaignRoleMap != null) {
+					DocumentVisibilityIndex.invalidateCampaigns(
+							getJdbcTemplate(), 
+							campaignRoleMap.keySet());
+				}
+				if(classRoleMap != null) {
+					DocumentVisibilityIndex.invalidateClasses(
+							getJdbcTemplate(), 
+							classRoleMap.keySet());
+				}
+			}
+			catch(DataAccessException e) {
+				if(newFile.delete()) {
+					LOGGER.warn(
+						"Could not delete the file that was just created: " +
+							newFile.toString());
+				}
+				transactionManager.rollback(status);
+				throw e;
+			}
+			
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
@@ -548,6 +553,10 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 			final DateTime endDate) 
 			throws DataAccessException {
 		
+		// The statement reads the user's visible documents, so they must be
+		// current.
+		DocumentVisibilityIndex.refresh(getJdbcTemplate(), username);
+		
 		StringBuilder sql = 
 			new StringBuilder(
 				"SELECT d.id " +
@@ -574,29 +583,16 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 			// If campaignIds and classIds are null, get all of the documents
 			// visible to the user.
 			if((campaignIds == null) && (classIds == null)) {
+				// These are the documents associated with the user directly
+				// or through any of their classes or campaigns.
 				sql.append(
 					"(" +
 						"u.admin = true" +
 					") OR (" +
 						"d.id IN (" +
-							"SELECT dur.document_id " +
-							"FROM document_user_role dur " +
-							"WHERE u.id = dur.user_id" +
-						")" +
-					") OR (" +
-						"d.id IN (" +
-							"SELECT dcr.document_id " +
-							"FROM user_role_campaign urc, " +
-								"document_campaign_role dcr " +
-							"WHERE u.id = urc.user_id " +
-							"AND urc.campaign_id = dcr.campaign_id" +
-						")" +
-					") OR (" +
-						"d.id IN (" +
-							"SELECT dcr.document_id " +
-							"FROM user_class uc, document_class_role dcr " +
-							"WHERE u.id = uc.user_id " +
-							"AND uc.class_id = dcr.class_id" +
+							"SELECT udv.document_id " +
+							"FROM user_document_visibility udv " +
+							"WHERE u.id = udv.user_id" +
 						")" +
 					")"
 				);
@@ -702,9 +698,7 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 		
 		
 		// Now, we will tack on the ACL's to limit the results to only those
-		// that are visible to the requesting user. The whole work flow of this
-		// function is bad and should be optimized. But, we have a deadline and
-		// the performance isn't bad.
+		// that are visible to the requesting user.
 		sql.append(
 				" AND (" +
 					// The user is an admin.
@@ -716,75 +710,16 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 						"'" +
 					")" +
 					// If the document is not public then it must be private,
-					// so the user must have the role of owner and/or writer. 
-					" OR (" +
-						"EXISTS (" +
-							"SELECT dr.id " +
-							"FROM document_role dr " +
-							"WHERE dr.role IN (" +
-						//		"'" + Document.Role.WRITER.toString() + "', " +
-								"'" + Document.Role.OWNER.toString() + "'" +
-							")" +
-							"AND (" +
-								// See if the user is directly related to the 
-								// document with the specified roles.
-								"EXISTS (" +
-									"SELECT dur.id " +
-									"FROM document_user_role dur " +
-									"WHERE d.id = dur.document_id " +
-									"AND u.id = dur.user_id " +
-									"AND dr.id = dur.document_role_id" +
-								")" +
-								// See if the user is related to the document
-								// through a class.
-								" OR EXISTS (" +
-									"SELECT dcr.id " +
-									"FROM document_class_role dcr, " +
-										"user_class uc, user_class_role ucr " +
-									"WHERE d.id = dcr.document_id " +
-									"AND u.id = uc.user_id " +
-									"AND uc.class_id = dcr.class_id " +
-									// The class has the appropriate role or
-									// the user is privileged in that class.
-									"AND (" +	
-										"(dr.id = dcr.document_role_id)" +
-										" OR " +
-										"(" +
-											"uc.user_class_role_id = ucr.id" +
-											" AND " +
-											"ucr.role = '" +
-												Clazz.Role.PRIVILEGED.toString() +
-												"'" +
-										")" +
-									")" +
-								")" +
-								// See if the user is related to the document
-								// through a campaign.
-								" OR EXISTS (" +
-									"SELECT dcr.id " +
-									"FROM document_campaign_role dcr, " +
-										"user_role ur, " +
-										"user_role_campaign urc " +
-									"WHERE d.id = dcr.document_id " +
-									"AND u.id = urc.user_id " +
-									"AND urc.campaign_id = dcr.campaign_id " +
-									// The campaign has the appropriate role or
-									// the user is a supervisor in that 
-									//campaign.
-									"AND (" +
-										"(dr.id = dcr.document_role_id)" +
-										" OR " +
-										"(" +
-											"urc.user_role_id = ur.id" +
-											" AND " +
-											"ur.role = '" +
-												Campaign.Role.SUPERVISOR.toString() +
-												"'" +
-										")" +
-									")" +
-								")" +
-							")" +
-						")" +
+					// so the user must be an owner of it directly, through a
+					// class or campaign that owns it, or by being privileged
+					// in a class or a supervisor in a campaign that is 
+					// associated with it.
+					" OR EXISTS (" +
+						"SELECT udv.document_id " +
+						"FROM user_document_visibility udv " +
+						"WHERE u.id = udv.user_id " +
+						"AND d.id = udv.document_id " +
+						"AND udv.owner = true" +
 					")" +
 				")");
 		
@@ -896,6 +831,33 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 				updateEntityRoleList(documentId, userAndRolesToAdd, usersToRemove,
 						SQL_INSERT_USER_ROLE, SQL_UPDATE_USER_ROLE, SQL_DELETE_USER_ROLE);
 				
+				// The documents visible to the users, classes, and campaigns
+				// whose roles changed must be recomputed.
+				if(campaignAndRolesToAdd != null) {
+					DocumentVisibilityIndex.invalidateCampaigns(
+							getJdbcTemplate(), 
+							campaignAndRolesToAdd.keySet());
+				}
+				DocumentVisibilityIndex.invalidateCampaigns(
+						getJdbcTemplate(), 
+						campaignsToRemove);
+				if(classAndRolesToAdd != null) {
+					DocumentVisibilityIndex.invalidateClasses(
+							getJdbcTemplate(), 
+							classAndRolesToAdd.keySet());
+				}
+				DocumentVisibilityIndex.invalidateClasses(
+						getJdbcTemplate(), 
+						classesToRemove);
+				if(userAndRolesToAdd != null) {
+					DocumentVisibilityIndex.invalidateUsers(
+							getJdbcTemplate(), 
+							userAndRolesToAdd.keySet());
+				}
+				DocumentVisibilityIndex.invalidateUsers(
+						getJdbcTemplate(), 
+						usersToRemove);
+				
 				// Update the contents last, so if there are any problems with
 				// the other actions, then we fail before we write to the 
 				// system.
@@ -914,6 +876,10 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 				transactionManager.rollback(status);
 				throw e;
 			}
+			catch(DataAccessException e) {
+				transactionManager.rollback(status);
+				throw e;
+			}
 			
 			// Commit transaction.
 			try {
@@ -977,6 +943,32 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 		}
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IDocumentQueries#migrateDocumentStorage()
+	 */
+	@Override
+	public long migrateDocumentStorage() throws DataAccessException {
+		File rootDirectory;
+		try {
+			rootDirectory = 
+				MediaDirectoryCache.getRootDirectory(
+					PreferenceCache.KEY_DOCUMENT_DIRECTORY);
+		}
+		catch(DomainException e) {
+			throw new DataAccessException(
+				"Could not get the document directory.",
+				e);
+		}
+		
+		return
+			StorageMigration.migrate(
+				getJdbcTemplate(),
+				"document",
+				"last_modified_timestamp",
+				Collections.singletonList(rootDirectory));
+	}
+	
 	/**
 	 * Updates the name associated with the document or does nothing if the
 	 * name is null. Also, updates the extension for the file.
@@ -1205,328 +1197,4 @@ public class DocumentQueries extends Query implements IDocumentQueries {
 		
 		return extension;
 	}
-	
-	/**
-	 * Gets the directory to which a new file should be saved. This should be
-	 * used instead of accessing the class-level variable directly as it
-	 * handles the creation of new folders and the checking that the current
-	 * folder is not full.
-	 * 
-	 * @return A File object for where a document should be written.
-	 */
-	private File getDirectory() throws DataAccessException {
-		// Get the maximum number of items in a directory.
-		int numFilesPerDirectory;
-		try {
-			numFilesPerDirectory = Integer.decode(PreferenceCache.instance().lookup(PreferenceCache.KEY_MAXIMUM_NUMBER_OF_FILES_PER_DIRECTORY));
-		}
-		catch(CacheMissException e) {
-			throw new DataAccessException("Preference cache doesn't know about 'known' key: " + PreferenceCache.KEY_MAXIMUM_NUMBER_OF_FILES_PER_DIRECTORY, e);
-		}
-		catch(NumberFormatException e) {
-			throw new DataAccessException("Stored value for key '" + PreferenceCache.KEY_MAXIMUM_NUMBER_OF_FILES_PER_DIRECTORY + "' is not decodable as a number.", e);
-		}
-		
-		// If the leaf directory was never initialized, then we should do
-		// that. Note that the initialization is dumb in that it will get to
-		// the end of the structure and not check to see if the leaf node is
-		// full.
-		if(currLeafDirectory == null) {
-			init(numFilesPerDirectory);
-		}
-		
-		File[] documents = currLeafDirectory.listFiles();
-		// If the _currLeafDirectory directory is full, traverse the tree and
-		// find a new directory.
-		if(documents.length >= numFilesPerDirectory) {
-			getNewDirectory(numFilesPerDirectory);
-		}
-		
-		return currLeafDirectory;
-	}
-	
-	/**
-	 * Initializes the directory structure by drilling down to the leaf
-	 * directory with each step choosing the directory with the largest
-	 * integer value.
-	 */
-	private void init(int numFilesPerDirectory) throws DataAccessException {
-		// Get the lock.
-		DIRECTORY_CREATION_LOCK.lock();
-		
-		try {
-			// If the current leaf directory has been set, we weren't the
-			// first to call init(), so we can just unlock the lock and back
-			// out.
-			if(currLeafDirectory != null) {
-				return;
-			}
-			
-			// Get the root directory from the preference cache based on the
-			// key.
-			String rootFile;
-			try {
-				rootFile = PreferenceCache.instance().lookup(PreferenceCache.KEY_DOCUMENT_DIRECTORY);
-			}
-			catch(CacheMissException e) {
-				throw new DataAccessException("Preference cache doesn't know about 'known' key: " + PreferenceCache.KEY_DOCUMENT_DIRECTORY, e);
-			}
-			File rootDirectory = new File(rootFile);
-			if(! rootDirectory.exists()) {
-				throw new DataAccessException("The root file doesn't exist suggesting an incomplete installation: " + rootFile);
-			}
-			else if(! rootDirectory.isDirectory()) {
-				throw new DataAccessException("The root file isn't a directory.");
-			}
-			
-			// Get the number of folders deep that documents are stored.
-			int fileDepth;
-			try {
-				fileDepth = Integer.decode(PreferenceCache.instance().lookup(PreferenceCache.KEY_FILE_HIERARCHY_DEPTH));
-			}
-			catch(CacheMissException e) {
-				throw new DataAccessException("Preference cache doesn't know about 'known' key: " + PreferenceCache.KEY_FILE_HIERARCHY_DEPTH, e);
-			}
-			catch(NumberFormatException e) {
-				throw new DataAccessException("Stored value for key '" + PreferenceCache.KEY_FILE_HIERARCHY_DEPTH + "' is not decodable as a number.", e);
-			}
-			
-			DirectoryFilter directoryFilter = new DirectoryFilter();
-			File currDirectory = rootDirectory;
-			for(int currDepth = 0; currDepth < fileDepth; currDepth++) {
-				// Get the list of directories in the current directory.
-				File[] currDirectories = currDirectory.listFiles(directoryFilter);
-				
-				// If there aren't any, create the first subdirectory in this
-				// directory.
-				if(currDirectories.length == 0) {
-					String newFolderName = directoryNameBuilder(0, numFilesPerDirectory);
-					currDirectory = new File(currDirectory.getAbsolutePath() + "/" + newFolderName);
-					currDirectory.mkdir();
-				}
-				// If the directory is overly full, step back up in the
-				// structure. This should never happen, as it indicates that
-				// there is an overflow in the structure.
-				else if(currDirectories.length > numFilesPerDirectory) {
-					LOGGER.warn("Too many subdirectories in: " + currDirectory.getAbsolutePath());
-					
-					// Take a step back in our depth.
-					currDepth--;
-					
-					// If, while backing up the tree, we back out of the root
-					// directory, we have filled up the space.
-					if(currDepth < 0) {
-						throw new DataAccessException("Document structure full!");
-					}
-
-					// Get the next parent and the current directory to it.
-					int nextDirectoryNumber = Integer.decode(currDirectory.getName()) + 1;
-					currDirectory = new File(currDirectory.getParent() + "/" + nextDirectoryNumber);
-					
-					// If the directory already exists, then there is either a
-					// concurrency issue or someone else is adding files.
-					// Either way, this shouldn't happen.
-					if(currDirectory.exists()) {
-						LOGGER.error("Somehow the 'new' directory already exists. This should be looked into: " + currDirectory.getAbsolutePath());
-					}
-					// Otherwise, create the directory.
-					else {
-						currDirectory.mkdir();
-					}
-				}
-				// Drill down to the directory with the largest, numeric value.
-				else {
-					currDirectory = getLargestSubfolder(currDirectories);
-				}
-			}
-			
-			// After we have found a suitable directory, set it.
-			currLeafDirectory = currDirectory;
-		}
-		catch(SecurityException e) {
-			throw new DataAccessException("The current process doesn't have sufficient permiossions to create new directories.", e);
-		}
-		finally {
-			// No matter what happens, unlock the lock.
-			DIRECTORY_CREATION_LOCK.unlock();
-		}
-	}
-	
-	/**
-	 * Locks the creation lock and checks again that the current leaf
-	 * directory is full. If it is not, then it will just back out under the
-	 * impression someone else made the change. If it is, it will go up and
-	 * down the directory tree structure to find a new leaf node in which to
-	 * store new files.
-	 * 
-	 * @param numFilesPerDirectory The maximum allowed number of files in a
-	 * 							   leaf directory and the maximum allowed
-	 * 							   number of directories in the branches.
-	 */
-	private void getNewDirectory(int numFilesPerDirectory) throws DataAccessException {
-		// Get the lock.
-		DIRECTORY_CREATION_LOCK.lock();
-		
-		try {
-			// Make sure that this hasn't changed because another thread may
-			// have preempted us and already changed the current leaf
-			// directory.
-			File[] files = currLeafDirectory.listFiles();
-			if(files.length < numFilesPerDirectory) {
-				return;
-			}
-			
-			// Get the root directory from the preference cache based on the
-			// key.
-			String rootFile;
-			try {
-				rootFile = PreferenceCache.instance().lookup(PreferenceCache.KEY_DOCUMENT_DIRECTORY);
-			}
-			catch(CacheMissException e) {
-				throw new DataAccessException("Preference cache doesn't know about 'known' key: " + PreferenceCache.KEY_DOCUMENT_DIRECTORY, e);
-			}
-			File rootDirectory = new File(rootFile);
-			if(! rootDirectory.exists()) {
-				throw new DataAccessException("The root file doesn't exist suggesting an incomplete installation: " + rootFile);
-			}
-			else if(! rootDirectory.isDirectory()) {
-				throw new DataAccessException("The root file isn't a directory.");
-			}
-			String absoluteRootDirectory = rootDirectory.getAbsolutePath();
-			
-			// A filter when listing a set of directories for a file.
-			DirectoryFilter directoryFilter = new DirectoryFilter();
-			
-			// A local File to use while we are searching to not confuse other
-			// threads.
-			File newDirectory = currLeafDirectory;
-			
-			// A flag to indicate when we are done looking for a directory.
-			boolean lookingForDirectory = true;
-			
-			// The number of times we stepped up in the hierarchy.
-			int depth = 0;
-			
-			// While we are still looking for a suitable directory,
-			while(lookingForDirectory) {
-				// Get the current directory's name which should be a Long
-				// Valvalueue.
-				long currDirectoryName;
-				try {
-					String dirName = newDirectory.getName();
-					while(dirName.startsWith("0")) {
-						dirName = dirName.substring(1);
-					}
-					if("".equals(dirName)) {
-						currDirectoryName = 0;
-					}
-					else {
-						currDirectoryName = Long.decode(dirName);
-					}
-				}
-				catch(NumberFormatException e) {
-					if(newDirectory.getAbsolutePath().equals(absoluteRootDirectory)) {
-						throw new DataAccessException("Document structure full!", e);
-					}
-					else {
-						throw new DataAccessException("Potential breach of document structure.", e);
-					}
-				}
-				
-				// Move the pointer up a directory.
-				newDirectory = new File(newDirectory.getParent());
-				// Get the list of files in the parent.
-				File[] parentDirectoryFiles = newDirectory.listFiles(directoryFilter);
-				
-				// If this directory has room for a new subdirectory,
-				if(parentDirectoryFiles.length < numFilesPerDirectory) {
-					// Increment the name for the next subfolder.
-					currDirectoryName++;
-					
-					// Create the new subfolder.
-					newDirectory = new File(newDirectory.getAbsolutePath() + "/" + directoryNameBuilder(currDirectoryName, numFilesPerDirectory));
-					newDirectory.mkdir();
-					
-					// Continue drilling down to reach an appropriate leaf
-					// node.
-					while(depth > 0) {
-						newDirectory = new File(newDirectory.getAbsolutePath() + "/" + directoryNameBuilder(0, numFilesPerDirectory));
-						newDirectory.mkdir();
-						
-						depth--;
-					}
-					
-					lookingForDirectory = false;
-				}
-				// If the parent is full as well, increment the depth unless
-				// we are already at the parent. If we are at the parent, then
-				// we cannot go up any further and have exhausted the
-				// directory structure.
-				else
-				{
-					if(newDirectory.getAbsoluteFile().equals(absoluteRootDirectory)) {
-						throw new DataAccessException("Document structure full!");
-					}
-					else {
-						depth++;
-					}
-				}
-			}
-			
-			currLeafDirectory = newDirectory;
-		}
-		catch(NumberFormatException e) {
-			throw new DataAccessException("Could not decode a directory name as an integer.", e);
-		}
-		finally {
-			DIRECTORY_CREATION_LOCK.unlock();
-		}
-	}
-	
-	/**
-	 * Builds the name of a folder by prepending zeroes where necessary and
-	 * converting the name into a String.
-	 * 
-	 * @param name The name of the file as an integer.
-	 * 
-	 * @param numFilesPerDirectory The maximum number of files allowed in the
-	 * 							   directory used to determine how many zeroes
-	 * 							   to prepend.
-	 * 
-	 * @return A String representing the directory name based on the
-	 * 		   parameters.
-	 */
-	private String directoryNameBuilder(long name, int numFilesPerDirectory) {
-		int nameLength = String.valueOf(name).length();
-		int maxLength = new Double(Math.log10(numFilesPerDirectory)).intValue();
-		int numberOfZeros = maxLength - nameLength;
-		
-		StringBuilder builder = new StringBuilder();
-		for(int i = 0; i < numberOfZeros; i++) {
-			builder.append("0");
-		}
-		builder.append(String.valueOf(name));
-		
-		return builder.toString();
-	}
-	
-	/**
-	 * Sorts the directories and returns the one whose alphanumeric value is
-	 * the greatest.
-	 * 
-	 * This will work with any naming for directories, so it is the caller's
-	 * responsibility to ensure that the list of directories are what they
-	 * want them to be.
-	 *  
-	 * @param directories The list of directories whose largest alphanumeric
-	 * 					  value is desired.
-	 * 
-	 * @return Returns the File whose path and name has the largest
-	 * 		   alphanumeric value.
-	 */
-	private File getLargestSubfolder(File[] directories) {
-		Arrays.sort(directories);
-		
-		return directories[directories.length - 1];
-	}
 }
\ No newline at end of file
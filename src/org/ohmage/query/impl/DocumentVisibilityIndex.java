@@ -0,0 +1,490 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.ohmage.domain.Clazz;
+import org.ohmage.domain.Document;
+import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.exception.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * <p>
+ * Maintains the user_document_visibility table, which lists, for each user,
+ * the documents with which they are associated directly, through a class, or
+ * through a campaign, and whether any of those associations makes them an
+ * owner of the document. These are the parts of a document's ACL that
+ * depend on the user's memberships, so document/read can look them up
+ * instead of re-deriving them from every class and campaign the user is in.
+ * </p>
+ * 
+ * <p>
+ * Every change to a user's class or campaign roles, or to the roles of a
+ * document with which they are associated, increments the user's generation
+ * in the same transaction. The user's rows are recomputed the next time 
+ * they are needed after their generation has moved past the one from which
+ * they were computed. Deleting a user or a document removes their rows 
+ * through the foreign keys.
+ * </p>
+ */
+final class DocumentVisibilityIndex {
+	private static final String SQL_INCREMENT_GENERATION =
+		"INSERT INTO user_document_visibility_generation " +
+			"(user_id, generation) ";
+	
+	private static final String SQL_ON_DUPLICATE_INCREMENT =
+		" ON DUPLICATE KEY UPDATE generation = generation + 1";
+	
+	private static final String SQL_INCREMENT_USER_GENERATION =
+		SQL_INCREMENT_GENERATION +
+		"SELECT id, 1 " +
+		"FROM user " +
+		"WHERE username = ?" +
+		SQL_ON_DUPLICATE_INCREMENT;
+	
+	private static final String SQL_INCREMENT_CLASS_GENERATIONS =
+		SQL_INCREMENT_GENERATION +
+		"SELECT uc.user_id, 1 " +
+		"FROM class c, user_class uc " +
+		"WHERE c.urn = ? " +
+		"AND c.id = uc.class_id" +
+		SQL_ON_DUPLICATE_INCREMENT;
+	
+	private static final String SQL_INCREMENT_CAMPAIGN_GENERATIONS =
+		SQL_INCREMENT_GENERATION +
+		"SELECT DISTINCT urc.user_id, 1 " +
+		"FROM campaign c, user_role_campaign urc " +
+		"WHERE c.urn = ? " +
+		"AND c.id = urc.campaign_id" +
+		SQL_ON_DUPLICATE_INCREMENT;
+	
+	private static final String SQL_GET_USER_STATE =
+		"SELECT u.id, u.admin, udvg.generation, udvg.computed_generation " +
+		"FROM user u " +
+			"LEFT JOIN user_document_visibility_generation udvg " +
+				"ON u.id = udvg.user_id " +
+		"WHERE u.username = ?";
+	
+	private static final String SQL_INSERT_USER_GENERATION =
+		"INSERT IGNORE INTO user_document_visibility_generation " +
+			"(user_id, generation) " +
+		"VALUES (?, 0)";
+	
+	private static final String SQL_LOCK_USER_GENERATION =
+		"SELECT generation, computed_generation " +
+		"FROM user_document_visibility_generation " +
+		"WHERE user_id = ? " +
+		"FOR UPDATE";
+	
+	private static final String SQL_UPDATE_COMPUTED_GENERATION =
+		"UPDATE user_document_visibility_generation " +
+		"SET computed_generation = ? " +
+		"WHERE user_id = ?";
+	
+	private static final String SQL_DELETE_USER_DOCUMENTS =
+		"DELETE FROM user_document_visibility " +
+		"WHERE user_id = ?";
+	
+	// A user owns a document if they are an owner of it directly, if they
+	// are in a class or campaign that owns it, or if they are privileged in
+	// a class or a supervisor in a campaign that is associated with it.
+	private static final String SQL_INSERT_USER_DOCUMENTS =
+		"INSERT INTO user_document_visibility " +
+			"(user_id, document_id, owner) " +
+		"SELECT ?, v.document_id, MAX(v.owner) " +
+		"FROM (" +
+			"SELECT dur.document_id, " +
+				"(dr.role = '" + Document.Role.OWNER.toString() + "') " +
+					"AS owner " +
+			"FROM document_user_role dur, document_role dr " +
+			"WHERE dur.user_id = ? " +
+			"AND dur.document_role_id = dr.id " +
+			"UNION ALL " +
+			"SELECT dcr.document_id, " +
+				"(" +
+					"(dr.role = '" + Document.Role.OWNER.toString() + "')" +
+					" OR " +
+					"(ucr.role = '" + Clazz.Role.PRIVILEGED.toString() + "')" +
+				") AS owner " +
+			"FROM user_class uc, user_class_role ucr, " +
+				"document_class_role dcr, document_role dr " +
+			"WHERE uc.user_id = ? " +
+			"AND uc.user_class_role_id = ucr.id " +
+			"AND uc.class_id = dcr.class_id " +
+			"AND dcr.document_role_id = dr.id " +
+			"UNION ALL " +
+			"SELECT dcr.document_id, " +
+				"(" +
+					"(dr.role = '" + Document.Role.OWNER.toString() + "')" +
+					" OR " +
+					"(ur.role = '" +
+						Campaign.Role.SUPERVISOR.toString() + "')" +
+				") AS owner " +
+			"FROM user_role_campaign urc, user_role ur, " +
+				"document_campaign_role dcr, document_role dr " +
+			"WHERE urc.user_id = ? " +
+			"AND urc.user_role_id = ur.id " +
+			"AND urc.campaign_id = dcr.campaign_id " +
+			"AND dcr.document_role_id = dr.id" +
+		") v " +
+		"GROUP BY v.document_id";
+	
+	/**
+	 * A user's generation and the generation from which their visible 
+	 * documents were computed.
+	 */
+	private static final class Generations {
+		private final long generation;
+		private final Long computedGeneration;
+		
+		private Generations(
+				final long generation, 
+				final Long computedGeneration) {
+			
+			this.generation = generation;
+			this.computedGeneration = computedGeneration;
+		}
+		
+		/**
+		 * Returns whether the user's visible documents are current.
+		 * 
+		 * @return Whether the visible documents were computed from the 
+		 * 		   current generation.
+		 */
+		private boolean isCurrent() {
+			return 
+				(computedGeneration != null) && 
+				(computedGeneration == generation);
+		}
+	}
+	
+	/**
+	 * Maps a user's generations, where a missing row has never been 
+	 * computed.
+	 */
+	private static final RowMapper<Generations> GENERATIONS_MAPPER =
+		new RowMapper<Generations>() {
+			@Override
+			public Generations mapRow(
+					final ResultSet rs, 
+					final int rowNum)
+					throws SQLException {
+				
+				long generation = rs.getLong("generation");
+				
+				Long computedGeneration = rs.getLong("computed_generation");
+				if(rs.wasNull()) {
+					computedGeneration = null;
+				}
+				
+				return new Generations(generation, computedGeneration);
+			}
+		};
+	
+	/**
+	 * Default constructor. Private so that it cannot be instantiated.
+	 */
+	private DocumentVisibilityIndex() {}
+	
+	/**
+	 * Marks the visible documents of some users as out of date. This must be
+	 * called in any transaction that changes their class or campaign roles
+	 * or their roles in a document.
+	 * 
+	 * @param jdbcTemplate The template to use, which should be part of the
+	 * 					   transaction that made the change.
+	 * 
+	 * @param usernames The users' usernames. This may be null.
+	 * 
+	 * @throws DataAccessException There was an error updating the 
+	 * 							   generations.
+	 */
+	public static void invalidateUsers(
+			final JdbcTemplate jdbcTemplate,
+			final Collection<String> usernames)
+			throws DataAccessException {
+		
+		invalidate(jdbcTemplate, SQL_INCREMENT_USER_GENERATION, usernames);
+	}
+	
+	/**
+	 * Marks the visible documents of every member of some classes as out of
+	 * date. This must be called in any transaction that changes the roles of
+	 * a document in the classes or that deletes them. A class that is being
+	 * deleted must be invalidated before its roster is.
+	 * 
+	 * @param jdbcTemplate The template to use, which should be part of the
+	 * 					   transaction that made the change.
+	 * 
+	 * @param classIds The classes' unique identifiers. This may be null.
+	 * 
+	 * @throws DataAccessException There was an error updating the 
+	 * 							   generations.
+	 */
+	public static void invalidateClasses(
+			final JdbcTemplate jdbcTemplate,
+			final Collection<String> classIds)
+			throws DataAccessException {
+		
+		invalidate(jdbcTemplate, SQL_INCREMENT_CLASS_GENERATIONS, classIds);
+	}
+	
+	/**
+	 * Marks the visible documents of every member of some campaigns as out 
+	 * of date. This must be called in any transaction that changes the roles
+	 * of a document in the campaigns or that deletes them. A campaign that
+	 * is being deleted must be invalidated before its roster is.
+	 * 
+	 * @param jdbcTemplate The template to use, which should be part of the
+	 * 					   transaction that made the change.
+	 * 
+	 * @param campaignIds The campaigns' unique identifiers. This may be 
+	 * 					  null.
+	 * 
+	 * @throws DataAccessException There was an error updating the 
+	 * 							   generations.
+	 */
+	public static void invalidateCampaigns(
+			final JdbcTemplate jdbcTemplate,
+			final Collection<String> campaignIds)
+			throws DataAccessException {
+		
+		invalidate(
+			jdbcTemplate, 
+			SQL_INCREMENT_CAMPAIGN_GENERATIONS, 
+			campaignIds);
+	}
+	
+	/**
+	 * Recomputes a user's visible documents if they are out of date. Admins
+	 * can see every document, so their rows are never used and never 
+	 * computed.
+	 * 
+	 * @param jdbcTemplate The template to use.
+	 * 
+	 * @param username The user's username.
+	 * 
+	 * @throws DataAccessException There was an error reading or updating the
+	 * 							   user's visible documents.
+	 */
+	public static void refresh(
+			final JdbcTemplate jdbcTemplate,
+			final String username)
+			throws DataAccessException {
+		
+		// This is the user's ID if their visible documents must be 
+		// recomputed. An unknown user can see nothing either way.
+		List<Long> userIds;
+		try {
+			userIds =
+				jdbcTemplate.query(
+					SQL_GET_USER_STATE,
+					new Object[] { username },
+					new RowMapper<Long>() {
+						@Override
+						public Long mapRow(
+								final ResultSet rs,
+								final int rowNum)
+								throws SQLException {
+							
+							if(rs.getBoolean("admin") || 
+								GENERATIONS_MAPPER.mapRow(rs, rowNum)
+									.isCurrent()) {
+								
+								return null;
+							}
+							
+							return rs.getLong("id");
+						}
+					});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + SQL_GET_USER_STATE +
+						"' with parameter: " + username,
+					e);
+		}
+		if(userIds.isEmpty() || (userIds.get(0) == null)) {
+			return;
+		}
+		long userId = userIds.get(0);
+		
+		DataSourceTransactionManager transactionManager =
+			new DataSourceTransactionManager(jdbcTemplate.getDataSource());
+		DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+		def.setName("Refreshing a user's visible documents.");
+		
+		try {
+			TransactionStatus status = transactionManager.getTransaction(def);
+			
+			try {
+				recompute(jdbcTemplate, userId);
+			}
+			catch(DataAccessException e) {
+				transactionManager.rollback(status);
+				throw e;
+			}
+			
+			transactionManager.commit(status);
+		}
+		catch(TransactionException e) {
+			throw new DataAccessException(
+					"Error while refreshing the visible documents of: " +
+						username,
+					e);
+		}
+	}
+	
+	/**
+	 * Increments the generations of the users selected by a statement for 
+	 * each of its parameters.
+	 * 
+	 * @param jdbcTemplate The template to use.
+	 * 
+	 * @param sql The statement, which takes one parameter.
+	 * 
+	 * @param parameters The parameters. This may be null.
+	 * 
+	 * @throws DataAccessException There was an error updating the 
+	 * 							   generations.
+	 */
+	private static void invalidate(
+			final JdbcTemplate jdbcTemplate,
+			final String sql,
+			final Collection<String> parameters)
+			throws DataAccessException {
+		
+		if((parameters == null) || parameters.isEmpty()) {
+			return;
+		}
+		
+		List<Object[]> batchParameters = 
+			new ArrayList<Object[]>(parameters.size());
+		for(String parameter : parameters) {
+			batchParameters.add(new Object[] { parameter });
+		}
+		
+		try {
+			jdbcTemplate.batchUpdate(sql, batchParameters);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + sql + 
+						"' with parameters: " + parameters,
+					e);
+		}
+	}
+	
+	/**
+	 * Replaces a user's visible documents. The user's generation row is 
+	 * locked first, so a concurrent change to their roles waits for the 
+	 * refresh and then marks it out of date again, and a concurrent refresh
+	 * of the same user finds that there is nothing left to do.
+	 * 
+	 * @param jdbcTemplate The template to use, which must be part of a
+	 * 					   transaction.
+	 * 
+	 * @param userId The user's database ID.
+	 * 
+	 * @throws DataAccessException There was an error updating the user's
+	 * 							   visible documents.
+	 */
+	private static void recompute(
+			final JdbcTemplate jdbcTemplate,
+			final long userId)
+			throws DataAccessException {
+		
+		try {
+			jdbcTemplate.update(SQL_INSERT_USER_GENERATION, userId);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + SQL_INSERT_USER_GENERATION +
+						"' with parameter: " + userId,
+					e);
+		}
+		
+		Generations generations;
+		try {
+			generations =
+				jdbcTemplate.queryForObject(
+					SQL_LOCK_USER_GENERATION,
+					new Object[] { userId },
+					GENERATIONS_MAPPER);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + SQL_LOCK_USER_GENERATION +
+						"' with parameter: " + userId,
+					e);
+		}
+		if(generations.isCurrent()) {
+			return;
+		}
+		
+		try {
+			jdbcTemplate.update(SQL_DELETE_USER_DOCUMENTS, userId);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + SQL_DELETE_USER_DOCUMENTS +
+						"' with parameter: " + userId,
+					e);
+		}
+		
+		try {
+			jdbcTemplate.update(
+				SQL_INSERT_USER_DOCUMENTS,
+				userId,
+				userId,
+				userId,
+				userId);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + SQL_INSERT_USER_DOCUMENTS +
+						"' with parameter: " + userId,
+					e);
+		}
+		
+		try {
+			jdbcTemplate.update(
+				SQL_UPDATE_COMPUTED_GENERATION,
+				generations.generation,
+				userId);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + 
+						SQL_UPDATE_COMPUTED_GENERATION +
+						"' with parameters: " +
+						generations.generation + ", " +
+						userId,
+					e);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.InfrastructureProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Measures how long each thread waits for a connection from the pool. The 
+ * time is attributed to the statement the thread executes by 
+ * {@link InstrumentedJdbcTemplate}.
+ * 
+ * Spring's transaction synchronization unwraps this data source, so a 
+ * transaction started on it or on the data source it wraps is shared with
+ * both.
+ */
+final class InstrumentedDataSource 
+		extends DelegatingDataSource 
+		implements InfrastructureProxy {
+	
+	/**
+	 * Wraps a data source.
+	 * 
+	 * @param dataSource The data source to wrap.
+	 */
+	InstrumentedDataSource(final DataSource dataSource) {
+		super(dataSource);
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		try {
+			return super.getConnection();
+		}
+		finally {
+			QueryInstrumentation.addConnectionWait(System.nanoTime() - start);
+		}
+	}
+	
+	@Override
+	public Connection getConnection(
+			final String username, 
+			final String password)
+			throws SQLException {
+		
+		long start = System.nanoTime();
+		try {
+			return super.getConnection(username, password);
+		}
+		finally {
+			QueryInstrumentation.addConnectionWait(System.nanoTime() - start);
+		}
+	}
+	
+	@Override
+	public Object getWrappedObject() {
+		return getTargetDataSource();
+	}
+}
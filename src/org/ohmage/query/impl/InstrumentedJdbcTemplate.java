@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.CallableStatementCreator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.StatementCallback;
+
+/**
+ * A JdbcTemplate that records every statement it executes with
+ * {@link QueryInstrumentation}. Every query, update, and batch update goes
+ * through one of the three execute methods overridden here.
+ */
+final class InstrumentedJdbcTemplate extends JdbcTemplate {
+	/**
+	 * The SQL used when a statement's SQL cannot be determined.
+	 */
+	private static final String SQL_UNKNOWN = "(unknown)";
+	
+	/**
+	 * Creates a template whose data source measures connection waits.
+	 * 
+	 * @param dataSource The data source to execute statements against.
+	 */
+	InstrumentedJdbcTemplate(final DataSource dataSource) {
+		super(
+			(dataSource instanceof InstrumentedDataSource) ?
+				dataSource :
+				new InstrumentedDataSource(dataSource));
+	}
+	
+	@Override
+	public <T> T execute(
+			final StatementCallback<T> action)
+			throws DataAccessException {
+		
+		QueryInstrumentation instrumentation = QueryInstrumentation.instance();
+		if(instrumentation == null) {
+			return super.execute(action);
+		}
+		
+		String sql = getSql(action);
+		QueryInstrumentation.takeConnectionWait();
+		long start = System.nanoTime();
+		boolean failed = true;
+		T result = null;
+		try {
+			result = super.execute(action);
+			failed = false;
+			return result;
+		}
+		finally {
+			instrumentation
+				.record(
+					sql, 
+					countRows(result), 
+					System.nanoTime() - start,
+					QueryInstrumentation.takeConnectionWait(),
+					failed);
+		}
+	}
+	
+	@Override
+	public <T> T execute(
+			final PreparedStatementCreator psc,
+			final PreparedStatementCallback<T> action)
+			throws DataAccessException {
+		
+		QueryInstrumentation instrumentation = QueryInstrumentation.instance();
+		if(instrumentation == null) {
+			return super.execute(psc, action);
+		}
+		
+		// Creators that don't expose their SQL have it captured when they
+		// prepare their statement.
+		final String[] sql = new String[] { getSql(psc) };
+		PreparedStatementCreator creator = psc;
+		if(sql[0] == null) {
+			creator = 
+				new PreparedStatementCreator() {
+					@Override
+					public PreparedStatement createPreparedStatement(
+							final Connection connection)
+							throws SQLException {
+						
+						return 
+							psc.createPreparedStatement(
+								capturingConnection(connection, sql));
+					}
+				};
+		}
+		
+		QueryInstrumentation.takeConnectionWait();
+		long start = System.nanoTime();
+		boolean failed = true;
+		T result = null;
+		try {
+			result = super.execute(creator, action);
+			failed = false;
+			return result;
+		}
+		finally {
+			instrumentation
+				.record(
+					(sql[0] == null) ? SQL_UNKNOWN : sql[0], 
+					countRows(result), 
+					System.nanoTime() - start,
+					QueryInstrumentation.takeConnectionWait(),
+					failed);
+		}
+	}
+	
+	@Override
+	public <T> T execute(
+			final CallableStatementCreator csc,
+			final CallableStatementCallback<T> action)
+			throws DataAccessException {
+		
+		QueryInstrumentation instrumentation = QueryInstrumentation.instance();
+		if(instrumentation == null) {
+			return super.execute(csc, action);
+		}
+		
+		String sql = getSql(csc);
+		QueryInstrumentation.takeConnectionWait();
+		long start = System.nanoTime();
+		boolean failed = true;
+		T result = null;
+		try {
+			result = super.execute(csc, action);
+			failed = false;
+			return result;
+		}
+		finally {
+			instrumentation
+				.record(
+					(sql == null) ? SQL_UNKNOWN : sql, 
+					countRows(result), 
+					System.nanoTime() - start,
+					QueryInstrumentation.takeConnectionWait(),
+					failed);
+		}
+	}
+	
+	/**
+	 * Returns the SQL of a statement creator or callback.
+	 * 
+	 * @param object The statement creator or callback.
+	 * 
+	 * @return Its SQL or null if it doesn't expose its SQL.
+	 */
+	private static String getSql(final Object object) {
+		if(object instanceof SqlProvider) {
+			return ((SqlProvider) object).getSql();
+		}
+		return null;
+	}
+	
+	/**
+	 * Estimates the number of rows a statement read or wrote from the result
+	 * of its callback. Queries return the list of mapped rows, updates 
+	 * return the number of affected rows, and batch updates return the 
+	 * number of affected rows per batch.
+	 * 
+	 * @param result The result of the callback.
+	 * 
+	 * @return The number of rows.
+	 */
+	private static long countRows(final Object result) {
+		if(result == null) {
+			return 0;
+		}
+		else if(result instanceof Collection) {
+			return ((Collection<?>) result).size();
+		}
+		else if(result instanceof Map) {
+			return ((Map<?, ?>) result).size();
+		}
+		else if(result instanceof Integer) {
+			return (Integer) result;
+		}
+		else if(result instanceof int[]) {
+			long rows = 0;
+			for(int count : (int[]) result) {
+				// Drivers may report an unknown count as a negative number.
+				if(count > 0) {
+					rows += count;
+				}
+			}
+			return rows;
+		}
+		return 1;
+	}
+	
+	/**
+	 * Wraps a connection so that the SQL of the first statement it prepares
+	 * is captured.
+	 * 
+	 * @param connection The connection to wrap.
+	 * 
+	 * @param sql A single-element array into which the SQL is stored.
+	 * 
+	 * @return The wrapped connection.
+	 */
+	private static Connection capturingConnection(
+			final Connection connection,
+			final String[] sql) {
+		
+		return
+			(Connection) Proxy.newProxyInstance(
+				InstrumentedJdbcTemplate.class.getClassLoader(),
+				new Class<?>[] { Connection.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(
+							final Object proxy, 
+							final Method method, 
+							final Object[] args)
+							throws Throwable {
+						
+						String name = method.getName();
+						if((sql[0] == null) &&
+							("prepareStatement".equals(name) || 
+								"prepareCall".equals(name)) &&
+							(args != null) &&
+							(args[0] instanceof String)) {
+							
+							sql[0] = (String) args[0];
+						}
+						
+						try {
+							return method.invoke(connection, args);
+						}
+						catch(InvocationTargetException e) {
+							throw e.getCause();
+						}
+					}
+				});
+	}
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.ohmage.domain.MailOutboxMessage;
+import org.ohmage.exception.DataAccessException;
+import org.ohmage.query.IMailOutboxQueries;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * This class is responsible for the mail that is waiting to be delivered.
+ * Everything here uses the primary database, because the sender must see
+ * the messages as soon as they are added and must not retry a message that
+ * it just delivered.
+ */
+public class MailOutboxQueries extends Query implements IMailOutboxQueries {
+	// Adds a message to the outbox.
+	private static final String SQL_INSERT_MESSAGE =
+		"INSERT INTO mail_outbox(" +
+			"recipient, message, created_millis, next_attempt_millis) " +
+		"VALUES (?, ?, ?, ?)";
+	
+	// Retrieves the messages that are due to be sent.
+	private static final String SQL_GET_DUE_MESSAGES =
+		"SELECT id, recipient, message, created_millis, " +
+			"next_attempt_millis, attempts " +
+		"FROM mail_outbox " +
+		"WHERE failed = false " +
+		"AND next_attempt_millis <= ? " +
+		"ORDER BY next_attempt_millis, id " +
+		"LIMIT ?";
+	
+	// Claims a message if no one else has claimed it since it was read.
+	private static final String SQL_UPDATE_CLAIM_MESSAGE =
+		"UPDATE mail_outbox " +
+		"SET next_attempt_millis = ?, attempts = attempts + 1 " +
+		"WHERE id = ? " +
+		"AND next_attempt_millis = ? " +
+		"AND failed = false";
+	
+	// Removes a message that was delivered.
+	private static final String SQL_DELETE_MESSAGE =
+		"DELETE FROM mail_outbox " +
+		"WHERE id = ?";
+	
+	// Schedules another attempt to send a message.
+	private static final String SQL_UPDATE_RESCHEDULE_MESSAGE =
+		"UPDATE mail_outbox " +
+		"SET next_attempt_millis = ?, last_error = ? " +
+		"WHERE id = ?";
+	
+	// Marks a message as failed and discards its content, which may include
+	// a password.
+	private static final String SQL_UPDATE_FAIL_MESSAGE =
+		"UPDATE mail_outbox " +
+		"SET failed = true, last_error = ?, message = '' " +
+		"WHERE id = ?";
+	
+	// Counts the waiting and failed messages.
+	private static final String SQL_GET_SUMMARY =
+		"SELECT " +
+			"COALESCE(SUM(failed = false), 0) AS pending, " +
+			"COALESCE(SUM(failed = true), 0) AS failed, " +
+			"MIN(CASE WHEN failed = false THEN created_millis END) " +
+				"AS oldest_pending_millis " +
+		"FROM mail_outbox";
+	
+	/**
+	 * Creates this object via dependency injection (reflection).
+	 * 
+	 * @param dataSource The DataSource to use when querying the database.
+	 */
+	private MailOutboxQueries(DataSource dataSource) {
+		super(dataSource);
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IMailOutboxQueries#createMessage(java.lang.String, byte[], long)
+	 */
+	@Override
+	public void createMessage(
+			final String recipient,
+			final byte[] message,
+			final long createdMillis)
+			throws DataAccessException {
+		
+		try {
+			getJdbcTemplate().update(
+				SQL_INSERT_MESSAGE,
+				new Object[] {
+					recipient, message, createdMillis, createdMillis });
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" +
+					SQL_INSERT_MESSAGE +
+					"' with parameters: " +
+					recipient + ", " +
+					"<message>, " +
+					createdMillis + ", " +
+					createdMillis,
+				e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IMailOutboxQueries#getDueMessages(long, int)
+	 */
+	@Override
+	public List<MailOutboxMessage> getDueMessages(
+			final long nowMillis,
+			final int limit)
+			throws DataAccessException {
+		
+		try {
+			return getJdbcTemplate().query(
+				SQL_GET_DUE_MESSAGES,
+				new Object[] { nowMillis, limit },
+				new RowMapper<MailOutboxMessage>() {
+					@Override
+					public MailOutboxMessage mapRow(
+							final ResultSet rs,
+							final int rowNum)
+							throws SQLException {
+						
+						return new MailOutboxMessage(
+							rs.getLong("id"),
+							rs.getString("recipient"),
+							rs.getBytes("message"),
+							rs.getLong("created_millis"),
+							rs.getLong("next_attempt_millis"),
+							rs.getInt("attempts"));
+					}
+				});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" +
+					SQL_GET_DUE_MESSAGES +
+					"' with parameters: " +
+					nowMillis + ", " +
+					limit,
+				e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IMailOutboxQueries#claimMessage(long, long, long)
+	 */
+	@Override
+	public boolean claimMessage(
+			final long id,
+			final long expectedNextAttemptMillis,
+			final long leaseUntilMillis)
+			throws DataAccessException {
+		
+		try {
+			return getJdbcTemplate().update(
+				SQL_UPDATE_CLAIM_MESSAGE,
+				new Object[] {
+					leaseUntilMillis, id, expectedNextAttemptMillis }) == 1;
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" +
+					SQL_UPDATE_CLAIM_MESSAGE +
+					"' with parameters: " +
+					leaseUntilMillis + ", " +
+					id + ", " +
+					expectedNextAttemptMillis,
+				e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IMailOutboxQueries#deleteMessage(long)
+	 */
+	@Override
+	public void deleteMessage(final long id) throws DataAccessException {
+		try {
+			getJdbcTemplate().update(SQL_DELETE_MESSAGE, new Object[] { id });
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" +
+					SQL_DELETE_MESSAGE +
+					"' with parameter: " +
+					id,
+				e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IMailOutboxQueries#rescheduleMessage(long, long, java.lang.String)
+	 */
+	@Override
+	public void rescheduleMessage(
+			final long id,
+			final long nextAttemptMillis,
+			final String error)
+			throws DataAccessException {
+		
+		try {
+			getJdbcTemplate().update(
+				SQL_UPDATE_RESCHEDULE_MESSAGE,
+				new Object[] { nextAttemptMillis, error, id });
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" +
+					SQL_UPDATE_RESCHEDULE_MESSAGE +
+					"' with parameters: " +
+					nextAttemptMillis + ", " +
+					error + ", " +
+					id,
+				e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IMailOutboxQueries#failMessage(long, java.lang.String)
+	 */
+	@Override
+	public void failMessage(
+			final long id,
+			final String error)
+			throws DataAccessException {
+		
+		try {
+			getJdbcTemplate().update(
+				SQL_UPDATE_FAIL_MESSAGE,
+				new Object[] { error, id });
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" +
+					SQL_UPDATE_FAIL_MESSAGE +
+					"' with parameters: " +
+					error + ", " +
+					id,
+				e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IMailOutboxQueries#getSummary()
+	 */
+	@Override
+	public MailOutboxMessage.Summary getSummary()
+			throws DataAccessException {
+		
+		try {
+			return getJdbcTemplate().queryForObject(
+				SQL_GET_SUMMARY,
+				new RowMapper<MailOutboxMessage.Summary>() {
+					@Override
+					public MailOutboxMessage.Summary mapRow(
+							final ResultSet rs,
+							final int rowNum)
+							throws SQLException {
+						
+						long oldest = rs.getLong("oldest_pending_millis");
+						Long oldestPendingMillis =
+							rs.wasNull() ? null : oldest;
+						
+						return new MailOutboxMessage.Summary(
+							rs.getLong("pending"),
+							rs.getLong("failed"),
+							oldestPendingMillis);
+					}
+				});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" + SQL_GET_SUMMARY + "'.",
+				e);
+		}
+	}
+}
@@ -5,14 +5,18 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import javax.sql.DataSource;
 
 import org.apache.log4j.Logger;
+import org.ohmage.cache.MediaDirectoryCache;
 import org.ohmage.exception.DataAccessException;
+import org.ohmage.exception.DomainException;
 import org.ohmage.query.IImageQueries;
 import org.ohmage.query.IMediaQueries;
 import org.springframework.jdbc.core.RowMapper;
@@ -176,4 +180,31 @@ public class MediaQueries extends Query implements IMediaQueries {
 		}
 	    }
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IMediaQueries#migrateMediaStorage()
+	 */
+	@Override
+	public long migrateMediaStorage() throws DataAccessException {
+		List<File> rootDirectories = 
+			new ArrayList<File>(MediaDirectoryCache.MEDIA_DIRECTORY_KEYS.length);
+		try {
+			for(String key : MediaDirectoryCache.MEDIA_DIRECTORY_KEYS) {
+				rootDirectories.add(MediaDirectoryCache.getRootDirectory(key));
+			}
+		}
+		catch(DomainException e) {
+			throw new DataAccessException(
+				"Could not get the media directories.",
+				e);
+		}
+		
+		return
+			StorageMigration.migrate(
+				getJdbcTemplate(),
+				"url_based_resource",
+				"audit_timestamp",
+				rootDirectories);
+	}
 }
@@ -416,7 +416,7 @@ public class ObserverQueries extends Query implements IObserverQueries {
 		final Map<Long, Observer.Builder> observerBuilders = 
 			new HashMap<Long, Observer.Builder>();
 		try {
-			getJdbcTemplate().query(
+			getReadJdbcTemplate().query(
 				observerSql.toString(),
 				parameters.toArray(),
 				new RowMapper<Object> () {
@@ -477,7 +477,7 @@ public class ObserverQueries extends Query implements IObserverQueries {
 				observerBuilders
 				.get(dbId)
 				.addStreams(
-					getJdbcTemplate().query(
+					getReadJdbcTemplate().query(
 						streamSql, 
 						new Object[] { dbId },
 						new RowMapper<Observer.Stream>() {
@@ -679,7 +679,7 @@ public class ObserverQueries extends Query implements IObserverQueries {
 		final Map<String, Collection<Observer.Stream>> result =
 			new HashMap<String, Collection<Observer.Stream>>();
 		try {
-			getJdbcTemplate().query(
+			getReadJdbcTemplate().query(
 				sqlBuilder.toString(), 
 				parameters.toArray(),
 				new RowMapper<Object>() {
@@ -978,6 +978,7 @@ public class ObserverQueries extends Query implements IObserverQueries {
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
+				recordWrite();
 			}
 			catch(TransactionException e) {
 				transactionManager.rollback(status);
@@ -1063,6 +1064,7 @@ public class ObserverQueries extends Query implements IObserverQueries {
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
+				recordWrite();
 			}
 			catch(TransactionException e) {
 				transactionManager.rollback(status);
@@ -1180,7 +1182,7 @@ public class ObserverQueries extends Query implements IObserverQueries {
 		
 		try {
 			return
-				getJdbcTemplate().query(
+				getReadJdbcTemplate().query(
 					builder.toString(),
 					parameters.toArray(),
 					new RowMapper<DataStream>() {
@@ -1342,7 +1344,7 @@ public class ObserverQueries extends Query implements IObserverQueries {
 		
 		try {
 			return
-				getJdbcTemplate()
+				getReadJdbcTemplate()
 					.query(
 						sqlBuilder.toString(),
 						parameters.toArray(),
@@ -0,0 +1,505 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.ohmage.cache.PreferenceCache;
+import org.ohmage.exception.CacheMissException;
+import org.ohmage.exception.DataAccessException;
+import org.ohmage.util.StringUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * <p>
+ * Maintains and searches the prompt_response_token table, an inverted index
+ * from each word in a prompt response to the prompt responses that contain
+ * it. See {@link StringUtils#getSearchWords(String)} for what counts as a
+ * word.
+ * </p>
+ * 
+ * <p>
+ * Searches add a condition for each of the search words that the prompt
+ * response must have a word that begins with it, so the database only has
+ * to check the text of the prompt responses that contain all of the words.
+ * </p>
+ */
+final class PromptResponseTokenIndex {
+	private static final Logger LOGGER = 
+		Logger.getLogger(PromptResponseTokenIndex.class);
+	
+	/**
+	 * The preference that is set to "true" once every existing prompt 
+	 * response has been indexed. Until then, searches cannot use the index.
+	 */
+	public static final String KEY_INDEX_READY = 
+		"prompt_response_search_index_ready";
+	
+	/**
+	 * The number of prompt responses that are indexed in each transaction
+	 * when the index is rebuilt.
+	 */
+	private static final int REBUILD_BATCH_SIZE = 1000;
+	
+	private static final String SQL_INSERT_TOKENS =
+		"INSERT IGNORE INTO prompt_response_token " +
+			"(campaign_id, token, prompt_response_id) " +
+		"VALUES ";
+	
+	private static final String SQL_DELETE_TOKENS =
+		"DELETE FROM prompt_response_token " +
+		"WHERE prompt_response_id IN ";
+	
+	private static final String SQL_GET_PROMPT_RESPONSES_FOR_PROMPT =
+		"SELECT pr.id, sr.campaign_id, pr.response " +
+		"FROM prompt_response pr, survey_response sr " +
+		"WHERE pr.survey_response_id = ? " +
+		"AND pr.prompt_id = ? " +
+		"AND sr.id = pr.survey_response_id";
+	
+	private static final String SQL_WHERE_TOKEN =
+		" AND pr.id IN (" +
+			"SELECT t.prompt_response_id " +
+			"FROM prompt_response_token t " +
+			"WHERE t.campaign_id = (SELECT id FROM campaign WHERE urn = ?) " +
+			"AND t.token LIKE ?" +
+		")";
+	
+	private static final String SQL_GET_PROMPT_RESPONSES_AFTER =
+		"SELECT pr.id, sr.campaign_id, pr.response " +
+		"FROM prompt_response pr, survey_response sr " +
+		"WHERE pr.id > ? " +
+		"AND sr.id = pr.survey_response_id ";
+	
+	private static final String SQL_WHERE_CAMPAIGN =
+		"AND sr.campaign_id = (SELECT id FROM campaign WHERE urn = ?) ";
+	
+	private static final String SQL_ORDER_BY_ID_LIMIT =
+		"ORDER BY pr.id " +
+		"LIMIT " + REBUILD_BATCH_SIZE;
+	
+	private static final String SQL_SET_INDEX_READY =
+		"INSERT INTO preference (p_key, p_value) " +
+		"VALUES ('" + KEY_INDEX_READY + "', 'true') " +
+		"ON DUPLICATE KEY UPDATE p_value = 'true'";
+	
+	/**
+	 * A prompt response that is to be indexed.
+	 */
+	private static final class IndexedResponse {
+		private final long id;
+		private final long campaignId;
+		private final String response;
+		
+		private IndexedResponse(
+				final long id, 
+				final long campaignId, 
+				final String response) {
+			
+			this.id = id;
+			this.campaignId = campaignId;
+			this.response = response;
+		}
+	}
+	
+	/**
+	 * Maps the results of the queries for prompt responses to be indexed.
+	 */
+	private static final RowMapper<IndexedResponse> INDEXED_RESPONSE_MAPPER =
+		new RowMapper<IndexedResponse>() {
+			@Override
+			public IndexedResponse mapRow(
+					final ResultSet rs, 
+					final int rowNum)
+					throws SQLException {
+				
+				return new IndexedResponse(
+					rs.getLong("id"), 
+					rs.getLong("campaign_id"), 
+					rs.getString("response"));
+			}
+		};
+	
+	/**
+	 * Default constructor. Private so that it cannot be instantiated.
+	 */
+	private PromptResponseTokenIndex() {}
+	
+	/**
+	 * Adds a newly created prompt response to the index.
+	 * 
+	 * @param jdbcTemplate The template to use, which should be part of the
+	 * 					   transaction that created the prompt response.
+	 * 
+	 * @param campaignId The database ID of the prompt response's campaign.
+	 * 
+	 * @param promptResponseId The database ID of the prompt response.
+	 * 
+	 * @param response The text of the prompt response.
+	 * 
+	 * @throws DataAccessException There was an error updating the index.
+	 */
+	public static void index(
+			final JdbcTemplate jdbcTemplate,
+			final long campaignId,
+			final long promptResponseId,
+			final String response)
+			throws DataAccessException {
+		
+		Set<String> words = StringUtils.getSearchWords(response);
+		if(words.isEmpty()) {
+			return;
+		}
+		
+		StringBuilder sqlBuilder = new StringBuilder(SQL_INSERT_TOKENS);
+		List<Object> parameters = new ArrayList<Object>(words.size() * 3);
+		boolean firstPass = true;
+		for(String word : words) {
+			if(firstPass) {
+				firstPass = false;
+			}
+			else {
+				sqlBuilder.append(", ");
+			}
+			sqlBuilder.append("(?, ?, ?)");
+			
+			parameters.add(campaignId);
+			parameters.add(word);
+			parameters.add(promptResponseId);
+		}
+		
+		String sql = sqlBuilder.toString();
+		try {
+			jdbcTemplate.update(sql, parameters.toArray());
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + sql + 
+						"' with parameters: " + parameters, 
+					e);
+		}
+	}
+	
+	/**
+	 * Replaces the index entries for a prompt in a survey response after its
+	 * response has been updated.
+	 * 
+	 * @param jdbcTemplate The template to use, which should be part of the
+	 * 					   transaction that updated the prompt response.
+	 * 
+	 * @param surveyResponseId The database ID of the survey response.
+	 * 
+	 * @param promptId The prompt's campaign-unique identifier.
+	 * 
+	 * @throws DataAccessException There was an error updating the index.
+	 */
+	public static void reindex(
+			final JdbcTemplate jdbcTemplate,
+			final long surveyResponseId,
+			final String promptId)
+			throws DataAccessException {
+		
+		List<IndexedResponse> responses;
+		try {
+			responses = 
+				jdbcTemplate.query(
+					SQL_GET_PROMPT_RESPONSES_FOR_PROMPT, 
+					new Object[] { surveyResponseId, promptId }, 
+					INDEXED_RESPONSE_MAPPER);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + 
+						SQL_GET_PROMPT_RESPONSES_FOR_PROMPT + 
+						"' with parameters: " + 
+						surveyResponseId + ", " + 
+						promptId, 
+					e);
+		}
+		
+		reindex(jdbcTemplate, responses);
+	}
+	
+	/**
+	 * Returns whether the index covers every prompt response, which is the
+	 * case once it has been rebuilt after it was created.
+	 * 
+	 * @return Whether or not searches may use the index.
+	 */
+	public static boolean isReady() {
+		try {
+			return 
+				Boolean.valueOf(
+					PreferenceCache.instance().lookup(KEY_INDEX_READY));
+		}
+		catch(CacheMissException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Limits a query's prompt responses to those in a campaign that contain a
+	 * word beginning with each of the words in the search tokens. Each word
+	 * adds its own sub-select on the index, so the database intersects them.
+	 * This is a superset of the prompt responses that contain every search
+	 * token, so the caller must still check the prompt responses' text.
+	 * 
+	 * @param campaignId The campaign's unique identifier.
+	 * 
+	 * @param searchTokens The search tokens from
+	 * 					   {@link StringUtils#decodeSearchString(String)}.
+	 * 
+	 * @param sqlBuilder The query to which the conditions are appended. It
+	 * 					 must select the prompt responses as "pr" and already
+	 * 					 have a WHERE clause.
+	 * 
+	 * @param parameters The query's parameters, to which the conditions'
+	 * 					 parameters are added.
+	 * 
+	 * @return Whether or not the index was used. It is not used if it is not
+	 * 		   ready or if none of the search tokens contain a word.
+	 */
+	public static boolean appendSearch(
+			final String campaignId,
+			final Collection<String> searchTokens,
+			final StringBuilder sqlBuilder,
+			final Collection<Object> parameters) {
+		
+		if(! isReady()) {
+			return false;
+		}
+		
+		return appendWords(campaignId, searchTokens, sqlBuilder, parameters);
+	}
+	
+	/**
+	 * Appends the conditions for {@link #appendSearch(String, Collection, 
+	 * StringBuilder, Collection)} without checking whether the index is 
+	 * ready.
+	 * 
+	 * @param campaignId The campaign's unique identifier.
+	 * 
+	 * @param searchTokens The search tokens.
+	 * 
+	 * @param sqlBuilder The query to which the conditions are appended.
+	 * 
+	 * @param parameters The query's parameters.
+	 * 
+	 * @return Whether or not any conditions were appended.
+	 */
+	static boolean appendWords(
+			final String campaignId,
+			final Collection<String> searchTokens,
+			final StringBuilder sqlBuilder,
+			final Collection<Object> parameters) {
+		
+		Set<String> words = new LinkedHashSet<String>();
+		for(String searchToken : searchTokens) {
+			words.addAll(StringUtils.getSearchWords(searchToken));
+		}
+		if(words.isEmpty()) {
+			return false;
+		}
+		
+		for(String word : words) {
+			sqlBuilder.append(SQL_WHERE_TOKEN);
+			parameters.add(campaignId);
+			parameters.add(escapeLike(word) + '%');
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Escapes the characters that are special in a LIKE pattern, using 
+	 * MySQL's default escape character, so that the string only matches 
+	 * itself.
+	 * 
+	 * @param string The string to escape.
+	 * 
+	 * @return The escaped string.
+	 */
+	static String escapeLike(final String string) {
+		StringBuilder result = new StringBuilder(string.length());
+		for(int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if((c == '\\') || (c == '%') || (c == '_')) {
+				result.append('\\');
+			}
+			result.append(c);
+		}
+		return result.toString();
+	}
+	
+	/**
+	 * Rebuilds the index for every prompt response or for those in a single
+	 * campaign. The prompt responses are indexed in batches of 
+	 * {@value #REBUILD_BATCH_SIZE}, each in its own transaction, so uploads
+	 * are not blocked while the index is rebuilt. Once every prompt response
+	 * has been indexed, searches start using the index.
+	 * 
+	 * @param jdbcTemplate The template to use.
+	 * 
+	 * @param campaignId The campaign's unique identifier or null to rebuild
+	 * 					 the index for every campaign.
+	 * 
+	 * @return The number of prompt responses that were indexed.
+	 * 
+	 * @throws DataAccessException There was an error rebuilding the index.
+	 */
+	public static long rebuild(
+			final JdbcTemplate jdbcTemplate,
+			final String campaignId)
+			throws DataAccessException {
+		
+		String sql = 
+			SQL_GET_PROMPT_RESPONSES_AFTER +
+			((campaignId == null) ? "" : SQL_WHERE_CAMPAIGN) +
+			SQL_ORDER_BY_ID_LIMIT;
+		
+		DataSourceTransactionManager transactionManager =
+			new DataSourceTransactionManager(jdbcTemplate.getDataSource());
+		
+		long lastId = 0;
+		long result = 0;
+		while(true) {
+			DefaultTransactionDefinition def = 
+				new DefaultTransactionDefinition();
+			def.setName("Rebuilding the prompt response search index.");
+			
+			List<IndexedResponse> responses;
+			try {
+				TransactionStatus status = 
+					transactionManager.getTransaction(def);
+				
+				try {
+					Object[] parameters = 
+						(campaignId == null) ?
+							new Object[] { lastId } :
+							new Object[] { lastId, campaignId };
+					
+					try {
+						responses = 
+							jdbcTemplate.query(
+								sql, 
+								parameters, 
+								INDEXED_RESPONSE_MAPPER);
+					}
+					catch(org.springframework.dao.DataAccessException e) {
+						throw new DataAccessException(
+								"Error executing SQL '" + sql + 
+									"' with parameters: " + lastId + 
+									((campaignId == null) ? 
+										"" : 
+										", " + campaignId), 
+								e);
+					}
+					
+					reindex(jdbcTemplate, responses);
+				}
+				catch(DataAccessException e) {
+					transactionManager.rollback(status);
+					throw e;
+				}
+				
+				transactionManager.commit(status);
+			}
+			catch(TransactionException e) {
+				throw new DataAccessException(
+						"Error while rebuilding the prompt response search index.", 
+						e);
+			}
+			
+			if(responses.isEmpty()) {
+				break;
+			}
+			
+			result += responses.size();
+			lastId = responses.get(responses.size() - 1).id;
+			LOGGER.debug(
+				"Indexed " + result + " prompt responses through ID " + lastId);
+		}
+		
+		if(campaignId == null) {
+			try {
+				jdbcTemplate.update(SQL_SET_INDEX_READY);
+			}
+			catch(org.springframework.dao.DataAccessException e) {
+				throw new DataAccessException(
+						"Error executing SQL '" + SQL_SET_INDEX_READY + "'.", 
+						e);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Replaces the index entries for some prompt responses.
+	 * 
+	 * @param jdbcTemplate The template to use.
+	 * 
+	 * @param responses The prompt responses.
+	 * 
+	 * @throws DataAccessException There was an error updating the index.
+	 */
+	private static void reindex(
+			final JdbcTemplate jdbcTemplate,
+			final List<IndexedResponse> responses)
+			throws DataAccessException {
+		
+		if(responses.isEmpty()) {
+			return;
+		}
+		
+		List<Object> ids = new ArrayList<Object>(responses.size());
+		for(IndexedResponse response : responses) {
+			ids.add(response.id);
+		}
+		
+		String sql = 
+			SQL_DELETE_TOKENS + StringUtils.generateStatementPList(ids.size());
+		try {
+			jdbcTemplate.update(sql, ids.toArray());
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + sql + 
+						"' with parameters: " + ids, 
+					e);
+		}
+		
+		for(IndexedResponse response : responses) {
+			index(
+				jdbcTemplate, 
+				response.campaignId, 
+				response.id, 
+				response.response);
+		}
+	}
+}
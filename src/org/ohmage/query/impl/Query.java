@@ -25,6 +25,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
  * it was built as well as a JDBC template which is the most common field that
  * subclasses will use to access the database.
  * 
+ * Every statement executed through the template is recorded by 
+ * {@link QueryInstrumentation}.
+ * 
  * All subclasses must be Singletons as subsequent invocations of a constructor
  * will throw an IllegalStateException.
  * 
@@ -60,8 +63,10 @@ public abstract class Query {
 			throw new IllegalStateException("A Query should be built exactly once by Spring when the server is initialized.");
 		}
 		
-		this.dataSource = dataSource;
-		jdbcTemplate = new JdbcTemplate(dataSource);
+		// Transactions started on the instrumented data source are shared 
+		// with the data source it wraps.
+		this.dataSource = new InstrumentedDataSource(dataSource);
+		jdbcTemplate = new InstrumentedJdbcTemplate(this.dataSource);
 		
 		initialized = true;
 	}
@@ -92,7 +97,8 @@ public abstract class Query {
 	}
 	
 	/**
-	 * Returns the DataSource that was used to create this object.
+	 * Returns the DataSource that was used to create this object, wrapped so
+	 * that the time spent waiting for its connections is measured.
 	 * 
 	 * @return The DataSource that was used to create this object.
 	 */
@@ -110,4 +116,35 @@ public abstract class Query {
 	protected JdbcTemplate getJdbcTemplate() {
 		return jdbcTemplate;
 	}
+	
+	/**
+	 * Returns the JdbcTemplate that should be used by this object for queries
+	 * that only read from the database. This is the read replica's template 
+	 * when {@link ReadReplicaRouter} allows it; otherwise, it is the same as
+	 * {@link #getJdbcTemplate()}. It must not be used for anything that
+	 * writes to the database or for reads whose results will be written back.
+	 * 
+	 * @return The JdbcTemplate that should be used by this object to perform
+	 * 		   read-only queries.
+	 */
+	protected JdbcTemplate getReadJdbcTemplate() {
+		ReadReplicaRouter router = ReadReplicaRouter.instance();
+		if(router == null) {
+			return jdbcTemplate;
+		}
+		return router.getReadJdbcTemplate(jdbcTemplate);
+	}
+	
+	/**
+	 * Records that the requesting user has written to the database so that
+	 * their subsequent reads will see what they wrote. This should be called
+	 * by anything that writes a user's data which they are likely to read
+	 * back immediately.
+	 */
+	protected static void recordWrite() {
+		ReadReplicaRouter router = ReadReplicaRouter.instance();
+		if(router != null) {
+			router.recordWrite();
+		}
+	}
 }
@@ -0,0 +1,404 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+import org.ohmage.domain.QueryStatistics;
+import org.ohmage.domain.QueryStatistics.SlowQuery;
+
+/**
+ * <p>
+ * Collects statistics about every SQL statement executed through a
+ * {@link Query}'s templates. Statements are grouped by their fingerprint,
+ * which is the statement with its whitespace collapsed and its literal
+ * values, parameter lists, and multi-row value lists replaced by 
+ * placeholders.
+ * </p>
+ * 
+ * <p>
+ * Statements that take at least the slow query threshold are sampled into a
+ * bounded log of slow queries. Only the fingerprint and the number of bound
+ * parameters are logged, never the parameters themselves.
+ * </p>
+ */
+public final class QueryInstrumentation {
+	private static final Logger LOGGER = 
+		Logger.getLogger(QueryInstrumentation.class);
+	
+	/**
+	 * The maximum number of distinct fingerprints that will be tracked. Any
+	 * others are combined under {@link #FINGERPRINT_OTHER} so that generated
+	 * SQL cannot grow the statistics without bound.
+	 */
+	private static final int MAX_FINGERPRINTS = 1000;
+	
+	/**
+	 * The fingerprint used once {@link #MAX_FINGERPRINTS} has been reached.
+	 */
+	private static final String FINGERPRINT_OTHER = "(other)";
+	
+	/**
+	 * The maximum number of SQL strings whose fingerprints are cached.
+	 */
+	private static final int MAX_CACHED_FINGERPRINTS = 5000;
+	
+	/**
+	 * The longest fingerprint that will be kept. Anything longer is 
+	 * truncated.
+	 */
+	private static final int MAX_FINGERPRINT_LENGTH = 1000;
+	
+	private static final Pattern PATTERN_STRING_LITERAL =
+		Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'|\"(?:[^\"\\\\]|\\\\.)*\"");
+	private static final Pattern PATTERN_NUMBER_LITERAL =
+		Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern PATTERN_PARAMETER_LIST =
+		Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+	private static final Pattern PATTERN_VALUES_LIST =
+		Pattern.compile("\\(\\?\\+\\)(?:\\s*,\\s*\\(\\?\\+\\))+");
+	private static final Pattern PATTERN_WHITESPACE =
+		Pattern.compile("\\s+");
+	
+	/**
+	 * The mutable counters for a single fingerprint.
+	 */
+	private static final class Counter {
+		private long count = 0;
+		private long errors = 0;
+		private long rows = 0;
+		private long totalMicros = 0;
+		private long maxMicros = 0;
+		private long connectionWaitMicros = 0;
+		private final long[] latencyHistogram =
+			new long[QueryStatistics.LATENCY_BOUNDS.length + 1];
+		
+		/**
+		 * Adds a single execution to this counter.
+		 */
+		private synchronized void add(
+				final long rows,
+				final long micros,
+				final long connectionWaitMicros,
+				final boolean failed) {
+			
+			count++;
+			if(failed) {
+				errors++;
+			}
+			this.rows += rows;
+			totalMicros += micros;
+			if(micros > maxMicros) {
+				maxMicros = micros;
+			}
+			this.connectionWaitMicros += connectionWaitMicros;
+			latencyHistogram[QueryStatistics.getLatencyBucket(micros)]++;
+		}
+		
+		/**
+		 * Returns an immutable copy of this counter.
+		 */
+		private synchronized QueryStatistics snapshot(
+				final String fingerprint) {
+			
+			return
+				new QueryStatistics(
+					fingerprint,
+					count,
+					errors,
+					rows,
+					totalMicros,
+					maxMicros,
+					connectionWaitMicros,
+					latencyHistogram);
+		}
+	}
+	
+	/**
+	 * The time, in nanoseconds, the current thread has spent waiting for 
+	 * connections since it last took it.
+	 */
+	private static final ThreadLocal<long[]> CONNECTION_WAIT =
+		new ThreadLocal<long[]>() {
+			@Override
+			protected long[] initialValue() {
+				return new long[1];
+			}
+		};
+	
+	private static QueryInstrumentation instance;
+	
+	private final long slowQueryMicros;
+	private final double slowQuerySampleRate;
+	private final int maxSlowQueries;
+	
+	private final ConcurrentMap<String, String> fingerprints =
+		new ConcurrentHashMap<String, String>();
+	private final ConcurrentMap<String, Counter> counters =
+		new ConcurrentHashMap<String, Counter>();
+	
+	// Guarded by itself. The newest slow query is first.
+	private final LinkedList<SlowQuery> slowQueries =
+		new LinkedList<SlowQuery>();
+	
+	/**
+	 * Creates the collector.
+	 * 
+	 * @param slowQueryMillis The number of milliseconds a statement must take
+	 * 						  before it may be logged as a slow query.
+	 * 
+	 * @param slowQuerySampleRate The fraction, from 0 to 1, of slow queries
+	 * 							  that are logged.
+	 * 
+	 * @param maxSlowQueries The number of slow queries that are kept.
+	 * 
+	 * @throws IllegalStateException This class was already instantiated.
+	 * 
+	 * @throws IllegalArgumentException One of the parameters was out of 
+	 * 									range.
+	 */
+	private QueryInstrumentation(
+			final long slowQueryMillis,
+			final double slowQuerySampleRate,
+			final int maxSlowQueries) {
+		
+		if(instance != null) {
+			throw new IllegalStateException(
+				"The query instrumentation is a singleton and may only be " +
+					"built once.");
+		}
+		if(slowQueryMillis < 0) {
+			throw new IllegalArgumentException(
+				"The slow query threshold cannot be negative.");
+		}
+		if((slowQuerySampleRate < 0) || (slowQuerySampleRate > 1)) {
+			throw new IllegalArgumentException(
+				"The slow query sample rate must be between 0 and 1.");
+		}
+		if(maxSlowQueries < 0) {
+			throw new IllegalArgumentException(
+				"The number of slow queries cannot be negative.");
+		}
+		
+		this.slowQueryMicros = slowQueryMillis * 1000;
+		this.slowQuerySampleRate = slowQuerySampleRate;
+		this.maxSlowQueries = maxSlowQueries;
+		
+		instance = this;
+	}
+	
+	/**
+	 * Returns the singleton instance of this class.
+	 * 
+	 * @return The singleton instance of this class or null if it has not been
+	 * 		   built, in which case nothing is recorded.
+	 */
+	public static QueryInstrumentation instance() {
+		return instance;
+	}
+	
+	/**
+	 * Returns the fingerprint of a SQL statement.
+	 * 
+	 * @param sql The SQL statement.
+	 * 
+	 * @return The statement with its whitespace collapsed and its literals 
+	 * 		   and lists replaced by placeholders.
+	 */
+	public static String getFingerprint(final String sql) {
+		String result = sql;
+		result = PATTERN_STRING_LITERAL.matcher(result).replaceAll("?");
+		result = PATTERN_NUMBER_LITERAL.matcher(result).replaceAll("?");
+		result = PATTERN_WHITESPACE.matcher(result).replaceAll(" ").trim();
+		result = PATTERN_PARAMETER_LIST.matcher(result).replaceAll("(?+)");
+		result = PATTERN_VALUES_LIST.matcher(result).replaceAll("(?+)+");
+		
+		if(result.length() > MAX_FINGERPRINT_LENGTH) {
+			result = result.substring(0, MAX_FINGERPRINT_LENGTH);
+		}
+		return result;
+	}
+	
+	/**
+	 * Adds time the current thread spent waiting for a connection. This will
+	 * be attributed to the statement that the thread is executing.
+	 * 
+	 * @param nanos The time in nanoseconds.
+	 */
+	static void addConnectionWait(final long nanos) {
+		CONNECTION_WAIT.get()[0] += nanos;
+	}
+	
+	/**
+	 * Returns and resets the time the current thread has spent waiting for
+	 * connections.
+	 * 
+	 * @return The time in nanoseconds.
+	 */
+	static long takeConnectionWait() {
+		long[] wait = CONNECTION_WAIT.get();
+		long result = wait[0];
+		wait[0] = 0;
+		return result;
+	}
+	
+	/**
+	 * Records a single execution of a statement.
+	 * 
+	 * @param sql The SQL statement.
+	 * 
+	 * @param rows The number of rows it read or wrote.
+	 * 
+	 * @param nanos How long it took in nanoseconds.
+	 * 
+	 * @param connectionWaitNanos How long it waited for a connection in 
+	 * 							  nanoseconds.
+	 * 
+	 * @param failed Whether or not it failed.
+	 */
+	void record(
+			final String sql,
+			final long rows,
+			final long nanos,
+			final long connectionWaitNanos,
+			final boolean failed) {
+		
+		String fingerprint = fingerprints.get(sql);
+		if(fingerprint == null) {
+			fingerprint = getFingerprint(sql);
+			if(fingerprints.size() >= MAX_CACHED_FINGERPRINTS) {
+				fingerprints.clear();
+			}
+			fingerprints.put(sql, fingerprint);
+		}
+		
+		Counter counter = counters.get(fingerprint);
+		if(counter == null) {
+			if(counters.size() >= MAX_FINGERPRINTS) {
+				fingerprint = FINGERPRINT_OTHER;
+			}
+			counter = new Counter();
+			Counter existing = counters.putIfAbsent(fingerprint, counter);
+			if(existing != null) {
+				counter = existing;
+			}
+		}
+		
+		long micros = nanos / 1000;
+		long connectionWaitMicros = connectionWaitNanos / 1000;
+		counter.add(rows, micros, connectionWaitMicros, failed);
+		
+		if((micros >= slowQueryMicros) && 
+			(maxSlowQueries > 0) &&
+			(ThreadLocalRandom.current().nextDouble() < slowQuerySampleRate)) {
+			
+			SlowQuery slowQuery =
+				new SlowQuery(
+					System.currentTimeMillis(),
+					fingerprint,
+					countParameters(sql),
+					rows,
+					micros,
+					connectionWaitMicros);
+			
+			synchronized(slowQueries) {
+				slowQueries.addFirst(slowQuery);
+				while(slowQueries.size() > maxSlowQueries) {
+					slowQueries.removeLast();
+				}
+			}
+			
+			if(LOGGER.isDebugEnabled()) {
+				LOGGER.debug(
+					"Slow query (" + (micros / 1000) + " ms, " + 
+						rows + " rows): " + 
+						fingerprint);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the statistics for every fingerprint, with those that have 
+	 * taken the most total time first.
+	 * 
+	 * @return The statistics for every fingerprint.
+	 */
+	public List<QueryStatistics> getStatistics() {
+		List<QueryStatistics> result = 
+			new ArrayList<QueryStatistics>(counters.size());
+		for(Map.Entry<String, Counter> entry : counters.entrySet()) {
+			result.add(entry.getValue().snapshot(entry.getKey()));
+		}
+		
+		Collections.sort(
+			result, 
+			new Comparator<QueryStatistics>() {
+				@Override
+				public int compare(
+						final QueryStatistics first,
+						final QueryStatistics second) {
+					
+					long difference = 
+						second.getTotalMicros() - first.getTotalMicros();
+					return (difference < 0) ? -1 : ((difference > 0) ? 1 : 0);
+				}
+			});
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the logged slow queries, newest first.
+	 * 
+	 * @return The logged slow queries.
+	 */
+	public List<SlowQuery> getSlowQueries() {
+		synchronized(slowQueries) {
+			return new ArrayList<SlowQuery>(slowQueries);
+		}
+	}
+	
+	/**
+	 * Counts the parameter placeholders in a statement, ignoring any in its
+	 * literals.
+	 * 
+	 * @param sql The SQL statement.
+	 * 
+	 * @return The number of parameter placeholders.
+	 */
+	private static int countParameters(final String sql) {
+		String withoutLiterals = 
+			PATTERN_STRING_LITERAL.matcher(sql).replaceAll("");
+		
+		int result = 0;
+		for(int i = 0; i < withoutLiterals.length(); i++) {
+			if(withoutLiterals.charAt(i) == '?') {
+				result++;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,460 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * Decides whether a read may be sent to the read replica or must go to the
+ * primary database. Reads go to the primary when:
+ * </p>
+ * <ul>
+ *   <li>no replica is configured,</li>
+ *   <li>the read is part of a transaction,</li>
+ *   <li>the requesting user wrote to the primary within the last few 
+ *     seconds, so that they always see their own uploads,</li>
+ *   <li>the replica's last health check failed or showed that it was too 
+ *     far behind the primary, or</li>
+ *   <li>a connection to the replica could not be made.</li>
+ * </ul>
+ * 
+ * <p>
+ * The requesting user is tracked per thread. It is set when a request is
+ * authenticated and must be cleared when the request is finished.
+ * </p>
+ */
+public final class ReadReplicaRouter extends TimerTask implements DisposableBean {
+	private static final Logger LOGGER = 
+		Logger.getLogger(ReadReplicaRouter.class);
+	
+	/**
+	 * The task that periodically checks the replica's health.
+	 */
+	private static final Timer HEALTH_CHECK =
+		new Timer("ReadReplicaRouter - Checking the replica's health.", true);
+	
+	/**
+	 * Reports the replica's replication status. If it returns no rows, the
+	 * database is not a replica and is always up-to-date.
+	 */
+	private static final String SQL_REPLICATION_STATUS = "SHOW SLAVE STATUS";
+	
+	/**
+	 * The column of {@link #SQL_REPLICATION_STATUS} with the number of 
+	 * seconds that the replica is behind the primary. It is null when 
+	 * replication is not running.
+	 */
+	private static final String COLUMN_SECONDS_BEHIND = 
+		"Seconds_Behind_Master";
+	
+	/**
+	 * The user on whose behalf the current thread is working.
+	 */
+	private static final ThreadLocal<String> REQUESTER = 
+		new ThreadLocal<String>();
+	
+	private static ReadReplicaRouter instance;
+	
+	private final DataSource primary;
+	private final DataSource replica;
+	private final boolean enabled;
+	private final long stickyMillis;
+	private final long maxLagSeconds;
+	
+	private final JdbcTemplate replicaJdbcTemplate;
+	
+	// The time of each user's last write. Entries older than the sticky 
+	// window are removed on each health check and when they are read. 
+	// Nothing is recorded while the replica is disabled, because then there
+	// is no health check to remove them.
+	private final ConcurrentMap<String, Long> lastWrites =
+		new ConcurrentHashMap<String, Long>();
+	
+	private volatile boolean replicaHealthy = false;
+	
+	private final AtomicLong replicaReads = new AtomicLong(0);
+	private final AtomicLong primaryReads = new AtomicLong(0);
+	private final AtomicLong fallbacks = new AtomicLong(0);
+	
+	/**
+	 * Creates the router and, if the replica is enabled, starts checking its
+	 * health.
+	 * 
+	 * @param primary The primary database.
+	 * 
+	 * @param replica The read replica.
+	 * 
+	 * @param enabled Whether or not reads may be sent to the replica.
+	 * 
+	 * @param stickyMillis The number of milliseconds after a user writes to
+	 * 					   the primary during which their reads also go to 
+	 * 					   the primary.
+	 * 
+	 * @param maxLagSeconds The number of seconds that the replica may be
+	 * 						behind the primary before reads stop going to it.
+	 * 
+	 * @param checkIntervalMillis The number of milliseconds between health
+	 * 							  checks.
+	 * 
+	 * @throws IllegalStateException This class was already instantiated.
+	 * 
+	 * @throws IllegalArgumentException A data source was null or a time was
+	 * 									negative.
+	 */
+	private ReadReplicaRouter(
+			final DataSource primary,
+			final DataSource replica,
+			final boolean enabled,
+			final long stickyMillis,
+			final long maxLagSeconds,
+			final long checkIntervalMillis) {
+		
+		if(instance != null) {
+			throw new IllegalStateException(
+				"The read replica router is a singleton and may only be " +
+					"built once.");
+		}
+		if(primary == null) {
+			throw new IllegalArgumentException(
+				"The primary data source is null.");
+		}
+		if(replica == null) {
+			throw new IllegalArgumentException(
+				"The replica data source is null.");
+		}
+		if((stickyMillis < 0) || (maxLagSeconds < 0)) {
+			throw new IllegalArgumentException(
+				"The sticky window and maximum lag cannot be negative.");
+		}
+		if(checkIntervalMillis <= 0) {
+			throw new IllegalArgumentException(
+				"The health check interval must be positive.");
+		}
+		
+		this.primary = primary;
+		this.replica = replica;
+		this.enabled = enabled;
+		this.stickyMillis = stickyMillis;
+		this.maxLagSeconds = maxLagSeconds;
+		
+		replicaJdbcTemplate = 
+			new InstrumentedJdbcTemplate(new FallbackDataSource());
+		
+		instance = this;
+		
+		if(enabled) {
+			HEALTH_CHECK.schedule(this, 0, checkIntervalMillis);
+		}
+		else {
+			LOGGER.info("The read replica is disabled.");
+		}
+	}
+	
+	/**
+	 * Returns the singleton instance of this class.
+	 * 
+	 * @return The singleton instance of this class or null if it has not been
+	 * 		   built.
+	 */
+	public static ReadReplicaRouter instance() {
+		return instance;
+	}
+	
+	/**
+	 * Sets the user on whose behalf the current thread is working.
+	 * 
+	 * @param username The user's username.
+	 */
+	public static void setRequester(final String username) {
+		REQUESTER.set(username);
+	}
+	
+	/**
+	 * Clears the user on whose behalf the current thread was working. This
+	 * must be called when a request is finished.
+	 */
+	public static void clearRequester() {
+		REQUESTER.remove();
+	}
+	
+	/**
+	 * Records that the current thread's user wrote to the primary, so their
+	 * reads will go to the primary until the replica has caught up. This 
+	 * does nothing if the replica is disabled, since every read already goes
+	 * to the primary.
+	 */
+	public void recordWrite() {
+		if(! enabled) {
+			return;
+		}
+		
+		String username = REQUESTER.get();
+		if(username != null) {
+			lastWrites.put(username, System.currentTimeMillis());
+		}
+	}
+	
+	/**
+	 * Returns the template that a read-only query should use. This is either
+	 * the replica's template or the given primary template.
+	 * 
+	 * @param primaryJdbcTemplate The template for the primary database.
+	 * 
+	 * @return The template to read from.
+	 */
+	public JdbcTemplate getReadJdbcTemplate(
+			final JdbcTemplate primaryJdbcTemplate) {
+		
+		if(enabled && 
+			replicaHealthy && 
+			(! TransactionSynchronizationManager.isActualTransactionActive()) &&
+			(! isSticky())) {
+			
+			replicaReads.incrementAndGet();
+			return replicaJdbcTemplate;
+		}
+		
+		primaryReads.incrementAndGet();
+		return primaryJdbcTemplate;
+	}
+	
+	/**
+	 * Returns whether or not the replica passed its last health check.
+	 * 
+	 * @return Whether or not the replica is healthy.
+	 */
+	public boolean isReplicaHealthy() {
+		return enabled && replicaHealthy;
+	}
+	
+	/**
+	 * Returns a one-line summary of where reads have been sent.
+	 * 
+	 * @return The router's statistics.
+	 */
+	@Override
+	public String toString() {
+		return
+			"enabled=" + enabled +
+			", healthy=" + replicaHealthy +
+			", replicaReads=" + replicaReads.get() +
+			", primaryReads=" + primaryReads.get() +
+			", fallbacks=" + fallbacks.get() +
+			", stickyUsers=" + lastWrites.size();
+	}
+	
+	/**
+	 * Checks the replica's health and forgets writes that are older than the
+	 * sticky window.
+	 */
+	@Override
+	public void run() {
+		boolean healthy = checkReplica();
+		if(healthy != replicaHealthy) {
+			LOGGER.warn(
+				"The read replica is now " + 
+					(healthy ? "healthy" : "unhealthy") + ".");
+		}
+		replicaHealthy = healthy;
+		
+		long oldest = System.currentTimeMillis() - stickyMillis;
+		Iterator<Map.Entry<String, Long>> iter = 
+			lastWrites.entrySet().iterator();
+		while(iter.hasNext()) {
+			if(iter.next().getValue() < oldest) {
+				iter.remove();
+			}
+		}
+		
+		if(LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Read replica: " + toString());
+		}
+	}
+	
+	/**
+	 * Stops checking the replica's health.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		cancel();
+		replicaHealthy = false;
+	}
+	
+	/**
+	 * Returns whether the current thread's user wrote to the primary within
+	 * the sticky window.
+	 * 
+	 * @return Whether or not the user's reads must go to the primary.
+	 */
+	private boolean isSticky() {
+		String username = REQUESTER.get();
+		if(username == null) {
+			return false;
+		}
+		
+		Long lastWrite = lastWrites.get(username);
+		if(lastWrite == null) {
+			return false;
+		}
+		else if(System.currentTimeMillis() - lastWrite < stickyMillis) {
+			return true;
+		}
+		
+		// Only remove it if the user hasn't written again since.
+		lastWrites.remove(username, lastWrite);
+		return false;
+	}
+	
+	/**
+	 * Checks whether the replica is reachable and close enough to the 
+	 * primary.
+	 * 
+	 * @return Whether or not reads may be sent to the replica.
+	 */
+	private boolean checkReplica() {
+		Connection connection = null;
+		Statement statement = null;
+		ResultSet resultSet = null;
+		try {
+			connection = replica.getConnection();
+			statement = connection.createStatement();
+			resultSet = statement.executeQuery(SQL_REPLICATION_STATUS);
+			
+			if(! resultSet.next()) {
+				return true;
+			}
+			
+			long secondsBehind = resultSet.getLong(COLUMN_SECONDS_BEHIND);
+			if(resultSet.wasNull()) {
+				LOGGER.warn("Replication is not running on the read replica.");
+				return false;
+			}
+			else if(secondsBehind > maxLagSeconds) {
+				LOGGER.warn(
+					"The read replica is " + secondsBehind + 
+						" seconds behind the primary.");
+				return false;
+			}
+			return true;
+		}
+		catch(SQLException e) {
+			LOGGER.warn("The read replica's health check failed.", e);
+			return false;
+		}
+		finally {
+			close(resultSet, statement, connection);
+		}
+	}
+	
+	/**
+	 * Quietly closes JDBC resources, any of which may be null.
+	 */
+	private static void close(
+			final ResultSet resultSet,
+			final Statement statement,
+			final Connection connection) {
+		
+		try {
+			if(resultSet != null) {
+				resultSet.close();
+			}
+			if(statement != null) {
+				statement.close();
+			}
+		}
+		catch(SQLException e) {
+			LOGGER.debug("Error closing the health check's statement.", e);
+		}
+		finally {
+			if(connection != null) {
+				try {
+					connection.close();
+				}
+				catch(SQLException e) {
+					LOGGER.debug(
+						"Error closing the health check's connection.", 
+						e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Connects to the replica, or to the primary if the replica cannot be
+	 * reached, in which case the replica is marked as unhealthy until its 
+	 * next successful health check.
+	 */
+	private final class FallbackDataSource extends AbstractDataSource {
+		@Override
+		public Connection getConnection() throws SQLException {
+			try {
+				return replica.getConnection();
+			}
+			catch(SQLException e) {
+				fallBack(e);
+				return primary.getConnection();
+			}
+		}
+		
+		@Override
+		public Connection getConnection(
+				final String username,
+				final String password)
+				throws SQLException {
+			
+			try {
+				return replica.getConnection(username, password);
+			}
+			catch(SQLException e) {
+				fallBack(e);
+				return primary.getConnection(username, password);
+			}
+		}
+		
+		/**
+		 * Records that the replica could not be reached.
+		 */
+		private void fallBack(final SQLException e) {
+			fallbacks.incrementAndGet();
+			if(replicaHealthy) {
+				replicaHealthy = false;
+				LOGGER.warn(
+					"The read replica could not be reached, so reads will " +
+						"go to the primary.", 
+					e);
+			}
+		}
+	}
+}
@@ -0,0 +1,363 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.log4j.Logger;
+import org.ohmage.cache.MediaDirectoryCache;
+import org.ohmage.domain.Image;
+import org.ohmage.exception.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * <p>
+ * Moves the files referenced by a table's "url" column from wherever they
+ * were written into the sharded directories that
+ * {@link MediaDirectoryCache} now uses, and rewrites the URLs to match.
+ * </p>
+ * 
+ * <p>
+ * This is safe to run while the server is handling requests. Each file is
+ * first linked, or copied if the file system does not support links, into
+ * its new location. Its URL is then updated only if it has not changed in
+ * the meantime, and only then is the old file removed. A file whose row was
+ * updated or deleted while it was being migrated is left where it was. Rows
+ * whose files are already in their sharded directories are skipped, so a
+ * migration that is interrupted can simply be run again.
+ * </p>
+ */
+final class StorageMigration {
+	private static final Logger LOGGER = 
+		Logger.getLogger(StorageMigration.class);
+	
+	/**
+	 * The number of rows that are read at a time.
+	 */
+	private static final int BATCH_SIZE = 1000;
+	
+	private static final String URL_PREFIX = "file://";
+	
+	/**
+	 * A row whose file may need to be migrated.
+	 */
+	private static final class StoredFile {
+		private final long id;
+		private final String uuid;
+		private final String url;
+		
+		private StoredFile(
+				final long id, 
+				final String uuid, 
+				final String url) {
+			
+			this.id = id;
+			this.uuid = uuid;
+			this.url = url;
+		}
+	}
+	
+	/**
+	 * Maps the rows whose files may need to be migrated.
+	 */
+	private static final RowMapper<StoredFile> STORED_FILE_MAPPER =
+		new RowMapper<StoredFile>() {
+			@Override
+			public StoredFile mapRow(
+					final ResultSet rs, 
+					final int rowNum) 
+					throws SQLException {
+				
+				return 
+					new StoredFile(
+						rs.getLong("id"), 
+						rs.getString("uuid"), 
+						rs.getString("url"));
+			}
+		};
+	
+	/**
+	 * Default constructor. Made private so that it cannot be instantiated.
+	 */
+	private StorageMigration() {}
+	
+	/**
+	 * Migrates every file referenced by a table.
+	 * 
+	 * @param jdbcTemplate The template to use.
+	 * 
+	 * @param table The table, which must have "id", "uuid", and "url"
+	 * 				columns.
+	 * 
+	 * @param timestampColumn The table's column that is automatically updated
+	 * 						  whenever its row is updated. Its value is
+	 * 						  preserved, because moving a file does not modify
+	 * 						  it.
+	 * 
+	 * @param rootDirectories The root directories beneath which the files
+	 * 						  may be stored. A file is migrated into the
+	 * 						  sharded directories of the root it is already
+	 * 						  beneath, and files that are not beneath any of
+	 * 						  them are skipped.
+	 * 
+	 * @return The number of files that were migrated.
+	 * 
+	 * @throws DataAccessException There was an error reading or updating the
+	 * 							   table.
+	 */
+	public static long migrate(
+			final JdbcTemplate jdbcTemplate,
+			final String table,
+			final String timestampColumn,
+			final Collection<File> rootDirectories)
+			throws DataAccessException {
+		
+		String selectSql = 
+			"SELECT id, uuid, url " +
+			"FROM " + table + " " +
+			"WHERE id > ? " +
+			"ORDER BY id " +
+			"LIMIT " + BATCH_SIZE;
+		String updateSql =
+			"UPDATE " + table + " " +
+			"SET url = ?, " + timestampColumn + " = " + timestampColumn + " " +
+			"WHERE id = ? " +
+			"AND url = ?";
+		
+		long lastId = 0;
+		long result = 0;
+		while(true) {
+			List<StoredFile> files;
+			try {
+				files = 
+					jdbcTemplate.query(
+						selectSql, 
+						new Object[] { lastId }, 
+						STORED_FILE_MAPPER);
+			}
+			catch(org.springframework.dao.DataAccessException e) {
+				throw new DataAccessException(
+						"Error executing SQL '" + selectSql + 
+							"' with parameter: " + lastId, 
+						e);
+			}
+			
+			if(files.isEmpty()) {
+				break;
+			}
+			
+			for(StoredFile file : files) {
+				if(migrate(jdbcTemplate, updateSql, rootDirectories, file)) {
+					result++;
+				}
+			}
+			
+			lastId = files.get(files.size() - 1).id;
+			LOGGER.debug(
+				"Migrated " + result + " files from '" + table + 
+					"' through ID " + lastId);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Migrates a single file and, for images, each of its sizes.
+	 * 
+	 * @param jdbcTemplate The template to use.
+	 * 
+	 * @param updateSql The SQL that conditionally updates the row's URL.
+	 * 
+	 * @param rootDirectories The root directories.
+	 * 
+	 * @param file The row.
+	 * 
+	 * @return True if the file was migrated; false if it was skipped.
+	 * 
+	 * @throws DataAccessException There was an error updating the row.
+	 */
+	private static boolean migrate(
+			final JdbcTemplate jdbcTemplate,
+			final String updateSql,
+			final Collection<File> rootDirectories,
+			final StoredFile file)
+			throws DataAccessException {
+		
+		if((file.url == null) || (! file.url.startsWith(URL_PREFIX))) {
+			return false;
+		}
+		
+		UUID id;
+		File source;
+		try {
+			id = UUID.fromString(file.uuid);
+			source = new File(new URL(file.url).getFile());
+		}
+		catch(IllegalArgumentException e) {
+			LOGGER.warn("Skipping a file with an invalid UUID: " + file.uuid);
+			return false;
+		}
+		catch(MalformedURLException e) {
+			LOGGER.warn("Skipping a file with an invalid URL: " + file.url);
+			return false;
+		}
+		
+		File rootDirectory = null;
+		for(File root : rootDirectories) {
+			if(source.getAbsolutePath().startsWith(
+					root.getAbsolutePath() + "/")) {
+				
+				rootDirectory = root;
+				break;
+			}
+		}
+		if(rootDirectory == null) {
+			LOGGER.warn(
+				"Skipping a file that is not in a known directory: " + 
+					file.url);
+			return false;
+		}
+		
+		File directory = 
+			MediaDirectoryCache.getShardDirectory(rootDirectory, id);
+		File destination = new File(directory, source.getName());
+		if(destination.getAbsolutePath().equals(source.getAbsolutePath())) {
+			return false;
+		}
+		if(! source.isFile()) {
+			LOGGER.warn("Skipping a file that does not exist: " + file.url);
+			return false;
+		}
+		
+		// Images are stored with each of their sizes beside them.
+		Set<String> suffixes = new LinkedHashSet<String>();
+		suffixes.add("");
+		for(Image.Size size : Image.getSizes()) {
+			suffixes.add(size.getExtension());
+		}
+		
+		List<File> sources = new ArrayList<File>(suffixes.size());
+		List<File> destinations = new ArrayList<File>(suffixes.size());
+		try {
+			if((! directory.mkdirs()) && (! directory.isDirectory())) {
+				throw new IOException(
+					"The directory could not be created: " + 
+						directory.getAbsolutePath());
+			}
+			
+			for(String suffix : suffixes) {
+				File currSource = new File(source.getAbsolutePath() + suffix);
+				if(currSource.isFile()) {
+					File currDestination = 
+						new File(destination.getAbsolutePath() + suffix);
+					
+					link(currSource.toPath(), currDestination.toPath());
+					sources.add(currSource);
+					destinations.add(currDestination);
+				}
+			}
+		}
+		catch(IOException e) {
+			LOGGER.warn("Skipping a file that could not be copied: " + file.url, e);
+			delete(destinations);
+			return false;
+		}
+		
+		String url = URL_PREFIX + destination.getAbsolutePath();
+		int updated;
+		try {
+			updated = 
+				jdbcTemplate.update(
+					updateSql, 
+					new Object[] { url, file.id, file.url });
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			delete(destinations);
+			throw new DataAccessException(
+					"Error executing SQL '" + updateSql + 
+						"' with parameters: " + 
+						url + ", " + file.id + ", " + file.url, 
+					e);
+		}
+		
+		// If the row was changed or deleted since it was read, it no longer
+		// references the copy.
+		if(updated == 0) {
+			delete(destinations);
+			return false;
+		}
+		
+		delete(sources);
+		return true;
+	}
+	
+	/**
+	 * Links a file into its new location, falling back to copying it if the
+	 * file system does not support links. Anything already at the
+	 * destination is left over from an earlier, interrupted migration, as
+	 * nothing references it.
+	 * 
+	 * @param source The existing file.
+	 * 
+	 * @param destination The new location.
+	 * 
+	 * @throws IOException The file could not be linked or copied.
+	 */
+	private static void link(
+			final Path source, 
+			final Path destination) 
+			throws IOException {
+		
+		Files.deleteIfExists(destination);
+		try {
+			Files.createLink(destination, source);
+		}
+		catch(UnsupportedOperationException e) {
+			Files.copy(source, destination);
+		}
+		catch(IOException e) {
+			Files.copy(source, destination);
+		}
+	}
+	
+	/**
+	 * Deletes files, logging those that could not be deleted.
+	 * 
+	 * @param files The files to delete.
+	 */
+	private static void delete(final Collection<File> files) {
+		for(File file : files) {
+			if(! file.delete()) {
+				LOGGER.warn(
+					"Could not delete the file: " + file.getAbsolutePath());
+			}
+		}
+	}
+}
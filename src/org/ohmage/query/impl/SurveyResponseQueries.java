@@ -39,12 +39,14 @@ import org.ohmage.domain.campaign.SurveyResponse;
 import org.ohmage.domain.campaign.SurveyResponse.ColumnKey;
 import org.ohmage.domain.campaign.SurveyResponse.PrivacyState;
 import org.ohmage.domain.campaign.SurveyResponse.SortParameter;
+import org.ohmage.domain.campaign.SurveyResponseCount;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
 import org.ohmage.query.ISurveyResponseQueries;
 import org.ohmage.util.DateTimeUtils;
 import org.ohmage.util.StringUtils;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -66,6 +68,14 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 	    "FROM campaign, survey_response " +
 	    "WHERE campaign_id = campaign.id and survey_response.uuid = ?";
 	
+	// Retrieves the campaign URN for each of a list of survey responses. The
+	// parameter list must be appended.
+	private static final String SQL_GET_CAMPAIGN_URNS_FOR_SURVEY_IDS =
+		"SELECT sr.uuid, c.urn " +
+		"FROM campaign c, survey_response sr " +
+		"WHERE c.id = sr.campaign_id " +
+		"AND sr.uuid IN ";
+	
 	// Retrieves all of the survey response privacy states.
 	private static final String SQL_GET_SURVEY_RESPONSE_PRIVACY_STATES =
 		"SELECT privacy_state " +
@@ -321,6 +331,37 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 	private static final String SQL_DELETE_SURVEY_RESPONSE =
 		"DELETE FROM survey_response " +
 		"WHERE uuid = ?";
+	
+	// The number of survey responses in a campaign, the newest of their IDs,
+	// and the time the latest of them was modified. Uploads, updates, and 
+	// deletes all change at least one of them.
+	private static final String SQL_GET_SURVEY_RESPONSE_WATERMARK =
+		"SELECT CONCAT(" +
+			"COUNT(sr.id), ':', " +
+			"COALESCE(MAX(sr.id), 0), ':', " +
+			"COALESCE(MAX(sr.last_modified_timestamp), '')) " +
+		"FROM campaign c " +
+			"LEFT JOIN survey_response sr ON sr.campaign_id = c.id " +
+		"WHERE c.urn = ?";
+	
+	/**
+	 * Counts the survey responses per user, day, and privacy state. The day
+	 * is the number of days since the epoch in UTC. This must be followed by
+	 * {@link #SQL_BASE_WHERE}, the ACLs, any other conditions, and then
+	 * {@link #SQL_GROUP_BY_SURVEY_RESPONSE_COUNTS}.
+	 */
+	private static final String SQL_GET_SURVEY_RESPONSE_COUNTS =
+		"SELECT u.username, " +
+			"FLOOR(sr.epoch_millis / " + SurveyResponseCount.MILLIS_PER_DAY + ") AS day, " +
+			"srps.privacy_state, " +
+			"COUNT(sr.id) AS count " +
+		SQL_BASE_FROM;
+	
+	/**
+	 * The grouping for {@link #SQL_GET_SURVEY_RESPONSE_COUNTS}.
+	 */
+	private static final String SQL_GROUP_BY_SURVEY_RESPONSE_COUNTS =
+		" GROUP BY u.username, day, srps.privacy_state";
 
 	/**
 	 * Creates this object.
@@ -347,6 +388,62 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 		}
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.ISurveyResponseQueries#getCampaignIdsForSurveyResponseIds(java.util.Collection)
+	 */
+	@Override
+	public Map<UUID, String> getCampaignIdsForSurveyResponseIds(
+			final Collection<UUID> surveyResponseIds)
+			throws DataAccessException {
+		
+		final Map<UUID, String> result = new HashMap<UUID, String>();
+		if((surveyResponseIds == null) || surveyResponseIds.isEmpty()) {
+			return result;
+		}
+		
+		String sql = 
+			SQL_GET_CAMPAIGN_URNS_FOR_SURVEY_IDS + 
+			StringUtils.generateStatementPList(surveyResponseIds.size());
+		
+		List<Object> parameters = 
+			new ArrayList<Object>(surveyResponseIds.size());
+		for(UUID surveyResponseId : surveyResponseIds) {
+			parameters.add(surveyResponseId.toString());
+		}
+		
+		try {
+			getReadJdbcTemplate().query(
+				sql,
+				parameters.toArray(),
+				new RowCallbackHandler() {
+					/**
+					 * Adds the survey response and its campaign to the 
+					 * result.
+					 */
+					@Override
+					public void processRow(
+							final ResultSet rs)
+							throws SQLException {
+						
+						result.put(
+							UUID.fromString(rs.getString("uuid")), 
+							rs.getString("urn"));
+					}
+				});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+				"Error executing SQL '" + 
+					sql + 
+					"' with parameters: " + 
+					parameters, 
+				e);
+		}
+		
+		return result;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see org.ohmage.query.ISurveyResponseQueries#retrieveSurveyResponsePrivacyStates()
@@ -355,7 +452,7 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 	public List<PrivacyState> retrieveSurveyResponsePrivacyStates()
 			throws DataAccessException {
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_SURVEY_RESPONSE_PRIVACY_STATES,
 					new RowMapper<SurveyResponse.PrivacyState>() {
 						/**
@@ -445,7 +542,7 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 		final Collection<Integer> totalCount = new ArrayList<Integer>(1);
 		
 		try {
-			result.addAll(getJdbcTemplate().query(
+			result.addAll(getReadJdbcTemplate().query(
 				sql,
 				parameters.toArray(),
 				new ResultSetExtractor<List<SurveyResponse>>() {
@@ -731,6 +828,7 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
+				recordWrite();
 			}
 			catch(TransactionException e) {
 				transactionManager.rollback(status);
@@ -777,6 +875,7 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
+				recordWrite();
 			}
 			catch(TransactionException e) {
 				transactionManager.rollback(status);
@@ -788,68 +887,135 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 		}
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.ISurveyResponseQueries#retrieveSurveyResponseCounts(java.lang.String, java.lang.String, org.joda.time.DateTime, org.joda.time.DateTime, org.ohmage.domain.campaign.SurveyResponse.PrivacyState)
+	 */
+	@Override
+	public List<SurveyResponseCount> retrieveSurveyResponseCounts(
+			final String campaignId,
+			final String username,
+			final DateTime startDate,
+			final DateTime endDate,
+			final SurveyResponse.PrivacyState privacyState)
+			throws DataAccessException {
+		
+		StringBuilder sqlBuilder = 
+			new StringBuilder(SQL_GET_SURVEY_RESPONSE_COUNTS)
+				.append(SQL_BASE_WHERE);
+		List<Object> parameters = new LinkedList<Object>();
+		parameters.add(campaignId);
+		
+		appendAcl(campaignId, username, sqlBuilder, parameters);
+		
+		if(startDate != null) {
+			sqlBuilder.append(SQL_WHERE_ON_OR_AFTER);
+			parameters.add(startDate.getMillis());
+		}
+		if(endDate != null) {
+			sqlBuilder.append(SQL_WHERE_ON_OR_BEFORE);
+			parameters.add(endDate.getMillis());
+		}
+		if(privacyState != null) {
+			sqlBuilder.append(SQL_WHERE_PRIVACY_STATE);
+			parameters.add(privacyState.toString());
+		}
+		sqlBuilder.append(SQL_GROUP_BY_SURVEY_RESPONSE_COUNTS);
+		
+		String sql = sqlBuilder.toString();
+		try {
+			return getReadJdbcTemplate().query(
+					sql,
+					parameters.toArray(),
+					new RowMapper<SurveyResponseCount>() {
+						/**
+						 * Creates a count from the row.
+						 */
+						@Override
+						public SurveyResponseCount mapRow(
+								final ResultSet rs, 
+								final int rowNum)
+								throws SQLException {
+							
+							return new SurveyResponseCount(
+									rs.getString("username"),
+									rs.getLong("day"),
+									SurveyResponse.PrivacyState.getValue(
+										rs.getString("privacy_state")),
+									rs.getLong("count"));
+						}
+					});
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + 
+						sql + 
+						"' with parameters: " + 
+						parameters, 
+					e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.ISurveyResponseQueries#getSurveyResponseWatermark(java.lang.String)
+	 */
+	@Override
+	public String getSurveyResponseWatermark(
+			final String campaignId)
+			throws DataAccessException {
+		
+		try {
+			return getReadJdbcTemplate().queryForObject(
+					SQL_GET_SURVEY_RESPONSE_WATERMARK, 
+					new Object[] { campaignId }, 
+					String.class);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" + 
+						SQL_GET_SURVEY_RESPONSE_WATERMARK + 
+						"' with parameter: " + 
+						campaignId, 
+					e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.ISurveyResponseQueries#rebuildPromptResponseSearchIndex(java.lang.String)
+	 */
+	@Override
+	public long rebuildPromptResponseSearchIndex(
+			final String campaignId)
+			throws DataAccessException {
+		
+		return PromptResponseTokenIndex.rebuild(getJdbcTemplate(), campaignId);
+	}
+	
 	/**
-	 * Builds the SQL for the survey response SELECT and generates a parameter
-	 * list that corresponds to that SQL. The parameter list is returned and
-	 * the SQL is set as the final parameter.
+	 * Appends the conditions that limit the survey responses to only those
+	 * that the user is allowed to see. Admins and supervisors may see all of
+	 * them, authors and analysts may see shared ones, and everyone may see
+	 * their own. This expects the "u", "cps", and "srps" aliases from
+	 * {@link #SQL_BASE_FROM}.
 	 * 
-	 * @param campaign The campaign to which the survey responses must belong.
+	 * @param campaignId The campaign's unique identifier.
 	 * 
-	 * @param username The username of the user that is making this request.
-	 * 				   This is used by the ACLs to limit who sees what.
+	 * @param username The requesting user's username.
 	 * 
-	 * @param usernames Limits the results to only those submitted by any one 
-	 * 					of the users in the list.
+	 * @param sqlBuilder The SQL being built.
 	 * 
-	 * @param startDate Limits the results to only those survey responses that
-	 * 					occurred on or after this date.
+	 * @param parameters The SQL's parameters.
 	 * 
-	 * @param endDate Limits the results to only those survey responses that
-	 * 				  occurred on or before this date.
-	 * 
-	 * @param privacyState Limits the results to only those survey responses
-	 * 					   with this privacy state.
-	 * 
-	 * @param surveyIds Limits the results to only those survey responses that 
-	 * 					were derived from a survey in this collection.
-	 * 
-	 * @param promptIds Limits the results to only those survey responses that 
-	 * 					were derived from a prompt in this collection.
-	 * 
-	 * @param promptType Limits the results to only those survey responses that
-	 * 					 are of the given prompt type.
-	 * 
-	 * @param columns Aggregates the data based on the column keys. If this is
-	 * 				  null, no aggregation is performed. If the list is empty,
-	 * 				  an empty list is returned.
-	 * 
-	 * @param parameters This is a list created by the caller to be populated
-	 * 					 with the parameters aggregated while generating this
-	 * 					 SQL.
-	 * 
-	 * @return The list of parameters that corresponds with the generated SQL.
+	 * @throws DataAccessException There was an error querying about the user.
 	 */
-	private String buildSqlAndParameters(
-		final Campaign campaign,
-		final String username,
-		final Set<UUID> surveyResponseIds,
-		final Collection<String> usernames, 
-		final DateTime startDate,
-		final DateTime endDate, 
-		final SurveyResponse.PrivacyState privacyState,
-		final Collection<String> surveyIds,
-		final Collection<String> promptIds,
-		final String promptType,
-		final Set<String> promptResponseSearchTokens,
-		final Collection<ColumnKey> columns,
-		final List<SortParameter> sortOrder,
-		final Collection<Object> parameters) 
-		throws DataAccessException {
-		
-		// Begin with the SQL string which gets all results or the one that
-		// aggregates results.
-		StringBuilder sqlBuilder = new StringBuilder(SQL_BASE_WHERE);
-		parameters.add(campaign.getId());
+	private void appendAcl(
+			final String campaignId,
+			final String username,
+			final StringBuilder sqlBuilder,
+			final Collection<Object> parameters)
+			throws DataAccessException {
 		
 		// Catch any query exceptions.
 		try {
@@ -872,7 +1038,7 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 							"AND c.urn = ? " +
 							"AND c.id = urc.campaign_id " +
 							"AND urc.user_role_id = ur.id", 
-						new Object[] { username, campaign.getId() }, 
+						new Object[] { username, campaignId }, 
 						new RowMapper<Campaign.Role>() {
 							@Override
 							public Campaign.Role mapRow(
@@ -924,6 +1090,72 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 		catch(org.springframework.dao.DataAccessException e) {
 			throw new DataAccessException("Error querying about the user.", e);
 		}
+	}
+	
+	/**
+	 * Builds the SQL for the survey response SELECT and generates a parameter
+	 * list that corresponds to that SQL. The parameter list is returned and
+	 * the SQL is set as the final parameter.
+	 * 
+	 * @param campaign The campaign to which the survey responses must belong.
+	 * 
+	 * @param username The username of the user that is making this request.
+	 * 				   This is used by the ACLs to limit who sees what.
+	 * 
+	 * @param usernames Limits the results to only those submitted by any one 
+	 * 					of the users in the list.
+	 * 
+	 * @param startDate Limits the results to only those survey responses that
+	 * 					occurred on or after this date.
+	 * 
+	 * @param endDate Limits the results to only those survey responses that
+	 * 				  occurred on or before this date.
+	 * 
+	 * @param privacyState Limits the results to only those survey responses
+	 * 					   with this privacy state.
+	 * 
+	 * @param surveyIds Limits the results to only those survey responses that 
+	 * 					were derived from a survey in this collection.
+	 * 
+	 * @param promptIds Limits the results to only those survey responses that 
+	 * 					were derived from a prompt in this collection.
+	 * 
+	 * @param promptType Limits the results to only those survey responses that
+	 * 					 are of the given prompt type.
+	 * 
+	 * @param columns Aggregates the data based on the column keys. If this is
+	 * 				  null, no aggregation is performed. If the list is empty,
+	 * 				  an empty list is returned.
+	 * 
+	 * @param parameters This is a list created by the caller to be populated
+	 * 					 with the parameters aggregated while generating this
+	 * 					 SQL.
+	 * 
+	 * @return The list of parameters that corresponds with the generated SQL.
+	 */
+	private String buildSqlAndParameters(
+		final Campaign campaign,
+		final String username,
+		final Set<UUID> surveyResponseIds,
+		final Collection<String> usernames, 
+		final DateTime startDate,
+		final DateTime endDate, 
+		final SurveyResponse.PrivacyState privacyState,
+		final Collection<String> surveyIds,
+		final Collection<String> promptIds,
+		final String promptType,
+		final Set<String> promptResponseSearchTokens,
+		final Collection<ColumnKey> columns,
+		final List<SortParameter> sortOrder,
+		final Collection<Object> parameters) 
+		throws DataAccessException {
+		
+		// Begin with the SQL string which gets all results or the one that
+		// aggregates results.
+		StringBuilder sqlBuilder = new StringBuilder(SQL_BASE_WHERE);
+		parameters.add(campaign.getId());
+		
+		appendAcl(campaign.getId(), username, sqlBuilder, parameters);
 		
 		// Check all of the criteria and if any are non-null add their SQL and
 		// append the parameters.
@@ -968,7 +1200,17 @@ public class SurveyResponseQueries extends Query implements ISurveyResponseQueri
 			sqlBuilder.append(SQL_WHERE_PROMPT_TYPE);
 			parameters.add(promptType);
 		}
-		if(promptResponseSearchTokens != null) {
+		if((promptResponseSearchTokens != null) && 
+				(! promptResponseSearchTokens.isEmpty())) {
+			
+			// Narrow the search to the prompt responses that the index says
+			// contain every word before checking their text.
+			PromptResponseTokenIndex.appendSearch(
+				campaign.getId(), 
+				promptResponseSearchTokens, 
+				sqlBuilder, 
+				parameters);
+			
 			for(String promptResponseSearchToken : promptResponseSearchTokens) {
 				sqlBuilder.append(SQL_WHERE_PROMPT_RESPONSE_SEARCH_TOKEN);
 				parameters.add('%' + promptResponseSearchToken + '%');
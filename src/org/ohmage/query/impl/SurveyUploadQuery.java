@@ -114,6 +114,10 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
         "prompt_type, prompt_id, response) " +
         "VALUES (?,?,?,?,?,?)";
 		
+	// Retrieves the database ID of a campaign for the search index.
+	private static final String SQL_GET_CAMPAIGN_DB_ID =
+		"SELECT id FROM campaign WHERE urn = ?";
+	
 	// Inserts an images/media information into the url_based_resource table.
 	private static final String SQL_INSERT_MEDIA = 
 		"INSERT INTO url_based_resource(user_id, client, uuid, url, metadata) " +
@@ -181,6 +185,17 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 		
 		try { // handle TransactionExceptions
 			
+		    final long campaignDbId;
+		    try {
+			campaignDbId = getJdbcTemplate().queryForLong(SQL_GET_CAMPAIGN_DB_ID, campaignUrn);
+		    }
+		    catch(org.springframework.dao.DataAccessException e) {
+			rollback(transactionManager, status);
+			throw new DataAccessException(
+				"Error executing SQL '" + SQL_GET_CAMPAIGN_DB_ID + "' with parameter: " + campaignUrn, 
+				e);
+		    }
+			
 		    for(int surveyIndex = 0; surveyIndex < numberOfSurveys; surveyIndex++) { 
 				
 			try { // handle DataAccessExceptions
@@ -263,6 +278,7 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 				createPromptResponse(
 					username,
 					client,
+					campaignDbId,
 					surveyResponseId,
 					fileList,
 					uploadPromptResponse,
@@ -313,7 +329,8 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 			
 		    // Finally, commit the transaction
 		    transactionManager.commit(status);
-		    LOGGER.info("Completed survey message persistence");
+		    recordWrite();
+		    LOGGER.debug("Completed survey message persistence");
 		} 		
 		catch (TransactionException te) { 	
 		    LOGGER.error("failed to commit survey upload transaction, attempting to rollback", te);
@@ -376,6 +393,9 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 	 * @param client
 	 *        The name of the device used to generate the response.
 	 * 
+	 * @param campaignDbId
+	 *        The database ID of the survey response's campaign.
+	 * 
 	 * @param surveyResponseId
 	 *        The unique identifier for this survey response.
 	 * 
@@ -407,6 +427,7 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 	 */
 	private void createPromptResponse(
 		final String username, final String client,
+		final long campaignDbId,
 		final Number surveyResponseId,
 		final List<File> fileList,
 		final Response uploadPromptResponse, 
@@ -428,6 +449,7 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 			createPromptResponse(
 			    username,
 			    client,
+			    campaignDbId,
 			    surveyResponseId,
 			    fileList,
 			    response,
@@ -444,11 +466,13 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 	    }
 	    
 	    final PromptResponse promptResponse = (PromptResponse) uploadPromptResponse;
+	    final String responseString = getResponseString(promptResponse);
+	    KeyHolder promptResponseIdKeyHolder = new GeneratedKeyHolder();
 			
 	    getJdbcTemplate().update(
 		    new PreparedStatementCreator() {
 			public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
-			    PreparedStatement ps = connection.prepareStatement(SQL_INSERT_PROMPT_RESPONSE);
+			    PreparedStatement ps = connection.prepareStatement(SQL_INSERT_PROMPT_RESPONSE, Statement.RETURN_GENERATED_KEYS);
 			    ps.setLong(1, surveyResponseId.longValue());
 						
 			    RepeatableSet parent = promptResponse.getPrompt().getParent();
@@ -462,33 +486,19 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 			    }
 			    ps.setString(4, promptResponse.getPrompt().getType().toString());
 			    ps.setString(5, promptResponse.getPrompt().getId());
-			    
-			    Object response = promptResponse.getResponse();
-			    if(response instanceof DateTime) {
-				ps.setString(
-					6,
-					DateTimeUtils
-					.getW3cIso8601DateString(
-						(DateTime) response,
-						true));
-			    }
-			    else if((promptResponse instanceof MultiChoiceCustomPromptResponse) && (response instanceof Collection)) {
-				JSONArray json = new JSONArray();
-				
-				for(Object currResponse : (Collection<?>) response) {
-				    json.put(currResponse);
-				}
-				
-				ps.setString(6, json.toString());
-			    }
-			    else {
-				ps.setString(6, response.toString());
-			    }
+			    ps.setString(6, responseString);
 			    
 			    return ps;
 			}
-		    }
+		    },
+		    promptResponseIdKeyHolder
 		    );
+	    
+	    PromptResponseTokenIndex.index(
+		    getJdbcTemplate(),
+		    campaignDbId,
+		    promptResponseIdKeyHolder.getKey().longValue(),
+		    responseString);
 			
 	    // Save other media files.
 	    if( (promptResponse instanceof MediaPromptResponse)	) {
@@ -510,6 +520,35 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 			
 	}
 	
+	/**
+	 * Returns the text of a prompt response as it is stored in the 
+	 * prompt_response table.
+	 * 
+	 * @param promptResponse
+	 *        The prompt response.
+	 * 
+	 * @return The prompt response's text.
+	 */
+	private static String getResponseString(
+		final PromptResponse promptResponse) {
+	    
+	    Object response = promptResponse.getResponse();
+	    if(response instanceof DateTime) {
+		return DateTimeUtils.getW3cIso8601DateString(
+			(DateTime) response, true);
+	    }
+	    else if((promptResponse instanceof MultiChoiceCustomPromptResponse) && (response instanceof Collection)) {
+		JSONArray json = new JSONArray();
+		for(Object currResponse : (Collection<?>) response) {
+		    json.put(currResponse);
+		}
+		return json.toString();
+	    }
+	    else {
+		return response.toString();
+	    }
+	}
+	
 	/**
 	 * Insert the media prompt response entry in url_based_resource
 	 * and save a list of any attached files, images, videos, etc..
@@ -581,19 +620,19 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 		    // Get the current media directory.
 		    File currMediaDirectory = null;
 		    if (promptResponse instanceof PhotoPromptResponse) {
-			currMediaDirectory = MediaDirectoryCache.getImageDirectory();
+			currMediaDirectory = MediaDirectoryCache.getImageDirectory(id);
 			media = imageContentsMap.get(id);	
 		    } else if (promptResponse instanceof AudioPromptResponse) {
-			currMediaDirectory = MediaDirectoryCache.getAudioDirectory();
+			currMediaDirectory = MediaDirectoryCache.getAudioDirectory(id);
 			media = audioContentsMap.get(id);		
 		    } else if (promptResponse instanceof VideoPromptResponse) {							
-			currMediaDirectory = MediaDirectoryCache.getVideoDirectory();
+			currMediaDirectory = MediaDirectoryCache.getVideoDirectory(id);
 			media = videoContentsMap.get(id);	
 		    } else if (promptResponse instanceof FilePromptResponse) {
-			currMediaDirectory = MediaDirectoryCache.getFileDirectory();
+			currMediaDirectory = MediaDirectoryCache.getFileDirectory(id);
 			media = fileContentsMap.get(id);	
 		    } else if (promptResponse instanceof PhotoPromptResponse) {
-			currMediaDirectory = MediaDirectoryCache.getImageDirectory();
+			currMediaDirectory = MediaDirectoryCache.getImageDirectory(id);
 			media = imageContentsMap.get(id);	
 		    } 
 		    
@@ -887,6 +926,7 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 		
 		// Finally, commit the transaction
 		transactionManager.commit(status);
+		recordWrite();
 		
 		// Delete old files if the update is done successfully 
 		for (File f : oldFileList) {
@@ -894,7 +934,7 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 		    LOGGER.debug("File Deleted: " + f.getAbsolutePath());
 		}
 		
-		LOGGER.info("Completed survey update persistence");
+		LOGGER.debug("Completed survey update persistence");
 	} 
 	catch (TransactionException te) { 		
 	    LOGGER.error("failed to commit survey update transaction, attempting to rollback", te);
@@ -998,25 +1038,7 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 			public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
 			    PreparedStatement ps = connection.prepareStatement(sqlUpdateResponse);
 
-			    Object response = promptResponse.getResponse();
-			    String responseString = null;
-				
-			    if(response instanceof DateTime) {
-				responseString = DateTimeUtils.getW3cIso8601DateString(
-					(DateTime) response, true);
-			    }
-			    else if((promptResponse instanceof MultiChoiceCustomPromptResponse) && (response instanceof Collection)) {
-				JSONArray json = new JSONArray();
-				for(Object currResponse : (Collection<?>) response) {
-				    json.put(currResponse);
-				}
-				responseString = json.toString();
-			    }
-			    else {
-				responseString = response.toString();
-			    }
-				
-			    ps.setString(1, responseString);	
+			    ps.setString(1, getResponseString(promptResponse));	
 			    ps.setLong(2, surveyResponseDbId.longValue());
 			    ps.setString(3, promptResponse.getPrompt().getId());
 						
@@ -1024,6 +1046,11 @@ public class SurveyUploadQuery extends AbstractUploadQuery implements ISurveyUpl
 			}
 		    }
 		    );
+	    
+	    PromptResponseTokenIndex.reindex(
+		    getJdbcTemplate(),
+		    surveyResponseDbId.longValue(),
+		    promptResponse.getPrompt().getId());
 			
 	    // deal with media prompt response.
 	    if( (promptResponse instanceof MediaPromptResponse)) {		
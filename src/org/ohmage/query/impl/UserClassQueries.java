@@ -30,6 +30,7 @@ import java.util.Set;
 import javax.sql.DataSource;
 
 import org.apache.log4j.Logger;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.Clazz;
 import org.ohmage.domain.Clazz.Role;
 import org.ohmage.exception.DataAccessException;
@@ -574,6 +575,17 @@ public final class UserClassQueries extends Query implements IUserClassQueries {
 						e);
 			}
 			
+			// The user may see more documents now.
+			try {
+				DocumentVisibilityIndex.invalidateUsers(
+						getJdbcTemplate(), 
+						Collections.singleton(username));
+			}
+			catch(DataAccessException e) {
+				transactionManager.rollback(status);
+				throw e;
+			}
+			
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
@@ -584,6 +596,8 @@ public final class UserClassQueries extends Query implements IUserClassQueries {
 						"Error while committing the transaction.", 
 						e);
 			}
+
+			AuthorizationCache.invalidateClass(classId);
 		}
 		catch(TransactionException e) {
 			throw new DataAccessException(
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package org.ohmage.query.impl;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -51,6 +52,7 @@ import org.ohmage.exception.DomainException;
 import org.ohmage.query.IUserMobilityQueries;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
@@ -74,6 +76,13 @@ import edu.ucla.cens.mobilityclassifier.MobilityClassifier;
 public final class UserMobilityQueries extends AbstractUploadQuery implements IUserMobilityQueries {
 	private static final long MILLIS_PER_DAY = 1000 * 60 * 60 * 24;
 	
+	/**
+	 * The longest that streaming Mobility points may hold a database 
+	 * connection. A client that reads the export slowly fails it after this
+	 * long rather than holding the connection for as long as it likes.
+	 */
+	public static final long MAX_STREAMING_MILLIS = 1000L * 60 * 10;
+	
 	// Retrieves the ID for all of the Mobility points that belong to a user.
 	private static final String SQL_GET_IDS_FOR_USER = 
 		"SELECT m.uuid " +
@@ -96,6 +105,21 @@ public final class UserMobilityQueries extends AbstractUploadQuery implements IU
 		"AND u.id = m.user_id " +
 		"AND mps.id = m.privacy_state_id";
 	
+	// Retrieves the same columns as SQL_GET_MOBILITY_DATA except that the
+	// sensor data, features, and classifier version are always null, so the
+	// extended table is never read.
+	private static final String SQL_GET_MOBILITY_DATA_WITHOUT_SENSOR_DATA =
+		"SELECT m.uuid, u.username, m.client, " +
+			"m.epoch_millis, m.upload_timestamp, " +
+			"m.phone_timezone, m.location_status, m.location, " +
+			"m.mode, mps.privacy_state, " +
+			"NULL AS sensor_data, NULL AS features, " +
+			"NULL AS classifier_version " +
+		"FROM user u, mobility_privacy_state mps, mobility m " +
+		"WHERE u.username = ? " +
+		"AND u.id = m.user_id " +
+		"AND mps.id = m.privacy_state_id";
+	
 	// Adds a WHERE clause limiting the results to only those on or after a 
 	// date represented by the number of milliseconds since the epoch.
 	private static final String SQL_WHERE_ON_OR_AFTER_DATE =
@@ -369,6 +393,7 @@ public final class UserMobilityQueries extends AbstractUploadQuery implements IU
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
+				recordWrite();
 			}
 			catch(TransactionException e) {
 				transactionManager.rollback(status);
@@ -459,8 +484,165 @@ public final class UserMobilityQueries extends AbstractUploadQuery implements IU
 			final Mode mode)
 			throws DataAccessException {
 
-		StringBuilder sqlBuilder = new StringBuilder(SQL_GET_MOBILITY_DATA);
 		List<Object> parameters = new LinkedList<Object>();
+		String sql =
+			buildMobilityInformationSql(
+				SQL_GET_MOBILITY_DATA,
+				parameters,
+				username, 
+				startDate, 
+				endDate, 
+				privacyState, 
+				locationStatus, 
+				mode);
+		
+		try {
+			return getReadJdbcTemplate().query(
+					sql,
+					parameters.toArray(),
+					new RowMapper<MobilityPoint>() {
+						@Override
+						public MobilityPoint mapRow(ResultSet rs, int rowNum) throws SQLException {
+							return mapMobilityPoint(rs);
+						}
+					}
+				);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" +
+							sql + 
+						"' with parameters: " + 
+							parameters,
+					e);
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.query.IUserMobilityQueries#processMobilityInformation(java.lang.String, org.joda.time.DateTime, org.joda.time.DateTime, org.ohmage.domain.MobilityPoint.PrivacyState, org.ohmage.domain.MobilityPoint.LocationStatus, org.ohmage.domain.MobilityPoint.Mode, boolean, org.ohmage.domain.MobilityPoint.Handler)
+	 */
+	@Override
+	public void processMobilityInformation(
+			final String username,
+			final DateTime startDate, 
+			final DateTime endDate, 
+			final PrivacyState privacyState,
+			final LocationStatus locationStatus, 
+			final Mode mode,
+			final boolean withSensorData,
+			final MobilityPoint.Handler handler)
+			throws DataAccessException {
+		
+		if(handler == null) {
+			throw new DataAccessException("The handler is null.");
+		}
+		
+		final long deadline = System.currentTimeMillis() + MAX_STREAMING_MILLIS;
+		final List<Object> parameters = new LinkedList<Object>();
+		final String sql =
+			buildMobilityInformationSql(
+				(withSensorData) ?
+					SQL_GET_MOBILITY_DATA :
+					SQL_GET_MOBILITY_DATA_WITHOUT_SENSOR_DATA,
+				parameters,
+				username, 
+				startDate, 
+				endDate, 
+				privacyState, 
+				locationStatus, 
+				mode);
+		
+		try {
+			getReadJdbcTemplate().query(
+					new PreparedStatementCreator() {
+						/**
+						 * Creates a statement whose results are streamed
+						 * from the database one row at a time rather than
+						 * all being read into memory when it is executed.
+						 */
+						@Override
+						public PreparedStatement createPreparedStatement(
+								final Connection connection)
+								throws SQLException {
+							
+							PreparedStatement ps =
+								connection.prepareStatement(
+									sql,
+									ResultSet.TYPE_FORWARD_ONLY,
+									ResultSet.CONCUR_READ_ONLY);
+							ps.setFetchSize(Integer.MIN_VALUE);
+							
+							int index = 1;
+							for(Object parameter : parameters) {
+								ps.setObject(index++, parameter);
+							}
+							
+							return ps;
+						}
+					},
+					new RowCallbackHandler() {
+						@Override
+						public void processRow(
+								final ResultSet rs)
+								throws SQLException {
+							
+							// Failing stops the writes to the client, and the
+							// driver then discards the rest of the rows and
+							// releases the connection.
+							if(System.currentTimeMillis() > deadline) {
+								throw new SQLException(
+									"Streaming the points took longer than " +
+										MAX_STREAMING_MILLIS + "ms.");
+							}
+							
+							try {
+								handler.handle(mapMobilityPoint(rs));
+							}
+							catch(DomainException e) {
+								throw new SQLException(
+									"The point could not be handled.",
+									e);
+							}
+							catch(IOException e) {
+								throw new SQLException(
+									"The point could not be written.",
+									e);
+							}
+						}
+					}
+				);
+		}
+		catch(org.springframework.dao.DataAccessException e) {
+			throw new DataAccessException(
+					"Error executing SQL '" +
+							sql + 
+						"' with parameters: " + 
+							parameters,
+					e);
+		}
+	}
+	
+	/**
+	 * Builds the query for Mobility points with the optional restrictions.
+	 * 
+	 * @param select The query without any of the optional restrictions.
+	 * 
+	 * @param parameters The list to which the query's parameters are added.
+	 * 
+	 * @return The query.
+	 */
+	private static String buildMobilityInformationSql(
+			final String select,
+			final List<Object> parameters,
+			final String username,
+			final DateTime startDate, 
+			final DateTime endDate, 
+			final PrivacyState privacyState,
+			final LocationStatus locationStatus, 
+			final Mode mode) {
+		
+		StringBuilder sqlBuilder = new StringBuilder(select);
 		parameters.add(username);
 		
 		if(startDate != null) {
@@ -486,64 +668,63 @@ public final class UserMobilityQueries extends AbstractUploadQuery implements IU
 		
 		sqlBuilder.append(SQL_ORDER_BY_DATE);
 		
+		return sqlBuilder.toString();
+	}
+	
+	/**
+	 * Creates a Mobility point from the current row of a result set from
+	 * {@link #SQL_GET_MOBILITY_DATA} or 
+	 * {@link #SQL_GET_MOBILITY_DATA_WITHOUT_SENSOR_DATA}.
+	 * 
+	 * @param rs The result set.
+	 * 
+	 * @return The Mobility point.
+	 * 
+	 * @throws SQLException The row could not be read or was malformed.
+	 */
+	private static MobilityPoint mapMobilityPoint(
+			final ResultSet rs) 
+			throws SQLException {
+		
 		try {
-			return getJdbcTemplate().query(
-					sqlBuilder.toString(),
-					parameters.toArray(),
-					new RowMapper<MobilityPoint>() {
-						@Override
-						public MobilityPoint mapRow(ResultSet rs, int rowNum) throws SQLException {
-							try {
-								JSONObject location = null;
-								String locationString = rs.getString("location");
-								if(locationString != null) {
-									location = new JSONObject(locationString);
-								}
-								
-								JSONObject sensorData = null;
-								String sensorDataString = rs.getString("sensor_data");
-								if(sensorDataString != null) {
-									sensorData = new JSONObject(sensorDataString);
-								}
-								
-								JSONObject features = null;
-								String featuresString = rs.getString("features");
-								if(featuresString != null) {
-									features = new JSONObject(featuresString);
-								}
-								
-								return new MobilityPoint(
-										UUID.fromString(rs.getString("uuid")),
-										rs.getLong("epoch_millis"),
-										DateTimeZone.forID(rs.getString("phone_timezone")),
-										LocationStatus.valueOf(rs.getString("location_status").toUpperCase()),
-										location,
-										Mode.valueOf(rs.getString("mode").toUpperCase()),
-										MobilityPoint.PrivacyState.getValue(rs.getString("privacy_state")),
-										sensorData,
-										features,
-										rs.getString("classifier_version"));
-							}
-							catch(JSONException e) {
-								throw new SQLException("Error building a JSONObject.", e);
-							}
-							catch(DomainException e) {
-								throw new SQLException("Error building the MobilityInformation object. This suggests malformed data in the database.", e);
-							}
-							catch(IllegalArgumentException e) {
-								throw new SQLException("Error building the MobilityInformation object. This suggests malformed data in the database.", e);
-							}
-						}
-					}
-				);
+			JSONObject location = null;
+			String locationString = rs.getString("location");
+			if(locationString != null) {
+				location = new JSONObject(locationString);
+			}
+			
+			JSONObject sensorData = null;
+			String sensorDataString = rs.getString("sensor_data");
+			if(sensorDataString != null) {
+				sensorData = new JSONObject(sensorDataString);
+			}
+			
+			JSONObject features = null;
+			String featuresString = rs.getString("features");
+			if(featuresString != null) {
+				features = new JSONObject(featuresString);
+			}
+			
+			return new MobilityPoint(
+					UUID.fromString(rs.getString("uuid")),
+					rs.getLong("epoch_millis"),
+					DateTimeZone.forID(rs.getString("phone_timezone")),
+					LocationStatus.valueOf(rs.getString("location_status").toUpperCase()),
+					location,
+					Mode.valueOf(rs.getString("mode").toUpperCase()),
+					MobilityPoint.PrivacyState.getValue(rs.getString("privacy_state")),
+					sensorData,
+					features,
+					rs.getString("classifier_version"));
 		}
-		catch(org.springframework.dao.DataAccessException e) {
-			throw new DataAccessException(
-					"Error executing SQL '" +
-							sqlBuilder.toString() + 
-						"' with parameters: " + 
-							parameters,
-					e);
+		catch(JSONException e) {
+			throw new SQLException("Error building a JSONObject.", e);
+		}
+		catch(DomainException e) {
+			throw new SQLException("Error building the MobilityInformation object. This suggests malformed data in the database.", e);
+		}
+		catch(IllegalArgumentException e) {
+			throw new SQLException("Error building the MobilityInformation object. This suggests malformed data in the database.", e);
 		}
 	}
 	
@@ -579,7 +760,7 @@ public final class UserMobilityQueries extends AbstractUploadQuery implements IU
 		sqlBuilder.append(SQL_ORDER_BY_DATE);
 		
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					sqlBuilder.toString(),
 					parameters.toArray(),
 					new RowMapper<MobilityAggregatePoint>() {
@@ -634,7 +815,7 @@ public final class UserMobilityQueries extends AbstractUploadQuery implements IU
 		parameters.add(endDate.getMillis());
 		
 		try {
-			return getJdbcTemplate().query(
+			return getReadJdbcTemplate().query(
 					SQL_GET_MIN_MAX_MILLIS_FOR_USER_WITHIN_RANGE_GROUPED_BY_TIME_AND_TIMEZONE, 
 					parameters.toArray(),
 					new ResultSetExtractor<Set<DateTime>>() {
@@ -741,7 +922,7 @@ public final class UserMobilityQueries extends AbstractUploadQuery implements IU
 			final List<String> nonNullLocations = new LinkedList<String>();
 			final List<String> allLocations = new LinkedList<String>();
 			
-			getJdbcTemplate().query(
+			getReadJdbcTemplate().query(
 					SQL_GET_MOBILITY_DATA, 
 					new Object[] { username }, 
 					new RowMapper<Object>() {
@@ -830,6 +1011,7 @@ public final class UserMobilityQueries extends AbstractUploadQuery implements IU
 			// Commit the transaction.
 			try {
 				transactionManager.commit(status);
+				recordWrite();
 			}
 			catch(TransactionException e) {
 				transactionManager.rollback(status);
@@ -26,6 +26,7 @@ import java.util.List;
 import javax.sql.DataSource;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.cache.PreferenceCache;
 import org.ohmage.domain.Clazz;
 import org.ohmage.domain.UserInformation;
@@ -2334,6 +2335,8 @@ public class UserQueries extends Query implements IUserQueries {
 				transactionManager.rollback(status);
 				throw new DataAccessException("Error while committing the transaction.", e);
 			}
+
+			AuthorizationCache.invalidateUser(username);
 		}
 		catch(TransactionException e) {
 			throw new DataAccessException("Error while attempting to rollback the transaction.", e);
@@ -2548,6 +2551,8 @@ public class UserQueries extends Query implements IUserQueries {
 				transactionManager.rollback(status);
 				throw new DataAccessException("Error while committing the transaction.", e);
 			}
+
+			AuthorizationCache.invalidateUsers(usernames);
 		}
 		catch(TransactionException e) {
 			throw new DataAccessException("Error while attempting to rollback the transaction.", e);
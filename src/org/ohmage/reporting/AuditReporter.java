@@ -20,7 +20,6 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Calendar;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,20 +28,20 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
-import org.json.JSONException;
-import org.json.JSONObject;
+import org.ohmage.cache.AuditRollupCache;
 import org.ohmage.cache.PreferenceCache;
-import org.ohmage.domain.Audit;
+import org.ohmage.domain.AuditRollup;
+import org.ohmage.domain.AuditRollup.EntityReadCount;
+import org.ohmage.domain.AuditRollup.EntityType;
 import org.ohmage.exception.CacheMissException;
 import org.ohmage.exception.ServiceException;
-import org.ohmage.request.InputKeys;
 import org.ohmage.request.RequestBuilder;
 import org.ohmage.service.AuditServices;
 import org.ohmage.util.DateTimeUtils;
 
 /**
  * Begins on server startup and creates a daily snapshot of some information
- * from the audit table.
+ * from the audit rollups.
  * 
  * @author John Jenkins
  */
@@ -83,18 +82,21 @@ public final class AuditReporter {
 			
 			DateTime startDate = endDate.minusDays(1);
 			
-			// Use the service to aggregate the results.
-			List<Audit> audits;
+			// Make sure every minute of the previous day has been persisted.
+			AuditRollupCache.flush(false);
+			
+			// Use the service to retrieve the day's totals.
+			List<AuditRollup> rollups;
+			List<EntityReadCount> entityReads;
 			try {
-				audits = AuditServices.instance().getAuditInformation(
-						null, 
-						null, 
-						null, 
-						null, 
-						null, 
-						null, 
-						startDate, 
-						endDate);
+				rollups = 
+					AuditServices
+						.instance()
+						.getAuditRollups(startDate, endDate, null, null, true);
+				entityReads =
+					AuditServices
+						.instance()
+						.getAuditEntityReads(startDate, endDate);
 			}
 			catch(ServiceException e) {
 				LOGGER
@@ -110,92 +112,64 @@ public final class AuditReporter {
 			long numberOfFailedValidRequests = 0;
 			long timeToProcessValidRequests = 0;
 
-			Map<String, Integer> numberUriRequests = new HashMap<String, Integer>();
-			Map<String, Integer> numberCampaignReads = new HashMap<String, Integer>();
-			Map<String, Integer> numberClassReads = new HashMap<String, Integer>();
+			Map<String, Long> numberUriRequests = new HashMap<String, Long>();
+			Map<String, Long> numberCampaignReads = new HashMap<String, Long>();
+			Map<String, Long> numberClassReads = new HashMap<String, Long>();
 			
-			// Cycle through all of the audit entries.
-			for(Audit audit : audits) {
+			// Cycle through the totals for each URI, client, and response 
+			// code.
+			for(AuditRollup rollup : rollups) {
 				// First, get the URI and determine if the request is even 
 				// valid.
-				String uri = audit.getUri();
+				String uri = rollup.getUri();
+				long count = rollup.getCount();
 				
 				// Either way, make a note of it in the list of URIs.
-				Integer uriCount = numberUriRequests.get(uri);
+				Long uriCount = numberUriRequests.get(uri);
 				if(uriCount == null) {
-					numberUriRequests.put(uri, 1);
+					numberUriRequests.put(uri, count);
 				}
 				else {
-					numberUriRequests.put(uri, uriCount + 1);
+					numberUriRequests.put(uri, uriCount + count);
 				}
 				
 				// If the request is known, note it and continue processing.
 				if(RequestBuilder.getInstance().knownUri(uri)) {
-					numberOfValidRequests++;
+					numberOfValidRequests += count;
 					
-					// Calculate the time it took to process the request.
-					timeToProcessValidRequests += audit.getRespondedMillis() - audit.getReceivedMillis();
+					// Add the time it took to process the requests.
+					timeToProcessValidRequests += rollup.getTotalMillis();
 					
-					// Get the audit's response. If there is an issue parsing
-					// the response, note it and continue to the next audit.
-					JSONObject response = audit.getResponse();
-					String result;
-					try {
-						result = response.getString("result");
-					}
-					catch(JSONException e) {
+					// If the response couldn't be decoded, it is neither a
+					// success nor a failure.
+					if(AuditRollup.RESPONSE_CODE_UNKNOWN.equals(
+						rollup.getResponseCode())) {
+						
 						LOGGER.error("Error reading an audit's response.");
-						continue;
 					}
-					
-					// If the request was successful, continue evaluating the
-					// audit to see if any other substantial data was returned.
-					if("success".equals(result)) {
-						numberOfSuccessfulValidRequests++;
-						
-						// Check if it's a class read request.
-						if(RequestBuilder.getInstance().getApiClassRead().equals(uri) ||
-								RequestBuilder.getInstance().getApiClassRosterRead().equals(uri)) {
-							// Get the class ID parameter if it exists.
-							Collection<String> classIdCollection = audit.getExtras(InputKeys.CLASS_URN);
-							if(classIdCollection != null) {
-								for(String classId : classIdCollection) {
-									Integer count = numberClassReads.get(classId);
-									if(count == null) {
-										numberClassReads.put(classId, 1);
-									}
-									else {
-										numberClassReads.put(classId, count + 1);
-									}
-								}
-							}
-						}
-						// Check if it's a campaign read request.
-						else if(RequestBuilder.getInstance().getApiCampaignRead().equals(uri)) {
-							Collection<String> campaignIdCollection = audit.getExtras(InputKeys.CAMPAIGN_URN);
-							if(campaignIdCollection != null) {
-								for(String campaignId : campaignIdCollection) {
-									Integer count = numberCampaignReads.get(campaignId);
-									if(count == null) {
-										numberCampaignReads.put(campaignId, 1);
-									}
-									else {
-										numberCampaignReads.put(campaignId, count + 1);
-									}
-								}
-							}
-						}
+					else if(rollup.isSuccess()) {
+						numberOfSuccessfulValidRequests += count;
 					}
-					// If the request was unsuccessful, note it and move on to
-					// the next request.
 					else {
-						numberOfFailedValidRequests++;
+						numberOfFailedValidRequests += count;
 					}
 				}
 				// If the request is unknown, note it and move on to the next
 				// request.
 				else {
-					numberOfInvalidRequests++;
+					numberOfInvalidRequests += count;
+				}
+			}
+			
+			// Cycle through the successful campaign and class reads.
+			for(EntityReadCount entityRead : entityReads) {
+				if(EntityType.CAMPAIGN.equals(entityRead.getEntityType())) {
+					numberCampaignReads
+						.put(entityRead.getEntityId(), entityRead.getCount());
+				}
+				else if(EntityType.CLASS.equals(entityRead.getEntityType())) {
+					numberClassReads
+						.put(entityRead.getEntityId(), entityRead.getCount());
 				}
 			}
 			
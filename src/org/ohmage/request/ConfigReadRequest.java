@@ -62,7 +62,7 @@ public class ConfigReadRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Gathering information about the system.");
+		LOGGER.debug("Gathering information about the system.");
 		
 		try {
 			result = ConfigServices.readServerConfiguration();
@@ -78,7 +78,7 @@ public class ConfigReadRequest extends Request {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Writing configuration read response.");
+		LOGGER.debug("Writing configuration read response.");
 		
 		try {
 			JSONObject response = new JSONObject();
@@ -115,6 +115,8 @@ public final class InputKeys {
 	public static final String IMAGES = "images";
 	public static final String IMAGE_OWNER = "owner";
 	public static final String IMAGE_SIZE = "size";
+	public static final String IMAGE_ZIP_PART = "part";
+	public static final String IMAGE_ZIP_PART_SIZE = "images_per_part";
 	
 	// Video Constants
 	public static final String VIDEO_ID = "video_id";
@@ -223,6 +225,7 @@ public final class InputKeys {
 	public static final String AUDIT_ERROR_CODE = "error_code";
 	public static final String AUDIT_START_DATE = "start_date";
 	public static final String AUDIT_END_DATE = "end_date";
+	public static final String AUDIT_AGGREGATE = "aggregate";
 	
 	// Annotation Constants
 	public static final String ANNOTATION_TEXT = "annotation";
@@ -250,6 +253,7 @@ public final class InputKeys {
 	public static final String OMH_NUM_TO_RETURN = "num_to_return";
 	public static final String OMH_OWNER = "owner";
 	public static final String OMH_DATA = "data";
+	public static final String OMH_READ_REQUESTS = "requests";
 	
 	// Separator Constants
 	public static final String LIST_ITEM_SEPARATOR = ",";
@@ -16,18 +16,20 @@
 package org.ohmage.request;
 
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -44,6 +46,7 @@ import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.exception.InvalidRequestException;
 import org.ohmage.exception.ValidationException;
 import org.ohmage.jee.filter.GzipFilter;
+import org.ohmage.jee.filter.StreamedParameter;
 import org.ohmage.jee.servlet.RequestServlet;
 import org.springframework.util.CollectionUtils;
 
@@ -116,6 +119,8 @@ public abstract class Request {
 	private static final String KEY_AUDIT_REQUESTER_INTERNET_ADDRESS = 
 			"requester_inet_addr";
 	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
 	/**
 	 * The value our Android app uses when setting the client parameter for
 	 * each request.
@@ -126,6 +131,7 @@ public abstract class Request {
 	private boolean failed;
 	
 	private final Map<String, String[]> parameters;
+	private final Map<String, List<StreamedParameter>> streamedParameters;
 	private final String requesterInetAddr; 
 	
 	/**
@@ -155,6 +161,8 @@ public abstract class Request {
 		failed = false;
 
 		Map<String, String[]> tParameters = new HashMap<String, String[]>();
+		Map<String, List<StreamedParameter>> tStreamedParameters = 
+			Collections.emptyMap();
 		String tRequesterInetAddr = null;
 		try {
 			if(httpRequest != null) {
@@ -202,12 +210,30 @@ public abstract class Request {
 				else {
 					tParameters = parameters;
 				}
+				
+				// Get the large values that the GZIP filter kept as streams.
+				if(parameters == null) {
+					Object streamedObject =
+						httpRequest
+							.getAttribute(
+								GzipFilter.ATTRIBUTE_KEY_STREAMED_PARAMETERS);
+					if(streamedObject instanceof Map) {
+						tStreamedParameters = 
+							(Map<String, List<StreamedParameter>>) 
+								streamedObject;
+					}
+				}
+				
 				// HT iterates through the param map
 				//LOGGER.debug("HT: About to iterate through the param map");	
-				for (Map.Entry<String,String[]> entry : tParameters.entrySet()) {
-				    String key = entry.getKey();
-				    String[] value = entry.getValue();
-				    LOGGER.debug("HT:" + key + " : " + Arrays.toString(value));
+				// Uploads can be megabytes, so only stringify them when they
+				// will actually be logged.
+				if(LOGGER.isDebugEnabled()) {
+					for (Map.Entry<String,String[]> entry : tParameters.entrySet()) {
+					    String key = entry.getKey();
+					    String[] value = entry.getValue();
+					    LOGGER.debug("HT:" + key + " : " + Arrays.toString(value));
+					}
 				}
 			}
 		}
@@ -218,6 +244,7 @@ public abstract class Request {
 		}
 		
 		this.parameters = tParameters;
+		this.streamedParameters = tStreamedParameters;
 		this.requesterInetAddr = tRequesterInetAddr;
 	}
 	
@@ -315,6 +342,9 @@ public abstract class Request {
 	
 	/**
 	 * Returns an array of all of the values from a parameter in the request.
+	 * Large values that were decoded as streams are copied into strings, so
+	 * requests that accept large values should use 
+	 * {@link #getParameterStreams(String)} instead.
 	 * 
 	 * @param parameterKey The key to use to lookup the parameter value.
 	 * 
@@ -330,6 +360,55 @@ public abstract class Request {
 		if(result == null) {
 			result = new String[0];
 		}
+		
+		List<StreamedParameter> streamed = 
+			streamedParameters.get(parameterKey);
+		if(streamed != null) {
+			String[] combined = 
+				Arrays.copyOf(result, result.length + streamed.size());
+			int i = result.length;
+			for(StreamedParameter value : streamed) {
+				combined[i++] = value.toString();
+			}
+			result = combined;
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns all of the values from a parameter in the request as streams
+	 * of their UTF-8 bytes. Large values that were decoded as streams are
+	 * read without being copied.
+	 * 
+	 * @param parameterKey The key to use to lookup the parameter value.
+	 * 
+	 * @return An array of streams, one for each value given for the 
+	 * 		   parameter. The array may be empty, but will never be null.
+	 */
+	protected InputStream[] getParameterStreams(String parameterKey) {
+		if(parameterKey == null) {
+			return new InputStream[0];
+		}
+		
+		String[] values = parameters.get(parameterKey);
+		if(values == null) {
+			values = new String[0];
+		}
+		List<StreamedParameter> streamed = 
+			streamedParameters.get(parameterKey);
+		
+		InputStream[] result = 
+			new InputStream[
+				values.length + ((streamed == null) ? 0 : streamed.size())];
+		int i = 0;
+		for(String value : values) {
+			result[i++] = new ByteArrayInputStream(value.getBytes(UTF_8));
+		}
+		if(streamed != null) {
+			for(StreamedParameter value : streamed) {
+				result[i++] = value.getInputStream();
+			}
+		}
 		return result;
 	}
 	
@@ -531,6 +610,12 @@ public abstract class Request {
 		// point we can attempt to use the servlet container's deserialization
 		// of the parameters.
 		catch(ServletException e) {
+			// A large value from a GZIP'd request is only available here.
+			List<StreamedParameter> streamed = streamedParameters.get(key);
+			if((streamed != null) && (! streamed.isEmpty())) {
+				return streamed.get(0).toByteArray();
+			}
+			
 			// Get the parameter.
 			String result = httpRequest.getParameter(key);
 			
@@ -654,10 +739,67 @@ public abstract class Request {
 	     // client in a local sandbox, but retrieve data from a remote server
 	     //response.setHeader("Access-Control-Allow-Origin","*");
 	}
-	
+
+	/**
+	 * Sets the response headers to allow the client to keep a copy of the
+	 * response but to require it to check with the server, by sending the
+	 * entity tag in an If-None-Match header, before each use.
+	 *
+	 * @param response The response.
+	 *
+	 * @param eTag The response's quoted entity tag.
+	 */
+	protected void revalidateResponse(
+			final HttpServletResponse response,
+			final String eTag) {
+
+		response.setHeader("Expires", "Fri, 5 May 1995 12:00:00 GMT");
+		response.setHeader("Cache-Control", "private, no-cache");
+		response.setHeader("ETag", eTag);
+	}
+
 	/**
-	 * There is functionality in Tomcat 6 to perform this action, but it is 
-	 * also nice to have it controlled programmatically.
+	 * Returns whether or not an If-None-Match header matches an entity tag,
+	 * i.e. whether or not the client's copy of the response is current. As
+	 * HTTP requires for If-None-Match, weak entity tags match their strong
+	 * counterparts.
+	 *
+	 * @param ifNoneMatch The value of the If-None-Match header, which may be
+	 * 					  null.
+	 *
+	 * @param eTag The current quoted entity tag.
+	 *
+	 * @return Whether or not the header lists the entity tag or is "*".
+	 */
+	protected static boolean eTagMatches(
+			final String ifNoneMatch,
+			final String eTag) {
+
+		if((ifNoneMatch == null) || (eTag == null)) {
+			return false;
+		}
+
+		for(String candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.trim();
+			if("*".equals(candidate)) {
+				return true;
+			}
+			if(candidate.startsWith("W/")) {
+				candidate = candidate.substring(2);
+			}
+			if(candidate.equals(eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the stream to which the response's body should be written. The
+	 * {@link ResponseEncoder} decides whether or not to compress it based on
+	 * the request's Accept-Encoding header and the response's content type 
+	 * and size, so the content type must be set before anything is written.
+	 * The stream must be closed.
 	 * 
 	 * @return an OutputStream appropriate for the headers found in the 
 	 * request.
@@ -665,30 +807,12 @@ public abstract class Request {
 	protected OutputStream getOutputStream(HttpServletRequest request, HttpServletResponse response) 
 		throws IOException {
 		
-		OutputStream os = null; 
-		
-		// Determine if the response can be gzipped
-		String encoding = request.getHeader("Accept-Encoding");
-		if (encoding != null && encoding.indexOf("gzip") >= 0) {
-            
-			if(LOGGER.isDebugEnabled()) {
-				LOGGER.debug("Returning a GZIPOutputStream");
-			}
-			
-            response.setHeader("Content-Encoding","gzip");
-            response.setHeader("Vary", "Accept-Encoding");
-            os = new GZIPOutputStream(response.getOutputStream());
-		
-		} else {
-			
-			if(LOGGER.isDebugEnabled()) {
-				LOGGER.debug("Returning the default OutputStream");
-			}
-			
-			os = response.getOutputStream();
+		ResponseEncoder encoder = ResponseEncoder.instance();
+		if(encoder == null) {
+			return response.getOutputStream();
 		}
 		
-		return os;
+		return encoder.getOutputStream(request, response);
 	}
 	/**************************************************************************
 	 *  End JEE Requirements
@@ -16,6 +16,10 @@
 package org.ohmage.request;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -29,7 +33,11 @@ import org.ohmage.request.accessrequest.AccessRequestDeletionRequest;
 import org.ohmage.request.accessrequest.AccessRequestReadRequest;
 import org.ohmage.request.accessrequest.AccessRequestUpdateRequest;
 import org.ohmage.request.audio.AudioReadRequest;
+import org.ohmage.request.audit.AuditMailOutboxReadRequest;
+import org.ohmage.request.audit.AuditQueryStatisticsReadRequest;
 import org.ohmage.request.audit.AuditReadRequest;
+import org.ohmage.request.audit.AuditRouteMetricsReadRequest;
+import org.ohmage.request.audit.AuditSummaryReadRequest;
 import org.ohmage.request.auth.AuthRequest;
 import org.ohmage.request.auth.AuthTokenLogoutRequest;
 import org.ohmage.request.auth.AuthTokenRequest;
@@ -55,6 +63,7 @@ import org.ohmage.request.document.DocumentUpdateRequest;
 import org.ohmage.request.image.ImageBatchZipReadRequest;
 import org.ohmage.request.image.ImageReadRequest;
 import org.ohmage.request.media.MediaReadRequest;
+import org.ohmage.request.media.MediaStorageMigrationRequest;
 import org.ohmage.request.mobility.MobilityAggregateReadRequest;
 import org.ohmage.request.mobility.MobilityDatesReadRequest;
 import org.ohmage.request.mobility.MobilityReadChunkedRequest;
@@ -69,6 +78,7 @@ import org.ohmage.request.observer.StreamReadInvalidRequest;
 import org.ohmage.request.observer.StreamReadRequest;
 import org.ohmage.request.observer.StreamUploadRequest;
 import org.ohmage.request.omh.OmhAuthenticateRequest;
+import org.ohmage.request.omh.OmhBatchReadRequest;
 import org.ohmage.request.omh.OmhCatalogRequest;
 import org.ohmage.request.omh.OmhReadRequest;
 import org.ohmage.request.omh.OmhRegistryCreateRequest;
@@ -79,12 +89,14 @@ import org.ohmage.request.registration.RegistrationReadRequest;
 import org.ohmage.request.survey.SurveyResponseDeleteRequest;
 import org.ohmage.request.survey.SurveyResponseFunctionReadRequest;
 import org.ohmage.request.survey.SurveyResponseReadRequest;
+import org.ohmage.request.survey.SurveyResponseSearchIndexRebuildRequest;
 import org.ohmage.request.survey.SurveyResponseUpdateRequest;
 import org.ohmage.request.survey.SurveyUploadRequest;
 import org.ohmage.request.survey.annotation.AnnotationDeleteRequest;
 import org.ohmage.request.survey.annotation.AnnotationUpdateRequest;
 import org.ohmage.request.survey.annotation.PromptResponseAnnotationCreationRequest;
 import org.ohmage.request.survey.annotation.PromptResponseAnnotationReadRequest;
+import org.ohmage.request.survey.annotation.SurveyResponseAnnotationBatchReadRequest;
 import org.ohmage.request.survey.annotation.SurveyResponseAnnotationCreationRequest;
 import org.ohmage.request.survey.annotation.SurveyResponseAnnotationReadRequest;
 import org.ohmage.request.user.UserActivationRequest;
@@ -131,6 +143,7 @@ public final class RequestBuilder implements ServletContextAware {
 	private String apiAnnotationPromptResponseRead;
 	private String apiAnnotationSurveyResponseCreate;
 	private String apiAnnotationSurveyResponseRead;
+	private String apiAnnotationSurveyResponseBatchRead;
 	private String apiAnnotationUpdate;
 	private String apiAnnotationDelete;
 	
@@ -139,6 +152,10 @@ public final class RequestBuilder implements ServletContextAware {
 	
 	// Audit
 	private String apiAuditRead;
+	private String apiAuditSummaryRead;
+	private String apiAuditQueryStatisticsRead;
+	private String apiAuditRouteMetricsRead;
+	private String apiAuditMailOutboxRead;
 	
 	// Authentication
 	private String apiUserAuth;
@@ -179,6 +196,7 @@ public final class RequestBuilder implements ServletContextAware {
 	
 	// Media  
 	private String apiMediaRead;
+	private String apiMediaStorageMigrate;
 	
 	// Mobility
 	private String apiMobilityUpload;
@@ -205,6 +223,7 @@ public final class RequestBuilder implements ServletContextAware {
 	private String apiOmhRegistryUpdate;
 	private String apiOmhCatalog;
 	private String apiOmhRead;
+	private String apiOmhBatchRead;
 	private String apiOmhWrite;
 	
 	// Survey
@@ -213,6 +232,7 @@ public final class RequestBuilder implements ServletContextAware {
 	private String apiSurveyResponseRead;
 	private String apiSurveyResponseUpdate;
 	private String apiSurveyResponseFunctionRead;
+	private String apiSurveyResponseSearchIndexRebuild;
 	
 	// User
 	private String apiUserCreate;
@@ -254,6 +274,10 @@ public final class RequestBuilder implements ServletContextAware {
 	private String apiVisualizationSurveyResponsePrivacy;
 	private String apiVisualizationSurveyResponsePrivacyTimeseries;
 	
+	// The route for each URI. This is only modified when the URIs are set.
+	private final Map<String, RequestRoute> routes = 
+		new HashMap<String, RequestRoute>();
+	
 	private static RequestBuilder singleton;
 
 	/**
@@ -293,6 +317,7 @@ public final class RequestBuilder implements ServletContextAware {
 		apiAnnotationPromptResponseRead = apiRoot + "/annotation/prompt_response/read";
 		apiAnnotationSurveyResponseCreate = apiRoot + "/annotation/survey_response/create";
 		apiAnnotationSurveyResponseRead = apiRoot + "/annotation/survey_response/read";
+		apiAnnotationSurveyResponseBatchRead = apiRoot + "/annotation/survey_response/batch_read";
 		apiAnnotationUpdate = apiRoot + "/annotation/update";
 		apiAnnotationDelete = apiRoot + "/annotation/delete";
 		
@@ -301,6 +326,10 @@ public final class RequestBuilder implements ServletContextAware {
 		
 		// Audit
 		apiAuditRead = apiRoot + "/audit/read";
+		apiAuditSummaryRead = apiRoot + "/audit/summary";
+		apiAuditQueryStatisticsRead = apiRoot + "/audit/query_statistics";
+		apiAuditRouteMetricsRead = apiRoot + "/audit/route_metrics";
+		apiAuditMailOutboxRead = apiRoot + "/audit/mail_outbox";
 		
 		// Authentication
 		apiUserAuth = apiRoot + "/user/auth";
@@ -341,6 +370,7 @@ public final class RequestBuilder implements ServletContextAware {
 		
 		// Media
 		apiMediaRead = apiRoot + "/media/read";
+		apiMediaStorageMigrate = apiRoot + "/media/storage/migrate";
 		
 		// Mobility
 		apiMobilityUpload = apiRoot + "/mobility/upload";
@@ -367,6 +397,7 @@ public final class RequestBuilder implements ServletContextAware {
 		apiOmhRegistryUpdate = apiRoot + "/omh/v1.0/registry/update";
 		apiOmhCatalog = apiRoot + "/omh/v1.0/catalog";
 		apiOmhRead = apiRoot + "/omh/v1.0/read";
+		apiOmhBatchRead = apiRoot + "/omh/v1.0/read/batch";
 		apiOmhWrite = apiRoot + "/omh/v1.0/write";
 		
 		// Survey
@@ -375,6 +406,7 @@ public final class RequestBuilder implements ServletContextAware {
 		apiSurveyResponseRead = apiRoot + "/survey_response/read";
 		apiSurveyResponseUpdate = apiRoot + "/survey_response/update";
 		apiSurveyResponseFunctionRead = apiRoot + "/survey_response/function/read";
+		apiSurveyResponseSearchIndexRebuild = apiRoot + "/survey_response/search_index/rebuild";
 		
 		// User
 		apiUserCreate = apiRoot + "/user/create";
@@ -408,355 +440,304 @@ public final class RequestBuilder implements ServletContextAware {
 		apiVisualization2dDensity = apiVisualization + "/2d_density/read";
 		apiVisualizationSurveyResponsePrivacy = apiVisualization + "/survey_responses_privacy_state/read";
 		apiVisualizationSurveyResponsePrivacyTimeseries = apiVisualization + "/survey_responses_privacy_state_time/read";
+		
+		buildRoutes();
 	}
 	
 	/**
-	 * Builds a new request based on the request's URI. This will always return
-	 * a request and will never return null. If the URI is unknown it will 
-	 * return a {@link org.ohmage.request.FailedRequest}.
-	 * 
-	 * @param httpRequest The incoming HTTP request.
-	 * 
-	 * @return A new Request object based on the HTTP request's URI.
-	 * 
-	 * @throws InvalidRequestException Thrown if the parameters cannot be 
-	 * 								   parsed.
-	 * 
-	 * @throws IOException There was an error reading from the request.
+	 * Builds the route for every URI. This must be called after the URIs 
+	 * have been set.
 	 */
-	public Request buildRequest(
-			final HttpServletRequest httpRequest) 
-			throws IOException, InvalidRequestException {
-		
-		String requestUri = httpRequest.getRequestURI();
-		
-		LOGGER.debug(requestUri);
+	private void buildRoutes() {
+		routes.clear();
 		
 		// Config
-		if(apiConfigRead.equals(requestUri)) {
-			return new ConfigReadRequest(httpRequest);
-		}
+		addRoute(apiConfigRead, ConfigReadRequest.class, true);
 		// Authentication
-		else if(apiUserAuth.equals(requestUri)) {
-			try {
-				if (ConfigServices.readServerConfiguration().getLocalAuthEnabled())
-					return new AuthRequest(httpRequest);
-				else {
-					LOGGER.info("Rejecting UserAuth request as API is disabled");
-					return new FailedRequest();
+		addRoute(
+			apiUserAuth,
+			new RequestRoute.Factory() {
+				@Override
+				public Request build(
+						final HttpServletRequest httpRequest)
+						throws IOException, InvalidRequestException {
+					
+					try {
+						if (ConfigServices.readServerConfiguration().getLocalAuthEnabled())
+							return new AuthRequest(httpRequest);
+						else {
+							LOGGER.info("Rejecting UserAuth request as API is disabled");
+							return new FailedRequest();
+						}
+					} catch (ServiceException e) {
+						// Better supports backwards compat by leaving enabled if we can't
+						// find the localauthenabled param
+						LOGGER.warn("Can't find local auth config. Leaving API enabled.", e);
+						return new AuthRequest(httpRequest);
+					}
 				}
-			} catch (ServiceException e) {
-				// Better supports backwards compat by leaving enabled if we can't
-				// find the localauthenabled param
-				LOGGER.warn("Can't find local auth config. Leaving API enabled.", e);
-				return new AuthRequest(httpRequest);
-			}
-		}
-		else if(apiUserAuthToken.equals(requestUri)) {
-			try {
-				if (ConfigServices.readServerConfiguration().getLocalAuthEnabled())
-					return new AuthTokenRequest(httpRequest);
-				else {
-					LOGGER.info("Rejecting UserAuthToken request as API is disabled");
-					return new FailedRequest();
+			},
+			false);
+		addRoute(
+			apiUserAuthToken,
+			new RequestRoute.Factory() {
+				@Override
+				public Request build(
+						final HttpServletRequest httpRequest)
+						throws IOException, InvalidRequestException {
+					
+					try {
+						if (ConfigServices.readServerConfiguration().getLocalAuthEnabled())
+							return new AuthTokenRequest(httpRequest);
+						else {
+							LOGGER.info("Rejecting UserAuthToken request as API is disabled");
+							return new FailedRequest();
+						}
+					} catch (ServiceException e) {
+						// Better supports backwards compat by leaving enabled if we can't
+						// find the localauthenabled param
+						LOGGER.warn("Can't find local auth config. Leaving API enabled.", e);
+						return new AuthTokenRequest(httpRequest);
+					}
 				}
-			} catch (ServiceException e) {
-				// Better supports backwards compat by leaving enabled if we can't
-				// find the localauthenabled param
-				LOGGER.warn("Can't find local auth config. Leaving API enabled.", e);
-				return new AuthTokenRequest(httpRequest);
-			}
-		}
-		else if(apiUserLogout.equals(requestUri)) {
-			return new AuthTokenLogoutRequest(httpRequest);
-		}
-		else if(apiUserWhoAmI.equals(requestUri)) {
-			return new AuthTokenWhoAmIRequest(httpRequest);
-		}
+			},
+			false);
+		addRoute(apiUserLogout, AuthTokenLogoutRequest.class, false);
+		addRoute(apiUserWhoAmI, AuthTokenWhoAmIRequest.class, true);
 		// Annotation
-		else if(apiAnnotationPromptResponseCreate.equals(requestUri)) {
-			return new PromptResponseAnnotationCreationRequest(httpRequest);
-		}
-		else if(apiAnnotationPromptResponseRead.equals(requestUri)) {
-			return new PromptResponseAnnotationReadRequest(httpRequest);
-		}
-		else if(apiAnnotationSurveyResponseCreate.equals(requestUri)) {
-			return new SurveyResponseAnnotationCreationRequest(httpRequest);
-		}
-		else if(apiAnnotationSurveyResponseRead.equals(requestUri)) {
-			return new SurveyResponseAnnotationReadRequest(httpRequest);
-		}
-		else if(apiAnnotationUpdate.equals(requestUri)) {
-			return new AnnotationUpdateRequest(httpRequest);
-		}
-		else if(apiAnnotationDelete.equals(requestUri)) {
-			return new AnnotationDeleteRequest(httpRequest);
-		}
+		addRoute(apiAnnotationPromptResponseCreate, PromptResponseAnnotationCreationRequest.class, false);
+		addRoute(apiAnnotationPromptResponseRead, PromptResponseAnnotationReadRequest.class, false);
+		addRoute(apiAnnotationSurveyResponseCreate, SurveyResponseAnnotationCreationRequest.class, false);
+		addRoute(apiAnnotationSurveyResponseRead, SurveyResponseAnnotationReadRequest.class, false);
+		addRoute(apiAnnotationSurveyResponseBatchRead, SurveyResponseAnnotationBatchReadRequest.class, false);
+		addRoute(apiAnnotationUpdate, AnnotationUpdateRequest.class, false);
+		addRoute(apiAnnotationDelete, AnnotationDeleteRequest.class, false);
 		// Audio
-		else if(apiAudioRead.equals(requestUri)) {
-			return new AudioReadRequest(httpRequest);
-			// direct to mediaReadRequest(httpRequest);
-		}
+		addRoute(apiAudioRead, AudioReadRequest.class, true);
 		// Audit
-		else if(apiAuditRead.equals(requestUri)) {
-			return new AuditReadRequest(httpRequest);
-		}
+		addRoute(apiAuditRead, AuditReadRequest.class, false);
+		addRoute(apiAuditSummaryRead, AuditSummaryReadRequest.class, true);
+		addRoute(apiAuditQueryStatisticsRead, AuditQueryStatisticsReadRequest.class, true);
+		addRoute(apiAuditRouteMetricsRead, AuditRouteMetricsReadRequest.class, true);
+		addRoute(apiAuditMailOutboxRead, AuditMailOutboxReadRequest.class, true);
 		// Campaign
-		else if(apiCampaignAssignment.equals(requestUri)) {
-			return new CampaignAssignmentRequest(httpRequest);
-		}
-		else if(apiCampaignCreate.equals(requestUri)) {
-			return new CampaignCreationRequest(httpRequest);
-		}
-		else if(apiCampaignRead.equals(requestUri)) {
-			return new CampaignReadRequest(httpRequest);
-		}
-		else if(apiCampaignSearch.equals(requestUri)) {
-			return new CampaignSearchRequest(httpRequest);
-		}
-		else if(apiCampaignUpdate.equals(requestUri)) {
-			return new CampaignUpdateRequest(httpRequest);
-		}
-		else if(apiCampaignDelete.equals(requestUri)) {
-			return new CampaignDeletionRequest(httpRequest);
-		}
+		addRoute(apiCampaignAssignment, CampaignAssignmentRequest.class, false);
+		addRoute(apiCampaignCreate, CampaignCreationRequest.class, false);
+		addRoute(apiCampaignRead, CampaignReadRequest.class, false);
+		addRoute(apiCampaignSearch, CampaignSearchRequest.class, false);
+		addRoute(apiCampaignUpdate, CampaignUpdateRequest.class, false);
+		addRoute(apiCampaignDelete, CampaignDeletionRequest.class, false);
 		// Class
-		else if(apiClassCreate.equals(requestUri)) {
-			return new ClassCreationRequest(httpRequest);
-		}
-		else if(apiClassRead.equals(requestUri)) {
-			return new ClassReadRequest(httpRequest);
-		}
-		else if(apiClassRosterRead.equals(requestUri)) {
-			return new ClassRosterReadRequest(httpRequest);
-		}
-		else if(apiClassSearch.equals(requestUri)) {
-			return new ClassSearchRequest(httpRequest);
-		}
-		else if(apiClassUpdate.equals(requestUri)) {
-			return new ClassUpdateRequest(httpRequest);
-		}
-		else if(apiClassRosterUpdate.equals(requestUri)) {
-			return new ClassRosterUpdateRequest(httpRequest);
-		}
-		else if(apiClassDelete.equals(requestUri)) {
-			return new ClassDeletionRequest(httpRequest);
-		}
+		addRoute(apiClassCreate, ClassCreationRequest.class, false);
+		addRoute(apiClassRead, ClassReadRequest.class, false);
+		addRoute(apiClassRosterRead, ClassRosterReadRequest.class, false);
+		addRoute(apiClassSearch, ClassSearchRequest.class, false);
+		addRoute(apiClassUpdate, ClassUpdateRequest.class, false);
+		addRoute(apiClassRosterUpdate, ClassRosterUpdateRequest.class, false);
+		addRoute(apiClassDelete, ClassDeletionRequest.class, false);
 		// Document
-		else if(apiDocumentCreate.equals(requestUri)) {
-			return new DocumentCreationRequest(httpRequest);
-		}
-		else if(apiDocumentRead.equals(requestUri)) {
-			return new DocumentReadRequest(httpRequest);
-		}
-		else if(apiDocumentReadContents.equals(requestUri)) {
-			return new DocumentReadContentsRequest(httpRequest);
-		}
-		else if(apiDocumentUpdate.equals(requestUri)) {
-			return new DocumentUpdateRequest(httpRequest);
-		}
-		else if(apiDocumentDelete.equals(requestUri)) {
-			return new DocumentDeletionRequest(httpRequest);
-		}
+		addRoute(apiDocumentCreate, DocumentCreationRequest.class, false);
+		addRoute(apiDocumentRead, DocumentReadRequest.class, false);
+		addRoute(apiDocumentReadContents, DocumentReadContentsRequest.class, true);
+		addRoute(apiDocumentUpdate, DocumentUpdateRequest.class, false);
+		addRoute(apiDocumentDelete, DocumentDeletionRequest.class, false);
 		// Image
-		else if(apiImageRead.equals(requestUri)) {
-			return new ImageReadRequest(httpRequest);
-		}
-		else if(apiImageBatchZipRead.equals(requestUri)) {
-			return new ImageBatchZipReadRequest(httpRequest);
-		}
-		// apiMediaRead
-		else if(apiMediaRead.equals(requestUri)) {
-			return new MediaReadRequest(httpRequest);
-		}
+		addRoute(apiImageRead, ImageReadRequest.class, true);
+		addRoute(apiImageBatchZipRead, ImageBatchZipReadRequest.class, true);
+		// Media
+		addRoute(apiMediaRead, MediaReadRequest.class, true);
+		addRoute(apiMediaStorageMigrate, MediaStorageMigrationRequest.class, false);
 		// Mobility
-		else if(apiMobilityUpload.equals(requestUri)) {
-			return new MobilityUploadRequest(httpRequest);
-		}
-		else if(apiMobilityRead.equals(requestUri)) {
-			return new MobilityReadRequest(httpRequest);
-		}
-		else if(apiMobilityReadChunked.equals(requestUri)) {
-			return new MobilityReadChunkedRequest(httpRequest);
-		}
-		else if(apiMobilityAggregateRead.equals(requestUri)) {
-			return new MobilityAggregateReadRequest(httpRequest);
-		}
-		else if(apiMobilityDatesRead.equals(requestUri)) {
-			return new MobilityDatesReadRequest(httpRequest);
-		}
-		else if(apiMobilityReadCsv.equals(requestUri)) {
-			return new MobilityReadCsvRequest(httpRequest);
-		}
-		else if(apiMobilityUpdate.equals(requestUri)) {
-			return new MobilityUpdateRequest(httpRequest);
-		}
+		addRoute(apiMobilityUpload, MobilityUploadRequest.class, false);
+		addRoute(apiMobilityRead, MobilityReadRequest.class, false);
+		addRoute(apiMobilityReadChunked, MobilityReadChunkedRequest.class, false);
+		addRoute(apiMobilityAggregateRead, MobilityAggregateReadRequest.class, false);
+		addRoute(apiMobilityDatesRead, MobilityDatesReadRequest.class, false);
+		addRoute(apiMobilityReadCsv, MobilityReadCsvRequest.class, false);
+		addRoute(apiMobilityUpdate, MobilityUpdateRequest.class, false);
 		// Observer
-		else if(apiObserverCreate.equals(requestUri)) {
-			return new ObserverCreationRequest(httpRequest);
-		}
-		else if(apiObserverRead.equals(requestUri)) {
-			return new ObserverReadRequest(httpRequest, false);
-		}
-		else if(apiObserverReadXml.equals(requestUri)) {
-			return new ObserverReadRequest(httpRequest, true);
-		}
-		else if(apiObserverUpdate.equals(requestUri)) {
-			return new ObserverUpdateRequest(httpRequest);
-		}
-		else if(apiStreamUpload.equals(requestUri)) {
-			return new StreamUploadRequest(httpRequest);
-		}
-		else if(apiStreamRead.equals(requestUri)) {
-			return new StreamReadRequest(httpRequest);
-		}
-		else if(apiStreamInvalidRead.equals(requestUri)) {
-			return new StreamReadInvalidRequest(httpRequest);
-		}
+		addRoute(apiObserverCreate, ObserverCreationRequest.class, false);
+		addRoute(
+			apiObserverRead,
+			new RequestRoute.Factory() {
+				@Override
+				public Request build(
+						final HttpServletRequest httpRequest)
+						throws IOException, InvalidRequestException {
+					
+					return new ObserverReadRequest(httpRequest, false);
+				}
+			},
+			false);
+		addRoute(
+			apiObserverReadXml,
+			new RequestRoute.Factory() {
+				@Override
+				public Request build(
+						final HttpServletRequest httpRequest)
+						throws IOException, InvalidRequestException {
+					
+					return new ObserverReadRequest(httpRequest, true);
+				}
+			},
+			false);
+		addRoute(apiObserverUpdate, ObserverUpdateRequest.class, false);
+		addRoute(apiStreamUpload, StreamUploadRequest.class, false);
+		addRoute(apiStreamRead, StreamReadRequest.class, true);
+		addRoute(apiStreamInvalidRead, StreamReadInvalidRequest.class, false);
 		// OMH
-		else if(apiOmhAuth.equals(requestUri)) {
-			return new OmhAuthenticateRequest(httpRequest);
-		}
-		else if(apiOmhRegistryCreate.equals(requestUri)) {
-			return new OmhRegistryCreateRequest(httpRequest);
-		}
-		else if(apiOmhRegistryRead.equals(requestUri)) {
-			return new OmhRegistryReadRequest(httpRequest);
-		}
-		else if(apiOmhRegistryUpdate.equals(requestUri)) {
-			return new OmhRegistryUpdateRequest(httpRequest);
-		}
-		else if(apiOmhCatalog.equals(requestUri)) {
-			return new OmhCatalogRequest(httpRequest);
-		}
-		else if(apiOmhRead.equals(requestUri)) {
-			return new OmhReadRequest(httpRequest);
-		}
-		else if(apiOmhWrite.equals(requestUri)) {
-			return new OmhWriteRequest(httpRequest);
-		}
+		addRoute(apiOmhAuth, OmhAuthenticateRequest.class, false);
+		addRoute(apiOmhRegistryCreate, OmhRegistryCreateRequest.class, false);
+		addRoute(apiOmhRegistryRead, OmhRegistryReadRequest.class, false);
+		addRoute(apiOmhRegistryUpdate, OmhRegistryUpdateRequest.class, false);
+		addRoute(apiOmhCatalog, OmhCatalogRequest.class, false);
+		addRoute(apiOmhRead, OmhReadRequest.class, true);
+		addRoute(apiOmhBatchRead, OmhBatchReadRequest.class, true);
+		addRoute(apiOmhWrite, OmhWriteRequest.class, false);
 		// Survey
-		else if(apiSurveyUpload.equals(requestUri)) {
-			return new SurveyUploadRequest(httpRequest);
-		}
-		else if(apiSurveyResponseRead.equals(requestUri)) {
-			return new SurveyResponseReadRequest(httpRequest);
-		}
-		else if(apiSurveyResponseUpdate.equals(requestUri)) {
-			return new SurveyResponseUpdateRequest(httpRequest);
-		}
-		else if(apiSurveyResponseDelete.equals(requestUri)) {
-			return new SurveyResponseDeleteRequest(httpRequest);
-		}
-		else if(apiSurveyResponseFunctionRead.equals(requestUri)) {
-			return new SurveyResponseFunctionReadRequest(httpRequest);
-		}
+		addRoute(apiSurveyUpload, SurveyUploadRequest.class, false);
+		addRoute(apiSurveyResponseRead, SurveyResponseReadRequest.class, true);
+		addRoute(apiSurveyResponseUpdate, SurveyResponseUpdateRequest.class, false);
+		addRoute(apiSurveyResponseDelete, SurveyResponseDeleteRequest.class, false);
+		addRoute(apiSurveyResponseFunctionRead, SurveyResponseFunctionReadRequest.class, false);
+		addRoute(apiSurveyResponseSearchIndexRebuild, SurveyResponseSearchIndexRebuildRequest.class, false);
 		// User
-		else if(apiUserCreate.equals(requestUri)) {
-			return new UserCreationRequest(httpRequest);
-		}
-		else if(apiUserRegister.equals(requestUri)) {
-			return new UserRegistrationRequest(httpRequest);
-		}
-		else if(apiUserActivate.equals(requestUri)) {
-			return new UserActivationRequest(httpRequest);
-		}
-		else if(apiUserPasswordReset.equals(requestUri)) {
-			return new UserPasswordResetRequest(httpRequest);
-		}
-		else if(apiUserRead.equals(requestUri)) {
-			return new UserReadRequest(httpRequest);
-		}
-		else if(apiUserInfoRead.equals(requestUri)) {
-			return new UserInfoReadRequest(httpRequest);
-		}
-		else if(apiUserStatsRead.equals(requestUri)) {
-			return new UserStatsReadRequest(httpRequest);
-		}
-		else if(apiUserSearch.equals(requestUri)) {
-			return new UserSearchRequest(httpRequest);
-		}
-		else if(apiUserUpdate.equals(requestUri)) {
-			return new UserUpdateRequest(httpRequest);
-		}
-		else if(apiUserChangePassword.equals(requestUri)) {
-			return new UserChangePasswordRequest(httpRequest);
-		}
-		else if(apiUserDelete.equals(requestUri)) {
-			return new UserDeletionRequest(httpRequest);
-		}
-		else if(apiUserSetup.equals(requestUri)) {
-			try {
-				if (ConfigServices.readServerConfiguration().getUserSetupEnabled())
-					return new UserSetupRequest(httpRequest);
-				else {
-					LOGGER.info("Rejecting UserSetup request as API is disabled");
-					return new FailedRequest();
+		addRoute(apiUserCreate, UserCreationRequest.class, false);
+		addRoute(apiUserRegister, UserRegistrationRequest.class, false);
+		addRoute(apiUserActivate, UserActivationRequest.class, true);
+		addRoute(apiUserPasswordReset, UserPasswordResetRequest.class, false);
+		addRoute(apiUserRead, UserReadRequest.class, false);
+		addRoute(apiUserInfoRead, UserInfoReadRequest.class, false);
+		addRoute(apiUserStatsRead, UserStatsReadRequest.class, false);
+		addRoute(apiUserSearch, UserSearchRequest.class, false);
+		addRoute(apiUserUpdate, UserUpdateRequest.class, false);
+		addRoute(apiUserChangePassword, UserChangePasswordRequest.class, false);
+		addRoute(apiUserDelete, UserDeletionRequest.class, false);
+		addRoute(
+			apiUserSetup,
+			new RequestRoute.Factory() {
+				@Override
+				public Request build(
+						final HttpServletRequest httpRequest)
+						throws IOException, InvalidRequestException {
+					
+					try {
+						if (ConfigServices.readServerConfiguration().getUserSetupEnabled())
+							return new UserSetupRequest(httpRequest);
+						else {
+							LOGGER.info("Rejecting UserSetup request as API is disabled");
+							return new FailedRequest();
+						}
+					} catch (ServiceException e) {
+						LOGGER.warn("Can't find user setup config. Will disable this API.");
+						return new FailedRequest();
+					}
 				}
-			} catch (ServiceException e) {
-				LOGGER.warn("Can't find user setup config. Will disable this API.");
-				return new FailedRequest();
-			}
-		}
-		else if(apiUserSetupExternal.equals(requestUri)) {
-			try {
-				if (ConfigServices.readServerConfiguration().getUserSetupEnabled() &&
-						KeycloakCache.isEnabled())
-					return new UserSetupExternalRequest(httpRequest);
-				else {
-					LOGGER.info("Rejecting UserSetupExternal request as API is disabled");
-					return new FailedRequest();
+			},
+			false);
+		addRoute(
+			apiUserSetupExternal,
+			new RequestRoute.Factory() {
+				@Override
+				public Request build(
+						final HttpServletRequest httpRequest)
+						throws IOException, InvalidRequestException {
+					
+					try {
+						if (ConfigServices.readServerConfiguration().getUserSetupEnabled() &&
+								KeycloakCache.isEnabled())
+							return new UserSetupExternalRequest(httpRequest);
+						else {
+							LOGGER.info("Rejecting UserSetupExternal request as API is disabled");
+							return new FailedRequest();
+						}
+					} catch (ServiceException e) {
+						LOGGER.warn("Can't find user setup config. Will disable this API.");
+						return new FailedRequest();
+					}
 				}
-			} catch (ServiceException e) {
-				LOGGER.warn("Can't find user setup config. Will disable this API.");
-				return new FailedRequest();
-			}
-		}
+			},
+			false);
 		// AccessRequest
-		else if(apiAccessRequestCreate.equals(requestUri)) {
-			return new AccessRequestCreationRequest(httpRequest);
-		}
-		else if(apiAccessRequestUpdate.equals(requestUri)) {
-			return new AccessRequestUpdateRequest(httpRequest);
-		}
-		else if(apiAccessRequestRead.equals(requestUri)) {
-			return new AccessRequestReadRequest(httpRequest);
-		}
-		else if(apiAccessRequestDelete.equals(requestUri)) {
-			return new AccessRequestDeletionRequest(httpRequest);
-		}
+		addRoute(apiAccessRequestCreate, AccessRequestCreationRequest.class, false);
+		addRoute(apiAccessRequestUpdate, AccessRequestUpdateRequest.class, false);
+		addRoute(apiAccessRequestRead, AccessRequestReadRequest.class, false);
+		addRoute(apiAccessRequestDelete, AccessRequestDeletionRequest.class, false);
 		// Registration
-		else if(apiRegistrationRead.equals(requestUri)) {
-			return new RegistrationReadRequest(httpRequest);
-		}
-		else if(apiVideoRead.equals(requestUri)) {
-			return new VideoReadRequest(httpRequest);
-			// direct to MediaReadRequest(httpRequest);
-		}
+		addRoute(apiRegistrationRead, RegistrationReadRequest.class, true);
+		// Video
+		addRoute(apiVideoRead, VideoReadRequest.class, true);
 		// Visualization
-		else if(apiVisualizationSurveyResponseCount.equals(requestUri)) {
-			return new VizSurveyResponseCountRequest(httpRequest);
-		}
-		else if(apiVisualizationPromptDistribution.equals(requestUri)) {
-			return new VizPromptDistributionRequest(httpRequest);
-		}
-		else if(apiVisualizationPromptTimeseries.equals(requestUri)) {
-			return new VizPromptTimeseriesRequest(httpRequest);
-		}
-		else if(apiVisualizationUserTimeseries.equals(requestUri)) {
-			return new VizUserTimeseriesRequest(httpRequest);
-		}
-		else if(apiVisualizationScatterPlot.equals(requestUri)) {
-			return new VizScatterPlotRequest(httpRequest);
-		}
-		else if(apiVisualization2dDensity.equals(requestUri)) {
-			return new VizTwoDDensityRequest(httpRequest);
-		}
-		else if(apiVisualizationSurveyResponsePrivacy.equals(requestUri)) {
-			return new VizSurveyResponsePrivacyStateRequest(httpRequest);
-		}
-		else if(apiVisualizationSurveyResponsePrivacyTimeseries.equals(requestUri)) {
-			return new VizSurveyResponsePrivacyStateTimeseriesRequest(httpRequest);
+		addRoute(apiVisualizationSurveyResponseCount, VizSurveyResponseCountRequest.class, false);
+		addRoute(apiVisualizationPromptDistribution, VizPromptDistributionRequest.class, false);
+		addRoute(apiVisualizationPromptTimeseries, VizPromptTimeseriesRequest.class, false);
+		addRoute(apiVisualizationUserTimeseries, VizUserTimeseriesRequest.class, false);
+		addRoute(apiVisualizationScatterPlot, VizScatterPlotRequest.class, false);
+		addRoute(apiVisualization2dDensity, VizTwoDDensityRequest.class, false);
+		addRoute(apiVisualizationSurveyResponsePrivacy, VizSurveyResponsePrivacyStateRequest.class, false);
+		addRoute(apiVisualizationSurveyResponsePrivacyTimeseries, VizSurveyResponsePrivacyStateTimeseriesRequest.class, false);
+	}
+	
+	/**
+	 * Adds a route whose requests are built by calling the request class' 
+	 * constructor that takes only the HTTP request.
+	 * 
+	 * @param uri The route's URI.
+	 * 
+	 * @param requestClass The class of the requests for this route.
+	 * 
+	 * @param getAllowed Whether or not the request may be made with a GET.
+	 */
+	private void addRoute(
+			final String uri,
+			final Class<? extends Request> requestClass,
+			final boolean getAllowed) {
+		
+		routes.put(uri, new RequestRoute(uri, requestClass, getAllowed));
+	}
+	
+	/**
+	 * Adds a route whose requests are built by a factory.
+	 * 
+	 * @param uri The route's URI.
+	 * 
+	 * @param factory Builds the requests for this route.
+	 * 
+	 * @param getAllowed Whether or not the request may be made with a GET.
+	 */
+	private void addRoute(
+			final String uri,
+			final RequestRoute.Factory factory,
+			final boolean getAllowed) {
+		
+		routes.put(uri, new RequestRoute(uri, factory, getAllowed));
+	}
+	
+	/**
+	 * Builds a new request based on the request's URI. This will always return
+	 * a request and will never return null. If the URI is unknown it will 
+	 * return a {@link org.ohmage.request.FailedRequest}.
+	 * 
+	 * @param httpRequest The incoming HTTP request.
+	 * 
+	 * @return A new Request object based on the HTTP request's URI.
+	 * 
+	 * @throws InvalidRequestException Thrown if the parameters cannot be 
+	 * 								   parsed.
+	 * 
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public Request buildRequest(
+			final HttpServletRequest httpRequest) 
+			throws IOException, InvalidRequestException {
+		
+		String requestUri = httpRequest.getRequestURI();
+		
+		LOGGER.debug(requestUri);
+		
+		RequestRoute route = routes.get(requestUri);
+		if(route != null) {
+			return route.build(httpRequest);
 		}
 		
 		// The URI is unknown.
@@ -771,115 +752,27 @@ public final class RequestBuilder implements ServletContextAware {
 	 * @return Returns true if the URI is known; false, otherwise.
 	 */
 	public boolean knownUri(String uri) {
-		if(
-				// Config
-				apiConfigRead.equals(uri) ||
-				// Annotation
-				apiAnnotationPromptResponseCreate.equals(uri) ||
-				apiAnnotationPromptResponseRead.equals(uri) ||
-				apiAnnotationSurveyResponseCreate.equals(uri) ||
-				apiAnnotationSurveyResponseRead.equals(uri) ||
-				// Authentication
-				apiUserAuth.equals(uri) ||
-				apiUserAuthToken.equals(uri) ||
-				apiUserLogout.equals(uri) ||
-				apiUserWhoAmI.equals(uri) ||
-				// Audio
-				apiAudioRead.equals(uri) ||
-				// Audit
-				apiAuditRead.equals(uri) ||
-				// Campaign
-				apiCampaignAssignment.equals(uri) ||
-				apiCampaignCreate.equals(uri) ||
-				apiCampaignRead.equals(uri) ||
-				apiCampaignSearch.equals(uri) ||
-				apiCampaignUpdate.equals(uri) ||
-				apiCampaignDelete.equals(uri) ||
-				// Class
-				apiClassCreate.equals(uri) ||
-				apiClassRead.equals(uri) ||
-				apiClassRosterRead.equals(uri) ||
-				apiClassSearch.equals(uri) ||
-				apiClassUpdate.equals(uri) ||
-				apiClassRosterUpdate.equals(uri) ||
-				apiClassDelete.equals(uri) ||
-				// Document
-				apiDocumentCreate.equals(uri) ||
-				apiDocumentRead.equals(uri) ||
-				apiDocumentReadContents.equals(uri) ||
-				apiDocumentUpdate.equals(uri) ||
-				apiDocumentDelete.equals(uri) ||
-				// Image
-				apiImageRead.equals(uri) ||
-				apiImageBatchZipRead.equals(uri) ||
-				// Media
-				apiMediaRead.equals(uri) ||			
-				// Mobility
-				apiMobilityUpload.equals(uri) ||
-				apiMobilityRead.equals(uri) ||
-				apiMobilityReadChunked.equals(uri) ||
-				apiMobilityAggregateRead.equals(uri) ||
-				apiMobilityDatesRead.equals(uri) ||
-				apiMobilityReadCsv.equals(uri) ||
-				apiMobilityUpdate.equals(uri) ||
-				// Observer
-				apiObserverCreate.equals(uri) ||
-				apiObserverRead.equals(uri) ||
-				apiObserverReadXml.equals(uri) ||
-				apiObserverUpdate.equals(uri) ||
-				apiStreamUpload.equals(uri) ||
-				apiStreamRead.equals(uri) ||
-				apiStreamInvalidRead.equals(uri) ||
-				// OMH
-				apiOmhAuth.equals(uri) ||
-				apiOmhRegistryCreate.equals(uri) ||
-				apiOmhRegistryRead.equals(uri) ||
-				apiOmhRegistryUpdate.equals(uri) ||
-				apiOmhCatalog.equals(uri) ||
-				apiOmhRead.equals(uri) ||
-				apiOmhWrite.equals(uri) ||
-				// Survey
-				apiSurveyUpload.equals(uri) ||
-				apiSurveyResponseRead.equals(uri) ||
-				apiSurveyResponseUpdate.equals(uri) ||
-				apiSurveyResponseDelete.equals(uri) ||
-				apiSurveyResponseFunctionRead.equals(uri) ||
-				// User
-				apiUserCreate.equals(uri) ||
-				apiUserRegister.equals(uri) ||
-				apiUserActivate.equals(uri) ||
-				apiUserPasswordReset.equals(uri) ||
-				apiUserRead.equals(uri) ||
-				apiUserInfoRead.equals(uri) ||
-				apiUserStatsRead.equals(uri) ||
-				apiUserSearch.equals(uri) ||
-				apiUserUpdate.equals(uri) ||
-				apiUserChangePassword.equals(uri) ||
-				apiUserDelete.equals(uri) ||
-				apiUserSetup.equals(uri) ||
-				// UserSetupRequest
-				apiAccessRequestCreate.equals(uri) ||
-				apiAccessRequestUpdate.equals(uri) ||
-				apiAccessRequestRead.equals(uri) ||
-				apiAccessRequestDelete.equals(uri) ||
-				// Registration
-				apiRegistrationRead.equals(uri) ||
-				// Video
-				apiVideoRead.equals(uri) ||
-				// Visualization
-				apiVisualizationSurveyResponseCount.equals(uri) ||
-				apiVisualizationPromptDistribution.equals(uri) ||
-				apiVisualizationPromptTimeseries.equals(uri) ||
-				apiVisualizationUserTimeseries.equals(uri) ||
-				apiVisualizationScatterPlot.equals(uri) ||
-				apiVisualization2dDensity.equals(uri) ||
-				apiVisualizationSurveyResponsePrivacy.equals(uri) ||
-				apiVisualizationSurveyResponsePrivacyTimeseries.equals(uri)) {
-			return true;
-		}
-		
-		// The URI is unknown.
-		return false;
+		return routes.containsKey(uri);
+	}
+	
+	/**
+	 * Returns the route for some URI.
+	 * 
+	 * @param uri The URI.
+	 * 
+	 * @return The route for the URI or null if the URI is unknown.
+	 */
+	public RequestRoute getRoute(String uri) {
+		return routes.get(uri);
+	}
+	
+	/**
+	 * Returns every route.
+	 * 
+	 * @return An unmodifiable view of every route.
+	 */
+	public Collection<RequestRoute> getRoutes() {
+		return Collections.unmodifiableCollection(routes.values());
 	}
 
 	/**
@@ -927,6 +820,15 @@ public final class RequestBuilder implements ServletContextAware {
 		return apiAnnotationSurveyResponseRead;
 	}
 
+	/**
+	 * Returns apiAnnotationSurveyResponseBatchRead.
+	 *
+	 * @return The apiAnnotationSurveyResponseBatchRead.
+	 */
+	public String getApiAnnotationSurveyResponseBatchRead() {
+		return apiAnnotationSurveyResponseBatchRead;
+	}
+
 	/**
 	 * Returns apiAnnotationUpdate.
 	 *
@@ -963,6 +865,42 @@ public final class RequestBuilder implements ServletContextAware {
 		return apiAuditRead;
 	}
 
+	/**
+	 * Returns apiAuditSummaryRead.
+	 *
+	 * @return The apiAuditSummaryRead.
+	 */
+	public String getApiAuditSummaryRead() {
+		return apiAuditSummaryRead;
+	}
+
+	/**
+	 * Returns apiAuditQueryStatisticsRead.
+	 *
+	 * @return The apiAuditQueryStatisticsRead.
+	 */
+	public String getApiAuditQueryStatisticsRead() {
+		return apiAuditQueryStatisticsRead;
+	}
+
+	/**
+	 * Returns apiAuditRouteMetricsRead.
+	 *
+	 * @return The apiAuditRouteMetricsRead.
+	 */
+	public String getApiAuditRouteMetricsRead() {
+		return apiAuditRouteMetricsRead;
+	}
+
+	/**
+	 * Returns apiAuditMailOutboxRead.
+	 *
+	 * @return The apiAuditMailOutboxRead.
+	 */
+	public String getApiAuditMailOutboxRead() {
+		return apiAuditMailOutboxRead;
+	}
+
 	/**
 	 * Returns apiUserAuth.
 	 *
@@ -1016,6 +954,15 @@ public final class RequestBuilder implements ServletContextAware {
 	public String getApiOmhRead() {
 		return apiOmhRead;
 	}
+	
+	/**
+	 * Returns the URI for OMH's batch read API.
+	 * 
+	 * @return The URI for OMH's batch read API.
+	 */
+	public String getApiOmhBatchRead() {
+		return apiOmhBatchRead;
+	}
 
 	/**
 	 * Returns apiCampaignCreate.
@@ -1206,6 +1153,15 @@ public final class RequestBuilder implements ServletContextAware {
 		return apiMediaRead;
 	}
 
+	/**
+	 * Returns apiMediaStorageMigrate.
+	 *
+	 * @return The apiMediaStorageMigrate.
+	 */
+	public String getApiMediaStorageMigrate() {
+		return apiMediaStorageMigrate;
+	}
+
 	/**
 	 * Returns apiMobilityUpload.
 	 *
@@ -1359,6 +1315,15 @@ public final class RequestBuilder implements ServletContextAware {
 		return apiSurveyResponseFunctionRead;
 	}
 
+	/**
+	 * Returns apiSurveyResponseSearchIndexRebuild.
+	 *
+	 * @return The apiSurveyResponseSearchIndexRebuild.
+	 */
+	public String getApiSurveyResponseSearchIndexRebuild() {
+		return apiSurveyResponseSearchIndexRebuild;
+	}
+
 	/**
 	 * Returns apiUserCreate.
 	 *
@@ -0,0 +1,482 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.exception.InvalidRequestException;
+
+/**
+ * <p>
+ * A single API endpoint. It knows how to build the {@link Request} for its
+ * URI, whether that request may be made with a GET, and keeps live metrics
+ * about the requests that have been made to it since the server started.
+ * </p>
+ * 
+ * <p>
+ * The metrics are the number of requests, the number that failed with each
+ * {@link ErrorCode}, the number currently being processed, a latency 
+ * histogram for each of the build, service, and respond phases from which 
+ * percentiles are estimated, and how many bytes the responses wrote and how
+ * many were actually sent after compression.
+ * </p>
+ */
+public final class RequestRoute {
+	private static final Logger LOGGER = Logger.getLogger(RequestRoute.class);
+	
+	private static final String JSON_KEY_URI = "uri";
+	private static final String JSON_KEY_GET_ALLOWED = "get_allowed";
+	private static final String JSON_KEY_COUNT = "count";
+	private static final String JSON_KEY_IN_FLIGHT = "in_flight";
+	private static final String JSON_KEY_ERRORS = "errors";
+	private static final String JSON_KEY_BUILD = "build";
+	private static final String JSON_KEY_SERVICE = "service";
+	private static final String JSON_KEY_RESPOND = "respond";
+	private static final String JSON_KEY_RESPONSE_BYTES = "response_bytes";
+	private static final String JSON_KEY_SENT_BYTES = "sent_bytes";
+	private static final String JSON_KEY_SAVED_BYTES = "saved_bytes";
+	private static final String JSON_KEY_COMPRESSED = "compressed";
+	
+	/**
+	 * Builds the request for a route.
+	 */
+	public static interface Factory {
+		/**
+		 * Builds the request.
+		 * 
+		 * @param httpRequest The incoming HTTP request.
+		 * 
+		 * @return The new request. This should never be null.
+		 * 
+		 * @throws InvalidRequestException Thrown if the parameters cannot be
+		 * 								   parsed.
+		 * 
+		 * @throws IOException There was an error reading from the request.
+		 */
+		public Request build(
+			HttpServletRequest httpRequest)
+			throws IOException, InvalidRequestException;
+	}
+	
+	/**
+	 * Builds a request by calling its class' constructor that takes only the
+	 * HTTP request.
+	 */
+	private static final class ConstructorFactory implements Factory {
+		private final Constructor<? extends Request> constructor;
+		
+		/**
+		 * Finds the request class' constructor.
+		 * 
+		 * @param requestClass The request's class.
+		 * 
+		 * @throws IllegalArgumentException The class doesn't have a public
+		 * 									constructor that takes only an
+		 * 									HttpServletRequest.
+		 */
+		private ConstructorFactory(
+				final Class<? extends Request> requestClass) {
+			
+			try {
+				constructor = 
+					requestClass.getConstructor(HttpServletRequest.class);
+			}
+			catch(NoSuchMethodException e) {
+				throw new IllegalArgumentException(
+					"The request class does not have a constructor that " +
+						"takes only an HttpServletRequest: " + 
+						requestClass.getName(),
+					e);
+			}
+		}
+		
+		@Override
+		public Request build(
+				final HttpServletRequest httpRequest)
+				throws IOException, InvalidRequestException {
+			
+			try {
+				return constructor.newInstance(httpRequest);
+			}
+			catch(InvocationTargetException e) {
+				Throwable cause = e.getCause();
+				if(cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				else if(cause instanceof InvalidRequestException) {
+					throw (InvalidRequestException) cause;
+				}
+				else if(cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				else if(cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(
+					"The request could not be built.", 
+					cause);
+			}
+			catch(InstantiationException e) {
+				throw new IllegalStateException(
+					"The request could not be built.", 
+					e);
+			}
+			catch(IllegalAccessException e) {
+				throw new IllegalStateException(
+					"The request could not be built.", 
+					e);
+			}
+		}
+	}
+	
+	/**
+	 * A histogram of the time spent in one phase of processing a request.
+	 */
+	private static final class PhaseLatency {
+		/**
+		 * The upper bounds, exclusive, of each bucket in microseconds. There
+		 * is one additional bucket for all latencies greater than or equal to
+		 * the last bound.
+		 */
+		private static final long[] BOUNDS =
+			new long[] {
+				100, 200, 500, 
+				1000, 2000, 5000, 
+				10000, 20000, 50000, 
+				100000, 200000, 500000, 
+				1000000, 2000000, 5000000, 
+				10000000, 20000000, 50000000 };
+		
+		private static final String JSON_KEY_MEAN_MILLIS = "mean_millis";
+		private static final String JSON_KEY_P50_MILLIS = "p50_millis";
+		private static final String JSON_KEY_P90_MILLIS = "p90_millis";
+		private static final String JSON_KEY_P99_MILLIS = "p99_millis";
+		private static final String JSON_KEY_MAX_MILLIS = "max_millis";
+		
+		private final AtomicLongArray buckets = 
+			new AtomicLongArray(BOUNDS.length + 1);
+		private final AtomicLong count = new AtomicLong(0);
+		private final AtomicLong totalMicros = new AtomicLong(0);
+		private final AtomicLong maxMicros = new AtomicLong(0);
+		
+		/**
+		 * Records the time spent in this phase by one request.
+		 * 
+		 * @param nanos The time in nanoseconds.
+		 */
+		private void record(final long nanos) {
+			long micros = nanos / 1000;
+			
+			int bucket = BOUNDS.length;
+			for(int i = 0; i < BOUNDS.length; i++) {
+				if(micros < BOUNDS[i]) {
+					bucket = i;
+					break;
+				}
+			}
+			buckets.incrementAndGet(bucket);
+			count.incrementAndGet();
+			totalMicros.addAndGet(micros);
+			
+			long max;
+			while((max = maxMicros.get()) < micros) {
+				if(maxMicros.compareAndSet(max, micros)) {
+					break;
+				}
+			}
+		}
+		
+		/**
+		 * Estimates a percentile as the upper bound of the bucket that 
+		 * contains it, limited to the largest recorded value.
+		 * 
+		 * @param percentile The percentile, between 0 and 1.
+		 * 
+		 * @return The estimated percentile in microseconds.
+		 */
+		private long getPercentile(final double percentile) {
+			long total = 0;
+			for(int i = 0; i < buckets.length(); i++) {
+				total += buckets.get(i);
+			}
+			if(total == 0) {
+				return 0;
+			}
+			
+			long rank = (long) Math.ceil(total * percentile);
+			long seen = 0;
+			for(int i = 0; i < BOUNDS.length; i++) {
+				seen += buckets.get(i);
+				if(seen >= rank) {
+					return Math.min(BOUNDS[i], maxMicros.get());
+				}
+			}
+			return maxMicros.get();
+		}
+		
+		/**
+		 * Returns a JSONObject with the mean, percentiles, and maximum.
+		 */
+		private JSONObject toJson() throws JSONException {
+			JSONObject result = new JSONObject();
+			
+			long numRecords = count.get();
+			result.put(
+				JSON_KEY_MEAN_MILLIS, 
+				(numRecords == 0) ? 
+					0 : 
+					(totalMicros.get() / numRecords) / 1000.0);
+			result.put(JSON_KEY_P50_MILLIS, getPercentile(0.50) / 1000.0);
+			result.put(JSON_KEY_P90_MILLIS, getPercentile(0.90) / 1000.0);
+			result.put(JSON_KEY_P99_MILLIS, getPercentile(0.99) / 1000.0);
+			result.put(JSON_KEY_MAX_MILLIS, maxMicros.get() / 1000.0);
+			
+			return result;
+		}
+	}
+	
+	private final String uri;
+	private final Factory factory;
+	private final boolean getAllowed;
+	
+	private final AtomicLong count = new AtomicLong(0);
+	private final AtomicInteger inFlight = new AtomicInteger(0);
+	private final AtomicLongArray errors = 
+		new AtomicLongArray(ErrorCode.values().length);
+	private final PhaseLatency buildLatency = new PhaseLatency();
+	private final PhaseLatency serviceLatency = new PhaseLatency();
+	private final PhaseLatency respondLatency = new PhaseLatency();
+	private final AtomicLong responseBytes = new AtomicLong(0);
+	private final AtomicLong sentBytes = new AtomicLong(0);
+	private final AtomicLong compressed = new AtomicLong(0);
+	
+	/**
+	 * Creates a route.
+	 * 
+	 * @param uri The route's URI.
+	 * 
+	 * @param factory Builds the requests for this route.
+	 * 
+	 * @param getAllowed Whether or not the request may be made with a GET.
+	 * 
+	 * @throws IllegalArgumentException The URI or factory is null.
+	 */
+	public RequestRoute(
+			final String uri, 
+			final Factory factory,
+			final boolean getAllowed) {
+		
+		if(uri == null) {
+			throw new IllegalArgumentException("The URI is null.");
+		}
+		if(factory == null) {
+			throw new IllegalArgumentException("The factory is null.");
+		}
+		
+		this.uri = uri;
+		this.factory = factory;
+		this.getAllowed = getAllowed;
+	}
+	
+	/**
+	 * Creates a route whose requests are built by calling the request 
+	 * class' constructor that takes only the HTTP request.
+	 * 
+	 * @param uri The route's URI.
+	 * 
+	 * @param requestClass The class of the requests for this route.
+	 * 
+	 * @param getAllowed Whether or not the request may be made with a GET.
+	 * 
+	 * @throws IllegalArgumentException The URI is null or the class doesn't
+	 * 									have the required constructor.
+	 */
+	public RequestRoute(
+			final String uri,
+			final Class<? extends Request> requestClass,
+			final boolean getAllowed) {
+		
+		this(uri, new ConstructorFactory(requestClass), getAllowed);
+	}
+	
+	/**
+	 * Returns the route's URI.
+	 * 
+	 * @return The route's URI.
+	 */
+	public String getUri() {
+		return uri;
+	}
+	
+	/**
+	 * Returns whether or not the request may be made with a GET.
+	 * 
+	 * @return Whether or not the request may be made with a GET.
+	 */
+	public boolean isGetAllowed() {
+		return getAllowed;
+	}
+	
+	/**
+	 * Builds the request for this route.
+	 * 
+	 * @param httpRequest The incoming HTTP request.
+	 * 
+	 * @return The new request.
+	 * 
+	 * @throws InvalidRequestException Thrown if the parameters cannot be
+	 * 								   parsed.
+	 * 
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public Request build(
+			final HttpServletRequest httpRequest)
+			throws IOException, InvalidRequestException {
+		
+		return factory.build(httpRequest);
+	}
+	
+	/**
+	 * Records that a request to this route has started being processed. 
+	 * Every call must be followed by a call to 
+	 * {@link #finish(long, long, long, ErrorCode)}.
+	 */
+	public void start() {
+		inFlight.incrementAndGet();
+	}
+	
+	/**
+	 * Records that a request to this route has finished being processed.
+	 * 
+	 * @param buildNanos The time spent building the request.
+	 * 
+	 * @param serviceNanos The time spent servicing the request. This is 
+	 * 					   negative if the request was not serviced.
+	 * 
+	 * @param respondNanos The time spent responding to the request. This is 
+	 * 					   negative if the request did not respond.
+	 * 
+	 * @param errorCode The error code with which the request failed or null
+	 * 					if it succeeded.
+	 */
+	public void finish(
+			final long buildNanos,
+			final long serviceNanos,
+			final long respondNanos,
+			final ErrorCode errorCode) {
+		
+		inFlight.decrementAndGet();
+		count.incrementAndGet();
+		
+		buildLatency.record(buildNanos);
+		if(serviceNanos >= 0) {
+			serviceLatency.record(serviceNanos);
+		}
+		if(respondNanos >= 0) {
+			respondLatency.record(respondNanos);
+		}
+		
+		if(errorCode != null) {
+			errors.incrementAndGet(errorCode.ordinal());
+		}
+	}
+	
+	/**
+	 * Records the size of a response body written by this route.
+	 * 
+	 * @param responseBytes The number of bytes the request wrote.
+	 * 
+	 * @param sentBytes The number of bytes that were sent to the client 
+	 * 					after encoding.
+	 * 
+	 * @param compressed Whether or not the response was compressed.
+	 */
+	public void recordResponseSize(
+			final long responseBytes,
+			final long sentBytes,
+			final boolean compressed) {
+		
+		this.responseBytes.addAndGet(responseBytes);
+		this.sentBytes.addAndGet(sentBytes);
+		if(compressed) {
+			this.compressed.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Returns the number of requests to this route that have finished.
+	 * 
+	 * @return The number of requests.
+	 */
+	public long getCount() {
+		return count.get();
+	}
+	
+	/**
+	 * A JSONObject representing this route's metrics.
+	 * 
+	 * @return A JSONObject representing this route's metrics. If there is an
+	 * 		   error building this object, null is returned.
+	 */
+	public JSONObject toJson() {
+		try {
+			JSONObject result = new JSONObject();
+			
+			result.put(JSON_KEY_URI, uri);
+			result.put(JSON_KEY_GET_ALLOWED, getAllowed);
+			result.put(JSON_KEY_COUNT, count.get());
+			result.put(JSON_KEY_IN_FLIGHT, inFlight.get());
+			
+			JSONObject errorsJson = new JSONObject();
+			ErrorCode[] errorCodes = ErrorCode.values();
+			for(int i = 0; i < errorCodes.length; i++) {
+				long errorCount = errors.get(i);
+				if(errorCount > 0) {
+					errorsJson.put(errorCodes[i].toString(), errorCount);
+				}
+			}
+			result.put(JSON_KEY_ERRORS, errorsJson);
+			
+			result.put(JSON_KEY_BUILD, buildLatency.toJson());
+			result.put(JSON_KEY_SERVICE, serviceLatency.toJson());
+			result.put(JSON_KEY_RESPOND, respondLatency.toJson());
+			
+			long written = responseBytes.get();
+			long sent = sentBytes.get();
+			result.put(JSON_KEY_RESPONSE_BYTES, written);
+			result.put(JSON_KEY_SENT_BYTES, sent);
+			result.put(JSON_KEY_SAVED_BYTES, written - sent);
+			result.put(JSON_KEY_COMPRESSED, compressed.get());
+			
+			return result;
+		}
+		catch(JSONException e) {
+			LOGGER.error("Error building the JSONObject.", e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,534 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * <p>
+ * Decides how each response body is encoded. A response is gzip'd only if
+ * the client accepts it, its content type is one that compresses well, and
+ * it is at least the minimum size. Anything smaller is buffered and sent as
+ * is with its Content-Length, so tiny JSON responses don't pay for the gzip
+ * header and trailer, and media that is already compressed, e.g. JPEG or 
+ * MP4, is never compressed again.
+ * </p>
+ * 
+ * <p>
+ * The gzip stream is written directly with {@link Deflater}s that are reused
+ * from a pool instead of allocating a new one, and its native memory, for
+ * each response. The number of bytes each route wrote and sent is recorded
+ * with its {@link RequestRoute}.
+ * </p>
+ */
+public final class ResponseEncoder implements DisposableBean {
+	private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+	private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+	private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+	private static final String HEADER_VARY = "Vary";
+	private static final String ENCODING_GZIP = "gzip";
+	
+	/**
+	 * The gzip header: the magic number, the deflate method, no flags, no
+	 * modification time, no extra flags, and an unknown operating system.
+	 */
+	private static final byte[] GZIP_HEADER = 
+		new byte[] { 
+			(byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 
+			(byte) 0xff };
+	
+	private static final int DEFLATE_BUFFER_SIZE = 8192;
+	
+	/**
+	 * The content types that compress well. Anything else, including a 
+	 * response without a content type, is sent as is.
+	 */
+	private static final String[] COMPRESSIBLE_TYPES = 
+		new String[] {
+			"text/",
+			"application/json",
+			"application/xml",
+			"application/javascript",
+			"application/x-javascript",
+			"image/svg+xml"
+		};
+	
+	/**
+	 * A response body that is buffered until it is known whether or not it
+	 * will be compressed.
+	 */
+	private final class EncodingOutputStream extends OutputStream {
+		private final HttpServletResponse httpResponse;
+		private final boolean gzipAccepted;
+		private final RequestRoute route;
+		
+		private byte[] buffer;
+		private int buffered = 0;
+		
+		// Null until it has been decided how the response is encoded.
+		private OutputStream out = null;
+		private Deflater deflater = null;
+		private CRC32 crc = null;
+		private byte[] deflateBuffer = null;
+		
+		private long written = 0;
+		private long sent = 0;
+		private boolean closed = false;
+		
+		/**
+		 * Creates the stream.
+		 * 
+		 * @param httpResponse The response to which the body is written.
+		 * 
+		 * @param gzipAccepted Whether or not the client accepts gzip.
+		 * 
+		 * @param route The route whose response this is or null if it is
+		 * 				unknown.
+		 */
+		private EncodingOutputStream(
+				final HttpServletResponse httpResponse,
+				final boolean gzipAccepted,
+				final RequestRoute route) {
+			
+			this.httpResponse = httpResponse;
+			this.gzipAccepted = gzipAccepted;
+			this.route = route;
+		}
+		
+		@Override
+		public void write(final int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+		
+		@Override
+		public void write(
+				final byte[] b, 
+				final int off, 
+				final int len) 
+				throws IOException {
+			
+			if(closed) {
+				throw new IOException("The stream is closed.");
+			}
+			if(len == 0) {
+				return;
+			}
+			written += len;
+			
+			if(out == null) {
+				// If it can never be compressed, there is no reason to 
+				// buffer it.
+				if(! isCompressionPossible()) {
+					startIdentity();
+				}
+				else if(buffered + len < minBytes) {
+					if(buffer == null) {
+						buffer = new byte[minBytes];
+					}
+					System.arraycopy(b, off, buffer, buffered, len);
+					buffered += len;
+					return;
+				}
+				else {
+					startGzip();
+					if(buffered > 0) {
+						deflate(buffer, 0, buffered);
+						buffer = null;
+					}
+				}
+			}
+			
+			if(deflater == null) {
+				out.write(b, off, len);
+				sent += len;
+			}
+			else {
+				deflate(b, off, len);
+			}
+		}
+		
+		/**
+		 * Until it has been decided how the response is encoded, flushing 
+		 * does nothing, because the headers cannot yet be sent. Flushing a
+		 * closed stream also does nothing.
+		 */
+		@Override
+		public void flush() throws IOException {
+			if(closed || (out == null)) {
+				return;
+			}
+			
+			if(deflater != null) {
+				int length;
+				while((length = 
+						deflater.deflate(
+							deflateBuffer, 
+							0, 
+							deflateBuffer.length, 
+							Deflater.SYNC_FLUSH)) > 0) {
+					
+					out.write(deflateBuffer, 0, length);
+					sent += length;
+				}
+			}
+			out.flush();
+		}
+		
+		/**
+		 * Writes anything that remains, finishes the gzip stream if there is
+		 * one, and records the response's size with its route.
+		 */
+		@Override
+		public void close() throws IOException {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			
+			try {
+				if(out == null) {
+					if((! httpResponse.isCommitted()) && 
+						(httpResponse.getHeader(HEADER_CONTENT_LENGTH) == null)) {
+						
+						httpResponse.setContentLength(buffered);
+					}
+					
+					out = httpResponse.getOutputStream();
+					if(buffered > 0) {
+						out.write(buffer, 0, buffered);
+						sent += buffered;
+					}
+					buffer = null;
+				}
+				else if(deflater != null) {
+					deflater.finish();
+					while(! deflater.finished()) {
+						int length = deflater.deflate(deflateBuffer);
+						out.write(deflateBuffer, 0, length);
+						sent += length;
+					}
+					
+					writeInt((int) crc.getValue());
+					writeInt((int) written);
+				}
+				
+				out.close();
+			}
+			finally {
+				if(deflater != null) {
+					returnDeflater(deflater);
+					deflater = null;
+				}
+				
+				if(route != null) {
+					route.recordResponseSize(written, sent, crc != null);
+				}
+			}
+		}
+		
+		/**
+		 * Returns whether or not this response could be compressed if it
+		 * is large enough.
+		 * 
+		 * @return Whether or not the response could be compressed.
+		 */
+		private boolean isCompressionPossible() {
+			return 
+				gzipAccepted &&
+				isCompressible(httpResponse.getContentType()) &&
+				(httpResponse.getHeader(HEADER_CONTENT_ENCODING) == null) &&
+				(! httpResponse.isCommitted());
+		}
+		
+		/**
+		 * Sends the body as is.
+		 */
+		private void startIdentity() throws IOException {
+			out = httpResponse.getOutputStream();
+			if(buffered > 0) {
+				out.write(buffer, 0, buffered);
+				sent += buffered;
+			}
+			buffer = null;
+		}
+		
+		/**
+		 * Sets the headers for a gzip'd body and writes the gzip header.
+		 */
+		private void startGzip() throws IOException {
+			httpResponse.setHeader(HEADER_CONTENT_ENCODING, ENCODING_GZIP);
+			// Any length that was set was for the uncompressed body.
+			httpResponse.setContentLength(-1);
+			
+			deflater = borrowDeflater();
+			crc = new CRC32();
+			deflateBuffer = new byte[DEFLATE_BUFFER_SIZE];
+			
+			out = httpResponse.getOutputStream();
+			out.write(GZIP_HEADER);
+			sent += GZIP_HEADER.length;
+		}
+		
+		/**
+		 * Compresses some bytes, writing whatever output the deflater has
+		 * ready.
+		 */
+		private void deflate(
+				final byte[] b, 
+				final int off, 
+				final int len) 
+				throws IOException {
+			
+			crc.update(b, off, len);
+			deflater.setInput(b, off, len);
+			while(! deflater.needsInput()) {
+				int length = deflater.deflate(deflateBuffer);
+				out.write(deflateBuffer, 0, length);
+				sent += length;
+			}
+		}
+		
+		/**
+		 * Writes an integer in little-endian order for the gzip trailer.
+		 */
+		private void writeInt(final int value) throws IOException {
+			out.write(value & 0xff);
+			out.write((value >> 8) & 0xff);
+			out.write((value >> 16) & 0xff);
+			out.write((value >> 24) & 0xff);
+			sent += 4;
+		}
+	}
+	
+	private static ResponseEncoder instance;
+	
+	private final int minBytes;
+	private final int level;
+	private final BlockingQueue<Deflater> deflaters;
+	
+	/**
+	 * Creates the encoder.
+	 * 
+	 * @param minBytes The smallest response, in bytes, that is compressed.
+	 * 
+	 * @param level The compression level from 1, the fastest, to 9, the 
+	 * 				smallest.
+	 * 
+	 * @param poolSize The number of idle deflaters that are kept for reuse.
+	 * 
+	 * @throws IllegalStateException This class was already instantiated.
+	 * 
+	 * @throws IllegalArgumentException The minimum size was negative, the 
+	 * 									pool size was not positive, or the
+	 * 									level was out of range.
+	 */
+	private ResponseEncoder(
+			final int minBytes, 
+			final int level, 
+			final int poolSize) {
+		
+		if(instance != null) {
+			throw new IllegalStateException(
+				"The response encoder is a singleton and may only be built " +
+					"once.");
+		}
+		if(minBytes < 0) {
+			throw new IllegalArgumentException(
+				"The minimum size cannot be negative.");
+		}
+		if((level < Deflater.BEST_SPEED) || 
+			(level > Deflater.BEST_COMPRESSION)) {
+			
+			throw new IllegalArgumentException(
+				"The compression level must be between " + 
+					Deflater.BEST_SPEED + 
+					" and " + 
+					Deflater.BEST_COMPRESSION + 
+					".");
+		}
+		if(poolSize <= 0) {
+			throw new IllegalArgumentException(
+				"The pool size must be positive.");
+		}
+		
+		this.minBytes = minBytes;
+		this.level = level;
+		deflaters = new ArrayBlockingQueue<Deflater>(poolSize);
+		
+		instance = this;
+	}
+	
+	/**
+	 * Returns the singleton instance of this class.
+	 * 
+	 * @return The singleton instance of this class or null if it has not been
+	 * 		   built, in which case responses should not be encoded.
+	 */
+	public static ResponseEncoder instance() {
+		return instance;
+	}
+	
+	/**
+	 * Returns the stream to which a response's body should be written. The
+	 * response's content type must be set before the first byte is written, 
+	 * and the stream must be closed.
+	 * 
+	 * @param httpRequest The HTTP request.
+	 * 
+	 * @param httpResponse The HTTP response.
+	 * 
+	 * @return The stream to which the body should be written.
+	 */
+	public OutputStream getOutputStream(
+			final HttpServletRequest httpRequest,
+			final HttpServletResponse httpResponse) {
+		
+		boolean gzipAccepted = 
+			acceptsGzip(httpRequest.getHeader(HEADER_ACCEPT_ENCODING));
+		
+		// Caches must not give a gzip'd response to a client that can't read
+		// it or vice versa.
+		httpResponse.setHeader(HEADER_VARY, HEADER_ACCEPT_ENCODING);
+		
+		RequestRoute route = null;
+		RequestBuilder builder = RequestBuilder.getInstance();
+		if(builder != null) {
+			route = builder.getRoute(httpRequest.getRequestURI());
+		}
+		
+		return new EncodingOutputStream(httpResponse, gzipAccepted, route);
+	}
+	
+	/**
+	 * Returns whether or not an Accept-Encoding header allows gzip. A
+	 * quality of zero refuses the encoding.
+	 * 
+	 * @param acceptEncoding The header's value, which may be null.
+	 * 
+	 * @return Whether or not gzip is acceptable.
+	 */
+	public static boolean acceptsGzip(final String acceptEncoding) {
+		if(acceptEncoding == null) {
+			return false;
+		}
+		
+		for(String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim();
+			if((! ENCODING_GZIP.equalsIgnoreCase(name)) && 
+				(! "x-gzip".equalsIgnoreCase(name)) &&
+				(! "*".equals(name))) {
+				
+				continue;
+			}
+			
+			boolean refused = false;
+			for(int i = 1; i < parts.length; i++) {
+				String parameter = parts[i].trim();
+				if(parameter.startsWith("q=")) {
+					try {
+						refused = 
+							Double.parseDouble(parameter.substring(2)) <= 0;
+					}
+					catch(NumberFormatException e) {
+						refused = true;
+					}
+				}
+			}
+			if(! refused) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns whether or not a content type compresses well.
+	 * 
+	 * @param contentType The content type, which may include parameters such
+	 * 					  as the character set. This may be null.
+	 * 
+	 * @return Whether or not the content type compresses well.
+	 */
+	public static boolean isCompressible(final String contentType) {
+		if(contentType == null) {
+			return false;
+		}
+		
+		String type = contentType.trim().toLowerCase();
+		for(String compressible : COMPRESSIBLE_TYPES) {
+			if(type.startsWith(compressible)) {
+				return true;
+			}
+		}
+		
+		// Structured syntax suffixes, e.g. "application/ld+json".
+		int parameters = type.indexOf(';');
+		if(parameters >= 0) {
+			type = type.substring(0, parameters).trim();
+		}
+		return type.endsWith("+json") || type.endsWith("+xml");
+	}
+	
+	/**
+	 * Releases the native memory of the idle deflaters.
+	 */
+	@Override
+	public void destroy() {
+		Deflater deflater;
+		while((deflater = deflaters.poll()) != null) {
+			deflater.end();
+		}
+	}
+	
+	/**
+	 * Takes an idle deflater from the pool or creates a new one if there are
+	 * none.
+	 * 
+	 * @return A deflater that produces raw deflate data.
+	 */
+	private Deflater borrowDeflater() {
+		Deflater deflater = deflaters.poll();
+		if(deflater == null) {
+			deflater = new Deflater(level, true);
+		}
+		return deflater;
+	}
+	
+	/**
+	 * Resets a deflater and returns it to the pool. If the pool is full, it
+	 * is released.
+	 * 
+	 * @param deflater The deflater.
+	 */
+	private void returnDeflater(final Deflater deflater) {
+		deflater.reset();
+		if(! deflaters.offer(deflater)) {
+			deflater.end();
+		}
+	}
+}
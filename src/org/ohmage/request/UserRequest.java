@@ -95,7 +95,7 @@ public abstract class UserRequest extends Request {
 		String tClient = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user request.");
+			LOGGER.debug("Creating a user request.");
 			
 			try {
 				if(hashPassword != null) { 
@@ -171,7 +171,7 @@ public abstract class UserRequest extends Request {
 		String tClient = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user request.");
+			LOGGER.debug("Creating a user request.");
 			
 			try {
 				if(hashPassword != null) { 
@@ -235,7 +235,9 @@ public abstract class UserRequest extends Request {
 	public final boolean authenticate(AllowNewAccount newAccountsAllowed) {
 		try {
 			// Validate that the username and password are valid.
-			LOGGER.debug("Authenticating the user: " + getUser().getUsername());
+			if(LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Authenticating the user: " + getUser().getUsername());
+			}
 			return
 				AuthenticationService
 					.instance()
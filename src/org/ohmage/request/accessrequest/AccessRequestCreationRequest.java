@@ -102,7 +102,7 @@ public class AccessRequestCreationRequest extends UserRequest {
 		String tUuid = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a AccessRequestCreationRequest.");
+			LOGGER.debug("Creating a AccessRequestCreationRequest.");
 		
 			try {
 				String[] t;
@@ -199,7 +199,7 @@ public class AccessRequestCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the AccessRequestCreationRequest.");
+		LOGGER.debug("Servicing the AccessRequestCreationRequest.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -207,7 +207,7 @@ public class AccessRequestCreationRequest extends UserRequest {
 		
 		try {
 			
-			LOGGER.info("Creating the AccessRequest.");
+			LOGGER.debug("Creating the AccessRequest.");
 			String requester = this.getUser().getUsername();
 			AccessRequestServices.instance().createAccessRequest(
 					uuid, requester, emailAddress, requestType, requestContent);
@@ -81,7 +81,7 @@ public class AccessRequestDeletionRequest extends UserRequest {
 		Collection<String> tRequestIdList = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a AccessRequestDeletionRequest.");
+			LOGGER.debug("Creating a AccessRequestDeletionRequest.");
 		
 			try {
 				String[] t;
@@ -120,7 +120,7 @@ public class AccessRequestDeletionRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the AccessRequestDeletionRequest.");
+		LOGGER.debug("Servicing the AccessRequestDeletionRequest.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
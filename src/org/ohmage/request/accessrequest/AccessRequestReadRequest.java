@@ -132,7 +132,7 @@ public class AccessRequestReadRequest extends UserRequest {
 		DateTime tEndDate = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a AccessRequestReadRequest.");
+			LOGGER.debug("Creating a AccessRequestReadRequest.");
 		
 			try {
 				String[] t;
@@ -258,7 +258,7 @@ public class AccessRequestReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the AccessRequestReadRequest.");
+		LOGGER.debug("Servicing the AccessRequestReadRequest.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -100,7 +100,7 @@ public class AccessRequestUpdateRequest extends UserRequest {
 		Boolean tNotifyUser = false;
 
 		if(! isFailed()) {
-			LOGGER.info("Creating an AccessRequestUpdateRequest.");
+			LOGGER.debug("Creating an AccessRequestUpdateRequest.");
 		
 			try {
 				String[] t;
@@ -217,7 +217,7 @@ public class AccessRequestUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the AccessRequestUpdateRequest.");
+		LOGGER.debug("Servicing the AccessRequestUpdateRequest.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
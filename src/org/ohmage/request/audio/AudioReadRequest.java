@@ -66,7 +66,7 @@ public class AudioReadRequest extends UserRequest {
 		UUID tAudioId = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an audio read request.");
+			LOGGER.debug("Creating an audio read request.");
 			String[] t;
 			
 			try {
@@ -101,7 +101,7 @@ public class AudioReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Validating an audio read request.");
+		LOGGER.debug("Validating an audio read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -114,7 +114,7 @@ public class AudioReadRequest extends UserRequest {
 				getUser().getUsername(), 
 				audioId);
 			
-			LOGGER.info("Connecting to the audio stream.");
+			LOGGER.debug("Connecting to the audio stream.");
 			audio = MediaServices.instance().getAudio(audioId);
 		}
 		catch(ServiceException e) {
@@ -132,7 +132,7 @@ public class AudioReadRequest extends UserRequest {
 		final HttpServletRequest httpRequest,
 		final HttpServletResponse httpResponse) {
 
-		LOGGER.info("Responding to a video read request.");
+		LOGGER.debug("Responding to a video read request.");
 		
 		// Sets the HTTP headers to disable caching
 		expireResponse(httpResponse);
@@ -168,7 +168,7 @@ public class AudioReadRequest extends UserRequest {
 				// fail.
 				OutputStream os;
 				try {
-					os = httpResponse.getOutputStream();
+					os = getOutputStream(httpRequest, httpResponse);
 				}
 				catch(IOException e) {
 					LOGGER.error(
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.audit;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.cache.MailOutboxSender;
+import org.ohmage.domain.MailOutboxMessage;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.request.UserRequest;
+import org.ohmage.service.MailOutboxServices;
+import org.ohmage.service.UserServices;
+
+/**
+ * <p>Reads the state of the outgoing mail: how many messages are waiting to
+ * be delivered or have failed, and what this server's sender has delivered,
+ * retried and given up on since it started. In order to read it the user
+ * must be an admin.</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CLIENT}</td>
+ *     <td>A string describing the client that is making this request.</td>
+ *     <td>true</td>
+ *   </tr>
+ * </table>
+ */
+public class AuditMailOutboxReadRequest extends UserRequest {
+	private static final Logger LOGGER =
+		Logger.getLogger(AuditMailOutboxReadRequest.class);
+	
+	private static final String JSON_KEY_OUTBOX = "outbox";
+	private static final String JSON_KEY_SENDER = "sender";
+	
+	private MailOutboxMessage.Summary summary;
+	
+	/**
+	 * Creates a mail outbox read request.
+	 * 
+	 * @param httpRequest The HttpServletRequest with the parameters.
+	 * 
+	 * @throws InvalidRequestException Thrown if the parameters cannot be
+	 * 								   parsed.
+	 * 
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public AuditMailOutboxReadRequest(
+			final HttpServletRequest httpRequest)
+			throws IOException, InvalidRequestException {
+		
+		super(httpRequest, null, TokenLocation.EITHER, null);
+		
+		LOGGER.debug("Creating a mail outbox read request.");
+		
+		summary = null;
+	}
+	
+	/**
+	 * Services the request.
+	 */
+	@Override
+	public void service() {
+		LOGGER.debug("Servicing the mail outbox read request.");
+		
+		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
+			return;
+		}
+		
+		try {
+			LOGGER.debug("Verifying the user is an admin.");
+			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
+			
+			LOGGER.debug("Summarizing the mail outbox.");
+			summary = MailOutboxServices.instance().getSummary();
+		}
+		catch(ServiceException e) {
+			e.failRequest(this);
+			e.logException(LOGGER);
+		}
+	}
+	
+	/**
+	 * Replies to the request.
+	 */
+	@Override
+	public void respond(
+			final HttpServletRequest httpRequest,
+			final HttpServletResponse httpResponse) {
+		
+		// Build the result object.
+		JSONObject resultJson = new JSONObject();
+		if(summary != null) {
+			try {
+				resultJson.put(JSON_KEY_OUTBOX, summary.toJson());
+				
+				MailOutboxSender sender = MailOutboxSender.instance();
+				if(sender != null) {
+					resultJson.put(JSON_KEY_SENDER, sender.toJson());
+				}
+			}
+			catch(JSONException e) {
+				LOGGER.error("Error building the response.", e);
+				setFailed();
+			}
+		}
+		
+		super.respond(httpRequest, httpResponse, resultJson);
+	}
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.audit;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.domain.QueryStatistics;
+import org.ohmage.domain.QueryStatistics.SlowQuery;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.request.UserRequest;
+import org.ohmage.service.AuditServices;
+import org.ohmage.service.UserServices;
+
+/**
+ * <p>Reads the statistics for every SQL statement the server has executed
+ * since it started, grouped by fingerprint and with the statements that
+ * have taken the most total time first, along with the most recent sampled
+ * slow queries. The values bound to the statements are never included. In 
+ * order to read the statistics the user must be an admin.</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CLIENT}</td>
+ *     <td>A string describing the client that is making this request.</td>
+ *     <td>true</td>
+ *   </tr>
+ * </table>
+ */
+public class AuditQueryStatisticsReadRequest extends UserRequest {
+	private static final Logger LOGGER =
+		Logger.getLogger(AuditQueryStatisticsReadRequest.class);
+
+	private static final String JSON_KEY_STATEMENTS = "statements";
+	private static final String JSON_KEY_SLOW_QUERIES = "slow_queries";
+
+	private List<QueryStatistics> statistics;
+	private List<SlowQuery> slowQueries;
+
+	/**
+	 * Creates a query statistics read request.
+	 *
+	 * @param httpRequest The HttpServletRequest with the parameters.
+	 *
+	 * @throws InvalidRequestException Thrown if the parameters cannot be
+	 * 								   parsed.
+	 *
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public AuditQueryStatisticsReadRequest(
+			final HttpServletRequest httpRequest)
+			throws IOException, InvalidRequestException {
+
+		super(httpRequest, null, TokenLocation.EITHER, null);
+
+		LOGGER.debug("Creating a query statistics read request.");
+
+		statistics = Collections.emptyList();
+		slowQueries = Collections.emptyList();
+	}
+
+	/**
+	 * Services the request.
+	 */
+	@Override
+	public void service() {
+		LOGGER.debug("Servicing the query statistics read request.");
+
+		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
+			return;
+		}
+
+		try {
+			LOGGER.debug("Verifying the user is an admin.");
+			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
+
+			LOGGER.debug("Gathering the query statistics.");
+			statistics = AuditServices.instance().getQueryStatistics();
+			slowQueries = AuditServices.instance().getSlowQueries();
+		}
+		catch(ServiceException e) {
+			e.failRequest(this);
+			e.logException(LOGGER);
+		}
+	}
+
+	/**
+	 * Replies to the request.
+	 */
+	@Override
+	public void respond(
+			final HttpServletRequest httpRequest,
+			final HttpServletResponse httpResponse) {
+
+		// Build the result object.
+		JSONObject resultJson = new JSONObject();
+		try {
+			JSONArray statementsJson = new JSONArray();
+			for(QueryStatistics statement : statistics) {
+				statementsJson.put(statement.toJson());
+			}
+			resultJson.put(JSON_KEY_STATEMENTS, statementsJson);
+
+			JSONArray slowQueriesJson = new JSONArray();
+			for(SlowQuery slowQuery : slowQueries) {
+				slowQueriesJson.put(slowQuery.toJson());
+			}
+			resultJson.put(JSON_KEY_SLOW_QUERIES, slowQueriesJson);
+		}
+		catch(JSONException e) {
+			LOGGER.error("Error building the response.", e);
+			setFailed();
+		}
+
+		super.respond(httpRequest, httpResponse, resultJson);
+	}
+}
@@ -139,7 +139,7 @@ public class AuditReadRequest extends UserRequest {
 	public AuditReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.EITHER, null);
 		
-		LOGGER.info("Creating an audit read request.");
+		LOGGER.debug("Creating an audit read request.");
 		
 		RequestServlet.RequestType tRequestType = null;
 		URI tUri = null;
@@ -223,17 +223,17 @@ public class AuditReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the audit read request.");
+		LOGGER.debug("Servicing the audit read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying the user is an admin.");
+			LOGGER.debug("Verifying the user is an admin.");
 			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			
-			LOGGER.info("Gathering the audit information.");
+			LOGGER.debug("Gathering the audit information.");
 			results = AuditServices.instance().getAuditInformation(requestType, uri, client, deviceId, responseType, errorCode, startDate, endDate);
 		}
 		catch(ServiceException e) {
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.audit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.json.JSONArray;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.request.RequestBuilder;
+import org.ohmage.request.RequestRoute;
+import org.ohmage.request.UserRequest;
+import org.ohmage.service.UserServices;
+
+/**
+ * <p>Reads the live metrics for every API endpoint since the server started,
+ * with the most requested endpoints first. For each endpoint, this includes
+ * the number of requests, the number that failed with each error code, the
+ * number currently being processed, and latency percentiles for building,
+ * servicing, and responding to the requests. In order to read the metrics 
+ * the user must be an admin.</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CLIENT}</td>
+ *     <td>A string describing the client that is making this request.</td>
+ *     <td>true</td>
+ *   </tr>
+ * </table>
+ */
+public class AuditRouteMetricsReadRequest extends UserRequest {
+	private static final Logger LOGGER =
+		Logger.getLogger(AuditRouteMetricsReadRequest.class);
+
+	private static final String RESULT_KEY = "routes";
+
+	private List<RequestRoute> routes;
+
+	/**
+	 * Creates a route metrics read request.
+	 *
+	 * @param httpRequest The HttpServletRequest with the parameters.
+	 *
+	 * @throws InvalidRequestException Thrown if the parameters cannot be
+	 * 								   parsed.
+	 *
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public AuditRouteMetricsReadRequest(
+			final HttpServletRequest httpRequest)
+			throws IOException, InvalidRequestException {
+
+		super(httpRequest, null, TokenLocation.EITHER, null);
+
+		LOGGER.debug("Creating a route metrics read request.");
+
+		routes = Collections.emptyList();
+	}
+
+	/**
+	 * Services the request.
+	 */
+	@Override
+	public void service() {
+		LOGGER.debug("Servicing the route metrics read request.");
+
+		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
+			return;
+		}
+
+		try {
+			LOGGER.debug("Verifying the user is an admin.");
+			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
+
+			LOGGER.debug("Gathering the route metrics.");
+			routes = 
+				new ArrayList<RequestRoute>(
+					RequestBuilder.getInstance().getRoutes());
+			Collections.sort(
+				routes,
+				new Comparator<RequestRoute>() {
+					@Override
+					public int compare(
+							final RequestRoute first,
+							final RequestRoute second) {
+
+						long difference = second.getCount() - first.getCount();
+						if(difference != 0) {
+							return (difference < 0) ? -1 : 1;
+						}
+						return first.getUri().compareTo(second.getUri());
+					}
+				});
+		}
+		catch(ServiceException e) {
+			e.failRequest(this);
+			e.logException(LOGGER);
+		}
+	}
+
+	/**
+	 * Replies to the request.
+	 */
+	@Override
+	public void respond(
+			final HttpServletRequest httpRequest,
+			final HttpServletResponse httpResponse) {
+
+		// Build the result object.
+		JSONArray resultJson = new JSONArray();
+		for(RequestRoute route : routes) {
+			resultJson.put(route.toJson());
+		}
+
+		super.respond(httpRequest, httpResponse, RESULT_KEY, resultJson);
+	}
+}
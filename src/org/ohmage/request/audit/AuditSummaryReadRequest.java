@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.audit;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.json.JSONArray;
+import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.domain.AuditRollup;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.exception.ValidationException;
+import org.ohmage.request.InputKeys;
+import org.ohmage.request.UserRequest;
+import org.ohmage.service.AuditServices;
+import org.ohmage.service.UserServices;
+import org.ohmage.validator.AuditValidators;
+
+/**
+ * <p>Reads the per-minute audit rollups, which contain the number of
+ * requests, their processing time, and a latency histogram for each URI,
+ * client, and response code. This never reads the audit table itself, so it
+ * is cheap enough to be polled by dashboards. The current minute is not
+ * included until it has been persisted. In order to read the rollups the user
+ * must be an admin.</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CLIENT}</td>
+ *     <td>A string describing the client that is making this request.</td>
+ *     <td>true</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUDIT_URI}</td>
+ *     <td>Limits the rollups to only those with the given URI.</td>
+ *     <td>false</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUDIT_CLIENT}</td>
+ *     <td>Limits the rollups to only those with the given client value.</td>
+ *     <td>false</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUDIT_START_DATE}</td>
+ *     <td>Limits the rollups to only those on or after this date. This may be
+ *       either a date or a date-time. The default is one hour before the end
+ *       date.</td>
+ *     <td>false</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUDIT_END_DATE}</td>
+ *     <td>Limits the rollups to only those before this date. This may be
+ *       either a date or a date-time. The default is now.</td>
+ *     <td>false</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUDIT_AGGREGATE}</td>
+ *     <td>If true, the minutes are combined into a single rollup per URI,
+ *       client, and response code. The default is false.</td>
+ *     <td>false</td>
+ *   </tr>
+ * </table>
+ */
+public class AuditSummaryReadRequest extends UserRequest {
+	private static final Logger LOGGER =
+		Logger.getLogger(AuditSummaryReadRequest.class);
+
+	private static final String RESULT_KEY = "rollups";
+
+	private static final int DEFAULT_WINDOW_HOURS = 1;
+
+	private final URI uri;
+	private final String client;
+	private final DateTime startDate;
+	private final DateTime endDate;
+	private final boolean aggregate;
+
+	private List<AuditRollup> results;
+
+	/**
+	 * Creates an audit summary read request.
+	 *
+	 * @param httpRequest The HttpServletRequest with the parameters.
+	 *
+	 * @throws InvalidRequestException Thrown if the parameters cannot be
+	 * 								   parsed.
+	 *
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public AuditSummaryReadRequest(
+			final HttpServletRequest httpRequest)
+			throws IOException, InvalidRequestException {
+
+		super(httpRequest, null, TokenLocation.EITHER, null);
+
+		LOGGER.debug("Creating an audit summary read request.");
+
+		URI tUri = null;
+		String tClient = null;
+		DateTime tStartDate = null;
+		DateTime tEndDate = null;
+		Boolean tAggregate = null;
+
+		if(! isFailed()) {
+			try {
+				String[] t;
+
+				t = getParameterValues(InputKeys.AUDIT_URI);
+				if(t.length > 1) {
+					throw new ValidationException(
+						ErrorCode.AUDIT_INVALID_URI,
+						"Multiple " + InputKeys.AUDIT_URI +
+							" parameters were given.");
+				}
+				else if(t.length == 1) {
+					tUri = AuditValidators.validateUri(t[0]);
+				}
+
+				t = getParameterValues(InputKeys.AUDIT_CLIENT);
+				if(t.length > 1) {
+					throw new ValidationException(
+						ErrorCode.AUDIT_INVALID_CLIENT,
+						"Multiple " + InputKeys.AUDIT_CLIENT +
+							" parameters were given.");
+				}
+				else if(t.length == 1) {
+					tClient = AuditValidators.validateClient(t[0]);
+				}
+
+				t = getParameterValues(InputKeys.AUDIT_START_DATE);
+				if(t.length > 1) {
+					throw new ValidationException(
+						ErrorCode.SERVER_INVALID_DATE,
+						"Multiple " + InputKeys.AUDIT_START_DATE +
+							" parameters were given.");
+				}
+				else if(t.length == 1) {
+					tStartDate = AuditValidators.validateStartDate(t[0]);
+				}
+
+				t = getParameterValues(InputKeys.AUDIT_END_DATE);
+				if(t.length > 1) {
+					throw new ValidationException(
+						ErrorCode.SERVER_INVALID_DATE,
+						"Multiple " + InputKeys.AUDIT_END_DATE +
+							" parameters were given.");
+				}
+				else if(t.length == 1) {
+					tEndDate = AuditValidators.validateEndDate(t[0]);
+				}
+
+				t = getParameterValues(InputKeys.AUDIT_AGGREGATE);
+				if(t.length > 1) {
+					throw new ValidationException(
+						ErrorCode.AUDIT_INVALID_AGGREGATE,
+						"Multiple " + InputKeys.AUDIT_AGGREGATE +
+							" parameters were given.");
+				}
+				else if(t.length == 1) {
+					tAggregate = AuditValidators.validateAggregate(t[0]);
+				}
+
+				if(tEndDate == null) {
+					tEndDate = new DateTime();
+				}
+				if(tStartDate == null) {
+					tStartDate = tEndDate.minusHours(DEFAULT_WINDOW_HOURS);
+				}
+				if(tStartDate.isAfter(tEndDate)) {
+					throw new ValidationException(
+						ErrorCode.SERVER_INVALID_DATE,
+						"The start date is after the end date.");
+				}
+			}
+			catch(ValidationException e) {
+				e.failRequest(this);
+				LOGGER.info(e.toString());
+			}
+		}
+
+		uri = tUri;
+		client = tClient;
+		startDate = tStartDate;
+		endDate = tEndDate;
+		aggregate = (tAggregate == null) ? false : tAggregate;
+
+		results = new LinkedList<AuditRollup>();
+	}
+
+	/**
+	 * Services the request.
+	 */
+	@Override
+	public void service() {
+		LOGGER.debug("Servicing the audit summary read request.");
+
+		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
+			return;
+		}
+
+		try {
+			LOGGER.debug("Verifying the user is an admin.");
+			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
+
+			LOGGER.debug("Gathering the audit rollups.");
+			results =
+				AuditServices
+					.instance()
+					.getAuditRollups(
+						startDate,
+						endDate,
+						(uri == null) ? null : uri.toString(),
+						client,
+						aggregate);
+		}
+		catch(ServiceException e) {
+			e.failRequest(this);
+			e.logException(LOGGER);
+		}
+	}
+
+	/**
+	 * Replies to the request.
+	 */
+	@Override
+	public void respond(
+			final HttpServletRequest httpRequest,
+			final HttpServletResponse httpResponse) {
+
+		// Build the result object.
+		JSONArray resultJson = new JSONArray();
+		for(AuditRollup result : results) {
+			resultJson.put(result.toJson());
+		}
+
+		super.respond(httpRequest, httpResponse, RESULT_KEY, resultJson);
+	}
+}
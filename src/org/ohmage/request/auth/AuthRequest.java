@@ -73,7 +73,7 @@ public class AuthRequest extends UserRequest {
 	public AuthRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, true, null, null);
 		
-		LOGGER.info("Building an username / password authentication request.");
+		LOGGER.debug("Building an username / password authentication request.");
 	}
 
 	/**
@@ -81,7 +81,7 @@ public class AuthRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the authentication request.");
+		LOGGER.debug("Servicing the authentication request.");
 		
 		authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED);
 	}
@@ -92,7 +92,7 @@ public class AuthRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the authentication request.");
+		LOGGER.debug("Responding to the authentication request.");
 		
 		respond(httpRequest, httpResponse, KEY_HASHED_PASSWORD, (getUser() == null) ? null : getUser().getPassword());
 	}
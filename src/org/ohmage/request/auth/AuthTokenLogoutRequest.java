@@ -64,7 +64,7 @@ public class AuthTokenLogoutRequest extends UserRequest {
 	public AuthTokenLogoutRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.EITHER, null);
 		
-		LOGGER.info("Creating a logout request.");
+		LOGGER.debug("Creating a logout request.");
 	}
 
 	/*
@@ -73,7 +73,7 @@ public class AuthTokenLogoutRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the logout request.");
+		LOGGER.debug("Servicing the logout request.");
 
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -88,7 +88,7 @@ public class AuthTokenLogoutRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the logout request.");
+		LOGGER.debug("Responding to the logout request.");
 		
 		if(getUser() != null) {
 			final String token = getUser().getToken(); 
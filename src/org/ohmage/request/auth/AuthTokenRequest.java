@@ -96,7 +96,7 @@ public class AuthTokenRequest extends UserRequest {
 		URL tRedirect = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Building an authentication token request.");
+			LOGGER.debug("Building an authentication token request.");
 			
 			try {
 				if(redirect != null) {
@@ -131,7 +131,7 @@ public class AuthTokenRequest extends UserRequest {
 		URL tRedirect = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Building an authentication token request.");
+			LOGGER.debug("Building an authentication token request.");
 			String[] t;
 			
 			try {
@@ -164,7 +164,7 @@ public class AuthTokenRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the authentication token request.");
+		LOGGER.debug("Servicing the authentication token request.");
 
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -185,7 +185,7 @@ public class AuthTokenRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the authentication token request.");
+		LOGGER.debug("Responding to the authentication token request.");
 		
 		if((! isFailed()) && (redirect != null)) {
 			respond(httpRequest, httpResponse, redirect);
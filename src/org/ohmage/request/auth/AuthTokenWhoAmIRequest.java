@@ -61,7 +61,7 @@ public class AuthTokenWhoAmIRequest extends UserRequest {
 	public AuthTokenWhoAmIRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.EITHER, null);
 		
-		LOGGER.info("Creating a whoami request.");
+		LOGGER.debug("Creating a whoami request.");
 	}
 
 	/*
@@ -70,7 +70,7 @@ public class AuthTokenWhoAmIRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the whoami request.");
+		LOGGER.debug("Servicing the whoami request.");
 
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -83,7 +83,7 @@ public class AuthTokenWhoAmIRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the whoami request.");
+		LOGGER.debug("Responding to the whoami request.");
 		
 		respond(httpRequest, httpResponse, KEY_USER_NAME, (getUser() == null) ? null : getUser().getUsername());
 	}
@@ -70,7 +70,7 @@ public class CampaignAssignmentRequest extends UserRequest {
 		SurveyUploadRequest tUploadRequest = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a campaign assignment request.");
+			LOGGER.debug("Creating a campaign assignment request.");
 			String[] t;
 			
 			try {
@@ -206,7 +206,7 @@ public class CampaignAssignmentRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the campaign assignment request.");
+		LOGGER.debug("Servicing the campaign assignment request.");
 
 		// Authenticate.
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
@@ -216,7 +216,7 @@ public class CampaignAssignmentRequest extends UserRequest {
 		try {
 			// If given, verify that the class exists.
 			if(classId != null) {
-				LOGGER.info("Verifying that the class exists.");
+				LOGGER.debug("Verifying that the class exists.");
 				ClassServices.instance().checkClassExistence(classId, true);
 				
 				LOGGER
@@ -241,7 +241,7 @@ public class CampaignAssignmentRequest extends UserRequest {
 			}
 			
 			// Verify that the campaign exists.
-			LOGGER.info("Verifying that the campaign exists.");
+			LOGGER.debug("Verifying that the campaign exists.");
 			CampaignServices
 				.instance().checkCampaignExistence(campaignId, true);
 			
@@ -267,7 +267,7 @@ public class CampaignAssignmentRequest extends UserRequest {
 			// Verify that the user already exists and that the requesting user
 			// is allowed to assign a campaign to them.
 			if(password == null) {
-				LOGGER.info(
+				LOGGER.debug(
 					"Verifying that the requesting user is allowed to assign campaigns to the desired user.");
 				UserClassServices
 					.instance()
@@ -277,10 +277,10 @@ public class CampaignAssignmentRequest extends UserRequest {
 			}
 			// Otherwise, attempt to create the new user.
 			else {
-				LOGGER.info("Verifying that the user doesn't already exist.");
+				LOGGER.debug("Verifying that the user doesn't already exist.");
 				UserServices.instance().checkUserExistance(username, false);
 				
-				LOGGER.info("Creating the user.");
+				LOGGER.debug("Creating the user.");
 				UserServices.instance()
 					.createUser(
 						username, 
@@ -310,7 +310,7 @@ public class CampaignAssignmentRequest extends UserRequest {
 						new HashMap<String, Clazz.Role>(1);
 					usersToAdd.put(username, Clazz.Role.RESTRICTED);
 					
-					LOGGER.info("Adding user to class.");
+					LOGGER.debug("Adding user to class.");
 					ClassServices
 						.instance()
 							.updateClass(
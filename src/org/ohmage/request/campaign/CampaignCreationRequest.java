@@ -109,7 +109,7 @@ public class CampaignCreationRequest extends UserRequest {
 		Set<String> tClassIds = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a campaign creation request.");
+			LOGGER.debug("Creating a campaign creation request.");
 			String[] t;
 			
 			try {
@@ -254,7 +254,7 @@ public class CampaignCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the campaign creation request.");
+		LOGGER.debug("Servicing the campaign creation request.");
 		
 		// HT: config: disallow new account access to services
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
@@ -264,7 +264,7 @@ public class CampaignCreationRequest extends UserRequest {
 		try {
 			boolean isAdmin;
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 				
 				LOGGER.info("The user is an admin.");
@@ -274,23 +274,23 @@ public class CampaignCreationRequest extends UserRequest {
 				LOGGER.info("The user is not an admin.");
 				isAdmin = false;
 
-				LOGGER.info("Verifying that the user is allowed to create campaigns.");
+				LOGGER.debug("Verifying that the user is allowed to create campaigns.");
 				UserServices.instance().verifyUserCanCreateCampaigns(getUser().getUsername());
 			}
 			
-			LOGGER.info("Verifying that the classes exist.");
+			LOGGER.debug("Verifying that the classes exist.");
 			ClassServices.instance().checkClassesExistence(classIds, true);
 			
 			if(! isAdmin) {
-				LOGGER.info("Verifying that the user is enrolled in call of the classes.");
+				LOGGER.debug("Verifying that the user is enrolled in call of the classes.");
 				UserClassServices.instance().userBelongsToClasses(getUser().getUsername(), classIds);
 			}
 			
-			LOGGER.info("Verifying that the campaign doesn't already exist.");
+			LOGGER.debug("Verifying that the campaign doesn't already exist.");
 			CampaignServices
 				.instance().checkCampaignExistence(campaign.getId(), false);
 			
-			LOGGER.info("Creating the campaign.");
+			LOGGER.debug("Creating the campaign.");
 			CampaignServices
 				.instance()
 					.createCampaign(
@@ -73,7 +73,7 @@ public class CampaignDeletionRequest extends UserRequest {
 	public CampaignDeletionRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a campaign deletion request.");
+		LOGGER.debug("Creating a campaign deletion request.");
 		
 		String tCampaignId = null;
 		
@@ -111,26 +111,26 @@ public class CampaignDeletionRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the campaign deletion request.");
+		LOGGER.debug("Servicing the campaign deletion request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the campaign exists.");
+			LOGGER.debug("Verifying that the campaign exists.");
 			CampaignServices.instance().checkCampaignExistence(campaignId, true);
 			
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			}
 			catch(ServiceException e) {
-				LOGGER.info("Verifying that the requesting user is allowed to delete the campaign.");
+				LOGGER.debug("Verifying that the requesting user is allowed to delete the campaign.");
 				UserCampaignServices.instance().userCanDeleteCampaign(getUser().getUsername(), campaignId);
 			}
 			
-			LOGGER.info("Deleting the campaign.");
+			LOGGER.debug("Deleting the campaign.");
 			CampaignServices.instance().deleteCampaign(campaignId);
 		}
 		catch(ServiceException e) {
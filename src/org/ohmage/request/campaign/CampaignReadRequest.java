@@ -19,10 +19,11 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -36,8 +37,10 @@ import org.joda.time.DateTime;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.CampaignReadCache;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.domain.campaign.Campaign.OutputFormat;
+import org.ohmage.domain.campaign.CampaignVersion;
 import org.ohmage.exception.DomainException;
 import org.ohmage.exception.InvalidRequestException;
 import org.ohmage.exception.ServiceException;
@@ -190,13 +193,14 @@ public class CampaignReadRequest extends UserRequest {
 	
 	private final Campaign.Role role;
 	
-	// For short and long reads.
-	//private Map<Campaign, Collection<Campaign.Role>> campaignResults;
-	private Collection<Campaign> campaignResults;
+	private final String ifNoneMatch;
 	
-	// For XML reads.
-	//private String xmlResult;
-	//private String campaignNameResult;
+	private List<String> resultCampaignIds;
+	private String resultCampaignName;
+	private String responseData;
+	
+	private String eTag;
+	private boolean notModified;
 	
 	/**
 	 * Creates a campaign read request.
@@ -211,6 +215,8 @@ public class CampaignReadRequest extends UserRequest {
 	public CampaignReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, false, TokenLocation.EITHER, null);
 		
+		ifNoneMatch = httpRequest.getHeader("If-None-Match");
+		
 		Campaign.OutputFormat tOutputFormat = null;
 		
 		List<String> tCampaignIds = null;
@@ -228,7 +234,7 @@ public class CampaignReadRequest extends UserRequest {
 		Campaign.Role tRole = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a campaign read reaquest.");
+			LOGGER.debug("Creating a campaign read reaquest.");
 			String[] t;
 			
 			try {
@@ -381,11 +387,12 @@ public class CampaignReadRequest extends UserRequest {
 		
 		role = tRole;
 		
-		//campaignResults = Collections.emptyMap();
-		campaignResults = null;
+		resultCampaignIds = Collections.emptyList();
+		resultCampaignName = null;
+		responseData = null;
 		
-		//xmlResult = "";
-		//campaignNameResult = "";
+		eTag = null;
+		notModified = false;
 	}
 
 	/**
@@ -393,17 +400,23 @@ public class CampaignReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the campaign read request.");
+		LOGGER.debug("Servicing the campaign read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
+		boolean xmlOutput = OutputFormat.XML.equals(outputFormat);
+		boolean longOutput = OutputFormat.LONG.equals(outputFormat);
+		
 		try {
-			LOGGER.info("Getting the campaign information.");
-			campaignResults =
-				UserCampaignServices.instance().getCampaignInformation(
-						getUser().getUsername(), 
+			UserCampaignServices services = UserCampaignServices.instance();
+			String username = getUser().getUsername();
+			
+			LOGGER.debug("Getting the campaigns' versions.");
+			List<CampaignVersion> versions =
+				services.getCampaignVersions(
+						username, 
 						campaignIds, 
 						classIds,
 						nameTokens,
@@ -412,28 +425,211 @@ public class CampaignReadRequest extends UserRequest {
 						endDate, 
 						privacyState, 
 						runningState, 
-						role, 
-						OutputFormat.LONG.equals(outputFormat) || OutputFormat.SHORT.equals(outputFormat),  // class info 
-						OutputFormat.LONG.equals(outputFormat), // user info
-						OutputFormat.LONG.equals(outputFormat));  // response count info
+						role,
+						longOutput);	// response count info
 			
 			// If this is a request for XML and there were no campaigns visible
 			// to the user based on the parameters, we need to report that
 			// rather than attempt to attach an empty file.
-			if(
-				OutputFormat.XML.equals(outputFormat) && 
-				(campaignResults.size() == 0)) {
+			if(xmlOutput) {
+				if(versions.size() == 0) {
+					throw
+						new ServiceException(
+							ErrorCode.CAMPAIGN_INVALID_ID,
+							"No campaigns were found.");
+				}
 				
-				throw
-					new ServiceException(
-						ErrorCode.CAMPAIGN_INVALID_ID,
-						"No campaigns were found.");
+				versions = versions.subList(0, 1);
+				resultCampaignName = versions.get(0).getCampaignName();
+			}
+			
+			// The response is entirely determined by the campaigns' keys, so
+			// if the client already has the response built from these keys,
+			// there is nothing more to do.
+			Map<String, String> keys = new LinkedHashMap<String, String>();
+			for(CampaignVersion version : versions) {
+				keys.put(
+					version.getCampaignId(), 
+					CampaignReadCache.getKey(username, version, outputFormat));
+			}
+			String tETag = CampaignReadCache.getETag(keys.values());
+			
+			if(eTagMatches(ifNoneMatch, tETag)) {
+				LOGGER.debug("The client's copy is current.");
+				resultCampaignIds = new ArrayList<String>(keys.keySet());
+				eTag = tETag;
+				notModified = true;
+				return;
 			}
+			
+			// Use the cached campaigns and only read the rest.
+			CampaignReadCache cache = services.getCampaignReadCache();
+			Map<String, String> fragments = new HashMap<String, String>();
+			List<String> missingCampaignIds = new LinkedList<String>();
+			for(Map.Entry<String, String> key : keys.entrySet()) {
+				String fragment = cache.get(key.getValue());
+				if(fragment == null) {
+					missingCampaignIds.add(key.getKey());
+				}
+				else {
+					fragments.put(key.getKey(), fragment);
+				}
+			}
+			
+			if(missingCampaignIds.size() > 0) {
+				LOGGER.debug("Getting the campaign information.");
+				Collection<Campaign> campaigns =
+					services.getCampaignInformation(
+							username, 
+							missingCampaignIds, 
+							null,
+							null,
+							null,
+							null, 
+							null, 
+							null, 
+							null, 
+							null, 
+							! xmlOutput,	// class info 
+							longOutput,		// user info
+							longOutput);	// response count info
+				
+				for(Campaign campaign : campaigns) {
+					String fragment = serialize(campaign, longOutput);
+					if(fragment != null) {
+						fragments.put(campaign.getId(), fragment);
+						cache.put(keys.get(campaign.getId()), fragment);
+					}
+				}
+			}
+			
+			// A campaign may have been deleted since its version was read.
+			// The response then no longer matches the keys, so it doesn't get
+			// an entity tag.
+			if(keys.keySet().retainAll(fragments.keySet())) {
+				tETag = null;
+			}
+			
+			resultCampaignIds = new ArrayList<String>(keys.keySet());
+			if(xmlOutput) {
+				if(resultCampaignIds.size() == 0) {
+					throw
+						new ServiceException(
+							ErrorCode.CAMPAIGN_INVALID_ID,
+							"No campaigns were found.");
+				}
+				
+				responseData = fragments.get(resultCampaignIds.get(0));
+			}
+			else {
+				responseData = buildJsonResponse(resultCampaignIds, fragments);
+			}
+			eTag = tETag;
 		}
 		catch(ServiceException e) {
 			e.failRequest(this);
 			e.logException(LOGGER);
 		}
+		catch(DomainException e) {
+			LOGGER.error("There was an error generating the campaign mask.", e);
+			setFailed();
+		}
+		catch(JSONException e) {
+			LOGGER.error("There was an error building the response.", e);
+			setFailed();
+		}
+	}
+	
+	/**
+	 * Serializes a campaign as it appears in the response.
+	 * 
+	 * @param campaign The campaign with the requesting user's roles.
+	 * 
+	 * @param longOutput Whether or not this is a long read.
+	 * 
+	 * @return The campaign's XML for XML reads, otherwise its JSON, or null if
+	 * 		   the campaign could not be serialized.
+	 * 
+	 * @throws DomainException There was an error applying the campaign's 
+	 * 						   mask.
+	 * 
+	 * @throws JSONException There was an error building the JSON.
+	 */
+	private String serialize(
+			final Campaign campaign, 
+			final boolean longOutput) 
+			throws DomainException, JSONException {
+		
+		if(OutputFormat.XML.equals(outputFormat)) {
+			return campaign.getXml();
+		}
+		
+		Collection<Campaign.Role> roles = campaign.getRequestUserRoles();
+		boolean supervisorOrAuthor = 
+			roles.contains(Campaign.Role.SUPERVISOR) || 
+			roles.contains(Campaign.Role.AUTHOR);
+		
+		// Create the JSONObject response. This may return null if there is an
+		// error building it.
+		JSONObject resultJson =
+			campaign
+				.toJson(
+					false,	// ID 
+					true,	// Classes
+					longOutput,	// Any roles
+					supervisorOrAuthor,	// Participants
+					supervisorOrAuthor, // Analysts
+					true,				// Authors
+					supervisorOrAuthor,	// Supervisors
+					longOutput,	// XML
+					false,   // Surveys
+					longOutput);	 // responseCounts
+		
+		if(resultJson == null) {
+			return null;
+		}
+		
+		resultJson.put(JSON_KEY_USER_ROLES, roles);
+		return resultJson.toString();
+	}
+	
+	/**
+	 * Builds the JSON response from the serialized campaigns. The campaigns
+	 * are written in the given order, so the same campaigns always produce
+	 * the same response.
+	 * 
+	 * @param ids The campaigns' IDs in order.
+	 * 
+	 * @param fragments The serialized campaigns keyed by their IDs.
+	 * 
+	 * @return The response.
+	 */
+	private static String buildJsonResponse(
+			final List<String> ids,
+			final Map<String, String> fragments) {
+		
+		StringBuilder items = new StringBuilder();
+		StringBuilder data = new StringBuilder();
+		for(String id : ids) {
+			String quotedId = JSONObject.quote(id);
+			
+			if(items.length() > 0) {
+				items.append(',');
+				data.append(',');
+			}
+			items.append(quotedId);
+			data.append(quotedId).append(':').append(fragments.get(id));
+		}
+		
+		return
+			"{" + 
+				JSONObject.quote(JSON_KEY_RESULT) + ":" + 
+					JSONObject.quote(RESULT_SUCCESS) + "," +
+				"\"metadata\":{" +
+					"\"number_of_results\":" + ids.size() + "," +
+					"\"items\":[" + items + "]}," +
+				"\"data\":{" + data + "}" +
+			"}";
 	}
 
 	/**
@@ -441,9 +637,56 @@ public class CampaignReadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the campaign read request.");
+		LOGGER.debug("Responding to the campaign read request.");
+		
+		// If the client's copy is current, there is no body to write.
+		if(notModified) {
+			setTokenCookie(httpResponse);
+			revalidateResponse(httpResponse, eTag);
+			httpResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		
+		// The response must be revalidated by clients that keep a copy of it,
+		// otherwise it must not be cached at all.
+		if((! isFailed()) && (eTag != null)) {
+			revalidateResponse(httpResponse, eTag);
+		}
+		else {
+			expireResponse(httpResponse);
+		}
+		
+		// If available, update the token.
+		setTokenCookie(httpResponse);
+		
+		String responseText;
+		if(isFailed()) {
+			// Set the response's content type to "application/json".
+			httpResponse.setContentType("application/json");
+			
+			// If it failed, get the failure message.
+			responseText = getFailureMessage();
+		}
+		else if(OutputFormat.XML.equals(outputFormat)) {
+			// Set the type and force the browser to download it as the 
+			// last step before beginning to stream the response.
+			httpResponse.setContentType("text/xml");
+			httpResponse
+				.setHeader(
+					"Content-Disposition",
+					"attachment; filename=" + resultCampaignName + ".xml");
+			
+			responseText = responseData;
+		}
+		else {
+			// Set the response's content type to "application/json".
+			httpResponse.setContentType("application/json");
+			
+			responseText = responseData;
+		}
 		
 		// Creates the writer that will write the response, success or fail.
+		// The content type must be set first.
 		Writer writer;
 		try {
 			writer = 
@@ -457,154 +700,13 @@ public class CampaignReadRequest extends UserRequest {
 			LOGGER.error("Unable to create writer object. Aborting.", e);
 			return;
 		}
-		
-		// Sets the HTTP headers to disable caching
-		expireResponse(httpResponse);
-				
-		// If available, update the token.
-		if(getUser() != null) {
-			final String token = getUser().getToken(); 
-			if(token != null) {
-				CookieUtils.setCookieValue(
-						httpResponse, 
-						InputKeys.AUTH_TOKEN, 
-						token);
-			}
-		}
-		
-		String responseText = getFailureMessage();
-		if(! isFailed()) {
-			// If it has succeeded thus far, set the return value based on the
-			// type of request.
-			if(OutputFormat.SHORT.equals(outputFormat) || OutputFormat.LONG.equals(outputFormat)) {
-				// Set the response's content type to "application/json".
-				httpResponse.setContentType("application/json");
-				
-				try {
-					// Create the JSONObject with which to respond.
-					JSONObject result = new JSONObject();
-					
-					// Mark it as successful.
-					result.put(JSON_KEY_RESULT, RESULT_SUCCESS);
-					
-					// Create and add the metadata.
-					JSONObject metadata = new JSONObject();
-					// Add the information for each of the campaigns into their own
-					// JSONObject and add that to the result.
-					JSONObject campaignInfo = new JSONObject();
-					
-					// Get all of the campaign IDs for the metadata.
-					Set<String> resultCampaignIds = new HashSet<String>();
-					
-					// This is done, so we don't have to repeatedly check the
-					// same value.
-					boolean longOutput = OutputFormat.LONG.equals(outputFormat);
-					
-					// For each of the campaigns, process its information and
-					// place it in its respective object.
-					for(Campaign campaign : campaignResults) {
-						// Get the campaign's ID for the metadata.
-						resultCampaignIds.add(campaign.getId());
-						
-						Collection<Campaign.Role> roles = campaign.getRequestUserRoles();
-						boolean supervisorOrAuthor = 
-							roles.contains(Campaign.Role.SUPERVISOR) || 
-							roles.contains(Campaign.Role.AUTHOR);
-						
-						try {
-							// Create the JSONObject response. This may return
-							// null if there is an error building it.
-							JSONObject resultJson =
-								campaign
-									.toJson(
-										false,	// ID 
-										true,	// Classes
-										longOutput,	// Any roles
-										supervisorOrAuthor,	// Participants
-										supervisorOrAuthor, // Analysts
-										true,				// Authors
-										supervisorOrAuthor,	// Supervisors
-										longOutput,	// XML
-										false,   // Surveys
-										longOutput);	 // responseCounts
-							
-							if(resultJson != null) {
-								resultJson.put(JSON_KEY_USER_ROLES, roles);
-							}
-							
-							campaignInfo
-								.accumulate(campaign.getId(), resultJson);
-						}
-						catch(DomainException e) {
-							LOGGER
-								.error(
-									"There was an error generating the campaign mask.",
-									e);
-							setFailed();
-						}
-					}
-					
-					metadata.put("number_of_results", resultCampaignIds.size());
-					metadata.put("items", resultCampaignIds);
-					
-					result.put("metadata", metadata);
-					result.put("data", campaignInfo);
-					
-					responseText = result.toString();
-				}
-				catch(JSONException e) {
-					// Set the response's content type to "application/json".
-					httpResponse.setContentType("application/json");
-					
-					// If anything fails, return a failure message.
-					responseText = getFailureMessage();
-				}
-			}
-			else if(OutputFormat.XML.equals(outputFormat)) {
-				// Get the singular result.
-				Campaign campaign = 
-					campaignResults.iterator().next();
-				
-				// Set the type and force the browser to download it as the 
-				// last step before beginning to stream the response.
-				httpResponse.setContentType("text/xml");
-				httpResponse
-					.setHeader(
-						"Content-Disposition",
-						"attachment; filename=" + campaign.getName() + ".xml");
-				
-				try {
-					responseText = campaign.getXml();
-				}
-				catch(DomainException e) {
-					LOGGER
-						.error(
-							"There was an error generating the campaign mask.",
-							e);
-					setFailed();
-				}
-			}
-			else {
-				// Set the response's content type to "application/json".
-				httpResponse.setContentType("application/json");
-				
-				responseText = getFailureMessage();
-			}
-		}
-		if(isFailed()) {
-			// Set the response's content type to "application/json".
-			httpResponse.setContentType("application/json");
-			
-			// If it failed, get the failure message.
-			responseText = getFailureMessage();
-		}
 			
-		// Write the error response.
+		// Write the response.
 		try {
 			writer.write(responseText); 
 		}
 		catch(IOException e) {
-			LOGGER.warn("Unable to write failed response message. Aborting.", e);
+			LOGGER.warn("Unable to write response message. Aborting.", e);
 		}
 		
 		// Close it.
@@ -616,6 +718,23 @@ public class CampaignReadRequest extends UserRequest {
 		}
 	}
 	
+	/**
+	 * Sets the authentication token cookie if the user has a token.
+	 * 
+	 * @param httpResponse The response.
+	 */
+	private void setTokenCookie(final HttpServletResponse httpResponse) {
+		if(getUser() != null) {
+			final String token = getUser().getToken(); 
+			if(token != null) {
+				CookieUtils.setCookieValue(
+						httpResponse, 
+						InputKeys.AUTH_TOKEN, 
+						token);
+			}
+		}
+	}
+	
 	/**
 	 * Returns an empty map. This is for requests that don't have any specific
 	 * information to return.
@@ -624,20 +743,13 @@ public class CampaignReadRequest extends UserRequest {
 	public Map<String, String[]> getAuditInformation() {
 		Map<String, String[]> auditInfo = super.getAuditInformation();
 		
-		// Retrieve all of the campaign IDs from the result.	
-		List<String> campaignIds = new LinkedList<String>();
-		// SN: fixes NPE where results are null. caller supports an empty map return.
-		if (!(campaignResults == null)) {
-			for(Campaign campaign : campaignResults) {
-				campaignIds.add(campaign.getId());
-			}
-		}
-		
 		// If any campaign IDs were found, add an entry into the audit 
 		// information where the key distinguishes this as a result and the
 		// value is the listof campaign IDs.
-		if(campaignIds.size() > 0) {
-			auditInfo.put(InputKeys.CAMPAIGN_URN, campaignIds.toArray(new String[0]));
+		if(resultCampaignIds.size() > 0) {
+			auditInfo.put(
+				InputKeys.CAMPAIGN_URN, 
+				resultCampaignIds.toArray(new String[0]));
 		}
 		
 		return auditInfo;
@@ -159,7 +159,7 @@ public class CampaignSearchRequest extends UserRequest {
 		Campaign.RunningState tRunningState = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a campaign search request.");
+			LOGGER.debug("Creating a campaign search request.");
 			
 			String[] t = null;
 			try {
@@ -287,14 +287,14 @@ public class CampaignSearchRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the campaign search request.");
+		LOGGER.debug("Servicing the campaign search request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Checking that the user is an admin.");
+			LOGGER.debug("Checking that the user is an admin.");
 			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 				
 			campaigns = CampaignServices.instance().campaignSearch(
@@ -322,7 +322,7 @@ public class CampaignSearchRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to a campaign search request.");
+		LOGGER.debug("Responding to a campaign search request.");
 		JSONObject result = null;
 		
 		if(! isFailed()) {
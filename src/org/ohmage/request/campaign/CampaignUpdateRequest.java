@@ -144,7 +144,7 @@ public class CampaignUpdateRequest extends UserRequest {
 	public CampaignUpdateRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a campaign update request.");
+		LOGGER.debug("Creating a campaign update request.");
 		
 		String tCampaignId = null;
 		String tId = null;
@@ -160,7 +160,7 @@ public class CampaignUpdateRequest extends UserRequest {
 		Map<String, Set<Campaign.Role>> tUsersAndRolesToRemove = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a campaign update request.");
+			LOGGER.debug("Creating a campaign update request.");
 			String[] t;
 			
 			try {
@@ -290,7 +290,7 @@ public class CampaignUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the campaign update request.");
+		LOGGER.debug("Servicing the campaign update request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -299,7 +299,7 @@ public class CampaignUpdateRequest extends UserRequest {
 		try {
 			boolean isAdmin;
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 				
 				LOGGER.info("The user is an admin.");
@@ -311,21 +311,21 @@ public class CampaignUpdateRequest extends UserRequest {
 			}
 			
 			if(isAdmin) {
-				LOGGER.info("Verifying that the campaign exists.");
+				LOGGER.debug("Verifying that the campaign exists.");
 				CampaignServices.instance().checkCampaignExistence(campaignId, true);
 			}
 			else {
-				LOGGER.info("Verfiying that the campaign exists and that the user belongs.");
+				LOGGER.debug("Verfiying that the campaign exists and that the user belongs.");
 				UserCampaignServices.instance().campaignExistsAndUserBelongs(campaignId, getUser().getUsername());
 			}
 			
 			if(! isAdmin) {
-				LOGGER.info("Verifying that the user is allowed to update the campaign.");
+				LOGGER.debug("Verifying that the user is allowed to update the campaign.");
 				UserCampaignServices.instance().verifyUserCanUpdateCampaign(getUser().getUsername(), campaignId);
 			}
 			
 			if(xml != null) {
-				LOGGER.info("Verifying that the user is allowed to update the campaign.");
+				LOGGER.debug("Verifying that the user is allowed to update the campaign.");
 				UserCampaignServices.instance().verifyCampaignXmlCanBeUpdated(getUser().getUsername(), campaignId, id, name);
 			}
 			
@@ -340,35 +340,35 @@ public class CampaignUpdateRequest extends UserRequest {
 			
 			if(classesToAdd != null) {
 				if(isAdmin) {
-					LOGGER.info("Verifying that all of the classes to add exist.");
+					LOGGER.debug("Verifying that all of the classes to add exist.");
 					ClassServices.instance().checkClassesExistence(classesToAdd, true);
 				}
 				else {
-					LOGGER.info("Verifying that all of the classes to add exist and that the user belongs.");
+					LOGGER.debug("Verifying that all of the classes to add exist and that the user belongs.");
 					UserClassServices.instance().classesExistAndUserBelongs(classesToAdd, getUser().getUsername());
 				}
 			}
 			
 			if(classesToRemove != null) {
 				if(isAdmin) {
-					LOGGER.info("Verifying that all of the classes to remove exist.");
+					LOGGER.debug("Verifying that all of the classes to remove exist.");
 					ClassServices.instance().checkClassesExistence(classesToRemove, true);
 				}
 				else {
-					LOGGER.info("Verifying that all of the classes to remove exist and that the user belongs.");
+					LOGGER.debug("Verifying that all of the classes to remove exist and that the user belongs.");
 					UserClassServices.instance().classesExistAndUserBelongs(classesToRemove, getUser().getUsername());
 				}
 				
-				LOGGER.info("Verifying that not all of the classes are being disassociated from the campaign.");
+				LOGGER.debug("Verifying that not all of the classes are being disassociated from the campaign.");
 				CampaignClassServices.instance().verifyNotDisassocitingAllClassesFromCampaign(campaignId, classesToRemove, classesToAdd);
 			}
 			
 			if(usersAndRolesToAdd != null) {
-				LOGGER.info("Verifying that all of the users to add exist.");
+				LOGGER.debug("Verifying that all of the users to add exist.");
 				UserServices.instance().verifyUsersExist(usersAndRolesToAdd.keySet(), true);
 				
 				if(! isAdmin) {
-					LOGGER.info("Verifying that the user is allowed to give the permissions they are trying to give.");
+					LOGGER.debug("Verifying that the user is allowed to give the permissions they are trying to give.");
 					Set<Campaign.Role> roles = new HashSet<Campaign.Role>();
 					for(Set<Campaign.Role> currRoles : usersAndRolesToAdd.values()) {
 						roles.addAll(currRoles);
@@ -378,7 +378,7 @@ public class CampaignUpdateRequest extends UserRequest {
 			}
 			
 			if((usersAndRolesToRemove != null) && (! isAdmin)) {
-				LOGGER.info("Verifying that the user is allowed to revoke permissions that they are trying to revoke access.");
+				LOGGER.debug("Verifying that the user is allowed to revoke permissions that they are trying to revoke access.");
 				Set<Campaign.Role> roles = new HashSet<Campaign.Role>();
 				for(Set<Campaign.Role> currRoles : usersAndRolesToRemove.values()) {
 					roles.addAll(currRoles);
@@ -386,7 +386,7 @@ public class CampaignUpdateRequest extends UserRequest {
 				UserCampaignServices.instance().verifyUserCanGrantOrRevokeRoles(getUser().getUsername(), campaignId, roles);
 			}
 			
-			LOGGER.info("Updating the campaign.");
+			LOGGER.debug("Updating the campaign.");
 			CampaignServices.instance().updateCampaign(
 					campaignId, 
 					xml, 
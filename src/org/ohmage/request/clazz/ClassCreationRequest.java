@@ -88,7 +88,7 @@ public class ClassCreationRequest extends UserRequest {
 	public ClassCreationRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a class creation request.");
+		LOGGER.debug("Creating a class creation request.");
 		
 		String tempClassId = null;
 		String tempClassName = null;
@@ -150,7 +150,7 @@ public class ClassCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a class creation request.");
+		LOGGER.debug("Servicing a class creation request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -158,24 +158,24 @@ public class ClassCreationRequest extends UserRequest {
 		
 		try {
 			// Check if the user is an administrator.
-			LOGGER.info("Checking that the user can create classes.");
+			LOGGER.debug("Checking that the user can create classes.");
 			UserServices
 				.instance()
 				.verifyUserCanCreateClasses(getUser().getUsername());
 			
 			// Check that the class doesn't already exist.
-			LOGGER.info("Checking that a class with the same ID doesn't already exist.");
+			LOGGER.debug("Checking that a class with the same ID doesn't already exist.");
 			ClassServices.instance().checkClassExistence(classId, false);
 			
 			// Create the class.
-			LOGGER.info("Creating the class.");
+			LOGGER.debug("Creating the class.");
 			ClassServices.instance().createClass(classId, className, classDescription);
 			
 			// Add the user to the class.
 			Map<String, Clazz.Role> usersToAdd =
 				new HashMap<String, Clazz.Role>();
 			usersToAdd.put(getUser().getUsername(), Clazz.Role.PRIVILEGED);
-			LOGGER.info("Adding the user to the class.");
+			LOGGER.debug("Adding the user to the class.");
 			ClassServices
 				.instance()
 				.updateClass(classId, null, null, usersToAdd, null);
@@ -84,7 +84,7 @@ public class ClassDeletionRequest extends UserRequest {
 		
 		if(! isFailed()) {
 			try {
-				LOGGER.info("Creating a class deletion request.");
+				LOGGER.debug("Creating a class deletion request.");
 				String t[];
 
 				tempClassId = ClassValidators.validateClassId(httpRequest.getParameter(InputKeys.CLASS_URN));
@@ -130,7 +130,7 @@ public class ClassDeletionRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a class deletion request.");
+		LOGGER.debug("Servicing a class deletion request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -144,7 +144,7 @@ public class ClassDeletionRequest extends UserRequest {
 				.instance()
 				.verifyUserCanDeleteClasses(getUser().getUsername(), classId);
 			
-			LOGGER.info("Checking that the class exists.");
+			LOGGER.debug("Checking that the class exists.");
 			ClassServices.instance().checkClassExistence(classId, true);
 			
 			if (checkOrphanCampaigns) {
@@ -152,7 +152,7 @@ public class ClassDeletionRequest extends UserRequest {
 				ClassServices.instance().checkDeleteClassCauseOrphanCampaigns(classId);
 			}
 			
-			LOGGER.info("Deleting the class.");
+			LOGGER.debug("Deleting the class.");
 			ClassServices.instance().deleteClass(classId);
 		}
 		catch(ServiceException e) {
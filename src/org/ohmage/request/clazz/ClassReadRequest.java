@@ -120,7 +120,7 @@ public class ClassReadRequest extends UserRequest {
 		boolean tWithUserList = true;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a new class read request.");
+			LOGGER.debug("Creating a new class read request.");
 			
 			try {
 				String[] t;
@@ -204,14 +204,14 @@ public class ClassReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a class read request.");
+		LOGGER.debug("Servicing a class read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Gathering the information about the classes in the list.");
+			LOGGER.debug("Gathering the information about the classes in the list.");
 			result.putAll(
 					ClassServices.instance().getClassesInformation(
 							getUser().getUsername(),
@@ -234,10 +234,10 @@ public class ClassReadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Writing the result to the user.");
+		LOGGER.debug("Writing the result to the user.");
 		
 		// Populate our result JSONObject with class information.
-		LOGGER.info("Creating the result JSONObject with the information about the classes.");
+		LOGGER.debug("Creating the result JSONObject with the information about the classes.");
 		JSONObject jsonResult = new JSONObject();
 		try {
 			for(Clazz clazz : result.keySet()) {
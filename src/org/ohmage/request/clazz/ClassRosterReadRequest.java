@@ -85,7 +85,7 @@ public class ClassRosterReadRequest extends UserRequest {
 	public ClassRosterReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.EITHER, null);
 		
-		LOGGER.info("Creating a class roster read request.");
+		LOGGER.debug("Creating a class roster read request.");
 		
 		Set<String> tClassIds = null;
 		
@@ -114,20 +114,20 @@ public class ClassRosterReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the class roster read request.");
+		LOGGER.debug("Servicing the class roster read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the classes in the class list exist.");
+			LOGGER.debug("Verifying that the classes in the class list exist.");
 			ClassServices.instance().checkClassesExistence(classIds, true);
 			
-			LOGGER.info("Verify that the user is an admin or that they are privileged in each of the classes in a list.");
+			LOGGER.debug("Verify that the user is an admin or that they are privileged in each of the classes in a list.");
 			UserClassServices.instance().userIsAdminOrPrivilegedInAllClasses(getUser().getUsername(), classIds);
 			
-			LOGGER.info("Generating the class roster.");
+			LOGGER.debug("Generating the class roster.");
 			roster = ClassServices.instance().generateClassRoster(getUser().getUsername(), classIds);
 		}
 		catch(ServiceException e) {
@@ -143,7 +143,7 @@ public class ClassRosterReadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Writing the class roster read response.");
+		LOGGER.debug("Writing the class roster read response.");
 		
 		// Creates the writer that will write the response, success or fail.
 		Writer writer;
@@ -128,7 +128,7 @@ public class ClassRosterUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the class roster update request.");
+		LOGGER.debug("Servicing the class roster update request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -137,20 +137,20 @@ public class ClassRosterUpdateRequest extends UserRequest {
 		try {
 			Set<String> classIds = roster.keySet();
 			
-			LOGGER.info("Verifying that the classes in the class roster exist.");
+			LOGGER.debug("Verifying that the classes in the class roster exist.");
 			ClassServices.instance().checkClassesExistence(classIds, true);
 			
-			LOGGER.info("Verifying that the requester is an admin.");
+			LOGGER.debug("Verifying that the requester is an admin.");
 			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			
-			LOGGER.info("Verifying that the users in the roster exist.");
+			LOGGER.debug("Verifying that the users in the roster exist.");
 			Set<String> uniqueUsers = new HashSet<String>();
 			for(String classId : classIds) {
 				uniqueUsers.addAll(roster.get(classId).keySet());
 			}
 			UserServices.instance().verifyUsersExist(uniqueUsers, true);
 			
-			LOGGER.info("Updating the classes via the roster.");
+			LOGGER.debug("Updating the classes via the roster.");
 			warningMessages = ClassServices.instance().updateClassViaRoster(roster);
 		}
 		catch(ServiceException e) {
@@ -135,7 +135,7 @@ public class ClassSearchRequest extends UserRequest {
 		int tNumToReturn = Clazz.MAX_NUM_TO_RETURN;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a class search request.");
+			LOGGER.debug("Creating a class search request.");
 			
 			String[] t = null;
 			try {
@@ -218,17 +218,17 @@ public class ClassSearchRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the class search request.");
+		LOGGER.debug("Servicing the class search request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 
 		try {
-			LOGGER.info("Checking that the user is an admin.");
+			LOGGER.debug("Checking that the user is an admin.");
 			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			
-			LOGGER.info("Searching for the classes that satisfy the parameters.");
+			LOGGER.debug("Searching for the classes that satisfy the parameters.");
 			Collection<String> classIds = 
 				ClassServices.instance().
 					classIdSearch(classId, className, classDescription);
@@ -249,7 +249,7 @@ public class ClassSearchRequest extends UserRequest {
 				classIds = sortedClassIds.subList(numToSkip, lastIndex);
 			}
 			
-			LOGGER.info("Gathering the detailed information about the classes.");
+			LOGGER.debug("Gathering the detailed information about the classes.");
 			classes.putAll(
 				ClassServices.instance().getClassesInformation(
 						getUser().getUsername(), 
@@ -259,7 +259,7 @@ public class ClassSearchRequest extends UserRequest {
 						null,
 						true));
 			
-			LOGGER.info("Gathering the IDs for the campaigns associated with each class.");
+			LOGGER.debug("Gathering the IDs for the campaigns associated with each class.");
 			for(Clazz clazz : classes.keySet()) {
 				classToCampaignIdsMap.put(
 						clazz, 
@@ -280,7 +280,7 @@ public class ClassSearchRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to a class search request.");
+		LOGGER.debug("Responding to a class search request.");
 		JSONObject result = null;
 		JSONObject metadata = null;
 		
@@ -177,19 +177,19 @@ public class ClassUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a class update request.");
+		LOGGER.debug("Servicing a class update request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {	
-			LOGGER.info("Checking that the user is privileged in the class or is an admin.");
+			LOGGER.debug("Checking that the user is privileged in the class or is an admin.");
 			UserClassServices
 				.instance().
 				userIsAdminOrPrivileged(classId, getUser().getUsername());
 			
-			LOGGER.info("Checking that the class exists.");
+			LOGGER.debug("Checking that the class exists.");
 			ClassServices.instance().checkClassExistence(classId, true);
 			
 			// Validate the list of users to add.
@@ -225,14 +225,14 @@ public class ClassUpdateRequest extends UserRequest {
 									"add users to a class.");
 					}
 					
-					LOGGER.info("Verifying that the new users exist.");
+					LOGGER.debug("Verifying that the new users exist.");
 					UserServices
 						.instance()
 						.verifyUsersExist(usersToAdd.keySet(), true);
 				}
 			}
 			
-			LOGGER.info("Updating the class.");
+			LOGGER.debug("Updating the class.");
 			ClassServices.instance().updateClass(classId, className, classDescription, usersToAdd, usersToRemove);
 		}
 		catch(ServiceException e) {
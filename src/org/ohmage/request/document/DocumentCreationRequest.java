@@ -135,7 +135,7 @@ public class DocumentCreationRequest extends UserRequest {
 	public DocumentCreationRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a new document creation request.");
+		LOGGER.debug("Creating a new document creation request.");
 		
 		byte[] tempDocument = null;
 		String tempName = null;
@@ -215,7 +215,7 @@ public class DocumentCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a document creation request.");
+		LOGGER.debug("Servicing a document creation request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -224,7 +224,7 @@ public class DocumentCreationRequest extends UserRequest {
 		try {
 			boolean isAdmin;
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 				
 				LOGGER.info("The user is an admin.");
@@ -239,13 +239,13 @@ public class DocumentCreationRequest extends UserRequest {
 				List<String> campaignIds = 
 						new ArrayList<String>(campaignRoleMap.keySet());
 				
-				LOGGER.info("Verifying that the campaigns in the campaign-role list exist.");
+				LOGGER.debug("Verifying that the campaigns in the campaign-role list exist.");
 				CampaignServices.instance().checkCampaignsExistence(
 						campaignIds, 
 						true);
 				
 				if(! isAdmin) {
-					LOGGER.info("Verifying that the user can associate documents with the campaigns in the campaign-role list.");
+					LOGGER.debug("Verifying that the user can associate documents with the campaigns in the campaign-role list.");
 					UserCampaignDocumentServices
 						.instance()
 							.userCanAssociateDocumentsWithCampaigns(
@@ -258,11 +258,11 @@ public class DocumentCreationRequest extends UserRequest {
 				List<String> classIds = 
 						new ArrayList<String>(classRoleMap.keySet());
 				
-				LOGGER.info("Verifying that the classes in the class-role list exist.");
+				LOGGER.debug("Verifying that the classes in the class-role list exist.");
 				ClassServices.instance().checkClassesExistence(classIds, true);
 				
 				if(! isAdmin) {
-					LOGGER.info("Verifying that the user can associate documents with the classes in the class-role list.");
+					LOGGER.debug("Verifying that the user can associate documents with the classes in the class-role list.");
 					UserClassDocumentServices
 						.instance()
 							.userCanAssociateDocumentsWithClasses(
@@ -271,7 +271,7 @@ public class DocumentCreationRequest extends UserRequest {
 				}
 			}
 			
-			LOGGER.info("Creating the document.");
+			LOGGER.debug("Creating the document.");
 			documentId = DocumentServices.instance().createDocument(
 					document, 
 					name, 
@@ -102,27 +102,27 @@ public class DocumentDeletionRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the document read contents request.");
+		LOGGER.debug("Servicing the document read contents request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the document exists.");
+			LOGGER.debug("Verifying that the document exists.");
 			DocumentServices.instance().ensureDocumentExistence(documentId);
 			
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			}
 			catch(ServiceException e) {
 				LOGGER.info("The user is not an admin.");
-				LOGGER.info("Verifying that the requesting user can delete this document.");
+				LOGGER.debug("Verifying that the requesting user can delete this document.");
 				UserDocumentServices.instance().userCanDeleteDocument(getUser().getUsername(), documentId);
 			}
 			
-			LOGGER.info("Deleting the document.");
+			LOGGER.debug("Deleting the document.");
 			DocumentServices.instance().deleteDocument(documentId);
 		}
 		catch(ServiceException e) {
@@ -114,30 +114,30 @@ public class DocumentReadContentsRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the document read contents request.");
+		LOGGER.debug("Servicing the document read contents request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the document exists.");
+			LOGGER.debug("Verifying that the document exists.");
 			DocumentServices.instance().ensureDocumentExistence(documentId);
 			
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			}
 			catch(ServiceException e) {
 				LOGGER.info("The user is not an admin.");
-				LOGGER.info("Verifying that the requesting user can read the contents of this document.");
+				LOGGER.debug("Verifying that the requesting user can read the contents of this document.");
 				UserDocumentServices.instance().userCanReadDocument(getUser().getUsername(), documentId);
 			}
 			
-			LOGGER.info("Retrieving the document's name.");
+			LOGGER.debug("Retrieving the document's name.");
 			documentName = DocumentServices.instance().getDocumentName(documentId);
 			
-			LOGGER.info("Retrieving the document's contents.");
+			LOGGER.debug("Retrieving the document's contents.");
 			contentsStream = DocumentServices.instance().getDocumentInputStream(documentId);
 		}
 		catch(ServiceException e) {
@@ -155,7 +155,7 @@ public class DocumentReadContentsRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Writing read document contents response.");
+		LOGGER.debug("Writing read document contents response.");
 		
 		// Creates the writer that will write the response, success or fail.
 		OutputStream os;
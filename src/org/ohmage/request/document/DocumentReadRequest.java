@@ -133,7 +133,7 @@ public class DocumentReadRequest extends UserRequest {
 		
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a document read request.");
+			LOGGER.debug("Creating a document read request.");
 			String[] t;
 			
 			try {
@@ -243,14 +243,14 @@ public class DocumentReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the document read request.");
+		LOGGER.debug("Servicing the document read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Gathering the document information.");
+			LOGGER.debug("Gathering the document information.");
 			result = 
 					UserDocumentServices.instance().getDocumentInformation(
 							getUser().getUsername(), 
@@ -262,7 +262,7 @@ public class DocumentReadRequest extends UserRequest {
 							startDate,
 							endDate);
 			
-			LOGGER.info("Found " + result.size() + " documents.");
+			LOGGER.debug("Found " + result.size() + " documents.");
 		}
 		catch(ServiceException e) {
 			e.failRequest(this);
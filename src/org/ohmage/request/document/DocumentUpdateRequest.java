@@ -292,20 +292,20 @@ public class DocumentUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the document update request.");
+		LOGGER.debug("Servicing the document update request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the document exists.");
+			LOGGER.debug("Verifying that the document exists.");
 			DocumentServices.instance().ensureDocumentExistence(documentId);
 			
 			boolean isAdmin;
 			Document.Role highestRole = null;
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 				
 				LOGGER.info("The user is an admin.");
@@ -315,81 +315,81 @@ public class DocumentUpdateRequest extends UserRequest {
 				LOGGER.info("The user is not an admin.");
 				isAdmin = false;
 
-				LOGGER.info("Verifying that the user can modify the document.");
+				LOGGER.debug("Verifying that the user can modify the document.");
 				UserDocumentServices.instance().userCanModifyDocument(getUser().getUsername(), documentId);
 				
-				LOGGER.info("Getting the user's highest role for the document.");
+				LOGGER.debug("Getting the user's highest role for the document.");
 				highestRole = UserDocumentServices.instance().getHighestDocumentRoleForUserForDocument(getUser().getUsername(), documentId);
 			}
 			
 			if(campaignAndRolesToAdd != null) {
-				LOGGER.info("Verifying that the campaigns in the campaign-role list exist.");
+				LOGGER.debug("Verifying that the campaigns in the campaign-role list exist.");
 				CampaignServices.instance().checkCampaignsExistence(campaignAndRolesToAdd.keySet(), true);
 				
 				if(! isAdmin) {
-					LOGGER.info("Verifying that the user can associate the document with the campaigns in the campaign-role list.");
+					LOGGER.debug("Verifying that the user can associate the document with the campaigns in the campaign-role list.");
 					UserCampaignDocumentServices.instance().userCanAssociateDocumentsWithCampaigns(getUser().getUsername(), campaignAndRolesToAdd.keySet());
 				
-					LOGGER.info("Verifying that the user is not attempting to give more permissions to a campaign than they have.");
+					LOGGER.debug("Verifying that the user is not attempting to give more permissions to a campaign than they have.");
 					DocumentServices.instance().ensureRoleNotLessThanRoles(highestRole, campaignAndRolesToAdd.values());
 				}
 			}
 			
 			if(campaignsToRemove != null) {
-				LOGGER.info("Verifying that the campaigns in the campaign list exist.");
+				LOGGER.debug("Verifying that the campaigns in the campaign list exist.");
 				CampaignServices.instance().checkCampaignsExistence(campaignsToRemove, true);
 				
 				if(! isAdmin) {
-					LOGGER.info("Verifying that the user has enough permissions in the campaigns to disassociate them from the document.");
+					LOGGER.debug("Verifying that the user has enough permissions in the campaigns to disassociate them from the document.");
 					UserCampaignDocumentServices.instance().userCanDisassociateDocumentsFromCampaigns(getUser().getUsername(), campaignsToRemove);
 				
-					LOGGER.info("Verifying that the user is not attempting to revoke more permissions from campaigns than they have.");
+					LOGGER.debug("Verifying that the user is not attempting to revoke more permissions from campaigns than they have.");
 					CampaignDocumentServices.instance().ensureRoleHighEnoughToDisassociateDocumentFromCampaigns(highestRole, campaignsToRemove, documentId);
 				}
 			}
 			
 			if(classAndRolesToAdd != null) {
-				LOGGER.info("Verifying that the classes in the class-role list exist.");
+				LOGGER.debug("Verifying that the classes in the class-role list exist.");
 				ClassServices.instance().checkClassesExistence(classAndRolesToAdd.keySet(), true);
 				
 				if(! isAdmin) {
-					LOGGER.info("Verifying that the user can associate the document with the classes in the class-role list.");
+					LOGGER.debug("Verifying that the user can associate the document with the classes in the class-role list.");
 					UserClassDocumentServices.instance().userCanAssociateDocumentsWithClasses(getUser().getUsername(), classAndRolesToAdd.keySet());
 					
-					LOGGER.info("Verifying that the user is not attempting to give more permissions to a class than they have.");
+					LOGGER.debug("Verifying that the user is not attempting to give more permissions to a class than they have.");
 					DocumentServices.instance().ensureRoleNotLessThanRoles(highestRole, classAndRolesToAdd.values());
 				}
 			}
 			
 			if(classesToRemove != null) {
-				LOGGER.info("Verifying that the classes in the class list exist.");
+				LOGGER.debug("Verifying that the classes in the class list exist.");
 				ClassServices.instance().checkClassesExistence(classesToRemove, true);
 				
 				if(! isAdmin) {
-					LOGGER.info("Verifying that the user has enough permissions in the classes to disassociate them from the document.");
+					LOGGER.debug("Verifying that the user has enough permissions in the classes to disassociate them from the document.");
 					UserClassDocumentServices.instance().userCanDisassociateDocumentsWithClasses(getUser().getUsername(), classesToRemove);
 				
-					LOGGER.info("Verifying that the user is not attempting to revoke more permissions from classes than they have.");
+					LOGGER.debug("Verifying that the user is not attempting to revoke more permissions from classes than they have.");
 					ClassDocumentServices.instance().ensureRoleHighEnoughToDisassociateDocumentFromClasses(highestRole, classesToRemove, documentId);
 				}
 			}
 			
 			if(userAndRolesToAdd != null) {
-				LOGGER.info("Verifying that the users in the user-role list exist.");
+				LOGGER.debug("Verifying that the users in the user-role list exist.");
 				UserServices.instance().verifyUsersExist(userAndRolesToAdd.keySet(), true);
 				
 				if(! isAdmin) {
-					LOGGER.info("Verifying that the user is not attempting to give more permissions to a user than they have.");
+					LOGGER.debug("Verifying that the user is not attempting to give more permissions to a user than they have.");
 					DocumentServices.instance().ensureRoleNotLessThanRoles(highestRole, userAndRolesToAdd.values());
 				}
 			}
 			
 			if((usersToRemove != null) && (! isAdmin)) {
-				LOGGER.info("Verifying that the user is not attempting to revoke more permissions from users than they have.");
+				LOGGER.debug("Verifying that the user is not attempting to revoke more permissions from users than they have.");
 				UserDocumentServices.instance().ensureRoleHighEnoughToDisassociateDocumentFromOtherUsers(highestRole, usersToRemove, documentId);
 			}
 			
-			LOGGER.info("Updating the document.");
+			LOGGER.debug("Updating the document.");
 			DocumentServices.instance().updateDocument(
 					documentId, 
 					newContents, 
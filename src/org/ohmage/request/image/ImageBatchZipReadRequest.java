@@ -1,7 +1,6 @@
 package org.ohmage.request.image;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -10,22 +9,24 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.UUID;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.log4j.Logger;
 import org.json.JSONObject;
+import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.domain.campaign.PromptResponse;
 import org.ohmage.domain.campaign.RepeatableSetResponse;
 import org.ohmage.domain.campaign.Response;
 import org.ohmage.domain.campaign.SurveyResponse;
 import org.ohmage.exception.InvalidRequestException;
 import org.ohmage.exception.ServiceException;
+import org.ohmage.exception.ValidationException;
+import org.ohmage.request.InputKeys;
 import org.ohmage.request.survey.SurveyResponseRequest;
 import org.ohmage.service.ImageServices;
+import org.ohmage.validator.ImageValidators;
 
 /**
  * <p>Reads all of the images for a campaign that match the given criteria and
@@ -91,6 +92,21 @@ import org.ohmage.service.ImageServices;
  *       </td>
  *     <td>false</td>
  *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#IMAGE_ZIP_PART_SIZE}</td>
+ *     <td>Splits the export into parts with this many images each. The 
+ *       images are always in the same order, so an interrupted export can be
+ *       resumed by requesting only the missing parts. The number of parts is
+ *       returned in the {@value #HEADER_PART_COUNT} header.</td>
+ *     <td>false</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#IMAGE_ZIP_PART}</td>
+ *     <td>The part to return, starting at zero. This is only allowed with
+ *       {@value org.ohmage.request.InputKeys#IMAGE_ZIP_PART_SIZE} and 
+ *       defaults to zero.</td>
+ *     <td>false</td>
+ *   </tr>
  * </table>
  *
  * @author John Jenkins
@@ -99,7 +115,16 @@ public class ImageBatchZipReadRequest extends SurveyResponseRequest {
 	private static final Logger LOGGER = 
 			Logger.getLogger(ImageBatchZipReadRequest.class);
 	
+	/**
+	 * The response header with the number of parts in the export.
+	 */
+	public static final String HEADER_PART_COUNT = "X-Ohmage-Part-Count";
+	
 	private final Map<UUID, URL> imageUrls;
+	private final Integer part;
+	private final Integer partSize;
+	
+	private ImageZipWriter writer = null;
 	
 	/**
 	 * Creates a new ImageBatchZipReadRequest.
@@ -114,13 +139,54 @@ public class ImageBatchZipReadRequest extends SurveyResponseRequest {
 	public ImageBatchZipReadRequest(final HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest);
 		
-		// There are no parameters specific to this API that aren't covered in
-		// the SurveyResponseRequest.
+		Integer tPart = null;
+		Integer tPartSize = null;
+		
 		if(! isFailed()) {
-			LOGGER.info("Creating an image ZIP read request.");
+			LOGGER.debug("Creating an image ZIP read request.");
+			
+			try {
+				String[] t;
+				
+				t = getParameterValues(InputKeys.IMAGE_ZIP_PART_SIZE);
+				if(t.length > 1) {
+					throw new ValidationException(
+						ErrorCode.IMAGE_INVALID_ZIP_PART,
+						"Multiple part sizes were given: " + 
+							InputKeys.IMAGE_ZIP_PART_SIZE);
+				}
+				else if(t.length == 1) {
+					tPartSize = ImageValidators.validateZipPartSize(t[0]);
+				}
+				
+				t = getParameterValues(InputKeys.IMAGE_ZIP_PART);
+				if(t.length > 1) {
+					throw new ValidationException(
+						ErrorCode.IMAGE_INVALID_ZIP_PART,
+						"Multiple parts were given: " + 
+							InputKeys.IMAGE_ZIP_PART);
+				}
+				else if(t.length == 1) {
+					tPart = ImageValidators.validateZipPart(t[0]);
+				}
+				
+				if((tPart != null) && (tPartSize == null)) {
+					throw new ValidationException(
+						ErrorCode.IMAGE_INVALID_ZIP_PART,
+						"A part may only be requested if the number of " +
+							"images per part is given: " +
+							InputKeys.IMAGE_ZIP_PART_SIZE);
+				}
+			}
+			catch(ValidationException e) {
+				e.failRequest(this);
+				e.logException(LOGGER);
+			}
 		}
 		
 		imageUrls = new HashMap<UUID, URL>();
+		part = tPart;
+		partSize = tPartSize;
 	}
 	
 	/**
@@ -128,7 +194,7 @@ public class ImageBatchZipReadRequest extends SurveyResponseRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a image ZIP read request.");
+		LOGGER.debug("Servicing a image ZIP read request.");
 		
 		// We only need the prompt response.
 		Collection<SurveyResponse.ColumnKey> promptResponseColumn =
@@ -146,13 +212,13 @@ public class ImageBatchZipReadRequest extends SurveyResponseRequest {
 			return;
 		}
 		
-		LOGGER.info("Gathering the UUIDs from the survey responses.");
+		LOGGER.debug("Gathering the UUIDs from the survey responses.");
 		Collection<UUID> imageIds = new HashSet<UUID>();
 		for(SurveyResponse surveyResponse : getSurveyResponses()) {
 			imageIds.addAll(getImageIds(surveyResponse.getResponses().values()));
 		}
 		
-		LOGGER.info("Getting the URL for each UUID.");
+		LOGGER.debug("Getting the URL for each UUID.");
 		try {
 			for(UUID imageId : imageIds) {
 				URL imageUrl = ImageServices.instance().getImageUrl(imageId);
@@ -169,6 +235,16 @@ public class ImageBatchZipReadRequest extends SurveyResponseRequest {
 		catch(ServiceException e) {
 			e.failRequest(this);
 			e.logException(LOGGER);
+			return;
+		}
+		
+		writer = new ImageZipWriter(imageUrls, ".png");
+		if((part != null) && (part >= writer.getPartCount(partSize))) {
+			setFailed(
+				ErrorCode.IMAGE_INVALID_ZIP_PART, 
+				"The part does not exist. There are only " + 
+					writer.getPartCount(partSize) + 
+					" parts.");
 		}
 	}
 
@@ -187,125 +263,39 @@ public class ImageBatchZipReadRequest extends SurveyResponseRequest {
 			return;
 		}
 		
+		// The images are already compressed, so the ZIP file is not
+		// compressed again.
+		httpResponse.setContentType("application/zip");
+		
 		// We are going to try to write the response, so we will need to set
 		// the header to indicate that this will be an attachment.
-		httpResponse.setHeader(
-				"Content-Disposition", 
-				"attachment; filename=images.zip");
-		
-		// Create the zip stream to the outside world.
-		ZipOutputStream zipStream = null;
-		try {
-			zipStream = 
-					new ZipOutputStream(
-						getOutputStream(httpRequest, httpResponse));
+		if(partSize == null) {
+			httpResponse.setHeader(
+					"Content-Disposition", 
+					"attachment; filename=images.zip");
 		}
-		catch(IOException e) {
-			LOGGER.error("Unable to write response message. Aborting.", e);
-			return;
-		}
-		
-		// Stream each image into the input of the ZIP stream.
-		int lengthRead;
-		byte[] buffer = new byte[4096];
-		for(UUID imageId : imageUrls.keySet()) {
-			// First, attempt to connect to the image. If this cannot be done,
-			// we will simply skip this image and not return it in the ZIP 
-			// file.
-			InputStream imageStream;
-			try {
-				URL imageUrl = imageUrls.get(imageId);
-				imageStream = imageUrl.openStream();
-			}
-			catch(IOException e) {
-				LOGGER.info(
-						"The image does not exist, so it will not be added to the ZIP file: " +
-							imageId.toString(),
-						e);
-				continue;
-			}
-			
-			// Next, we create a new entry in the ZIP file for this image.
-			try {
-				zipStream.putNextEntry(new ZipEntry(imageId.toString() + ".png"));
-			}
-			catch(IOException e) {
-				LOGGER.error(
-						"Unable to add an entry to the stream: " +
-							imageId.toString(),
-						e);
-				break;
-			}
-			
-			// Attempt to read from the image buffer and shuffle it into the 
-			// ZIP file buffer.
-			try {
-				while((lengthRead = imageStream.read(buffer)) != -1) {
-					try {
-						zipStream.write(buffer, 0, lengthRead);
-					}
-					catch(IOException e) {
-						LOGGER.error(
-								"There was a problem writing the response: " +
-									imageId.toString(),
-								e);
-						break;
-					}
-				}
-			}
-			catch(IOException e) {
-				LOGGER.error(
-						"There was a problem reading the image's contents: " +
-							imageId.toString(),
-						e);
-				break;
-			}
-			
-			// Once we have copied the entire image into the buffer, we can 
-			// close it. If it fails to close, we don't really care because we
-			// have supposedly read everything we need.
-			try {
-				imageStream.close();	
-			}
-			catch(IOException e) {
-				LOGGER.error(
-						"There was a problem closing the connection to the image: " +
-							imageId.toString(),
-						e);
-				
-				// We don't abort here, because everything should have been
-				// successfully written to to the stream. Therefore, we should
-				// log that it happened, but we can safely continue.
-			}
-			
-			// Finally, close this entry in the ZIP file.
-			try {
-				zipStream.closeEntry();
-			}
-			catch(IOException e) {
-				LOGGER.error(
-						"There was a problem closing this image's entry: " +
-							imageId.toString(),
-						e);
-				break;
-			}
-		}
-		
-		// No matter what happens, we still try to flush what we did write to
-		// the output stream.
-		try {
-			zipStream.flush();
-		}
-		catch(IOException e) {
-			LOGGER.error("Couldn't flush the stream.", e);
+		else {
+			httpResponse.setHeader(
+					"Content-Disposition", 
+					"attachment; filename=images-" + 
+						((part == null) ? 0 : part) + 
+						".zip");
 		}
+		httpResponse.setHeader(
+				HEADER_PART_COUNT, 
+				Integer.toString(writer.getPartCount(partSize)));
 		
-		// Finally, we always want to close the stream.
+		// Write the images, or this request's part of them, as they are 
+		// read.
 		try {
-			zipStream.close();
+			writer
+				.write(
+					getOutputStream(httpRequest, httpResponse), 
+					(part == null) ? 0 : part, 
+					partSize);
 		}
 		catch(IOException e) {
-			LOGGER.error("Couldn't close the stream.", e);
+			LOGGER.error("Unable to write response message. Aborting.", e);
 		}
 	}
 	
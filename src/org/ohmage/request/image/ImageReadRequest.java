@@ -102,7 +102,7 @@ public class ImageReadRequest extends UserRequest {
 		Image.Size tSize = Image.ORIGINAL;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an image read request.");
+			LOGGER.debug("Creating an image read request.");
 			String[] t;
 			
 			try {
@@ -158,26 +158,26 @@ public class ImageReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing image read request.");
+		LOGGER.debug("Servicing image read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the image exists.");
+			LOGGER.debug("Verifying that the image exists.");
 			ImageServices.instance().verifyImageExistance(imageId, true);
 			
 			try {
-				LOGGER.info("Checking if the user is an admin."); 
+				LOGGER.debug("Checking if the user is an admin."); 
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			}
 			catch(ServiceException e) {
-				LOGGER.info("Verifying that the user can read the image.");
+				LOGGER.debug("Verifying that the user can read the image.");
 				UserImageServices.instance().verifyUserCanReadImage(getUser().getUsername(), imageId);
 			}
 			
-			LOGGER.info("Retrieving the original image.");
+			LOGGER.debug("Retrieving the original image.");
 			image = ImageServices.instance().getImage(imageId, size);
 		}
 		catch(ServiceException e) {
@@ -192,7 +192,7 @@ public class ImageReadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Writing the image read response.");
+		LOGGER.debug("Writing the image read response.");
 		
 		if(ANDROID_CLIENT_NAME.equals(getClient())) {
 
@@ -255,7 +255,7 @@ public class ImageReadRequest extends UserRequest {
 				// fail.
 				OutputStream os;
 				try {
-					os = httpResponse.getOutputStream();
+					os = getOutputStream(httpRequest, httpResponse);
 				}
 				catch(IOException e) {
 					LOGGER.error(
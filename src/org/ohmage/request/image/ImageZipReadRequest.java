@@ -1,7 +1,6 @@
 package org.ohmage.request.image;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -10,8 +9,6 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.UUID;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -39,7 +36,7 @@ public class ImageZipReadRequest extends SurveyResponseRequest {
 		// There are no parameters specific to this API that aren't covered in
 		// the SurveyResponseRequest.
 		if(! isFailed()) {
-			LOGGER.info("Creating an image ZIP read request.");
+			LOGGER.debug("Creating an image ZIP read request.");
 		}
 		
 		imageUrls = new HashMap<UUID, URL>();
@@ -47,7 +44,7 @@ public class ImageZipReadRequest extends SurveyResponseRequest {
 	
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a image ZIP read request.");
+		LOGGER.debug("Servicing a image ZIP read request.");
 		
 		// We only need the prompt response.
 		Collection<SurveyResponse.ColumnKey> promptResponseColumn =
@@ -65,13 +62,13 @@ public class ImageZipReadRequest extends SurveyResponseRequest {
 			return;
 		}
 		
-		LOGGER.info("Gathering the UUIDs from the survey responses.");
+		LOGGER.debug("Gathering the UUIDs from the survey responses.");
 		Collection<UUID> imageIds = new HashSet<UUID>();
 		for(SurveyResponse surveyResponse : getSurveyResponses()) {
 			imageIds.addAll(getImageIds(surveyResponse.getResponses().values()));
 		}
 		
-		LOGGER.info("Getting the URL for each UUID.");
+		LOGGER.debug("Getting the URL for each UUID.");
 		try {
 			for(UUID imageId : imageIds) {
 				URL imageUrl = ImageServices.instance().getImageUrl(imageId);
@@ -102,125 +99,23 @@ public class ImageZipReadRequest extends SurveyResponseRequest {
 			return;
 		}
 		
+		// The images are already compressed, so the ZIP file is not
+		// compressed again.
+		httpResponse.setContentType("application/zip");
+		
 		// We are going to try to write the response, so we will need to set
 		// the header to indicate that this will be an attachment.
 		httpResponse.setHeader(
 				"Content-Disposition", 
 				"attachment; filename=images.zip");
 		
-		// Create the zip stream to the outside world.
-		ZipOutputStream zipStream = null;
+		// Write the images as they are read.
 		try {
-			zipStream = 
-					new ZipOutputStream(
-						getOutputStream(httpRequest, httpResponse));
+			new ImageZipWriter(imageUrls, "")
+				.write(getOutputStream(httpRequest, httpResponse), 0, null);
 		}
 		catch(IOException e) {
 			LOGGER.error("Unable to write response message. Aborting.", e);
-			return;
-		}
-		
-		// Stream each image into the input of the ZIP stream.
-		int lengthRead;
-		byte[] buffer = new byte[4096];
-		for(UUID imageId : imageUrls.keySet()) {
-			// First, attempt to connect to the image. If this cannot be done,
-			// we will simply skip this image and not return it in the ZIP 
-			// file.
-			InputStream imageStream;
-			try {
-				URL imageUrl = imageUrls.get(imageId);
-				imageStream = imageUrl.openStream();
-			}
-			catch(IOException e) {
-				LOGGER.info(
-						"The image does not exist, so it will not be added to the ZIP file: " +
-							imageId.toString(),
-						e);
-				continue;
-			}
-			
-			// Next, we create a new entry in the ZIP file for this image.
-			try {
-				zipStream.putNextEntry(new ZipEntry(imageId.toString()));
-			}
-			catch(IOException e) {
-				LOGGER.error(
-						"Unable to add an entry to the stream: " +
-							imageId.toString(),
-						e);
-				break;
-			}
-			
-			// Attempt to read from the image buffer and shuffle it into the 
-			// ZIP file buffer.
-			try {
-				while((lengthRead = imageStream.read(buffer)) != -1) {
-					try {
-						zipStream.write(buffer, 0, lengthRead);
-					}
-					catch(IOException e) {
-						LOGGER.error(
-								"There was a problem writing the response: " +
-									imageId.toString(),
-								e);
-						break;
-					}
-				}
-			}
-			catch(IOException e) {
-				LOGGER.error(
-						"There was a problem reading the image's contents: " +
-							imageId.toString(),
-						e);
-				break;
-			}
-			
-			// Once we have copied the entire image into the buffer, we can 
-			// close it. If it fails to close, we don't really care because we
-			// have supposedly read everything we need.
-			try {
-				imageStream.close();	
-			}
-			catch(IOException e) {
-				LOGGER.error(
-						"There was a problem closing the connection to the image: " +
-							imageId.toString(),
-						e);
-				
-				// We don't abort here, because everything should have been
-				// successfully written to to the stream. Therefore, we should
-				// log that it happened, but we can safely continue.
-			}
-			
-			// Finally, close this entry in the ZIP file.
-			try {
-				zipStream.closeEntry();
-			}
-			catch(IOException e) {
-				LOGGER.error(
-						"There was a problem closing this image's entry: " +
-							imageId.toString(),
-						e);
-				break;
-			}
-		}
-		
-		// No matter what happens, we still try to flush what we did write to
-		// the output stream.
-		try {
-			zipStream.flush();
-		}
-		catch(IOException e) {
-			LOGGER.error("Couldn't flush the stream.", e);
-		}
-		
-		// Finally, we always want to close the stream.
-		try {
-			zipStream.close();
-		}
-		catch(IOException e) {
-			LOGGER.error("Couldn't close the stream.", e);
 		}
 	}
 	
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.image;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.log4j.Logger;
+import org.ohmage.service.ImageServices;
+
+/**
+ * <p>
+ * Writes a set of images to a ZIP file. Images are already compressed, so 
+ * each one is STORED rather than deflated, and its size and CRC are computed
+ * from its contents as it is written. The next several images are read in
+ * parallel while the current one is being written, and each entry is written 
+ * to the response as soon as it is ready.
+ * </p>
+ * 
+ * <p>
+ * The images are always written in the order of their IDs, so an export may
+ * be split into parts of a fixed number of images. Each part is a complete
+ * ZIP file, and a client that is interrupted only needs to request the parts
+ * it has not yet received.
+ * </p>
+ */
+final class ImageZipWriter {
+	private static final Logger LOGGER = Logger.getLogger(ImageZipWriter.class);
+	
+	/**
+	 * The number of images that may be read ahead of the one being written.
+	 * This bounds the memory that an export may use.
+	 */
+	private static final int READ_AHEAD = 8;
+	
+	private final List<Map.Entry<UUID, URL>> images;
+	private final String entrySuffix;
+	
+	/**
+	 * Creates a writer for a set of images.
+	 * 
+	 * @param imageUrls The images' IDs and the URLs from which they are read.
+	 * 
+	 * @param entrySuffix The suffix added to each image's ID to name its 
+	 * 					  entry.
+	 */
+	ImageZipWriter(final Map<UUID, URL> imageUrls, final String entrySuffix) {
+		SortedMap<UUID, URL> sorted = new TreeMap<UUID, URL>(imageUrls);
+		images = new ArrayList<Map.Entry<UUID, URL>>(sorted.entrySet());
+		this.entrySuffix = entrySuffix;
+	}
+	
+	/**
+	 * Returns the number of parts in the export.
+	 * 
+	 * @param partSize The number of images in each part or null if the export
+	 * 				   is not split.
+	 * 
+	 * @return The number of parts, which is always at least one.
+	 */
+	int getPartCount(final Integer partSize) {
+		if((partSize == null) || images.isEmpty()) {
+			return 1;
+		}
+		return (images.size() + partSize - 1) / partSize;
+	}
+	
+	/**
+	 * Writes one part of the export as a ZIP file. Images that cannot be read
+	 * are logged and left out.
+	 * 
+	 * @param outputStream The stream to which the ZIP file is written. It is
+	 * 					   closed when the ZIP file is finished.
+	 * 
+	 * @param part The index of the part, starting at zero. This is ignored if
+	 * 			   the export is not split.
+	 * 
+	 * @param partSize The number of images in each part or null if the export
+	 * 				   is not split.
+	 * 
+	 * @throws IOException There was an error writing to the stream.
+	 */
+	void write(
+			final OutputStream outputStream,
+			final int part,
+			final Integer partSize) 
+			throws IOException {
+		
+		int first = 0;
+		int last = images.size();
+		if(partSize != null) {
+			first = Math.min(images.size(), part * partSize);
+			last = Math.min(images.size(), first + partSize);
+		}
+		
+		ZipOutputStream zipStream = new ZipOutputStream(outputStream);
+		zipStream.setMethod(ZipOutputStream.STORED);
+		
+		ImageServices imageServices = ImageServices.instance();
+		LinkedList<Future<byte[]>> pending = new LinkedList<Future<byte[]>>();
+		int next = first;
+		try {
+			for(int i = first; i < last; i++) {
+				// Keep the next several images being read.
+				while((next < last) && (next < i + READ_AHEAD)) {
+					pending.add(
+						imageServices
+							.readImageContents(images.get(next).getValue()));
+					next++;
+				}
+				
+				UUID imageId = images.get(i).getKey();
+				byte[] contents;
+				try {
+					contents = pending.removeFirst().get();
+				}
+				catch(ExecutionException e) {
+					LOGGER.info(
+						"The image could not be read, so it will not be " +
+							"added to the ZIP file: " + 
+							imageId.toString(),
+						e.getCause());
+					continue;
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException(
+						"Interrupted while reading the images.", 
+						e);
+				}
+				
+				CRC32 crc = new CRC32();
+				crc.update(contents);
+				
+				ZipEntry entry = new ZipEntry(imageId.toString() + entrySuffix);
+				entry.setMethod(ZipEntry.STORED);
+				entry.setSize(contents.length);
+				entry.setCompressedSize(contents.length);
+				entry.setCrc(crc.getValue());
+				
+				zipStream.putNextEntry(entry);
+				zipStream.write(contents);
+				zipStream.closeEntry();
+			}
+		}
+		finally {
+			// If the client went away, don't keep reading images for it.
+			for(Future<byte[]> future : pending) {
+				future.cancel(true);
+			}
+		}
+		
+		zipStream.close();
+	}
+}
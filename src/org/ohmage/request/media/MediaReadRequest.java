@@ -70,7 +70,7 @@ public class MediaReadRequest extends UserRequest {
 		UUID tMediaId = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a media read request.");
+			LOGGER.debug("Creating a media read request.");
 			String[] t;
 			
 			try {
@@ -117,7 +117,7 @@ public class MediaReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Validating a media read request.");
+		LOGGER.debug("Validating a media read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -130,7 +130,7 @@ public class MediaReadRequest extends UserRequest {
 				getUser().getUsername(), 
 				mediaId);
 			
-			LOGGER.info("Connecting to the media stream.");
+			LOGGER.debug("Connecting to the media stream.");
 			if (imageSize == null)
 				media = MediaServices.instance().getMedia(mediaId);
 			else image = ImageServices.instance().getImage(mediaId, imageSize);
@@ -154,7 +154,7 @@ public class MediaReadRequest extends UserRequest {
 		final HttpServletRequest httpRequest,
 		final HttpServletResponse httpResponse) {
 
-		LOGGER.info("Responding to a media read request.");
+		LOGGER.debug("Responding to a media read request.");
 		
 		// Sets the HTTP headers to disable caching
 		expireResponse(httpResponse);
@@ -208,7 +208,7 @@ public class MediaReadRequest extends UserRequest {
 				// fail.
 				OutputStream os;
 				try {
-					os = httpResponse.getOutputStream();
+					os = getOutputStream(httpRequest, httpResponse);
 				}
 				catch(IOException e) {
 					LOGGER.error(
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.media;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.request.UserRequest;
+import org.ohmage.service.DocumentServices;
+import org.ohmage.service.MediaServices;
+import org.ohmage.service.UserServices;
+
+/**
+ * <p>Moves the media files and documents that were stored before files were
+ * sharded by their UUID into their sharded directories and updates their
+ * URLs. This may take a long time for a large installation, but uploads and
+ * reads may continue while it runs, and it may be run again if it is
+ * interrupted. The requesting user must be an admin.</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUTH_TOKEN}</td>
+ *     <td>The requesting user's authentication token.</td>
+ *     <td>true</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CLIENT}</td>
+ *     <td>A string describing the client that is making this request.</td>
+ *     <td>true</td>
+ *   </tr>
+ * </table>
+ */
+public class MediaStorageMigrationRequest extends UserRequest {
+	private static final Logger LOGGER = 
+		Logger.getLogger(MediaStorageMigrationRequest.class);
+	
+	private static final String JSON_KEY_MEDIA_MIGRATED = "media_migrated";
+	private static final String JSON_KEY_DOCUMENTS_MIGRATED = 
+		"documents_migrated";
+	
+	private long numMediaMigrated;
+	private long numDocumentsMigrated;
+	
+	/**
+	 * Creates a media storage migration request.
+	 * 
+	 * @param httpRequest The HttpServletRequest with the parameters for this
+	 * 					  request.
+	 * 
+	 * @throws InvalidRequestException Thrown if the parameters cannot be 
+	 * 								   parsed.
+	 * 
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public MediaStorageMigrationRequest(
+			final HttpServletRequest httpRequest) 
+			throws IOException, InvalidRequestException {
+		
+		super(httpRequest, false, TokenLocation.EITHER, null);
+		
+		LOGGER.debug("Creating a media storage migration request.");
+		
+		numMediaMigrated = 0;
+		numDocumentsMigrated = 0;
+	}
+
+	/**
+	 * Services the request.
+	 */
+	@Override
+	public void service() {
+		LOGGER.debug("Servicing the media storage migration request.");
+		
+		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
+			return;
+		}
+		
+		try {
+			LOGGER.debug("Verifying that the user is an admin.");
+			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
+			
+			LOGGER.info("Migrating the media files.");
+			numMediaMigrated = MediaServices.instance().migrateMediaStorage();
+			LOGGER.info("Migrated " + numMediaMigrated + " media files.");
+			
+			LOGGER.info("Migrating the documents.");
+			numDocumentsMigrated = 
+				DocumentServices.instance().migrateDocumentStorage();
+			LOGGER.info("Migrated " + numDocumentsMigrated + " documents.");
+		}
+		catch(ServiceException e) {
+			e.failRequest(this);
+			e.logException(LOGGER);
+		}
+	}
+
+	/**
+	 * Responds to the request with the number of media files and documents
+	 * that were moved.
+	 */
+	@Override
+	public void respond(
+			final HttpServletRequest httpRequest, 
+			final HttpServletResponse httpResponse) {
+		
+		JSONObject result = new JSONObject();
+		try {
+			result.put(JSON_KEY_MEDIA_MIGRATED, numMediaMigrated);
+			result.put(JSON_KEY_DOCUMENTS_MIGRATED, numDocumentsMigrated);
+		}
+		catch(JSONException e) {
+			LOGGER.error("There was an error building the response.", e);
+			setFailed();
+		}
+		
+		super.respond(httpRequest, httpResponse, result);
+	}
+}
@@ -124,7 +124,7 @@ public class MobilityAggregateReadRequest extends UserRequest {
 		StreamReadRequest tExtendedReadRequest = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a Mobility aggregate read request.");
+			LOGGER.debug("Creating a Mobility aggregate read request.");
 			String[] t;
 			
 			try {
@@ -278,19 +278,19 @@ public class MobilityAggregateReadRequest extends UserRequest {
 			return;
 		}
 		
-		LOGGER.info("Servicing the Mobility read request.");
+		LOGGER.debug("Servicing the Mobility read request.");
 		
 		try {
 			if((username != null) && (! username.equals(getUser().getUsername()))) {
 				try {
-					LOGGER.info("Checking if the user is an admin.");
+					LOGGER.debug("Checking if the user is an admin.");
 					UserServices.instance().verifyUserIsAdmin(
 							getUser().getUsername());
 				}
 				catch(ServiceException notAdmin) {
 					LOGGER.info("The user is not an admin.");
 
-					LOGGER.info("Checking if reading Mobility points about another user is even allowed.");
+					LOGGER.debug("Checking if reading Mobility points about another user is even allowed.");
 					boolean isPlausible;
 					try {
 						isPlausible = 
@@ -303,7 +303,7 @@ public class MobilityAggregateReadRequest extends UserRequest {
 					}
 					
 					if(isPlausible) {
-						LOGGER.info("Checking if the requester is allowed to read Mobility points about the user.");
+						LOGGER.debug("Checking if the requester is allowed to read Mobility points about the user.");
 						UserClassServices
 							.instance()
 							.userIsPrivilegedInAnotherUserClass(
@@ -336,7 +336,7 @@ public class MobilityAggregateReadRequest extends UserRequest {
 						annotator.getErrorText());
 			}
 			
-			LOGGER.info("Aggregating the resulting points.");
+			LOGGER.debug("Aggregating the resulting points.");
 			Collection<DataStream> regularResults = 
 				regularReadRequest.getResults();
 			for(DataStream dataStream : regularResults) {
@@ -371,11 +371,11 @@ public class MobilityAggregateReadRequest extends UserRequest {
 				}
 			}
 			
-			LOGGER.info("Sorting the aggregated points.");
+			LOGGER.debug("Sorting the aggregated points.");
 			Collections.sort(points);
 			
 			// Run them through the classifier.
-			LOGGER.info("Classifying the points.");
+			LOGGER.debug("Classifying the points.");
 			MobilityServices.instance().classifyData(
 				regularReadRequest.getUser().getUsername(),
 				points);
@@ -395,7 +395,7 @@ public class MobilityAggregateReadRequest extends UserRequest {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 		
-		LOGGER.info("Responding to the Mobility aggregate read request.");
+		LOGGER.debug("Responding to the Mobility aggregate read request.");
 		
 		if(! isFailed()) {
 			try {
@@ -106,7 +106,7 @@ public class MobilityDatesReadRequest extends UserRequest {
 		String tUsername = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a Mobility dates read request.");
+			LOGGER.debug("Creating a Mobility dates read request.");
 			
 			try {
 				String[] t;
@@ -172,7 +172,7 @@ public class MobilityDatesReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the Mobility dates read request.");
+		LOGGER.debug("Servicing the Mobility dates read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -213,7 +213,7 @@ public class MobilityDatesReadRequest extends UserRequest {
 				UserServices.instance().checkUserExistance(username, true);
 			}
 			
-			LOGGER.info("Retreiving the dates.");
+			LOGGER.debug("Retreiving the dates.");
 			dates = 
 					MobilityServices.instance().getDates(
 							startDate, 
@@ -234,7 +234,7 @@ public class MobilityDatesReadRequest extends UserRequest {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 		
-		LOGGER.info("Responding to the Mobiltiy dates read request.");
+		LOGGER.debug("Responding to the Mobiltiy dates read request.");
 
 		JSONArray resultJson = new JSONArray();
 		
@@ -117,7 +117,7 @@ public class MobilityReadChunkedRequest extends UserRequest {
 	public MobilityReadChunkedRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, false, TokenLocation.EITHER, null);
 		
-		LOGGER.info("Creating a Mobility read chunked request.");
+		LOGGER.debug("Creating a Mobility read chunked request.");
 		
 		DateTime tStartDate = null;
 		DateTime tEndDate = null;
@@ -221,14 +221,14 @@ public class MobilityReadChunkedRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the Mobility read chunked request.");
+		LOGGER.debug("Servicing the Mobility read chunked request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Gathering the data.");
+			LOGGER.debug("Gathering the data.");
 			result =
 					MobilityServices.instance().retrieveMobilityData(
 						getUser().getUsername(), 
@@ -237,7 +237,7 @@ public class MobilityReadChunkedRequest extends UserRequest {
 						null, 
 						null, 
 						null);
-			LOGGER.info("Found " + result.size() + " results.");
+			LOGGER.debug("Found " + result.size() + " results.");
 		}
 		catch(ServiceException e) {
 			e.failRequest(this);
@@ -250,7 +250,7 @@ public class MobilityReadChunkedRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the Mobility read chunked request.");
+		LOGGER.debug("Responding to the Mobility read chunked request.");
 		
 		Map<Long, List<MobilityPoint>> millisToPointMap =
 				new HashMap<Long, List<MobilityPoint>>();
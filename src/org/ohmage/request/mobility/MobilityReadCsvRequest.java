@@ -1,5 +1,6 @@
 package org.ohmage.request.mobility;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -36,6 +37,13 @@ import org.ohmage.validator.UserValidators;
  * Reads the Mobility information about a user during a specified period of 
  * time.<br />
  * <br />
+ * The rows are streamed from the database as they are written, so the 
+ * request holds a database connection until the client has read the whole
+ * file. The export fails if it takes longer than
+ * {@link org.ohmage.query.impl.UserMobilityQueries#MAX_STREAMING_MILLIS}. A
+ * client that stops reading altogether is only dropped by the servlet 
+ * container's write timeout, so that timeout should be kept short.<br />
+ * <br />
  * <table border="1">
  *   <tr>
  *     <td>Parameter Name</td>
@@ -83,8 +91,6 @@ public class MobilityReadCsvRequest extends UserRequest {
 	private final String username;
 	private final List<ColumnKey> columns;
 	
-	private List<MobilityPoint> points;
-	
 	/**
 	 * Creates a Mobility read request where the result is a CSV file 
 	 * attachment on success and JSON when it fails.
@@ -172,8 +178,6 @@ public class MobilityReadCsvRequest extends UserRequest {
 		endDate = tEndDate;
 		username = tUsername;
 		columns = tColumns;
-		
-		points = new ArrayList<MobilityPoint>(0);
 	}
 	
 	/*
@@ -182,7 +186,7 @@ public class MobilityReadCsvRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the Mobility read request.");
+		LOGGER.debug("Servicing the Mobility read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -222,14 +226,6 @@ public class MobilityReadCsvRequest extends UserRequest {
 				
 				UserServices.instance().checkUserExistance(username, true);
 			}
-			
-			points = MobilityServices.instance().retrieveMobilityData(
-					(username == null) ? getUser().getUsername() : username,
-					startDate, 
-					endDate, 
-					null, 
-					null, 
-					null);
 		}
 		catch(ServiceException e) {
 			e.failRequest(this);
@@ -246,7 +242,7 @@ public class MobilityReadCsvRequest extends UserRequest {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 		
-		LOGGER.info("Responding to a Mobility CSV read call.");
+		LOGGER.debug("Responding to a Mobility CSV read call.");
 		
 		// If we have failed, let the parent take care of that.
 		if(isFailed()) {
@@ -254,20 +250,104 @@ public class MobilityReadCsvRequest extends UserRequest {
 			return;
 		}
 		
-		// Creates the writer that will write the response, success or fail.
-		OutputStream os;
+		// The points are written as they are read from the database, so the
+		// response isn't started until the first one arrives. Until then, a
+		// failure can still be reported normally.
+		CsvWriter csvWriter = new CsvWriter(httpRequest, httpResponse);
 		try {
-			os = getOutputStream(httpRequest, httpResponse);
+			MobilityServices.instance().processMobilityData(
+					(username == null) ? getUser().getUsername() : username,
+					startDate, 
+					endDate, 
+					null, 
+					null, 
+					null,
+					MobilityColumnKey.requiresSensorData(columns),
+					csvWriter);
+			
+			// If there were no points, this writes only the header.
+			csvWriter.start();
+			csvWriter.finish();
+		}
+		catch(ServiceException e) {
+			if(! csvWriter.isStarted()) {
+				e.failRequest(this);
+				e.logException(LOGGER);
+				super.respond(httpRequest, httpResponse, (JSONObject) null);
+				return;
+			}
+			
+			// If we fail while writing the rows, either the connection was
+			// broken or we are mid writing to the output stream, so we are
+			// simply in trouble.
+			LOGGER.error("Could not write the CSV rows.", e);
+			setFailed();
+			httpResponse.setStatus(
+					HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 		}
+		// If we fail while writing to the output stream, then the connection 
+		// was broken and there is nothing we can do.
 		catch(IOException e) {
-			LOGGER.error("Unable to create writer object. Aborting.", e);
-			return;
+			LOGGER.error("The contents of the file could not be read or written to the response.", e);
+			setFailed();
 		}
+	}
+	
+	/**
+	 * Writes each Mobility point as a CSV row as soon as it is read. The
+	 * response's headers and the CSV header are written with the first row.
+	 */
+	private final class CsvWriter implements MobilityPoint.Handler {
+		private final HttpServletRequest httpRequest;
+		private final HttpServletResponse httpResponse;
 		
-		// Sets the HTTP headers to disable caching
-		expireResponse(httpResponse);
-				
-		try {
+		private final List<Object> emptyList;
+		
+		private OutputStream os = null;
+		
+		/**
+		 * Creates a writer for the response.
+		 * 
+		 * @param httpRequest The HTTP request.
+		 * 
+		 * @param httpResponse The HTTP response.
+		 */
+		private CsvWriter(
+				final HttpServletRequest httpRequest,
+				final HttpServletResponse httpResponse) {
+			
+			this.httpRequest = httpRequest;
+			this.httpResponse = httpResponse;
+			
+			emptyList = new ArrayList<Object>(columns.size());
+			for(int i = 0; i < columns.size(); i++) {
+				emptyList.add(null);
+			}
+		}
+		
+		/**
+		 * Returns whether or not the response has been started.
+		 * 
+		 * @return Whether or not anything has been written.
+		 */
+		private boolean isStarted() {
+			return os != null;
+		}
+		
+		/**
+		 * Starts the response, if it hasn't been started, by setting its
+		 * headers and writing the CSV header.
+		 * 
+		 * @throws IOException The response could not be written.
+		 */
+		private void start() throws IOException {
+			if(os != null) {
+				return;
+			}
+			
+			// Sets the HTTP headers to disable caching
+			expireResponse(httpResponse);
+			
 			// Set the type and force the browser to download it as the 
 			// last step before beginning to stream the response.
 			httpResponse.setContentType("text/csv");
@@ -281,8 +361,11 @@ public class MobilityReadCsvRequest extends UserRequest {
 				}
 			}
 			
+			os =
+				new BufferedOutputStream(
+					getOutputStream(httpRequest, httpResponse));
+			
 			boolean firstPass = true;
-			int numColumns = 0;
 			for(ColumnKey column : columns) {
 				if(firstPass) {
 					firstPass = false;
@@ -292,80 +375,74 @@ public class MobilityReadCsvRequest extends UserRequest {
 				}
 				
 				os.write(column.toString().getBytes());
-				numColumns++;
 			}
 			os.write('\n');
+		}
+		
+		/**
+		 * Writes a point as a CSV row.
+		 */
+		@Override
+		public void handle(
+				final MobilityPoint point) 
+				throws DomainException, IOException {
 			
-			List<Object> emptyList = new ArrayList<Object>(numColumns);
-			for(int i = 0; i < numColumns; i++) {
-				emptyList.add(null);
-			}
+			start();
+			
+			List<Object> currResult = new ArrayList<Object>(emptyList);
+			point.toCsvRow(columns, currResult);
 			
-			for(MobilityPoint point : points) {
-				List<Object> currResult = new ArrayList<Object>(emptyList);
-				point.toCsvRow(columns, currResult);
+			boolean firstPass = true;
+			for(Object currColumn : currResult) {
+				if(firstPass) {
+					firstPass = false;
+				}
+				else {
+					os.write(',');
+				}
 				
-				firstPass = true;
-				for(Object currColumn : currResult) {
-					if(firstPass) {
-						firstPass = false;
-					}
-					else {
-						os.write(',');
-					}
-					
-					if(currColumn == null) {
-						continue;
-					}
+				if(currColumn == null) {
+					continue;
+				}
+				
+				if(currColumn instanceof Number) {
+					os.write(((Number) currColumn).toString().getBytes());
+				}
+				else {
+					os.write('"');
 					
-					if(currColumn instanceof Number) {
-						os.write(((Number) currColumn).toString().getBytes());
-					}
-					else {
-						os.write('"');
-						
-						if(currColumn instanceof Collection) {
-							boolean innerFirstPass = true;
-							for(Object currItem : (Collection<?>) currColumn) {
-								if(innerFirstPass) {
-									innerFirstPass = false;
-								}
-								else {
-									os.write(',');
-								}
-								
-								os.write(currItem.toString().getBytes());
+					if(currColumn instanceof Collection) {
+						boolean innerFirstPass = true;
+						for(Object currItem : (Collection<?>) currColumn) {
+							if(innerFirstPass) {
+								innerFirstPass = false;
 							}
+							else {
+								os.write(',');
+							}
+							
+							os.write(currItem.toString().getBytes());
 						}
-						else {
-							os.write(currColumn.toString().getBytes());
-						}
-						
-						os.write('"');
 					}
+					else {
+						os.write(currColumn.toString().getBytes());
+					}
+					
+					os.write('"');
 				}
-				
-				os.write('\n');
 			}
 			
-			// Flush and close the output stream that was used to generate
-			// the data output stream.
+			os.write('\n');
+		}
+		
+		/**
+		 * Flushes and closes the output stream.
+		 * 
+		 * @throws IOException The output stream could not be flushed.
+		 */
+		private void finish() throws IOException {
 			os.flush();
 			os.close();
 		}
-		// If we fail while writing to the output stream, then the connection 
-		// was broken and there is nothing we can do.
-		catch(IOException e) {
-			LOGGER.error("The contents of the file could not be read or written to the response.", e);
-			setFailed();
-		}
-		// If we fail while creating a result, we are mid writing to the output
-		// stream, so we are simply in trouble.
-		catch(DomainException e) {
-			LOGGER.error("Could not create a CSV row.", e);
-			setFailed();
-			httpResponse.setStatus(
-					HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-		}
 	}
-}
\ No newline at end of file
+}
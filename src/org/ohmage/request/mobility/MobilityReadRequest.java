@@ -15,7 +15,10 @@
  ******************************************************************************/
 package org.ohmage.request.mobility;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -27,7 +30,6 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.ohmage.annotator.Annotator.ErrorCode;
@@ -147,7 +149,7 @@ public class MobilityReadRequest extends Request {
 	public MobilityReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null);
 		
-		LOGGER.info("Creating a Mobility read request.");
+		LOGGER.debug("Creating a Mobility read request.");
 		
 		String tUsername = null;
 		DateTime tStartDate = null;
@@ -322,19 +324,19 @@ public class MobilityReadRequest extends Request {
 			return;
 		}
 		
-		LOGGER.info("Servicing the Mobility read request.");
+		LOGGER.debug("Servicing the Mobility read request.");
 		
 		try {
 			if((username != null) && (! username.equals(regularReadRequest.getUser().getUsername()))) {
 				try {
-					LOGGER.info("Checking if the user is an admin.");
+					LOGGER.debug("Checking if the user is an admin.");
 					UserServices.instance().verifyUserIsAdmin(
 						regularReadRequest.getUser().getUsername());
 				}
 				catch(ServiceException notAdmin) {
 					LOGGER.info("The user is not an admin.");
 
-					LOGGER.info(
+					LOGGER.debug(
 						"Checking if reading Mobility points about another user is even allowed.");
 					boolean isPlausible;
 					try {
@@ -348,7 +350,7 @@ public class MobilityReadRequest extends Request {
 					}
 					
 					if(isPlausible) {
-						LOGGER.info(
+						LOGGER.debug(
 							"Checking if the requester is allowed to read Mobility points about the user.");
 						UserClassServices
 							.instance()
@@ -374,7 +376,7 @@ public class MobilityReadRequest extends Request {
 				return;
 			}
 			
-			LOGGER.info("Aggregating the resulting points.");
+			LOGGER.debug("Aggregating the resulting points.");
 			Collection<DataStream> regularResults = 
 				regularReadRequest.getResults();
 			for(DataStream dataStream : regularResults) {
@@ -437,11 +439,11 @@ public class MobilityReadRequest extends Request {
 				}
 			}
 			
-			LOGGER.info("Sorting the aggregated points.");
+			LOGGER.debug("Sorting the aggregated points.");
 			Collections.sort(points);
 			
 			// Run them through the classifier.
-			LOGGER.info("Classifying the points.");
+			LOGGER.debug("Classifying the points.");
 			MobilityServices.instance().classifyData(
 				regularReadRequest.getUser().getUsername(),
 				points);
@@ -457,38 +459,88 @@ public class MobilityReadRequest extends Request {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the Mobiltiy read request.");
+		LOGGER.debug("Responding to the Mobiltiy read request.");
 
 		if(isFailed()) {
 			super.respond(httpRequest, httpResponse, null);
+			return;
 		}
 		else if(regularReadRequest.isFailed()) {
 			regularReadRequest.respond(httpRequest, httpResponse);
+			return;
 		}
 		else if(extendedReadRequest.isFailed()) {
 			extendedReadRequest.respond(httpRequest, httpResponse);
+			return;
 		}
 		
-		JSONObject resultObject = new JSONObject();
+		// Each point is serialized and written on its own rather than 
+		// building the entire response in memory first.
+		Writer writer;
 		try {
-			JSONArray resultArray = new JSONArray();
+			writer = 
+				new BufferedWriter(
+					new OutputStreamWriter(
+						getOutputStream(httpRequest, httpResponse)));
+		}
+		catch(IOException e) {
+			LOGGER.error("Unable to create writer object. Aborting.", e);
+			return;
+		}
+		
+		// Sets the HTTP headers to disable caching.
+		expireResponse(httpResponse);
+		httpResponse.setContentType("application/json");
+		
+		try {
+			writer.write(
+				"{" + 
+					JSONObject.quote(JSON_KEY_RESULT) + ":" +
+						JSONObject.quote(RESULT_SUCCESS) + "," +
+					JSONObject.quote(JSON_KEY_DATA) + ":[");
+			
+			boolean firstPass = true;
 			long startDateMillis = startDate.getMillis();
 			for(MobilityPoint mobilityPoint : points) {
 				if((mobilityPoint.getTime() + mobilityPoint.getTimezone().getOffset(mobilityPoint.getTime()))>= startDateMillis) {
-					resultArray.put(mobilityPoint.toJson(true, columns));
+					if(firstPass) {
+						firstPass = false;
+					}
+					else {
+						writer.write(',');
+					}
+					
+					writer.write(
+						mobilityPoint.toJson(true, columns).toString());
 				}
 			}
-			resultObject.put(JSON_KEY_DATA, resultArray);
+			
+			writer.write("]}");
+		}
+		catch(IOException e) {
+			LOGGER.error("Unable to write response message. Aborting.", e);
 		}
+		// If we fail while creating a point, we are mid writing to the 
+		// output stream, so we are simply in trouble.
 		catch(JSONException e) {
 			LOGGER.error("Error creating the JSONObject.", e);
 			setFailed();
+			httpResponse.setStatus(
+				HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 		}
 		catch(DomainException e) {
 			LOGGER.error("Error creating the JSONObject.", e);
 			setFailed();
+			httpResponse.setStatus(
+				HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+		}
+		finally {
+			try {
+				writer.close();
+			}
+			catch(IOException e) {
+				LOGGER.warn("Unable to close the writer.", e);
+			}
 		}
-
-		super.respond(httpRequest, httpResponse, resultObject);
 	}
-}
\ No newline at end of file
+}
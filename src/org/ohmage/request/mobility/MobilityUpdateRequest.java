@@ -45,7 +45,7 @@ public class MobilityUpdateRequest extends UserRequest {
 		MobilityPoint.PrivacyState tPrivacyState = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a Mobility update request.");
+			LOGGER.debug("Creating a Mobility update request.");
 			String[] t;
 			
 			try {
@@ -99,7 +99,7 @@ public class MobilityUpdateRequest extends UserRequest {
 		}
 		
 		try {
-			LOGGER.info("Verifying that the user is allowed to modify the point.");
+			LOGGER.debug("Verifying that the user is allowed to modify the point.");
 			MobilityServices.instance().verifyUserCanUpdatePoint(
 					getUser().getUsername(), 
 					mobilityId);
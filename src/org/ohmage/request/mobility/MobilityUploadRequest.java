@@ -16,6 +16,9 @@
 package org.ohmage.request.mobility;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -28,6 +31,7 @@ import org.apache.log4j.Logger;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.domain.ColumnKey;
 import org.ohmage.domain.Location;
@@ -159,6 +163,8 @@ import org.ohmage.service.ObserverServices;
 public class MobilityUploadRequest extends Request {
 	private static final Logger LOGGER = Logger.getLogger(MobilityUploadRequest.class);
 	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
 	private static final String OBSERVER_ID = "edu.ucla.cens.Mobility";
 	private static final long OBSERVER_VERSION = 2012061300;
 
@@ -187,7 +193,7 @@ public class MobilityUploadRequest extends Request {
 	public MobilityUploadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null);
 		
-		LOGGER.info("Creating a Mobility upload request.");
+		LOGGER.debug("Creating a Mobility upload request.");
 		
 		validIds = new LinkedList<String>();
 		invalidPointsMap = new HashMap<Integer, String>();
@@ -197,7 +203,9 @@ public class MobilityUploadRequest extends Request {
 		
 		if(! isFailed()) {
 			try {
-				String[] dataArray = getParameterValues(InputKeys.DATA);
+				// The data is parsed as a stream, so a large upload is never
+				// copied into a string.
+				InputStream[] dataArray = getParameterStreams(InputKeys.DATA);
 				if(dataArray.length == 0) {
 					throw new ValidationException(
 						ErrorCode.MOBILITY_INVALID_DATA,
@@ -213,7 +221,12 @@ public class MobilityUploadRequest extends Request {
 				else {
 					JSONArray jsonDataArray;
 					try {
-						jsonDataArray = new JSONArray(dataArray[0]);
+						jsonDataArray = 
+							new JSONArray(
+								new JSONTokener(
+									new InputStreamReader(
+										dataArray[0], 
+										UTF_8)));
 					}
 					catch(JSONException e) {
 						throw new ValidationException(
@@ -346,12 +359,12 @@ public class MobilityUploadRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the Mobility upload request.");
+		LOGGER.debug("Servicing the Mobility upload request.");
 		
 		if(! streamUploadRequest.isFailed()) {
 			
 			try {
-				LOGGER.info("Verifying that the Mobility observer exists.");
+				LOGGER.debug("Verifying that the Mobility observer exists.");
 				ObserverServices
 					.instance().getObserver(OBSERVER_ID, OBSERVER_VERSION);
 			}
@@ -360,7 +373,7 @@ public class MobilityUploadRequest extends Request {
 				e.logException(LOGGER, true);
 			}
 				
-			LOGGER.info("Delegating to the stream upload service layer.");
+			LOGGER.debug("Delegating to the stream upload service layer.");
 			streamUploadRequest.service();
 		}
 	}
@@ -371,7 +384,7 @@ public class MobilityUploadRequest extends Request {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the Mobility upload request.");
+		LOGGER.debug("Responding to the Mobility upload request.");
 		
 		if(isFailed()) {
 			super.respond(httpRequest, httpResponse, null);
@@ -64,7 +64,7 @@ public class ObserverCreationRequest extends UserRequest {
 		Observer tObserver = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an observer creation request.");
+			LOGGER.debug("Creating an observer creation request.");
 			
 			try {
 				byte[] observerDefinitionBytes =
@@ -104,17 +104,17 @@ public class ObserverCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a observer creation request.");
+		LOGGER.debug("Servicing a observer creation request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the user is allowed to create the observer.");
+			LOGGER.debug("Verifying that the user is allowed to create the observer.");
 			ObserverServices.instance().verifyUserCanCreateObserver(getUser().getUsername(), observer.getId());
 			
-			LOGGER.info("Storing the new observer.");
+			LOGGER.debug("Storing the new observer.");
 			ObserverServices.instance().createObserver(getUser().getUsername(), observer);
 		}
 		catch(ServiceException e) {
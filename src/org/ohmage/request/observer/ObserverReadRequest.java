@@ -126,7 +126,7 @@ public class ObserverReadRequest extends Request {
 		long tNumToReturn = MAX_NUMBER_TO_RETURN; 
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an observer read request.");
+			LOGGER.debug("Creating an observer read request.");
 			String[] t;
 			
 			try {
@@ -216,12 +216,12 @@ public class ObserverReadRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing an observer read request.");
+		LOGGER.debug("Servicing an observer read request.");
 		
 		try {
 			// Get all observers visible to the requesting user based on the
 			// parameters.
-			LOGGER.info("Gathering the observers.");
+			LOGGER.debug("Gathering the observers.");
 			observers
 				.addAll(
 					ObserverServices
@@ -65,7 +65,7 @@ public class ObserverUpdateRequest extends UserRequest {
 		Observer tObserver = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an observer update request.");
+			LOGGER.debug("Creating an observer update request.");
 			
 			try {
 				byte[] observerDefinitionBytes =
@@ -105,23 +105,23 @@ public class ObserverUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a observer creation request.");
+		LOGGER.debug("Servicing a observer creation request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the user is allowed to update an existing observer.");
+			LOGGER.debug("Verifying that the user is allowed to update an existing observer.");
 			ObserverServices.instance().verifyUserCanUpdateObserver(
 				getUser().getUsername(), 
 				observer.getId());
 			
-			LOGGER.info("Verifying that the update is valid.");
+			LOGGER.debug("Verifying that the update is valid.");
 			Map<String, Long> unchangedStreamIds =
 				ObserverServices.instance().verifyNewObserverIsValid(observer);
 			
-			LOGGER.info("Updating the observer.");
+			LOGGER.debug("Updating the observer.");
 			ObserverServices.instance().updateObserver(
 				getUser().getUsername(),
 				observer, 
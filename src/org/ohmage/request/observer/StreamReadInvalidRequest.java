@@ -88,7 +88,7 @@ public class StreamReadInvalidRequest extends UserRequest {
 		long tNumToReturn = MAX_NUMBER_TO_RETURN;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a stream read request for invalid data.");
+			LOGGER.debug("Creating a stream read request for invalid data.");
 			String[] t;
 			
 			try {
@@ -191,14 +191,14 @@ public class StreamReadInvalidRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a stream read request for invalid data.");
+		LOGGER.debug("Servicing a stream read request for invalid data.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifing that the observer exists.");
+			LOGGER.debug("Verifing that the observer exists.");
 			Observer observer =
 				ObserverServices
 					.instance()
@@ -212,7 +212,7 @@ public class StreamReadInvalidRequest extends UserRequest {
 				.instance()
 				.verifyUserOwnsObserver(getUser().getUsername(), observerId);
 			
-			LOGGER.info("Retrieveing the invalid data.");
+			LOGGER.debug("Retrieveing the invalid data.");
 			results
 				.addAll(
 					ObserverServices
@@ -451,7 +451,7 @@ public class StreamReadRequest
 		long tNumToReturn = MAX_NUMBER_TO_RETURN;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a stream read request.");
+			LOGGER.debug("Creating a stream read request.");
 			String[] t;
 			
 			try {
@@ -647,7 +647,7 @@ public class StreamReadRequest
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a stream read request.");
+		LOGGER.debug("Servicing a stream read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -656,14 +656,14 @@ public class StreamReadRequest
 		try {
 			if((username != null) && (! username.equals(getUser().getUsername()))) {
 				try {
-					LOGGER.info("Checking if the user is an admin.");
+					LOGGER.debug("Checking if the user is an admin.");
 					UserServices.instance().verifyUserIsAdmin(
 						getUser().getUsername());
 				}
 				catch(ServiceException notAdmin) {
 					LOGGER.info("The user is not an admin.");
 
-					LOGGER.info(
+					LOGGER.debug(
 						"Checking if reading stream data about another user is even allowed.");
 					boolean isPlausible;
 					try {
@@ -677,7 +677,7 @@ public class StreamReadRequest
 					}
 					
 					if(isPlausible) {
-						LOGGER.info(
+						LOGGER.debug(
 							"Checking if the requester is allowed to read stream data about the user.");
 						UserClassServices
 							.instance()
@@ -693,7 +693,7 @@ public class StreamReadRequest
 				}
 			}
 			
-			LOGGER.info("Retrieving the stream definition.");
+			LOGGER.debug("Retrieving the stream definition.");
 			stream = 
 				ObserverServices.instance().getStream(
 					observerId, 
@@ -706,7 +706,7 @@ public class StreamReadRequest
 				return;
 			}
 			
-			LOGGER.info("Gathering the data.");
+			LOGGER.debug("Gathering the data.");
 			results.addAll(
 				ObserverServices.instance().getStreamData(
 					stream,
@@ -718,7 +718,9 @@ public class StreamReadRequest
 					chronological,
 					numToSkip,
 					numToReturn));
-			LOGGER.info("Returning " + results.size() + " points.");
+			if(LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Returning " + results.size() + " points.");
+			}
 		}
 		catch(ServiceException e) {
 			e.failRequest(this);
@@ -883,50 +885,7 @@ public class StreamReadRequest
 			
 			// Add a "data" key that is an array of the results.
 			generator.writeArrayFieldStart("data");
-			for(DataStream dataStream : results) {
-				// Begin this data stream.
-				generator.writeStartObject();
-				
-				// Write the meta-data.
-				DataStream.MetaData metaData = dataStream.getMetaData();
-				if(metaData != null) {
-					generator.writeObjectFieldStart("metadata");
-					
-					String id = metaData.getId();
-					if(id != null) {
-						generator.writeStringField("id", id);
-					}
-					
-					DateTime timestamp = metaData.getTimestamp();
-					if(timestamp != null) {
-						generator.writeStringField(
-							"timestamp",
-							ISODateTimeFormat.dateTime().print(timestamp));
-					}
-					
-					Location location = metaData.getLocation();
-					if(location != null) {
-						generator.writeObjectFieldStart("location");
-						location.streamJson(
-							generator, 
-							false, 
-							LocationColumnKey.ALL_COLUMNS);
-						generator.writeEndObject();
-					}
-					
-					generator.writeEndObject();
-				}
-				
-				// Write the data.
-				handleGeneric(
-					generator,
-					dataStream.getData(), 
-					columnsRoot, 
-					"data");
-				
-				// End this data stream.
-				generator.writeEndObject();
-			}
+			writeData(generator, results, columnsRoot);
 			generator.writeEndArray();
 			
 			// End the overall object.
@@ -973,7 +932,7 @@ public class StreamReadRequest
 			final ColumnNode<String> columns)
 			throws JsonGenerationException, IOException, DomainException {
 		
-		writeData(generator, columns);
+		writeData(generator, results, columns);
 	}
 	
 	/**
@@ -1085,6 +1044,8 @@ public class StreamReadRequest
 	 * 
 	 * @param generator The generator to write to.
 	 * 
+	 * @param dataStreams The data points to write.
+	 * 
 	 * @param columns The columns to write the data.
 	 * 
 	 * @throws JsonGenerationException There was an error generating the JSON.
@@ -1096,12 +1057,13 @@ public class StreamReadRequest
 	 * @throws DomainException There was an error generating or reading a 
 	 * 						   domain object.
 	 */
-	private void writeData(
+	static void writeData(
 			final JsonGenerator generator,
+			final Collection<DataStream> dataStreams,
 			final ColumnNode<String> columns)
 			throws JsonGenerationException, IOException, DomainException {
 		
-		for(DataStream dataStream : results) {
+		for(DataStream dataStream : dataStreams) {
 			// Begin this data stream.
 			generator.writeStartObject();
 			
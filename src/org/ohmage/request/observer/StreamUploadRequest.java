@@ -1,6 +1,8 @@
 package org.ohmage.request.observer;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -124,7 +126,7 @@ public class StreamUploadRequest extends UserRequest {
 		JsonParser tData = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a stream upload request.");
+			LOGGER.debug("Creating a stream upload request.");
 			
 			if(observerId == null) {
 				setFailed(
@@ -176,7 +178,7 @@ public class StreamUploadRequest extends UserRequest {
 		Boolean tOptIn = false;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a stream upload request.");
+			LOGGER.debug("Creating a stream upload request.");
 			String[] t;
 			
 			try {
@@ -214,25 +216,31 @@ public class StreamUploadRequest extends UserRequest {
 						"The observer's version is missing.");
 				}
 				
-				t = getParameterValues(InputKeys.DATA);
-				if(t.length == 0) {
+				// The data is parsed as a stream, so a large upload is never
+				// copied into a string.
+				InputStream[] dataStreams = 
+					getParameterStreams(InputKeys.DATA);
+				if(dataStreams.length == 0) {
 					LOGGER
 						.info(
 							"Attempting to get the data as a multipart part.");
-					t = new String[1];
-					t[0] =
-						new String(
-							getMultipartValue(httpRequest, InputKeys.DATA));
+					byte[] multipartData = 
+						getMultipartValue(httpRequest, InputKeys.DATA);
+					if(multipartData != null) {
+						dataStreams = 
+							new InputStream[] { 
+								new ByteArrayInputStream(multipartData) };
+					}
 				}
 
-				if(t.length > 1) {
+				if(dataStreams.length > 1) {
 					throw new ValidationException(
 						ErrorCode.OBSERVER_INVALID_STREAM_DATA,
 						"Multiple data streams were uploaded: " + 
 							InputKeys.DATA);
 				}
-				else if(t.length == 1) {
-					tData = ObserverValidators.validateData(t[0]);
+				else if(dataStreams.length == 1) {
+					tData = ObserverValidators.validateData(dataStreams[0]);
 				}
 				if(tData == null) {
 					throw new ValidationException(
@@ -275,14 +283,14 @@ public class StreamUploadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a stream upload request.");
+		LOGGER.debug("Servicing a stream upload request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Getting the observer definition.");
+			LOGGER.debug("Getting the observer definition.");
 			Collection<Observer> observers = 
 				ObserverServices.instance().getObservers(
 					observerId, 
@@ -301,7 +309,7 @@ public class StreamUploadRequest extends UserRequest {
 			// Get the first observer which should be the most recent.
 			Observer observer = observers.iterator().next();
 			
-			LOGGER.info("Validating the uploaded data.");
+			LOGGER.debug("Validating the uploaded data.");
 			Collection<DataStream> dataStreams =
 				ObserverServices
 					.instance()
@@ -315,7 +323,7 @@ public class StreamUploadRequest extends UserRequest {
 			}
 			
 			long numPoints = numValidPoints = dataStreams.size();
-			LOGGER.info("Pruning out the duplicates from previous uploads.");
+			LOGGER.debug("Pruning out the duplicates from previous uploads.");
 			ObserverServices.instance().removeDuplicates(
 				getUser().getUsername(), 
 				observerId,
@@ -324,7 +332,7 @@ public class StreamUploadRequest extends UserRequest {
 			LOGGER.info("Pruned out " + numDuplicatePoints + " points.");
 			numPoints = dataStreams.size();
 			
-			LOGGER.info("Storing the uploaded data: " + numPoints + " points");
+			LOGGER.debug("Storing the uploaded data: " + numPoints + " points");
 			ObserverServices.instance().storeData(
 				getUser().getUsername(), 
 				observer,
@@ -49,7 +49,7 @@ public class OmhAuthenticateRequest extends Request {
 		AuthTokenRequest tAuthTokenRequest = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an OMH authenticate request.");
+			LOGGER.debug("Creating an OMH authenticate request.");
 			
 			tAuthTokenRequest = 
 				new AuthTokenRequest(
@@ -68,7 +68,7 @@ public class OmhAuthenticateRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the OMH authenticate request.");
+		LOGGER.debug("Servicing the OMH authenticate request.");
 
 		if((authTokenRequest != null) && (! authTokenRequest.isFailed())) {
 			authTokenRequest.service();
@@ -84,7 +84,7 @@ public class OmhAuthenticateRequest extends Request {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 		
-		LOGGER.info("Responding to the authentication token request.");
+		LOGGER.debug("Responding to the authentication token request.");
 		
 		// If either request has failed, set the response's status code.
 		if(isFailed()) {
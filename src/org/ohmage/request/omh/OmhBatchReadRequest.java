@@ -0,0 +1,593 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.omh;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.apache.log4j.NDC;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonGenerator.Feature;
+import org.codehaus.jackson.map.MappingJsonFactory;
+import org.joda.time.DateTime;
+import org.joda.time.format.ISODateTimeFormat;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.annotator.Annotator;
+import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.domain.PayloadId;
+import org.ohmage.exception.DomainException;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ValidationException;
+import org.ohmage.query.impl.ReadReplicaRouter;
+import org.ohmage.request.InputKeys;
+import org.ohmage.request.UserRequest;
+import org.ohmage.request.observer.StreamReadRequest;
+import org.ohmage.request.observer.StreamReadRequest.ColumnNode;
+import org.ohmage.service.OmhServices;
+import org.ohmage.validator.ObserverValidators;
+import org.ohmage.validator.OmhValidators;
+import org.ohmage.validator.UserValidators;
+
+/**
+ * <p>Reads the data for multiple Open mHealth payload IDs in one request.
+ * Each read is described by a JSON object with the same keys as the
+ * parameters to a single Open mHealth read. The user is authenticated once
+ * for all of them, the reads are serviced in parallel, and each read's
+ * result is written to the response as soon as it is ready, so the results
+ * may be in any order. Each result includes the index of its read in the
+ * {@value org.ohmage.request.InputKeys#OMH_READ_REQUESTS} array.</p>
+ * 
+ * <p>One read failing does not fail the others; its result has its own
+ * "result" and "errors".</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUTH_TOKEN}</td>
+ *     <td>The requesting user's authentication token. This may be replaced
+ *       by the {@value org.ohmage.request.InputKeys#USER} and 
+ *       {@value org.ohmage.request.InputKeys#PASSWORD}.</td>
+ *     <td>true</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#OMH_REQUESTER}</td>
+ *     <td>A string describing the client that is making this request.</td>
+ *     <td>true</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#OMH_READ_REQUESTS}</td>
+ *     <td>A JSON array of at most {@value #MAX_NUMBER_OF_READS} JSON objects.
+ *       Each must have a 
+ *       {@value org.ohmage.request.InputKeys#OMH_PAYLOAD_ID} and a 
+ *       {@value org.ohmage.request.InputKeys#OMH_PAYLOAD_VERSION} and may 
+ *       have an {@value org.ohmage.request.InputKeys#OMH_OWNER}, 
+ *       {@value org.ohmage.request.InputKeys#OMH_START_TIMESTAMP},
+ *       {@value org.ohmage.request.InputKeys#OMH_END_TIMESTAMP},
+ *       {@value org.ohmage.request.InputKeys#OMH_COLUMN_LIST},
+ *       {@value org.ohmage.request.InputKeys#OMH_NUM_TO_SKIP}, and
+ *       {@value org.ohmage.request.InputKeys#OMH_NUM_TO_RETURN}.</td>
+ *     <td>true</td>
+ *   </tr>
+ * </table>
+ */
+public class OmhBatchReadRequest extends UserRequest {
+	private static final Logger LOGGER = 
+		Logger.getLogger(OmhBatchReadRequest.class);
+	
+	/**
+	 * The maximum number of reads in one request.
+	 */
+	public static final int MAX_NUMBER_OF_READS = 32;
+	
+	private static final String JSON_KEY_INDEX = "index";
+	private static final String JSON_KEY_COUNT = "count";
+	
+	/**
+	 * The single factory instance for the writer.
+	 */
+	private static final JsonFactory JSON_FACTORY = 
+		(new MappingJsonFactory()).configure(Feature.AUTO_CLOSE_TARGET, true);
+	
+	/**
+	 * One of the reads in this request.
+	 */
+	private static final class Read {
+		private final String payloadId;
+		private final long payloadVersion;
+		private final String owner;
+		private final DateTime startDate;
+		private final DateTime endDate;
+		private final ColumnNode<String> columns;
+		private final UserRequest userRequest;
+		
+		private Read(
+				final String payloadId,
+				final long payloadVersion,
+				final String owner,
+				final DateTime startDate,
+				final DateTime endDate,
+				final ColumnNode<String> columns,
+				final UserRequest userRequest) {
+			
+			this.payloadId = payloadId;
+			this.payloadVersion = payloadVersion;
+			this.owner = owner;
+			this.startDate = startDate;
+			this.endDate = endDate;
+			this.columns = columns;
+			this.userRequest = userRequest;
+		}
+	}
+	
+	private final List<Read> reads;
+	
+	private final List<Integer> unservicedReads;
+	private final List<Future<Integer>> futures;
+	private CompletionService<Integer> completionService;
+	
+	/**
+	 * Creates an OMH batch read request.
+	 * 
+	 * @param httpRequest The HTTP request.
+	 * 
+	 * @throws IOException There was an error reading from the request.
+	 * 
+	 * @throws InvalidRequestException Thrown if the parameters cannot be 
+	 * 								   parsed.
+	 */
+	public OmhBatchReadRequest(
+			final HttpServletRequest httpRequest) 
+			throws IOException, InvalidRequestException {
+		
+		super(httpRequest, true, TokenLocation.EITHER, null, true);
+		
+		List<Read> tReads = new ArrayList<Read>();
+		
+		if(! isFailed()) {
+			LOGGER.debug("Creating an OMH batch read request.");
+			
+			try {
+				Map<String, String[]> parameters = 
+					new HashMap<String, String[]>(getParameterMap());
+				parameters.put(
+					InputKeys.CLIENT, 
+					parameters.get(InputKeys.OMH_REQUESTER));
+				
+				String[] t = getParameterValues(InputKeys.OMH_READ_REQUESTS);
+				if(t.length > 1) {
+					throw new ValidationException(
+						ErrorCode.OMH_INVALID_READ_REQUESTS,
+						"Multiple lists of reads were given: " +
+							InputKeys.OMH_READ_REQUESTS);
+				}
+				else if(t.length == 0) {
+					throw new ValidationException(
+						ErrorCode.OMH_INVALID_READ_REQUESTS,
+						"No list of reads was given: " +
+							InputKeys.OMH_READ_REQUESTS);
+				}
+				
+				JSONArray readsJson;
+				try {
+					readsJson = new JSONArray(t[0]);
+				}
+				catch(JSONException e) {
+					throw new ValidationException(
+						ErrorCode.OMH_INVALID_READ_REQUESTS,
+						"The list of reads is not a JSON array.",
+						e);
+				}
+				if(readsJson.length() == 0) {
+					throw new ValidationException(
+						ErrorCode.OMH_INVALID_READ_REQUESTS,
+						"The list of reads is empty.");
+				}
+				else if(readsJson.length() > MAX_NUMBER_OF_READS) {
+					throw new ValidationException(
+						ErrorCode.OMH_INVALID_READ_REQUESTS,
+						"At most " + MAX_NUMBER_OF_READS + 
+							" reads may be given at once.");
+				}
+				
+				for(int i = 0; i < readsJson.length(); i++) {
+					JSONObject readJson = readsJson.optJSONObject(i);
+					if(readJson == null) {
+						throw new ValidationException(
+							ErrorCode.OMH_INVALID_READ_REQUESTS,
+							"Read " + i + " is not a JSON object.");
+					}
+					
+					tReads.add(
+						createRead(httpRequest, parameters, readJson));
+				}
+			}
+			catch(ValidationException e) {
+				e.failRequest(this);
+				e.logException(LOGGER);
+			}
+		}
+		
+		reads = tReads;
+		unservicedReads = new ArrayList<Integer>();
+		futures = new ArrayList<Future<Integer>>(reads.size());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.request.Request#service()
+	 */
+	@Override
+	public void service() {
+		LOGGER.debug("Servicing an OMH batch read request.");
+		
+		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
+			return;
+		}
+		
+		completionService = OmhServices.instance().createReadCompletionService();
+		final String requestId = NDC.peek();
+		
+		LOGGER.info("Servicing " + reads.size() + " reads.");
+		for(int i = 0; i < reads.size(); i++) {
+			final UserRequest userRequest = reads.get(i).userRequest;
+			if(userRequest.isFailed()) {
+				unservicedReads.add(i);
+				continue;
+			}
+			
+			// The reads were built from this request's credentials, so they
+			// do not need to be authenticated again.
+			if(! getUser().getUsername().equals(
+					userRequest.getUser().getUsername())) {
+				
+				userRequest.setFailed(
+					ErrorCode.AUTHENTICATION_FAILED,
+					"The read's user is not the requesting user.");
+				unservicedReads.add(i);
+				continue;
+			}
+			userRequest.getUser().isLoggedIn(true);
+			
+			final int index = i;
+			futures.add(
+				completionService.submit(
+					new Callable<Integer>() {
+						/**
+						 * Services the read, failing it if it throws an
+						 * unexpected exception.
+						 */
+						@Override
+						public Integer call() {
+							NDC.push(requestId);
+							try {
+								userRequest.service();
+							}
+							catch(RuntimeException e) {
+								LOGGER.error("Error servicing a read.", e);
+								userRequest.setFailed();
+							}
+							finally {
+								ReadReplicaRouter.clearRequester();
+								NDC.remove();
+							}
+							return index;
+						}
+					}));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.ohmage.request.Request#respond(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)
+	 */
+	@Override
+	public void respond(
+			final HttpServletRequest httpRequest,
+			final HttpServletResponse httpResponse) {
+
+		LOGGER.debug("Responding to an OMH batch read request.");
+		
+		if(isFailed()) {
+			if(
+				ErrorCode
+					.SYSTEM_GENERAL_ERROR
+					.equals(getAnnotator().getErrorCode())) {
+					
+				httpResponse
+					.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+			}
+			else {
+				httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+			}
+			
+			super.respond(httpRequest, httpResponse, (JSONObject) null);
+			return;
+		}
+		
+		refreshTokenCookie(httpResponse);
+		expireResponse(httpResponse);
+		httpResponse.setContentType("application/json");
+		
+		JsonGenerator generator = null;
+		try {
+			OutputStream outputStream = 
+				getOutputStream(httpRequest, httpResponse);
+			generator = JSON_FACTORY.createJsonGenerator(outputStream);
+			
+			generator.writeStartObject();
+			generator.writeStringField(JSON_KEY_RESULT, RESULT_SUCCESS);
+			generator.writeArrayFieldStart(JSON_KEY_DATA);
+			
+			// The reads that failed before they were serviced are ready now.
+			for(int index : unservicedReads) {
+				writeRead(generator, index, reads.get(index));
+			}
+			
+			// Write each of the rest as soon as it is ready.
+			for(int i = 0; i < futures.size(); i++) {
+				int index = completionService.take().get();
+				writeRead(generator, index, reads.get(index));
+			}
+			
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+		catch(InterruptedException e) {
+			LOGGER.warn("Interrupted while waiting for the reads.", e);
+			Thread.currentThread().interrupt();
+		}
+		catch(ExecutionException e) {
+			LOGGER.error("A read could not be serviced.", e);
+		}
+		catch(IOException e) {
+			LOGGER.warn("Could not write the response.", e);
+		}
+		finally {
+			// If the response could not be finished, nothing is waiting for
+			// the rest of the reads.
+			for(Future<Integer> future : futures) {
+				future.cancel(true);
+			}
+			
+			if(generator != null) {
+				try {
+					generator.close();
+				}
+				catch(IOException e) {
+					LOGGER.info("Could not close the generator.", e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Validates one read and builds the request that will service it.
+	 * 
+	 * @param httpRequest The HTTP request.
+	 * 
+	 * @param parameters The parameters for the underlying request.
+	 * 
+	 * @param readJson The read's description.
+	 * 
+	 * @return The read.
+	 * 
+	 * @throws ValidationException The read is invalid.
+	 */
+	private static Read createRead(
+			final HttpServletRequest httpRequest,
+			final Map<String, String[]> parameters,
+			final JSONObject readJson)
+			throws ValidationException {
+		
+		String payloadIdString = 
+			readJson.optString(InputKeys.OMH_PAYLOAD_ID, null);
+		PayloadId payloadId = 
+			OmhValidators.validatePayloadId(payloadIdString);
+		if(payloadId == null) {
+			throw new ValidationException(
+				ErrorCode.OMH_INVALID_PAYLOAD_ID,
+				"No payload ID was given.");
+		}
+		
+		String versionString = 
+			readJson.optString(InputKeys.OMH_PAYLOAD_VERSION, null);
+		if(versionString == null) {
+			throw new ValidationException(
+				ErrorCode.OMH_INVALID_PAYLOAD_VERSION,
+				"The payload version is unknown.");
+		}
+		long payloadVersion;
+		try {
+			payloadVersion = Long.decode(versionString); 
+		}
+		catch(NumberFormatException e) {
+			throw new ValidationException(
+				ErrorCode.OMH_INVALID_PAYLOAD_VERSION,
+				"The payload version was not a number: " + versionString,
+				e);
+		}
+		
+		String owner = 
+			UserValidators.validateUsername(
+				readJson.optString(InputKeys.OMH_OWNER, null));
+		DateTime startDate = 
+			ObserverValidators.validateDate(
+				readJson.optString(InputKeys.OMH_START_TIMESTAMP, null));
+		DateTime endDate = 
+			ObserverValidators.validateDate(
+				readJson.optString(InputKeys.OMH_END_TIMESTAMP, null));
+		
+		ColumnNode<String> columns = new ColumnNode<String>();
+		String columnList = readJson.optString(InputKeys.OMH_COLUMN_LIST, null);
+		if(columnList != null) {
+			try {
+				columns = ObserverValidators.validateColumnList(columnList);
+			}
+			catch(ValidationException e) {
+				throw new ValidationException(
+					ErrorCode.OMH_INVALID_COLUMN_LIST,
+					"The column list was invalid.",
+					e);
+			}
+		}
+		
+		long numToSkip = 
+			ObserverValidators.validateNumToSkip(
+				readJson.optString(InputKeys.OMH_NUM_TO_SKIP, null));
+		long numToReturn = 
+			ObserverValidators.validateNumToReturn(
+				readJson.optString(InputKeys.OMH_NUM_TO_RETURN, null),
+				StreamReadRequest.MAX_NUMBER_TO_RETURN);
+		
+		UserRequest userRequest;
+		try {
+			userRequest = 
+				payloadId
+					.generateReadRequest(
+						httpRequest, 
+						parameters, 
+						true, 
+						TokenLocation.EITHER, 
+						true,
+						payloadVersion, 
+						owner,
+						startDate, 
+						endDate, 
+						numToSkip, 
+						numToReturn);
+		}
+		catch(DomainException e) {
+			throw new ValidationException(
+				"There was an error creating the underlying request.",
+				e);
+		}
+		
+		return
+			new Read(
+				payloadIdString,
+				payloadVersion,
+				owner,
+				startDate,
+				endDate,
+				columns,
+				userRequest);
+	}
+	
+	/**
+	 * Writes the result of one read and flushes it to the requester.
+	 * 
+	 * @param generator The generator for the response.
+	 * 
+	 * @param index The read's index in the list of reads.
+	 * 
+	 * @param read The read, which must have been serviced.
+	 * 
+	 * @throws IOException There was an error writing the result.
+	 */
+	private static void writeRead(
+			final JsonGenerator generator,
+			final int index,
+			final Read read)
+			throws IOException {
+		
+		generator.writeStartObject();
+		generator.writeNumberField(JSON_KEY_INDEX, index);
+		generator.writeStringField(InputKeys.OMH_PAYLOAD_ID, read.payloadId);
+		generator.writeNumberField(
+			InputKeys.OMH_PAYLOAD_VERSION, 
+			read.payloadVersion);
+		if(read.owner != null) {
+			generator.writeStringField(InputKeys.OMH_OWNER, read.owner);
+		}
+		if(read.startDate != null) {
+			generator.writeStringField(
+				InputKeys.OMH_START_TIMESTAMP, 
+				ISODateTimeFormat.dateTime().print(read.startDate));
+		}
+		if(read.endDate != null) {
+			generator.writeStringField(
+				InputKeys.OMH_END_TIMESTAMP, 
+				ISODateTimeFormat.dateTime().print(read.endDate));
+		}
+		
+		UserRequest userRequest = read.userRequest;
+		if((! userRequest.isFailed()) && 
+				(userRequest instanceof OmhReadResponder)) {
+			
+			OmhReadResponder responder = (OmhReadResponder) userRequest;
+			
+			generator.writeStringField(JSON_KEY_RESULT, RESULT_SUCCESS);
+			generator.writeObjectFieldStart(JSON_KEY_METADATA);
+			generator.writeNumberField(
+				JSON_KEY_COUNT, 
+				responder.getNumDataPoints());
+			generator.writeEndObject();
+			
+			generator.writeArrayFieldStart(JSON_KEY_DATA);
+			try {
+				responder.respond(generator, read.columns);
+			}
+			catch(DomainException e) {
+				// The data is already partially written, so the best that
+				// can be done is to end it here.
+				LOGGER.error("Error writing the data for a read.", e);
+			}
+			generator.writeEndArray();
+		}
+		else {
+			Annotator annotator = userRequest.getAnnotator();
+			if(! userRequest.isFailed()) {
+				annotator = 
+					new Annotator(
+						ErrorCode.SYSTEM_GENERAL_ERROR, 
+						"The payload ID does not support reading.");
+			}
+			
+			generator.writeStringField(JSON_KEY_RESULT, RESULT_FAILURE);
+			generator.writeArrayFieldStart(JSON_KEY_ERRORS);
+			generator.writeStartObject();
+			generator.writeStringField(
+				Annotator.JSON_KEY_CODE, 
+				annotator.getErrorCode().toString());
+			generator.writeStringField(
+				Annotator.JSON_KEY_TEXT, 
+				annotator.getErrorText());
+			generator.writeEndObject();
+			generator.writeEndArray();
+		}
+		
+		generator.writeEndObject();
+		generator.flush();
+	}
+}
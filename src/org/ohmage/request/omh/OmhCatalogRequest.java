@@ -78,7 +78,7 @@ public class OmhCatalogRequest extends UserRequest {
 		long tNumToReturn = StreamReadRequest.MAX_NUMBER_TO_RETURN;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an OMH catalog request.");
+			LOGGER.debug("Creating an OMH catalog request.");
 			String[] t;
 			
 			try {
@@ -199,7 +199,7 @@ public class OmhCatalogRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a stream read request.");
+		LOGGER.debug("Servicing a stream read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -233,7 +233,7 @@ public class OmhCatalogRequest extends UserRequest {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 
-		LOGGER.info("Responding to an OMH catalog request.");
+		LOGGER.debug("Responding to an OMH catalog request.");
 		
 		if(isFailed()) {
 			if(
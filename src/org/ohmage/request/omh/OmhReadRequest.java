@@ -93,7 +93,7 @@ public class OmhReadRequest extends Request {
 		UserRequest tUserRequest = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an OMH read request.");
+			LOGGER.debug("Creating an OMH read request.");
 			String[] t;
 			
 			try {
@@ -290,7 +290,7 @@ public class OmhReadRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing an OMH read request.");
+		LOGGER.debug("Servicing an OMH read request.");
 		
 		if((userRequest != null) && (! userRequest.isFailed())) {
 			try {
@@ -307,7 +307,7 @@ public class OmhReadRequest extends Request {
 								userRequest.getUser().getUsername(),
 								owner);
 					
-					LOGGER.info("Servicing the request.");
+					LOGGER.debug("Servicing the request.");
 					((OmhReadServicer) userRequest)
 						.service(
 							username,
@@ -317,7 +317,7 @@ public class OmhReadRequest extends Request {
 							numToReturn);
 				}
 				else {
-					LOGGER.info("Servicing the request.");
+					LOGGER.debug("Servicing the request.");
 					userRequest.service();
 				}
 			}
@@ -337,7 +337,7 @@ public class OmhReadRequest extends Request {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 
-		LOGGER.info("Responding to an OMH read request.");
+		LOGGER.debug("Responding to an OMH read request.");
 
 		// If either request has failed, set the response's status code.
 		if(isFailed()) {
@@ -37,7 +37,7 @@ public class OmhRegistryCreateRequest extends Request {
 		
 		super(httpRequest, null);
 		
-		LOGGER.info("Creating an OMH registry create request.");
+		LOGGER.debug("Creating an OMH registry create request.");
 	}
 	
 	/*
@@ -85,7 +85,7 @@ public class OmhRegistryReadRequest extends Request {
 		long tNumToReturn = StreamReadRequest.MAX_NUMBER_TO_RETURN;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an OMH registry read request.");
+			LOGGER.debug("Creating an OMH registry read request.");
 			String[] t;
 			
 			try {
@@ -158,7 +158,7 @@ public class OmhRegistryReadRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing an OMH registry read request.");
+		LOGGER.debug("Servicing an OMH registry read request.");
 		
 		try {
 			// If the user isn't specifically asking for campaigns, then either
@@ -168,7 +168,7 @@ public class OmhRegistryReadRequest extends Request {
 				ObserverPayloadId observerPayloadId = 
 					(ObserverPayloadId) payloadId;
 				
-				LOGGER.info("Gathering the requested observer registry entries.");
+				LOGGER.debug("Gathering the requested observer registry entries.");
 				streams
 					.putAll(
 						ObserverServices
@@ -181,7 +181,7 @@ public class OmhRegistryReadRequest extends Request {
 								payloadVersion, 
 								numToSkip, 
 								numToReturn));
-				LOGGER.info("Found " + streams.size() + " streams.");
+				LOGGER.debug("Found " + streams.size() + " streams.");
 			}
 			
 			// If the user isn't specifically asking for observers, then either
@@ -226,7 +226,7 @@ public class OmhRegistryReadRequest extends Request {
 							numToSkip,
 							numToReturn - streams.size()
 						));
-				LOGGER.info("Found " + campaigns.size() + " campaigns.");
+				LOGGER.debug("Found " + campaigns.size() + " campaigns.");
 			}
 		}
 		catch(ServiceException e) {
@@ -244,7 +244,7 @@ public class OmhRegistryReadRequest extends Request {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 		
-		LOGGER.info("Responding to an OMH registry read request");
+		LOGGER.debug("Responding to an OMH registry read request");
 		
 		// If either request has failed, set the response's status code.
 		if(isFailed()) {
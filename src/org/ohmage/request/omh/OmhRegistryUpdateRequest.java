@@ -37,7 +37,7 @@ public class OmhRegistryUpdateRequest extends Request {
 		
 		super(httpRequest, null);
 		
-		LOGGER.info("Creating an OMH registry update request.");
+		LOGGER.debug("Creating an OMH registry update request.");
 	}
 	
 	/*
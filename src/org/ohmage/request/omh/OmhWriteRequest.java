@@ -76,7 +76,7 @@ public class OmhWriteRequest extends Request {
 		UserRequest tUserRequest = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating an OMH write request.");
+			LOGGER.debug("Creating an OMH write request.");
 			String[] t;
 			
 			try {
@@ -207,7 +207,7 @@ public class OmhWriteRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing an OMH write request.");
+		LOGGER.debug("Servicing an OMH write request.");
 		
 		if((userRequest != null) && (! userRequest.isFailed())) {
 			userRequest.service();
@@ -223,7 +223,7 @@ public class OmhWriteRequest extends Request {
 		final HttpServletRequest httpRequest,
 		final HttpServletResponse httpResponse) {
 
-		LOGGER.info("Responding to an OMH read request.");
+		LOGGER.debug("Responding to an OMH read request.");
 
 		// If either request has failed, set the response's status code.
 		if(isFailed()) {
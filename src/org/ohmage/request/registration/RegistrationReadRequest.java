@@ -47,7 +47,7 @@ public class RegistrationReadRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the registration read request.");
+		LOGGER.debug("Servicing the registration read request.");
 		
 		try {
 			regInfo = RegistrationServices.getRegistrationConfig();
@@ -67,7 +67,7 @@ public class RegistrationReadRequest extends Request {
 		final HttpServletRequest httpRequest,
 		final HttpServletResponse httpResponse) {
 
-		LOGGER.info("Responding to the registration read request.");
+		LOGGER.debug("Responding to the registration read request.");
 		
 		JSONObject response = new JSONObject();
 		try {
@@ -83,7 +83,7 @@ public class SurveyResponseDeleteRequest extends UserRequest {
 	public SurveyResponseDeleteRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, false, TokenLocation.EITHER, null);
 		
-		LOGGER.info("Creating a survey response delete request.");
+		LOGGER.debug("Creating a survey response delete request.");
 		
 		UUID tSurveyResponseId = null;
 		
@@ -121,7 +121,7 @@ public class SurveyResponseDeleteRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the survey response delete request.");
+		LOGGER.debug("Servicing the survey response delete request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -129,15 +129,15 @@ public class SurveyResponseDeleteRequest extends UserRequest {
 		
 		try {
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			}
 			catch(ServiceException e) {
-				LOGGER.info("Verifying that the user is allowed to delete the survey response.");
+				LOGGER.debug("Verifying that the user is allowed to delete the survey response.");
 				UserSurveyResponseServices.instance().verifyUserCanUpdateOrDeleteSurveyResponse(getUser().getUsername(), surveyResponseId);
 			}
 			
-			LOGGER.info("Deleting the survey response.");
+			LOGGER.debug("Deleting the survey response.");
 			SurveyResponseServices.instance().deleteSurveyResponse(surveyResponseId);
 		}
 		catch(ServiceException e) {
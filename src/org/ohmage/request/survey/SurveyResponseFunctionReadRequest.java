@@ -133,7 +133,7 @@ public class SurveyResponseFunctionReadRequest extends UserRequest {
 	public SurveyResponseFunctionReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, false, TokenLocation.EITHER, null);
 		
-		LOGGER.info("Creating a survey response function read request.");
+		LOGGER.debug("Creating a survey response function read request.");
 		
 		String tCampaignId = null;
 		Function tFunctionId = null;
@@ -243,24 +243,24 @@ public class SurveyResponseFunctionReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing survey response function read request.");
+		LOGGER.debug("Servicing survey response function read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the campaign exists.");
+			LOGGER.debug("Verifying that the campaign exists.");
 			CampaignServices.instance().checkCampaignExistence(campaignId, true);
 			
 			// No need for verification since the ACL is done at the response level. 
-			// LOGGER.info("Verifying that the user is allowed to view the requested data.");
+			// LOGGER.debug("Verifying that the user is allowed to view the requested data.");
 			// UserCampaignServices.instance().requesterCanViewUsersSurveyResponses(campaignId, getUser().getUsername());
 			
-			LOGGER.info("Gathering the campaign.");
+			LOGGER.debug("Gathering the campaign.");
 			Campaign campaign = CampaignServices.instance().getCampaign(campaignId);
 			
-			LOGGER.info("Gathering the survey response information.");
+			LOGGER.debug("Gathering the survey response information.");
 			surveyResponses = new ArrayList<SurveyResponse>();
 			SurveyResponseServices.instance().readSurveyResponseInformation(
 					campaign, 
@@ -291,7 +291,7 @@ public class SurveyResponseFunctionReadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the survey response function read request.");
+		LOGGER.debug("Responding to the survey response function read request.");
 		
 		if(isFailed()) {
 			super.respond(httpRequest, httpResponse, (JSONObject) null);
@@ -369,12 +369,12 @@ public class SurveyResponseFunctionReadRequest extends UserRequest {
 		}
 		
 		if(privacyStateGroupItems.contains(FunctionPrivacyStateItem.DATE)) {
-			LOGGER.info("Subdividing buckets by date.");
+			LOGGER.debug("Subdividing buckets by date.");
 			subdivideDate(privacyStateBucket);
 		}
 
 		if(privacyStateGroupItems.contains(FunctionPrivacyStateItem.SURVEY)) {
-			LOGGER.info("Subdividing buckets by survey ID.");
+			LOGGER.debug("Subdividing buckets by survey ID.");
 			subdivideSurveyId(privacyStateBucket);
 		}
 		
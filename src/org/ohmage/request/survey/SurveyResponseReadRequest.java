@@ -199,6 +199,15 @@ import org.ohmage.validator.SurveyResponseValidators;
  *       </td>
  *     <td>false</td>
  *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#PROMPT_RESPONSE_SEARCH}</td>
+ *     <td>Filters the results to only those with a prompt response that 
+ *     contains every one of the space-separated, or quoted, search terms. 
+ *     Each word in a search term must also be the beginning of a word in the
+ *     prompt response, where a word is a run of letters and digits, so "hel"
+ *     matches "hello" but "ell" does not.</td>
+ *     <td>false</td>
+ *   </tr>
  * </table>
  * 
  * @author Joshua Selsky
@@ -458,7 +467,7 @@ public final class SurveyResponseReadRequest
 		
 		if(! isFailed()) {
 			
-			LOGGER.info("Creating a survey response read request.");
+			LOGGER.debug("Creating a survey response read request.");
 			String[] t;
 			
 			try {
@@ -636,7 +645,7 @@ public final class SurveyResponseReadRequest
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a survey response read request.");
+		LOGGER.debug("Servicing a survey response read request.");
 		super.service(
 				columns, 
 				null, 
@@ -661,7 +670,7 @@ public final class SurveyResponseReadRequest
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the survey response read request.");
+		LOGGER.debug("Responding to the survey response read request.");
 		
 		if(isFailed()) {
 			super.respond(httpRequest, httpResponse, (JSONObject) null);
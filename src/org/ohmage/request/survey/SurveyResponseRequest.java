@@ -415,7 +415,7 @@ public abstract class SurveyResponseRequest extends UserRequest {
 		}
 		
 		try {
-		    LOGGER.info("Retrieving campaign configuration.");
+		    LOGGER.debug("Retrieving campaign configuration.");
 			campaign = CampaignServices.instance().getCampaign(campaignId);
 			if(campaign == null) {
 				throw
@@ -425,16 +425,16 @@ public abstract class SurveyResponseRequest extends UserRequest {
 			}
 			
 			if((promptIds != null) && (! promptIds.isEmpty()) && (! URN_SPECIAL_ALL_LIST.equals(promptIds))) {
-				LOGGER.info("Verifying that the prompt ids in the query belong to the campaign.");
+				LOGGER.debug("Verifying that the prompt ids in the query belong to the campaign.");
 				SurveyResponseReadServices.instance().verifyPromptIdsBelongToConfiguration(promptIds, campaign);
 			}
 			
 			if((surveyIds != null) && (! surveyIds.isEmpty()) && (! URN_SPECIAL_ALL_LIST.equals(surveyIds))) {
-				LOGGER.info("Verifying that the survey ids in the query belong to the campaign.");
+				LOGGER.debug("Verifying that the survey ids in the query belong to the campaign.");
 				SurveyResponseReadServices.instance().verifySurveyIdsBelongToConfiguration(surveyIds, campaign);
 			}
 		    
-			LOGGER.info("Dispatching to the data layer.");
+			LOGGER.debug("Dispatching to the data layer.");
 			surveyResponseCount = 
 					SurveyResponseServices.instance().readSurveyResponseInformation(
 							campaign,
@@ -460,7 +460,7 @@ public abstract class SurveyResponseRequest extends UserRequest {
 				numPromptResponses += surveyResponse.getResponses().size();
 			}
 			
-			LOGGER.info(
+			LOGGER.debug(
 					"Found " + 
 						surveyResponseList.size() + 
 						" results after filtering and paging a total of " + 
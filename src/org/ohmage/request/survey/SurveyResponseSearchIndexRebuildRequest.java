@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.survey;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.exception.ValidationException;
+import org.ohmage.request.InputKeys;
+import org.ohmage.request.UserRequest;
+import org.ohmage.service.CampaignServices;
+import org.ohmage.service.SurveyResponseServices;
+import org.ohmage.service.UserServices;
+import org.ohmage.validator.CampaignValidators;
+
+/**
+ * <p>Rebuilds the index that prompt response searches use from the prompt
+ * responses that are already stored. The index is kept up to date as survey
+ * responses are uploaded and updated, but it must be rebuilt for every
+ * campaign once after it is created before searches will use it. This may
+ * take a long time for a large database, so the rebuild runs in the 
+ * background and this request returns as soon as it has started. Uploads 
+ * may continue while it runs, and its result is written to the server's 
+ * log. Only one rebuild may run at a time. The requesting user must be an 
+ * admin.</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUTH_TOKEN}</td>
+ *     <td>The requesting user's authentication token.</td>
+ *     <td>true</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CLIENT}</td>
+ *     <td>A string describing the client that is making this request.</td>
+ *     <td>true</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CAMPAIGN_URN}</td>
+ *     <td>Limits the rebuild to the prompt responses in this campaign. If
+ *       omitted, the index is rebuilt for every campaign.</td>
+ *     <td>false</td>
+ *   </tr>
+ * </table>
+ */
+public class SurveyResponseSearchIndexRebuildRequest extends UserRequest {
+	private static final Logger LOGGER = 
+		Logger.getLogger(SurveyResponseSearchIndexRebuildRequest.class);
+	
+	private static final String RESULT_KEY = "rebuild_started";
+	
+	private final String campaignId;
+	
+	private boolean started;
+	
+	/**
+	 * Creates a prompt response search index rebuild request.
+	 * 
+	 * @param httpRequest The HttpServletRequest with the parameters for this
+	 * 					  request.
+	 * 
+	 * @throws InvalidRequestException Thrown if the parameters cannot be 
+	 * 								   parsed.
+	 * 
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public SurveyResponseSearchIndexRebuildRequest(
+			final HttpServletRequest httpRequest) 
+			throws IOException, InvalidRequestException {
+		
+		super(httpRequest, false, TokenLocation.EITHER, null);
+		
+		LOGGER.debug("Creating a prompt response search index rebuild request.");
+		
+		String tCampaignId = null;
+		
+		if(! isFailed()) {
+			try {
+				String[] t = getParameterValues(InputKeys.CAMPAIGN_URN);
+				if(t.length > 1) {
+					throw new ValidationException(
+							ErrorCode.CAMPAIGN_INVALID_ID,
+							"Multiple campaign IDs were given: " +
+								InputKeys.CAMPAIGN_URN);
+				}
+				else if(t.length == 1) {
+					tCampaignId = CampaignValidators.validateCampaignId(t[0]);
+				}
+			}
+			catch(ValidationException e) {
+				e.failRequest(this);
+				LOGGER.info(e.toString());
+			}
+		}
+		
+		campaignId = tCampaignId;
+		started = false;
+	}
+
+	/**
+	 * Services the request.
+	 */
+	@Override
+	public void service() {
+		LOGGER.debug("Servicing the prompt response search index rebuild request.");
+		
+		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
+			return;
+		}
+		
+		try {
+			LOGGER.debug("Verifying that the user is an admin.");
+			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
+			
+			if(campaignId != null) {
+				LOGGER.debug("Verifying that the campaign exists.");
+				CampaignServices.instance().checkCampaignExistence(
+						campaignId, 
+						true);
+			}
+			
+			LOGGER.info("Starting to rebuild the prompt response search index.");
+			started = 
+				SurveyResponseServices.instance()
+					.startPromptResponseSearchIndexRebuild(campaignId);
+			if(! started) {
+				LOGGER.info(
+					"The prompt response search index is already being rebuilt.");
+			}
+		}
+		catch(ServiceException e) {
+			e.failRequest(this);
+			e.logException(LOGGER);
+		}
+	}
+
+	/**
+	 * Responds to the request with whether or not the rebuild was started. It
+	 * is not started if another rebuild is already running.
+	 */
+	@Override
+	public void respond(
+			final HttpServletRequest httpRequest, 
+			final HttpServletResponse httpResponse) {
+		
+		super.respond(httpRequest, httpResponse, RESULT_KEY, started);
+	}
+}
@@ -105,7 +105,7 @@ public class SurveyResponseUpdateRequest extends UserRequest {
 	public SurveyResponseUpdateRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a survey response update request.");
+		LOGGER.debug("Creating a survey response update request.");
 		
 		Set<UUID> tSurveyResponseIds = null;
 		SurveyResponse.PrivacyState tPrivacyState = null;
@@ -117,7 +117,7 @@ public class SurveyResponseUpdateRequest extends UserRequest {
 				// survey_id, but for survey_response/update the parameter is
 				// called survey_key. We should be using survey_id consistently.
 				
-				LOGGER.info("Validating survey_id parameter.");
+				LOGGER.debug("Validating survey_id parameter.");
 				String[] surveyIds = getParameterValues(InputKeys.SURVEY_KEY);
 				if(surveyIds.length > 1) {
 					throw new ValidationException(
@@ -178,7 +178,7 @@ public class SurveyResponseUpdateRequest extends UserRequest {
 									InputKeys.SURVEY_RESPONSE_ID_LIST);
 				}
 				
-				LOGGER.info("Validating privacy_state parameter.");
+				LOGGER.debug("Validating privacy_state parameter.");
 				String[] privacyStates = getParameterValues(InputKeys.PRIVACY_STATE);
 				if(privacyStates.length == 0) {
 					setFailed(ErrorCode.SURVEY_INVALID_PRIVACY_STATE, "Missing the required privacy state: " + InputKeys.PRIVACY_STATE);
@@ -212,7 +212,7 @@ public class SurveyResponseUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the survey response update request.");
+		LOGGER.debug("Servicing the survey response update request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -220,11 +220,11 @@ public class SurveyResponseUpdateRequest extends UserRequest {
 		
 		try {
 			try {
-				LOGGER.info("Checking if the user is an admin.");
+				LOGGER.debug("Checking if the user is an admin.");
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			}
 			catch(ServiceException e) {
-				LOGGER.info("Verifying that the user is allowed to update the survey response.");
+				LOGGER.debug("Verifying that the user is allowed to update the survey response.");
 				for(UUID surveyResponseId : surveyResponseIds) {
 					UserSurveyResponseServices
 						.instance()
@@ -234,7 +234,7 @@ public class SurveyResponseUpdateRequest extends UserRequest {
 				}
 			}
 			
-			LOGGER.info("Updating the survey response.");
+			LOGGER.debug("Updating the survey response.");
 			SurveyResponseServices.instance().updateSurveyResponsesPrivacyState(
 					this.surveyResponseIds, 
 					this.privacyState);
@@ -145,7 +145,7 @@ public class SurveyUploadRequest extends UserRequest {
 		List<JSONObject> tJsonData = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a survey response upload request.");
+			LOGGER.debug("Creating a survey response upload request.");
 			
 			try {
 				if(campaignId == null) {
@@ -196,7 +196,7 @@ public class SurveyUploadRequest extends UserRequest {
 	public SurveyUploadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, false, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a survey upload request.");
+		LOGGER.debug("Creating a survey upload request.");
 
 		String tCampaignUrn = null;
 		DateTime tCampaignCreationTimestamp = null;
@@ -267,18 +267,15 @@ public class SurveyUploadRequest extends UserRequest {
 						"No value found for 'surveys' parameter or multiple surveys parameters were found.");
 				}
 				else {
-					LOGGER.debug(new String(surveyDataBytes));
-					try {
-						tJsonData =
-							CampaignValidators
-								.validateUploadedJson(
-									new String(surveyDataBytes, "UTF-8"));
-					}
-					catch(IllegalArgumentException e) {
-						throw new ValidationException(
-							ErrorCode.SURVEY_INVALID_RESPONSES, 
-							"The survey responses could not be URL decoded.", e);
+					if(LOGGER.isDebugEnabled()) {
+						LOGGER.debug(new String(surveyDataBytes, "UTF-8"));
 					}
+					
+					// The bytes are parsed directly to avoid copying what may
+					// be a very large upload into a string first.
+					tJsonData =
+						CampaignValidators
+							.validateUploadedJson(surveyDataBytes);
 				}
 				
 				// Extract images from the post body
@@ -352,7 +349,9 @@ public class SurveyUploadRequest extends UserRequest {
 						
 						// String fileType = contentType.split("/")[1]; // not the same as file extension 
 						String fileName = getPartFilename(p);				
-						LOGGER.debug("HT: id: " + name + " Content-type:" + contentType + " fileName:" + fileName);
+						if(LOGGER.isDebugEnabled()) {
+							LOGGER.debug("HT: id: " + name + " Content-type:" + contentType + " fileName:" + fileName);
+						}
 						
 						if(contentType.startsWith("image")) {
 							Image image = new Image(id,	contentType, fileName, 
@@ -439,25 +438,25 @@ public class SurveyUploadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a survey upload request.");
+		LOGGER.debug("Servicing a survey upload request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the user is a participant in the campaign.");
+			LOGGER.debug("Verifying that the user is a participant in the campaign.");
 			UserCampaignServices.instance().verifyUserCanUploadSurveyResponses(getUser().getUsername(), campaignUrn);
 			
-			LOGGER.info("Verifying that the campaign is running.");
+			LOGGER.debug("Verifying that the campaign is running.");
 			CampaignServices.instance().verifyCampaignIsRunning(campaignUrn);
 			
-			LOGGER.info("Verifying whether the campaigns responses are editable");
+			LOGGER.debug("Verifying whether the campaigns responses are editable");
 			CampaignServices.instance().verifyEditableResponse(campaignUrn, allowSurveyUpdate);
 
 			Collection<String> campaignIds = new ArrayList<String>(1);
 			campaignIds.add(campaignUrn);
-			LOGGER.info("Generating the campaign object.");
+			LOGGER.debug("Generating the campaign object.");
 			Map<Campaign, Collection<Campaign.Role>> campaigns = 
 				UserCampaignServices
 					.instance()
@@ -488,12 +487,12 @@ public class SurveyUploadRequest extends UserRequest {
 			Campaign campaign = campaigns.keySet().iterator().next();
 			
 			if(campaignCreationTimestamp != null) {
-				LOGGER.info("Verifying that the uploaded survey responses aren't out of date.");
+				LOGGER.debug("Verifying that the uploaded survey responses aren't out of date.");
 				CampaignServices.instance().verifyCampaignIsUpToDate(campaign, campaignCreationTimestamp);
 			}
 
 			// allow partial survey content (for update operation)
-			LOGGER.info("Verifying the uploaded data against the campaign.");
+			LOGGER.debug("Verifying the uploaded data against the campaign.");
 			List<SurveyResponse> surveyResponses = 
 				CampaignServices.instance().getSurveyResponses(
 						getUser().getUsername(), 
@@ -510,16 +509,16 @@ public class SurveyUploadRequest extends UserRequest {
 			}
 
 			// compliance of media file to the campaign definition is done in the verifyMediaFile... methods		
-			LOGGER.info("Validating that all photo prompt responses have their corresponding images attached.");
+			LOGGER.debug("Validating that all photo prompt responses have their corresponding images attached.");
 			SurveyResponseServices.instance().verifyImagesFilesForPhotoPromptResponses(surveyResponses, imageContentsMap);
 			
-			LOGGER.info("Validating that all video prompt responses have their corresponding videos attached.");
+			LOGGER.debug("Validating that all video prompt responses have their corresponding videos attached.");
 			SurveyResponseServices.instance().verifyVideosFilesForVideoPromptResponses(surveyResponses, videoContentsMap);
 			
-			LOGGER.info("Validating that all audio prompt responses have their corresponding audio files attached.");
+			LOGGER.debug("Validating that all audio prompt responses have their corresponding audio files attached.");
 			SurveyResponseServices.instance().verifyAudioFilesForAudioPromptResponses(surveyResponses, audioContentsMap);
 			
-			LOGGER.info("Validating that all document prompt responses have their corresponding document files attached.");
+			LOGGER.debug("Validating that all document prompt responses have their corresponding document files attached.");
 			SurveyResponseServices.instance().verifyOFilesForFilePromptResponses(surveyResponses, fileContentsMap);
 			
 			// ideally, if update = true, new survey responses should be created and existing responses should be updated. 
@@ -549,7 +548,7 @@ public class SurveyUploadRequest extends UserRequest {
 					audioContentsMap, 
 					fileContentsMap);
 
-			    LOGGER.info("Found " + duplicateIndexList.size() + " duplicate survey uploads");
+			    LOGGER.debug("Found " + duplicateIndexList.size() + " duplicate survey uploads");
 			}
 		}
 		catch(ServiceException e) {
@@ -565,7 +564,7 @@ public class SurveyUploadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the survey upload request.");
+		LOGGER.debug("Responding to the survey upload request.");
 		
 		super.respond(httpRequest, httpResponse, (JSONObject) null);
 	}
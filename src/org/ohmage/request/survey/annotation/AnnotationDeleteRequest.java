@@ -80,7 +80,7 @@ public class AnnotationDeleteRequest extends UserRequest {
 	public AnnotationDeleteRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating an annotation delete request.");
+		LOGGER.debug("Creating an annotation delete request.");
 		
 		UUID tAnnotationId = null;
 				
@@ -117,7 +117,7 @@ public class AnnotationDeleteRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a survey annotation delete request.");
+		LOGGER.debug("Servicing a survey annotation delete request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -131,11 +131,11 @@ public class AnnotationDeleteRequest extends UserRequest {
 				// annotations if they no longer belong to the campaign
 				// to which the annotation is attached?
 				
-				LOGGER.info("Verifying that the requester is attempting to delete an annotation that they created.");
+				LOGGER.debug("Verifying that the requester is attempting to delete an annotation that they created.");
 				UserAnnotationServices.instance().verifyUserOwnsAnnotation(this.getUser().getUsername(), annotationId);
 			}
 			
-			LOGGER.info("Deleting the annotation");
+			LOGGER.debug("Deleting the annotation");
 			UserAnnotationServices.instance().deleteAnnotation(annotationId);
 		}
 		catch(ServiceException e) {
@@ -150,7 +150,7 @@ public class AnnotationDeleteRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the annotation delete request.");
+		LOGGER.debug("Responding to the annotation delete request.");
 		super.respond(httpRequest, httpResponse, (JSONObject) null);
 	}
 }
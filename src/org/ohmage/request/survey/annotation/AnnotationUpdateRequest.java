@@ -103,7 +103,7 @@ public class AnnotationUpdateRequest extends UserRequest {
 	public AnnotationUpdateRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a survey annotation update request.");
+		LOGGER.debug("Creating a survey annotation update request.");
 		
 		UUID tAnnotationId = null;
 		String tAnnotationText = null;
@@ -197,7 +197,7 @@ public class AnnotationUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a survey annotation update request.");
+		LOGGER.debug("Servicing a survey annotation update request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -210,11 +210,11 @@ public class AnnotationUpdateRequest extends UserRequest {
 				// annotations if they no longer belong to the campaign
 				// to which the annotation is attached?
 				
-				LOGGER.info("Verifying that the requester is attempting to update an annotation that they created.");
+				LOGGER.debug("Verifying that the requester is attempting to update an annotation that they created.");
 				UserAnnotationServices.instance().verifyUserOwnsAnnotation(this.getUser().getUsername(), annotationId);
 			}
 			
-			LOGGER.info("Updating the annotation");
+			LOGGER.debug("Updating the annotation");
 			UserAnnotationServices.instance().updateAnnotation(annotationId, annotationText, this.getClient(), time, timezone);
 		}
 		catch(ServiceException e) {
@@ -229,7 +229,7 @@ public class AnnotationUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the annotation update request.");
+		LOGGER.debug("Responding to the annotation update request.");
 		super.respond(httpRequest, httpResponse, (JSONObject) null);
 	}
 }
@@ -127,7 +127,7 @@ public class PromptResponseAnnotationCreationRequest extends UserRequest {
 	public PromptResponseAnnotationCreationRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a prompt annotation creation request.");
+		LOGGER.debug("Creating a prompt annotation creation request.");
 		
 		UUID tSurveyId = null;
 		String tPromptId = null;
@@ -313,7 +313,7 @@ public class PromptResponseAnnotationCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a prompt annotation creation request.");
+		LOGGER.debug("Servicing a prompt annotation creation request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -329,16 +329,16 @@ public class PromptResponseAnnotationCreationRequest extends UserRequest {
 					throw new ServiceException("The user does not belong to any campaigns.");
 				}
 				
-				LOGGER.info("Verifying that the logged in user can create a prompt response annotation");
+				LOGGER.debug("Verifying that the logged in user can create a prompt response annotation");
 				// By default, if a user can create a survey response annotation,
 				// he or she can create a prompt response annotation.
 				UserAnnotationServices.instance().userCanAccessSurveyResponseAnnotation(getUser().getUsername(), campaignIds, surveyId);
 			}
 			
-			LOGGER.info("Verifying that the provided input parameters reference an actual prompt response");
+			LOGGER.debug("Verifying that the provided input parameters reference an actual prompt response");
 			int promptResponseId = PromptResponseServices.instance().findPromptResponseIdFor(surveyId, promptId, repeatableSetId, repeatableSetIteration);
 			
-			LOGGER.info("Persisting the survey response annotation.");
+			LOGGER.debug("Persisting the survey response annotation.");
 			annotationIdToReturn = UserAnnotationServices.instance()
 				.createPromptResponseAnnotation(getClient(), 
 						                        this.time,
@@ -360,7 +360,7 @@ public class PromptResponseAnnotationCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the survey response annotation creation request.");
+		LOGGER.debug("Responding to the survey response annotation creation request.");
 		super.respond(httpRequest, httpResponse, "annotation_id", annotationIdToReturn);
 	}
 }
@@ -111,7 +111,7 @@ public class PromptResponseAnnotationReadRequest extends UserRequest {
 	public PromptResponseAnnotationReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a prompt response annotation read request.");
+		LOGGER.debug("Creating a prompt response annotation read request.");
 		
 		UUID tSurveyId = null;
 		String tPromptId = null;
@@ -234,7 +234,7 @@ public class PromptResponseAnnotationReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a prompt response annotation read request.");
+		LOGGER.debug("Servicing a prompt response annotation read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -249,11 +249,11 @@ public class PromptResponseAnnotationReadRequest extends UserRequest {
 					throw new ServiceException("The user does not belong to any campaigns.");
 				}
 				
-				LOGGER.info("Verifying that the logged in user can read prompt response annotations.");
+				LOGGER.debug("Verifying that the logged in user can read prompt response annotations.");
 				UserAnnotationServices.instance().userCanAccessSurveyResponseAnnotation(getUser().getUsername(), campaignIds, surveyId);
 			}
 			
-			LOGGER.info("Reading prompt response annotations.");
+			LOGGER.debug("Reading prompt response annotations.");
 			annotationsToReturn = UserAnnotationServices.instance().readPromptResponseAnnotations(this.surveyId, this.promptId, this.repeatableSetId, this.repeatableSetIteration);
 			
 		}
@@ -269,7 +269,7 @@ public class PromptResponseAnnotationReadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the prompt response annotation read request.");
+		LOGGER.debug("Responding to the prompt response annotation read request.");
 		
 		if(isFailed()) {
 			super.respond(httpRequest, httpResponse, (JSONObject) null);
@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.survey.annotation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonGenerator.Feature;
+import org.codehaus.jackson.map.MappingJsonFactory;
+import org.joda.time.DateTime;
+import org.json.JSONObject;
+import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.domain.Annotation;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.exception.ValidationException;
+import org.ohmage.request.InputKeys;
+import org.ohmage.request.UserRequest;
+import org.ohmage.service.UserAnnotationServices;
+import org.ohmage.service.UserServices;
+import org.ohmage.validator.CampaignValidators;
+import org.ohmage.validator.SurveyResponseValidators;
+
+/**
+ * <p>Reads the annotations for many survey responses at once, both those on
+ * the survey responses themselves and those on their prompt responses. The
+ * survey responses are either given as a list or are all of those in a
+ * campaign, optionally within a date range. Only supervisors in the survey
+ * responses' campaigns and admins may read them.</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#AUTH_TOKEN}</td>
+ *     <td>The requesting user's authentication token.</td>
+ *     <td>true</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CLIENT}</td>
+ *     <td>A string describing the client that is making this request.</td>
+ *     <td>true</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#SURVEY_RESPONSE_ID_LIST}</td>
+ *     <td>A comma-separated list of at most
+ *       {@value #MAX_NUMBER_OF_SURVEY_RESPONSES} survey response IDs.
+ *       Required unless
+ *       {@value org.ohmage.request.InputKeys#CAMPAIGN_URN} is given, and
+ *       not allowed if it is.</td>
+ *     <td>false</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#CAMPAIGN_URN}</td>
+ *     <td>The campaign whose survey responses' annotations should be read.
+ *       Required unless
+ *       {@value org.ohmage.request.InputKeys#SURVEY_RESPONSE_ID_LIST} is
+ *       given, and not allowed if it is.</td>
+ *     <td>false</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#START_DATE}</td>
+ *     <td>Limits the campaign's survey responses to those on or after this
+ *       date. Only allowed with
+ *       {@value org.ohmage.request.InputKeys#CAMPAIGN_URN}.</td>
+ *     <td>false</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#END_DATE}</td>
+ *     <td>Limits the campaign's survey responses to those on or before this
+ *       date. Only allowed with
+ *       {@value org.ohmage.request.InputKeys#CAMPAIGN_URN}.</td>
+ *     <td>false</td>
+ *   </tr>
+ * </table>
+ */
+public class SurveyResponseAnnotationBatchReadRequest extends UserRequest {
+	private static final Logger LOGGER = Logger.getLogger(SurveyResponseAnnotationBatchReadRequest.class);
+	
+	private static final JsonFactory JSON_FACTORY =
+		(new MappingJsonFactory()).configure(Feature.AUTO_CLOSE_TARGET, true);
+	
+	private static final String RESULT_KEY = "data";
+	
+	private static final String JSON_KEY_SURVEY_ID = "survey_id";
+	private static final String JSON_KEY_PROMPT_ID = "prompt_id";
+	private static final String JSON_KEY_REPEATABLE_SET_ID =
+		"repeatable_set_id";
+	private static final String JSON_KEY_REPEATABLE_SET_ITERATION =
+		"repeatable_set_iteration";
+	
+	/**
+	 * The maximum number of survey responses that may be listed in one
+	 * request.
+	 */
+	public static final int MAX_NUMBER_OF_SURVEY_RESPONSES = 1000;
+	
+	private final Set<UUID> surveyResponseIds;
+	private final String campaignId;
+	private final DateTime startDate;
+	private final DateTime endDate;
+	
+	/**
+	 * Creates a new survey response annotation batch read request.
+	 * 
+	 * @param httpRequest The HttpServletRequest with the parameters for this
+	 * 					  request.
+	 * 
+	 * @throws InvalidRequestException Thrown if the parameters cannot be
+	 * 								   parsed.
+	 * 
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public SurveyResponseAnnotationBatchReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
+		super(httpRequest, null, TokenLocation.PARAMETER, null);
+		
+		LOGGER.debug("Creating a survey annotation batch read request.");
+		
+		Set<UUID> tSurveyResponseIds = null;
+		String tCampaignId = null;
+		DateTime tStartDate = null;
+		DateTime tEndDate = null;
+		
+		if(! isFailed()) {
+			try {
+				String[] t;
+				
+				t = getParameterValues(InputKeys.SURVEY_RESPONSE_ID_LIST);
+				if(t.length > 1) {
+					throw new ValidationException(
+							ErrorCode.SURVEY_INVALID_SURVEY_ID,
+							"Multiple survey response ID lists were given: " +
+								InputKeys.SURVEY_RESPONSE_ID_LIST);
+				}
+				else if(t.length == 1) {
+					tSurveyResponseIds =
+							SurveyResponseValidators.validateSurveyResponseIds(
+									t[0],
+									MAX_NUMBER_OF_SURVEY_RESPONSES);
+				}
+				
+				t = getParameterValues(InputKeys.CAMPAIGN_URN);
+				if(t.length > 1) {
+					throw new ValidationException(
+							ErrorCode.CAMPAIGN_INVALID_ID,
+							"Multiple campaign IDs were found: " +
+								InputKeys.CAMPAIGN_URN);
+				}
+				else if(t.length == 1) {
+					tCampaignId = CampaignValidators.validateCampaignId(t[0]);
+				}
+				
+				t = getParameterValues(InputKeys.START_DATE);
+				if(t.length > 1) {
+					throw new ValidationException(
+							ErrorCode.SERVER_INVALID_DATE,
+							"Multiple start dates were given: " +
+								InputKeys.START_DATE);
+				}
+				else if(t.length == 1) {
+					tStartDate =
+							SurveyResponseValidators.validateStartDate(t[0]);
+				}
+				
+				t = getParameterValues(InputKeys.END_DATE);
+				if(t.length > 1) {
+					throw new ValidationException(
+							ErrorCode.SERVER_INVALID_DATE,
+							"Multiple end dates were given: " +
+								InputKeys.END_DATE);
+				}
+				else if(t.length == 1) {
+					tEndDate = SurveyResponseValidators.validateEndDate(t[0]);
+				}
+				
+				SurveyResponseValidators.validateSurveyResponseSelection(
+						tSurveyResponseIds,
+						tCampaignId,
+						tStartDate,
+						tEndDate);
+			}
+			catch(ValidationException e) {
+				e.failRequest(this);
+				e.logException(LOGGER);
+			}
+		}
+		
+		surveyResponseIds = tSurveyResponseIds;
+		campaignId = tCampaignId;
+		startDate = tStartDate;
+		endDate = tEndDate;
+	}
+	
+	/**
+	 * Services the request.
+	 */
+	@Override
+	public void service() {
+		LOGGER.debug("Servicing a survey annotation batch read request.");
+		
+		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
+			return;
+		}
+		
+		try {
+			if(! UserServices.instance().isUserAnAdmin(getUser().getUsername())) {
+				LOGGER.debug("Verifying that the logged in user can read the survey response annotations.");
+				if(campaignId == null) {
+					UserAnnotationServices.instance().verifyUserCanReadSurveyResponseAnnotations(getUser().getUsername(), surveyResponseIds);
+				}
+				else {
+					UserAnnotationServices.instance().verifyUserCanReadCampaignAnnotations(getUser().getUsername(), campaignId);
+				}
+			}
+		}
+		catch(ServiceException e) {
+			e.failRequest(this);
+			e.logException(LOGGER);
+		}
+	}
+	
+	/**
+	 * Streams the annotations to the requester as they are read. If reading
+	 * them fails before the first one is written, a failure message is
+	 * returned instead.
+	 */
+	@Override
+	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+		LOGGER.debug("Responding to the survey response annotation batch read request.");
+		
+		if(isFailed()) {
+			super.respond(httpRequest, httpResponse, (JSONObject) null);
+			return;
+		}
+		
+		JsonWriter jsonWriter = new JsonWriter(httpRequest, httpResponse);
+		try {
+			UserAnnotationServices.instance().processSurveyResponseAnnotations(
+					surveyResponseIds,
+					campaignId,
+					startDate,
+					endDate,
+					jsonWriter);
+			
+			// If there were no annotations, this writes an empty list.
+			jsonWriter.start();
+			jsonWriter.finish();
+		}
+		catch(ServiceException e) {
+			if(! jsonWriter.isStarted()) {
+				e.failRequest(this);
+				e.logException(LOGGER);
+				super.respond(httpRequest, httpResponse, (JSONObject) null);
+				return;
+			}
+			
+			// Part of the response has already been written, so all we can
+			// do is stop.
+			LOGGER.error("Could not write the annotations.", e);
+			setFailed();
+			jsonWriter.close();
+		}
+		// If we fail while writing to the output stream, then the connection
+		// was broken and there is nothing we can do.
+		catch(IOException e) {
+			LOGGER.error("The annotations could not be written to the response.", e);
+			setFailed();
+			jsonWriter.close();
+		}
+	}
+	
+	/**
+	 * Writes each annotation as soon as it is read. The response's headers
+	 * and the start of the JSON object are written with the first one.
+	 */
+	private final class JsonWriter implements Annotation.Handler {
+		private final HttpServletRequest httpRequest;
+		private final HttpServletResponse httpResponse;
+		
+		private OutputStream outputStream = null;
+		private JsonGenerator generator = null;
+		
+		/**
+		 * Creates a writer for the response.
+		 * 
+		 * @param httpRequest The HTTP request.
+		 * 
+		 * @param httpResponse The HTTP response.
+		 */
+		private JsonWriter(
+				final HttpServletRequest httpRequest,
+				final HttpServletResponse httpResponse) {
+			
+			this.httpRequest = httpRequest;
+			this.httpResponse = httpResponse;
+		}
+		
+		/**
+		 * Returns whether or not the response has been started.
+		 * 
+		 * @return Whether or not anything has been written.
+		 */
+		private boolean isStarted() {
+			return outputStream != null;
+		}
+		
+		/**
+		 * Starts the response, if it hasn't been started, by setting its
+		 * headers and opening the result object and its data array.
+		 * 
+		 * @throws IOException The response could not be written.
+		 */
+		private void start() throws IOException {
+			if(generator != null) {
+				return;
+			}
+			
+			refreshTokenCookie(httpResponse);
+			expireResponse(httpResponse);
+			httpResponse.setContentType("application/json");
+			
+			outputStream = getOutputStream(httpRequest, httpResponse);
+			generator = JSON_FACTORY.createJsonGenerator(outputStream);
+			
+			generator.writeStartObject();
+			generator.writeStringField(JSON_KEY_RESULT, RESULT_SUCCESS);
+			generator.writeArrayFieldStart(RESULT_KEY);
+		}
+		
+		/**
+		 * Writes an annotation along with the survey response and, if any,
+		 * the prompt response to which it is attached.
+		 */
+		@Override
+		public void handle(
+				final UUID surveyResponseId,
+				final String promptId,
+				final String repeatableSetId,
+				final Integer repeatableSetIteration,
+				final Annotation annotation)
+				throws IOException {
+			
+			start();
+			
+			generator.writeStartObject();
+			generator.writeStringField(
+				JSON_KEY_SURVEY_ID,
+				surveyResponseId.toString());
+			if(promptId != null) {
+				generator.writeStringField(JSON_KEY_PROMPT_ID, promptId);
+			}
+			if(repeatableSetId != null) {
+				generator.writeStringField(
+					JSON_KEY_REPEATABLE_SET_ID,
+					repeatableSetId);
+			}
+			if(repeatableSetIteration != null) {
+				generator.writeNumberField(
+					JSON_KEY_REPEATABLE_SET_ITERATION,
+					repeatableSetIteration);
+			}
+			annotation.writeJsonFields(generator);
+			generator.writeEndObject();
+		}
+		
+		/**
+		 * Closes the data array and the result object and closes the
+		 * response.
+		 * 
+		 * @throws IOException The response could not be written.
+		 */
+		private void finish() throws IOException {
+			generator.writeEndArray();
+			generator.writeEndObject();
+			generator.close();
+		}
+		
+		/**
+		 * Closes the response without finishing it, if it was started. The
+		 * stream is closed rather than the generator, which would otherwise
+		 * end the open array and object and make the truncated response look
+		 * complete.
+		 */
+		private void close() {
+			if(outputStream == null) {
+				return;
+			}
+			
+			try {
+				outputStream.close();
+			}
+			catch(IOException e) {
+				LOGGER.warn("Could not close the output stream.", e);
+			}
+		}
+	}
+}
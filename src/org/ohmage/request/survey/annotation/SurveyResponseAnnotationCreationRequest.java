@@ -106,7 +106,7 @@ public class SurveyResponseAnnotationCreationRequest extends UserRequest {
 	public SurveyResponseAnnotationCreationRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a survey annotation creation request.");
+		LOGGER.debug("Creating a survey annotation creation request.");
 		
 		UUID tSurveyId = null;
 		Long tTime = Long.MIN_VALUE;
@@ -201,7 +201,7 @@ public class SurveyResponseAnnotationCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a survey annotation creation request.");
+		LOGGER.debug("Servicing a survey annotation creation request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -215,11 +215,11 @@ public class SurveyResponseAnnotationCreationRequest extends UserRequest {
 					throw new ServiceException("The user does not belong to any campaigns.");
 				}
 				
-				LOGGER.info("Verifying that the logged in user can create a survey response annotation");
+				LOGGER.debug("Verifying that the logged in user can create a survey response annotation");
 				UserAnnotationServices.instance().userCanAccessSurveyResponseAnnotation(getUser().getUsername(), campaignIds, surveyId);
 			}
 			
-			LOGGER.info("Persisting the survey response annotation.");
+			LOGGER.debug("Persisting the survey response annotation.");
 			annotationIdToReturn = UserAnnotationServices.instance().createSurveyResponseAnnotation(getClient(), this.time, this.timezone, this.annotationText, this.surveyId, getUser().getUsername());
 			
 		}
@@ -235,7 +235,7 @@ public class SurveyResponseAnnotationCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the survey response annotation creation request.");
+		LOGGER.debug("Responding to the survey response annotation creation request.");
 		super.respond(httpRequest, httpResponse, "annotation_id", annotationIdToReturn);
 	}
 }
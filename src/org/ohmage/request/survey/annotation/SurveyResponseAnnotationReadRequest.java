@@ -91,7 +91,7 @@ public class SurveyResponseAnnotationReadRequest extends UserRequest {
 	public SurveyResponseAnnotationReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a survey annotation read request.");
+		LOGGER.debug("Creating a survey annotation read request.");
 		
 		UUID tSurveyId = null;
 				
@@ -128,7 +128,7 @@ public class SurveyResponseAnnotationReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a survey annotation creation request.");
+		LOGGER.debug("Servicing a survey annotation creation request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -142,11 +142,11 @@ public class SurveyResponseAnnotationReadRequest extends UserRequest {
 					throw new ServiceException("The user does not belong to any campaigns.");
 				}
 				
-				LOGGER.info("Verifying that the logged in user can read survey response annotations.");
+				LOGGER.debug("Verifying that the logged in user can read survey response annotations.");
 				UserAnnotationServices.instance().userCanAccessSurveyResponseAnnotation(getUser().getUsername(), campaignIds, surveyId);
 			}
 			
-			LOGGER.info("Reading survey response annotations.");
+			LOGGER.debug("Reading survey response annotations.");
 			annotationsToReturn = UserAnnotationServices.instance().readSurveyResponseAnnotations(this.surveyId);
 			
 		}
@@ -162,7 +162,7 @@ public class SurveyResponseAnnotationReadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the survey response annotation read request.");
+		LOGGER.debug("Responding to the survey response annotation read request.");
 
 		if(isFailed()) {
 			super.respond(httpRequest, httpResponse, (JSONObject) null);
@@ -94,10 +94,10 @@ public class UserActivationRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a user activation request.");
+		LOGGER.debug("Servicing a user activation request.");
 		
 		try {
-			LOGGER.info("Verifying that the registration ID exists.");
+			LOGGER.debug("Verifying that the registration ID exists.");
 			UserServices.instance().validateRegistrationId(registrationId);
 			
 			LOGGER.info("Activating the account.");
@@ -117,7 +117,7 @@ public class UserActivationRequest extends Request {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 		
-		LOGGER.info("Responding to a user activation request.");
+		LOGGER.debug("Responding to a user activation request.");
 		
 		// FIXME: This should redirect to a page accessed by GET to prevent 
 		// the user from being able to activate their account repeatedly. 
@@ -92,7 +92,7 @@ public class UserChangePasswordRequest extends UserRequest {
 		boolean tValidSession = false;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user change password request.");
+			LOGGER.debug("Creating a user change password request.");
 			
 			String[] t;
 			try {
@@ -159,7 +159,7 @@ public class UserChangePasswordRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the change password request.");
+		LOGGER.debug("Servicing the change password request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_ALLOWED)) {
 			// If it's a valid session, change the error code.
@@ -191,7 +191,7 @@ public class UserChangePasswordRequest extends UserRequest {
 						username);
 			}
 			
-			LOGGER.info("Updating the user's password.");
+			LOGGER.debug("Updating the user's password.");
 			if(username == null) {
 				hashedPassword =
 					UserServices
@@ -217,7 +217,7 @@ public class UserChangePasswordRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the change password request.");
+		LOGGER.debug("Responding to the change password request.");
 		
 		super
 			.respond(
@@ -120,7 +120,7 @@ public class UserCreationRequest extends UserRequest {
 		Boolean tNewCampaignCreationPrivilege = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user creation request.");
+			LOGGER.debug("Creating a user creation request.");
 		
 			try {
 				String[] t;
@@ -250,20 +250,20 @@ public class UserCreationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user creation request.");
+		LOGGER.debug("Servicing the user creation request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the requesting user is an admin.");
+			LOGGER.debug("Verifying that the requesting user is an admin.");
 			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			
-			LOGGER.info("Verifying that a user with the username doesn't already exist.");
+			LOGGER.debug("Verifying that a user with the username doesn't already exist.");
 			UserServices.instance().checkUserExistance(newUsername, false);
 			
-			LOGGER.info("Creating the user.");
+			LOGGER.debug("Creating the user.");
 			UserServices.instance().createUser(newUsername, newPassword, emailAddress, newIsAdmin, newIsEnabled, newIsNewAccount, newCampaignCreationPrivilege, false, false);
 		}
 		catch(ServiceException e) {
@@ -75,7 +75,7 @@ public class UserDeletionRequest extends UserRequest {
 	public UserDeletionRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a user deletion request.");
+		LOGGER.debug("Creating a user deletion request.");
 		
 		Set<String> tUsernames = null;
 		
@@ -103,20 +103,20 @@ public class UserDeletionRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user deletion request.");
+		LOGGER.debug("Servicing the user deletion request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the user is an admin.");
+			LOGGER.debug("Verifying that the user is an admin.");
 			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			
-			LOGGER.info("Verifying that the users in the list exist.");
+			LOGGER.debug("Verifying that the users in the list exist.");
 			UserServices.instance().verifyUsersExist(usernames, true);
 			
-			LOGGER.info("Deleting the user(s).");
+			LOGGER.debug("Deleting the user(s).");
 			UserServices.instance().deleteUser(usernames);
 		}
 		catch(ServiceException e) {
@@ -130,7 +130,7 @@ public class UserDeletionRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the user deletion request.");
+		LOGGER.debug("Responding to the user deletion request.");
 		
 		super.respond(httpRequest, httpResponse, (JSONObject) null);
 	}
@@ -83,7 +83,7 @@ public class UserInfoReadRequest extends UserRequest {
 		String tUsername = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user info read request.");
+			LOGGER.debug("Creating a user info read request.");
 	
 			String[] t;
 			try {
@@ -119,7 +119,7 @@ public class UserInfoReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user info read request.");
+		LOGGER.debug("Servicing the user info read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -129,11 +129,11 @@ public class UserInfoReadRequest extends UserRequest {
 			
 			// Need to be an admin to look at other user's info
 			if (gUsername != getUser().getUsername()) {
-				LOGGER.info("Checking that the user is an admin: " + getUser().getUsername());
+				LOGGER.debug("Checking that the user is an admin: " + getUser().getUsername());
 				UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			}
 			
-			LOGGER.info("Gathering the information about the user " + gUsername);
+			LOGGER.debug("Gathering the information about the user " + gUsername);
 			result = UserServices.instance().getUserSummary(gUsername);
 		}
 		catch(ServiceException e) {
@@ -148,7 +148,7 @@ public class UserInfoReadRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the user info read request.");
+		LOGGER.debug("Responding to the user info read request.");
 		
 		JSONObject jsonResult = new JSONObject();
 		
@@ -41,7 +41,7 @@ public class UserPasswordResetRequest extends Request {
 		
 		if(! isFailed()) {
 			String[] t;
-			LOGGER.info("Creating a new password reset request.");
+			LOGGER.debug("Creating a new password reset request.");
 			
 			try {
 				t = getParameterValues(InputKeys.USERNAME);
@@ -109,10 +109,10 @@ public class UserPasswordResetRequest extends Request {
 	@Override
 	public void service() {
 		try {
-			LOGGER.info("Checking if the user exists.");
+			LOGGER.debug("Checking if the user exists.");
 			UserServices.instance().checkUserExistance(username, true);
 			
-			LOGGER.info("Checking if the email address is correct.");
+			LOGGER.debug("Checking if the email address is correct.");
 			UserServices.instance().isUserEmailCorrect(username, emailAddress);
 			
 			LOGGER.info("Sending a password reset email.");
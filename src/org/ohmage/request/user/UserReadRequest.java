@@ -158,7 +158,7 @@ public class UserReadRequest extends UserRequest {
 		int tNumToReturn = User.MAX_NUM_TO_RETURN;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user read request.");
+			LOGGER.debug("Creating a user read request.");
 		
 			try {
 				String[] t;
@@ -367,14 +367,14 @@ public class UserReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user read request.");
+		LOGGER.debug("Servicing the user read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Reading the database.");
+			LOGGER.debug("Reading the database.");
 			numResults = 
 					UserServices.instance().getUserInformation(
 							getUser().getUsername(),
@@ -396,7 +396,7 @@ public class UserReadRequest extends UserRequest {
 							numToReturn,
 							results);
 			
-			LOGGER.info(
+			LOGGER.debug(
 					"Returning " + 
 						results.size() + 
 						" results out of a total of " +
@@ -91,7 +91,7 @@ public class UserRegistrationRequest extends Request {
 		String tCaptchaVersion = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user registration request.");
+			LOGGER.debug("Creating a user registration request.");
 			
 			try {
 				String[] t;
@@ -245,22 +245,22 @@ public class UserRegistrationRequest extends Request {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a user registration request.");
+		LOGGER.debug("Servicing a user registration request.");
 		
 		try {
-			LOGGER.info("Verifying that self-registration is allowed.");
+			LOGGER.debug("Verifying that self-registration is allowed.");
 			UserServices.instance().verifySelfRegistrationAllowed();
 			
-			LOGGER.info("Verifying the captcha information.");
+			LOGGER.debug("Verifying the captcha information.");
 			UserServices.instance().verifyCaptcha(captchaVersion,
 					remoteAddr, 
 					captchaChallenge, 
 					captchaResponse);
 			
-			LOGGER.info("Verifying that the username isn't already taken.");
+			LOGGER.debug("Verifying that the username isn't already taken.");
 			UserServices.instance().checkUserExistance(username, false);
 			
-			LOGGER.info("Creating the confirmation session.");
+			LOGGER.debug("Creating the confirmation session.");
 			UserServices.instance().createUserRegistration(username, password, emailAddress);
 		}
 		catch(ServiceException e) {
@@ -279,7 +279,7 @@ public class UserRegistrationRequest extends Request {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 		
-		LOGGER.info("Responding to a user registration request.");
+		LOGGER.debug("Responding to a user registration request.");
 		
 		super.respond(httpRequest, httpResponse, new JSONObject());
 	}
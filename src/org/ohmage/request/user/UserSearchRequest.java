@@ -180,7 +180,7 @@ public class UserSearchRequest extends UserRequest {
 		int tNumToReturn = User.MAX_NUM_TO_RETURN;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user search request.");
+			LOGGER.debug("Creating a user search request.");
 			
 			String[] t;
 			try {
@@ -376,17 +376,17 @@ public class UserSearchRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user search request.");
+		LOGGER.debug("Servicing the user search request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 
 		try {
-			LOGGER.info("Checking that the user is an admin.");
+			LOGGER.debug("Checking that the user is an admin.");
 			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			
-			LOGGER.info("Searching for the users that satisfy the parameters.");
+			LOGGER.debug("Searching for the users that satisfy the parameters.");
 			totalNumResults = 
 					UserServices.instance().userSearch(
 						getUser().getUsername(),
@@ -418,7 +418,7 @@ public class UserSearchRequest extends UserRequest {
 	public void respond(HttpServletRequest httpRequest,
 			HttpServletResponse httpResponse) {
 		
-		LOGGER.info("Responding to a user search request.");
+		LOGGER.debug("Responding to a user search request.");
 		
 		JSONObject metadata = null;
 		JSONObject result = null;
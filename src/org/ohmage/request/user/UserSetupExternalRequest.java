@@ -57,7 +57,7 @@ public class UserSetupExternalRequest extends UserRequest {
 		String tNewUsername = null;
 
 		if(! isFailed()) {
-			LOGGER.info("Creating a user setup external request.");
+			LOGGER.debug("Creating a user setup external request.");
 
 			try {
 				String[] t;     
@@ -111,24 +111,24 @@ public class UserSetupExternalRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user setup request.");
+		LOGGER.debug("Servicing the user setup request.");
 
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 
 		try {
-			LOGGER.info("Verifying that the requesting user can setup users.");
+			LOGGER.debug("Verifying that the requesting user can setup users.");
 			UserServices
 			.instance()
 			.verifyUserCanSetupUsers(getUser().getUsername());
 
 			if(classIds != null) {
-				LOGGER.info("Verifying that the classes exist.");
+				LOGGER.debug("Verifying that the classes exist.");
 				ClassServices.instance().checkClassesExistence(classIds, true);
 			}
 
-			LOGGER.info("Determining if the user already exists.");
+			LOGGER.debug("Determining if the user already exists.");
 			boolean userExistsAndExternal =
 					UserServices
 					.instance()
@@ -139,7 +139,7 @@ public class UserSetupExternalRequest extends UserRequest {
 			// which can be considered intentional.
 			if(userExistsAndExternal == false) {
 				LOGGER.info("The user does not exist or is not external.");
-				LOGGER.info("Trying to create the user.");
+				LOGGER.debug("Trying to create the user.");
 				UserServices
 				.instance()
 				.createUser(
@@ -168,7 +168,7 @@ public class UserSetupExternalRequest extends UserRequest {
 							new HashMap<String, Clazz.Role>();
 					usersToAdd.put(newUsername, Clazz.Role.RESTRICTED);
 
-					LOGGER.info("Reseting the user in the class: " + classId);
+					LOGGER.debug("Reseting the user in the class: " + classId);
 					ClassServices
 					.instance()
 					.updateClass(
@@ -83,7 +83,7 @@ public class UserSetupRequest extends UserRequest {
 		String tEmailAddress = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a user setup request.");
+			LOGGER.debug("Creating a user setup request.");
 			
 			try {
 				String[] t;
@@ -276,24 +276,24 @@ public class UserSetupRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user setup request.");
+		LOGGER.debug("Servicing the user setup request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the requesting user can setup users.");
+			LOGGER.debug("Verifying that the requesting user can setup users.");
 			UserServices
 				.instance()
 				.verifyUserCanSetupUsers(getUser().getUsername());
 			
 			if(classIds != null) {
-				LOGGER.info("Verifying that the classes exist.");
+				LOGGER.debug("Verifying that the classes exist.");
 				ClassServices.instance().checkClassesExistence(classIds, true);
 			}
 			
-			LOGGER.info("Determining if the user already exists.");
+			LOGGER.debug("Determining if the user already exists.");
 			UserInformation userInformation =
 				UserServices
 					.instance()
@@ -307,10 +307,10 @@ public class UserSetupRequest extends UserRequest {
 			if(userInformation == null) {
 				LOGGER.info("The user does not exist.");
 				
-				LOGGER.info("Generating a random username.");
+				LOGGER.debug("Generating a random username.");
 				username = getRandomUsername();
 				
-				LOGGER.info("Generating a random password.");
+				LOGGER.debug("Generating a random password.");
 				password = getRandomPassword();
 				
 				if (emailAddress == null) {
@@ -324,7 +324,7 @@ public class UserSetupRequest extends UserRequest {
 				// For security reason, only set initial password to true 
 				// only if the newAccount is set to true to enforce password change 
 				// upon first login. 
-				LOGGER.info("Creating the user.");
+				LOGGER.debug("Creating the user.");
 				haveUserInfo =
 					UserServices
 						.instance()
@@ -374,7 +374,7 @@ public class UserSetupRequest extends UserRequest {
 						new HashMap<String, Clazz.Role>();
 					usersToAdd.put(username, Clazz.Role.RESTRICTED);
 					
-					LOGGER.info("Restting the user in the class: " + classId);
+					LOGGER.debug("Restting the user in the class: " + classId);
 					ClassServices
 						.instance()
 						.updateClass(
@@ -125,7 +125,7 @@ public class UserStatsReadRequest extends UserRequest {
 	public UserStatsReadRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, false, TokenLocation.EITHER, null);
 		
-		LOGGER.info("Creating a user stats read request.");
+		LOGGER.debug("Creating a user stats read request.");
 		
 		String tCampaignId = null;
 		String tUsername = null;
@@ -170,29 +170,29 @@ public class UserStatsReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user stats read request.");
+		LOGGER.debug("Servicing the user stats read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the requester has permissions to view the survey information.");
+			LOGGER.debug("Verifying that the requester has permissions to view the survey information.");
 			UserCampaignServices.instance().requesterCanViewUsersSurveyResponses(campaignId, getUser().getUsername(), username);
 			
-			LOGGER.info("Verifying that the requester has permissions to view the mobility information.");
+			LOGGER.debug("Verifying that the requester has permissions to view the mobility information.");
 			UserMobilityServices.instance().requesterCanViewUsersMobilityData(getUser().getUsername(), username);
 			
-			LOGGER.info("Gathering the number of hours since the last survey upload.");
+			LOGGER.debug("Gathering the number of hours since the last survey upload.");
 			hoursSinceLastSurveyUpload = UserSurveyResponseServices.instance().getHoursSinceLastSurveyUplaod(getUser().getUsername(), username);
 			
-			LOGGER.info("Gathering the number of hours since the last Mobility upload.");
+			LOGGER.debug("Gathering the number of hours since the last Mobility upload.");
 			hoursSinceLastMobilityUpload = UserMobilityServices.instance().getHoursSinceLastMobilityUpload(username);
 			
-			LOGGER.info("Gathering the percentage of successful location uploads from surveys in the last day.");
+			LOGGER.debug("Gathering the percentage of successful location uploads from surveys in the last day.");
 			pastDaySuccessfulSurveyLocationUpdatesPercentage = UserSurveyResponseServices.instance().getPercentageOfNonNullLocationsOverPastDay(getUser().getUsername(), username);
 			
-			LOGGER.info("Gathering the percentage of successful location updates from Mobility in the last day.");
+			LOGGER.debug("Gathering the percentage of successful location updates from Mobility in the last day.");
 			pastDatSuccessfulMobilityLocationUpdatesPercentage = UserMobilityServices.instance().getPercentageOfNonNullLocationsOverPastDay(username);
 		}
 		catch(ServiceException e) {
@@ -149,7 +149,7 @@ public class UserUpdateRequest extends UserRequest {
 	public UserUpdateRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest, null, TokenLocation.PARAMETER, null);
 		
-		LOGGER.info("Creating a user update request.");
+		LOGGER.debug("Creating a user update request.");
 		
 		String tUsername = null;
 		String tEmailAddress = null;
@@ -354,20 +354,20 @@ public class UserUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Validating the user update request.");
+		LOGGER.debug("Validating the user update request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the requesting user is an admin.");
+			LOGGER.debug("Verifying that the requesting user is an admin.");
 			UserServices.instance().verifyUserIsAdmin(getUser().getUsername());
 			
-			LOGGER.info("Verifying that the user to be updated exists.");
+			LOGGER.debug("Verifying that the user to be updated exists.");
 			UserServices.instance().checkUserExistance(username, true);
 			
-			LOGGER.info("Verify that either the user to be updated already has a personal record or that enough information was provided to create a new one.");
+			LOGGER.debug("Verify that either the user to be updated already has a personal record or that enough information was provided to create a new one.");
 			UserServices.instance().verifyUserHasOrCanCreatePersonalInfo(
 					username,
 					firstName,
@@ -375,7 +375,7 @@ public class UserUpdateRequest extends UserRequest {
 					organization,
 					personalId);
 			
-			LOGGER.info("Updating the user.");
+			LOGGER.debug("Updating the user.");
 			UserServices.instance().updateUser(
 					username, 
 					emailAddress,
@@ -402,7 +402,7 @@ public class UserUpdateRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Responding to the user update request.");
+		LOGGER.debug("Responding to the user update request.");
 		
 		super.respond(httpRequest, httpResponse, (JSONObject) null);
 	}
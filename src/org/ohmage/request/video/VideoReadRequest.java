@@ -54,7 +54,7 @@ public class VideoReadRequest extends UserRequest {
 		UUID tVideoId = null;
 		
 		if(! isFailed()) {
-			LOGGER.info("Creating a video read request.");
+			LOGGER.debug("Creating a video read request.");
 			String[] t;
 			
 			try {
@@ -89,19 +89,19 @@ public class VideoReadRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Validating a video read request.");
+		LOGGER.debug("Validating a video read request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
 		}
 		
 		try {
-			LOGGER.info("Verifying that the user is allowed to read the video.");
+			LOGGER.debug("Verifying that the user is allowed to read the video.");
 			UserMediaServices.instance().verifyUserCanReadMedia(
 				getUser().getUsername(), 
 				videoId);
 			
-			LOGGER.info("Connecting to the video stream.");
+			LOGGER.debug("Connecting to the video stream.");
 			video = MediaServices.instance().getVideo(videoId);
 		}
 		catch(ServiceException e) {
@@ -119,7 +119,7 @@ public class VideoReadRequest extends UserRequest {
 			final HttpServletRequest httpRequest,
 			final HttpServletResponse httpResponse) {
 
-		LOGGER.info("Responding to a video read request.");
+		LOGGER.debug("Responding to a video read request.");
 		
 		// Sets the HTTP headers to disable caching
 		expireResponse(httpResponse);
@@ -156,7 +156,7 @@ public class VideoReadRequest extends UserRequest {
 				// fail.
 				OutputStream os;
 				try {
-					os = httpResponse.getOutputStream();
+					os = getOutputStream(httpRequest, httpResponse);
 				}
 				catch(IOException e) {
 					LOGGER.error(
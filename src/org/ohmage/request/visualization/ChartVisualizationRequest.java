@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.request.visualization;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.domain.BarChart;
+import org.ohmage.exception.InvalidRequestException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.exception.ValidationException;
+import org.ohmage.request.InputKeys;
+import org.ohmage.validator.VisualizationValidators;
+
+/**
+ * <p>The parent request for visualizations that are computed by this server
+ * rather than by the visualization server. The chart is returned as a PNG
+ * unless the requester asks for its data as JSON.</p>
+ * <table border="1">
+ *   <tr>
+ *     <td>Parameter Name</td>
+ *     <td>Description</td>
+ *     <td>Required</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@value org.ohmage.request.InputKeys#OUTPUT_FORMAT}</td>
+ *     <td>Either "png", the default, for the rendered image or "json" for
+ *       the chart's title, categories, and series.</td>
+ *     <td>false</td>
+ *   </tr>
+ * </table>
+ */
+public abstract class ChartVisualizationRequest extends VisualizationRequest {
+	private static final Logger LOGGER = Logger.getLogger(ChartVisualizationRequest.class);
+	
+	private final BarChart.OutputFormat outputFormat;
+	
+	private JSONObject chart;
+	
+	/**
+	 * Creates a new chart visualization request.
+	 * 
+	 * @param httpRequest A HttpServletRequest with the requirements for a
+	 * 					  visualization request.
+	 * 
+	 * @throws InvalidRequestException Thrown if the parameters cannot be 
+	 * 								   parsed.
+	 * 
+	 * @throws IOException There was an error reading from the request.
+	 */
+	public ChartVisualizationRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
+		super(httpRequest);
+		
+		BarChart.OutputFormat tOutputFormat = BarChart.OutputFormat.PNG;
+		
+		if(! isFailed()) {
+			try {
+				String[] t = getParameterValues(InputKeys.OUTPUT_FORMAT);
+				if(t.length > 1) {
+					throw new ValidationException(
+							ErrorCode.VISUALIZATION_INVALID_OUTPUT_FORMAT,
+							"Multiple values given for the same parameter: " +
+									InputKeys.OUTPUT_FORMAT);
+				}
+				else if(t.length == 1) {
+					BarChart.OutputFormat format =
+						VisualizationValidators.validateOutputFormat(t[0]);
+					
+					if(format != null) {
+						tOutputFormat = format;
+					}
+				}
+			}
+			catch(ValidationException e) {
+				e.failRequest(this);
+				e.logException(LOGGER);
+			}
+		}
+		
+		outputFormat = tOutputFormat;
+		chart = null;
+	}
+	
+	/**
+	 * Writes the chart as JSON if that was requested; otherwise, writes the
+	 * rendered image.
+	 */
+	@Override
+	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+		if(BarChart.OutputFormat.JSON.equals(outputFormat)) {
+			LOGGER.debug("Writing the chart visualization response.");
+			
+			respond(httpRequest, httpResponse, chart);
+		}
+		else {
+			super.respond(httpRequest, httpResponse);
+		}
+	}
+	
+	/**
+	 * Sets the chart that will be returned to the requester, rendering it if
+	 * the requester wants an image.
+	 * 
+	 * @param barChart The chart.
+	 * 
+	 * @throws ServiceException There was an error rendering the chart.
+	 */
+	protected final void setChart(final BarChart barChart) 
+			throws ServiceException {
+		
+		try {
+			if(BarChart.OutputFormat.JSON.equals(outputFormat)) {
+				chart = barChart.toJson();
+			}
+			else {
+				setImage(barChart.toPng(getWidth(), getHeight()));
+			}
+		}
+		catch(JSONException e) {
+			throw new ServiceException(
+					"There was an error building the chart's JSON.", 
+					e);
+		}
+		catch(IOException e) {
+			throw new ServiceException(
+					"There was an error rendering the chart.", 
+					e);
+		}
+		catch(IllegalArgumentException e) {
+			throw new ServiceException(
+					ErrorCode.VISUALIZATION_GENERAL_ERROR,
+					"The image's width and height must be greater than 0.",
+					e);
+		}
+	}
+}
@@ -159,10 +159,10 @@ public abstract class VisualizationRequest extends UserRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing a visualization request.");
+		LOGGER.debug("Servicing a visualization request.");
 		
 		try {
-			LOGGER.info("Verifying that the campaign exists.");
+			LOGGER.debug("Verifying that the campaign exists.");
 			CampaignServices.instance().checkCampaignExistence(campaignId, true);
 		}
 		catch(ServiceException e) {
@@ -176,7 +176,7 @@ public abstract class VisualizationRequest extends UserRequest {
 	 */
 	@Override
 	public void respond(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-		LOGGER.info("Writing the visualization response.");
+		LOGGER.debug("Writing the visualization response.");
 		
 		// Creates the writer that will write the response, success or fail.
 		Writer writer;
@@ -267,6 +267,33 @@ public abstract class VisualizationRequest extends UserRequest {
 		return height;
 	}
 	
+	/**
+	 * Returns the earliest date of the data to be visualized.
+	 * 
+	 * @return The start date or null if none was given.
+	 */
+	protected final DateTime getStartDate() {
+		return startDate;
+	}
+	
+	/**
+	 * Returns the latest date of the data to be visualized.
+	 * 
+	 * @return The end date or null if none was given.
+	 */
+	protected final DateTime getEndDate() {
+		return endDate;
+	}
+	
+	/**
+	 * Returns the privacy state of the survey responses to be visualized.
+	 * 
+	 * @return The privacy state or null if none was given.
+	 */
+	protected final SurveyResponse.PrivacyState getPrivacyState() {
+		return privacyState;
+	}
+	
 	/**
 	 * Returns a map of the parameters to be passed to the visualization
 	 * server.
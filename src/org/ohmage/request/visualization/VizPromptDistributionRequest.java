@@ -71,7 +71,7 @@ public class VizPromptDistributionRequest extends VisualizationRequest {
 	public VizPromptDistributionRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest);
 		
-		LOGGER.info("Creating a prompt distribution request.");
+		LOGGER.debug("Creating a prompt distribution request.");
 		
 		String tPromptId = null;
 		
@@ -95,7 +95,7 @@ public class VizPromptDistributionRequest extends VisualizationRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the prompt distribution visualization request.");
+		LOGGER.debug("Servicing the prompt distribution visualization request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -108,14 +108,14 @@ public class VizPromptDistributionRequest extends VisualizationRequest {
 		}
 		
 		try {
-			LOGGER.info("Verifying that the prompt ID exists in the campaign's XML");
+			LOGGER.debug("Verifying that the prompt ID exists in the campaign's XML");
 			CampaignServices.instance().ensurePromptExistsInCampaign(getCampaignId(), promptId);
 			
 			Map<String, String> parameters = getVisualizationParameters();
 			parameters.put(VisualizationServices.PARAMETER_KEY_PROMPT_ID, promptId);
 			
-			LOGGER.info("Making the request to the visualization server.");
-			setImage(VisualizationServices.sendVisualizationRequest(REQUEST_PATH, getUser().getToken(), 
+			LOGGER.debug("Making the request to the visualization server.");
+			setImage(VisualizationServices.instance().sendVisualizationRequest(REQUEST_PATH, getUser().getUsername(), getUser().getToken(), 
 					getCampaignId(), getWidth(), getHeight(), parameters));
 		}
 		catch(ServiceException e) {
@@ -73,7 +73,7 @@ private static final Logger LOGGER = Logger.getLogger(VizPromptTimeseriesRequest
 	public VizPromptTimeseriesRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest);
 		
-		LOGGER.info("Creating a prompt timeseries request.");
+		LOGGER.debug("Creating a prompt timeseries request.");
 		
 		String tPromptId = null;
 		Integer tAggregate = null;
@@ -113,7 +113,7 @@ private static final Logger LOGGER = Logger.getLogger(VizPromptTimeseriesRequest
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the prompt timeseries visualization request.");
+		LOGGER.debug("Servicing the prompt timeseries visualization request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -126,7 +126,7 @@ private static final Logger LOGGER = Logger.getLogger(VizPromptTimeseriesRequest
 		}
 		
 		try {
-			LOGGER.info("Verifying that the prompt ID exists in the campaign's XML");
+			LOGGER.debug("Verifying that the prompt ID exists in the campaign's XML");
 			CampaignServices.instance().ensurePromptExistsInCampaign(getCampaignId(), promptId);
 			
 			Map<String, String> parameters = getVisualizationParameters();
@@ -138,8 +138,8 @@ private static final Logger LOGGER = Logger.getLogger(VizPromptTimeseriesRequest
 						aggregate.toString());
 			}
 			
-			LOGGER.info("Making the request to the visualization server.");
-			setImage(VisualizationServices.sendVisualizationRequest(REQUEST_PATH, getUser().getToken(), 
+			LOGGER.debug("Making the request to the visualization server.");
+			setImage(VisualizationServices.instance().sendVisualizationRequest(REQUEST_PATH, getUser().getUsername(), getUser().getToken(), 
 					getCampaignId(), getWidth(), getHeight(), parameters));
 		}
 		catch(ServiceException e) {
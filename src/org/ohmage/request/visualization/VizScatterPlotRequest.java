@@ -77,7 +77,7 @@ public class VizScatterPlotRequest extends VisualizationRequest {
 	public VizScatterPlotRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest);
 		
-		LOGGER.info("Creating a scatter plot request.");
+		LOGGER.debug("Creating a scatter plot request.");
 		
 		String tPromptId = null;
 		String tPrompt2Id = null;
@@ -109,7 +109,7 @@ public class VizScatterPlotRequest extends VisualizationRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the scatter plot visualization request.");
+		LOGGER.debug("Servicing the scatter plot visualization request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -122,18 +122,18 @@ public class VizScatterPlotRequest extends VisualizationRequest {
 		}
 		
 		try {
-			LOGGER.info("Verifying that the first prompt ID exists in the campaign's XML");
+			LOGGER.debug("Verifying that the first prompt ID exists in the campaign's XML");
 			CampaignServices.instance().ensurePromptExistsInCampaign(getCampaignId(), promptId);
 			
-			LOGGER.info("Verifying that the second prompt ID exists in the campaign's XML");
+			LOGGER.debug("Verifying that the second prompt ID exists in the campaign's XML");
 			CampaignServices.instance().ensurePromptExistsInCampaign(getCampaignId(), prompt2Id);
 			
 			Map<String, String> parameters = getVisualizationParameters();
 			parameters.put(VisualizationServices.PARAMETER_KEY_PROMPT_ID, promptId);
 			parameters.put(VisualizationServices.PARAMETER_KEY_PROMPT2_ID, prompt2Id);
 			
-			LOGGER.info("Making the request to the visualization server.");
-			setImage(VisualizationServices.sendVisualizationRequest(REQUEST_PATH, getUser().getToken(), 
+			LOGGER.debug("Making the request to the visualization server.");
+			setImage(VisualizationServices.instance().sendVisualizationRequest(REQUEST_PATH, getUser().getUsername(), getUser().getToken(), 
 					getCampaignId(), getWidth(), getHeight(), parameters));
 		}
 		catch(ServiceException e) {
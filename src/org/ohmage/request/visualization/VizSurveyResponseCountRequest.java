@@ -16,7 +16,6 @@
 package org.ohmage.request.visualization;
 
 import java.io.IOException;
-import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -31,19 +30,18 @@ import org.ohmage.service.VisualizationServices;
 import org.ohmage.validator.VisualizationValidators;
 
 /**
- * <p>A request for the number of survey responses for a campaign. This 
- * specific request requires no additional parameters.<br />
+ * <p>A request for the number of survey responses for a campaign over time,
+ * with one bar per {@value org.ohmage.request.InputKeys#VISUALIZATION_AGGREGATE}
+ * days. This specific request requires no additional parameters.<br />
  * <br />
- * See {@link org.ohmage.request.visualization.VisualizationRequest} for other 
+ * See {@link org.ohmage.request.visualization.ChartVisualizationRequest} for other 
  * required parameters.</p>
  * 
  * @author John Jenkins
  */
-public class VizSurveyResponseCountRequest extends VisualizationRequest {
+public class VizSurveyResponseCountRequest extends ChartVisualizationRequest {
 	private static final Logger LOGGER = Logger.getLogger(VizSurveyResponseCountRequest.class);
 	
-	private static final String REQUEST_PATH = "responseplot/png";
-	
 	private final Integer aggregate;
 	
 	/**
@@ -61,7 +59,7 @@ public class VizSurveyResponseCountRequest extends VisualizationRequest {
 	public VizSurveyResponseCountRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest);
 		
-		LOGGER.info("Creating a survey response count visualization request.");
+		LOGGER.debug("Creating a survey response count visualization request.");
 
 		Integer tAggregate = null;
 		
@@ -92,7 +90,7 @@ public class VizSurveyResponseCountRequest extends VisualizationRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the survey response count visualization request.");
+		LOGGER.debug("Servicing the survey response count visualization request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -105,19 +103,18 @@ public class VizSurveyResponseCountRequest extends VisualizationRequest {
 		}
 		
 		try {
-			LOGGER.info("Verifying the user is able to read survey responses about other users.");
+			LOGGER.debug("Verifying the user is able to read survey responses about other users.");
 			UserCampaignServices.instance().requesterCanViewUsersSurveyResponses(getCampaignId(), getUser().getUsername());
 
-			Map<String, String> parameters = getVisualizationParameters();
-			if(aggregate != null) {
-				parameters.put(
-						VisualizationServices.PARAMETER_KEY_AGGREGATE, 
-						aggregate.toString());
-			}
-			
-			LOGGER.info("Making the request to the visualization server.");
-			setImage(VisualizationServices.sendVisualizationRequest(REQUEST_PATH, getUser().getToken(), 
-					getCampaignId(), getWidth(), getHeight(), parameters));
+			LOGGER.debug("Counting the survey responses.");
+			setChart(
+				VisualizationServices.instance().getSurveyResponseCountChart(
+					getCampaignId(), 
+					getUser().getUsername(), 
+					getStartDate(), 
+					getEndDate(), 
+					getPrivacyState(), 
+					aggregate));
 		}
 		catch(ServiceException e) {
 			e.failRequest(this);
@@ -16,7 +16,6 @@
 package org.ohmage.request.visualization;
 
 import java.io.IOException;
-import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -31,21 +30,18 @@ import org.ohmage.service.VisualizationServices;
 import org.ohmage.validator.VisualizationValidators;
 
 /**
- * <p>A request for the number of private survey responses for a campaign. This 
- * specific request requires no additional parameters.<br />
+ * <p>A request for the number of survey responses from each user in a
+ * campaign, split by privacy state. This specific request requires no 
+ * additional parameters.<br />
  * <br />
- * See {@link org.ohmage.request.visualization.VisualizationRequest} for other 
+ * See {@link org.ohmage.request.visualization.ChartVisualizationRequest} for other 
  * required parameters.</p>
  * 
  * @author John Jenkins
  */
-public class VizSurveyResponsePrivacyStateRequest extends VisualizationRequest {
+public class VizSurveyResponsePrivacyStateRequest extends ChartVisualizationRequest {
 	private static final Logger LOGGER = Logger.getLogger(VizSurveyResponsePrivacyStateRequest.class);
 	
-	private static final String REQUEST_PATH = "sharedplot/png";
-	
-	private final Integer aggregate;
-	
 	/**
 	 * Creates a survey response privacy state visualization request.
 	 * 
@@ -60,10 +56,10 @@ public class VizSurveyResponsePrivacyStateRequest extends VisualizationRequest {
 	public VizSurveyResponsePrivacyStateRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest);
 		
-		LOGGER.info("Creating a survey response privacy state visualization request.");
+		LOGGER.debug("Creating a survey response privacy state visualization request.");
 
-		Integer tAggregate = null;
-		
+		// The aggregate is still validated so that existing clients get the
+		// same errors, but the chart is a total per user so it is not used.
 		try {
 			String[] t;
 			
@@ -75,15 +71,13 @@ public class VizSurveyResponsePrivacyStateRequest extends VisualizationRequest {
 								InputKeys.VISUALIZATION_AGGREGATE);
 			}
 			else if(t.length == 1) {
-				tAggregate = VisualizationValidators.validateAggregate(t[0]);
+				VisualizationValidators.validateAggregate(t[0]);
 			}
 		}
 		catch(ValidationException e) {
 			e.failRequest(this);
 			e.logException(LOGGER);
 		}
-		
-		aggregate = tAggregate;
 	}
 
 	/**
@@ -91,7 +85,7 @@ public class VizSurveyResponsePrivacyStateRequest extends VisualizationRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the survey response privacy state visualization request.");
+		LOGGER.debug("Servicing the survey response privacy state visualization request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -104,21 +98,16 @@ public class VizSurveyResponsePrivacyStateRequest extends VisualizationRequest {
 		}
 		
 		try {
-			LOGGER.info("Verifying the user is able to read survey responses about other users.");
+			LOGGER.debug("Verifying the user is able to read survey responses about other users.");
 			UserCampaignServices.instance().requesterCanViewUsersSurveyResponses(getCampaignId(), getUser().getUsername());
 			
-			Map<String, String> parameters = getVisualizationParameters();
-			parameters.remove(VisualizationServices.PARAMETER_KEY_PRIVACY_STATE);
-			
-			if(aggregate != null) {
-				parameters.put(
-						VisualizationServices.PARAMETER_KEY_AGGREGATE, 
-						aggregate.toString());
-			}
-			
-			LOGGER.info("Making the request to the visualization server.");
-			setImage(VisualizationServices.sendVisualizationRequest(REQUEST_PATH, getUser().getToken(), 
-					getCampaignId(), getWidth(), getHeight(), parameters));
+			LOGGER.debug("Counting the survey responses.");
+			setChart(
+				VisualizationServices.instance().getSurveyResponsePrivacyStateChart(
+					getCampaignId(), 
+					getUser().getUsername(), 
+					getStartDate(), 
+					getEndDate()));
 		}
 		catch(ServiceException e) {
 			e.failRequest(this);
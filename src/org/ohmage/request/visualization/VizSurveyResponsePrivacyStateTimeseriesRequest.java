@@ -16,7 +16,6 @@
 package org.ohmage.request.visualization;
 
 import java.io.IOException;
-import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -27,19 +26,18 @@ import org.ohmage.service.UserCampaignServices;
 import org.ohmage.service.VisualizationServices;
 
 /**
- * <p>A request for the timeseries of private survey responses for a campaign. 
- * This specific request requires no additional parameters.<br />
+ * <p>A request for the number of survey responses per day for a campaign,
+ * split by privacy state. This specific request requires no additional 
+ * parameters.<br />
  * <br />
- * See {@link org.ohmage.request.visualization.VisualizationRequest} for other 
+ * See {@link org.ohmage.request.visualization.ChartVisualizationRequest} for other 
  * required parameters.</p>
  * 
  * @author John Jenkins
  */
-public class VizSurveyResponsePrivacyStateTimeseriesRequest extends VisualizationRequest {
+public class VizSurveyResponsePrivacyStateTimeseriesRequest extends ChartVisualizationRequest {
 	private static final Logger LOGGER = Logger.getLogger(VizSurveyResponsePrivacyStateTimeseriesRequest.class);
 	
-	private static final String REQUEST_PATH = "sharedtimeplot/png";
-	
 	/**
 	 * Creates a survey response privacy state timeseries request.
 	 * 
@@ -54,7 +52,7 @@ public class VizSurveyResponsePrivacyStateTimeseriesRequest extends Visualizatio
 	public VizSurveyResponsePrivacyStateTimeseriesRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest);
 		
-		LOGGER.info("Creating a survey response privacy state timeseries visualization request.");
+		LOGGER.debug("Creating a survey response privacy state timeseries visualization request.");
 	}
 
 	/**
@@ -62,7 +60,7 @@ public class VizSurveyResponsePrivacyStateTimeseriesRequest extends Visualizatio
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the survey response privacy state timeseries visualization request.");
+		LOGGER.debug("Servicing the survey response privacy state timeseries visualization request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -75,15 +73,16 @@ public class VizSurveyResponsePrivacyStateTimeseriesRequest extends Visualizatio
 		}
 		
 		try {
-			LOGGER.info("Verifying the user is able to read survey responses about other users.");
+			LOGGER.debug("Verifying the user is able to read survey responses about other users.");
 			UserCampaignServices.instance().requesterCanViewUsersSurveyResponses(getCampaignId(), getUser().getUsername());
 			
-			Map<String, String> parameters = getVisualizationParameters();
-			parameters.remove(VisualizationServices.PARAMETER_KEY_PRIVACY_STATE);
-			
-			LOGGER.info("Making the request to the visualization server.");
-			setImage(VisualizationServices.sendVisualizationRequest(REQUEST_PATH, getUser().getToken(), 
-					getCampaignId(), getWidth(), getHeight(), parameters));
+			LOGGER.debug("Counting the survey responses.");
+			setChart(
+				VisualizationServices.instance().getSurveyResponsePrivacyStateTimeseriesChart(
+					getCampaignId(), 
+					getUser().getUsername(), 
+					getStartDate(), 
+					getEndDate()));
 		}
 		catch(ServiceException e) {
 			e.failRequest(this);
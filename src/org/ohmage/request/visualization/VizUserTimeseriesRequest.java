@@ -54,7 +54,7 @@ public class VizUserTimeseriesRequest extends VisualizationRequest {
 	public VizUserTimeseriesRequest(HttpServletRequest httpRequest) throws IOException, InvalidRequestException {
 		super(httpRequest);
 		
-		LOGGER.info("Creating a user timeseries request.");
+		LOGGER.debug("Creating a user timeseries request.");
 		
 		String tPromptId = null;
 		String tUsername = null;
@@ -86,7 +86,7 @@ public class VizUserTimeseriesRequest extends VisualizationRequest {
 	 */
 	@Override
 	public void service() {
-		LOGGER.info("Servicing the user timeseries visualization request.");
+		LOGGER.debug("Servicing the user timeseries visualization request.");
 		
 		if(! authenticate(AllowNewAccount.NEW_ACCOUNT_DISALLOWED)) {
 			return;
@@ -99,21 +99,21 @@ public class VizUserTimeseriesRequest extends VisualizationRequest {
 		}
 		
 		try {
-			LOGGER.info("Verifying that the prompt ID exists in the campaign's XML");
+			LOGGER.debug("Verifying that the prompt ID exists in the campaign's XML");
 			CampaignServices.instance().ensurePromptExistsInCampaign(getCampaignId(), promptId);
 			
-			LOGGER.info("Verifying that the user exists.");
+			LOGGER.debug("Verifying that the user exists.");
 			UserServices.instance().checkUserExistance(username, true);
 			
-			LOGGER.info("Verifying that the requester has permissions to view another user's data.");
+			LOGGER.debug("Verifying that the requester has permissions to view another user's data.");
 			UserCampaignServices.instance().requesterCanViewUsersSurveyResponses(getCampaignId(), getUser().getUsername(), username);
 			
 			Map<String, String> parameters = getVisualizationParameters();
 			parameters.put(VisualizationServices.PARAMETER_KEY_PROMPT_ID, promptId);
 			parameters.put(VisualizationServices.PARAMETER_KEY_USERNAME, username);
 			
-			LOGGER.info("Making the request to the visualization server.");
-			setImage(VisualizationServices.sendVisualizationRequest(REQUEST_PATH, getUser().getToken(), 
+			LOGGER.debug("Making the request to the visualization server.");
+			setImage(VisualizationServices.instance().sendVisualizationRequest(REQUEST_PATH, getUser().getUsername(), getUser().getToken(), 
 					getCampaignId(), getWidth(), getHeight(), parameters));
 		}
 		catch(ServiceException e) {
@@ -367,8 +367,8 @@ public final class AccessRequestServices {
 						e);
 			}
 			
-			// send message
-			MailUtils.sendMailMessage(smtpSession, message);
+			// queue the message to be sent
+			MailOutboxServices.instance().queueMessage(message);
 			
 		} catch (ServiceException e) {
 			LOGGER.warn("Unable to send notification to " + recipient, e);		
@@ -414,11 +414,11 @@ public final class AccessRequestServices {
 
 			// verify that the requester is the owner or an admin 
 			try {
-				LOGGER.info("Checking that the user is an admin to update the request.");
+				LOGGER.debug("Checking that the user is an admin to update the request.");
 				isAdmin = UserServices.instance().isUserAnAdmin(requester);
 				if (isAdmin == false) {
 					try {
-						LOGGER.info("Checking that the user has privilege to update the request.");
+						LOGGER.debug("Checking that the user has privilege to update the request.");
 						verifyUserCanAccessRequest(requestId, requester);
 					} catch (ServiceException e) {
 						throw new ServiceException(ErrorCode.USER_ACCESS_REQUEST_EXECUTION_ERROR,
@@ -16,17 +16,34 @@
 package org.ohmage.service;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.joda.time.DateTime;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.annotator.Annotator;
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuditRollupCache;
 import org.ohmage.domain.Audit;
+import org.ohmage.domain.AuditRollup;
+import org.ohmage.domain.AuditRollup.EntityReadCount;
+import org.ohmage.domain.AuditRollup.EntityType;
+import org.ohmage.domain.QueryStatistics;
+import org.ohmage.domain.QueryStatistics.SlowQuery;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.jee.servlet.RequestServlet;
 import org.ohmage.jee.servlet.RequestServlet.RequestType;
 import org.ohmage.query.IAuditQueries;
+import org.ohmage.query.impl.QueryInstrumentation;
+import org.ohmage.request.InputKeys;
+import org.ohmage.request.Request;
+import org.ohmage.request.RequestBuilder;
 import org.ohmage.validator.AuditValidators.ResponseType;
 
 /**
@@ -70,8 +87,9 @@ public class AuditServices {
 	}
 	
 	/**
-	 * Creates an audit entry with the parameterized information. Not all 
-	 * information is required; see the specific parameters for details.
+	 * Creates an audit entry with the parameterized information and adds it
+	 * to the in-memory rollup for its minute. Not all information is 
+	 * required; see the specific parameters for details.
 	 * 
 	 * @param requestType The RequestType of the request. Required.
 	 * 
@@ -122,6 +140,14 @@ public class AuditServices {
 		final long respondTimestamp)
 		throws ServiceException {
 		
+		rollupAudit(
+			uri, 
+			client, 
+			response, 
+			extras, 
+			receivedTimestamp, 
+			respondTimestamp);
+		
 		try {
 			auditQueries
 				.createAudit(
@@ -263,4 +289,212 @@ public class AuditServices {
 			throw new ServiceException(e);
 		}
 	}
+	
+	/**
+	 * Adds the counts from the given rollups to the persisted rollups.
+	 * 
+	 * @param rollups The per-minute request rollups.
+	 * 
+	 * @param entityReads The per-minute campaign and class read counts.
+	 * 
+	 * @throws ServiceException Thrown if there is an error.
+	 */
+	public void createAuditRollups(
+			final Collection<AuditRollup> rollups,
+			final Collection<EntityReadCount> entityReads)
+			throws ServiceException {
+		
+		try {
+			auditQueries.createAuditRollups(rollups, entityReads);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
+	/**
+	 * Retrieves the rollups for all minutes on or after the start date and 
+	 * before the end date. The minutes that have not yet been persisted are
+	 * not included.
+	 * 
+	 * @param startDate The earliest minute to include. Required.
+	 * 
+	 * @param endDate The minute at which to stop. Required.
+	 * 
+	 * @param uri Limits the results to only those with this URI. Not 
+	 * 			  required.
+	 * 
+	 * @param client Limits the results to only those with this client value.
+	 * 				 Not required.
+	 * 
+	 * @param aggregate Whether to combine the minutes into a single rollup 
+	 * 					per URI, client, and response code.
+	 * 
+	 * @return The list of rollups.
+	 * 
+	 * @throws ServiceException Thrown if there is an error.
+	 */
+	public List<AuditRollup> getAuditRollups(
+			final DateTime startDate,
+			final DateTime endDate,
+			final String uri,
+			final String client,
+			final boolean aggregate)
+			throws ServiceException {
+		
+		try {
+			return 
+				auditQueries
+					.readAuditRollups(
+						startDate, 
+						endDate, 
+						uri, 
+						client, 
+						aggregate);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
+	/**
+	 * Retrieves the total number of successful reads for each campaign and 
+	 * class on or after the start date and before the end date.
+	 * 
+	 * @param startDate The earliest minute to include. Required.
+	 * 
+	 * @param endDate The minute at which to stop. Required.
+	 * 
+	 * @return One read count per campaign or class.
+	 * 
+	 * @throws ServiceException Thrown if there is an error.
+	 */
+	public List<EntityReadCount> getAuditEntityReads(
+			final DateTime startDate,
+			final DateTime endDate)
+			throws ServiceException {
+		
+		try {
+			return auditQueries.readAuditEntityReads(startDate, endDate);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
+	/**
+	 * Retrieves the statistics for every SQL statement that has been executed
+	 * since the server started, with the statements that have taken the most
+	 * total time first.
+	 * 
+	 * @return The statistics for each statement fingerprint. This will be 
+	 * 		   empty if the statements are not being instrumented.
+	 */
+	public List<QueryStatistics> getQueryStatistics() {
+		QueryInstrumentation instrumentation = QueryInstrumentation.instance();
+		if(instrumentation == null) {
+			return Collections.emptyList();
+		}
+		return instrumentation.getStatistics();
+	}
+	
+	/**
+	 * Retrieves the sampled slow queries, newest first.
+	 * 
+	 * @return The slow queries. This will be empty if the statements are not
+	 * 		   being instrumented.
+	 */
+	public List<SlowQuery> getSlowQueries() {
+		QueryInstrumentation instrumentation = QueryInstrumentation.instance();
+		if(instrumentation == null) {
+			return Collections.emptyList();
+		}
+		return instrumentation.getSlowQueries();
+	}
+	
+	/**
+	 * Records an audit in its minute's rollup including, for successful 
+	 * campaign and class reads, which campaigns or classes were read.
+	 */
+	private void rollupAudit(
+			final String uri,
+			final String client,
+			final String response,
+			final Map<String, String[]> extras,
+			final long receivedTimestamp,
+			final long respondTimestamp) {
+		
+		if((uri == null) || (response == null)) {
+			return;
+		}
+		
+		String responseCode = getResponseCode(response);
+		
+		EntityType entityType = null;
+		Collection<String> entityIds = null;
+		RequestBuilder requestBuilder = RequestBuilder.getInstance();
+		if(AuditRollup.RESPONSE_CODE_SUCCESS.equals(responseCode) &&
+			(requestBuilder != null) &&
+			(extras != null)) {
+			
+			String[] ids = null;
+			if(requestBuilder.getApiClassRead().equals(uri) ||
+				requestBuilder.getApiClassRosterRead().equals(uri)) {
+				
+				entityType = EntityType.CLASS;
+				ids = extras.get(InputKeys.CLASS_URN);
+			}
+			else if(requestBuilder.getApiCampaignRead().equals(uri)) {
+				entityType = EntityType.CAMPAIGN;
+				ids = extras.get(InputKeys.CAMPAIGN_URN);
+			}
+			
+			if(ids != null) {
+				entityIds = Arrays.asList(ids);
+			}
+		}
+		
+		AuditRollupCache
+			.record(
+				uri, 
+				client, 
+				responseCode, 
+				receivedTimestamp, 
+				respondTimestamp, 
+				entityType, 
+				entityIds);
+	}
+	
+	/**
+	 * Decodes the response code from an audit's response, which is either
+	 * {@link AuditRollup#RESPONSE_CODE_SUCCESS}, the error code, or
+	 * {@link AuditRollup#RESPONSE_CODE_UNKNOWN}.
+	 */
+	private static String getResponseCode(final String response) {
+		if(Request.RESPONSE_SUCCESS_JSON_TEXT.equals(response)) {
+			return AuditRollup.RESPONSE_CODE_SUCCESS;
+		}
+		
+		try {
+			JSONObject responseJson = new JSONObject(response);
+			String result = responseJson.getString(Request.JSON_KEY_RESULT);
+			if(Request.RESULT_SUCCESS.equals(result)) {
+				return AuditRollup.RESPONSE_CODE_SUCCESS;
+			}
+			
+			JSONArray errors = 
+				responseJson.optJSONArray(Request.JSON_KEY_ERRORS);
+			if((errors != null) && (errors.length() > 0)) {
+				JSONObject error = errors.optJSONObject(0);
+				if((error != null) && error.has(Annotator.JSON_KEY_CODE)) {
+					return error.getString(Annotator.JSON_KEY_CODE);
+				}
+			}
+		}
+		catch(JSONException e) {
+			// Fall through to the unknown response code.
+		}
+		
+		return AuditRollup.RESPONSE_CODE_UNKNOWN;
+	}
 }
@@ -22,6 +22,7 @@ import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.query.IAuthenticationQuery;
 import org.ohmage.query.impl.AuthenticationQuery.UserInformation;
+import org.ohmage.query.impl.ReadReplicaRouter;
 import org.ohmage.request.UserRequest;
 
 /**
@@ -85,6 +86,7 @@ public final class AuthenticationService {
 		// If the user is already logged in, then they are already 
 		// authenticated.
 		if(request.getUser().isLoggedIn()) {
+			ReadReplicaRouter.setRequester(request.getUser().getUsername());
 			return true;
 		}
 		
@@ -158,6 +160,7 @@ public final class AuthenticationService {
 		// Otherwise, the user is valid and should be logged in.
 		else {
 			request.getUser().isLoggedIn(true);
+			ReadReplicaRouter.setRequester(request.getUser().getUsername());
 			return true;
 		}
 	}
@@ -25,6 +25,18 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Stack;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import nu.xom.Builder;
 import nu.xom.Document;
@@ -34,9 +46,11 @@ import nu.xom.ParsingException;
 import nu.xom.ValidityException;
 
 import org.apache.log4j.Logger;
+import org.apache.log4j.NDC;
 import org.joda.time.DateTime;
 import org.json.JSONObject;
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.domain.campaign.SurveyResponse;
 import org.ohmage.exception.DataAccessException;
@@ -48,6 +62,7 @@ import org.ohmage.query.IImageQueries;
 import org.ohmage.query.IUserCampaignQueries;
 import org.ohmage.query.impl.QueryResultsList;
 import org.ohmage.request.campaign.CampaignSearchRequest;
+import org.springframework.beans.factory.DisposableBean;
 
 /**
  * This class contains the services that pertain to campaigns.
@@ -55,10 +70,23 @@ import org.ohmage.request.campaign.CampaignSearchRequest;
  * @author John Jenkins
  * @author Joshua Selsky
  */
-public class CampaignServices {
+public class CampaignServices implements DisposableBean {
 	private static final Logger LOGGER = Logger.getLogger(CampaignServices.class);
 
+	// The number of threads used to validate uploaded survey responses. This
+	// is shared by all uploads, so large uploads cannot starve the server.
+	private static final int SURVEY_VALIDATION_THREADS = 
+		Runtime.getRuntime().availableProcessors();
+	
+	// The number of survey responses that may wait for a validation thread.
+	// Once it is full, an upload validates its next survey response on its
+	// own thread, so a large upload slows itself down instead of making 
+	// every other upload wait behind it.
+	private static final int SURVEY_VALIDATION_QUEUE_SIZE = 
+		SURVEY_VALIDATION_THREADS * 4;
+
 	private static CampaignServices instance;
+	private final ExecutorService surveyValidationExecutor;
 	private ICampaignQueries campaignQueries;
 	private ICampaignImageQueries campaignImageQueries;
 	private IImageQueries imageQueries;
@@ -93,9 +121,54 @@ public class CampaignServices {
 		campaignImageQueries = iCampaignImageQueries;
 		imageQueries = iImageQueries;
 		
+		surveyValidationExecutor =
+			new ThreadPoolExecutor(
+				SURVEY_VALIDATION_THREADS,
+				SURVEY_VALIDATION_THREADS,
+				0L,
+				TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(SURVEY_VALIDATION_QUEUE_SIZE),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+					
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						Thread result = 
+							new Thread(
+								runnable, 
+								"Survey Validation-" + count.incrementAndGet());
+						result.setDaemon(true);
+						return result;
+					}
+				},
+				new RejectedExecutionHandler() {
+					@Override
+					public void rejectedExecution(
+							final Runnable runnable,
+							final ThreadPoolExecutor executor) {
+						
+						// Unlike CallerRunsPolicy, don't silently drop the
+						// task once the pool has been shut down, as the 
+						// upload would then wait for it forever.
+						if(executor.isShutdown()) {
+							throw new RejectedExecutionException(
+								"The survey validation pool has been shut down.");
+						}
+						runnable.run();
+					}
+				});
+		
 		instance = this;
 	}
 	
+	/**
+	 * Stops the survey response validation threads.
+	 */
+	@Override
+	public void destroy() {
+		surveyValidationExecutor.shutdownNow();
+	}
+	
 	/**
 	 * @return  Returns the singleton instance of this class.
 	 */
@@ -321,7 +394,7 @@ public class CampaignServices {
 		
 		try {
 			if(! Campaign.RunningState.RUNNING.equals(
-					campaignQueries.getCampaignRunningState(campaignId))) {
+					AuthorizationCache.instance().getCampaignRunningState(campaignId))) {
 				throw new ServiceException(
 						ErrorCode.CAMPAIGN_INVALID_RUNNING_STATE, 
 						"The campaign is not running.");
@@ -538,7 +611,9 @@ public class CampaignServices {
 
 	/**
 	 * Verifies that the survey responses as JSONObjects are valid survey
-	 * responses for the given campaign.
+	 * responses for the given campaign. The survey responses are validated in
+	 * parallel, but if more than one is invalid the error is that of the 
+	 * first invalid one in the collection.
 	 * 
 	 * @param username The username of the user that generated these survey
 	 * 				   responses.
@@ -566,8 +641,88 @@ public class CampaignServices {
 		try {
 			List<SurveyResponse> result = new ArrayList<SurveyResponse>(jsonSurveyResponses.size());
 			
-			for(JSONObject jsonResponse : jsonSurveyResponses) {
-				result.add(new SurveyResponse(username, campaign.getId(), client, campaign, jsonResponse, allowPartialSurvey));
+			// A single survey response isn't worth handing off to another 
+			// thread.
+			if(jsonSurveyResponses.size() < 2) {
+				for(JSONObject jsonResponse : jsonSurveyResponses) {
+					result.add(new SurveyResponse(username, campaign.getId(), client, campaign, jsonResponse, allowPartialSurvey));
+				}
+				
+				return result;
+			}
+			
+			// Each survey response is validated independently, so they are
+			// validated in parallel. The futures are read in order so that, 
+			// if more than one is invalid, the error is the same one that 
+			// validating them in order would have reported. When the pool's
+			// queue is full, the survey response is validated on this thread
+			// instead, which must keep its own NDC.
+			final Thread requestThread = Thread.currentThread();
+			final Stack<?> ndc = NDC.cloneStack();
+			List<Future<SurveyResponse>> futures = 
+				new ArrayList<Future<SurveyResponse>>(jsonSurveyResponses.size());
+			try {
+				for(final JSONObject jsonResponse : jsonSurveyResponses) {
+					futures.add(
+						surveyValidationExecutor.submit(
+							new Callable<SurveyResponse>() {
+								@Override
+								public SurveyResponse call() throws DomainException {
+									boolean worker = 
+										(Thread.currentThread() != requestThread);
+									if(worker) {
+										NDC.inherit(ndc);
+									}
+									try {
+										return new SurveyResponse(username, campaign.getId(), client, campaign, jsonResponse, allowPartialSurvey);
+									}
+									finally {
+										if(worker) {
+											NDC.remove();
+										}
+									}
+								}
+							}));
+				}
+				
+				for(Future<SurveyResponse> future : futures) {
+					try {
+						result.add(future.get());
+					}
+					catch(ExecutionException e) {
+						Throwable cause = e.getCause();
+						if(cause instanceof DomainException) {
+							throw (DomainException) cause;
+						}
+						else if(cause instanceof RuntimeException) {
+							throw (RuntimeException) cause;
+						}
+						else if(cause instanceof Error) {
+							throw (Error) cause;
+						}
+						
+						throw new ServiceException(
+							"The survey response could not be validated.",
+							cause);
+					}
+					catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new ServiceException(
+							"Interrupted while validating the survey responses.",
+							e);
+					}
+				}
+			}
+			catch(RejectedExecutionException e) {
+				throw new ServiceException(
+					"The survey responses could not be validated.",
+					e);
+			}
+			finally {
+				// Once one has failed there is no reason to finish the rest.
+				for(Future<SurveyResponse> future : futures) {
+					future.cancel(false);
+				}
 			}
 			
 			return result;
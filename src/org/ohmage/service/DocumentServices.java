@@ -329,4 +329,21 @@ public class DocumentServices {
 			throw new ServiceException(e);
 		}
 	}
+	
+	/**
+	 * Moves every document into the sharded directory derived from its UUID
+	 * and updates its URL.
+	 * 
+	 * @return The number of documents that were moved.
+	 * 
+	 * @throws ServiceException Thrown if there is an error.
+	 */
+	public long migrateDocumentStorage() throws ServiceException {
+		try {
+			return documentQueries.migrateDocumentStorage();
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
 }
@@ -15,9 +15,18 @@
  ******************************************************************************/
 package org.ohmage.service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.domain.Image;
@@ -25,6 +34,7 @@ import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.query.IImageQueries;
+import org.springframework.beans.factory.DisposableBean;
 
 /**
  * This class is responsible for all operations pertaining only to images. The
@@ -34,8 +44,15 @@ import org.ohmage.query.IImageQueries;
  * 
  * @author John Jenkins
  */
-public final class ImageServices {
+public final class ImageServices implements DisposableBean {
+	// The number of threads used to read images for exports. This is shared
+	// by all exports, so a large export cannot starve the server.
+	private static final int IMAGE_READ_THREADS = 4;
+	
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+	
 	private static ImageServices instance;
+	private final ExecutorService imageReadExecutor;
 	private IImageQueries imageQueries;
 	
 	/**
@@ -57,9 +74,35 @@ public final class ImageServices {
 		}
 		
 		imageQueries = iImageQueries;
+		
+		imageReadExecutor =
+			Executors.newFixedThreadPool(
+				IMAGE_READ_THREADS,
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+					
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						Thread result = 
+							new Thread(
+								runnable, 
+								"Image Read-" + count.incrementAndGet());
+						result.setDaemon(true);
+						return result;
+					}
+				});
+		
 		instance = this;
 	}
 	
+	/**
+	 * Stops the image reading threads.
+	 */
+	@Override
+	public void destroy() {
+		imageReadExecutor.shutdownNow();
+	}
+	
 	/**
 	 * @return  Returns the singleton instance of this class.
 	 */
@@ -149,6 +192,40 @@ public final class ImageServices {
 		}
 	}
 	
+	/**
+	 * Starts reading the entire contents of an image on one of the shared
+	 * image reading threads. This allows many images to be read at once, 
+	 * e.g. while the previous ones are being written to a ZIP file.
+	 * 
+	 * @param imageUrl The URL of the image.
+	 * 
+	 * @return The pending contents of the image. If the image cannot be read,
+	 * 		   getting the result throws an exception whose cause is an 
+	 * 		   IOException.
+	 */
+	public Future<byte[]> readImageContents(final URL imageUrl) {
+		return imageReadExecutor.submit(
+			new Callable<byte[]>() {
+				@Override
+				public byte[] call() throws IOException {
+					InputStream imageStream = imageUrl.openStream();
+					try {
+						ByteArrayOutputStream result = 
+							new ByteArrayOutputStream(READ_BUFFER_SIZE);
+						byte[] buffer = new byte[READ_BUFFER_SIZE];
+						int lengthRead;
+						while((lengthRead = imageStream.read(buffer)) != -1) {
+							result.write(buffer, 0, lengthRead);
+						}
+						return result.toByteArray();
+					}
+					finally {
+						imageStream.close();
+					}
+				}
+			});
+	}
+	
 	/**
 	 * Retrieves the URL of an image.
 	 * 
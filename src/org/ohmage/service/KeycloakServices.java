@@ -155,7 +155,7 @@ public final class KeycloakServices {
 
 			// updates only if something is changed. 
 			if (updateEmail || updatePersonalInfo || deletePersonalInfo) {
-				LOGGER.info("Updating user info for keycloak user: " +
+				LOGGER.debug("Updating user info for keycloak user: " +
 						user.getUsername());
 				UserServices.instance().updateUser(
 						user.getUsername(), 
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetAddress;
+
+import org.ohmage.domain.MailOutboxMessage;
+import org.ohmage.exception.DataAccessException;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.query.IMailOutboxQueries;
+
+/**
+ * This class is responsible for the mail that is waiting to be delivered.
+ * Messages are added to the outbox and delivered by
+ * {@link org.ohmage.cache.MailOutboxSender}, so requests never wait on the
+ * mail server.
+ */
+public class MailOutboxServices {
+	/**
+	 * The longest recipient list that will be recorded with a message.
+	 */
+	private static final int MAX_RECIPIENT_LENGTH = 320;
+	
+	private static MailOutboxServices instance;
+	private IMailOutboxQueries mailOutboxQueries;
+	
+	/**
+	 * Default constructor. Privately instantiated via dependency injection
+	 * (reflection).
+	 * 
+	 * @throws IllegalStateException if an instance of this class already
+	 * exists
+	 * 
+	 * @throws IllegalArgumentException if iMailOutboxQueries is null
+	 */
+	private MailOutboxServices(IMailOutboxQueries iMailOutboxQueries) {
+		if(instance != null) {
+			throw new IllegalStateException("An instance of this class already exists.");
+		}
+		
+		if(iMailOutboxQueries == null) {
+			throw new IllegalArgumentException("An instance of IMailOutboxQueries is required.");
+		}
+		
+		mailOutboxQueries = iMailOutboxQueries;
+		instance = this;
+	}
+	
+	/**
+	 * @return  Returns the singleton instance of this class.
+	 */
+	public static MailOutboxServices instance() {
+		return instance;
+	}
+	
+	/**
+	 * Adds a message to the outbox to be delivered as soon as possible. The
+	 * message must already have its sender, recipients, subject and content.
+	 * 
+	 * @param message The message to send.
+	 * 
+	 * @throws ServiceException The message could not be saved or there was
+	 * 							an error adding it to the outbox.
+	 */
+	public void queueMessage(final Message message) throws ServiceException {
+		String recipient;
+		ByteArrayOutputStream messageBytes = new ByteArrayOutputStream();
+		try {
+			message.saveChanges();
+			
+			recipient = InternetAddress.toString(message.getAllRecipients());
+			message.writeTo(messageBytes);
+		}
+		catch(MessagingException e) {
+			throw new ServiceException(
+					"Could not save the changes to the message.",
+					e);
+		}
+		catch(IOException e) {
+			throw new ServiceException(
+					"Could not write the message.",
+					e);
+		}
+		
+		if(recipient == null) {
+			throw new ServiceException("The message has no recipients.");
+		}
+		else if(recipient.length() > MAX_RECIPIENT_LENGTH) {
+			recipient = recipient.substring(0, MAX_RECIPIENT_LENGTH);
+		}
+		
+		try {
+			mailOutboxQueries.createMessage(
+				recipient,
+				messageBytes.toByteArray(),
+				System.currentTimeMillis());
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
+	/**
+	 * Returns how many messages are waiting to be delivered and how many
+	 * have failed.
+	 * 
+	 * @return The summary of the outbox.
+	 * 
+	 * @throws ServiceException There was an error.
+	 */
+	public MailOutboxMessage.Summary getSummary() throws ServiceException {
+		try {
+			return mailOutboxQueries.getSummary();
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+}
@@ -129,6 +129,23 @@ public final class MediaServices {
 		}
 	}
 	
+	/**
+	 * Moves every media file into the sharded directory derived from its
+	 * UUID and updates its URL.
+	 * 
+	 * @return The number of media files that were moved.
+	 * 
+	 * @throws ServiceException Thrown if there is an error.
+	 */
+	public long migrateMediaStorage() throws ServiceException {
+		try {
+			return mediaQueries.migrateMediaStorage();
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
 	
 	public IMedia getMediaHelper(final UUID id, final Class<? extends IMedia> mediaType) throws ServiceException {
 		try {
@@ -23,6 +23,7 @@ import java.util.UUID;
 
 import org.joda.time.DateTime;
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.MobilityAggregatePoint;
 import org.ohmage.domain.MobilityPoint;
 import org.ohmage.domain.MobilityPoint.LocationStatus;
@@ -32,7 +33,6 @@ import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.query.IUserMobilityQueries;
-import org.ohmage.query.IUserQueries;
 
 import edu.ucla.cens.mobilityclassifier.Classification;
 import edu.ucla.cens.mobilityclassifier.MobilityClassifier;
@@ -53,7 +53,6 @@ public final class MobilityServices {
 			1000 * 60 * 10;
 	
 	private static MobilityServices instance;
-	private IUserQueries userQueries;
 	private IUserMobilityQueries userMobilityQueries;
 	
 	/**
@@ -66,22 +65,16 @@ public final class MobilityServices {
 	 * @throws IllegalArgumentException if iUserMobilityQueries is null
 	 */
 	private MobilityServices(
-			final IUserQueries iUserQueries,
 			final IUserMobilityQueries iUserMobilityQueries) {
 		
 		if(instance != null) {
 			throw new IllegalStateException("An instance of this class already exists.");
 		}
 		
-		if(iUserQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserQueries is required.");
-		}
-		
 		if(iUserMobilityQueries == null) {
 			throw new IllegalArgumentException("An instance of IUserMobilityQueries is required.");
 		}
 		
-		userQueries = iUserQueries;
 		userMobilityQueries = iUserMobilityQueries;
 		instance = this;
 	}
@@ -349,6 +342,65 @@ public final class MobilityServices {
 		}
 	}
 	
+	/**
+	 * Reads the same Mobility points as 
+	 * {@link #retrieveMobilityData(String, DateTime, DateTime, MobilityPoint.PrivacyState, LocationStatus, Mode)}
+	 * but passes them to a handler one at a time as they are read, so the 
+	 * memory required does not depend on the number of points.
+	 * 
+	 * @param username The username of the user whose points are being 
+	 * 				   queried. Required.
+	 * 
+	 * @param startDate A date to which all returned points must be on or 
+	 * 					after. Optional.
+	 * 
+	 * @param endDate A date to which all returned points must be on or before.
+	 * 				  Optional.
+	 * 
+	 * @param privacyState A privacy state to limit the results to only those
+	 * 					   with this privacy state. Optional.
+	 * 
+	 * @param locationStatus A location status to limit the results to only 
+	 * 						 those with this location status. Optional.
+	 * 
+	 * @param mode A mode to limit the results to only those with this mode.
+	 * 			   Optional.
+	 * 
+	 * @param withSensorData Whether or not the points need their sensor data
+	 * 						 and classifier data. See
+	 * 						 {@link MobilityPoint.MobilityColumnKey#requiresSensorData(java.util.Collection)}.
+	 * 
+	 * @param handler The handler that receives the points in chronological
+	 * 				  order.
+	 * 
+	 * @throws ServiceException There was an error reading the points or the
+	 * 							handler failed.
+	 */
+	public void processMobilityData(
+			final String username,  
+			final DateTime startDate, final DateTime endDate, 
+			final MobilityPoint.PrivacyState privacyState,
+			final LocationStatus locationStatus, final Mode mode,
+			final boolean withSensorData,
+			final MobilityPoint.Handler handler) 
+			throws ServiceException {
+		
+		try {
+			userMobilityQueries.processMobilityInformation(
+					username, 
+					startDate, 
+					endDate, 
+					privacyState, 
+					locationStatus, 
+					mode,
+					withSensorData,
+					handler);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
 	/**
 	 * Retrieves the Mobility aggregate information for a user within a range.
 	 * 
@@ -428,7 +480,7 @@ public final class MobilityServices {
 		
 		try {
 			// If the user is an admin, we are OK.
-			if(userQueries.userIsAdmin(username)) {
+			if(AuthorizationCache.instance().userIsAdmin(username)) {
 				return;
 			}
 			
@@ -1,6 +1,12 @@
 package org.ohmage.service;
 
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.cache.PreferenceCache;
@@ -9,14 +15,21 @@ import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.query.IOmhQueries;
 import org.ohmage.util.StringUtils;
+import org.springframework.beans.factory.DisposableBean;
 
 /**
  * The services for OMH queries.
  *
  * @author John Jenkins
  */
-public class OmhServices {
+public class OmhServices implements DisposableBean {
+	// The number of threads used to service the reads in batch read
+	// requests. This is shared by all of them, so a large batch cannot
+	// starve the server.
+	private static final int READ_THREADS = 8;
+	
 	private static OmhServices instance;
+	private final ExecutorService readExecutor;
 	private IOmhQueries omhQueries;
 	
 	/**
@@ -40,9 +53,35 @@ public class OmhServices {
 		}
 		
 		omhQueries = iOmhQueries;
+		
+		readExecutor =
+			Executors.newFixedThreadPool(
+				READ_THREADS,
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+					
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						Thread result = 
+							new Thread(
+								runnable, 
+								"OMH Read-" + count.incrementAndGet());
+						result.setDaemon(true);
+						return result;
+					}
+				});
+		
 		instance = this;
 	}
 	
+	/**
+	 * Stops the read threads.
+	 */
+	@Override
+	public void destroy() {
+		readExecutor.shutdownNow();
+	}
+	
 	/**
 	 * Returns the instance of this service.
 	 * 
@@ -52,6 +91,17 @@ public class OmhServices {
 		return instance;
 	}
 	
+	/**
+	 * Creates a completion service that runs tasks on the threads shared by
+	 * all batch read requests. The results of the tasks submitted to it may
+	 * be taken in the order they complete.
+	 * 
+	 * @return A new completion service.
+	 */
+	public <T> CompletionService<T> createReadCompletionService() {
+		return new ExecutorCompletionService<T>(readExecutor);
+	}
+	
 	/**
 	 * Retrieves all of the authentication credentials for a given domain.
 	 * 
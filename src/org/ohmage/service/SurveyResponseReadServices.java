@@ -20,14 +20,13 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.domain.campaign.Campaign.Role;
 import org.ohmage.domain.campaign.SurveyResponse;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
 import org.ohmage.exception.ServiceException;
-import org.ohmage.query.ICampaignQueries;
-import org.ohmage.query.IUserCampaignQueries;
 import org.ohmage.util.StringUtils;
 
 /**
@@ -37,8 +36,6 @@ import org.ohmage.util.StringUtils;
  */
 public final class SurveyResponseReadServices {
 	private static SurveyResponseReadServices instance;
-	private ICampaignQueries campaignQueries;
-	private IUserCampaignQueries userCampaignQueries;
 	
 	/**
 	 * Default constructor. Privately instantiated via dependency injection
@@ -46,23 +43,11 @@ public final class SurveyResponseReadServices {
 	 * 
 	 * @throws IllegalStateException if an instance of this class already
 	 * exists.
-	 * 
-	 * @throws IllegalArgumentException if iCampaignQueries or
-	 * iUserCampaignQueries is null.
 	 */
-	private SurveyResponseReadServices(ICampaignQueries iCampaignQueries, IUserCampaignQueries iUserCampaignQueries) { 
+	private SurveyResponseReadServices() { 
 		if(instance != null) {
 			throw new IllegalStateException("An instance of this class already exists.");
 		}
-		if(iCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of ICampaignQueries is required.");
-		}
-		if(iUserCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserCampaignQueries is required.");
-		}
-		
-		campaignQueries = iCampaignQueries;
-		userCampaignQueries = iUserCampaignQueries;
 		
 		instance = this;
 	}
@@ -196,12 +181,12 @@ public final class SurveyResponseReadServices {
 		}
 		
 		try {
-			List<Role> userRoles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+			List<Role> userRoles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 			
 			// Supervisors can read all data all the time
 			if(! userRoles.contains(Campaign.Role.SUPERVISOR)) {
 				Campaign.PrivacyState privacyState = 
-					campaignQueries.getCampaignPrivacyState(campaignId);
+					AuthorizationCache.instance().getCampaignPrivacyState(campaignId);
 				
 				Collection<SurveyResponse> responsesToRemove = new LinkedList<SurveyResponse>();
 				for(SurveyResponse currentResult : surveyResponseList) {
@@ -25,7 +25,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
 import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.domain.Audio;
@@ -52,6 +57,7 @@ import org.ohmage.query.IImageQueries;
 import org.ohmage.query.ISurveyResponseImageQueries;
 import org.ohmage.query.ISurveyResponseQueries;
 import org.ohmage.query.ISurveyUploadQuery;
+import org.springframework.beans.factory.DisposableBean;
 
 /**
  * This class is responsible for creating, reading, updating, and deleting 
@@ -64,9 +70,17 @@ import org.ohmage.query.ISurveyUploadQuery;
  * @author Joshua Selsky
  * @author Hongsuda T. 
  */
-public final class SurveyResponseServices {
+public final class SurveyResponseServices implements DisposableBean {
+	private static final Logger LOGGER = 
+		Logger.getLogger(SurveyResponseServices.class);
+	
 	private static SurveyResponseServices instance;
 	
+	// Rebuilding the prompt response search index may take a long time, so
+	// it runs on its own thread and only one rebuild may run at a time.
+	private final ExecutorService searchIndexExecutor;
+	private final AtomicBoolean searchIndexRebuilding = new AtomicBoolean();
+	
 	private IImageQueries imageQueries;
 	private ISurveyUploadQuery surveyUploadQuery;
 	private ISurveyResponseQueries surveyResponseQueries;
@@ -107,9 +121,29 @@ public final class SurveyResponseServices {
 		surveyResponseQueries = iSurveyResponseQueries;
 		surveyResponseImageQueries = iSurveyResponseImageQueries;
 		
+		searchIndexExecutor =
+			Executors.newSingleThreadExecutor(
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						Thread result = 
+							new Thread(runnable, "Search Index Rebuild");
+						result.setDaemon(true);
+						return result;
+					}
+				});
+		
 		instance = this;
 	}
 	
+	/**
+	 * Stops the prompt response search index rebuild, if one is running.
+	 */
+	@Override
+	public void destroy() {
+		searchIndexExecutor.shutdownNow();
+	}
+	
 	/**
 	 * @return  Returns the singleton instance of this class.
 	 */
@@ -523,6 +557,61 @@ public final class SurveyResponseServices {
 		}
 	}
 	
+	/**
+	 * Starts rebuilding the prompt response search index in the background
+	 * and returns immediately. The result is logged when it finishes.
+	 * 
+	 * @param campaignId The campaign's unique identifier or null to rebuild
+	 * 					 the index for every campaign.
+	 * 
+	 * @return True if the rebuild was started or false if another rebuild is
+	 * 		   already running.
+	 */
+	public boolean startPromptResponseSearchIndexRebuild(
+			final String campaignId) {
+		
+		if(! searchIndexRebuilding.compareAndSet(false, true)) {
+			return false;
+		}
+		
+		try {
+			searchIndexExecutor.execute(
+				new Runnable() {
+					@Override
+					public void run() {
+						try {
+							long numIndexed = 
+								surveyResponseQueries
+									.rebuildPromptResponseSearchIndex(
+										campaignId);
+							LOGGER.info(
+								"Rebuilt the prompt response search index" +
+									((campaignId == null) ? 
+										"" : 
+										" for " + campaignId) +
+									": " + numIndexed + 
+									" prompt responses indexed.");
+						}
+						catch(DataAccessException e) {
+							LOGGER.error(
+								"Error rebuilding the prompt response " +
+									"search index.", 
+								e);
+						}
+						finally {
+							searchIndexRebuilding.set(false);
+						}
+					}
+				});
+		}
+		catch(RuntimeException e) {
+			searchIndexRebuilding.set(false);
+			throw e;
+		}
+		
+		return true;
+	}
+	
 	/**
 	 * Gets the campaign ID for a survey response ID.
 	 * 
@@ -542,6 +631,31 @@ public final class SurveyResponseServices {
 		}
 	}
 	
+	/**
+	 * Gets the campaign ID for each of a collection of survey response IDs
+	 * with a single query.
+	 * 
+	 * @param surveyResponseIds The survey responses' unique identifiers.
+	 * 
+	 * @return A map of each survey response's unique identifier to its 
+	 * 		   campaign's unique identifier. Survey responses that don't exist
+	 * 		   are not in the map.
+	 * 
+	 * @throws ServiceException There was an error.
+	 */
+	public Map<UUID, String> getCampaignsForSurveyResponseIds(
+			final Collection<UUID> surveyResponseIds)
+			throws ServiceException {
+		
+		try {
+			return surveyResponseQueries.getCampaignIdsForSurveyResponseIds(
+					surveyResponseIds);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
 	/**
 	 * Update existing survey responses in the database.
 	 * 
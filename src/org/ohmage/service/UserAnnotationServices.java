@@ -16,14 +16,17 @@
 package org.ohmage.service;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.Annotation;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.exception.DataAccessException;
@@ -124,6 +127,77 @@ public final class UserAnnotationServices {
 		}
 	}
 	
+	/**
+	 * Determines whether the user may read the annotations on all of the 
+	 * given survey responses. The same rules apply as for
+	 * {@link #userCanAccessSurveyResponseAnnotation(String, Collection, UUID)},
+	 * but the survey responses' campaigns are looked up with a single query 
+	 * and the user's roles are checked once per campaign rather than once per
+	 * survey response.
+	 * 
+	 * @param username The user attempting to read the annotations.
+	 * 
+	 * @param surveyResponseIds The survey responses' IDs.
+	 * 
+	 * @throws ServiceException One of the survey responses does not exist, 
+	 * 							the user is not a supervisor in one of their
+	 * 							campaigns, or there was a problem dispatching
+	 * 							to the data layer.
+	 */
+	public void verifyUserCanReadSurveyResponseAnnotations(
+			final String username,
+			final Collection<UUID> surveyResponseIds)
+			throws ServiceException {
+		
+		Map<UUID, String> campaignIds = 
+			SurveyResponseServices
+				.instance()
+				.getCampaignsForSurveyResponseIds(surveyResponseIds);
+		
+		for(UUID surveyResponseId : surveyResponseIds) {
+			if(! campaignIds.containsKey(surveyResponseId)) {
+				throw new ServiceException(
+					ErrorCode.SURVEY_INVALID_SURVEY_ID,
+					"The survey response does not exist: " + 
+						surveyResponseId);
+			}
+		}
+		
+		for(String campaignId : new HashSet<String>(campaignIds.values())) {
+			verifyUserCanReadCampaignAnnotations(username, campaignId);
+		}
+	}
+	
+	/**
+	 * Determines whether the user may read the annotations on any survey
+	 * response in a campaign. Only supervisors in the campaign may.
+	 * 
+	 * @param username The user attempting to read the annotations.
+	 * 
+	 * @param campaignId The campaign's ID.
+	 * 
+	 * @throws ServiceException The user is not a supervisor in the campaign 
+	 * 							or there was a problem dispatching to the 
+	 * 							data layer.
+	 */
+	public void verifyUserCanReadCampaignAnnotations(
+			final String username,
+			final String campaignId)
+			throws ServiceException {
+		
+		try {
+			if(! AuthorizationCache.instance().getUserCampaignRoles(username, campaignId).contains(Campaign.Role.SUPERVISOR)) {
+				throw new ServiceException(
+						ErrorCode.ANNOTATION_INSUFFICIENT_PERMISSIONS, 
+						"The logged-in user does not have the permissions to read the survey response annotations in the campaign: " +
+							campaignId);
+			}
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
 	/**
 	 * Dispatches to the data layer to create an annotation on a survey
 	 * response.
@@ -166,6 +240,52 @@ public final class UserAnnotationServices {
 		}
 	}
 
+	/**
+	 * Reads the annotations on a set of survey responses and on their prompt
+	 * responses and passes each one to a handler as it is read. The survey 
+	 * responses are either those with the given IDs or those in a campaign,
+	 * optionally limited to a date range. This does not check whether the
+	 * user may read them.
+	 * 
+	 * @param surveyResponseIds The survey responses' IDs. Either these or 
+	 * 							the campaign ID are required.
+	 * 
+	 * @param campaignId The campaign's ID. Either this or the survey 
+	 * 					 response IDs are required.
+	 * 
+	 * @param startDate Limits the survey responses to only those on or after
+	 * 					this date. Optional.
+	 * 
+	 * @param endDate Limits the survey responses to only those on or before
+	 * 				  this date. Optional.
+	 * 
+	 * @param handler The handler that receives the annotations, grouped by
+	 * 				  survey response.
+	 * 
+	 * @throws ServiceException There was an error reading the annotations or
+	 * 							the handler failed.
+	 */
+	public void processSurveyResponseAnnotations(
+			final Collection<UUID> surveyResponseIds,
+			final String campaignId,
+			final DateTime startDate,
+			final DateTime endDate,
+			final Annotation.Handler handler)
+			throws ServiceException {
+		
+		try {
+			annotationQueries.processSurveyResponseAnnotations(
+					surveyResponseIds,
+					campaignId,
+					startDate,
+					endDate,
+					handler);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
 	/**
 	 * Dispatches to the data layer to check whether the user
 	 * is the owner of the annotation. Only supervisors can 
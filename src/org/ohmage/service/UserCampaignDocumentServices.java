@@ -22,11 +22,11 @@ import java.util.List;
 import java.util.Set;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.query.IUserCampaignDocumentQueries;
-import org.ohmage.query.IUserCampaignQueries;
 
 /**
  * This class contains the services for user-campaign-document relationships.
@@ -35,7 +35,6 @@ import org.ohmage.query.IUserCampaignQueries;
  */
 public class UserCampaignDocumentServices {
 	private static UserCampaignDocumentServices instance;
-	private IUserCampaignQueries userCampaignQueries;
 	private IUserCampaignDocumentQueries userCampaignDocumentQueries;
 		
 	/**
@@ -45,22 +44,18 @@ public class UserCampaignDocumentServices {
 	 * @throws IllegalStateException if an instance of this class already
 	 * exists
 	 * 
-	 * @throws IllegalArgumentException if iUserCampaignQueries or 
-	 * iUserCampaignDocumentQueries is null.
+	 * @throws IllegalArgumentException if iUserCampaignDocumentQueries is
+	 * null.
 	 */
-	private UserCampaignDocumentServices(IUserCampaignQueries iUserCampaignQueries, IUserCampaignDocumentQueries iUserCampaignDocumentQueries) {
+	private UserCampaignDocumentServices(IUserCampaignDocumentQueries iUserCampaignDocumentQueries) {
 		if(instance != null) {
 			throw new IllegalStateException("An instance of this class already exists.");
 		}
 
-		if(iUserCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserCampaignQueries is required.");
-		}
 		if(iUserCampaignDocumentQueries == null) {
 			throw new IllegalArgumentException("An instance of IUserCampaignDocumentQueries is required.");
 		}
 		
-		userCampaignQueries = iUserCampaignQueries;
 		userCampaignDocumentQueries = iUserCampaignDocumentQueries;
 		
 		instance = this;
@@ -91,7 +86,7 @@ public class UserCampaignDocumentServices {
 			throws ServiceException {
 		
 		try {
-			List<Campaign.Role> roles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+			List<Campaign.Role> roles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 			
 			if(roles.size() == 0) {
 				throw new ServiceException(ErrorCode.DOCUMENT_INSUFFICIENT_PERMISSIONS, "The user is not a member of the following campaign and, therefore, cannot associate documents with it: " + campaignId);
@@ -120,7 +115,7 @@ public class UserCampaignDocumentServices {
 			throws ServiceException {
 		
 		try {
-			List<Campaign.Role> roles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+			List<Campaign.Role> roles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 			
 			if(roles.size() == 0) {
 				throw new ServiceException(
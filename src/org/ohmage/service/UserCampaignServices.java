@@ -27,9 +27,12 @@ import java.util.Set;
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
+import org.ohmage.cache.CampaignReadCache;
 import org.ohmage.domain.UserInformation.UserPersonal;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.domain.campaign.CampaignMask;
+import org.ohmage.domain.campaign.CampaignVersion;
 import org.ohmage.domain.campaign.SurveyResponse;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
@@ -59,6 +62,8 @@ public class UserCampaignServices {
 	private IUserQueries userQueries;
 	private ICampaignSurveyResponseQueries campaignSurveyResponseQueries;
 	
+	private final CampaignReadCache campaignReadCache;
+	
 	/**
 	 * Default constructor. Privately instantiated via dependency injection
 	 * (reflection).
@@ -68,13 +73,16 @@ public class UserCampaignServices {
 	 * 
 	 * @throws IllegalArgumentException if iCampaignClassQueries or 
 	 * iCampaignQueries or iUserCampaignQueries or iUserCampaignQueries or 
-	 * iCampaignSurveyResponseQueries is null
+	 * iCampaignSurveyResponseQueries is null or one of the cache limits is
+	 * negative
 	 */
 	private UserCampaignServices(ICampaignClassQueries iCampaignClassQueries, 
 			                     ICampaignQueries iCampaignQueries,
 			                     IUserCampaignQueries iUserCampaignQueries,
 			                     IUserQueries iUserQueries,
-			                     ICampaignSurveyResponseQueries iCampaignSurveyResponseQueries) {
+			                     ICampaignSurveyResponseQueries iCampaignSurveyResponseQueries,
+			                     long campaignReadCacheLifetime,
+			                     long campaignReadCacheMaxLength) {
 		if(instance != null) {
 			throw new IllegalStateException("An instance of this class already exists.");
 		}
@@ -102,6 +110,11 @@ public class UserCampaignServices {
 		userQueries = iUserQueries;
 		campaignSurveyResponseQueries = iCampaignSurveyResponseQueries;
 		
+		campaignReadCache = 
+				new CampaignReadCache(
+						campaignReadCacheLifetime, 
+						campaignReadCacheMaxLength);
+		
 		instance = this;
 	}
 	
@@ -202,7 +215,7 @@ public class UserCampaignServices {
 			throws ServiceException {
 		
 		try {
-			if(! userCampaignQueries.getUserCampaignRoles(username, campaignId).contains(Campaign.Role.PARTICIPANT)) {
+			if(! AuthorizationCache.instance().getUserCampaignRoles(username, campaignId).contains(Campaign.Role.PARTICIPANT)) {
 				throw new ServiceException(
 						ErrorCode.SURVEY_INSUFFICIENT_PERMISSIONS, 
 						"The user is not a participant in the campaign and, therefore, cannot upload responses.");
@@ -230,7 +243,7 @@ public class UserCampaignServices {
 			throws ServiceException  {
 		
 		try {
-			if(! userCampaignQueries.getUserCampaignRoles(username, campaignId).contains(Campaign.Role.SUPERVISOR)) {
+			if(! AuthorizationCache.instance().getUserCampaignRoles(username, campaignId).contains(Campaign.Role.SUPERVISOR)) {
 				throw new ServiceException(
 						ErrorCode.CAMPAIGN_INSUFFICIENT_PERMISSIONS, 
 						"The user is not allowed to read the personal information of the users in the following campaign: " + 
@@ -278,7 +291,7 @@ public class UserCampaignServices {
 		
 		try {
 		    	// Get the user's roles for this campaign.
-			List<Campaign.Role> roles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+			List<Campaign.Role> roles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 			
 			// If the user isn't a supervisor or an author, then they aren't 
 			// allowed to update it.
@@ -368,7 +381,7 @@ public class UserCampaignServices {
 			throws ServiceException {
 		
 		try {
-			List<Campaign.Role> usersRoles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+			List<Campaign.Role> usersRoles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 			
 			if(usersRoles.contains(Campaign.Role.SUPERVISOR)) {
 				return;
@@ -414,7 +427,7 @@ public class UserCampaignServices {
 			final String campaignId) throws ServiceException {
 		
 		try {
-			List<Campaign.Role> roles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+			List<Campaign.Role> roles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 			
 			if(roles.contains(Campaign.Role.SUPERVISOR)) {
 				return;
@@ -546,7 +559,7 @@ public class UserCampaignServices {
 		try {
 			
 			// If the requester is an admin, he/she can read it.
-			if(userQueries.userIsAdmin(requesterUsername)) {
+			if(AuthorizationCache.instance().userIsAdmin(requesterUsername)) {
 				return;
 			}
 						
@@ -565,7 +578,7 @@ public class UserCampaignServices {
 			}
 			
 			List<Campaign.Role> requesterRoles = 
-				userCampaignQueries.getUserCampaignRoles(requesterUsername, campaignId);
+				AuthorizationCache.instance().getUserCampaignRoles(requesterUsername, campaignId);
 			
 			// If the requester's role list contains supervisor, return.
 			if(requesterRoles.contains(Campaign.Role.SUPERVISOR)) {
@@ -579,7 +592,7 @@ public class UserCampaignServices {
 			
 			// If the requester's role list contains analyst,
 			if(requesterRoles.contains(Campaign.Role.ANALYST)) {
-				Campaign.PrivacyState privacyState = campaignQueries.getCampaignPrivacyState(campaignId);
+				Campaign.PrivacyState privacyState = AuthorizationCache.instance().getCampaignPrivacyState(campaignId);
 				
 				if((privacyState != null) && 
 				   (Campaign.PrivacyState.SHARED.equals(privacyState))) {
@@ -1196,6 +1209,99 @@ public class UserCampaignServices {
 		}
 	}
 	
+	/**
+	 * Returns the versions of the campaigns that match the criteria as the
+	 * user would read them. The criteria are the same as for
+	 * {@link #getCampaignInformation(String, Collection, Collection, Collection, Collection, DateTime, DateTime, Campaign.PrivacyState, Campaign.RunningState, Campaign.Role, boolean, boolean, boolean)}.
+	 * 
+	 * @param username The requesting user's username. This parameter is 
+	 * 				   required.
+	 * 
+	 * @param campaignIds A list of campaign unique identifiers. This is 
+	 * 					  optional and may be null.
+	 * 
+	 * @param classIds A list of class unique identifiers. This is optional and
+	 * 				   may be null.
+	 * 
+	 * @param nameTokens Limits the results to the campaigns whose name 
+	 * 					 contains at least one of the tokens.
+	 * 
+	 * @param descriptionTokens Limits the results to the campaigns whose 
+	 * 							description contains at least one of the 
+	 * 							tokens.
+	 * 
+	 * @param startDate Limits the results to the campaigns created on or after
+	 * 					this date.
+	 * 
+	 * @param endDate Limits the results to the campaigns created on or before
+	 * 				  this date.
+	 * 
+	 * @param privacyState Limits the results to the campaigns with this 
+	 * 					   privacy state.
+	 * 
+	 * @param runningState Limits the results to the campaigns with this 
+	 * 					   running state.
+	 * 
+	 * @param role Limits the results to the campaigns where the user has this
+	 * 			   role.
+	 * 
+	 * @param withResponseCounts Whether or not the versions should change when
+	 * 							 the campaigns' survey responses change.
+	 * 
+	 * @return The campaigns' versions ordered by their IDs.
+	 * 
+	 * @throws ServiceException There was an error.
+	 */
+	public List<CampaignVersion> getCampaignVersions(
+			final String username, 
+			final Collection<String> campaignIds, 
+			final Collection<String> classIds,
+			final Collection<String> nameTokens,
+			final Collection<String> descriptionTokens,
+			final DateTime startDate, final DateTime endDate, 
+			final Campaign.PrivacyState privacyState, 
+			final Campaign.RunningState runningState, 
+			final Campaign.Role role,
+			final boolean withResponseCounts)
+			throws ServiceException {
+		
+		try {
+			Collection<Object> campaignSqlParameters = new LinkedList<Object>();
+			
+			String campaignSqlStmt = 
+					campaignQueries.getVisibleCampaignsSql(
+							campaignSqlParameters,
+							username,
+							campaignIds, 
+							classIds, 
+							nameTokens, 
+							descriptionTokens,
+							startDate,
+							endDate, 
+							privacyState, 
+							runningState, 
+							role);
+			
+			return campaignQueries.getCampaignVersions(
+					username, 
+					campaignSqlStmt, 
+					campaignSqlParameters, 
+					withResponseCounts);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
+	/**
+	 * Returns the cache of serialized campaigns used when reading campaigns.
+	 * 
+	 * @return The campaign read cache.
+	 */
+	public CampaignReadCache getCampaignReadCache() {
+		return campaignReadCache;
+	}
+	
 	/**
 	 * Verifies that some user is allowed to read the list of users in a 
 	 * campaign.
@@ -1213,7 +1319,7 @@ public class UserCampaignServices {
 			final String campaignId) throws ServiceException {
 		
 		try {
-			List<Campaign.Role> roles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+			List<Campaign.Role> roles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 			
 			if(roles.contains(Campaign.Role.SUPERVISOR) || 
 					roles.contains(Campaign.Role.AUTHOR)) {
@@ -1269,7 +1375,7 @@ public class UserCampaignServices {
 			throws ServiceException {
 		
 		try {
-			List<Campaign.Role> roles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+			List<Campaign.Role> roles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 			
 			if(roles.contains(Campaign.Role.SUPERVISOR) || 
 					roles.contains(Campaign.Role.AUTHOR)) {
@@ -1383,7 +1489,7 @@ public class UserCampaignServices {
 				Campaign campaign = campaignQueries.getCampaignInformation(campaignId);
 				
 				// Get the user's roles.
-				List<Campaign.Role> roles = userCampaignQueries.getUserCampaignRoles(username, campaignId);
+				List<Campaign.Role> roles = AuthorizationCache.instance().getUserCampaignRoles(username, campaignId);
 				
 				// If we are supposed to get the extra information as well.
 				if(withExtras) {
@@ -22,17 +22,16 @@ import java.util.List;
 import java.util.Set;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.Clazz;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.query.IUserClassDocumentQueries;
-import org.ohmage.query.IUserClassQueries;
 
 
 public class UserClassDocumentServices {
 	private static UserClassDocumentServices instance;
 
-	private IUserClassQueries userClassQueries;
 	private IUserClassDocumentQueries userClassDocumentQueries;
 		
 	/**
@@ -42,22 +41,17 @@ public class UserClassDocumentServices {
 	 * @throws IllegalStateException if an instance of this class already
 	 * exists
 	 * 
-	 * @throws IllegalArgumentException if iUserClassQueries or
-	 * iUserClassDocumentQueries is null
+	 * @throws IllegalArgumentException if iUserClassDocumentQueries is null
 	 */
-	private UserClassDocumentServices(IUserClassQueries iUserClassQueries, IUserClassDocumentQueries iUserClassDocumentQueries) {
+	private UserClassDocumentServices(IUserClassDocumentQueries iUserClassDocumentQueries) {
 		if(instance != null) {
 			throw new IllegalStateException("An instance of this class already exists.");
 		}
 		
-		if(iUserClassQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserClassQueries is required.");
-		}
 		if(iUserClassDocumentQueries == null) {
 			throw new IllegalArgumentException("An instance of IUserClassDocumentQueries is required.");
 		}
 		
-		userClassQueries = iUserClassQueries;
 		userClassDocumentQueries = iUserClassDocumentQueries;
 		
 		instance = this;		
@@ -87,7 +81,7 @@ public class UserClassDocumentServices {
 			throws ServiceException {
 		
 		try {
-			Clazz.Role classRole = userClassQueries.getUserClassRole(classId, username);
+			Clazz.Role classRole = AuthorizationCache.instance().getUserClassRole(username, classId);
 			
 			if(classRole == null) {
 				throw new ServiceException(
@@ -118,7 +112,7 @@ public class UserClassDocumentServices {
 			throws ServiceException {
 		
 		try {
-			Clazz.Role classRole = userClassQueries.getUserClassRole(classId, username);
+			Clazz.Role classRole = AuthorizationCache.instance().getUserClassRole(username, classId);
 			
 			if(classRole == null) {
 				throw new ServiceException(
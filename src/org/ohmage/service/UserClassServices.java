@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.Clazz;
 import org.ohmage.domain.UserInformation.UserPersonal;
 import org.ohmage.exception.DataAccessException;
@@ -174,7 +175,7 @@ public final class UserClassServices {
 			throws ServiceException {
 		
 		try {
-			if(! userClassQueries.getUserClassRole(classId, username).equals(classRole)) {
+			if(! AuthorizationCache.instance().getUserClassRole(username, classId).equals(classRole)) {
 				throw new ServiceException(
 						ErrorCode.CLASS_INSUFFICIENT_PERMISSIONS, 
 						"The user doesn't have sufficient permissions for the following class: " + 
@@ -224,8 +225,8 @@ public final class UserClassServices {
 			final String username) throws ServiceException {
 		
 		try {
-			if((! Clazz.Role.PRIVILEGED.equals(userClassQueries.getUserClassRole(classId, username))) &&
-			   (! userQueries.userIsAdmin(username))) {
+			if((! Clazz.Role.PRIVILEGED.equals(AuthorizationCache.instance().getUserClassRole(username, classId))) &&
+			   (! AuthorizationCache.instance().userIsAdmin(username))) {
 				throw new ServiceException(
 						ErrorCode.CLASS_INSUFFICIENT_PERMISSIONS, 
 						"The user is not privileged in the class.");
@@ -255,14 +256,14 @@ public final class UserClassServices {
 		
 		try {
 			// If the user is an admin, return.
-			if(userQueries.userIsAdmin(username)) {
+			if(AuthorizationCache.instance().userIsAdmin(username)) {
 				return;
 			}
 			
 			// For each of the classes in the list, the user must be 
 			// privileged.
 			for(String classId : classIds) {
-				if(! Clazz.Role.PRIVILEGED.equals(userClassQueries.getUserClassRole(classId, username))) {
+				if(! Clazz.Role.PRIVILEGED.equals(AuthorizationCache.instance().getUserClassRole(username, classId))) {
 					throw new ServiceException(
 							ErrorCode.CLASS_INSUFFICIENT_PERMISSIONS, 
 							"The user is not and admin nor privileged in a class: " + 
@@ -292,16 +293,20 @@ public final class UserClassServices {
 			throws ServiceException {
 		
 		try {
-			Set<String> classIds = this.getClassesForUser(otherUsername, null);
-			if(! userClassQueries.getUserClassRoles(
-					requesterUsername, 
-					classIds)
-					.contains(Clazz.Role.PRIVILEGED)) {
-				
-				throw new ServiceException(
-						ErrorCode.USER_INSUFFICIENT_PERMISSIONS, 
-						"The requesting user is not privileged in any class to which the other user belongs.");
+			Map<String, Clazz.Role> requesterRoles =
+					AuthorizationCache.instance().getUserClassRoles(requesterUsername);
+			Set<String> classIds =
+					AuthorizationCache.instance().getUserClassRoles(otherUsername).keySet();
+
+			for(String classId : classIds) {
+				if(Clazz.Role.PRIVILEGED.equals(requesterRoles.get(classId))) {
+					return;
+				}
 			}
+
+			throw new ServiceException(
+					ErrorCode.USER_INSUFFICIENT_PERMISSIONS,
+					"The requesting user is not privileged in any class to which the other user belongs.");
 		}
 		catch(DataAccessException e) {
 			throw new ServiceException(e);
@@ -365,7 +370,7 @@ public final class UserClassServices {
 			throws ServiceException {
 		
 		try {
-			return userClassQueries.getUserClassRole(classId, username);
+			return AuthorizationCache.instance().getUserClassRole(username, classId);
 		}
 		catch(DataAccessException e) {
 			throw new ServiceException(e);
@@ -19,13 +19,12 @@ import java.util.List;
 import java.util.UUID;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.domain.campaign.SurveyResponse;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.ServiceException;
 import org.ohmage.query.ICampaignImageQueries;
-import org.ohmage.query.ICampaignQueries;
-import org.ohmage.query.IUserCampaignQueries;
 import org.ohmage.query.IUserImageQueries;
 
 /**
@@ -39,9 +38,7 @@ public final class UserImageServices {
 	private static UserImageServices instance;
 	
 	private ICampaignImageQueries campaignImageQueries;
-	private ICampaignQueries campaignQueries;
 	private IUserImageQueries userImageQueries;
-	private IUserCampaignQueries userCampaignQueries;
 	
 	/**
 	 * Default constructor. Privately instantiated via dependency injection
@@ -51,11 +48,10 @@ public final class UserImageServices {
 	 * exists
 	 * 
 	 * @throws IllegalArgumentException if iCampaignImageQueries or
-	 * iCampaignQueries or iUserImageQueries or iUserCampaignQueries is null
+	 * iUserImageQueries is null
 	 */
 	private UserImageServices(ICampaignImageQueries iCampaignImageQueries,
-			ICampaignQueries iCampaignQueries, IUserImageQueries iUserImageQueries,
-			IUserCampaignQueries iUserCampaignQueries) {
+			IUserImageQueries iUserImageQueries) {
 		
 		if(instance != null) {
 			throw new IllegalStateException("An instance of this class already exists.");
@@ -64,20 +60,12 @@ public final class UserImageServices {
 		if(iCampaignImageQueries == null) {
 			throw new IllegalArgumentException("An instance of ICampaignImageQueries is required.");
 		}
-		if(iCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of ICampaignQueries is required.");
-		}
 		if(iUserImageQueries == null) {
 			throw new IllegalArgumentException("An instance of IUserImageQueries is required.");
 		}
-		if(iUserCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserCampaignQueries is required.");
-		}
 		
 		campaignImageQueries = iCampaignImageQueries;
-		campaignQueries = iCampaignQueries;
 		userImageQueries = iUserImageQueries;
-		userCampaignQueries = iUserCampaignQueries;
 		
 		instance = this;
 	}
@@ -141,7 +129,7 @@ public final class UserImageServices {
 			// For each of the campaigns, see if the requesting user has 
 			// sufficient permissions.
 			for(String campaignId : campaignIds) {
-				List<Campaign.Role> roles = userCampaignQueries.getUserCampaignRoles(requesterUsername, campaignId);
+				List<Campaign.Role> roles = AuthorizationCache.instance().getUserCampaignRoles(requesterUsername, campaignId);
 
 				// If they are a supervisor.
 				if(roles.contains(Campaign.Role.SUPERVISOR)) {
@@ -160,7 +148,7 @@ public final class UserImageServices {
 				}
 				
 				// Retrieve the campaign's privacy state.
-				Campaign.PrivacyState campaignPrivacyState = campaignQueries.getCampaignPrivacyState(campaignId);
+				Campaign.PrivacyState campaignPrivacyState = AuthorizationCache.instance().getCampaignPrivacyState(campaignId);
 				
 				// They are an analyst, the image is shared, and the campaign is shared.
 				if(roles.contains(Campaign.Role.ANALYST) && 
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.UUID;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.Audio;
 import org.ohmage.domain.OFile;
 import org.ohmage.domain.Media;
@@ -118,7 +119,7 @@ public class UserMediaServices {
 			}
 			
 			// If they are an admin, they can read it.
-			if(userQueries.userIsAdmin(username)) {
+			if(AuthorizationCache.instance().userIsAdmin(username)) {
 				return;
 			}
 			
@@ -130,7 +131,7 @@ public class UserMediaServices {
 			// sufficient permissions.
 			for(String campaignId : campaignIds) {
 				List<Campaign.Role> roles = 
-					userCampaignQueries.getUserCampaignRoles(
+					AuthorizationCache.instance().getUserCampaignRoles(
 						username, 
 						campaignId);
 
@@ -154,7 +155,7 @@ public class UserMediaServices {
 				
 				// Retrieve the campaign's privacy state.
 				Campaign.PrivacyState campaignPrivacyState = 
-					campaignQueries.getCampaignPrivacyState(campaignId);
+					AuthorizationCache.instance().getCampaignPrivacyState(campaignId);
 				
 				// They are an analyst, the image is shared, and the campaign is shared.
 				if(roles.contains(Campaign.Role.ANALYST) && 
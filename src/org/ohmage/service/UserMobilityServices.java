@@ -21,10 +21,10 @@ import java.util.List;
 import java.util.Set;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.ServiceException;
-import org.ohmage.query.ICampaignQueries;
 import org.ohmage.query.IUserCampaignQueries;
 import org.ohmage.query.IUserMobilityQueries;
 
@@ -40,7 +40,6 @@ public class UserMobilityServices {
 	private static final long MILLIS_IN_A_HOUR = 60 * 60 * 1000;
 	private static final int HOURS_IN_A_DAY = 24;
 	
-	private ICampaignQueries campaignQueries;
 	private IUserCampaignQueries userCampaignQueries;
 	private IUserMobilityQueries userMobilityQueries;
 	
@@ -51,19 +50,16 @@ public class UserMobilityServices {
 	 * @throws IllegalStateException if an instance of this class already
 	 * exists
 	 * 
-	 * @throws IllegalArgumentException if iCampaignQueries or 
-	 * iUserCampaignQueriesor or iUserMobilityQueries is null
+	 * @throws IllegalArgumentException if iUserCampaignQueries or
+	 * iUserMobilityQueries is null
 	 */
-	private UserMobilityServices(ICampaignQueries iCampaignQueries, 
-			IUserCampaignQueries iUserCampaignQueries, IUserMobilityQueries iUserMobilityQueries) {
+	private UserMobilityServices(IUserCampaignQueries iUserCampaignQueries, 
+			IUserMobilityQueries iUserMobilityQueries) {
 		
 		if(instance != null) {
 			throw new IllegalStateException("An instance of this class already exists.");
 		}
 		
-		if(iCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of ICampaignQueries is required.");
-		}
 		if(iUserCampaignQueries == null) {
 			throw new IllegalArgumentException("An instance of IUserCampaignQueries is required.");
 		}
@@ -72,7 +68,6 @@ public class UserMobilityServices {
 		}
 
 		
-		campaignQueries = iCampaignQueries;
 		userCampaignQueries = iUserCampaignQueries;
 		userMobilityQueries = iUserMobilityQueries;
 		
@@ -123,13 +118,13 @@ public class UserMobilityServices {
 			
 			Set<String> campaignIds = userCampaignQueries.getCampaignIdsAndNamesForUser(usersUsername).keySet();
 			for(String campaignId : campaignIds) {
-				List<Campaign.Role> requestersCampaignRoles = userCampaignQueries.getUserCampaignRoles(requestersUsername, campaignId);
+				List<Campaign.Role> requestersCampaignRoles = AuthorizationCache.instance().getUserCampaignRoles(requestersUsername, campaignId);
 				
 				if(requestersCampaignRoles.contains(Campaign.Role.SUPERVISOR)) {
 					return;
 				}
 				else if(requestersCampaignRoles.contains(Campaign.Role.ANALYST) && 
-						Campaign.PrivacyState.SHARED.equals(campaignQueries.getCampaignPrivacyState(campaignId))) {
+						Campaign.PrivacyState.SHARED.equals(AuthorizationCache.instance().getCampaignPrivacyState(campaignId))) {
 					return;
 				}
 			}
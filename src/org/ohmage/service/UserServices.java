@@ -49,6 +49,7 @@ import javax.mail.internet.MimeMessage;
 import com.sun.mail.smtp.SMTPTransport;
 
 import org.apache.commons.codec.digest.Crypt;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.service.ConfigServices;
 
 import jbcrypt.BCrypt;
@@ -464,8 +465,8 @@ public final class UserServices {
 							e);
 				}
 					
-				// send message
-				MailUtils.sendMailMessage(smtpSession, message);
+				// queue the message to be sent
+				MailOutboxServices.instance().queueMessage(message);
 
 			} catch (ServiceException e) {
 				throw new ServiceException("Cannot successfully send the password recovery notification.", e);
@@ -903,7 +904,7 @@ public final class UserServices {
 			throws ServiceException {
 		
 		try {
-			if(! userQueries.userIsAdmin(username)) {
+			if(! AuthorizationCache.instance().userIsAdmin(username)) {
 				throw new ServiceException(
 						ErrorCode.USER_INSUFFICIENT_PERMISSIONS, 
 						"The user is not an admin."
@@ -926,7 +927,7 @@ public final class UserServices {
 			throws ServiceException {
 		
 		try {
-			return userQueries.userIsAdmin(username);
+			return AuthorizationCache.instance().userIsAdmin(username);
 		}
 		catch(DataAccessException e) {
 			throw new ServiceException(e);
@@ -992,7 +993,7 @@ public final class UserServices {
 		
 		try {
 			if(!
-				(userQueries.userIsAdmin(username) || 
+				(AuthorizationCache.instance().userIsAdmin(username) || 
 				userQueries.userCanCreateClasses(username))) {
 				
 				throw
@@ -1028,7 +1029,7 @@ public final class UserServices {
 		
 		try {
 			if(!
-				(userQueries.userIsAdmin(username) || 
+				(AuthorizationCache.instance().userIsAdmin(username) || 
 				(
 					userQueries.userCanCreateClasses(username) &&
 					Clazz
@@ -1066,7 +1067,7 @@ public final class UserServices {
 		
 		try {
 			if(
-				(! userQueries.userIsAdmin(username)) &&
+				(! AuthorizationCache.instance().userIsAdmin(username)) &&
 				(! userQueries.userCanSetupUsers(username))) {
 				
 				throw
@@ -1101,7 +1102,7 @@ public final class UserServices {
 		try {
 			// If the user is not an admin, make sure they have the
 			// Mobilize-specific requirements.
-			if(! userQueries.userIsAdmin(requester)) {
+			if(! AuthorizationCache.instance().userIsAdmin(requester)) {
 				// Get the list of class IDs where the requesting user is
 				// privileged.
 				Collection<String> requesterClassIds =
@@ -2110,8 +2111,8 @@ public final class UserServices {
 						e);
 			}
 			
-			// send message
-			MailUtils.sendMailMessage(smtpSession, message);
+			// queue the message to be sent
+			MailOutboxServices.instance().queueMessage(message);
 
 		} catch (ServiceException e) {
 			throw new ServiceException("Cannot successfully send the password recovery notification.", e);
@@ -19,12 +19,11 @@ import java.util.Date;
 import java.util.UUID;
 
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.cache.AuthorizationCache;
 import org.ohmage.domain.campaign.Campaign;
 import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.ServiceException;
-import org.ohmage.query.ICampaignQueries;
 import org.ohmage.query.ICampaignSurveyResponseQueries;
-import org.ohmage.query.IUserCampaignQueries;
 import org.ohmage.query.IUserSurveyResponseQueries;
 
 /**
@@ -40,9 +39,7 @@ public class UserSurveyResponseServices {
 	private static final long MILLIS_IN_A_HOUR = 60 * 60 * 1000;
 	private static final int HOURS_IN_A_DAY = 24;
 	
-	private ICampaignQueries campaignQueries;
 	private ICampaignSurveyResponseQueries campaignSurveyResponseQueries;
-	private IUserCampaignQueries userCampaignQueries;
 	private IUserSurveyResponseQueries userSurveyResponseQueries;
 	
 	/**
@@ -52,33 +49,24 @@ public class UserSurveyResponseServices {
 	 * @throws IllegalStateException if an instance of this class already
 	 * exists
 	 * 
-	 * @throws IllegalArgumentException if iCampaignQueries or 
-	 * iCampaignSurveyResponseQueries or iUserCampaignQueries or
+	 * @throws IllegalArgumentException if iCampaignSurveyResponseQueries or
 	 * iUserSurveyResponseQueries is null
 	 */
-	private UserSurveyResponseServices(ICampaignQueries iCampaignQueries, 
-			ICampaignSurveyResponseQueries iCampaignSurveyResponseQueries, IUserCampaignQueries iUserCampaignQueries,
+	private UserSurveyResponseServices(
+			ICampaignSurveyResponseQueries iCampaignSurveyResponseQueries,
 			IUserSurveyResponseQueries iUserSurveyResponseQueries) {
 		
 		if(instance != null) {
 			throw new IllegalStateException("An instance of this class already exists.");
 		}
 		
-		if(iCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of ICampaignQueries is required.");
-		}
 		if(iCampaignSurveyResponseQueries == null) {
 			throw new IllegalArgumentException("An instance of ICampaignSurveyResponseQueries is required.");
 		}
-		if(iUserCampaignQueries == null) {
-			throw new IllegalArgumentException("An instance of IUserCampaignQueries is required.");
-		}
 		if(iUserSurveyResponseQueries == null) {
 			throw new IllegalArgumentException("An instance of IUserSurveyResponseQueries is required.");
 		}
 		
-		campaignQueries = iCampaignQueries;
-		userCampaignQueries = iUserCampaignQueries;
 		campaignSurveyResponseQueries = iCampaignSurveyResponseQueries;
 		userSurveyResponseQueries = iUserSurveyResponseQueries;
 		
@@ -113,11 +101,11 @@ public class UserSurveyResponseServices {
 			// Get the response's campaign.
 			String campaignId = campaignSurveyResponseQueries.getCampaignIdFromSurveyId(surveyResponseId);
 			
-			if(userCampaignQueries.getUserCampaignRoles(requesterUsername, campaignId).contains(Campaign.Role.SUPERVISOR)) {
+			if(AuthorizationCache.instance().getUserCampaignRoles(requesterUsername, campaignId).contains(Campaign.Role.SUPERVISOR)) {
 				return;
 			}
 			
-			if(Campaign.RunningState.RUNNING.equals(campaignQueries.getCampaignRunningState(campaignId))) {
+			if(Campaign.RunningState.RUNNING.equals(AuthorizationCache.instance().getCampaignRunningState(campaignId))) {
 				if(requesterUsername.equals(userSurveyResponseQueries.getSurveyResponseOwner(surveyResponseId))) {
 					return;
 				}
@@ -15,31 +15,66 @@
  ******************************************************************************/
 package org.ohmage.service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
 import org.ohmage.annotator.Annotator.ErrorCode;
 import org.ohmage.cache.PreferenceCache;
+import org.ohmage.cache.VisualizationCache;
+import org.ohmage.domain.BarChart;
+import org.ohmage.domain.campaign.SurveyResponse;
+import org.ohmage.domain.campaign.SurveyResponseCount;
 import org.ohmage.exception.CacheMissException;
+import org.ohmage.exception.DataAccessException;
 import org.ohmage.exception.DomainException;
 import org.ohmage.exception.ServiceException;
+import org.ohmage.query.ISurveyResponseQueries;
 import org.ohmage.request.RequestBuilder;
 import org.ohmage.util.CookieUtils;
+import org.springframework.beans.factory.DisposableBean;
 
 /**
+ * <p>
  * This class contains the services for visualization requests.
+ * </p>
+ *
+ * <p>
+ * Rendered images are cached per user, campaign, request, and size, along
+ * with a watermark of the campaign's survey responses so that new, changed,
+ * or deleted responses result in a new image. Identical requests that arrive
+ * while an image is being rendered share that rendering. The connections to
+ * the visualization server are pooled and have timeouts.
+ * </p>
  * 
  * @author John Jenkins
  */
-public class VisualizationServices {
+public final class VisualizationServices implements DisposableBean {
+	private static final Logger LOGGER =
+		Logger.getLogger(VisualizationServices.class);
+	
 	/**
 	 * The token parameter key for the visualization server.
 	 */
@@ -98,14 +133,123 @@ public class VisualizationServices {
 	
 	private static final String ENCODING = "UTF-8";
 	
+	private static final String CONTENT_TYPE =
+		"application/x-www-form-urlencoded";
+	
+	private static final String CHART_TITLE_COUNT = "Survey responses";
+	private static final String CHART_SERIES_COUNT = "survey responses";
+	private static final String CHART_TITLE_PRIVACY_STATE = 
+		"Survey responses by privacy state";
+	private static final String CHART_TITLE_PRIVACY_STATE_TIMESERIES =
+		"Survey responses by privacy state over time";
+	
+	/**
+	 * The most bars that a chart over time may have. A chart whose date range
+	 * would need more is rejected rather than allocated.
+	 */
+	public static final int MAX_NUM_BARS = 1000;
+	
+	// The survey responses are counted per day in UTC.
+	private static final DateTimeFormatter DAY_FORMATTER =
+		ISODateTimeFormat.date().withZone(DateTimeZone.UTC);
+	
+	private static VisualizationServices instance;
+	
+	private final ISurveyResponseQueries surveyResponseQueries;
+	
+	private final VisualizationCache cache;
+	private final ThreadSafeClientConnManager connectionManager;
+	private final HttpClient httpClient;
+	
+	/**
+	 * Default constructor. Privately instantiated via dependency injection
+	 * (reflection).
+	 * 
+	 * @param iSurveyResponseQueries The queries for the campaigns' survey
+	 * 								 response watermarks.
+	 * 
+	 * @param cacheLifetime The number of milliseconds for which a rendered
+	 * 						image may be reused.
+	 * 
+	 * @param cacheMaxBytes The maximum total size of the cached images.
+	 * 
+	 * @param connectTimeout The number of milliseconds to wait for a
+	 * 						 connection to the visualization server.
+	 * 
+	 * @param readTimeout The number of milliseconds to wait for the
+	 * 					  visualization server to respond.
+	 * 
+	 * @param maxConnections The maximum number of simultaneous connections
+	 * 						 to the visualization server.
+	 * 
+	 * @throws IllegalStateException An instance of this class already 
+	 * 								 exists.
+	 * 
+	 * @throws IllegalArgumentException The query object was null or one of
+	 * 									the limits was invalid.
+	 */
+	private VisualizationServices(
+			final ISurveyResponseQueries iSurveyResponseQueries,
+			final long cacheLifetime,
+			final long cacheMaxBytes,
+			final int connectTimeout,
+			final int readTimeout,
+			final int maxConnections) {
+		
+		if(instance != null) {
+			throw new IllegalStateException(
+				"An instance of this class already exists.");
+		}
+		
+		if(iSurveyResponseQueries == null) {
+			throw new IllegalArgumentException(
+				"An instance of ISurveyResponseQueries is required.");
+		}
+		if((connectTimeout < 0) || (readTimeout < 0)) {
+			throw new IllegalArgumentException(
+				"The timeouts cannot be negative.");
+		}
+		if(maxConnections <= 0) {
+			throw new IllegalArgumentException(
+				"The maximum number of connections must be positive.");
+		}
+		
+		surveyResponseQueries = iSurveyResponseQueries;
+		cache = new VisualizationCache(cacheLifetime, cacheMaxBytes);
+		
+		connectionManager = new ThreadSafeClientConnManager();
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnections);
+		
+		HttpParams httpParams = new BasicHttpParams();
+		HttpConnectionParams.setConnectionTimeout(httpParams, connectTimeout);
+		HttpConnectionParams.setSoTimeout(httpParams, readTimeout);
+		httpClient = new DefaultHttpClient(connectionManager, httpParams);
+		
+		instance = this;
+	}
+	
+	/**
+	 * Returns the singleton instance of this class.
+	 * 
+	 * @return The singleton instance of this class.
+	 */
+	public static VisualizationServices instance() {
+		return instance;
+	}
+	
 	/**
-	 * Default constructor. Made private so that it cannot be instantiated.
+	 * Returns the cache of rendered images, e.g. for its statistics.
+	 * 
+	 * @return The cache of rendered images.
 	 */
-	private VisualizationServices() {}
+	public VisualizationCache getCache() {
+		return cache;
+	}
 
 	/**
-	 * Sends a request to the visualization server and returns the image as a
-	 * byte array that was returned by the visualization server.
+	 * Returns the image for a visualization request, either from the cache
+	 * or by sending the request to the visualization server.
 	 * 
 	 * @param requestPath The additional path beyond the base URI that is 
 	 * 					  stored in the database. An example would be, if the
@@ -115,6 +259,10 @@ public class VisualizationServices {
 	 * 					  would result in a URL of
 	 * 					  "https://viz.server/com/R/visualizations/survey_response_count?param1=...".
 	 * 
+	 * @param username The username of the requesting user. The visualization
+	 * 				   server reads the data as this user, so the image may
+	 * 				   only be reused for them.
+	 * 
 	 * @param userToken The authentication token for the requesting user that
 	 * 					will be passed on to the visualization server to 
 	 * 					perform subsequent requests on our behalf.
@@ -133,12 +281,18 @@ public class VisualizationServices {
 	 * 					 will be their single-quoted HTTP parameter value.
 	 * 
 	 * @return Returns a byte[] representation of the visualization image.
+	 * 		   This must not be modified.
 	 * 
 	 * @throws ServiceException Thrown if there is an error.
 	 */
-	public static byte[] sendVisualizationRequest(final String requestPath, 
-			final String userToken, final String campaignId, final int width, 
-			final int height, final Map<String, String> parameters) 
+	public byte[] sendVisualizationRequest(
+			final String requestPath,
+			final String username,
+			final String userToken,
+			final String campaignId,
+			final int width, 
+			final int height,
+			final Map<String, String> parameters) 
 			throws ServiceException {
 		
 		// Build the request URL.
@@ -160,10 +314,39 @@ public class VisualizationServices {
 		urlBuilder.append(requestPath);
 		
 		// Generate the URL String.
-		String urlString = urlBuilder.toString();
+		final String urlString = urlBuilder.toString();
+		
+		// Build the cache key. The token is left out because it changes
+		// with every login, but the data it can read does not.
+		String watermark;
+		try {
+			watermark =
+				surveyResponseQueries
+					.getSurveyResponseWatermark(campaignId);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+		StringBuilder keyBuilder = 
+			new StringBuilder()
+				.append(urlString).append('\n')
+				.append(campaignId).append('\n')
+				.append(username).append('\n')
+				.append(width).append('x').append(height).append('\n')
+				.append(watermark);
+		Map<String, String> sortedParameters = 
+			new TreeMap<String, String>(parameters);
+		for(Map.Entry<String, String> parameter : sortedParameters.entrySet()) {
+			keyBuilder
+				.append('\n')
+				.append(parameter.getKey())
+				.append('=')
+				.append(parameter.getValue());
+		}
+		String key = keyBuilder.toString();
 		
 		// Build this server's URL.
-		StringBuilder parameterBuilder = new StringBuilder();
+		final StringBuilder parameterBuilder = new StringBuilder();
 		try {
 			parameterBuilder
 				.append(URLEncoder.encode(PARAMETER_KEY_TOKEN, ENCODING))
@@ -212,20 +395,20 @@ public class VisualizationServices {
 				.append(height);
 			
 			// Add all of the non-required, request-specific parameters.
-			for(String key : parameters.keySet()) {
+			for(String parameterKey : parameters.keySet()) {
 				parameterBuilder.append('&');
 				
-				if(PARAMETER_KEY_AGGREGATE.equals(key)) {
+				if(PARAMETER_KEY_AGGREGATE.equals(parameterKey)) {
 					parameterBuilder
-						.append(URLEncoder.encode(key, ENCODING))
+						.append(URLEncoder.encode(parameterKey, ENCODING))
 						.append('=')
-						.append(parameters.get(key));
+						.append(parameters.get(parameterKey));
 				}
 				else {
 					parameterBuilder
-						.append(URLEncoder.encode(key, ENCODING))
+						.append(URLEncoder.encode(parameterKey, ENCODING))
 						.append("='")
-						.append(URLEncoder.encode(parameters.get(key), ENCODING))
+						.append(URLEncoder.encode(parameters.get(parameterKey), ENCODING))
 						.append("'");
 				}
 			}
@@ -236,72 +419,483 @@ public class VisualizationServices {
 					e);
 		}
 		
+		long start = System.currentTimeMillis();
+		byte[] result = 
+			getImage(key, urlString, parameterBuilder.toString());
+		
+		if(LOGGER.isDebugEnabled()) {
+			LOGGER.debug(
+				"Visualization returned in " + 
+					(System.currentTimeMillis() - start) + 
+					"ms: " + 
+					cache.toString());
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Builds a chart of the number of survey responses over time that the
+	 * user is allowed to see.
+	 * 
+	 * @param campaignId The campaign's unique identifier.
+	 * 
+	 * @param username The requesting user's username.
+	 * 
+	 * @param startDate Limits the survey responses to those on or after this
+	 * 					date. Optional.
+	 * 
+	 * @param endDate Limits the survey responses to those on or before this
+	 * 				  date. Optional.
+	 * 
+	 * @param privacyState Limits the survey responses to those with this
+	 * 					   privacy state. Optional.
+	 * 
+	 * @param aggregate The number of days in each bar. Optional, and the
+	 * 					default is one.
+	 * 
+	 * @return The chart, whose bars cover the dates if they were given or
+	 * 		   else the days from the first to the last survey response.
+	 * 
+	 * @throws ServiceException The chart would have more than 
+	 * 							{@value #MAX_NUM_BARS} bars or there was an
+	 * 							error.
+	 */
+	public BarChart getSurveyResponseCountChart(
+			final String campaignId,
+			final String username,
+			final DateTime startDate,
+			final DateTime endDate,
+			final SurveyResponse.PrivacyState privacyState,
+			final Integer aggregate)
+			throws ServiceException {
+		
+		List<SurveyResponseCount> counts =
+			getSurveyResponseCounts(
+				campaignId, 
+				username, 
+				startDate, 
+				endDate, 
+				privacyState);
+		
+		int daysPerBar = (aggregate == null) ? 1 : aggregate;
+		long firstDay = getFirstDay(counts, startDate);
+		long[] values = 
+			new long[
+				getNumBars(
+					firstDay, 
+					getLastDay(counts, endDate), 
+					daysPerBar)];
+		for(SurveyResponseCount count : counts) {
+			values[(int) ((count.getDay() - firstDay) / daysPerBar)] +=
+				count.getCount();
+		}
+		
+		BarChart result = 
+			new BarChart(
+				CHART_TITLE_COUNT, 
+				getDayLabels(firstDay, values.length, daysPerBar));
+		result.addSeries(CHART_SERIES_COUNT, values);
+		return result;
+	}
+	
+	/**
+	 * Builds a chart of the number of survey responses from each user, split
+	 * by privacy state, that the requesting user is allowed to see.
+	 * 
+	 * @param campaignId The campaign's unique identifier.
+	 * 
+	 * @param username The requesting user's username.
+	 * 
+	 * @param startDate Limits the survey responses to those on or after this
+	 * 					date. Optional.
+	 * 
+	 * @param endDate Limits the survey responses to those on or before this
+	 * 				  date. Optional.
+	 * 
+	 * @return The chart.
+	 * 
+	 * @throws ServiceException There was an error.
+	 */
+	public BarChart getSurveyResponsePrivacyStateChart(
+			final String campaignId,
+			final String username,
+			final DateTime startDate,
+			final DateTime endDate)
+			throws ServiceException {
+		
+		List<SurveyResponseCount> counts =
+			getSurveyResponseCounts(
+				campaignId, 
+				username, 
+				startDate, 
+				endDate, 
+				null);
+		
+		Map<String, Integer> userIndices = new TreeMap<String, Integer>();
+		for(SurveyResponseCount count : counts) {
+			userIndices.put(count.getUsername(), null);
+		}
+		int index = 0;
+		for(Map.Entry<String, Integer> userIndex : userIndices.entrySet()) {
+			userIndex.setValue(index++);
+		}
+		
+		Map<SurveyResponse.PrivacyState, long[]> series = 
+			new EnumMap<SurveyResponse.PrivacyState, long[]>(
+				SurveyResponse.PrivacyState.class);
+		for(SurveyResponseCount count : counts) {
+			long[] values = series.get(count.getPrivacyState());
+			if(values == null) {
+				values = new long[userIndices.size()];
+				series.put(count.getPrivacyState(), values);
+			}
+			values[userIndices.get(count.getUsername())] += count.getCount();
+		}
+		
+		BarChart result =
+			new BarChart(
+				CHART_TITLE_PRIVACY_STATE,
+				new ArrayList<String>(userIndices.keySet()));
+		for(Map.Entry<SurveyResponse.PrivacyState, long[]> entry : series.entrySet()) {
+			result.addSeries(entry.getKey().toString(), entry.getValue());
+		}
+		return result;
+	}
+	
+	/**
+	 * Builds a chart of the number of survey responses per day, split by
+	 * privacy state, that the user is allowed to see.
+	 * 
+	 * @param campaignId The campaign's unique identifier.
+	 * 
+	 * @param username The requesting user's username.
+	 * 
+	 * @param startDate Limits the survey responses to those on or after this
+	 * 					date. Optional.
+	 * 
+	 * @param endDate Limits the survey responses to those on or before this
+	 * 				  date. Optional.
+	 * 
+	 * @return The chart, whose bars cover the dates if they were given or
+	 * 		   else the days from the first to the last survey response.
+	 * 
+	 * @throws ServiceException The chart would have more than 
+	 * 							{@value #MAX_NUM_BARS} bars or there was an
+	 * 							error.
+	 */
+	public BarChart getSurveyResponsePrivacyStateTimeseriesChart(
+			final String campaignId,
+			final String username,
+			final DateTime startDate,
+			final DateTime endDate)
+			throws ServiceException {
+		
+		List<SurveyResponseCount> counts =
+			getSurveyResponseCounts(
+				campaignId, 
+				username, 
+				startDate, 
+				endDate, 
+				null);
+		
+		long firstDay = getFirstDay(counts, startDate);
+		int numBars = getNumBars(firstDay, getLastDay(counts, endDate), 1);
+		Map<SurveyResponse.PrivacyState, long[]> series = 
+			new EnumMap<SurveyResponse.PrivacyState, long[]>(
+				SurveyResponse.PrivacyState.class);
+		for(SurveyResponseCount count : counts) {
+			long[] values = series.get(count.getPrivacyState());
+			if(values == null) {
+				values = new long[numBars];
+				series.put(count.getPrivacyState(), values);
+			}
+			values[(int) (count.getDay() - firstDay)] += count.getCount();
+		}
+		
+		BarChart result =
+			new BarChart(
+				CHART_TITLE_PRIVACY_STATE_TIMESERIES,
+				getDayLabels(firstDay, numBars, 1));
+		for(Map.Entry<SurveyResponse.PrivacyState, long[]> entry : series.entrySet()) {
+			result.addSeries(entry.getKey().toString(), entry.getValue());
+		}
+		return result;
+	}
+	
+	/**
+	 * Shuts down the connections to the visualization server.
+	 */
+	@Override
+	public void destroy() {
+		connectionManager.shutdown();
+	}
+	
+	/**
+	 * Counts the survey responses that the user is allowed to see by user,
+	 * day, and privacy state.
+	 * 
+	 * @return The counts in no particular order.
+	 * 
+	 * @throws ServiceException There was an error.
+	 */
+	private List<SurveyResponseCount> getSurveyResponseCounts(
+			final String campaignId,
+			final String username,
+			final DateTime startDate,
+			final DateTime endDate,
+			final SurveyResponse.PrivacyState privacyState)
+			throws ServiceException {
+		
+		try {
+			return surveyResponseQueries.retrieveSurveyResponseCounts(
+					campaignId, 
+					username, 
+					startDate, 
+					endDate, 
+					privacyState);
+		}
+		catch(DataAccessException e) {
+			throw new ServiceException(e);
+		}
+	}
+	
+	/**
+	 * Returns the first day of a chart over time.
+	 * 
+	 * @param counts The counts.
+	 * 
+	 * @param startDate The requested start date, which may be null.
+	 * 
+	 * @return The UTC day of the start date or of the earliest count,
+	 * 		   whichever is earlier, or {@link Long#MAX_VALUE} if there is 
+	 * 		   neither.
+	 */
+	static long getFirstDay(
+			final List<SurveyResponseCount> counts,
+			final DateTime startDate) {
+		
+		long result = 
+			(startDate == null) ? Long.MAX_VALUE : getDay(startDate);
+		for(SurveyResponseCount count : counts) {
+			result = Math.min(result, count.getDay());
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the last day of a chart over time.
+	 * 
+	 * @param counts The counts.
+	 * 
+	 * @param endDate The requested end date, which may be null.
+	 * 
+	 * @return The UTC day of the end date or of the latest count, whichever
+	 * 		   is later, or {@link Long#MIN_VALUE} if there is neither.
+	 */
+	static long getLastDay(
+			final List<SurveyResponseCount> counts,
+			final DateTime endDate) {
+		
+		long result = (endDate == null) ? Long.MIN_VALUE : getDay(endDate);
+		for(SurveyResponseCount count : counts) {
+			result = Math.max(result, count.getDay());
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the number of bars needed to cover every day from the first to
+	 * the last day.
+	 * 
+	 * @param firstDay The first day.
+	 * 
+	 * @param lastDay The last day.
+	 * 
+	 * @param daysPerBar The number of days in each bar.
+	 * 
+	 * @return The number of bars or 0 if the last day is before the first.
+	 * 
+	 * @throws ServiceException More than {@value #MAX_NUM_BARS} bars would
+	 * 							be needed.
+	 */
+	static int getNumBars(
+			final long firstDay,
+			final long lastDay,
+			final int daysPerBar)
+			throws ServiceException {
+		
+		if(lastDay < firstDay) {
+			return 0;
+		}
+		
+		long result = ((lastDay - firstDay) / daysPerBar) + 1;
+		if(result > MAX_NUM_BARS) {
+			throw new ServiceException(
+				ErrorCode.VISUALIZATION_GENERAL_ERROR,
+				"The chart would have " + result + " bars, but at most " +
+					MAX_NUM_BARS + " are allowed. Narrow the dates or " +
+					"increase the aggregate.");
+		}
+		return (int) result;
+	}
+	
+	/**
+	 * Returns the UTC day of a date, counted the same way as the survey 
+	 * response counts.
+	 * 
+	 * @param date The date.
+	 * 
+	 * @return The number of days since the epoch, rounded down.
+	 */
+	private static long getDay(final DateTime date) {
+		long millis = date.getMillis();
+		long result = millis / SurveyResponseCount.MILLIS_PER_DAY;
+		if((millis % SurveyResponseCount.MILLIS_PER_DAY) < 0) {
+			result--;
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the labels for bars of consecutive days, each of which is the
+	 * date of the first day in the bar.
+	 * 
+	 * @param firstDay The first day of the first bar.
+	 * 
+	 * @param numBars The number of bars.
+	 * 
+	 * @param daysPerBar The number of days in each bar.
+	 * 
+	 * @return The labels.
+	 */
+	static List<String> getDayLabels(
+			final long firstDay,
+			final int numBars,
+			final int daysPerBar) {
+		
+		List<String> result = new ArrayList<String>(numBars);
+		for(int i = 0; i < numBars; i++) {
+			result.add(
+				DAY_FORMATTER.print(
+					(firstDay + ((long) i * daysPerBar)) * 
+						SurveyResponseCount.MILLIS_PER_DAY));
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the cached image for the key or, if there is none, requests it
+	 * from the visualization server. Concurrent requests for the same key 
+	 * share a single request to the visualization server.
+	 * 
+	 * @param key The key that uniquely identifies the image.
+	 * 
+	 * @param urlString The URL of the visualization.
+	 * 
+	 * @param parameters The URL-encoded parameters.
+	 * 
+	 * @return The image's bytes. These must not be modified.
+	 * 
+	 * @throws ServiceException The request failed or the visualization
+	 * 							server returned an error.
+	 */
+	byte[] getImage(
+			final String key,
+			final String urlString,
+			final String parameters)
+			throws ServiceException {
+		
+		return
+			cache.get(
+				key,
+				new VisualizationCache.Renderer() {
+					/**
+					 * Sends the request to the visualization server.
+					 */
+					@Override
+					public byte[] render() throws ServiceException {
+						return requestImage(urlString, parameters);
+					}
+				});
+	}
+	
+	/**
+	 * Sends a request to the visualization server and returns the image that
+	 * it returned.
+	 * 
+	 * @param urlString The URL of the visualization.
+	 * 
+	 * @param parameters The URL-encoded parameters.
+	 * 
+	 * @return The image's bytes.
+	 * 
+	 * @throws ServiceException The request failed or the visualization
+	 * 							server returned an error.
+	 */
+	private byte[] requestImage(
+			final String urlString,
+			final String parameters)
+			throws ServiceException {
+		
+		HttpPost post;
+		try {
+			post = new HttpPost(urlString);
+			StringEntity entity = new StringEntity(parameters, ENCODING);
+			entity.setContentType(CONTENT_TYPE);
+			post.setEntity(entity);
+		}
+		catch(IllegalArgumentException e) {
+			throw new ServiceException(
+					ErrorCode.VISUALIZATION_GENERAL_ERROR, 
+					"Built a malformed URL: " + urlString, 
+					e);
+		}
+		catch(UnsupportedEncodingException e) {
+			throw new ServiceException(
+					"UTF-8 encoding is unknown.",
+					e);
+		}
+		
 		try {
 			// Connect to the visualization server.
-			URL url = new URL(urlString);
-			HttpURLConnection urlConnection = 
-					(HttpURLConnection) url.openConnection();
-			
-			urlConnection.setDoOutput(true);
-			urlConnection.setDoInput(true);
-			urlConnection.setInstanceFollowRedirects(true);
-			urlConnection.setRequestMethod("POST");
-			urlConnection.setRequestProperty(
-					"Content-Length", 
-					Integer.toString(parameterBuilder.length()));
-			
-			DataOutputStream output = 
-					new DataOutputStream(urlConnection.getOutputStream());
-			output.writeBytes(parameterBuilder.toString());
-			output.flush();
-			output.close();
+			HttpResponse response = httpClient.execute(post);
+			HttpEntity responseEntity = response.getEntity();
+			int statusCode = response.getStatusLine().getStatusCode();
 			
 			// If a non-200 response was returned, get the text from the 
 			// response.
-			if(urlConnection.getResponseCode() != 200) {
-				// Get the error text.
-				ByteArrayOutputStream errorByteStream = new ByteArrayOutputStream();
-				InputStream errorStream = urlConnection.getErrorStream();
-				byte[] chunk = new byte[4096];
-				int amountRead;
-				while((amountRead = errorStream.read(chunk)) != -1) {
-					errorByteStream.write(chunk, 0, amountRead);
-				}
-				errorStream.close();
+			if(statusCode != HttpStatus.SC_OK) {
+				// Get the error text. Reading it also releases the
+				// connection.
+				String error = 
+					(responseEntity == null) ? 
+						"" : 
+						EntityUtils.toString(responseEntity);
 				
 				// Echo the error.
 				throw new ServiceException(
 						ErrorCode.VISUALIZATION_GENERAL_ERROR,
 						"There was an error. Please, try again later.",
 						"The server returned the HTTP error code '" + 
-							urlConnection.getResponseCode() + 
+							statusCode + 
 							"' with the error '" + 
-							errorByteStream.toString() + 
+							error + 
 							"': " + 
 							urlString);
 			}
-			
-			// Build the response.
-			InputStream reader = urlConnection.getInputStream();
-			
-			// Generate the byte array.
-			ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
-			byte[] chunk = new byte[4096];
-			int amountRead = 0;
-			while((amountRead = reader.read(chunk)) != -1) {
-				byteArrayStream.write(chunk, 0, amountRead);
+			else if(responseEntity == null) {
+				throw new ServiceException(
+						ErrorCode.VISUALIZATION_GENERAL_ERROR,
+						"There was an error. Please, try again later.",
+						"The server returned no image: " + urlString);
 			}
-			reader.close();
 			
-			return byteArrayStream.toByteArray();
-		}
-		catch(MalformedURLException e) {
-			throw new ServiceException(
-					ErrorCode.VISUALIZATION_GENERAL_ERROR, 
-					"Built a malformed URL: " + urlString, 
-					e);
+			// Read the image, which releases the connection.
+			return EntityUtils.toByteArray(responseEntity);
 		}
 		catch(IOException e) {
+			post.abort();
 			throw new ServiceException(
 					ErrorCode.VISUALIZATION_GENERAL_ERROR, 
 					"Error while communicating with the visualization server.",
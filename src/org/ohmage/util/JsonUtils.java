@@ -15,7 +15,12 @@
  ******************************************************************************/
 package org.ohmage.util;
 
+import java.io.IOException;
+
 import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -350,4 +355,148 @@ public final class JsonUtils {
 		
 	}
 
+	/**
+	 * Reads the JSON object at the parser's current position into a 
+	 * JSONObject without first building an intermediate string or tree. The
+	 * parser must be positioned on the object's 
+	 * {@link JsonToken#START_OBJECT} token and is left on its matching
+	 * {@link JsonToken#END_OBJECT} token.<br />
+	 * <br />
+	 * Values are converted to the same types the json.org parser would have
+	 * produced: integers become Integers or Longs, decimals become Doubles,
+	 * and values that do not fit either are kept as Strings.
+	 * 
+	 * @param parser The parser positioned on the start of an object.
+	 * 
+	 * @return The JSONObject.
+	 * 
+	 * @throws JsonParseException The JSON is malformed.
+	 * 
+	 * @throws JSONException The object contains a duplicate key.
+	 * 
+	 * @throws IOException There was an error reading from the parser.
+	 */
+	public static JSONObject readJsonObject(final JsonParser parser) 
+			throws IOException, JSONException {
+		
+		if(parser.getCurrentToken() != JsonToken.START_OBJECT) {
+			throw new JsonParseException(
+					"The value is not a JSON object.", 
+					parser.getCurrentLocation());
+		}
+		
+		JSONObject result = new JSONObject();
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+			String key = parser.getCurrentName();
+			parser.nextToken();
+			result.putOnce(key, readJsonValue(parser));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Reads the JSON array at the parser's current position into a JSONArray.
+	 * The parser must be positioned on the array's 
+	 * {@link JsonToken#START_ARRAY} token and is left on its matching
+	 * {@link JsonToken#END_ARRAY} token.
+	 * 
+	 * @param parser The parser positioned on the start of an array.
+	 * 
+	 * @return The JSONArray.
+	 * 
+	 * @throws JsonParseException The JSON is malformed.
+	 * 
+	 * @throws JSONException One of the array's objects contains a duplicate
+	 * 						 key.
+	 * 
+	 * @throws IOException There was an error reading from the parser.
+	 * 
+	 * @see #readJsonObject(JsonParser)
+	 */
+	public static JSONArray readJsonArray(final JsonParser parser) 
+			throws IOException, JSONException {
+		
+		if(parser.getCurrentToken() != JsonToken.START_ARRAY) {
+			throw new JsonParseException(
+					"The value is not a JSON array.", 
+					parser.getCurrentLocation());
+		}
+		
+		JSONArray result = new JSONArray();
+		while(parser.nextToken() != JsonToken.END_ARRAY) {
+			result.put(readJsonValue(parser));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Reads the value at the parser's current token.
+	 * 
+	 * @param parser The parser positioned on the start of a value.
+	 * 
+	 * @return The value as the json.org parser would have represented it.
+	 * 
+	 * @throws JsonParseException The JSON is malformed.
+	 * 
+	 * @throws JSONException An object contains a duplicate key.
+	 * 
+	 * @throws IOException There was an error reading from the parser.
+	 */
+	private static Object readJsonValue(final JsonParser parser) 
+			throws IOException, JSONException {
+		
+		JsonToken token = parser.getCurrentToken();
+		if(token == null) {
+			throw new JsonParseException(
+					"Unexpected end of the JSON.", 
+					parser.getCurrentLocation());
+		}
+		
+		switch(token) {
+		case START_OBJECT:
+			return readJsonObject(parser);
+			
+		case START_ARRAY:
+			return readJsonArray(parser);
+			
+		case VALUE_STRING:
+			return parser.getText();
+			
+		case VALUE_NUMBER_INT:
+			switch(parser.getNumberType()) {
+			case INT:
+				return parser.getIntValue();
+				
+			case LONG:
+				return parser.getLongValue();
+				
+			default:
+				return parser.getText();
+			}
+			
+		case VALUE_NUMBER_FLOAT:
+			double value = parser.getDoubleValue();
+			if(Double.isInfinite(value) || Double.isNaN(value)) {
+				return parser.getText();
+			}
+			return value;
+			
+		case VALUE_TRUE:
+			return Boolean.TRUE;
+			
+		case VALUE_FALSE:
+			return Boolean.FALSE;
+			
+		case VALUE_NULL:
+			return JSONObject.NULL;
+			
+		default:
+			throw new JsonParseException(
+					"Unexpected token: " + token, 
+					parser.getCurrentLocation());
+		}
+	}
+
 }
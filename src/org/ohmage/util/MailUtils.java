@@ -20,8 +20,8 @@ import java.util.Properties;
 import javax.mail.Message;
 import javax.mail.MessagingException;
 import javax.mail.NoSuchProviderException;
-import javax.mail.SendFailedException;
 import javax.mail.Session;
+import javax.mail.Transport;
 import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
 
@@ -182,29 +182,19 @@ public class MailUtils {
 	
 	
 	/**
-	 * Sends a mail message.
+	 * Creates a transport for the session and connects it to the mail server,
+	 * authenticating if the preferences require it. The caller may send any
+	 * number of messages through it and must close it when it is done.
 	 * 
-	 * @param smtpSession The session used to create the message.
+	 * @param smtpSession The session whose properties describe the mail
+	 * 					  server.
 	 * 
-	 * @param message The message to be sent.
+	 * @return The connected transport.
 	 * 
 	 * @throws ServiceException There was a problem creating the connection to
-	 * 							the mail server or sending the message.
+	 * 							the mail server.
 	 */
-	public static void sendMailMessage(Session smtpSession, Message message) throws ServiceException {
-
-		// If use Transport.send(), no need to save the message. 
-		// Otherwise, save the message before sending.  
-		try {
-			message.saveChanges();
-		}
-		catch(MessagingException e) {
-			throw new ServiceException(
-					"Could not save the changes to the message.",
-					e);
-		}
-		
-
+	public static Transport openTransport(Session smtpSession) throws ServiceException {
 		// Get the transport from the session.
 		SMTPTransport transport;
 		try {
@@ -279,29 +269,7 @@ public class MailUtils {
 			}
 		}
 		
-
-		try {
-			transport.sendMessage(message, message.getAllRecipients());
-		}
-		catch(SendFailedException e) {
-			throw new ServiceException(
-					"Failed to send the message.",
-					e);
-		}
-		catch(MessagingException e) {
-			throw new ServiceException(
-					"There was a problem while sending the message.",
-					e);
-		}
-		
-		try {
-			transport.close();
-		}
-		catch(MessagingException e) {
-			throw new ServiceException(
-					"After sending the message there was an error closing the connection.",
-					e);
-		}
+		return transport;
 	}
 
 }
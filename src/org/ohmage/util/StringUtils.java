@@ -24,7 +24,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -58,6 +60,16 @@ public final class StringUtils {
 	private static final Pattern PATTERN_SEARCH = 
 		Pattern.compile("[^\\s\"']+|\"([^\"]*)\"|'([^']*)'");
 	
+	// Characters outside of the Basic Multilingual Plane separate words as 
+	// well, because the index's column cannot store them.
+	private static final Pattern PATTERN_SEARCH_WORD_SEPARATOR =
+		Pattern.compile("(?:[^\\p{L}\\p{N}]|[\\x{10000}-\\x{10FFFF}])+");
+	
+	/**
+	 * The maximum length of a search word. Longer words are truncated.
+	 */
+	public static final int MAX_SEARCH_WORD_LENGTH = 64;
+	
 	private static final String DEFAULT_DELIMITER = ",";
 	
 	private static final int LATITUDE_LIMIT = 90;
@@ -475,6 +487,48 @@ public final class StringUtils {
 		return result;
 	}
 	
+	/**
+	 * Splits a string into the words used by the prompt response search 
+	 * index. A word is a run of letters and digits, lower-cased, and 
+	 * truncated to {@value #MAX_SEARCH_WORD_LENGTH} characters. Letters and
+	 * digits outside of the Basic Multilingual Plane, e.g. emoji, are treated
+	 * like punctuation, so a word never contains a surrogate pair and is never
+	 * truncated in the middle of one. For example, the string 
+	 * 'Hello, World! Hello again.' will be divided into three words, "hello",
+	 * "world", and "again".
+	 * 
+	 * @param string The string to be divided.
+	 * 
+	 * @return The set of words in the order they first appear. If the string
+	 * 		   is null or has no letters or digits, it will be an empty set.
+	 */
+	public static Set<String> getSearchWords(final String string) {
+		if(isEmptyOrWhitespaceOnly(string)) {
+			return Collections.emptySet();
+		}
+		
+		Set<String> result = new LinkedHashSet<String>();
+		for(String word : 
+			PATTERN_SEARCH_WORD_SEPARATOR.split(
+				string.toLowerCase(Locale.ROOT))) {
+			
+			if(word.length() == 0) {
+				continue;
+			}
+			else if(word.codePointCount(0, word.length()) > 
+					MAX_SEARCH_WORD_LENGTH) {
+				
+				word = 
+					word.substring(
+						0, 
+						word.offsetByCodePoints(0, MAX_SEARCH_WORD_LENGTH));
+			}
+			result.add(word);
+		}
+		
+		return result;
+	}
+	
 	/**
 	 * Takes a collection of objects and converts them to a list where each 
 	 * item is converted to a string by its toString() method.
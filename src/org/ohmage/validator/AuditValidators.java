@@ -325,4 +325,34 @@ public class AuditValidators {
 					e);
 		}
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Validates that the aggregate value is a valid boolean.
+	 * 
+	 * @param aggregate The aggregate value as a string to be validated.
+	 * 
+	 * @return Returns null if the aggregate value is null or whitespace only;
+	 * 		   otherwise, it returns the boolean value.
+	 * 
+	 * @throws ValidationException Thrown if the aggregate value is not null,
+	 * 							   not whitespace only, and not a valid 
+	 * 							   boolean.
+	 */
+	public static Boolean validateAggregate(final String aggregate) 
+			throws ValidationException {
+		
+		if(StringUtils.isEmptyOrWhitespaceOnly(aggregate)) {
+			return null;
+		}
+		
+		Boolean result = StringUtils.decodeBoolean(aggregate.trim());
+		if(result == null) {
+			throw new ValidationException(
+					ErrorCode.AUDIT_INVALID_AGGREGATE,
+					"The aggregate value is not a valid boolean: " + 
+						aggregate);
+		}
+		
+		return result;
+	}
+}
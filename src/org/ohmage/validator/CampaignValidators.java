@@ -15,6 +15,7 @@
  ******************************************************************************/
 package org.ohmage.validator;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
@@ -23,8 +24,11 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.joda.time.DateTime;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.ohmage.annotator.Annotator.ErrorCode;
@@ -34,6 +38,7 @@ import org.ohmage.exception.DomainException;
 import org.ohmage.exception.ValidationException;
 import org.ohmage.request.InputKeys;
 import org.ohmage.util.DateTimeUtils;
+import org.ohmage.util.JsonUtils;
 import org.ohmage.util.StringUtils;
 
 /**
@@ -44,6 +49,19 @@ import org.ohmage.util.StringUtils;
 public final class CampaignValidators {
 	private static final Logger LOGGER = Logger.getLogger(CampaignValidators.class);
 	
+	// The factory for the uploaded survey responses' parsers. The json.org
+	// parser that was originally used allowed single quotes and unquoted
+	// field names, so they are allowed here as well.
+	private static final JsonFactory UPLOADED_JSON_FACTORY = new JsonFactory();
+	static {
+		UPLOADED_JSON_FACTORY.configure(
+				JsonParser.Feature.ALLOW_SINGLE_QUOTES, 
+				true);
+		UPLOADED_JSON_FACTORY.configure(
+				JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, 
+				true);
+	}
+	
 	/**
 	 * Default constructor. Made private to prevent instantiation.
 	 */
@@ -558,33 +576,130 @@ public final class CampaignValidators {
 			return null;
 		}
 
-		JSONArray surveyResponseJson;
 		try {
-			surveyResponseJson = new JSONArray(uploadValue);
+			return 
+				readUploadedJson(
+					UPLOADED_JSON_FACTORY.createJsonParser(uploadValue),
+					uploadValue);
 		}
-		catch(JSONException e) {
+		catch(IOException e) {
 			throw new ValidationException(
 					ErrorCode.SERVER_INVALID_JSON,
 					"The uploaded JSON was not a JSONArray.",
 					"The uploaded JSON was not a JSONArray: " + uploadValue, 
 					e);
 		}
-		int numResponses = surveyResponseJson.length();
-
-		List<JSONObject> result = new ArrayList<JSONObject>(numResponses);
-
-		for(int i = 0; i < numResponses; i++) {
-			try {
-				result.add(surveyResponseJson.getJSONObject(i));
+	}
+	
+	/**
+	 * Validates that the uploaded bytes are a UTF-8 encoded JSON array of 
+	 * JSON objects. The bytes are parsed directly, so the upload is never
+	 * copied into a single string.
+	 * 
+	 * @param uploadValue The bytes of the uploaded JSON.
+	 * 
+	 * @return A list of JSONObjects, one for each element in the array, in 
+	 * 		   the same order as the array. If the value is null or only
+	 * 		   whitespace, null is returned.
+	 * 
+	 * @throws ValidationException The value is not a JSON array or one of 
+	 * 							   its elements is not a JSON object.
+	 * 
+	 * @see #validateUploadedJson(String)
+	 */
+	public static List<JSONObject> validateUploadedJson(
+			final byte[] uploadValue) throws ValidationException {
+		LOGGER.info("Validating the uploaded JSON.");
+		
+		if(uploadValue == null) {
+			return null;
+		}
+		
+		int i = 0;
+		while((i < uploadValue.length) && 
+				Character.isWhitespace(uploadValue[i])) {
+			
+			i++;
+		}
+		if(i == uploadValue.length) {
+			return null;
+		}
+		
+		try {
+			return
+				readUploadedJson(
+					UPLOADED_JSON_FACTORY.createJsonParser(uploadValue),
+					null);
+		}
+		catch(IOException e) {
+			throw new ValidationException(
+					ErrorCode.SERVER_INVALID_JSON,
+					"The uploaded JSON was not a JSONArray.",
+					e);
+		}
+	}
+	
+	/**
+	 * Streams through the uploaded JSON array creating a JSONObject for each
+	 * of its elements.
+	 * 
+	 * @param parser The parser for the uploaded JSON.
+	 * 
+	 * @param uploadValue The uploaded value to include in the log if it is 
+	 * 					  not an array. This may be null.
+	 * 
+	 * @return The list of JSONObjects.
+	 * 
+	 * @throws ValidationException The value is not a JSON array or one of 
+	 * 							   its elements is not a JSON object.
+	 * 
+	 * @throws IOException The parser could not read the value.
+	 */
+	private static List<JSONObject> readUploadedJson(
+			final JsonParser parser,
+			final String uploadValue) 
+			throws ValidationException, IOException {
+		
+		try {
+			if(parser.nextToken() != JsonToken.START_ARRAY) {
+				if(uploadValue == null) {
+					throw new ValidationException(
+							ErrorCode.SERVER_INVALID_JSON,
+							"The uploaded JSON was not a JSONArray.");
+				}
+				else {
+					throw new ValidationException(
+							ErrorCode.SERVER_INVALID_JSON,
+							"The uploaded JSON was not a JSONArray.",
+							"The uploaded JSON was not a JSONArray: " + 
+								uploadValue);
+				}
 			}
-			catch(JSONException e) {
-				throw new ValidationException(
-						ErrorCode.SERVER_INVALID_JSON, 
-						"One of the survey responses was not valid JSON.", 
-						e);
+			
+			List<JSONObject> result = new ArrayList<JSONObject>();
+			
+			while(parser.nextToken() != JsonToken.END_ARRAY) {
+				try {
+					result.add(JsonUtils.readJsonObject(parser));
+				}
+				catch(JsonParseException e) {
+					throw new ValidationException(
+							ErrorCode.SERVER_INVALID_JSON, 
+							"One of the survey responses was not valid JSON.", 
+							e);
+				}
+				catch(JSONException e) {
+					throw new ValidationException(
+							ErrorCode.SERVER_INVALID_JSON, 
+							"One of the survey responses was not valid JSON.", 
+							e);
+				}
 			}
+			
+			return result;
+		}
+		finally {
+			parser.close();
 		}
-
-		return result;
 	}
 }
@@ -103,6 +103,82 @@ public final class ImageValidators {
 		}
 	}
 	
+	/**
+	 * Validates that the index of a part of an image export is a 
+	 * non-negative integer.
+	 * 
+	 * @param part The part to be validated.
+	 * 
+	 * @return Returns null if the part is null or whitespace only; otherwise,
+	 * 		   the part is returned.
+	 * 
+	 * @throws ValidationException Thrown if the part is not null, not 
+	 * 							   whitespace only, and not a non-negative
+	 * 							   integer.
+	 */
+	public static Integer validateZipPart(final String part)
+			throws ValidationException {
+		
+		if(StringUtils.isEmptyOrWhitespaceOnly(part)) {
+			return null;
+		}
+		
+		try {
+			int result = Integer.decode(part.trim());
+			if(result < 0) {
+				throw new ValidationException(
+						ErrorCode.IMAGE_INVALID_ZIP_PART, 
+						"The part cannot be negative: " + part);
+			}
+			return result;
+		}
+		catch(NumberFormatException e) {
+			throw new ValidationException(
+					ErrorCode.IMAGE_INVALID_ZIP_PART, 
+					"The part is not a number: " + part, 
+					e);
+		}
+	}
+	
+	/**
+	 * Validates that the number of images in each part of an image export is
+	 * a positive integer.
+	 * 
+	 * @param partSize The number of images to be validated.
+	 * 
+	 * @return Returns null if the value is null or whitespace only; 
+	 * 		   otherwise, the number of images is returned.
+	 * 
+	 * @throws ValidationException Thrown if the value is not null, not 
+	 * 							   whitespace only, and not a positive 
+	 * 							   integer.
+	 */
+	public static Integer validateZipPartSize(final String partSize)
+			throws ValidationException {
+		
+		if(StringUtils.isEmptyOrWhitespaceOnly(partSize)) {
+			return null;
+		}
+		
+		try {
+			int result = Integer.decode(partSize.trim());
+			if(result <= 0) {
+				throw new ValidationException(
+						ErrorCode.IMAGE_INVALID_ZIP_PART, 
+						"The number of images per part must be positive: " + 
+							partSize);
+			}
+			return result;
+		}
+		catch(NumberFormatException e) {
+			throw new ValidationException(
+					ErrorCode.IMAGE_INVALID_ZIP_PART, 
+					"The number of images per part is not a number: " + 
+						partSize, 
+					e);
+		}
+	}
+	
 	/**
 	 * Validates that an image's contents as a byte array are decodable as an 
 	 * image.
@@ -1,6 +1,8 @@
 package org.ohmage.validator;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -281,6 +283,52 @@ public class ObserverValidators {
 		}
 	}
 	
+	/**
+	 * Decodes the uploaded data as a JSON array of JSON objects. The data is
+	 * parsed as it is read, so it is never copied into a string.
+	 * 
+	 * @param value A stream of the UTF-8 bytes of the value.
+	 * 
+	 * @return A parser over the data or null if the value was null or only
+	 * 		   whitespace.
+	 * 
+	 * @throws ValidationException The data is invalid.
+	 */
+	public static final JsonParser validateData(
+			final InputStream value)
+			throws ValidationException {
+		
+		if(value == null) {
+			return null;
+		}
+		
+		try {
+			// Skip the leading whitespace to see if there is anything to 
+			// parse, then put the first byte back for the parser.
+			PushbackInputStream stream = new PushbackInputStream(value);
+			int b;
+			while(((b = stream.read()) != -1) && Character.isWhitespace(b)) {
+				// Keep skipping.
+			}
+			if(b == -1) {
+				return null;
+			}
+			stream.unread(b);
+			
+			return (new MappingJsonFactory()).createJsonParser(stream);
+		}
+		catch(JsonParseException e) {
+			throw
+				new ValidationException(
+					ErrorCode.OBSERVER_INVALID_STREAM_DATA,
+					"The data is not valid JSON.",
+					e);
+		}
+		catch(IOException e) {
+			throw new ValidationException("The data could not be read.", e);
+		}
+	}
+	
 	/**
 	 * Validates that a date is a valid date with or without time.
 	 * 
@@ -294,6 +294,95 @@ public final class SurveyResponseValidators {
 		return result;
 	}
 	
+	/**
+	 * Validates that a list of survey response IDs are valid survey response
+	 * IDs and that there are no more than some maximum number of them.
+	 * 
+	 * @param surveyResponseIds The list of survey response IDs as a string to 
+	 * 							be validated.
+	 * 
+	 * @param maxNumberOfIds The maximum number of distinct IDs that may be in
+	 * 						 the list.
+	 * 
+	 * @return A set of survey response IDs.
+	 * 
+	 * @throws ValidationException The survey response ID list was not null, 
+	 * 							   not whitespace only, and one or more of the
+	 * 							   IDs was not valid or there were too many of
+	 * 							   them.
+	 */
+	public static Set<UUID> validateSurveyResponseIds(
+			final String surveyResponseIds,
+			final int maxNumberOfIds)
+			throws ValidationException {
+		
+		Set<UUID> result = validateSurveyResponseIds(surveyResponseIds);
+		
+		if((result != null) && (result.size() > maxNumberOfIds)) {
+			throw new ValidationException(
+					ErrorCode.SURVEY_INVALID_SURVEY_ID,
+					"More than " +
+						maxNumberOfIds +
+						" survey response IDs were given: " +
+						result.size());
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Validates that a set of survey responses is selected either by a list
+	 * of their IDs or by their campaign, but not both, and that a date range
+	 * is only given with a campaign.
+	 * 
+	 * @param surveyResponseIds The survey responses' IDs, which may be null.
+	 * 
+	 * @param campaignId The campaign's ID, which may be null.
+	 * 
+	 * @param startDate The start of the date range, which may be null.
+	 * 
+	 * @param endDate The end of the date range, which may be null.
+	 * 
+	 * @throws ValidationException Neither or both of the survey response IDs
+	 * 							   and the campaign ID were given, or a date
+	 * 							   was given without a campaign ID.
+	 */
+	public static void validateSurveyResponseSelection(
+			final Set<UUID> surveyResponseIds,
+			final String campaignId,
+			final DateTime startDate,
+			final DateTime endDate)
+			throws ValidationException {
+		
+		if((surveyResponseIds == null) || surveyResponseIds.isEmpty()) {
+			if(campaignId == null) {
+				throw new ValidationException(
+						ErrorCode.SURVEY_INVALID_SURVEY_ID,
+						"Either a survey response ID list (" +
+							InputKeys.SURVEY_RESPONSE_ID_LIST +
+							") or a campaign ID (" +
+							InputKeys.CAMPAIGN_URN +
+							") is required.");
+			}
+		}
+		else if(campaignId != null) {
+			throw new ValidationException(
+					ErrorCode.SURVEY_INVALID_SURVEY_ID,
+					"Only one of a survey response ID list (" +
+						InputKeys.SURVEY_RESPONSE_ID_LIST +
+						") and a campaign ID (" +
+						InputKeys.CAMPAIGN_URN +
+						") may be given.");
+		}
+		
+		if((campaignId == null) && ((startDate != null) || (endDate != null))) {
+			throw new ValidationException(
+					ErrorCode.SERVER_INVALID_DATE,
+					"Dates may only be given with a campaign ID: " +
+						InputKeys.CAMPAIGN_URN);
+		}
+	}
+	
 	/**
 	 * Validates that a privacy state is a valid survey response privacy state.
 	 * 
@@ -17,6 +17,7 @@ package org.ohmage.validator;
 
 import org.joda.time.DateTime;
 import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.domain.BarChart;
 import org.ohmage.exception.ValidationException;
 import org.ohmage.util.StringUtils;
 import org.ohmage.util.DateTimeUtils;
@@ -228,4 +229,34 @@ public class VisualizationValidators {
 							aggregate);
 		}
 	}
+	
+	/**
+	 * Validates that an output format is one of the formats in which a chart
+	 * may be returned.
+	 * 
+	 * @param outputFormat The output format to be validated.
+	 * 
+	 * @return The output format or null if it was null or whitespace only.
+	 * 
+	 * @throws ValidationException Thrown if the output format is unknown.
+	 */
+	public static BarChart.OutputFormat validateOutputFormat(
+			final String outputFormat)
+			throws ValidationException {
+		
+		if(StringUtils.isEmptyOrWhitespaceOnly(outputFormat)) {
+			return null;
+		}
+		
+		try {
+			return BarChart.OutputFormat.valueOf(
+					outputFormat.trim().toUpperCase());
+		}
+		catch(IllegalArgumentException e) {
+			throw new ValidationException(
+					ErrorCode.VISUALIZATION_INVALID_OUTPUT_FORMAT,
+					"Unknown output format: " + outputFormat,
+					e);
+		}
+	}
 }
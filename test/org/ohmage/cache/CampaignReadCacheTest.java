@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.domain.campaign.CampaignVersion;
+
+/**
+ * Tests the campaign read cache.
+ */
+public class CampaignReadCacheTest extends TestCase {
+	/**
+	 * Creates the version of a campaign as seen by a participant.
+	 */
+	private static CampaignVersion version(
+			final String watermark,
+			final long maskCount,
+			final Campaign.Role... roles) {
+
+		return
+			new CampaignVersion(
+				"urn:campaign:test",
+				"Test",
+				false,
+				Arrays.asList(roles),
+				maskCount,
+				watermark);
+	}
+
+	/**
+	 * Tests that cached campaigns are returned and counted.
+	 */
+	@Test
+	public void testHit() {
+		CampaignReadCache cache = new CampaignReadCache(60000, 1024);
+
+		Assert.assertNull(cache.get("a"));
+		cache.put("a", "{}");
+		Assert.assertEquals("{}", cache.get("a"));
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(2, cache.getLength());
+	}
+
+	/**
+	 * Tests that the least-recently-used campaigns are evicted once the
+	 * cache is full and that campaigns that don't fit aren't cached.
+	 */
+	@Test
+	public void testEviction() {
+		CampaignReadCache cache = new CampaignReadCache(60000, 10);
+
+		cache.put("a", "aaaa");
+		cache.put("b", "bbbb");
+		cache.get("a");
+		cache.put("c", "cccc");
+
+		Assert.assertEquals("aaaa", cache.get("a"));
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals("cccc", cache.get("c"));
+		Assert.assertEquals(8, cache.getLength());
+
+		cache.put("d", "ddddddddddd");
+		Assert.assertNull(cache.get("d"));
+		Assert.assertEquals(2, cache.getSize());
+	}
+
+	/**
+	 * Tests that expired campaigns aren't returned.
+	 */
+	@Test
+	public void testExpiry() throws InterruptedException {
+		CampaignReadCache cache = new CampaignReadCache(10, 1024);
+
+		cache.put("a", "aaaa");
+		Thread.sleep(50);
+
+		Assert.assertNull(cache.get("a"));
+		Assert.assertEquals(0, cache.getSize());
+		Assert.assertEquals(0, cache.getLength());
+	}
+
+	/**
+	 * Tests that a key changes with the version and output format and only
+	 * includes the username when the campaign is specific to the user.
+	 */
+	@Test
+	public void testKey() {
+		CampaignVersion participant =
+			version("1", 0, Campaign.Role.PARTICIPANT);
+		CampaignVersion supervisor =
+			version("1", 0, Campaign.Role.SUPERVISOR);
+
+		Assert.assertEquals(
+			CampaignReadCache.getKey(
+				"a", participant, Campaign.OutputFormat.SHORT),
+			CampaignReadCache.getKey(
+				"b", participant, Campaign.OutputFormat.SHORT));
+		Assert.assertFalse(
+			CampaignReadCache.getKey(
+				"a", participant, Campaign.OutputFormat.LONG).equals(
+			CampaignReadCache.getKey(
+				"b", participant, Campaign.OutputFormat.LONG)));
+		Assert.assertEquals(
+			CampaignReadCache.getKey(
+				"a", supervisor, Campaign.OutputFormat.LONG),
+			CampaignReadCache.getKey(
+				"b", supervisor, Campaign.OutputFormat.LONG));
+
+		CampaignVersion masked = version("1", 1, Campaign.Role.SUPERVISOR);
+		Assert.assertFalse(
+			CampaignReadCache.getKey(
+				"a", masked, Campaign.OutputFormat.SHORT).equals(
+			CampaignReadCache.getKey(
+				"b", masked, Campaign.OutputFormat.SHORT)));
+
+		Assert.assertFalse(
+			CampaignReadCache.getKey(
+				"a", participant, Campaign.OutputFormat.SHORT).equals(
+			CampaignReadCache.getKey(
+				"a", supervisor, Campaign.OutputFormat.SHORT)));
+		Assert.assertFalse(
+			CampaignReadCache.getKey(
+				"a", participant, Campaign.OutputFormat.SHORT).equals(
+			CampaignReadCache.getKey(
+				"a",
+				version("2", 0, Campaign.Role.PARTICIPANT),
+				Campaign.OutputFormat.SHORT)));
+	}
+
+	/**
+	 * Tests that the entity tag depends on the keys and their order.
+	 */
+	@Test
+	public void testETag() {
+		String eTag = CampaignReadCache.getETag(Arrays.asList("a", "b"));
+
+		Assert.assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+		Assert.assertEquals(
+			eTag,
+			CampaignReadCache.getETag(Arrays.asList("a", "b")));
+		Assert.assertFalse(
+			eTag.equals(CampaignReadCache.getETag(Arrays.asList("b", "a"))));
+		Assert.assertFalse(
+			eTag.equals(CampaignReadCache.getETag(Arrays.asList("ab"))));
+		Assert.assertFalse(
+			eTag.equals(
+				CampaignReadCache.getETag(
+					Collections.<String>emptyList())));
+	}
+}
@@ -0,0 +1,464 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.cache;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ohmage.domain.MailOutboxMessage;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.query.IMailOutboxQueries;
+
+/**
+ * Tests the delivery, retrying and rate limiting of the queued mail against
+ * an in-process SMTP server.
+ */
+public class MailOutboxSenderTest extends TestCase {
+	private static final long INITIAL_BACKOFF_MILLIS = 1000;
+	
+	/**
+	 * An outbox that is kept in memory.
+	 */
+	private static final class MemoryOutbox implements IMailOutboxQueries {
+		private static final class Row {
+			private String recipient;
+			private byte[] message;
+			private long createdMillis;
+			private long nextAttemptMillis;
+			private int attempts = 0;
+			private String lastError = null;
+			private boolean failed = false;
+		}
+		
+		private final Map<Long, Row> rows = new TreeMap<Long, Row>();
+		private long nextId = 1;
+		
+		@Override
+		public synchronized void createMessage(
+				final String recipient,
+				final byte[] message,
+				final long createdMillis) {
+			
+			Row row = new Row();
+			row.recipient = recipient;
+			row.message = message;
+			row.createdMillis = createdMillis;
+			row.nextAttemptMillis = createdMillis;
+			rows.put(nextId++, row);
+		}
+		
+		@Override
+		public synchronized List<MailOutboxMessage> getDueMessages(
+				final long nowMillis,
+				final int limit) {
+			
+			List<MailOutboxMessage> result =
+				new ArrayList<MailOutboxMessage>();
+			for(Map.Entry<Long, Row> entry : rows.entrySet()) {
+				Row row = entry.getValue();
+				if((! row.failed) &&
+					(row.nextAttemptMillis <= nowMillis) &&
+					(result.size() < limit)) {
+					
+					result.add(
+						new MailOutboxMessage(
+							entry.getKey(),
+							row.recipient,
+							row.message,
+							row.createdMillis,
+							row.nextAttemptMillis,
+							row.attempts));
+				}
+			}
+			return result;
+		}
+		
+		@Override
+		public synchronized boolean claimMessage(
+				final long id,
+				final long expectedNextAttemptMillis,
+				final long leaseUntilMillis) {
+			
+			Row row = rows.get(id);
+			if((row == null) ||
+				row.failed ||
+				(row.nextAttemptMillis != expectedNextAttemptMillis)) {
+				
+				return false;
+			}
+			row.nextAttemptMillis = leaseUntilMillis;
+			row.attempts++;
+			return true;
+		}
+		
+		@Override
+		public synchronized void deleteMessage(final long id) {
+			rows.remove(id);
+		}
+		
+		@Override
+		public synchronized void rescheduleMessage(
+				final long id,
+				final long nextAttemptMillis,
+				final String error) {
+			
+			Row row = rows.get(id);
+			row.nextAttemptMillis = nextAttemptMillis;
+			row.lastError = error;
+		}
+		
+		@Override
+		public synchronized void failMessage(
+				final long id,
+				final String error) {
+			
+			Row row = rows.get(id);
+			row.failed = true;
+			row.lastError = error;
+			row.message = new byte[0];
+		}
+		
+		@Override
+		public synchronized MailOutboxMessage.Summary getSummary() {
+			long pending = 0;
+			long failed = 0;
+			for(Row row : rows.values()) {
+				if(row.failed) {
+					failed++;
+				}
+				else {
+					pending++;
+				}
+			}
+			return new MailOutboxMessage.Summary(pending, failed, null);
+		}
+		
+		private synchronized Row getOnlyRow() {
+			Assert.assertEquals(1, rows.size());
+			return rows.values().iterator().next();
+		}
+	}
+	
+	/**
+	 * A minimal SMTP server that accepts every message except those to
+	 * recipients whose address starts with "unknown".
+	 */
+	private static final class SmtpStub extends Thread {
+		private final ServerSocket serverSocket;
+		private final AtomicInteger connections = new AtomicInteger(0);
+		private final List<String> messages =
+			Collections.synchronizedList(new ArrayList<String>());
+		
+		private SmtpStub() throws IOException {
+			super("SMTP stub");
+			serverSocket = new ServerSocket(0, 5, InetAddress.getLoopbackAddress());
+			setDaemon(true);
+		}
+		
+		private int getPort() {
+			return serverSocket.getLocalPort();
+		}
+		
+		private void shutdown() throws IOException {
+			serverSocket.close();
+		}
+		
+		@Override
+		public void run() {
+			while(! serverSocket.isClosed()) {
+				try {
+					Socket socket = serverSocket.accept();
+					connections.incrementAndGet();
+					try {
+						converse(socket);
+					}
+					finally {
+						socket.close();
+					}
+				}
+				catch(IOException e) {
+					// The server was shut down or the client went away.
+				}
+			}
+		}
+		
+		private void converse(final Socket socket) throws IOException {
+			BufferedReader in =
+				new BufferedReader(
+					new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+			Writer out =
+				new OutputStreamWriter(socket.getOutputStream(), "US-ASCII");
+			
+			reply(out, "220 localhost SMTP stub");
+			String line;
+			while((line = in.readLine()) != null) {
+				String command = line.toUpperCase();
+				if(command.startsWith("RCPT TO:<UNKNOWN")) {
+					reply(out, "550 No such user");
+				}
+				else if(command.startsWith("DATA")) {
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					
+					StringBuilder message = new StringBuilder();
+					while(((line = in.readLine()) != null) &&
+						(! ".".equals(line))) {
+						
+						message.append(line).append("\n");
+					}
+					messages.add(message.toString());
+					reply(out, "250 OK");
+				}
+				else if(command.startsWith("QUIT")) {
+					reply(out, "221 Bye");
+					return;
+				}
+				else {
+					// EHLO, MAIL, RCPT, RSET and NOOP.
+					reply(out, "250 OK");
+				}
+			}
+		}
+		
+		private static void reply(
+				final Writer out,
+				final String reply)
+				throws IOException {
+			
+			out.write(reply + "\r\n");
+			out.flush();
+		}
+	}
+	
+	/**
+	 * A sender that connects to the SMTP stub without any preferences.
+	 */
+	private static final class StubSender extends MailOutboxSender {
+		private final Session session;
+		
+		private StubSender(
+				final IMailOutboxQueries outbox,
+				final int port,
+				final int maxPerSecond,
+				final int maxAttempts) {
+			
+			super(outbox, 50, maxPerSecond, maxAttempts, INITIAL_BACKOFF_MILLIS);
+			
+			Properties properties = new Properties();
+			properties.put("mail.smtp.host", "127.0.0.1");
+			properties.put("mail.smtp.port", Integer.toString(port));
+			properties.put("mail.smtp.connectiontimeout", "5000");
+			properties.put("mail.smtp.timeout", "5000");
+			session = Session.getInstance(properties);
+		}
+		
+		@Override
+		Session getSession() {
+			return session;
+		}
+		
+		@Override
+		Transport openTransport(
+				final Session session)
+				throws ServiceException {
+			
+			try {
+				Transport transport = session.getTransport("smtp");
+				transport.connect();
+				return transport;
+			}
+			catch(MessagingException e) {
+				throw new ServiceException(
+					"Could not connect to the mail server.",
+					e);
+			}
+		}
+	}
+	
+	private SmtpStub smtp;
+	private MemoryOutbox outbox;
+	
+	@Override
+	protected void setUp() throws Exception {
+		smtp = new SmtpStub();
+		smtp.start();
+		outbox = new MemoryOutbox();
+	}
+	
+	@Override
+	protected void tearDown() throws Exception {
+		smtp.shutdown();
+	}
+	
+	/**
+	 * Tests that the due messages are delivered over one connection and
+	 * removed from the outbox.
+	 */
+	@Test
+	public void testDelivery() throws Exception {
+		queue("first@example.com", "First");
+		queue("second@example.com", "Second");
+		queue("third@example.com", "Third");
+		
+		MailOutboxSender sender =
+			new StubSender(outbox, smtp.getPort(), 0, 3);
+		
+		Assert.assertEquals(3, sender.deliver(System.currentTimeMillis()));
+		Assert.assertEquals(3, sender.getSent());
+		Assert.assertEquals(0, outbox.getSummary().getPending());
+		Assert.assertEquals(1, smtp.connections.get());
+		Assert.assertEquals(3, smtp.messages.size());
+		Assert.assertTrue(smtp.messages.get(0).contains("Subject: First"));
+		
+		// Nothing is left to send.
+		Assert.assertEquals(0, sender.deliver(System.currentTimeMillis()));
+	}
+	
+	/**
+	 * Tests that a message is retried later when the mail server cannot be
+	 * reached and marked as failed after the last attempt.
+	 */
+	@Test
+	public void testRetry() throws Exception {
+		queue("user@example.com", "Retry");
+		
+		ServerSocket unused = new ServerSocket(0);
+		int closedPort = unused.getLocalPort();
+		unused.close();
+		
+		MailOutboxSender sender = new StubSender(outbox, closedPort, 0, 2);
+		
+		long before = System.currentTimeMillis();
+		Assert.assertEquals(0, sender.deliver(before));
+		Assert.assertEquals(1, sender.getConnectionFailures());
+		Assert.assertEquals(1, sender.getRetried());
+		
+		MemoryOutbox.Row row = outbox.getOnlyRow();
+		Assert.assertEquals(1, row.attempts);
+		Assert.assertFalse(row.failed);
+		Assert.assertNotNull(row.lastError);
+		Assert.assertTrue(
+			row.nextAttemptMillis >= before + INITIAL_BACKOFF_MILLIS);
+		
+		// It is not retried before its backoff.
+		Assert.assertEquals(0, sender.deliver(before));
+		Assert.assertEquals(1, row.attempts);
+		
+		// The second attempt is the last.
+		Assert.assertEquals(0, sender.deliver(row.nextAttemptMillis));
+		Assert.assertEquals(2, row.attempts);
+		Assert.assertTrue(row.failed);
+		Assert.assertEquals(0, row.message.length);
+		Assert.assertEquals("user@example.com", row.recipient);
+		Assert.assertEquals(1, sender.getFailed());
+		
+		// Once the server is back, a new message is delivered.
+		queue("user@example.com", "Recovered");
+		sender = new StubSender(outbox, smtp.getPort(), 0, 2);
+		Assert.assertEquals(1, sender.deliver(System.currentTimeMillis()));
+		Assert.assertEquals(1, outbox.getSummary().getFailed());
+		Assert.assertEquals(0, outbox.getSummary().getPending());
+	}
+	
+	/**
+	 * Tests that a message whose only recipient is rejected is not retried.
+	 */
+	@Test
+	public void testRejectedRecipient() throws Exception {
+		queue("unknown@example.com", "Rejected");
+		
+		MailOutboxSender sender =
+			new StubSender(outbox, smtp.getPort(), 0, 5);
+		
+		Assert.assertEquals(0, sender.deliver(System.currentTimeMillis()));
+		Assert.assertEquals(1, sender.getFailed());
+		Assert.assertEquals(0, sender.getRetried());
+		Assert.assertTrue(outbox.getOnlyRow().failed);
+		Assert.assertEquals(0, outbox.getOnlyRow().message.length);
+		Assert.assertTrue(smtp.messages.isEmpty());
+	}
+	
+	/**
+	 * Tests that the messages are not sent faster than the rate limit.
+	 */
+	@Test
+	public void testRateLimit() throws Exception {
+		queue("first@example.com", "First");
+		queue("second@example.com", "Second");
+		queue("third@example.com", "Third");
+		
+		MailOutboxSender sender =
+			new StubSender(outbox, smtp.getPort(), 10, 3);
+		
+		long start = System.currentTimeMillis();
+		Assert.assertEquals(3, sender.deliver(start));
+		Assert.assertTrue(System.currentTimeMillis() - start >= 200);
+	}
+	
+	/**
+	 * Adds a message to the outbox the same way the services do.
+	 * 
+	 * @param recipient The recipient's address.
+	 * 
+	 * @param subject The message's subject.
+	 */
+	private void queue(
+			final String recipient,
+			final String subject)
+			throws Exception {
+		
+		MimeMessage message =
+			new MimeMessage(Session.getInstance(new Properties()));
+		message.setFrom(new InternetAddress("ohmage@example.com"));
+		message.setRecipient(
+			Message.RecipientType.TO,
+			new InternetAddress(recipient));
+		message.setSubject(subject);
+		message.setContent("<p>" + subject + "</p>", "text/html");
+		message.saveChanges();
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		message.writeTo(bytes);
+		outbox.createMessage(
+			recipient,
+			bytes.toByteArray(),
+			System.currentTimeMillis());
+	}
+}
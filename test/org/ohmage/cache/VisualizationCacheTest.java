@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.cache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ohmage.exception.ServiceException;
+
+/**
+ * Tests the visualization cache.
+ */
+public class VisualizationCacheTest extends TestCase {
+	/**
+	 * A renderer that counts how many times it was called.
+	 */
+	private static class CountingRenderer
+			implements VisualizationCache.Renderer {
+
+		private final AtomicInteger renders = new AtomicInteger(0);
+		private final byte[] image;
+
+		private CountingRenderer(final byte[] image) {
+			this.image = image;
+		}
+
+		@Override
+		public byte[] render() throws ServiceException {
+			renders.incrementAndGet();
+			return image;
+		}
+	}
+
+	/**
+	 * Tests that a cached image is returned without rendering it again.
+	 */
+	@Test
+	public void testHit() throws ServiceException {
+		VisualizationCache cache = new VisualizationCache(60000, 1024);
+		CountingRenderer renderer = new CountingRenderer(new byte[] { 1 });
+
+		Assert.assertArrayEquals(new byte[] { 1 }, cache.get("a", renderer));
+		Assert.assertArrayEquals(new byte[] { 1 }, cache.get("a", renderer));
+		Assert.assertEquals(1, renderer.renders.get());
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+
+		cache.get("b", renderer);
+		Assert.assertEquals(2, renderer.renders.get());
+	}
+
+	/**
+	 * Tests that requests for an image that is being rendered wait for that
+	 * rendering.
+	 */
+	@Test
+	public void testCoalescing() throws Exception {
+		final VisualizationCache cache = new VisualizationCache(60000, 1024);
+		final CountDownLatch rendering = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger renders = new AtomicInteger(0);
+
+		final VisualizationCache.Renderer renderer =
+			new VisualizationCache.Renderer() {
+				@Override
+				public byte[] render() throws ServiceException {
+					renders.incrementAndGet();
+					rendering.countDown();
+					try {
+						release.await(10, TimeUnit.SECONDS);
+					}
+					catch(InterruptedException e) {
+						throw new ServiceException(e);
+					}
+					return new byte[] { 2 };
+				}
+			};
+
+		final byte[][] results = new byte[2][];
+		Thread first = new Thread() {
+			@Override
+			public void run() {
+				try {
+					results[0] = cache.get("a", renderer);
+				}
+				catch(ServiceException e) {
+					// The result will be null.
+				}
+			}
+		};
+		first.start();
+		Assert.assertTrue(rendering.await(10, TimeUnit.SECONDS));
+
+		Thread second = new Thread() {
+			@Override
+			public void run() {
+				try {
+					results[1] = cache.get("a", renderer);
+				}
+				catch(ServiceException e) {
+					// The result will be null.
+				}
+			}
+		};
+		second.start();
+
+		// Wait for the second request to join the first one's rendering.
+		long deadline = System.currentTimeMillis() + 10000;
+		while((cache.getCoalescedCount() == 0) &&
+				(System.currentTimeMillis() < deadline)) {
+
+			Thread.sleep(10);
+		}
+		release.countDown();
+		first.join(10000);
+		second.join(10000);
+
+		Assert.assertEquals(1, renders.get());
+		Assert.assertEquals(1, cache.getCoalescedCount());
+		Assert.assertArrayEquals(new byte[] { 2 }, results[0]);
+		Assert.assertArrayEquals(new byte[] { 2 }, results[1]);
+	}
+
+	/**
+	 * Tests that a failed rendering is not cached.
+	 */
+	@Test
+	public void testFailure() throws ServiceException {
+		VisualizationCache cache = new VisualizationCache(60000, 1024);
+
+		try {
+			cache.get(
+				"a",
+				new VisualizationCache.Renderer() {
+					@Override
+					public byte[] render() throws ServiceException {
+						throw new ServiceException("Rendering failed.");
+					}
+				});
+			fail("The rendering failed.");
+		}
+		catch(ServiceException e) {
+			Assert.assertEquals("Rendering failed.", e.getMessage());
+		}
+		Assert.assertEquals(1, cache.getFailureCount());
+
+		CountingRenderer renderer = new CountingRenderer(new byte[] { 3 });
+		Assert.assertArrayEquals(new byte[] { 3 }, cache.get("a", renderer));
+		Assert.assertEquals(1, renderer.renders.get());
+	}
+
+	/**
+	 * Tests that the least-recently-used images are evicted once the cache
+	 * is full and that expired images are rendered again.
+	 */
+	@Test
+	public void testEviction() throws Exception {
+		VisualizationCache cache = new VisualizationCache(60000, 2);
+		CountingRenderer renderer = new CountingRenderer(new byte[] { 4 });
+
+		cache.get("a", renderer);
+		cache.get("b", renderer);
+		cache.get("a", renderer);
+		cache.get("c", renderer);
+		Assert.assertEquals(2, cache.getSize());
+		Assert.assertEquals(2, cache.getBytes());
+
+		// "b" was the least recently used.
+		cache.get("b", renderer);
+		Assert.assertEquals(4, renderer.renders.get());
+
+		VisualizationCache expiring = new VisualizationCache(0, 1024);
+		renderer = new CountingRenderer(new byte[] { 5 });
+		expiring.get("a", renderer);
+		Thread.sleep(5);
+		expiring.get("a", renderer);
+		Assert.assertEquals(2, renderer.renders.get());
+	}
+}
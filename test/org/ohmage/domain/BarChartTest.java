@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import junit.framework.TestCase;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the stacked bar charts that the survey response visualizations are
+ * rendered as.
+ */
+public class BarChartTest extends TestCase {
+	// The color of the first series.
+	private static final int FIRST_SERIES_RGB = 0x1F77B4;
+	
+	/**
+	 * Tests that the JSON has the title, the categories, and each series' 
+	 * values in the order in which they were added.
+	 */
+	@Test
+	public void testToJson() throws Exception {
+		BarChart chart = 
+			new BarChart("Title", Arrays.asList("a", "b", "c"));
+		chart.addSeries("private", new long[] { 1, 0, 3 });
+		chart.addSeries("shared", new long[] { 0, 2, 0 });
+		
+		JSONObject json = chart.toJson();
+		Assert.assertEquals("Title", json.getString("title"));
+		
+		JSONArray categories = json.getJSONArray("categories");
+		Assert.assertEquals(3, categories.length());
+		Assert.assertEquals("a", categories.getString(0));
+		Assert.assertEquals("c", categories.getString(2));
+		
+		JSONObject series = json.getJSONObject("series");
+		Assert.assertEquals(2, series.length());
+		Assert.assertEquals(
+			"[1,0,3]", 
+			series.getJSONArray("private").toString());
+		Assert.assertEquals(
+			"[0,2,0]", 
+			series.getJSONArray("shared").toString());
+	}
+	
+	/**
+	 * Tests that the chart keeps its own copies of the categories and 
+	 * values.
+	 */
+	@Test
+	public void testCopies() throws Exception {
+		List<String> categories = new ArrayList<String>(Arrays.asList("a"));
+		long[] values = new long[] { 5 };
+		
+		BarChart chart = new BarChart(null, categories);
+		chart.addSeries("count", values);
+		categories.add("b");
+		values[0] = 6;
+		
+		Assert.assertEquals(Arrays.asList("a"), chart.getCategories());
+		Assert.assertEquals(
+			"[5]", 
+			chart.toJson().getJSONObject("series")
+				.getJSONArray("count").toString());
+		try {
+			chart.getCategories().add("c");
+			Assert.fail("The categories were modifiable.");
+		}
+		catch(UnsupportedOperationException e) {
+			// Expected.
+		}
+	}
+	
+	/**
+	 * Tests that invalid series are rejected.
+	 */
+	@Test
+	public void testInvalidSeries() {
+		BarChart chart = new BarChart(null, Arrays.asList("a", "b"));
+		chart.addSeries("count", new long[] { 1, 2 });
+		
+		assertInvalidSeries(chart, null, new long[] { 1, 2 });
+		assertInvalidSeries(chart, "other", null);
+		assertInvalidSeries(chart, "other", new long[] { 1 });
+		assertInvalidSeries(chart, "count", new long[] { 3, 4 });
+	}
+	
+	/**
+	 * Tests that the PNG is an image of the requested size that shows the
+	 * bars.
+	 */
+	@Test
+	public void testToPng() throws Exception {
+		BarChart chart = 
+			new BarChart("Title", Arrays.asList("2012-03-01", "2012-03-02"));
+		chart.addSeries("count", new long[] { 3, 7 });
+		
+		BufferedImage image = decode(chart.toPng(300, 200));
+		Assert.assertEquals(300, image.getWidth());
+		Assert.assertEquals(200, image.getHeight());
+		Assert.assertTrue(contains(image, FIRST_SERIES_RGB));
+	}
+	
+	/**
+	 * Tests that charts without categories or with only zeros are rendered
+	 * without bars, and that invalid sizes are rejected.
+	 */
+	@Test
+	public void testToPngWithoutBars() throws Exception {
+		BarChart empty = new BarChart(null, Collections.<String>emptyList());
+		Assert.assertFalse(
+			contains(decode(empty.toPng(100, 100)), FIRST_SERIES_RGB));
+		
+		BarChart zeros = new BarChart(null, Arrays.asList("a", "b"));
+		zeros.addSeries("count", new long[] { 0, 0 });
+		Assert.assertFalse(
+			contains(decode(zeros.toPng(100, 100)), FIRST_SERIES_RGB));
+		
+		// Too small to have a plot, but still an image.
+		Assert.assertEquals(1, decode(zeros.toPng(1, 1)).getWidth());
+		
+		try {
+			zeros.toPng(0, 100);
+			Assert.fail("A width of 0 was accepted.");
+		}
+		catch(IllegalArgumentException e) {
+			// Expected.
+		}
+	}
+	
+	/**
+	 * Asserts that a series cannot be added.
+	 */
+	private static void assertInvalidSeries(
+			final BarChart chart,
+			final String name,
+			final long[] values) {
+		
+		try {
+			chart.addSeries(name, values);
+			Assert.fail("The series was added: " + name);
+		}
+		catch(IllegalArgumentException e) {
+			// Expected.
+		}
+	}
+	
+	/**
+	 * Decodes a PNG.
+	 */
+	private static BufferedImage decode(final byte[] png) throws Exception {
+		BufferedImage result = ImageIO.read(new ByteArrayInputStream(png));
+		Assert.assertNotNull(result);
+		return result;
+	}
+	
+	/**
+	 * Returns whether any pixel in the image has the color.
+	 */
+	private static boolean contains(final BufferedImage image, final int rgb) {
+		for(int x = 0; x < image.getWidth(); x++) {
+			for(int y = 0; y < image.getHeight(); y++) {
+				if((image.getRGB(x, y) & 0xFFFFFF) == rgb) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
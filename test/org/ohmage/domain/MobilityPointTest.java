@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+import org.joda.time.DateTimeZone;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.ohmage.domain.Location.LocationColumnKey;
+import org.ohmage.domain.MobilityPoint.ClassifierData.ClassifierDataColumnKey;
+import org.ohmage.domain.MobilityPoint.MobilityColumnKey;
+import org.ohmage.domain.MobilityPoint.SensorData.AccelData;
+import org.ohmage.domain.MobilityPoint.SensorData.AccelData.AccelDataColumnKey;
+import org.ohmage.domain.MobilityPoint.SensorData.SensorDataColumnKey;
+import org.ohmage.domain.MobilityPoint.SensorData.WifiData.WifiDataColumnKey;
+
+/**
+ * Tests that the Mobility points' sensor and classifier data, which are
+ * stored in primitive arrays, are read back and written out the same way
+ * as the values they were built from, and which columns need them.
+ */
+public class MobilityPointTest extends TestCase {
+	private static final String TIMEZONE = "America/Los_Angeles";
+	private static final long TIME = 1330000000000L;
+	
+	private static final List<Double> FFT = Arrays.asList(1.5, 0.0, -2.25);
+	
+	/**
+	 * Tests a point whose readings are all present.
+	 */
+	@Test
+	public void testSensorData() throws Exception {
+		MobilityPoint point =
+			new MobilityPoint(
+				getPoint(
+					"walk",
+					accel(1.0, 2.0, 3.0),
+					accel(4.0, 5.0, 6.0)),
+				MobilityPoint.PrivacyState.PRIVATE);
+		point.setClassifierData(FFT, 0.5, 9.75, MobilityPoint.Mode.WALK);
+		
+		assertAccelData(
+			point,
+			Arrays.asList(1.0, 4.0),
+			Arrays.asList(2.0, 5.0),
+			Arrays.asList(3.0, 6.0));
+		Assert.assertEquals(FFT, point.getClassifierData().getFft());
+		
+		List<Object> row = toCsvRow(point);
+		Assert.assertEquals(
+			Arrays.asList("a", "b"),
+			get(row, WifiDataColumnKey.SSID));
+		Assert.assertEquals(
+			Arrays.asList(-40.0, -55.0),
+			get(row, WifiDataColumnKey.STRENGTH));
+		Assert.assertEquals(FFT, get(row, ClassifierDataColumnKey.FFT));
+		Assert.assertEquals(0.5, get(row, ClassifierDataColumnKey.VARIANCE));
+		Assert.assertEquals(9.75, get(row, ClassifierDataColumnKey.AVERAGE));
+		
+		JSONObject json = point.toJson(false, MobilityColumnKey.ALL_COLUMNS);
+		JSONArray accelData = getAccelData(json);
+		Assert.assertEquals(2, accelData.length());
+		assertAccel(accelData.getJSONObject(1), 4.0, 5.0, 6.0);
+		JSONArray fft =
+			json.getJSONObject(MobilityColumnKey.CLASSIFIER_DATA.toString(false))
+				.getJSONArray(ClassifierDataColumnKey.FFT.toString(false));
+		Assert.assertEquals("[1.5,0,-2.25]", fft.toString());
+		
+		assertRebuilt(point);
+	}
+	
+	/**
+	 * Tests a point in 'ERROR' mode whose readings are missing some of their
+	 * components, which must be read back and written out as missing rather
+	 * than as NaN.
+	 */
+	@Test
+	public void testErrorMode() throws Exception {
+		JSONObject invalid = new JSONObject();
+		invalid.put("y", 2.0);
+		invalid.put("z", "invalid");
+		
+		MobilityPoint point =
+			new MobilityPoint(
+				getPoint("error", accel(1.0, null, null), invalid),
+				MobilityPoint.PrivacyState.PRIVATE);
+		point.setClassifierData(FFT, null, null, MobilityPoint.Mode.ERROR);
+		
+		assertAccelData(
+			point,
+			Arrays.asList(1.0, null),
+			Arrays.asList(null, 2.0),
+			Arrays.<Double>asList(null, null));
+		Assert.assertNull(point.getClassifierData().getVariance());
+		Assert.assertNull(point.getClassifierData().getAverage());
+		
+		List<Object> row = toCsvRow(point);
+		Assert.assertEquals(
+			Arrays.asList(1.0, null),
+			get(row, AccelDataColumnKey.X));
+		Assert.assertEquals(
+			Arrays.asList(null, 2.0),
+			get(row, AccelDataColumnKey.Y));
+		Assert.assertEquals(
+			Arrays.<Double>asList(null, null),
+			get(row, AccelDataColumnKey.Z));
+		Assert.assertNull(get(row, ClassifierDataColumnKey.VARIANCE));
+		
+		JSONObject json = point.toJson(false, MobilityColumnKey.ALL_COLUMNS);
+		JSONArray accelData = getAccelData(json);
+		assertAccel(accelData.getJSONObject(0), 1.0, null, null);
+		assertAccel(accelData.getJSONObject(1), null, 2.0, null);
+		Assert.assertFalse(json.toString().contains("NaN"));
+		
+		assertRebuilt(point);
+	}
+	
+	/**
+	 * Tests which columns need the points' sensor and classifier data, which
+	 * decides whether the CSV export reads them at all.
+	 */
+	@Test
+	public void testRequiresSensorData() {
+		assertRequiresSensorData(false);
+		assertRequiresSensorData(
+			false,
+			MobilityColumnKey.ID,
+			MobilityColumnKey.TIME,
+			MobilityColumnKey.TIMESTAMP,
+			MobilityColumnKey.TIMEZONE,
+			MobilityColumnKey.MODE,
+			MobilityColumnKey.LOCATION,
+			LocationColumnKey.LATITUDE,
+			LocationColumnKey.LONGITUDE);
+		
+		assertRequiresSensorData(true, MobilityColumnKey.SUB_TYPE);
+		assertRequiresSensorData(true, MobilityColumnKey.SENSOR_DATA);
+		assertRequiresSensorData(true, MobilityColumnKey.CLASSIFIER_DATA);
+		assertRequiresSensorData(true, SensorDataColumnKey.SPEED);
+		assertRequiresSensorData(true, AccelDataColumnKey.X);
+		assertRequiresSensorData(true, WifiDataColumnKey.SSID);
+		assertRequiresSensorData(true, ClassifierDataColumnKey.FFT);
+		assertRequiresSensorData(
+			true, 
+			MobilityColumnKey.ID, 
+			ClassifierDataColumnKey.VARIANCE);
+		
+		Assert.assertTrue(
+			MobilityColumnKey.requiresSensorData(
+				MobilityColumnKey.ALL_COLUMNS));
+	}
+	
+	/**
+	 * Asserts whether some columns need the sensor and classifier data.
+	 */
+	private static void assertRequiresSensorData(
+			final boolean expected,
+			final ColumnKey... columns) {
+		
+		Assert.assertEquals(
+			Arrays.asList(columns).toString(),
+			expected,
+			MobilityColumnKey.requiresSensorData(Arrays.asList(columns)));
+	}
+	
+	/**
+	 * Asserts the point's accelerometer readings through both of its views,
+	 * the AccelData objects and the CSV columns.
+	 */
+	private static void assertAccelData(
+			final MobilityPoint point,
+			final List<Double> x,
+			final List<Double> y,
+			final List<Double> z)
+			throws Exception {
+		
+		List<AccelData> accelData = point.getSensorData().getAccelData();
+		Assert.assertEquals(x.size(), accelData.size());
+		for(int i = 0; i < x.size(); i++) {
+			Assert.assertEquals(x.get(i), accelData.get(i).getX());
+			Assert.assertEquals(y.get(i), accelData.get(i).getY());
+			Assert.assertEquals(z.get(i), accelData.get(i).getZ());
+		}
+		
+		List<Object> row = toCsvRow(point);
+		Assert.assertEquals(x, get(row, AccelDataColumnKey.X));
+		Assert.assertEquals(y, get(row, AccelDataColumnKey.Y));
+		Assert.assertEquals(z, get(row, AccelDataColumnKey.Z));
+	}
+	
+	/**
+	 * Asserts that building the point from its stored columns, the way the
+	 * Mobility queries do, gives the same JSON and CSV.
+	 */
+	private static void assertRebuilt(
+			final MobilityPoint point)
+			throws Exception {
+		
+		MobilityPoint rebuilt =
+			new MobilityPoint(
+				point.getId(),
+				point.getTime(),
+				point.getTimezone(),
+				point.getLocationStatus(),
+				point.getLocation().toJson(
+					false,
+					LocationColumnKey.ALL_COLUMNS),
+				point.getMode(),
+				MobilityPoint.PrivacyState.PRIVATE,
+				point.getSensorData().toJson(
+					false,
+					SensorDataColumnKey.ALL_COLUMNS),
+				point.getClassifierData().toJson(
+					false,
+					ClassifierDataColumnKey.ALL_COLUMNS),
+				"test");
+		
+		Assert.assertEquals(
+			point.toJson(true, MobilityColumnKey.ALL_COLUMNS).toString(),
+			rebuilt.toJson(true, MobilityColumnKey.ALL_COLUMNS).toString());
+		Assert.assertEquals(toCsvRow(point), toCsvRow(rebuilt));
+	}
+	
+	/**
+	 * Returns a point's row with every column.
+	 */
+	private static List<Object> toCsvRow(
+			final MobilityPoint point)
+			throws Exception {
+		
+		List<Object> result =
+			new ArrayList<Object>(MobilityColumnKey.ALL_COLUMNS.size());
+		for(int i = 0; i < MobilityColumnKey.ALL_COLUMNS.size(); i++) {
+			result.add(null);
+		}
+		point.toCsvRow(MobilityColumnKey.ALL_COLUMNS, result);
+		return result;
+	}
+	
+	/**
+	 * Returns a column's value from a row with every column.
+	 */
+	private static Object get(
+			final List<Object> row,
+			final ColumnKey column) {
+		
+		return row.get(MobilityColumnKey.ALL_COLUMNS.indexOf(column));
+	}
+	
+	/**
+	 * Returns the accelerometer readings from a point's JSON.
+	 */
+	private static JSONArray getAccelData(
+			final JSONObject point)
+			throws Exception {
+		
+		return
+			point.getJSONObject(MobilityColumnKey.SENSOR_DATA.toString(false))
+				.getJSONArray(
+					SensorDataColumnKey.ACCELEROMETER_DATA.toString(false));
+	}
+	
+	/**
+	 * Asserts an accelerometer reading's JSON, where a null component must be
+	 * left out.
+	 */
+	private static void assertAccel(
+			final JSONObject accel,
+			final Double x,
+			final Double y,
+			final Double z)
+			throws Exception {
+		
+		Double[] values = new Double[] { x, y, z };
+		String[] keys = new String[] { "x", "y", "z" };
+		for(int i = 0; i < keys.length; i++) {
+			if(values[i] == null) {
+				Assert.assertFalse(accel.has(keys[i]));
+			}
+			else {
+				Assert.assertEquals(
+					values[i].doubleValue(), 
+					accel.getDouble(keys[i]), 
+					0.0);
+			}
+		}
+		Assert.assertEquals(
+			keys.length - Collections.frequency(Arrays.asList(values), null), 
+			accel.length());
+	}
+	
+	/**
+	 * Builds an accelerometer reading, leaving out the null components.
+	 */
+	private static JSONObject accel(
+			final Double x,
+			final Double y,
+			final Double z)
+			throws Exception {
+		
+		JSONObject result = new JSONObject();
+		result.putOpt("x", x);
+		result.putOpt("y", y);
+		result.putOpt("z", z);
+		return result;
+	}
+	
+	/**
+	 * Builds a "sensor_data" point as the Mobility client uploads it.
+	 */
+	private static JSONObject getPoint(
+			final String mode,
+			final JSONObject... accelData)
+			throws Exception {
+		
+		JSONObject location = new JSONObject();
+		location.put("latitude", 34.0689);
+		location.put("longitude", -118.4452);
+		location.put("accuracy", 5.0);
+		location.put("provider", "gps");
+		location.put("time", TIME - 1000);
+		location.put("timezone", TIMEZONE);
+		
+		JSONArray scan = new JSONArray();
+		scan.put(new JSONObject().put("ssid", "a").put("strength", -40));
+		scan.put(new JSONObject().put("ssid", "b").put("strength", -55));
+		
+		JSONObject wifiData = new JSONObject();
+		wifiData.put("time", TIME - 500);
+		wifiData.put("timezone", TIMEZONE);
+		wifiData.put("scan", scan);
+		
+		JSONObject data = new JSONObject();
+		data.put("mode", mode);
+		data.put("speed", 1.25);
+		data.put("accel_data", new JSONArray(Arrays.asList(accelData)));
+		data.put("wifi_data", wifiData);
+		
+		JSONObject result = new JSONObject();
+		result.put("id", UUID.randomUUID().toString());
+		result.put("time", TIME);
+		result.put("timezone", DateTimeZone.forID(TIMEZONE).getID());
+		result.put("location_status", "valid");
+		result.put("location", location);
+		result.put("subtype", "sensor_data");
+		result.put("data", data);
+		return result;
+	}
+}
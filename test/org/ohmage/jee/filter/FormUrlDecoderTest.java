@@ -0,0 +1,434 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.jee.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ohmage.jee.filter.FormUrlDecoder.MalformedFormException;
+
+/**
+ * Tests decoding "application/x-www-form-urlencoded" bodies.
+ */
+public class FormUrlDecoderTest extends TestCase {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	/**
+	 * A threshold that none of the small bodies reach.
+	 */
+	private static final int LARGE_THRESHOLD = 1024 * 1024;
+	
+	/**
+	 * The size of the decoder's read buffer.
+	 */
+	private static final int READ_BUFFER_SIZE = 8192;
+	
+	/**
+	 * The euro sign, which is three bytes in UTF-8.
+	 */
+	private static final String EURO = "\u20AC";
+	
+	/**
+	 * An emoji, which is four bytes in UTF-8.
+	 */
+	private static final String EMOJI = "\uD83D\uDE00";
+	
+	private Map<String, List<String>> parameters;
+	private Map<String, List<StreamedParameter>> streamedParameters;
+	
+	/**
+	 * Clears the decoded parameters.
+	 */
+	@Override
+	public void setUp() {
+		parameters = new HashMap<String, List<String>>();
+		streamedParameters = new HashMap<String, List<StreamedParameter>>();
+	}
+	
+	/**
+	 * Tests that simple pairs are decoded and repeated keys keep every value
+	 * in order.
+	 */
+	@Test
+	public void testPairs() throws Exception {
+		decode("a=1&b=2&a=3", LARGE_THRESHOLD);
+		
+		Assert.assertEquals(2, parameters.size());
+		Assert.assertEquals(Arrays.asList("1", "3"), parameters.get("a"));
+		Assert.assertEquals(Arrays.asList("2"), parameters.get("b"));
+		Assert.assertTrue(streamedParameters.isEmpty());
+	}
+	
+	/**
+	 * Tests that empty pairs, including leading and trailing '&'s and empty
+	 * bodies, are ignored.
+	 */
+	@Test
+	public void testEmptyPairs() throws Exception {
+		decode("a=1&&b=2&", LARGE_THRESHOLD);
+		Assert.assertEquals(2, parameters.size());
+		Assert.assertEquals(Arrays.asList("1"), parameters.get("a"));
+		Assert.assertEquals(Arrays.asList("2"), parameters.get("b"));
+		
+		setUp();
+		decode("&a=1", LARGE_THRESHOLD);
+		Assert.assertEquals(1, parameters.size());
+		Assert.assertEquals(Arrays.asList("1"), parameters.get("a"));
+		
+		setUp();
+		decode("", LARGE_THRESHOLD);
+		Assert.assertTrue(parameters.isEmpty());
+		
+		setUp();
+		decode("&&", LARGE_THRESHOLD);
+		Assert.assertTrue(parameters.isEmpty());
+	}
+	
+	/**
+	 * Tests that a value may be empty and that a key may be empty, as they
+	 * were before the body was decoded as a stream.
+	 */
+	@Test
+	public void testEmptyKeysAndValues() throws Exception {
+		decode("a=&b=2", LARGE_THRESHOLD);
+		Assert.assertEquals(Arrays.asList(""), parameters.get("a"));
+		Assert.assertEquals(Arrays.asList("2"), parameters.get("b"));
+		
+		setUp();
+		decode("=1&b=2", LARGE_THRESHOLD);
+		Assert.assertEquals(Arrays.asList("1"), parameters.get(""));
+		Assert.assertEquals(Arrays.asList("2"), parameters.get("b"));
+		
+		setUp();
+		decode("=", LARGE_THRESHOLD);
+		Assert.assertEquals(Arrays.asList(""), parameters.get(""));
+	}
+	
+	/**
+	 * Tests that a key without a '=' is rejected, wherever it is in the
+	 * body.
+	 */
+	@Test
+	public void testKeyWithoutValue() throws Exception {
+		assertMalformed("a");
+		assertMalformed("a&b=2");
+		assertMalformed("a=1&b");
+		assertMalformed("a=1&b&");
+	}
+	
+	/**
+	 * Tests that a value with another '=' is rejected, unless it is encoded.
+	 */
+	@Test
+	public void testExtraEquals() throws Exception {
+		assertMalformed("a=1=2");
+		assertMalformed("a==");
+		assertMalformed("a=1&b=x=y&c=3");
+		
+		setUp();
+		decode("a=1%3D2", LARGE_THRESHOLD);
+		Assert.assertEquals(Arrays.asList("1=2"), parameters.get("a"));
+	}
+	
+	/**
+	 * Tests that '+' is a space in keys and values and that an encoded '+'
+	 * is kept.
+	 */
+	@Test
+	public void testPlus() throws Exception {
+		decode("a+b=c+d&e=%2B+%2b&f=+", LARGE_THRESHOLD);
+		
+		Assert.assertEquals(Arrays.asList("c d"), parameters.get("a b"));
+		Assert.assertEquals(Arrays.asList("+ +"), parameters.get("e"));
+		Assert.assertEquals(Arrays.asList(" "), parameters.get("f"));
+	}
+	
+	/**
+	 * Tests that escapes are decoded in keys and values with either case of
+	 * hexadecimal digit.
+	 */
+	@Test
+	public void testEscapes() throws Exception {
+		decode("%61%62=%26%3d%25&c=%7e%7E", LARGE_THRESHOLD);
+		
+		Assert.assertEquals(Arrays.asList("&=%"), parameters.get("ab"));
+		Assert.assertEquals(Arrays.asList("~~"), parameters.get("c"));
+	}
+	
+	/**
+	 * Tests that escapes without two hexadecimal digits are rejected,
+	 * including those that are cut off by the end of the body.
+	 */
+	@Test
+	public void testMalformedEscapes() throws Exception {
+		assertMalformed("a=%G1");
+		assertMalformed("a=%1G");
+		assertMalformed("a=%+1");
+		assertMalformed("a=%%41");
+		assertMalformed("%ZZ=1");
+		assertMalformed("a=%");
+		assertMalformed("a=%4");
+		assertMalformed("a=1%");
+		assertMalformed("a%=1");
+		assertMalformed("a=%4&b=2");
+	}
+	
+	/**
+	 * Tests that multibyte characters are decoded whether they are sent as
+	 * raw bytes or as escapes, when the stream returns as little as one byte
+	 * at a time.
+	 */
+	@Test
+	public void testMultibyteSplitReads() throws Exception {
+		String body =
+			"k" + EURO + "=" + EURO + EMOJI +
+				"&e=%E2%82%AC%F0%9F%98%80" +
+				"&m=a" + EURO + "b%e2%82%acc";
+		
+		for(int chunkSize = 1; chunkSize <= 5; chunkSize++) {
+			setUp();
+			new FormUrlDecoder(
+					new ChunkedInputStream(body.getBytes(UTF_8), chunkSize),
+					LARGE_THRESHOLD)
+				.decode(parameters, streamedParameters);
+			
+			Assert.assertEquals(
+				Arrays.asList(EURO + EMOJI),
+				parameters.get("k" + EURO));
+			Assert.assertEquals(
+				Arrays.asList(EURO + EMOJI),
+				parameters.get("e"));
+			Assert.assertEquals(
+				Arrays.asList("a" + EURO + "b" + EURO + "c"),
+				parameters.get("m"));
+		}
+	}
+	
+	/**
+	 * Tests that multibyte characters and escapes that straddle the end of
+	 * the decoder's read buffer are decoded.
+	 */
+	@Test
+	public void testMultibyteAcrossReadBuffer() throws Exception {
+		// "a=" and the padding end one byte before the buffer does, so the
+		// three bytes of the raw character are split 1 / 2.
+		String padding = repeat('x', READ_BUFFER_SIZE - 3);
+		decode("a=" + padding + EURO, LARGE_THRESHOLD);
+		Assert.assertEquals(
+			Arrays.asList(padding + EURO),
+			parameters.get("a"));
+		
+		// The same, but the split falls inside an escape.
+		for(int offset = 1; offset <= 9; offset++) {
+			setUp();
+			padding = repeat('x', READ_BUFFER_SIZE - 2 - offset);
+			decode("a=" + padding + "%E2%82%AC", LARGE_THRESHOLD);
+			Assert.assertEquals(
+				Arrays.asList(padding + EURO),
+				parameters.get("a"));
+		}
+		
+		// A malformed escape cut off by the buffer is still rejected.
+		assertMalformed(
+			"a=" + repeat('x', READ_BUFFER_SIZE - 3) + "%4G");
+	}
+	
+	/**
+	 * Tests that a value one byte short of the threshold is a string and
+	 * that one of the threshold's size is streamed, counting decoded bytes.
+	 */
+	@Test
+	public void testStreamThreshold() throws Exception {
+		int threshold = 100;
+		
+		String below = repeat('x', threshold - 1);
+		String at = repeat('y', threshold);
+		// Each escape is three bytes in the body but one decoded byte.
+		String escaped = repeat("%7A", threshold);
+		
+		decode(
+			"small=" + below +
+				"&large=" + at +
+				"&escaped=" + escaped +
+				"&large=" + below,
+			threshold);
+		
+		Assert.assertEquals(Arrays.asList(below), parameters.get("small"));
+		Assert.assertEquals(Arrays.asList(below), parameters.get("large"));
+		Assert.assertFalse(parameters.containsKey("escaped"));
+		
+		List<StreamedParameter> large = streamedParameters.get("large");
+		Assert.assertEquals(1, large.size());
+		Assert.assertEquals(threshold, large.get(0).length());
+		Assert.assertEquals(at, large.get(0).toString());
+		
+		List<StreamedParameter> streamedEscaped =
+			streamedParameters.get("escaped");
+		Assert.assertEquals(1, streamedEscaped.size());
+		Assert.assertEquals(
+			repeat('z', threshold),
+			streamedEscaped.get(0).toString());
+	}
+	
+	/**
+	 * Tests that a streamed value that spans several chunks and several
+	 * read buffers keeps every byte, including multibyte characters, and can
+	 * be read more than once.
+	 */
+	@Test
+	public void testLargeStreamedValue() throws Exception {
+		StringBuilder expected = new StringBuilder();
+		StringBuilder body = new StringBuilder("data=");
+		for(int i = 0; i < 10000; i++) {
+			expected.append(i).append(EURO).append(' ');
+			body.append(i).append("%E2%82%AC+");
+		}
+		
+		new FormUrlDecoder(
+				new ChunkedInputStream(
+					body.toString().getBytes(UTF_8),
+					READ_BUFFER_SIZE - 1),
+				1024)
+			.decode(parameters, streamedParameters);
+		
+		Assert.assertTrue(parameters.isEmpty());
+		StreamedParameter value = streamedParameters.get("data").get(0);
+		byte[] expectedBytes = expected.toString().getBytes(UTF_8);
+		Assert.assertEquals(expectedBytes.length, value.length());
+		Assert.assertArrayEquals(expectedBytes, value.toByteArray());
+		Assert.assertArrayEquals(expectedBytes, readFully(value));
+		Assert.assertArrayEquals(expectedBytes, readFully(value));
+	}
+	
+	/**
+	 * Decodes a body into the parameter maps.
+	 */
+	private void decode(
+			final String body,
+			final int threshold)
+			throws Exception {
+		
+		new FormUrlDecoder(
+				new ByteArrayInputStream(body.getBytes(UTF_8)),
+				threshold)
+			.decode(parameters, streamedParameters);
+	}
+	
+	/**
+	 * Asserts that a body is rejected.
+	 */
+	private void assertMalformed(final String body) throws Exception {
+		setUp();
+		try {
+			decode(body, LARGE_THRESHOLD);
+			Assert.fail("The body was not rejected: " + body);
+		}
+		catch(MalformedFormException e) {
+			// Expected.
+		}
+	}
+	
+	/**
+	 * Reads a streamed value through its stream.
+	 */
+	private static byte[] readFully(final StreamedParameter value)
+			throws Exception {
+		
+		byte[] result = new byte[(int) value.length()];
+		InputStream stream = value.getInputStream();
+		int offset = 0;
+		int read;
+		// Use an odd buffer size so reads cross the chunk boundaries.
+		while((read =
+				stream.read(
+					result,
+					offset,
+					Math.min(1000, result.length - offset))) > 0) {
+			
+			offset += read;
+		}
+		Assert.assertEquals(-1, stream.read());
+		return result;
+	}
+	
+	/**
+	 * Repeats a character.
+	 */
+	private static String repeat(final char c, final int count) {
+		char[] result = new char[count];
+		Arrays.fill(result, c);
+		return new String(result);
+	}
+	
+	/**
+	 * Repeats a string.
+	 */
+	private static String repeat(final String s, final int count) {
+		StringBuilder result = new StringBuilder(s.length() * count);
+		for(int i = 0; i < count; i++) {
+			result.append(s);
+		}
+		return result.toString();
+	}
+	
+	/**
+	 * A stream that never returns more than a fixed number of bytes from
+	 * each read, like a network or inflating stream.
+	 */
+	private static final class ChunkedInputStream extends InputStream {
+		private final byte[] bytes;
+		private final int chunkSize;
+		private int position = 0;
+		
+		private ChunkedInputStream(final byte[] bytes, final int chunkSize) {
+			this.bytes = bytes;
+			this.chunkSize = chunkSize;
+		}
+		
+		@Override
+		public int read() {
+			if(position >= bytes.length) {
+				return -1;
+			}
+			return bytes[position++] & 0xff;
+		}
+		
+		@Override
+		public int read(final byte[] b, final int off, final int len) {
+			if(len == 0) {
+				return 0;
+			}
+			if(position >= bytes.length) {
+				return -1;
+			}
+			
+			int count =
+				Math.min(Math.min(len, chunkSize), bytes.length - position);
+			System.arraycopy(bytes, position, b, off, count);
+			position += count;
+			return count;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the conditions that searches add for the prompt response search 
+ * index.
+ */
+public class PromptResponseTokenIndexTest extends TestCase {
+	private static final String CAMPAIGN_ID = "urn:campaign:test";
+	
+	private static final String SQL_BASE = 
+		"SELECT pr.id FROM prompt_response pr WHERE pr.id > 0";
+	
+	private static final String SQL_WHERE_TOKEN =
+		" AND pr.id IN (" +
+			"SELECT t.prompt_response_id " +
+			"FROM prompt_response_token t " +
+			"WHERE t.campaign_id = (SELECT id FROM campaign WHERE urn = ?) " +
+			"AND t.token LIKE ?" +
+		")";
+	
+	/**
+	 * Tests that each distinct word adds one sub-select, in order, with the
+	 * campaign and the word as a prefix.
+	 */
+	@Test
+	public void testWords() {
+		StringBuilder sqlBuilder = new StringBuilder(SQL_BASE);
+		List<Object> parameters = new ArrayList<Object>();
+		parameters.add("existing");
+		
+		Assert.assertTrue(
+			PromptResponseTokenIndex.appendWords(
+				CAMPAIGN_ID, 
+				Arrays.asList("Hello world", "HELLO", "café"), 
+				sqlBuilder, 
+				parameters));
+		
+		Assert.assertEquals(
+			SQL_BASE + SQL_WHERE_TOKEN + SQL_WHERE_TOKEN + SQL_WHERE_TOKEN, 
+			sqlBuilder.toString());
+		Assert.assertEquals(
+			Arrays.<Object>asList(
+				"existing",
+				CAMPAIGN_ID, "hello%", 
+				CAMPAIGN_ID, "world%", 
+				CAMPAIGN_ID, "café%"),
+			parameters);
+	}
+	
+	/**
+	 * Tests that search tokens without any words leave the query alone.
+	 */
+	@Test
+	public void testNoWords() {
+		StringBuilder sqlBuilder = new StringBuilder(SQL_BASE);
+		List<Object> parameters = new ArrayList<Object>();
+		
+		Assert.assertFalse(
+			PromptResponseTokenIndex.appendWords(
+				CAMPAIGN_ID, 
+				Arrays.asList("%", "_", "--"), 
+				sqlBuilder, 
+				parameters));
+		Assert.assertFalse(
+			PromptResponseTokenIndex.appendWords(
+				CAMPAIGN_ID, 
+				Collections.<String>emptyList(), 
+				sqlBuilder, 
+				parameters));
+		
+		Assert.assertEquals(SQL_BASE, sqlBuilder.toString());
+		Assert.assertTrue(parameters.isEmpty());
+	}
+	
+	/**
+	 * Tests that the characters that are special in a LIKE pattern are 
+	 * escaped and that a "%" or "_" in a search token is never a wildcard in
+	 * the prefix.
+	 */
+	@Test
+	public void testEscaping() {
+		Assert.assertEquals("abc", PromptResponseTokenIndex.escapeLike("abc"));
+		Assert.assertEquals(
+			"50\\%\\_off\\\\", 
+			PromptResponseTokenIndex.escapeLike("50%_off\\"));
+		
+		StringBuilder sqlBuilder = new StringBuilder(SQL_BASE);
+		List<Object> parameters = new ArrayList<Object>();
+		PromptResponseTokenIndex.appendWords(
+			CAMPAIGN_ID, 
+			Arrays.asList("50%_off"), 
+			sqlBuilder, 
+			parameters);
+		Assert.assertEquals(
+			Arrays.<Object>asList(
+				CAMPAIGN_ID, "50%", 
+				CAMPAIGN_ID, "off%"),
+			parameters);
+	}
+}
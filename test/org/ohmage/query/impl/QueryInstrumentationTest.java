@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.query.impl;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the statement fingerprints used by the query instrumentation.
+ */
+public class QueryInstrumentationTest extends TestCase {
+	/**
+	 * Tests that literals are replaced and whitespace is collapsed.
+	 */
+	@Test
+	public void testLiterals() {
+		Assert.assertEquals(
+			"SELECT id FROM user WHERE username = ? AND admin = ?",
+			QueryInstrumentation.getFingerprint(
+				"SELECT id\n\tFROM user\n\tWHERE username = 'it''s' " +
+					"AND admin = 1"));
+		Assert.assertEquals(
+			"SELECT t1.id FROM t1 WHERE t1.value > ?",
+			QueryInstrumentation.getFingerprint(
+				"SELECT t1.id FROM t1 WHERE t1.value > 2.5"));
+	}
+
+	/**
+	 * Tests that parameter lists of any length share a fingerprint.
+	 */
+	@Test
+	public void testLists() {
+		Assert.assertEquals(
+			QueryInstrumentation.getFingerprint(
+				"SELECT id FROM campaign WHERE urn IN (?)"),
+			"SELECT id FROM campaign WHERE urn IN (?)");
+		Assert.assertEquals(
+			QueryInstrumentation.getFingerprint(
+				"SELECT id FROM campaign WHERE urn IN (?, ?)"),
+			QueryInstrumentation.getFingerprint(
+				"SELECT id FROM campaign WHERE urn IN (?,?,?,?)"));
+		Assert.assertEquals(
+			"INSERT INTO t (a, b) VALUES (?+)+",
+			QueryInstrumentation.getFingerprint(
+				"INSERT INTO t (a, b) VALUES (?, ?), (?, ?), (?, ?)"));
+	}
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.service;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.NDC;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.domain.campaign.Prompt.LabelValuePair;
+import org.ohmage.domain.campaign.SurveyResponse;
+import org.ohmage.domain.campaign.prompt.CustomChoicePrompt;
+import org.ohmage.query.ICampaignImageQueries;
+import org.ohmage.query.ICampaignQueries;
+import org.ohmage.query.IImageQueries;
+
+/**
+ * Tests validating uploaded survey responses in parallel.
+ */
+public class CampaignServicesTest extends TestCase {
+	private static final String CAMPAIGN_ID = "urn:campaign:test";
+	private static final String SURVEY_ID = "survey";
+	private static final String SINGLE_PROMPT_ID = "single";
+	private static final String MULTI_PROMPT_ID = "multi";
+	
+	private static final int NUM_RESPONSES = 500;
+	
+	/**
+	 * A query object that must not be used.
+	 */
+	private static final InvocationHandler UNUSED = new InvocationHandler() {
+		@Override
+		public Object invoke(
+				final Object proxy,
+				final Method method,
+				final Object[] args) {
+			
+			throw new UnsupportedOperationException(method.getName());
+		}
+	};
+	
+	/**
+	 * Tests that the custom choices added by survey responses that are
+	 * validated concurrently are all kept and each has its own key.
+	 */
+	@Test
+	public void testParallelCustomChoices() throws Exception {
+		Campaign campaign =
+			new Campaign(
+				CAMPAIGN_ID,
+				CAMPAIGN_ID,
+				null,
+				Campaign.RunningState.RUNNING,
+				Campaign.PrivacyState.SHARED,
+				new Date(),
+				getCampaignXml(),
+				false);
+		
+		Set<String> singleLabels = new HashSet<String>();
+		Set<String> multiLabels = new HashSet<String>();
+		List<JSONObject> responses = new ArrayList<JSONObject>(NUM_RESPONSES);
+		for(int i = 0; i < NUM_RESPONSES; i++) {
+			String single = "Single " + i;
+			JSONArray multi = new JSONArray();
+			multi.put("Multi " + i);
+			multi.put("Shared " + (i % 7));
+			
+			singleLabels.add(single);
+			multiLabels.add("Multi " + i);
+			multiLabels.add("Shared " + (i % 7));
+			
+			responses.add(getSurveyResponse(single, multi));
+		}
+		
+		List<SurveyResponse> result =
+			getServices().getSurveyResponses(
+				"test.user",
+				"test",
+				campaign,
+				responses,
+				false);
+		Assert.assertEquals(NUM_RESPONSES, result.size());
+		
+		assertChoices(
+			(CustomChoicePrompt)
+				campaign.getPrompt(SURVEY_ID, SINGLE_PROMPT_ID),
+			singleLabels);
+		assertChoices(
+			(CustomChoicePrompt)
+				campaign.getPrompt(SURVEY_ID, MULTI_PROMPT_ID),
+			multiLabels);
+	}
+	
+	/**
+	 * Validates more survey responses than the validation pool can queue, so
+	 * that some are validated on the uploading thread, and asserts that the
+	 * uploading thread's NDC is left as it was.
+	 */
+	@Test
+	public void testCallerKeepsNdc() throws Exception {
+		Campaign campaign =
+			new Campaign(
+				CAMPAIGN_ID,
+				CAMPAIGN_ID,
+				null,
+				Campaign.RunningState.RUNNING,
+				Campaign.PrivacyState.SHARED,
+				new Date(),
+				getCampaignXml(),
+				false);
+		
+		List<JSONObject> responses = new ArrayList<JSONObject>(NUM_RESPONSES);
+		for(int i = 0; i < NUM_RESPONSES; i++) {
+			JSONArray multi = new JSONArray();
+			multi.put("Multi " + i);
+			responses.add(getSurveyResponse("Single " + i, multi));
+		}
+		
+		NDC.push("upload");
+		try {
+			List<SurveyResponse> result =
+				getServices().getSurveyResponses(
+					"test.user",
+					"test",
+					campaign,
+					responses,
+					false);
+			Assert.assertEquals(NUM_RESPONSES, result.size());
+			Assert.assertEquals(1, NDC.getDepth());
+			Assert.assertEquals("upload", NDC.peek());
+		}
+		finally {
+			NDC.remove();
+		}
+	}
+	
+	/**
+	 * Asserts that a prompt has its two static choices and one custom choice
+	 * for each of the labels.
+	 */
+	private static void assertChoices(
+			final CustomChoicePrompt prompt,
+			final Set<String> customLabels) {
+		
+		Set<String> labels = new HashSet<String>();
+		for(LabelValuePair choice : prompt.getAllChoices().values()) {
+			Assert.assertTrue(
+				"Duplicate choice: " + choice.getLabel(),
+				labels.add(choice.getLabel()));
+		}
+		
+		Assert.assertEquals(customLabels.size() + 2, labels.size());
+		Assert.assertEquals(
+			customLabels.size(),
+			prompt.getCustomChoices().size());
+		Assert.assertTrue(labels.containsAll(customLabels));
+	}
+	
+	/**
+	 * Returns the services, creating them the same way Spring does if they
+	 * haven't been created yet.
+	 */
+	private static CampaignServices getServices() throws Exception {
+		if(CampaignServices.instance() != null) {
+			return CampaignServices.instance();
+		}
+		
+		Constructor<CampaignServices> constructor =
+			CampaignServices.class.getDeclaredConstructor(
+				ICampaignQueries.class,
+				ICampaignImageQueries.class,
+				IImageQueries.class);
+		constructor.setAccessible(true);
+		return
+			constructor.newInstance(
+				unused(ICampaignQueries.class),
+				unused(ICampaignImageQueries.class),
+				unused(IImageQueries.class));
+	}
+	
+	/**
+	 * Creates a query object that fails if it is used.
+	 */
+	private static <T> T unused(final Class<T> queries) {
+		return
+			queries.cast(
+				Proxy.newProxyInstance(
+					queries.getClassLoader(),
+					new Class<?>[] { queries },
+					UNUSED));
+	}
+	
+	/**
+	 * Builds a campaign with one survey with a single choice custom prompt
+	 * and a multiple choice custom prompt, each with two static choices.
+	 */
+	private static String getCampaignXml() {
+		StringBuilder builder = new StringBuilder();
+		builder
+			.append("<campaign>")
+			.append("<campaignUrn>").append(CAMPAIGN_ID).append("</campaignUrn>")
+			.append("<campaignName>").append(CAMPAIGN_ID).append("</campaignName>")
+			.append("<surveys><survey>")
+			.append("<id>").append(SURVEY_ID).append("</id>")
+			.append("<title>Test</title>")
+			.append("<submitText>Done</submitText>")
+			.append("<anytime>true</anytime>")
+			.append("<contentList>");
+		
+		appendPrompt(builder, SINGLE_PROMPT_ID, "single_choice_custom");
+		appendPrompt(builder, MULTI_PROMPT_ID, "multi_choice_custom");
+		
+		builder.append("</contentList></survey></surveys></campaign>");
+		return builder.toString();
+	}
+	
+	/**
+	 * Appends a custom choice prompt with two static choices.
+	 */
+	private static void appendPrompt(
+			final StringBuilder builder,
+			final String id,
+			final String type) {
+		
+		builder
+			.append("<prompt>")
+			.append("<id>").append(id).append("</id>")
+			.append("<displayLabel>").append(id).append("</displayLabel>")
+			.append("<promptText>").append(id).append("</promptText>")
+			.append("<skippable>false</skippable>")
+			.append("<promptType>").append(type).append("</promptType>")
+			.append("<properties>")
+			.append("<property><key>0</key><label>Static 0</label></property>")
+			.append("<property><key>1</key><label>Static 1</label></property>")
+			.append("</properties>")
+			.append("</prompt>");
+	}
+	
+	/**
+	 * Builds a survey response that answers both prompts.
+	 */
+	private static JSONObject getSurveyResponse(
+			final String single,
+			final JSONArray multi)
+			throws Exception {
+		
+		long time = System.currentTimeMillis();
+		
+		JSONArray responses = new JSONArray();
+		responses.put(
+			new JSONObject()
+				.put("prompt_id", SINGLE_PROMPT_ID)
+				.put("value", single));
+		responses.put(
+			new JSONObject()
+				.put("prompt_id", MULTI_PROMPT_ID)
+				.put("value", multi));
+		
+		JSONObject launchContext = new JSONObject();
+		launchContext.put("launch_time", time);
+		launchContext.put("launch_timezone", "UTC");
+		launchContext.put("active_triggers", new JSONArray());
+		
+		JSONObject result = new JSONObject();
+		result.put(
+			SurveyResponse.JSON_KEY_SURVEY_RESPONSE_ID,
+			UUID.randomUUID().toString());
+		result.put("time", time);
+		result.put("timezone", "UTC");
+		result.put("location_status", "unavailable");
+		result.put(SurveyResponse.JSON_KEY_SURVEY_ID, SURVEY_ID);
+		result.put(SurveyResponse.JSON_KEY_SURVEY_LAUNCH_CONTEXT, launchContext);
+		result.put(SurveyResponse.JSON_KEY_RESPONSES, responses);
+		// Without a privacy state, the default is read from the database.
+		result.put(
+			SurveyResponse.JSON_KEY_PRIVACY_STATE,
+			SurveyResponse.PrivacyState.PRIVATE.toString());
+		return result;
+	}
+}
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.service;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ohmage.cache.AuthorizationCache;
+import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.query.IAnnotationQueries;
+import org.ohmage.query.ICampaignQueries;
+import org.ohmage.query.IImageQueries;
+import org.ohmage.query.ISurveyResponseImageQueries;
+import org.ohmage.query.ISurveyResponseQueries;
+import org.ohmage.query.ISurveyUploadQuery;
+import org.ohmage.query.IUserCampaignQueries;
+import org.ohmage.query.IUserClassQueries;
+import org.ohmage.query.IUserQueries;
+
+/**
+ * Tests checking whether a user may read the annotations on many survey
+ * responses at once.
+ */
+public class UserAnnotationServicesTest extends TestCase {
+	private static final String CAMPAIGN_A = "urn:campaign:test:a";
+	private static final String CAMPAIGN_B = "urn:campaign:test:b";
+	
+	/**
+	 * A supervisor in both campaigns.
+	 */
+	private static final String SUPERVISOR = "test.supervisor";
+	
+	/**
+	 * A supervisor in the first campaign and only a participant in the
+	 * second.
+	 */
+	private static final String PARTIAL_SUPERVISOR = "test.partial";
+	
+	private static final UUID RESPONSE_A1 = UUID.randomUUID();
+	private static final UUID RESPONSE_A2 = UUID.randomUUID();
+	private static final UUID RESPONSE_B1 = UUID.randomUUID();
+	
+	/**
+	 * The campaign of each survey response that exists.
+	 */
+	private static final Map<UUID, String> CAMPAIGNS =
+		new HashMap<UUID, String>();
+	static {
+		CAMPAIGNS.put(RESPONSE_A1, CAMPAIGN_A);
+		CAMPAIGNS.put(RESPONSE_A2, CAMPAIGN_A);
+		CAMPAIGNS.put(RESPONSE_B1, CAMPAIGN_B);
+	}
+	
+	/**
+	 * The number of times the survey responses' campaigns were looked up.
+	 */
+	private static final AtomicInteger campaignLookups = new AtomicInteger();
+	
+	/**
+	 * A query object that must not be used.
+	 */
+	private static final InvocationHandler UNUSED = new InvocationHandler() {
+		@Override
+		public Object invoke(
+				final Object proxy,
+				final Method method,
+				final Object[] args) {
+			
+			throw new UnsupportedOperationException(method.getName());
+		}
+	};
+	
+	/**
+	 * Looks up the survey responses' campaigns.
+	 */
+	private static final InvocationHandler SURVEY_RESPONSE_QUERIES =
+		new InvocationHandler() {
+			@Override
+			public Object invoke(
+					final Object proxy,
+					final Method method,
+					final Object[] args) {
+				
+				if(! "getCampaignIdsForSurveyResponseIds".equals(method.getName())) {
+					throw new UnsupportedOperationException(method.getName());
+				}
+				
+				campaignLookups.incrementAndGet();
+				
+				Map<UUID, String> result = new HashMap<UUID, String>();
+				for(Object surveyResponseId : (Collection<?>) args[0]) {
+					String campaignId = CAMPAIGNS.get(surveyResponseId);
+					if(campaignId != null) {
+						result.put((UUID) surveyResponseId, campaignId);
+					}
+				}
+				return result;
+			}
+		};
+	
+	/**
+	 * Returns the users' roles in the campaigns.
+	 */
+	private static final InvocationHandler USER_CAMPAIGN_QUERIES =
+		new InvocationHandler() {
+			@Override
+			public Object invoke(
+					final Object proxy,
+					final Method method,
+					final Object[] args) {
+				
+				if(! "getUserCampaignRoles".equals(method.getName())) {
+					throw new UnsupportedOperationException(method.getName());
+				}
+				
+				String username = (String) args[0];
+				String campaignId = (String) args[1];
+				if(SUPERVISOR.equals(username) ||
+					(PARTIAL_SUPERVISOR.equals(username) &&
+						CAMPAIGN_A.equals(campaignId))) {
+					
+					return Arrays.asList(Campaign.Role.SUPERVISOR);
+				}
+				else if(PARTIAL_SUPERVISOR.equals(username)) {
+					return Arrays.asList(Campaign.Role.PARTICIPANT);
+				}
+				return Collections.<Campaign.Role>emptyList();
+			}
+		};
+	
+	/**
+	 * Tests that a supervisor in every one of the survey responses' campaigns
+	 * may read their annotations and that the campaigns are looked up with a
+	 * single query.
+	 */
+	@Test
+	public void testSupervisor() throws Exception {
+		UserAnnotationServices services = getServices();
+		
+		int lookups = campaignLookups.get();
+		services.verifyUserCanReadSurveyResponseAnnotations(
+			SUPERVISOR,
+			Arrays.asList(RESPONSE_A1, RESPONSE_A2, RESPONSE_B1));
+		Assert.assertEquals(lookups + 1, campaignLookups.get());
+	}
+	
+	/**
+	 * Tests that the check fails if one of the survey responses doesn't
+	 * exist, even for a supervisor in the others' campaigns.
+	 */
+	@Test
+	public void testUnknownSurveyResponse() throws Exception {
+		UUID unknown = UUID.randomUUID();
+		try {
+			getServices().verifyUserCanReadSurveyResponseAnnotations(
+				SUPERVISOR,
+				Arrays.asList(RESPONSE_A1, unknown));
+			fail("One of the survey responses does not exist.");
+		}
+		catch(ServiceException e) {
+			Assert.assertEquals(
+				"The survey response does not exist: " + unknown,
+				e.getMessage());
+		}
+	}
+	
+	/**
+	 * Tests that a user who is a supervisor in only one of the survey
+	 * responses' two campaigns may read the annotations in that campaign but
+	 * not in both.
+	 */
+	@Test
+	public void testSupervisorInOneCampaign() throws Exception {
+		UserAnnotationServices services = getServices();
+		
+		services.verifyUserCanReadSurveyResponseAnnotations(
+			PARTIAL_SUPERVISOR,
+			Arrays.asList(RESPONSE_A1, RESPONSE_A2));
+		
+		try {
+			services.verifyUserCanReadSurveyResponseAnnotations(
+				PARTIAL_SUPERVISOR,
+				Arrays.asList(RESPONSE_A1, RESPONSE_B1));
+			fail("The user is not a supervisor in one of the campaigns.");
+		}
+		catch(ServiceException e) {
+			Assert.assertTrue(e.getMessage().endsWith(CAMPAIGN_B));
+		}
+	}
+	
+	/**
+	 * Returns the services, creating them and the services and cache they
+	 * depend on the same way Spring does if they haven't been created yet.
+	 */
+	private static UserAnnotationServices getServices() throws Exception {
+		if(UserAnnotationServices.instance() != null) {
+			return UserAnnotationServices.instance();
+		}
+		
+		Constructor<AuthorizationCache> cacheConstructor =
+			AuthorizationCache.class.getDeclaredConstructor(
+				IUserQueries.class,
+				IUserCampaignQueries.class,
+				IUserClassQueries.class,
+				ICampaignQueries.class,
+				long.class);
+		cacheConstructor.setAccessible(true);
+		cacheConstructor.newInstance(
+			getQueries(IUserQueries.class, UNUSED),
+			getQueries(IUserCampaignQueries.class, USER_CAMPAIGN_QUERIES),
+			getQueries(IUserClassQueries.class, UNUSED),
+			getQueries(ICampaignQueries.class, UNUSED),
+			60000L);
+		
+		Constructor<SurveyResponseServices> surveyResponseConstructor =
+			SurveyResponseServices.class.getDeclaredConstructor(
+				IImageQueries.class,
+				ISurveyUploadQuery.class,
+				ISurveyResponseQueries.class,
+				ISurveyResponseImageQueries.class);
+		surveyResponseConstructor.setAccessible(true);
+		surveyResponseConstructor.newInstance(
+			getQueries(IImageQueries.class, UNUSED),
+			getQueries(ISurveyUploadQuery.class, UNUSED),
+			getQueries(ISurveyResponseQueries.class, SURVEY_RESPONSE_QUERIES),
+			getQueries(ISurveyResponseImageQueries.class, UNUSED));
+		
+		Constructor<UserAnnotationServices> constructor =
+			UserAnnotationServices.class.getDeclaredConstructor(
+				IAnnotationQueries.class);
+		constructor.setAccessible(true);
+		return
+			constructor.newInstance(
+				getQueries(IAnnotationQueries.class, UNUSED));
+	}
+	
+	/**
+	 * Creates a query object whose methods are handled by the given handler.
+	 */
+	private static <T> T getQueries(
+			final Class<T> queries,
+			final InvocationHandler handler) {
+		
+		return
+			queries.cast(
+				Proxy.newProxyInstance(
+					queries.getClassLoader(),
+					new Class<?>[] { queries },
+					handler));
+	}
+}
@@ -0,0 +1,498 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.ohmage.domain.BarChart;
+import org.ohmage.domain.campaign.SurveyResponse;
+import org.ohmage.domain.campaign.SurveyResponseCount;
+import org.ohmage.exception.ServiceException;
+import org.ohmage.query.ISurveyResponseQueries;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the survey response charts that are computed in-process and the
+ * requests to the visualization server, which is stubbed with a local HTTP
+ * server.
+ */
+public class VisualizationServicesTest extends TestCase {
+	private static final String CAMPAIGN_ID = "urn:campaign:test";
+	private static final String USERNAME = "test.user";
+	
+	// 2012-03-01 in days since the epoch.
+	private static final long DAY = 
+		new DateTime(2012, 3, 1, 0, 0, DateTimeZone.UTC).getMillis() /
+			SurveyResponseCount.MILLIS_PER_DAY;
+	
+	/**
+	 * The counts that the survey response queries return.
+	 */
+	private static volatile List<SurveyResponseCount> counts =
+		Collections.emptyList();
+	
+	private static final InvocationHandler COUNTS = new InvocationHandler() {
+		@Override
+		public Object invoke(
+				final Object proxy,
+				final Method method,
+				final Object[] args) {
+			
+			if("retrieveSurveyResponseCounts".equals(method.getName())) {
+				return counts;
+			}
+			throw new UnsupportedOperationException(method.getName());
+		}
+	};
+	
+	private static final byte[] IMAGE = new byte[] { 1, 2, 3 };
+	
+	// The services' read timeout.
+	private static final int READ_TIMEOUT = 1000;
+	
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private String serverUrl;
+	private final AtomicInteger numRequests = new AtomicInteger();
+	private final CountDownLatch release = new CountDownLatch(1);
+	
+	/**
+	 * Starts the stub visualization server. Its "image" path waits for the
+	 * test to release it before returning the image, its "slow" path takes
+	 * longer than the read timeout, and its "error" path fails.
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/image", new HttpHandler() {
+			@Override
+			public void handle(final HttpExchange exchange) 
+					throws IOException {
+				
+				numRequests.incrementAndGet();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				respond(exchange, 200, IMAGE);
+			}
+		});
+		server.createContext("/slow", new HttpHandler() {
+			@Override
+			public void handle(final HttpExchange exchange) 
+					throws IOException {
+				
+				numRequests.incrementAndGet();
+				try {
+					Thread.sleep(READ_TIMEOUT * 5);
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				respond(exchange, 200, IMAGE);
+			}
+		});
+		server.createContext("/error", new HttpHandler() {
+			@Override
+			public void handle(final HttpExchange exchange) 
+					throws IOException {
+				
+				numRequests.incrementAndGet();
+				respond(exchange, 500, "bad".getBytes("UTF-8"));
+			}
+		});
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.start();
+		
+		serverUrl = 
+			"http://127.0.0.1:" + server.getAddress().getPort() + "/";
+	}
+	
+	/**
+	 * Stops the stub visualization server.
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		release.countDown();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+	
+	/**
+	 * Tests that concurrent requests for the same image reach the 
+	 * visualization server once and that later requests are served from the
+	 * cache.
+	 */
+	@Test
+	public void testCoalescing() throws Exception {
+		final VisualizationServices services = getServices();
+		final String key = "coalescing " + System.nanoTime();
+		final String url = serverUrl + "image";
+		
+		int numClients = 8;
+		final CountDownLatch started = new CountDownLatch(numClients);
+		ExecutorService clients = Executors.newFixedThreadPool(numClients);
+		try {
+			List<Future<byte[]>> results = new ArrayList<Future<byte[]>>();
+			for(int i = 0; i < numClients; i++) {
+				results.add(
+					clients.submit(
+						new Callable<byte[]>() {
+							@Override
+							public byte[] call() throws ServiceException {
+								started.countDown();
+								return services.getImage(key, url, "a='b'");
+							}
+						}));
+			}
+			
+			// Hold the stub's response until every client is waiting on it.
+			Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+			long deadline = System.currentTimeMillis() + 10000;
+			while((numRequests.get() == 0) && 
+					(System.currentTimeMillis() < deadline)) {
+				
+				Thread.sleep(10);
+			}
+			Thread.sleep(200);
+			release.countDown();
+			
+			for(Future<byte[]> result : results) {
+				Assert.assertArrayEquals(
+					IMAGE, 
+					result.get(10, TimeUnit.SECONDS));
+			}
+		}
+		finally {
+			clients.shutdownNow();
+		}
+		Assert.assertEquals(1, numRequests.get());
+		
+		Assert.assertArrayEquals(IMAGE, services.getImage(key, url, "a='b'"));
+		Assert.assertEquals(1, numRequests.get());
+	}
+	
+	/**
+	 * Tests that a visualization server that does not respond within the read
+	 * timeout fails the request instead of holding it.
+	 */
+	@Test
+	public void testReadTimeout() throws Exception {
+		long start = System.currentTimeMillis();
+		try {
+			getServices().getImage(
+				"timeout " + System.nanoTime(), 
+				serverUrl + "slow", 
+				"a='b'");
+			Assert.fail("The slow request succeeded.");
+		}
+		catch(ServiceException e) {
+			// Expected.
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		
+		Assert.assertEquals(1, numRequests.get());
+		Assert.assertTrue(
+			"The request took " + elapsed + "ms.", 
+			elapsed < READ_TIMEOUT * 3);
+	}
+	
+	/**
+	 * Tests that an error from the visualization server fails the request 
+	 * and is not cached.
+	 */
+	@Test
+	public void testError() throws Exception {
+		String key = "error " + System.nanoTime();
+		for(int i = 1; i <= 2; i++) {
+			try {
+				getServices().getImage(key, serverUrl + "error", "a='b'");
+				Assert.fail("The failed request succeeded.");
+			}
+			catch(ServiceException e) {
+				// Expected.
+			}
+			Assert.assertEquals(i, numRequests.get());
+		}
+	}
+	
+	/**
+	 * Tests that the counts are bucketed by day from the first to the last
+	 * survey response, with empty days in between.
+	 */
+	@Test
+	public void testDays() throws Exception {
+		setCounts(
+			count("a", DAY, SurveyResponse.PrivacyState.PRIVATE, 2),
+			count("b", DAY, SurveyResponse.PrivacyState.SHARED, 1),
+			count("a", DAY + 3, SurveyResponse.PrivacyState.SHARED, 4));
+		
+		BarChart chart = 
+			getServices().getSurveyResponseCountChart(
+				CAMPAIGN_ID, USERNAME, null, null, null, null);
+		Assert.assertEquals(
+			Arrays.asList(
+				"2012-03-01", "2012-03-02", "2012-03-03", "2012-03-04"),
+			chart.getCategories());
+		assertSeries(chart, "survey responses", "[3,0,0,4]");
+	}
+	
+	/**
+	 * Tests that the aggregate groups that many days into each bar, which is
+	 * labeled with its first day.
+	 */
+	@Test
+	public void testAggregate() throws Exception {
+		setCounts(
+			count("a", DAY, SurveyResponse.PrivacyState.PRIVATE, 1),
+			count("a", DAY + 1, SurveyResponse.PrivacyState.PRIVATE, 2),
+			count("a", DAY + 4, SurveyResponse.PrivacyState.PRIVATE, 5),
+			count("a", DAY + 6, SurveyResponse.PrivacyState.PRIVATE, 7));
+		
+		BarChart chart = 
+			getServices().getSurveyResponseCountChart(
+				CAMPAIGN_ID, USERNAME, null, null, null, 3);
+		Assert.assertEquals(
+			Arrays.asList("2012-03-01", "2012-03-04", "2012-03-07"),
+			chart.getCategories());
+		assertSeries(chart, "survey responses", "[3,5,7]");
+	}
+	
+	/**
+	 * Tests that the bars cover the requested dates even where there are no
+	 * survey responses.
+	 */
+	@Test
+	public void testDates() throws Exception {
+		setCounts(count("a", DAY + 1, SurveyResponse.PrivacyState.SHARED, 2));
+		
+		BarChart chart = 
+			getServices().getSurveyResponseCountChart(
+				CAMPAIGN_ID, 
+				USERNAME, 
+				new DateTime(2012, 3, 1, 12, 0, DateTimeZone.UTC), 
+				new DateTime(2012, 3, 3, 12, 0, DateTimeZone.UTC), 
+				null, 
+				null);
+		Assert.assertEquals(
+			Arrays.asList("2012-03-01", "2012-03-02", "2012-03-03"),
+			chart.getCategories());
+		assertSeries(chart, "survey responses", "[0,2,0]");
+		
+		setCounts();
+		chart = 
+			getServices().getSurveyResponseCountChart(
+				CAMPAIGN_ID, USERNAME, null, null, null, null);
+		Assert.assertTrue(chart.getCategories().isEmpty());
+	}
+	
+	/**
+	 * Tests that a chart with too many bars is rejected, whether the dates or
+	 * the survey responses span too many days, unless the aggregate makes
+	 * the bars fit.
+	 */
+	@Test
+	public void testTooManyBars() throws Exception {
+		DateTime startDate = new DateTime(2000, 1, 1, 0, 0, DateTimeZone.UTC);
+		DateTime endDate = new DateTime(2012, 1, 1, 0, 0, DateTimeZone.UTC);
+		setCounts();
+		assertTooManyBars(startDate, endDate);
+		
+		setCounts(
+			count("a", 0, SurveyResponse.PrivacyState.PRIVATE, 1),
+			count("a", DAY, SurveyResponse.PrivacyState.PRIVATE, 1));
+		assertTooManyBars(null, null);
+		
+		BarChart chart =
+			getServices().getSurveyResponseCountChart(
+				CAMPAIGN_ID, USERNAME, startDate, endDate, null, 30);
+		Assert.assertTrue(
+			chart.getCategories().size() <= VisualizationServices.MAX_NUM_BARS);
+	}
+	
+	/**
+	 * Tests that the privacy state chart has a bar for each user and a 
+	 * series for each privacy state.
+	 */
+	@Test
+	public void testPrivacyState() throws Exception {
+		setCounts(
+			count("b", DAY, SurveyResponse.PrivacyState.PRIVATE, 2),
+			count("a", DAY, SurveyResponse.PrivacyState.SHARED, 1),
+			count("b", DAY + 9, SurveyResponse.PrivacyState.SHARED, 4));
+		
+		BarChart chart = 
+			getServices().getSurveyResponsePrivacyStateChart(
+				CAMPAIGN_ID, USERNAME, null, null);
+		Assert.assertEquals(Arrays.asList("a", "b"), chart.getCategories());
+		assertSeries(chart, "private", "[0,2]");
+		assertSeries(chart, "shared", "[1,4]");
+	}
+	
+	/**
+	 * Tests that the privacy state timeseries chart has a bar for each day
+	 * and a series for each privacy state.
+	 */
+	@Test
+	public void testPrivacyStateTimeseries() throws Exception {
+		setCounts(
+			count("b", DAY, SurveyResponse.PrivacyState.PRIVATE, 2),
+			count("a", DAY, SurveyResponse.PrivacyState.PRIVATE, 1),
+			count("b", DAY + 2, SurveyResponse.PrivacyState.SHARED, 4));
+		
+		BarChart chart = 
+			getServices().getSurveyResponsePrivacyStateTimeseriesChart(
+				CAMPAIGN_ID, USERNAME, null, null);
+		Assert.assertEquals(
+			Arrays.asList("2012-03-01", "2012-03-02", "2012-03-03"),
+			chart.getCategories());
+		assertSeries(chart, "private", "[3,0,0]");
+		assertSeries(chart, "shared", "[0,0,4]");
+	}
+	
+	/**
+	 * Sends a stub response and closes the exchange.
+	 */
+	private static void respond(
+			final HttpExchange exchange,
+			final int statusCode,
+			final byte[] body)
+			throws IOException {
+		
+		exchange.sendResponseHeaders(statusCode, body.length);
+		OutputStream out = exchange.getResponseBody();
+		try {
+			out.write(body);
+		}
+		finally {
+			out.close();
+		}
+		exchange.close();
+	}
+	
+	/**
+	 * Asserts that the survey response count chart is rejected for having
+	 * too many bars.
+	 */
+	private static void assertTooManyBars(
+			final DateTime startDate,
+			final DateTime endDate)
+			throws Exception {
+		
+		try {
+			getServices().getSurveyResponseCountChart(
+				CAMPAIGN_ID, USERNAME, startDate, endDate, null, null);
+			Assert.fail("A chart with too many bars was built.");
+		}
+		catch(ServiceException e) {
+			// Expected.
+		}
+	}
+	
+	/**
+	 * Asserts a series' values.
+	 */
+	private static void assertSeries(
+			final BarChart chart,
+			final String name,
+			final String values)
+			throws Exception {
+		
+		JSONObject series = chart.toJson().getJSONObject("series");
+		Assert.assertEquals(values, series.getJSONArray(name).toString());
+	}
+	
+	/**
+	 * Sets the counts that the survey response queries return.
+	 */
+	private static void setCounts(final SurveyResponseCount... newCounts) {
+		counts = new ArrayList<SurveyResponseCount>(Arrays.asList(newCounts));
+	}
+	
+	/**
+	 * Creates a count.
+	 */
+	private static SurveyResponseCount count(
+			final String username,
+			final long day,
+			final SurveyResponse.PrivacyState privacyState,
+			final long count) {
+		
+		return new SurveyResponseCount(username, day, privacyState, count);
+	}
+	
+	/**
+	 * Returns the services, creating them the same way Spring does if they
+	 * haven't been created yet.
+	 */
+	static VisualizationServices getServices() throws Exception {
+		if(VisualizationServices.instance() != null) {
+			return VisualizationServices.instance();
+		}
+		
+		Constructor<VisualizationServices> constructor =
+			VisualizationServices.class.getDeclaredConstructor(
+				ISurveyResponseQueries.class,
+				long.class,
+				long.class,
+				int.class,
+				int.class,
+				int.class);
+		constructor.setAccessible(true);
+		return
+			constructor.newInstance(
+				Proxy.newProxyInstance(
+					ISurveyResponseQueries.class.getClassLoader(),
+					new Class<?>[] { ISurveyResponseQueries.class },
+					COUNTS),
+				60000L,
+				1024L * 1024,
+				1000,
+				READ_TIMEOUT,
+				4);
+	}
+}
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.test.clazz;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ohmage.domain.Clazz;
+import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.lib.OhmageApi;
+import org.ohmage.lib.exception.ApiException;
+import org.ohmage.test.Controller;
+
+/**
+ * Measures the time it takes to update a class' roster at realistic sizes.
+ * For each roster size, a class is created and associated with a number of
+ * campaigns, then the users are added to the class in one request, their
+ * roles are changed in one request, and they are removed in one request. All
+ * of the users, classes, and campaigns it creates are deleted before it
+ * exits.<br />
+ * <br />
+ * This is meant to be called from the command line against a test server.
+ */
+public class ClassRosterBenchmark {
+	private static final String PASSWORD = "aaAA00..";
+
+	private static final String USERNAME_PREFIX = "roster.bench.";
+	private static final String CLASS_ID_PREFIX = "urn:class:roster:bench:";
+	private static final String CAMPAIGN_ID_PREFIX =
+			"urn:campaign:roster:bench:";
+
+	private static final int[] DEFAULT_ROSTER_SIZES =
+			new int[] { 25, 100, 500, 1000 };
+	private static final int DEFAULT_NUM_CAMPAIGNS = 5;
+
+	private static String adminUsername = null;
+	private static String adminPassword = null;
+	private static int[] rosterSizes = DEFAULT_ROSTER_SIZES;
+	private static int numCampaigns = DEFAULT_NUM_CAMPAIGNS;
+
+	/**
+	 * Default constructor made private to prevent instantiation.
+	 */
+	private ClassRosterBenchmark() {}
+
+	/**
+	 * Creates the server connection and runs the benchmark.
+	 *
+	 * @param args The arguments as defined in {@link #printUsage()}.
+	 */
+	public static void main(final String[] args) throws ApiException {
+		OhmageApi api = parseArguments(args);
+		if(api == null) {
+			return;
+		}
+
+		String authToken =
+				api.getAuthenticationToken(
+						adminUsername,
+						adminPassword,
+						Controller.CLIENT);
+
+		int maxRosterSize = 0;
+		for(int rosterSize : rosterSizes) {
+			maxRosterSize = Math.max(maxRosterSize, rosterSize);
+		}
+
+		List<String> usernames = new ArrayList<String>(maxRosterSize);
+		try {
+			for(int i = 0; i < maxRosterSize; i++) {
+				String username = USERNAME_PREFIX + i;
+				api.createUser(
+						authToken,
+						Controller.CLIENT,
+						username,
+						PASSWORD,
+						false,
+						true,
+						false,
+						false);
+				usernames.add(username);
+			}
+
+			System.out.println(
+					"Roster size, campaigns, add (ms), update (ms), remove (ms)");
+			for(int rosterSize : rosterSizes) {
+				benchmark(api, authToken, usernames.subList(0, rosterSize));
+			}
+		}
+		finally {
+			if(! usernames.isEmpty()) {
+				api.deleteUser(authToken, Controller.CLIENT, usernames);
+			}
+		}
+	}
+
+	/**
+	 * Runs the benchmark for a single roster size and prints the results.
+	 *
+	 * @param api The connection to the server.
+	 *
+	 * @param authToken The admin's authentication token.
+	 *
+	 * @param usernames The users to add to the class.
+	 *
+	 * @throws ApiException There was an error making one of the requests.
+	 */
+	private static void benchmark(
+			final OhmageApi api,
+			final String authToken,
+			final List<String> usernames)
+			throws ApiException {
+
+		String classId = CLASS_ID_PREFIX + usernames.size();
+		Collection<String> classIds = Collections.singletonList(classId);
+		List<String> campaignIds = new ArrayList<String>(numCampaigns);
+
+		api.createClass(
+				authToken,
+				Controller.CLIENT,
+				classId,
+				"Roster Benchmark " + usernames.size(),
+				null);
+		try {
+			for(int i = 0; i < numCampaigns; i++) {
+				String campaignId =
+						CAMPAIGN_ID_PREFIX + usernames.size() + ":" + i;
+				api.createCampaign(
+						authToken,
+						Controller.CLIENT,
+						Campaign.RunningState.RUNNING,
+						Campaign.PrivacyState.PRIVATE,
+						classIds,
+						getCampaignXml(campaignId),
+						null);
+				campaignIds.add(campaignId);
+			}
+
+			Map<String, Clazz.Role> restricted =
+					new HashMap<String, Clazz.Role>(usernames.size());
+			Map<String, Clazz.Role> privileged =
+					new HashMap<String, Clazz.Role>(usernames.size());
+			for(String username : usernames) {
+				restricted.put(username, Clazz.Role.RESTRICTED);
+				privileged.put(username, Clazz.Role.PRIVILEGED);
+			}
+
+			long start = System.currentTimeMillis();
+			api.updateClass(
+					authToken, Controller.CLIENT, classId,
+					null, null, restricted, null);
+			long added = System.currentTimeMillis();
+			api.updateClass(
+					authToken, Controller.CLIENT, classId,
+					null, null, privileged, null);
+			long updated = System.currentTimeMillis();
+			api.updateClass(
+					authToken, Controller.CLIENT, classId,
+					null, null, null, usernames);
+			long removed = System.currentTimeMillis();
+
+			System.out.println(
+					usernames.size() + ", " +
+					numCampaigns + ", " +
+					(added - start) + ", " +
+					(updated - added) + ", " +
+					(removed - updated));
+		}
+		finally {
+			for(String campaignId : campaignIds) {
+				api.deleteCampaign(authToken, Controller.CLIENT, campaignId);
+			}
+			api.deleteClass(authToken, Controller.CLIENT, classId);
+		}
+	}
+
+	/**
+	 * Builds the smallest valid campaign XML with the given ID.
+	 *
+	 * @param campaignId The campaign's unique identifier.
+	 *
+	 * @return The campaign's XML.
+	 */
+	private static String getCampaignXml(final String campaignId) {
+		return
+			"<campaign>" +
+				"<campaignUrn>" + campaignId + "</campaignUrn>" +
+				"<campaignName>" + campaignId + "</campaignName>" +
+				"<surveys>" +
+					"<survey>" +
+						"<id>benchmark</id>" +
+						"<title>Benchmark</title>" +
+						"<submitText>Done</submitText>" +
+						"<anytime>true</anytime>" +
+						"<contentList>" +
+							"<message>" +
+								"<id>message</id>" +
+								"<messageText>Benchmark</messageText>" +
+							"</message>" +
+						"</contentList>" +
+					"</survey>" +
+				"</surveys>" +
+			"</campaign>";
+	}
+
+	/**
+	 * The arguments necessary to create the server connection.
+	 *
+	 * @param args The string array of arguments given to us by the user.
+	 *
+	 * @return An OhmageApi object ready to make requests to a server or null
+	 * 		   if there was an error.
+	 */
+	private static OhmageApi parseArguments(final String[] args) {
+		String address = null;
+		Integer port = null;
+		boolean secure = false;
+
+		for(int i = 0; i < args.length; i++) {
+			if("-d".equals(args[i]) || "--domain".equals(args[i])){
+				if(args.length <= i+1) {
+					System.out.println("The domain is missing.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				address = args[i];
+			}
+			else if("-u".equals(args[i]) || "--username".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The admin username is missing.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				adminUsername = args[i];
+			}
+			else if("-p".equals(args[i]) || "--password".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The admin password is missing.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				adminPassword = args[i];
+			}
+			else if("-o".equals(args[i]) || "--port".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The port flag was set, but the port was not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					port = new Integer(Short.decode(args[i]));
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The port is not a valid port number.");
+					printUsage();
+					return null;
+				}
+			}
+			else if("-s".equals(args[i]) || "--secure".equals(args[i])) {
+				secure = true;
+			}
+			else if("-r".equals(args[i]) || "--roster-sizes".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The roster sizes flag was set, but the sizes were not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					String[] sizes = args[i].split(",");
+					rosterSizes = new int[sizes.length];
+					for(int j = 0; j < sizes.length; j++) {
+						rosterSizes[j] = Integer.decode(sizes[j].trim());
+					}
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The roster sizes must be a comma-separated list of numbers.");
+					printUsage();
+					return null;
+				}
+			}
+			else if("-c".equals(args[i]) || "--campaigns".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The campaigns flag was set, but the number was not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					numCampaigns = Integer.decode(args[i]);
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The number of campaigns is not a number.");
+					printUsage();
+					return null;
+				}
+			}
+		}
+
+		if(address == null) {
+			System.out.println("The server domain is missing.");
+			printUsage();
+			return null;
+		}
+		else if(adminUsername == null) {
+			System.out.println("The admin username is missing.");
+			printUsage();
+			return null;
+		}
+		else if(adminPassword == null) {
+			System.out.println("The admin password is missing.");
+			printUsage();
+			return null;
+		}
+
+		return new OhmageApi(address, port, secure);
+	}
+
+	/**
+	 * Prints the application's usage to the standard output.
+	 */
+	private static void printUsage() {
+		System.out.println("Parameters: (-d | --domain) <server domain> (-u | --username) <admin username> (-p | --password) <admin password> [(-o | --port) <port>] [(-s | --secure)] [(-r | --roster-sizes) <size,size,...>] [(-c | --campaigns) <number>]");
+	}
+}
@@ -0,0 +1,758 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.test.load;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import javax.imageio.ImageIO;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.ISODateTimeFormat;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.annotator.Annotator.ErrorCode;
+import org.ohmage.domain.Clazz;
+import org.ohmage.domain.campaign.Campaign;
+import org.ohmage.lib.OhmageApi;
+import org.ohmage.lib.exception.ApiException;
+import org.ohmage.lib.exception.RequestErrorException;
+import org.ohmage.test.Controller;
+
+/**
+ * <p>
+ * The synthetic data against which the load test runs. There is one class
+ * with one user per virtual client, and one campaign associated with that
+ * class whose survey has a number, a single choice, a text, and a photo
+ * prompt. Each user is seeded with survey responses, some with images,
+ * sensor data Mobility points from a single day, and accelerometer stream
+ * data.
+ * </p>
+ * 
+ * <p>
+ * All of the data is generated from a seeded random number generator, so
+ * every run with the same seed and number of clients starts from the same
+ * data. Only the IDs and timestamps that the server requires to be unique
+ * differ.
+ * </p>
+ */
+public class LoadDataSet {
+	public static final String PASSWORD = "aaAA00..";
+
+	public static final String USERNAME_PREFIX = "load.test.";
+	public static final String CLASS_ID = "urn:class:load:test";
+	public static final String CAMPAIGN_ID = "urn:campaign:load:test";
+	public static final String SURVEY_ID = "load";
+
+	public static final String OBSERVER_ID = "org.ohmage.load";
+	public static final long OBSERVER_VERSION = 1;
+	public static final String STREAM_ID = "accel";
+	public static final long STREAM_VERSION = 1;
+
+	/**
+	 * The day on which all of the seeded survey responses and Mobility points
+	 * were taken. Reads are limited to this day, so they return the same data
+	 * throughout every run no matter how much is uploaded.
+	 */
+	public static final DateTime SEED_DAY =
+		new DateTime(2012, 6, 1, 0, 0, DateTimeZone.UTC);
+
+	private static final String TIMEZONE = "America/Los_Angeles";
+
+	private static final int SEED_SURVEY_RESPONSES = 40;
+	private static final int SEED_MOBILITY_POINTS = 360;
+	private static final int SEED_STREAM_POINTS = 500;
+	private static final int SEED_BATCH_SIZE = 20;
+
+	/**
+	 * One in this many survey responses has a photo.
+	 */
+	private static final int IMAGE_FREQUENCY = 4;
+
+	private static final int NUM_ACCEL_SAMPLES = 40;
+	private static final int NUM_WIFI_SCANS = 10;
+	private static final String[] MODES =
+		new String[] { "still", "walk", "run", "bike", "drive" };
+
+	private static final String STREAM_SCHEMA =
+		"{" +
+			"\"type\":\"object\"," +
+			"\"fields\":[" +
+				"{\"name\":\"mode\",\"type\":\"string\"}," +
+				"{\"name\":\"speed\",\"type\":\"number\"}," +
+				"{" +
+					"\"name\":\"accel_data\"," +
+					"\"type\":\"array\"," +
+					"\"constType\":{" +
+						"\"type\":\"object\"," +
+						"\"fields\":[" +
+							"{\"name\":\"x\",\"type\":\"number\"}," +
+							"{\"name\":\"y\",\"type\":\"number\"}," +
+							"{\"name\":\"z\",\"type\":\"number\"}" +
+						"]" +
+					"}" +
+				"}" +
+			"]" +
+		"}";
+
+	/**
+	 * A seeded user. Each is used by exactly one virtual client, so none of
+	 * this needs to be synchronized.
+	 */
+	public static class User {
+		private final String username;
+		private final String hashedPassword;
+		private final String authToken;
+		private final List<UUID> imageIds = new ArrayList<UUID>();
+
+		private User(
+				final String username,
+				final String hashedPassword,
+				final String authToken) {
+
+			this.username = username;
+			this.hashedPassword = hashedPassword;
+			this.authToken = authToken;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public String getHashedPassword() {
+			return hashedPassword;
+		}
+
+		public String getAuthToken() {
+			return authToken;
+		}
+
+		/**
+		 * Returns the IDs of the images this user has uploaded.
+		 *
+		 * @return The user's images' IDs, which may be added to.
+		 */
+		public List<UUID> getImageIds() {
+			return imageIds;
+		}
+	}
+
+	private final List<User> users;
+	private final DateTime campaignCreationTimestamp;
+	private final byte[] image;
+
+	/**
+	 * Creates the data set once it has been seeded.
+	 */
+	private LoadDataSet(
+			final List<User> users,
+			final DateTime campaignCreationTimestamp,
+			final byte[] image) {
+
+		this.users = users;
+		this.campaignCreationTimestamp = campaignCreationTimestamp;
+		this.image = image;
+	}
+
+	/**
+	 * Creates the class, users, campaign, and observer and seeds each user's
+	 * data. If this fails, whatever was created is deleted.
+	 *
+	 * @param api The connection to the server.
+	 *
+	 * @param adminToken An admin's authentication token.
+	 *
+	 * @param numUsers The number of users to create.
+	 *
+	 * @param random The source of all of the generated data.
+	 *
+	 * @return The seeded data set.
+	 *
+	 * @throws ApiException There was an error making one of the requests.
+	 */
+	public static LoadDataSet create(
+			final OhmageApi api,
+			final String adminToken,
+			final int numUsers,
+			final Random random)
+			throws ApiException {
+
+		byte[] image = createImage(random);
+
+		boolean created = false;
+		api.createClass(
+			adminToken,
+			Controller.CLIENT,
+			CLASS_ID,
+			"Load Test",
+			null);
+		try {
+			Map<String, Clazz.Role> roster =
+				new HashMap<String, Clazz.Role>(numUsers);
+			List<String> usernames = new ArrayList<String>(numUsers);
+			for(int i = 0; i < numUsers; i++) {
+				String username = USERNAME_PREFIX + i;
+				api.createUser(
+					adminToken,
+					Controller.CLIENT,
+					username,
+					PASSWORD,
+					false,
+					true,
+					false,
+					false);
+				usernames.add(username);
+				roster.put(username, Clazz.Role.RESTRICTED);
+			}
+			api.updateClass(
+				adminToken, Controller.CLIENT, CLASS_ID,
+				null, null, roster, null);
+
+			api.createCampaign(
+				adminToken,
+				Controller.CLIENT,
+				Campaign.RunningState.RUNNING,
+				Campaign.PrivacyState.PRIVATE,
+				Collections.singletonList(CLASS_ID),
+				getCampaignXml(),
+				null);
+			DateTime campaignCreationTimestamp =
+				api.getCampaigns(
+						adminToken,
+						Controller.CLIENT,
+						Campaign.OutputFormat.SHORT,
+						Collections.singletonList(CAMPAIGN_ID),
+						null, null, null, null, null, null)
+					.get(CAMPAIGN_ID)
+					.getCreationTimestamp();
+
+			// Observers cannot be deleted, so one from a previous run is
+			// reused.
+			try {
+				api.createObserver(
+					adminToken,
+					Controller.CLIENT,
+					getObserverXml());
+			}
+			catch(RequestErrorException e) {
+				if(! ErrorCode.OBSERVER_INSUFFICIENT_PERMISSIONS.equals(
+						e.getErrorCode())) {
+
+					throw e;
+				}
+			}
+
+			List<User> users = new ArrayList<User>(numUsers);
+			for(String username : usernames) {
+				User user =
+					new User(
+						username,
+						api.getHashedPassword(
+							username,
+							PASSWORD,
+							Controller.CLIENT),
+						api.getAuthenticationToken(
+							username,
+							PASSWORD,
+							Controller.CLIENT));
+				users.add(user);
+			}
+
+			LoadDataSet result =
+				new LoadDataSet(users, campaignCreationTimestamp, image);
+			for(User user : users) {
+				result.seed(api, user, random);
+			}
+
+			created = true;
+			return result;
+		}
+		finally {
+			if(! created) {
+				delete(api, adminToken, numUsers);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the campaign, the users and all of their data, and the class.
+	 * Anything that doesn't exist is skipped.
+	 *
+	 * @param api The connection to the server.
+	 *
+	 * @param adminToken An admin's authentication token.
+	 *
+	 * @param numUsers The number of users that were created.
+	 */
+	public static void delete(
+			final OhmageApi api,
+			final String adminToken,
+			final int numUsers) {
+
+		try {
+			api.deleteCampaign(adminToken, Controller.CLIENT, CAMPAIGN_ID);
+		}
+		catch(ApiException e) {
+			System.err.println("The campaign could not be deleted: " + e);
+		}
+
+		for(int i = 0; i < numUsers; i++) {
+			try {
+				api.deleteUser(
+					adminToken,
+					Controller.CLIENT,
+					Collections.singletonList(USERNAME_PREFIX + i));
+			}
+			catch(ApiException e) {
+				// The user was never created.
+			}
+		}
+
+		try {
+			api.deleteClass(adminToken, Controller.CLIENT, CLASS_ID);
+		}
+		catch(ApiException e) {
+			System.err.println("The class could not be deleted: " + e);
+		}
+	}
+
+	/**
+	 * Returns the seeded users.
+	 *
+	 * @return The seeded users.
+	 */
+	public List<User> getUsers() {
+		return users;
+	}
+
+	/**
+	 * Returns the campaign's creation timestamp, which survey uploads must
+	 * include.
+	 *
+	 * @return The campaign's creation timestamp.
+	 */
+	public DateTime getCampaignCreationTimestamp() {
+		return campaignCreationTimestamp;
+	}
+
+	/**
+	 * Builds survey responses as the mobile clients upload them. One in
+	 * {@value #IMAGE_FREQUENCY} has a photo, which is added to the map of
+	 * images.
+	 *
+	 * @param random The source of the responses' values.
+	 *
+	 * @param count The number of survey responses.
+	 *
+	 * @param time The time at which the survey responses were taken.
+	 *
+	 * @param images The map to which the photos are added.
+	 *
+	 * @return The survey responses.
+	 */
+	public JSONArray getSurveyResponses(
+			final Random random,
+			final int count,
+			final long time,
+			final Map<UUID, byte[]> images) {
+
+		JSONArray result = new JSONArray();
+		try {
+			for(int i = 0; i < count; i++) {
+				Object photo = "SKIPPED";
+				if(random.nextInt(IMAGE_FREQUENCY) == 0) {
+					UUID imageId = UUID.randomUUID();
+					images.put(imageId, image);
+					photo = imageId.toString();
+				}
+
+				JSONArray responses = new JSONArray();
+				responses.put(getPromptResponse("number", random.nextInt(11)));
+				responses.put(getPromptResponse("choice", random.nextInt(5)));
+				responses.put(
+					getPromptResponse(
+						"text",
+						"Response " + Long.toString(random.nextLong(), 36)));
+				responses.put(getPromptResponse("photo", photo));
+
+				JSONObject launchContext = new JSONObject();
+				launchContext.put("launch_time", time);
+				launchContext.put("launch_timezone", TIMEZONE);
+				launchContext.put("active_triggers", new JSONArray());
+
+				JSONObject surveyResponse = new JSONObject();
+				surveyResponse.put("survey_key", UUID.randomUUID().toString());
+				surveyResponse.put("time", time);
+				surveyResponse.put("timezone", TIMEZONE);
+				surveyResponse.put("location_status", "unavailable");
+				surveyResponse.put("survey_id", SURVEY_ID);
+				surveyResponse.put("survey_launch_context", launchContext);
+				surveyResponse.put("responses", responses);
+				result.put(surveyResponse);
+			}
+		}
+		catch(JSONException e) {
+			throw new IllegalStateException("Could not build the JSON.", e);
+		}
+		return result;
+	}
+
+	/**
+	 * Builds accelerometer stream data as the observer clients upload it.
+	 *
+	 * @param random The source of the samples.
+	 *
+	 * @param count The number of data points.
+	 *
+	 * @param startTime The time of the first data point. Each subsequent
+	 * 					data point is one second later.
+	 *
+	 * @return The stream data.
+	 */
+	public JSONArray getStreamData(
+			final Random random,
+			final int count,
+			final long startTime) {
+
+		JSONArray result = new JSONArray();
+		try {
+			for(int i = 0; i < count; i++) {
+				JSONObject metaData = new JSONObject();
+				metaData.put("id", UUID.randomUUID().toString());
+				metaData.put(
+					"timestamp",
+					ISODateTimeFormat.dateTime().print(
+						new DateTime(
+							startTime + (i * 1000L),
+							DateTimeZone.forID(TIMEZONE))));
+
+				JSONObject data = new JSONObject();
+				data.put("mode", MODES[random.nextInt(MODES.length)]);
+				data.put("speed", random.nextDouble() * 30);
+				data.put("accel_data", getAccelData(random));
+
+				JSONObject point = new JSONObject();
+				point.put("stream_id", STREAM_ID);
+				point.put("stream_version", STREAM_VERSION);
+				point.put("metadata", metaData);
+				point.put("data", data);
+				result.put(point);
+			}
+		}
+		catch(JSONException e) {
+			throw new IllegalStateException("Could not build the JSON.", e);
+		}
+		return result;
+	}
+
+	/**
+	 * Builds "sensor_data" Mobility points as the Mobility client uploads
+	 * them, one minute apart from the start of {@link #SEED_DAY}.
+	 *
+	 * @param random The source of the points' values.
+	 *
+	 * @param count The number of points.
+	 *
+	 * @return The Mobility points.
+	 */
+	public JSONArray getMobilityPoints(
+			final Random random,
+			final int count) {
+
+		JSONArray result = new JSONArray();
+		try {
+			for(int i = 0; i < count; i++) {
+				long time = SEED_DAY.getMillis() + (i * 60 * 1000L);
+
+				JSONObject location = new JSONObject();
+				location.put("latitude", 34.0689 + random.nextDouble() / 100);
+				location.put("longitude", -118.4452 + random.nextDouble() / 100);
+				location.put("accuracy", 5 + random.nextDouble() * 20);
+				location.put("provider", "gps");
+				location.put("time", time);
+				location.put("timezone", TIMEZONE);
+
+				JSONArray scan = new JSONArray();
+				for(int j = 0; j < NUM_WIFI_SCANS; j++) {
+					JSONObject accessPoint = new JSONObject();
+					accessPoint.put(
+						"ssid",
+						String.format(
+							"00:1a:2b:3c:4d:%02x",
+							random.nextInt(256)));
+					accessPoint.put("strength", -30 - random.nextInt(60));
+					scan.put(accessPoint);
+				}
+
+				JSONObject wifiData = new JSONObject();
+				wifiData.put("time", time);
+				wifiData.put("timezone", TIMEZONE);
+				wifiData.put("scan", scan);
+
+				JSONObject data = new JSONObject();
+				data.put("mode", MODES[random.nextInt(MODES.length)]);
+				data.put("speed", random.nextDouble() * 2);
+				data.put("accel_data", getAccelData(random));
+				data.put("wifi_data", wifiData);
+
+				JSONObject point = new JSONObject();
+				point.put("id", UUID.randomUUID().toString());
+				point.put("time", time);
+				point.put("timezone", TIMEZONE);
+				point.put("location_status", "valid");
+				point.put("location", location);
+				point.put("subtype", "sensor_data");
+				point.put("data", data);
+				result.put(point);
+			}
+		}
+		catch(JSONException e) {
+			throw new IllegalStateException("Could not build the JSON.", e);
+		}
+		return result;
+	}
+
+	/**
+	 * Seeds a user's survey responses, Mobility points, and stream data.
+	 *
+	 * @param api The connection to the server.
+	 *
+	 * @param user The user.
+	 *
+	 * @param random The source of the data.
+	 *
+	 * @throws ApiException There was an error uploading the data.
+	 */
+	private void seed(
+			final OhmageApi api,
+			final User user,
+			final Random random)
+			throws ApiException {
+
+		// Every user needs at least one image for the image reads.
+		for(
+				int i = 0;
+				(i < SEED_SURVEY_RESPONSES) || user.imageIds.isEmpty();
+				i += SEED_BATCH_SIZE) {
+
+			Map<UUID, byte[]> images = new HashMap<UUID, byte[]>();
+			api.uploadSurveyResponses(
+				user.username,
+				user.hashedPassword,
+				Controller.CLIENT,
+				CAMPAIGN_ID,
+				campaignCreationTimestamp,
+				getSurveyResponses(
+					random,
+					SEED_BATCH_SIZE,
+					SEED_DAY.getMillis() + (i * 60 * 1000L),
+					images),
+				images);
+			user.imageIds.addAll(images.keySet());
+		}
+
+		api.uploadMobilityPoints(
+			user.username,
+			user.hashedPassword,
+			Controller.CLIENT,
+			getMobilityPoints(random, SEED_MOBILITY_POINTS));
+
+		long start =
+			System.currentTimeMillis() - (SEED_STREAM_POINTS * 1000L);
+		for(int i = 0; i < SEED_STREAM_POINTS; i += SEED_BATCH_SIZE * 5) {
+			api.uploadStreamData(
+				user.username,
+				user.hashedPassword,
+				Controller.CLIENT,
+				OBSERVER_ID,
+				OBSERVER_VERSION,
+				getStreamData(random, SEED_BATCH_SIZE * 5, start + (i * 1000L)));
+		}
+	}
+
+	/**
+	 * Builds one prompt response.
+	 */
+	private static JSONObject getPromptResponse(
+			final String promptId,
+			final Object value)
+			throws JSONException {
+
+		JSONObject result = new JSONObject();
+		result.put("prompt_id", promptId);
+		result.put("value", value);
+		return result;
+	}
+
+	/**
+	 * Builds a window of accelerometer samples.
+	 */
+	private static JSONArray getAccelData(
+			final Random random)
+			throws JSONException {
+
+		JSONArray result = new JSONArray();
+		for(int i = 0; i < NUM_ACCEL_SAMPLES; i++) {
+			JSONObject sample = new JSONObject();
+			sample.put("x", random.nextGaussian());
+			sample.put("y", 9.8 + random.nextGaussian());
+			sample.put("z", random.nextGaussian());
+			result.put(sample);
+		}
+		return result;
+	}
+
+	/**
+	 * Draws a photo-sized JPEG. It is noisy enough that it compresses about
+	 * as well as a real photo.
+	 *
+	 * @param random The source of the noise.
+	 *
+	 * @return The JPEG's bytes.
+	 */
+	private static byte[] createImage(final Random random) {
+		int width = 640, height = 480;
+
+		BufferedImage image =
+			new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		for(int x = 0; x < width; x += 8) {
+			for(int y = 0; y < height; y += 8) {
+				graphics.setColor(
+					new Color(
+						(x * 255) / width,
+						(y * 255) / height,
+						random.nextInt(256)));
+				graphics.fillRect(x, y, 8, 8);
+			}
+		}
+		graphics.dispose();
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		try {
+			ImageIO.write(image, "jpg", result);
+		}
+		catch(IOException e) {
+			throw new IllegalStateException("Could not encode the image.", e);
+		}
+		return result.toByteArray();
+	}
+
+	/**
+	 * Builds the campaign's XML.
+	 */
+	private static String getCampaignXml() {
+		StringBuilder choices = new StringBuilder();
+		for(int i = 0; i < 5; i++) {
+			choices
+				.append("<property><key>").append(i)
+				.append("</key><label>Choice ").append(i)
+				.append("</label></property>");
+		}
+
+		return
+			"<campaign>" +
+				"<campaignUrn>" + CAMPAIGN_ID + "</campaignUrn>" +
+				"<campaignName>Load Test</campaignName>" +
+				"<surveys>" +
+					"<survey>" +
+						"<id>" + SURVEY_ID + "</id>" +
+						"<title>Load Test</title>" +
+						"<submitText>Done</submitText>" +
+						"<anytime>true</anytime>" +
+						"<contentList>" +
+							"<prompt>" +
+								"<id>number</id>" +
+								"<displayLabel>Number</displayLabel>" +
+								"<promptText>How many?</promptText>" +
+								"<promptType>number</promptType>" +
+								"<properties>" +
+									"<property><key>min</key><label>0</label></property>" +
+									"<property><key>max</key><label>10</label></property>" +
+								"</properties>" +
+								"<skippable>false</skippable>" +
+							"</prompt>" +
+							"<prompt>" +
+								"<id>choice</id>" +
+								"<displayLabel>Choice</displayLabel>" +
+								"<promptText>Which one?</promptText>" +
+								"<promptType>single_choice</promptType>" +
+								"<properties>" + choices + "</properties>" +
+								"<skippable>false</skippable>" +
+							"</prompt>" +
+							"<prompt>" +
+								"<id>text</id>" +
+								"<displayLabel>Text</displayLabel>" +
+								"<promptText>Why?</promptText>" +
+								"<promptType>text</promptType>" +
+								"<properties>" +
+									"<property><key>min</key><label>0</label></property>" +
+									"<property><key>max</key><label>200</label></property>" +
+								"</properties>" +
+								"<skippable>false</skippable>" +
+							"</prompt>" +
+							"<prompt>" +
+								"<id>photo</id>" +
+								"<displayLabel>Photo</displayLabel>" +
+								"<promptText>Take a photo.</promptText>" +
+								"<promptType>photo</promptType>" +
+								"<skippable>true</skippable>" +
+								"<skipLabel>Skip</skipLabel>" +
+							"</prompt>" +
+						"</contentList>" +
+					"</survey>" +
+				"</surveys>" +
+			"</campaign>";
+	}
+
+	/**
+	 * Builds the observer's XML.
+	 */
+	private static String getObserverXml() {
+		return
+			"<observer>" +
+				"<id>" + OBSERVER_ID + "</id>" +
+				"<version>" + OBSERVER_VERSION + "</version>" +
+				"<name>Load Test</name>" +
+				"<description>Accelerometer data for load tests.</description>" +
+				"<versionString>" + OBSERVER_VERSION + "</versionString>" +
+				"<stream>" +
+					"<id>" + STREAM_ID + "</id>" +
+					"<version>" + STREAM_VERSION + "</version>" +
+					"<name>Accelerometer</name>" +
+					"<description>Windows of accelerometer samples.</description>" +
+					"<metadata>" +
+						"<id>true</id>" +
+						"<timestamp>true</timestamp>" +
+						"<location>false</location>" +
+					"</metadata>" +
+					"<schema>" + STREAM_SCHEMA + "</schema>" +
+				"</stream>" +
+			"</observer>";
+	}
+}
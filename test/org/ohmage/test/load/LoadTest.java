@@ -0,0 +1,661 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.test.load;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.ohmage.domain.ServerConfig;
+import org.ohmage.lib.OhmageApi;
+import org.ohmage.lib.exception.ApiException;
+import org.ohmage.test.Controller;
+
+/**
+ * <p>
+ * Generates a realistic load against a test server and reports how each
+ * endpoint performed under it. A class, a campaign, an observer, and one user
+ * per virtual client are created and seeded with data, then each virtual
+ * client repeatedly uploads and reads data as its user, in proportions given
+ * by the mix, until the run ends. Everything but the observer, which cannot
+ * be deleted, is deleted before it exits.
+ * </p>
+ *
+ * <p>
+ * For each operation, the number of requests, the error rate, the throughput,
+ * and the latency percentiles are printed and, optionally, written as JSON
+ * along with the server's version and the run's configuration. Given the
+ * results of a previous run, e.g. against the previous build, the change in
+ * each operation's throughput and 99th percentile latency is printed as
+ * well. Runs are only comparable if they use the same number of clients, mix,
+ * and seed against servers with the same hardware and database.
+ * </p>
+ *
+ * <p>
+ * This is meant to be called from the command line against a test server.
+ * </p>
+ */
+public class LoadTest {
+	private static final int DEFAULT_NUM_CLIENTS = 16;
+	private static final int DEFAULT_DURATION = 60;
+	private static final int DEFAULT_WARM_UP = 10;
+	private static final String DEFAULT_MIX =
+		"survey_upload=20,stream_upload=20,survey_read=25,mobility_read=20,image_read=15";
+
+	private static final String JSON_KEY_SERVER = "server";
+	private static final String JSON_KEY_CONFIGURATION = "configuration";
+	private static final String JSON_KEY_OPERATIONS = "operations";
+	private static final String JSON_KEY_TOTAL = "total";
+
+	private static String adminUsername = null;
+	private static String adminPassword = null;
+	private static int numClients = DEFAULT_NUM_CLIENTS;
+	private static int duration = DEFAULT_DURATION;
+	private static int warmUp = DEFAULT_WARM_UP;
+	private static long thinkTime = 0;
+	private static long seed = 0;
+	private static Map<Operation, Integer> mix = null;
+	private static File resultsFile = null;
+	private static File baselineFile = null;
+
+	/**
+	 * Default constructor made private to prevent instantiation.
+	 */
+	private LoadTest() {}
+
+	/**
+	 * Creates the server connection, seeds the data, and runs the load test.
+	 *
+	 * @param args The arguments as defined in {@link #printUsage()}.
+	 */
+	public static void main(
+			final String[] args)
+			throws ApiException, IOException, JSONException,
+				InterruptedException {
+
+		OhmageApi api = parseArguments(args);
+		if(api == null) {
+			return;
+		}
+
+		ServerConfig serverConfig = api.getServerConfiguration();
+		String authToken =
+			api.getAuthenticationToken(
+				adminUsername,
+				adminPassword,
+				Controller.CLIENT);
+
+		try {
+			System.out.println("Seeding " + numClients + " users.");
+			LoadDataSet dataSet =
+				LoadDataSet.create(api, authToken, numClients, new Random(seed));
+
+			long start = System.currentTimeMillis();
+			long warmUpEnd = start + (warmUp * 1000L);
+			long end = warmUpEnd + (duration * 1000L);
+
+			System.out.println(
+				"Running " + numClients + " clients for " + warmUp +
+					" seconds of warm-up and " + duration + " seconds.");
+			List<VirtualClient> clients =
+				new ArrayList<VirtualClient>(numClients);
+			List<Thread> threads = new ArrayList<Thread>(numClients);
+			for(int i = 0; i < numClients; i++) {
+				VirtualClient client =
+					new VirtualClient(
+						api,
+						dataSet,
+						dataSet.getUsers().get(i),
+						mix,
+						seed + i,
+						warmUpEnd,
+						end,
+						thinkTime);
+				clients.add(client);
+
+				Thread thread = new Thread(client, "load-client-" + i);
+				threads.add(thread);
+				thread.start();
+			}
+			for(Thread thread : threads) {
+				thread.join();
+			}
+
+			Map<Operation, OperationStats> stats =
+				new EnumMap<Operation, OperationStats>(Operation.class);
+			OperationStats total = new OperationStats();
+			for(Operation operation : mix.keySet()) {
+				OperationStats operationStats = new OperationStats();
+				for(VirtualClient client : clients) {
+					operationStats.merge(client.getStats().get(operation));
+				}
+				stats.put(operation, operationStats);
+				total.merge(operationStats);
+			}
+
+			JSONObject results =
+				getResults(serverConfig, stats, total, duration * 1000L);
+			printResults(results);
+
+			if(resultsFile != null) {
+				OutputStream output = new FileOutputStream(resultsFile);
+				try {
+					output.write(results.toString(4).getBytes("UTF-8"));
+				}
+				finally {
+					output.close();
+				}
+				System.out.println("Wrote the results to: " + resultsFile);
+			}
+
+			if(baselineFile != null) {
+				InputStream input = new FileInputStream(baselineFile);
+				try {
+					printComparison(
+						new JSONObject(IOUtils.toString(input, "UTF-8")),
+						results);
+				}
+				finally {
+					input.close();
+				}
+			}
+		}
+		finally {
+			System.out.println("Deleting the data.");
+			LoadDataSet.delete(api, authToken, numClients);
+		}
+	}
+
+	/**
+	 * Builds the results of a run.
+	 *
+	 * @param serverConfig The server's configuration.
+	 *
+	 * @param stats The statistics for each operation.
+	 *
+	 * @param total The statistics for all of the operations together.
+	 *
+	 * @param durationMillis How long the measurement lasted.
+	 *
+	 * @return The results.
+	 *
+	 * @throws JSONException There was an error building the JSON.
+	 */
+	private static JSONObject getResults(
+			final ServerConfig serverConfig,
+			final Map<Operation, OperationStats> stats,
+			final OperationStats total,
+			final long durationMillis)
+			throws JSONException {
+
+		JSONObject server = new JSONObject();
+		server.put("name", serverConfig.getAppName());
+		server.put("version", serverConfig.getAppVersion());
+		server.put("build", serverConfig.getAppBuild());
+
+		JSONObject mixJson = new JSONObject();
+		for(Operation operation : mix.keySet()) {
+			mixJson.put(operation.getKey(), mix.get(operation));
+		}
+
+		JSONObject configuration = new JSONObject();
+		configuration.put("clients", numClients);
+		configuration.put("duration", duration);
+		configuration.put("warm_up", warmUp);
+		configuration.put("think_time", thinkTime);
+		configuration.put("seed", seed);
+		configuration.put("mix", mixJson);
+
+		JSONObject operations = new JSONObject();
+		for(Operation operation : stats.keySet()) {
+			operations.put(
+				operation.getKey(),
+				stats.get(operation).toJson(durationMillis));
+		}
+
+		JSONObject result = new JSONObject();
+		result.put(JSON_KEY_SERVER, server);
+		result.put(JSON_KEY_CONFIGURATION, configuration);
+		result.put(JSON_KEY_OPERATIONS, operations);
+		result.put(JSON_KEY_TOTAL, total.toJson(durationMillis));
+		return result;
+	}
+
+	/**
+	 * Prints the results as a table.
+	 *
+	 * @param results The results.
+	 *
+	 * @throws JSONException The results were malformed.
+	 */
+	private static void printResults(
+			final JSONObject results)
+			throws JSONException {
+
+		System.out.println(
+			String.format(
+				"%-15s %8s %7s %9s %9s %9s %9s %9s %9s",
+				"operation", "count", "errors", "req/s",
+				"mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+
+		JSONObject operations = results.getJSONObject(JSON_KEY_OPERATIONS);
+		for(Operation operation : mix.keySet()) {
+			printRow(
+				operation.getKey(),
+				operations.getJSONObject(operation.getKey()));
+		}
+		printRow(JSON_KEY_TOTAL, results.getJSONObject(JSON_KEY_TOTAL));
+
+		for(Operation operation : mix.keySet()) {
+			JSONObject operationResults =
+				operations.getJSONObject(operation.getKey());
+			if(operationResults.has("first_error")) {
+				System.out.println(
+					"First " + operation.getKey() + " error: " +
+						operationResults.getString("first_error"));
+			}
+		}
+	}
+
+	/**
+	 * Prints one row of the results table.
+	 */
+	private static void printRow(
+			final String name,
+			final JSONObject stats)
+			throws JSONException {
+
+		JSONObject latency = stats.getJSONObject("latency_ms");
+		System.out.println(
+			String.format(
+				"%-15s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f",
+				name,
+				stats.getLong("count"),
+				stats.getLong("errors"),
+				stats.getDouble("throughput"),
+				latency.getDouble("mean"),
+				latency.getDouble("p50"),
+				latency.getDouble("p90"),
+				latency.getDouble("p99"),
+				latency.getDouble("max")));
+	}
+
+	/**
+	 * Prints the change in each operation's throughput and 99th percentile
+	 * latency from a previous run.
+	 *
+	 * @param baseline The previous run's results.
+	 *
+	 * @param results This run's results.
+	 *
+	 * @throws JSONException Either of the results were malformed.
+	 */
+	private static void printComparison(
+			final JSONObject baseline,
+			final JSONObject results)
+			throws JSONException {
+
+		if(! baseline.getJSONObject(JSON_KEY_CONFIGURATION).toString().equals(
+				results.getJSONObject(JSON_KEY_CONFIGURATION).toString())) {
+
+			System.out.println(
+				"Warning: The baseline was run with a different configuration: " +
+					baseline.getJSONObject(JSON_KEY_CONFIGURATION));
+		}
+
+		System.out.println(
+			"Compared to " +
+				baseline.getJSONObject(JSON_KEY_SERVER).optString("version") +
+				" (" +
+				baseline.getJSONObject(JSON_KEY_SERVER).optString("build") +
+				"):");
+		System.out.println(
+			String.format(
+				"%-15s %12s %12s",
+				"operation", "req/s", "p99 ms"));
+
+		Map<String, JSONObject> current =
+			new LinkedHashMap<String, JSONObject>();
+		JSONObject operations = results.getJSONObject(JSON_KEY_OPERATIONS);
+		Iterator<?> keys = operations.keys();
+		while(keys.hasNext()) {
+			String key = (String) keys.next();
+			current.put(key, operations.getJSONObject(key));
+		}
+		current.put(JSON_KEY_TOTAL, results.getJSONObject(JSON_KEY_TOTAL));
+
+		JSONObject baselineOperations =
+			baseline.getJSONObject(JSON_KEY_OPERATIONS);
+		for(String key : current.keySet()) {
+			JSONObject before =
+				JSON_KEY_TOTAL.equals(key) ?
+					baseline.getJSONObject(JSON_KEY_TOTAL) :
+					baselineOperations.optJSONObject(key);
+			if(before == null) {
+				System.out.println(String.format("%-15s %12s", key, "new"));
+				continue;
+			}
+			JSONObject after = current.get(key);
+
+			System.out.println(
+				String.format(
+					"%-15s %12s %12s",
+					key,
+					getChange(
+						before.getDouble("throughput"),
+						after.getDouble("throughput")),
+					getChange(
+						before.getJSONObject("latency_ms").getDouble("p99"),
+						after.getJSONObject("latency_ms").getDouble("p99"))));
+		}
+	}
+
+	/**
+	 * Formats the relative change between two values.
+	 */
+	private static String getChange(final double before, final double after) {
+		if(before == 0) {
+			return "n/a";
+		}
+		return String.format("%+.1f%%", ((after - before) / before) * 100);
+	}
+
+	/**
+	 * Parses the mix, e.g. "survey_upload=20,survey_read=80".
+	 *
+	 * @param value The mix.
+	 *
+	 * @return The weight of each operation, in the order given.
+	 *
+	 * @throws IllegalArgumentException The mix was malformed, an operation
+	 * 									was unknown, or a weight was not
+	 * 									positive.
+	 */
+	private static Map<Operation, Integer> parseMix(final String value) {
+		Map<Operation, Integer> result =
+			new LinkedHashMap<Operation, Integer>();
+		for(String entry : value.split(",")) {
+			String[] parts = entry.split("=");
+			if(parts.length != 2) {
+				throw new IllegalArgumentException(
+					"The mix entry is not of the form operation=weight: " +
+						entry);
+			}
+
+			int weight;
+			try {
+				weight = Integer.decode(parts[1].trim());
+			}
+			catch(NumberFormatException e) {
+				throw new IllegalArgumentException(
+					"The weight is not a number: " + parts[1],
+					e);
+			}
+			if(weight <= 0) {
+				throw new IllegalArgumentException(
+					"The weight must be positive: " + entry);
+			}
+
+			result.put(Operation.getValue(parts[0].trim()), weight);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses the arguments and creates the server connection.
+	 *
+	 * @param args The arguments as defined in {@link #printUsage()}.
+	 *
+	 * @return The server connection or null if the arguments were invalid.
+	 */
+	private static OhmageApi parseArguments(final String[] args) {
+		String address = null;
+		Integer port = null;
+		boolean secure = false;
+		String mixValue = DEFAULT_MIX;
+
+		for(int i = 0; i < args.length; i++) {
+			if("-d".equals(args[i]) || "--domain".equals(args[i])){
+				if(args.length <= i+1) {
+					System.out.println("The domain is missing.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				address = args[i];
+			}
+			else if("-u".equals(args[i]) || "--username".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The admin username is missing.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				adminUsername = args[i];
+			}
+			else if("-p".equals(args[i]) || "--password".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The admin password is missing.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				adminPassword = args[i];
+			}
+			else if("-o".equals(args[i]) || "--port".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The port flag was set, but the port was not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					port = new Integer(Short.decode(args[i]));
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The port is not a valid port number.");
+					printUsage();
+					return null;
+				}
+			}
+			else if("-s".equals(args[i]) || "--secure".equals(args[i])) {
+				secure = true;
+			}
+			else if("-c".equals(args[i]) || "--clients".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The clients flag was set, but the number was not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					numClients = Integer.decode(args[i]);
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The number of clients is not a number.");
+					printUsage();
+					return null;
+				}
+			}
+			else if("-t".equals(args[i]) || "--duration".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The duration flag was set, but the duration was not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					duration = Integer.decode(args[i]);
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The duration is not a number.");
+					printUsage();
+					return null;
+				}
+			}
+			else if("-w".equals(args[i]) || "--warm-up".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The warm-up flag was set, but the warm-up was not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					warmUp = Integer.decode(args[i]);
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The warm-up is not a number.");
+					printUsage();
+					return null;
+				}
+			}
+			else if("-k".equals(args[i]) || "--think-time".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The think time flag was set, but the think time was not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					thinkTime = Long.decode(args[i]);
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The think time is not a number.");
+					printUsage();
+					return null;
+				}
+			}
+			else if("-r".equals(args[i]) || "--seed".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The seed flag was set, but the seed was not given.");
+					printUsage();
+					return null;
+				}
+
+				try {
+					i++;
+					seed = Long.decode(args[i]);
+				}
+				catch(NumberFormatException e) {
+					System.out.println("The seed is not a number.");
+					printUsage();
+					return null;
+				}
+			}
+			else if("-m".equals(args[i]) || "--mix".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The mix flag was set, but the mix was not given.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				mixValue = args[i];
+			}
+			else if("-f".equals(args[i]) || "--results".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The results flag was set, but the file was not given.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				resultsFile = new File(args[i]);
+			}
+			else if("-b".equals(args[i]) || "--baseline".equals(args[i])) {
+				if(args.length <= i+1) {
+					System.out.println("The baseline flag was set, but the file was not given.");
+					printUsage();
+					return null;
+				}
+
+				i++;
+				baselineFile = new File(args[i]);
+			}
+		}
+
+		try {
+			mix = parseMix(mixValue);
+		}
+		catch(IllegalArgumentException e) {
+			System.out.println("The mix is invalid: " + e.getMessage());
+			printUsage();
+			return null;
+		}
+
+		if(address == null) {
+			System.out.println("The server domain is missing.");
+			printUsage();
+			return null;
+		}
+		else if(adminUsername == null) {
+			System.out.println("The admin username is missing.");
+			printUsage();
+			return null;
+		}
+		else if(adminPassword == null) {
+			System.out.println("The admin password is missing.");
+			printUsage();
+			return null;
+		}
+		else if(numClients <= 0) {
+			System.out.println("The number of clients must be positive.");
+			printUsage();
+			return null;
+		}
+		else if((duration <= 0) || (warmUp < 0) || (thinkTime < 0)) {
+			System.out.println("The duration must be positive and the warm-up and think time cannot be negative.");
+			printUsage();
+			return null;
+		}
+		else if((baselineFile != null) && (! baselineFile.isFile())) {
+			System.out.println("The baseline file does not exist: " + baselineFile);
+			printUsage();
+			return null;
+		}
+
+		return new OhmageApi(address, port, secure);
+	}
+
+	/**
+	 * Prints the application's usage to the standard output.
+	 */
+	private static void printUsage() {
+		System.out.println("Parameters: (-d | --domain) <server domain> (-u | --username) <admin username> (-p | --password) <admin password> [(-o | --port) <port>] [(-s | --secure)] [(-c | --clients) <number>] [(-t | --duration) <seconds>] [(-w | --warm-up) <seconds>] [(-k | --think-time) <milliseconds>] [(-r | --seed) <number>] [(-m | --mix) <operation=weight,...>] [(-f | --results) <file>] [(-b | --baseline) <file>]");
+		System.out.println("Operations: survey_upload, stream_upload, survey_read, mobility_read, image_read");
+	}
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.test.load;
+
+/**
+ * The kinds of requests that the virtual clients make.
+ */
+public enum Operation {
+	SURVEY_UPLOAD ("survey_upload"),
+	STREAM_UPLOAD ("stream_upload"),
+	SURVEY_READ ("survey_read"),
+	MOBILITY_READ ("mobility_read"),
+	IMAGE_READ ("image_read");
+
+	private final String key;
+
+	/**
+	 * Creates an operation with the key used to refer to it on the command
+	 * line and in the results.
+	 *
+	 * @param key The key.
+	 */
+	private Operation(final String key) {
+		this.key = key;
+	}
+
+	/**
+	 * Returns the key used to refer to this operation.
+	 *
+	 * @return The key.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the operation with the given key.
+	 *
+	 * @param key The key.
+	 *
+	 * @return The operation.
+	 *
+	 * @throws IllegalArgumentException No operation has the given key.
+	 */
+	public static Operation getValue(final String key) {
+		for(Operation operation : values()) {
+			if(operation.key.equals(key)) {
+				return operation;
+			}
+		}
+
+		throw new IllegalArgumentException("The operation is unknown: " + key);
+	}
+
+	/**
+	 * Returns the key used to refer to this operation.
+	 *
+	 * @return The key.
+	 */
+	@Override
+	public String toString() {
+		return key;
+	}
+}
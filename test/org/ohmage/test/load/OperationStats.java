@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.test.load;
+
+import java.util.Arrays;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The latencies and errors of one kind of request. Each virtual client keeps
+ * its own, so recording never contends, and they are merged once the run is
+ * over.
+ */
+public class OperationStats {
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private long[] latencies = new long[INITIAL_CAPACITY];
+	private int count = 0;
+	private long errors = 0;
+	private String firstError = null;
+
+	/**
+	 * Records a successful request.
+	 *
+	 * @param latencyMicros How long the request took in microseconds.
+	 */
+	public void recordSuccess(final long latencyMicros) {
+		if(count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = latencyMicros;
+	}
+
+	/**
+	 * Records a failed request.
+	 *
+	 * @param message Why the request failed.
+	 */
+	public void recordError(final String message) {
+		if(firstError == null) {
+			firstError = message;
+		}
+		errors++;
+	}
+
+	/**
+	 * Adds another client's results to these.
+	 *
+	 * @param other The other client's results.
+	 */
+	public void merge(final OperationStats other) {
+		for(int i = 0; i < other.count; i++) {
+			recordSuccess(other.latencies[i]);
+		}
+		if(firstError == null) {
+			firstError = other.firstError;
+		}
+		errors += other.errors;
+	}
+
+	/**
+	 * Returns the number of successful requests.
+	 *
+	 * @return The number of successful requests.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of failed requests.
+	 *
+	 * @return The number of failed requests.
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Returns the reason the first failed request failed.
+	 *
+	 * @return The reason or null if no request failed.
+	 */
+	public String getFirstError() {
+		return firstError;
+	}
+
+	/**
+	 * Summarizes the results. This sorts the latencies, so no more requests
+	 * should be recorded afterwards.
+	 *
+	 * @param durationMillis How long the measurement lasted.
+	 *
+	 * @return The number of requests, the error rate, the throughput in
+	 * 		   requests per second, and the latency percentiles in
+	 * 		   milliseconds.
+	 *
+	 * @throws JSONException There was an error building the JSON.
+	 */
+	public JSONObject toJson(final long durationMillis) throws JSONException {
+		Arrays.sort(latencies, 0, count);
+
+		long total = 0;
+		for(int i = 0; i < count; i++) {
+			total += latencies[i];
+		}
+
+		JSONObject latency = new JSONObject();
+		latency.put("mean", (count == 0) ? 0 : (total / count) / 1000.0);
+		latency.put("p50", getPercentile(0.50));
+		latency.put("p90", getPercentile(0.90));
+		latency.put("p95", getPercentile(0.95));
+		latency.put("p99", getPercentile(0.99));
+		latency.put("max", (count == 0) ? 0 : latencies[count - 1] / 1000.0);
+
+		long attempts = count + errors;
+
+		JSONObject result = new JSONObject();
+		result.put("count", count);
+		result.put("errors", errors);
+		result.put(
+			"error_rate",
+			(attempts == 0) ? 0 : ((double) errors) / attempts);
+		result.put(
+			"throughput",
+			(durationMillis == 0) ? 0 : (count * 1000.0) / durationMillis);
+		result.put("latency_ms", latency);
+		if(firstError != null) {
+			result.put("first_error", firstError);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a percentile of the sorted latencies using the nearest-rank
+	 * method.
+	 *
+	 * @param percentile The percentile between 0 and 1.
+	 *
+	 * @return The latency in milliseconds.
+	 */
+	private double getPercentile(final double percentile) {
+		if(count == 0) {
+			return 0;
+		}
+
+		int rank = (int) Math.ceil(percentile * count);
+		return latencies[Math.max(rank, 1) - 1] / 1000.0;
+	}
+}
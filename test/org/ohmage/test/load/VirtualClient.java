@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.test.load;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.json.JSONArray;
+import org.ohmage.domain.Image;
+import org.ohmage.domain.campaign.SurveyResponse;
+import org.ohmage.lib.OhmageApi;
+import org.ohmage.lib.exception.ApiException;
+import org.ohmage.test.Controller;
+
+/**
+ * <p>
+ * One simulated user. Until the run ends, it repeatedly picks an operation
+ * at random from the configured mix, makes the request as the user, and
+ * records how long the request took.
+ * </p>
+ *
+ * <p>
+ * Each request's payload is built before its timer starts, so only the
+ * request itself is measured. Requests that finish during the warm-up are
+ * not recorded.
+ * </p>
+ */
+public class VirtualClient implements Runnable {
+	private static final int SURVEY_UPLOAD_SIZE = 5;
+	private static final int STREAM_UPLOAD_SIZE = 50;
+
+	private final OhmageApi api;
+	private final LoadDataSet dataSet;
+	private final LoadDataSet.User user;
+	private final Operation[] operations;
+	private final int[] cumulativeWeights;
+	private final Random random;
+	private final long warmUpEnd;
+	private final long end;
+	private final long thinkTime;
+
+	private final Map<Operation, OperationStats> stats =
+		new EnumMap<Operation, OperationStats>(Operation.class);
+
+	/**
+	 * Creates a virtual client.
+	 *
+	 * @param api The connection to the server.
+	 *
+	 * @param dataSet The seeded data.
+	 *
+	 * @param user The user as whom this client makes its requests.
+	 *
+	 * @param mix The relative weight of each operation.
+	 *
+	 * @param seed The seed for this client's choices and payloads.
+	 *
+	 * @param warmUpEnd The time, in milliseconds since the epoch, after which
+	 * 					requests are recorded.
+	 *
+	 * @param end The time, in milliseconds since the epoch, at which the run
+	 * 			  ends.
+	 *
+	 * @param thinkTime The number of milliseconds to wait between requests.
+	 */
+	public VirtualClient(
+			final OhmageApi api,
+			final LoadDataSet dataSet,
+			final LoadDataSet.User user,
+			final Map<Operation, Integer> mix,
+			final long seed,
+			final long warmUpEnd,
+			final long end,
+			final long thinkTime) {
+
+		this.api = api;
+		this.dataSet = dataSet;
+		this.user = user;
+		this.random = new Random(seed);
+		this.warmUpEnd = warmUpEnd;
+		this.end = end;
+		this.thinkTime = thinkTime;
+
+		operations = new Operation[mix.size()];
+		cumulativeWeights = new int[mix.size()];
+		int total = 0, i = 0;
+		for(Operation operation : mix.keySet()) {
+			total += mix.get(operation);
+			operations[i] = operation;
+			cumulativeWeights[i] = total;
+			i++;
+
+			stats.put(operation, new OperationStats());
+		}
+	}
+
+	/**
+	 * Makes requests until the run ends.
+	 */
+	@Override
+	public void run() {
+		while(System.currentTimeMillis() < end) {
+			Operation operation = chooseOperation();
+			try {
+				perform(operation);
+			}
+			catch(ApiException e) {
+				if(System.currentTimeMillis() >= warmUpEnd) {
+					stats.get(operation).recordError(e.toString());
+				}
+			}
+
+			if(thinkTime > 0) {
+				try {
+					Thread.sleep(thinkTime);
+				}
+				catch(InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the statistics for each operation. This should only be called
+	 * once the client has finished.
+	 *
+	 * @return The statistics for each operation in the mix.
+	 */
+	public Map<Operation, OperationStats> getStats() {
+		return stats;
+	}
+
+	/**
+	 * Picks an operation at random according to the mix's weights.
+	 *
+	 * @return The operation.
+	 */
+	private Operation chooseOperation() {
+		int value =
+			random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		for(int i = 0; i < cumulativeWeights.length; i++) {
+			if(value < cumulativeWeights[i]) {
+				return operations[i];
+			}
+		}
+		return operations[operations.length - 1];
+	}
+
+	/**
+	 * Builds the payload for an operation, makes the request, and records
+	 * its latency.
+	 *
+	 * @param operation The operation to perform.
+	 *
+	 * @throws ApiException The request failed.
+	 */
+	private void perform(final Operation operation) throws ApiException {
+		long start;
+		switch(operation) {
+		case SURVEY_UPLOAD:
+			Map<UUID, byte[]> images = new HashMap<UUID, byte[]>();
+			JSONArray surveyResponses =
+				dataSet.getSurveyResponses(
+					random,
+					SURVEY_UPLOAD_SIZE,
+					System.currentTimeMillis(),
+					images);
+
+			start = System.nanoTime();
+			api.uploadSurveyResponses(
+				user.getUsername(),
+				user.getHashedPassword(),
+				Controller.CLIENT,
+				LoadDataSet.CAMPAIGN_ID,
+				dataSet.getCampaignCreationTimestamp(),
+				surveyResponses,
+				images);
+			record(operation, start);
+
+			user.getImageIds().addAll(images.keySet());
+			break;
+
+		case STREAM_UPLOAD:
+			JSONArray data =
+				dataSet.getStreamData(
+					random,
+					STREAM_UPLOAD_SIZE,
+					System.currentTimeMillis());
+
+			start = System.nanoTime();
+			api.uploadStreamData(
+				user.getUsername(),
+				user.getHashedPassword(),
+				Controller.CLIENT,
+				LoadDataSet.OBSERVER_ID,
+				LoadDataSet.OBSERVER_VERSION,
+				data);
+			record(operation, start);
+			break;
+
+		case SURVEY_READ:
+			start = System.nanoTime();
+			api.getSurveyResponsesJsonRows(
+				user.getAuthToken(),
+				null,
+				null,
+				Controller.CLIENT,
+				LoadDataSet.CAMPAIGN_ID,
+				Collections.singletonList(user.getUsername()),
+				Collections.<SurveyResponse.ColumnKey>emptyList(),
+				Collections.<String>emptyList(),
+				null,
+				LoadDataSet.SEED_DAY,
+				LoadDataSet.SEED_DAY.plusDays(1),
+				null,
+				null,
+				null,
+				null);
+			record(operation, start);
+			break;
+
+		case MOBILITY_READ:
+			start = System.nanoTime();
+			api.readMobilityPoints(
+				user.getAuthToken(),
+				null,
+				null,
+				Controller.CLIENT,
+				LoadDataSet.SEED_DAY);
+			record(operation, start);
+			break;
+
+		case IMAGE_READ:
+			List<UUID> imageIds = user.getImageIds();
+			UUID imageId = imageIds.get(random.nextInt(imageIds.size()));
+			Image.Size size =
+				random.nextBoolean() ? Image.ORIGINAL : Image.SMALL;
+
+			start = System.nanoTime();
+			api.getImage(
+				user.getAuthToken(),
+				Controller.CLIENT,
+				imageId,
+				size);
+			record(operation, start);
+			break;
+
+		default:
+			throw new IllegalStateException(
+				"The operation is unknown: " + operation);
+		}
+	}
+
+	/**
+	 * Records a successful request if the warm-up is over.
+	 *
+	 * @param operation The operation.
+	 *
+	 * @param start The value of {@link System#nanoTime()} when the request
+	 * 				was made.
+	 */
+	private void record(final Operation operation, final long start) {
+		long latency = (System.nanoTime() - start) / 1000;
+		if(System.currentTimeMillis() >= warmUpEnd) {
+			stats.get(operation).recordSuccess(latency);
+		}
+	}
+}
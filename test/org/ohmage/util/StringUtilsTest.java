@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2012 The Regents of the University of California
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.ohmage.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the words that the prompt response search index is built from.
+ */
+public class StringUtilsTest extends TestCase {
+	/**
+	 * Tests that strings without words have no words.
+	 */
+	@Test
+	public void testNoWords() {
+		Assert.assertTrue(StringUtils.getSearchWords(null).isEmpty());
+		Assert.assertTrue(StringUtils.getSearchWords("").isEmpty());
+		Assert.assertTrue(StringUtils.getSearchWords(" \t\n").isEmpty());
+		Assert.assertTrue(StringUtils.getSearchWords("%_\\ -- !?").isEmpty());
+	}
+	
+	/**
+	 * Tests that words are split on everything but letters and digits and
+	 * are lower-cased.
+	 */
+	@Test
+	public void testSplitting() {
+		assertWords(
+			"Hello, World! Hello again.", 
+			"hello", "world", "again");
+		assertWords(
+			"it's 10:30_am 50%off", 
+			"it", "s", "10", "30", "am", "50", "off");
+		assertWords("HELLO hello HeLLo", "hello");
+	}
+	
+	/**
+	 * Tests that letters and digits from other scripts are part of words.
+	 */
+	@Test
+	public void testUnicode() {
+		assertWords(
+			"Größe ÉCOLE café", 
+			"größe", "école", "café");
+		assertWords("Привет, мир", "привет", "мир");
+		assertWords("東京 ٣٤٥", "東京", "٣٤٥");
+	}
+	
+	/**
+	 * Tests that characters outside of the Basic Multilingual Plane separate
+	 * words.
+	 */
+	@Test
+	public void testSupplementaryCharacters() {
+		assertWords(
+			"good😀day 𝐀𝐁 😀", 
+			"good", "day");
+	}
+	
+	/**
+	 * Tests that long words are truncated and that words that only differ
+	 * after the truncation become the same word.
+	 */
+	@Test
+	public void testTruncation() {
+		StringBuilder longWord = new StringBuilder();
+		for(int i = 0; i < StringUtils.MAX_SEARCH_WORD_LENGTH; i++) {
+			longWord.append('é');
+		}
+		String truncated = longWord.toString();
+		
+		assertWords(truncated, truncated);
+		assertWords(
+			truncated + "abc " + truncated.toUpperCase() + "xyz", 
+			truncated);
+	}
+	
+	/**
+	 * Asserts that a string has exactly the given search words.
+	 */
+	private static void assertWords(
+			final String string, 
+			final String... words) {
+		
+		Set<String> expected = new HashSet<String>(Arrays.asList(words));
+		Assert.assertEquals(expected, StringUtils.getSearchWords(string));
+	}
+}
@@ -308,4 +308,30 @@ public class AuditValidatorsTest extends TestCase {
 			fail("A validation exception was thrown: " + e.getMessage());
 		}
 	}
+
+	/**
+	 * Tests the aggregate validator.
+	 */
+	@Test
+	public void testValidateAggregate() {
+		try {
+			for(String emptyValue : ParameterSets.getEmptyValues()) {
+				Assert.assertNull(AuditValidators.validateAggregate(emptyValue));
+			}
+			
+			try {
+				AuditValidators.validateAggregate("Invalid value.");
+				fail("The aggregate value was an invalid value.");
+			}
+			catch(ValidationException e) { 
+				// Passed.
+			}
+			
+			Assert.assertEquals(true, AuditValidators.validateAggregate("true"));
+			Assert.assertEquals(false, AuditValidators.validateAggregate("false"));
+		}
+		catch(ValidationException e) {
+			fail("A validation exception was thrown: " + e.getMessage());
+		}
+	}
 }
@@ -15,12 +15,15 @@
  ******************************************************************************/
 package org.ohmage.validator;
 
+import java.io.UnsupportedEncodingException;
+import java.util.List;
 import java.util.Map;
 
 import junit.framework.TestCase;
 
 import org.joda.time.DateTime;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Assert;
 import org.junit.Test;
@@ -381,4 +384,45 @@ public class CampaignValidatorsTest extends TestCase {
 			fail("A validation exception was thrown: " + e.getMessage());
 		}
 	}
+
+	/**
+	 * Test the uploaded JSON validator with the raw bytes of the upload.
+	 */
+	@Test
+	public void testValidateUploadedJsonBytes() {
+		try {
+			Assert.assertNull(CampaignValidators.validateUploadedJson((byte[]) null));
+			Assert.assertNull(CampaignValidators.validateUploadedJson(" \n\t".getBytes("UTF-8")));
+
+			for(String invalidValue : new String[] { "Invalid value.", "{}", "[1]", "[{\"a\":1,\"a\":2}]", "[{}" }) {
+				try {
+					CampaignValidators.validateUploadedJson(invalidValue.getBytes("UTF-8"));
+					fail("The uploaded JSON was invalid: " + invalidValue);
+				}
+				catch(ValidationException e) {
+					// Passed.
+				}
+			}
+			
+			List<JSONObject> result = 
+					CampaignValidators.validateUploadedJson(
+							"[{\"id\":\"first\",\"time\":1347400000000,\"location\":{\"accuracy\":10.5},\"responses\":[1,null,true]},{\"id\":\"second\"}]".getBytes("UTF-8"));
+			Assert.assertEquals(2, result.size());
+			Assert.assertEquals("first", result.get(0).getString("id"));
+			Assert.assertEquals(1347400000000L, result.get(0).get("time"));
+			Assert.assertEquals(10.5, result.get(0).getJSONObject("location").get("accuracy"));
+			Assert.assertEquals(1, result.get(0).getJSONArray("responses").get(0));
+			Assert.assertTrue(result.get(0).getJSONArray("responses").isNull(1));
+			Assert.assertEquals("second", result.get(1).getString("id"));
+		}
+		catch(ValidationException e) {
+			fail("A validation exception was thrown: " + e.getMessage());
+		}
+		catch(JSONException e) {
+			fail("The parsed JSON was not as expected: " + e.getMessage());
+		}
+		catch(UnsupportedEncodingException e) {
+			fail("UTF-8 is not supported: " + e.getMessage());
+		}
+	}
 }
@@ -116,6 +116,111 @@ public class SurveyResponseValidatorsTest extends TestCase {
 		}
 	}
 
+	/**
+	 * Tests the survey response ID list validator with a maximum number of
+	 * IDs.
+	 */
+	@Test
+	public void testValidateSurveyResponseIdsWithMax() {
+		try {
+			for(String emptyValue : ParameterSets.getEmptyValues()) {
+				Assert.assertNull(SurveyResponseValidators.validateSurveyResponseIds(emptyValue, 1));
+			}
+			
+			StringBuilder builder = new StringBuilder();
+			for(int i = 0; i < 1000; i++) {
+				if(i > 0) {
+					builder.append(InputKeys.LIST_ITEM_SEPARATOR);
+				}
+				builder.append(UUID.randomUUID().toString());
+			}
+			String ids = builder.toString();
+			Assert.assertEquals(1000, SurveyResponseValidators.validateSurveyResponseIds(ids, 1000).size());
+			
+			// Repeated IDs only count once.
+			String duplicate = 
+					ids + 
+					InputKeys.LIST_ITEM_SEPARATOR + 
+					ids.substring(0, ids.indexOf(InputKeys.LIST_ITEM_SEPARATOR));
+			Assert.assertEquals(1000, SurveyResponseValidators.validateSurveyResponseIds(duplicate, 1000).size());
+			
+			try {
+				SurveyResponseValidators.validateSurveyResponseIds(
+						ids + InputKeys.LIST_ITEM_SEPARATOR + UUID.randomUUID().toString(),
+						1000);
+				fail("More than the maximum number of IDs were given.");
+			}
+			catch(ValidationException e) {
+				Assert.assertTrue(e.getMessage().startsWith("More than 1000 "));
+			}
+		}
+		catch(ValidationException e) {
+			fail("A validation exception was thrown: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Tests the validator that survey responses are selected either by their
+	 * IDs or by their campaign and that dates are only given with a campaign.
+	 */
+	@Test
+	public void testValidateSurveyResponseSelection() {
+		Set<UUID> ids = new HashSet<UUID>(Arrays.asList(UUID.randomUUID()));
+		String campaignId = "urn:campaign:test";
+		DateTime date = new DateTime();
+		
+		try {
+			SurveyResponseValidators.validateSurveyResponseSelection(ids, null, null, null);
+			SurveyResponseValidators.validateSurveyResponseSelection(null, campaignId, null, null);
+			SurveyResponseValidators.validateSurveyResponseSelection(new HashSet<UUID>(), campaignId, date, date);
+			SurveyResponseValidators.validateSurveyResponseSelection(null, campaignId, date, null);
+			SurveyResponseValidators.validateSurveyResponseSelection(null, campaignId, null, date);
+		}
+		catch(ValidationException e) {
+			fail("A valid selection failed validation: " + e.getMessage());
+		}
+		
+		try {
+			SurveyResponseValidators.validateSurveyResponseSelection(null, null, null, null);
+			fail("Neither the IDs nor the campaign were given.");
+		}
+		catch(ValidationException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Either "));
+		}
+		
+		try {
+			SurveyResponseValidators.validateSurveyResponseSelection(new HashSet<UUID>(), null, null, null);
+			fail("The IDs were empty and the campaign was not given.");
+		}
+		catch(ValidationException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Either "));
+		}
+		
+		try {
+			SurveyResponseValidators.validateSurveyResponseSelection(ids, campaignId, null, null);
+			fail("Both the IDs and the campaign were given.");
+		}
+		catch(ValidationException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Only one "));
+		}
+		
+		try {
+			SurveyResponseValidators.validateSurveyResponseSelection(ids, null, date, null);
+			fail("A start date was given without a campaign.");
+		}
+		catch(ValidationException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Dates "));
+		}
+		
+		try {
+			SurveyResponseValidators.validateSurveyResponseSelection(ids, null, null, date);
+			fail("An end date was given without a campaign.");
+		}
+		catch(ValidationException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Dates "));
+		}
+	}
+
 	/**
 	 * Tests the privacy state validator.
 	 */
@@ -22,6 +22,7 @@ import junit.framework.TestCase;
 import org.joda.time.DateTime;
 import org.junit.Assert;
 import org.junit.Test;
+import org.ohmage.domain.BarChart;
 import org.ohmage.exception.ValidationException;
 import org.ohmage.test.ParameterSets;
 
@@ -199,4 +200,30 @@ public class VisualizationValidatorsTest extends TestCase {
 			fail("A validation exception was thrown: " + e.getMessage());
 		}
 	}
+	
+	/**
+	 * Tests the output format validator.
+	 */
+	@Test
+	public void testValidateOutputFormat() {
+		try {
+			for(String emptyValue : ParameterSets.getEmptyValues()) {
+				Assert.assertNull(VisualizationValidators.validateOutputFormat(emptyValue));
+			}
+			
+			try {
+				VisualizationValidators.validateOutputFormat("Invalid value.");
+				fail("The output format was an invalid value.");
+			}
+			catch(ValidationException e) {
+				// Passed.
+			}
+			
+			Assert.assertEquals(BarChart.OutputFormat.PNG, VisualizationValidators.validateOutputFormat("png"));
+			Assert.assertEquals(BarChart.OutputFormat.JSON, VisualizationValidators.validateOutputFormat(" JSON "));
+		}
+		catch(ValidationException e) {
+			fail("A validation exception was thrown: " + e.getMessage());
+		}
+	}
 }